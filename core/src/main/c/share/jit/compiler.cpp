@@ -73,6 +73,7 @@ struct Function {
         uint32_t type_size = (options >> 1) & 7; // 0 - 1B, 1 - 2B, 2 - 4B, 3 - 8B, 4 - 16B
         uint32_t exec_hint = (options >> 4) & 3; // 0 - scalar, 1 - single size type, 2 - mixed size types, ...
         bool null_check = (options >> 6) & 1; // 1 - with null check
+        projection = (options >> 7) & 1; // 1 - store expression values instead of filtered row ids
         int unroll_factor = 1;
         if (exec_hint == single_size && features.hasAVX2()) {
             auto step = 256 / ((1 << type_size) * 8);
@@ -83,6 +84,29 @@ struct Function {
         }
     };
 
+    // Stores a scalar projection value into the output vector at the input_index position.
+    void store_value(const jit_value_t &v) {
+        auto value = questdb::x86::load_register(c, v);
+        switch (value.dtype()) {
+            case data_type_t::i8:
+            case data_type_t::i16:
+            case data_type_t::i32:
+                c.mov(dword_ptr(rows_ptr, input_index, 2), value.gp().r32());
+                break;
+            case data_type_t::f32:
+                c.movss(dword_ptr(rows_ptr, input_index, 2), value.xmm());
+                break;
+            case data_type_t::i64:
+                c.mov(qword_ptr(rows_ptr, input_index, 3), value.gp());
+                break;
+            case data_type_t::f64:
+                c.movsd(qword_ptr(rows_ptr, input_index, 3), value.xmm());
+                break;
+            default:
+                __builtin_unreachable();
+        }
+    }
+
     void scalar_tail(const instruction_t *istream, size_t size, bool null_check, const x86::Gp &stop, int unroll_factor = 1) {
         Label l_loop = c.newLabel();
         Label l_exit = c.newLabel();
@@ -95,6 +119,12 @@ struct Function {
         for (int i = 0; i < unroll_factor; ++i) {
             questdb::x86::emit_code(c, istream, size, values, null_check, data_ptr, varsize_aux_ptr, vars_ptr, input_index);
 
+            if (projection) {
+                store_value(values.pop());
+                c.add(input_index, 1);
+                continue;
+            }
+
             auto mask = values.pop();
 
             x86::Gp adjusted_id = c.newInt64("input_index_+_rows_id_start_offset");
@@ -104,7 +134,9 @@ struct Function {
             c.and_(mask.gp(), 1);
             c.add(output_index, mask.gp().r64());
         }
-        c.add(input_index, unroll_factor);
+        if (!projection) {
+            c.add(input_index, unroll_factor);
+        }
 
         c.cmp(input_index, stop);
         c.jl(l_loop); // input_index < stop
@@ -121,7 +153,7 @@ struct Function {
         } else {
             scalar_tail(istream, size, null_check, rows_size, 1);
         }
-        c.ret(output_index);
+        c.ret(projection ? input_index : output_index);
     }
 
     void avx2_loop(const instruction_t *istream, size_t size, uint32_t step, bool null_check, int unroll_factor = 1) {
@@ -145,7 +177,7 @@ struct Function {
 
         //mask compress optimization for longs
         //init row_ids_reg out of loop
-        if (step == 4) {
+        if (step == 4 && !projection) {
             int64_t rows_id_mem[4] = {0, 1, 2, 3};
             Mem mem = c.newConst(ConstPool::kScopeLocal, &rows_id_mem, 32);
 
@@ -163,6 +195,13 @@ struct Function {
         for (int i = 0; i < unroll_factor; ++i) {
             questdb::avx2::emit_code(c, istream, size, values, null_check, data_ptr, varsize_aux_ptr, vars_ptr, input_index);
 
+            if (projection) {
+                auto value = values.pop();
+                c.vmovdqu(ymmword_ptr(rows_ptr, input_index, type_shift(value.dtype())), value.ymm());
+                c.add(input_index, step); // index += step
+                continue;
+            }
+
             auto mask = values.pop();
 
             //mask compress optimization for longs
@@ -187,7 +226,7 @@ struct Function {
         c.bind(l_exit);
 
         scalar_tail(istream, size, null_check, rows_size);
-        c.ret(output_index);
+        c.ret(projection ? input_index : output_index);
     }
 
     void begin_fn() {
@@ -245,6 +284,7 @@ struct Function {
     x86::Gp input_index;
     x86::Gp output_index;
     x86::Gp rows_id_start_offset;
+    bool projection = false;
 };
 
 void fillJitErrorObject(JNIEnv *e, jobject error, uint32_t code, const char *msg) {
@@ -338,6 +378,19 @@ Java_io_questdb_jit_FiltersCompiler_freeFunction(JNIEnv *e, jclass cl, jlong fnA
 #endif
 }
 
+// Optional compiler features, one bit per feature. Binaries built before a feature
+// was added don't report it, so the Java side can tell whether it's safe to use.
+static const jint JIT_FEATURE_PROJECTION = 1;
+
+JNIEXPORT jint JNICALL
+Java_io_questdb_jit_FiltersCompiler_getFeatures(JNIEnv *e, jclass cl) {
+#ifndef __aarch64__
+    return JIT_FEATURE_PROJECTION;
+#else
+    return 0;
+#endif
+}
+
 JNIEXPORT jlong JNICALL Java_io_questdb_jit_FiltersCompiler_callFunction(JNIEnv *e,
                                                                          jclass cl,
                                                                          jlong fnAddress,
@@ -38,6 +38,8 @@ JNIEXPORT jlong JNICALL Java_io_questdb_jit_FiltersCompiler_compileFunction(JNIE
 
 JNIEXPORT void JNICALL Java_io_questdb_jit_FiltersCompiler_freeFunction(JNIEnv *e, jclass cl, jlong fnAddress);
 
+JNIEXPORT jint JNICALL Java_io_questdb_jit_FiltersCompiler_getFeatures(JNIEnv *e, jclass cl);
+
 JNIEXPORT jlong JNICALL Java_io_questdb_jit_FiltersCompiler_callFunction(JNIEnv *e,
                                                                          jclass cl,
                                                                          jlong fnAddress,
@@ -45,6 +45,7 @@ import io.questdb.tasks.O3CopyTask;
 import io.questdb.tasks.O3OpenColumnTask;
 import io.questdb.tasks.O3PartitionPurgeTask;
 import io.questdb.tasks.O3PartitionTask;
+import io.questdb.tasks.ParquetPrefetchTask;
 import io.questdb.tasks.TableWriterTask;
 import io.questdb.tasks.VectorAggregateTask;
 import io.questdb.tasks.WalTxnNotificationTask;
@@ -121,6 +122,12 @@ public interface MessageBus extends Closeable {
 
     MCSequence getPageFrameReduceSubSeq(int shard);
 
+    MPSequence getParquetPrefetchPubSeq();
+
+    RingQueue<ParquetPrefetchTask> getParquetPrefetchQueue();
+
+    MCSequence getParquetPrefetchSubSeq();
+
     MPSequence getQueryCacheEventPubSeq();
 
     MCSequence getQueryCacheEventSubSeq();
@@ -47,6 +47,7 @@ import io.questdb.tasks.O3CopyTask;
 import io.questdb.tasks.O3OpenColumnTask;
 import io.questdb.tasks.O3PartitionPurgeTask;
 import io.questdb.tasks.O3PartitionTask;
+import io.questdb.tasks.ParquetPrefetchTask;
 import io.questdb.tasks.TableWriterTask;
 import io.questdb.tasks.VectorAggregateTask;
 import io.questdb.tasks.WalTxnNotificationTask;
@@ -87,6 +88,9 @@ public class MessageBusImpl implements MessageBus {
     private final RingQueue<PageFrameReduceTask>[] pageFrameReduceQueue;
     private final int pageFrameReduceShardCount;
     private final MCSequence[] pageFrameReduceSubSeq;
+    private final MPSequence parquetPrefetchPubSeq;
+    private final RingQueue<ParquetPrefetchTask> parquetPrefetchQueue;
+    private final MCSequence parquetPrefetchSubSeq;
     private final MPSequence queryCacheEventPubSeq;
     private final MCSequence queryCacheEventSubSeq;
     private final ConcurrentQueue<QueryTrace> queryTraceQueue;
@@ -210,6 +214,11 @@ public class MessageBusImpl implements MessageBus {
             this.groupByMergeShardSubSeq = new MCSequence(groupByMergeShardQueue.getCycle());
             groupByMergeShardPubSeq.then(groupByMergeShardSubSeq).then(groupByMergeShardPubSeq);
 
+            this.parquetPrefetchQueue = new RingQueue<>(ParquetPrefetchTask::new, configuration.getSqlParquetPrefetchQueueCapacity());
+            this.parquetPrefetchPubSeq = new MPSequence(parquetPrefetchQueue.getCycle());
+            this.parquetPrefetchSubSeq = new MCSequence(parquetPrefetchQueue.getCycle());
+            parquetPrefetchPubSeq.then(parquetPrefetchSubSeq).then(parquetPrefetchPubSeq);
+
             this.queryCacheEventPubSeq = new MPSequence(configuration.getQueryCacheEventQueueCapacity());
             this.queryCacheEventSubSeq = new MCSequence(configuration.getQueryCacheEventQueueCapacity());
             queryCacheEventPubSeq.then(queryCacheEventSubSeq).then(queryCacheEventPubSeq);
@@ -232,6 +241,7 @@ public class MessageBusImpl implements MessageBus {
         o3OpenColumnSubSeq.clear();
         o3PartitionSubSeq.clear();
         o3PurgeDiscoverySubSeq.clear();
+        parquetPrefetchSubSeq.clear();
         textImportColSeq.clear();
         textImportRequestSubSeq.clear();
         textImportSubSeq.clear();
@@ -430,6 +440,21 @@ public class MessageBusImpl implements MessageBus {
         return pageFrameReduceSubSeq[shard];
     }
 
+    @Override
+    public MPSequence getParquetPrefetchPubSeq() {
+        return parquetPrefetchPubSeq;
+    }
+
+    @Override
+    public RingQueue<ParquetPrefetchTask> getParquetPrefetchQueue() {
+        return parquetPrefetchQueue;
+    }
+
+    @Override
+    public MCSequence getParquetPrefetchSubSeq() {
+        return parquetPrefetchSubSeq;
+    }
+
     @Override
     public MPSequence getQueryCacheEventPubSeq() {
         return queryCacheEventPubSeq;
@@ -158,10 +158,14 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long cairoCommitLatency;
     private final CairoConfiguration cairoConfiguration = new PropCairoConfiguration();
     private final int cairoGroupByMergeShardQueueCapacity;
+    private final boolean cairoGroupByKernelEnabled;
     private final boolean cairoGroupByPresizeEnabled;
     private final long cairoGroupByPresizeMaxCapacity;
     private final long cairoGroupByPresizeMaxHeapSize;
     private final int cairoGroupByShardingThreshold;
+    private final boolean cairoGroupBySpillEnabled;
+    private final String cairoGroupBySpillRoot;
+    private final long cairoGroupBySpillThreshold;
     private final int cairoMaxCrashFiles;
     private final int cairoPageFrameReduceColumnListCapacity;
     private final int cairoPageFrameReduceQueueCapacity;
@@ -255,6 +259,10 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long instanceHashLo;
     private final boolean interruptOnClosedConnection;
     private final boolean ioURingEnabled;
+    private final int ioURingReadAheadChunkSize;
+    private final boolean ioURingReadAheadO3Enabled;
+    private final int ioURingReadAheadQueueDepth;
+    private final boolean ioURingReadAheadScanEnabled;
     private final boolean isQueryTracingEnabled;
     private final boolean isReadOnlyInstance;
     private final int jsonCacheLimit;
@@ -377,6 +385,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlAsOfJoinEvacuationThreshold;
     private final int sqlAsOfJoinLookahead;
     private final int sqlAsOfJoinShortCircuitCacheCapacity;
+    private final int sqlBloomFilterBitsPerValue;
     private final int sqlBindVariablePoolSize;
     private final int sqlCharacterStoreCapacity;
     private final int sqlCharacterStoreSequencePoolCapacity;
@@ -409,6 +418,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlJitIRMemoryMaxPages;
     private final int sqlJitIRMemoryPageSize;
     private final int sqlJitMode;
+    private final boolean sqlJitProjectionEnabled;
     private final int sqlJitPageAddressCacheThreshold;
     private final int sqlJoinContextPoolCapacity;
     private final int sqlJoinMetadataMaxResizes;
@@ -425,13 +435,23 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean sqlOrderBySortEnabled;
     private final int sqlPageFrameMaxRows;
     private final int sqlPageFrameMinRows;
+    private final boolean sqlParallelAsOfJoinEnabled;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
     private final double sqlParallelFilterPreTouchThreshold;
     private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
+    private final boolean sqlParallelOrderByEnabled;
+    private final long sqlParallelOrderBySpillThreshold;
+    private final int sqlParallelTopKMaxLimit;
+    private final boolean sqlParallelWindowEnabled;
+    private final boolean sqlResultCacheEnabled;
+    private final long sqlResultCacheMemoryLimit;
     private final boolean sqlParallelReadParquetEnabled;
     private final int sqlParallelWorkStealingThreshold;
     private final int sqlParquetFrameCacheCapacity;
+    private final int sqlParquetPrefetchQueueCapacity;
+    private final int sqlParquetPrefetchRowGroups;
     private final int sqlQueryRegistryPoolSize;
     private final int sqlRenameTableModelPoolCapacity;
     private final boolean sqlSampleByDefaultAlignment;
@@ -457,6 +477,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlWindowStorePageSize;
     private final int sqlWindowTreeKeyMaxPages;
     private final int sqlWindowTreeKeyPageSize;
+    private final int sqlZoneMapBlockRows;
     private final int sqlWithClauseModelPoolCapacity;
     private final int systemO3ColumnMemorySize;
     private final String systemTableNamePrefix;
@@ -497,6 +518,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int walMaxLagTxnCount;
     private final int walMaxSegmentFileDescriptorsCache;
     private final boolean walParallelExecutionEnabled;
+    private final boolean walParallelMergeEnabled;
     private final long walPurgeInterval;
     private final int walPurgeWaitBeforeDelete;
     private final int walRecreateDistressedSequencerAttempts;
@@ -568,6 +590,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private long lineTcpIOWorkerSleepThreshold;
     private long lineTcpIOWorkerYieldThreshold;
     private long lineTcpMaintenanceInterval;
+    private double lineTcpMaxLoadRatio;
     private int lineTcpMaxMeasurementSize;
     private long lineTcpMaxRecvBufferSize;
     private int lineTcpNetBindIPv4Address;
@@ -641,6 +664,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private long pgWorkerYieldThreshold;
     private long queryTimeout;
     private boolean stringToCharCastAllowed;
+    private int symbolCacheSharedCapacity;
     private long symbolCacheWaitBeforeReload;
     public static final int COLUMN_ALIAS_GENERATED_MAX_SIZE_DEFAULT = 64;
     public static final int COLUMN_ALIAS_GENERATED_MAX_SIZE_MINIMUM = 4;
@@ -829,6 +853,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.legacyCheckpointRoot = new File(installRoot, TableUtils.LEGACY_CHECKPOINT_DIRECTORY).getAbsolutePath();
             tmpRoot = new File(installRoot, TMP_DIRECTORY).getAbsolutePath();
         }
+        this.cairoGroupBySpillRoot = tmpRoot;
 
         String configuredCairoSqlCopyRoot = getString(properties, env, PropertyKey.CAIRO_SQL_COPY_ROOT, "import");
         if (!Chars.empty(configuredCairoSqlCopyRoot)) {
@@ -1398,6 +1423,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlDistinctTimestampLoadFactor = getDouble(properties, env, PropertyKey.CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR, "0.5");
             this.sqlPageFrameMinRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 100_000);
             this.sqlPageFrameMaxRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1_000_000);
+            this.sqlZoneMapBlockRows = Math.max(getInt(properties, env, PropertyKey.CAIRO_SQL_ZONE_MAP_BLOCK_ROWS, 0), 0);
+            this.sqlBloomFilterBitsPerValue = Math.min(Math.max(getInt(properties, env, PropertyKey.CAIRO_SQL_BLOOM_FILTER_BITS_PER_VALUE, 0), 0), 64);
 
             this.sqlJitMode = getSqlJitMode(properties, env);
             this.sqlJitIRMemoryPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE, 8 * 1024);
@@ -1406,6 +1433,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlJitBindVarsMemoryMaxPages = getInt(properties, env, PropertyKey.CAIRO_SQL_JIT_BIND_VARS_MEMORY_MAX_PAGES, 8);
             this.sqlJitPageAddressCacheThreshold = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JIT_PAGE_ADDRESS_CACHE_THRESHOLD, 1024 * 1024);
             this.sqlJitDebugEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_JIT_DEBUG_ENABLED, false);
+            this.sqlJitProjectionEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_JIT_PROJECTION_ENABLED, false);
             this.maxSqlRecompileAttempts = getInt(properties, env, PropertyKey.CAIRO_SQL_MAX_RECOMPILE_ATTEMPTS, 10);
 
             String value = getString(properties, env, PropertyKey.CAIRO_WRITER_FO_OPTS, "o_none");
@@ -1498,6 +1526,10 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.telemetryDbSizeEstimateTimeout = getLong(properties, env, PropertyKey.TELEMETRY_DB_SIZE_ESTIMATE_TIMEOUT, Timestamps.SECOND_MILLIS);
             this.o3PartitionPurgeListCapacity = getInt(properties, env, PropertyKey.CAIRO_O3_PARTITION_PURGE_LIST_INITIAL_CAPACITY, 1);
             this.ioURingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_IO_URING_ENABLED, true);
+            this.ioURingReadAheadScanEnabled = getBoolean(properties, env, PropertyKey.CAIRO_IO_URING_READ_AHEAD_SCAN_ENABLED, false);
+            this.ioURingReadAheadO3Enabled = getBoolean(properties, env, PropertyKey.CAIRO_IO_URING_READ_AHEAD_O3_ENABLED, false);
+            this.ioURingReadAheadQueueDepth = Numbers.ceilPow2(Math.max(1, getInt(properties, env, PropertyKey.CAIRO_IO_URING_READ_AHEAD_QUEUE_DEPTH, 32)));
+            this.ioURingReadAheadChunkSize = Math.max(4 * 1024, getIntSize(properties, env, PropertyKey.CAIRO_IO_URING_READ_AHEAD_CHUNK_SIZE, Numbers.SIZE_1MB));
             this.cairoMaxCrashFiles = getInt(properties, env, PropertyKey.CAIRO_MAX_CRASH_FILES, 100);
             this.o3LastPartitionMaxSplits = Math.max(1, getInt(properties, env, PropertyKey.CAIRO_O3_LAST_PARTITION_MAX_SPLITS, 20));
             this.o3PartitionSplitMinSize = getLongSize(properties, env, PropertyKey.CAIRO_O3_PARTITION_SPLIT_MIN_SIZE, 50 * Numbers.SIZE_1MB);
@@ -1573,6 +1605,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.lineTcpWriterWorkerNapThreshold = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_NAP_THRESHOLD, 7_000);
                 this.lineTcpWriterWorkerSleepThreshold = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_SLEEP_THRESHOLD, 10_000);
                 this.symbolCacheWaitBeforeReload = getMicros(properties, env, PropertyKey.LINE_TCP_SYMBOL_CACHE_WAIT_BEFORE_RELOAD, 500_000);
+                final int symbolCacheSharedCapacity = getInt(properties, env, PropertyKey.LINE_TCP_SYMBOL_CACHE_SHARED_CAPACITY, 0);
+                this.symbolCacheSharedCapacity = symbolCacheSharedCapacity > 0 ? Numbers.ceilPow2(symbolCacheSharedCapacity) : 0;
                 this.lineTcpIOWorkerCount = getInt(properties, env, PropertyKey.LINE_TCP_IO_WORKER_COUNT, cpuIoWorkers);
                 this.lineTcpIOWorkerAffinity = getAffinity(properties, env, PropertyKey.LINE_TCP_IO_WORKER_AFFINITY, lineTcpIOWorkerCount);
                 this.lineTcpIOWorkerPoolHaltOnError = getBoolean(properties, env, PropertyKey.LINE_TCP_IO_HALT_ON_ERROR, false);
@@ -1580,6 +1614,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.lineTcpIOWorkerNapThreshold = getLong(properties, env, PropertyKey.LINE_TCP_IO_WORKER_NAP_THRESHOLD, 7_000);
                 this.lineTcpIOWorkerSleepThreshold = getLong(properties, env, PropertyKey.LINE_TCP_IO_WORKER_SLEEP_THRESHOLD, 10_000);
                 this.lineTcpMaintenanceInterval = getMillis(properties, env, PropertyKey.LINE_TCP_MAINTENANCE_JOB_INTERVAL, 1000);
+                this.lineTcpMaxLoadRatio = getDouble(properties, env, PropertyKey.LINE_TCP_MAX_LOAD_RATIO, "0");
                 this.lineTcpCommitIntervalFraction = getDouble(properties, env, PropertyKey.LINE_TCP_COMMIT_INTERVAL_FRACTION, "0.5");
                 this.lineTcpCommitIntervalDefault = getMillis(properties, env, PropertyKey.LINE_TCP_COMMIT_INTERVAL_DEFAULT, COMMIT_INTERVAL_DEFAULT);
                 if (this.lineTcpCommitIntervalDefault < 1L) {
@@ -1656,9 +1691,12 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.cairoPageFrameReduceQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, defaultReduceQueueCapacity));
             this.cairoGroupByMergeShardQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_MERGE_QUEUE_CAPACITY, defaultReduceQueueCapacity));
             this.cairoGroupByShardingThreshold = getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SHARDING_THRESHOLD, 100_000);
+            this.cairoGroupByKernelEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_KERNEL_ENABLED, false);
             this.cairoGroupByPresizeEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_ENABLED, true);
             this.cairoGroupByPresizeMaxCapacity = getLong(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_CAPACITY, 100_000_000);
             this.cairoGroupByPresizeMaxHeapSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_HEAP_SIZE, Numbers.SIZE_1GB);
+            this.cairoGroupBySpillEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SPILL_ENABLED, false);
+            this.cairoGroupBySpillThreshold = getLongSize(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SPILL_THRESHOLD, Numbers.SIZE_1GB);
             this.cairoPageFrameReduceRowIdListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_ROWID_LIST_CAPACITY, 256));
             this.cairoPageFrameReduceColumnListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY, 16));
             final int defaultReduceShardCount = Math.min(sharedWorkerCount, 4);
@@ -1668,14 +1706,25 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlCopyModelPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_COPY_MODEL_POOL_CAPACITY, 32);
 
             final boolean defaultParallelSqlEnabled = sharedWorkerCount >= 4;
+            this.sqlParallelAsOfJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED, false);
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, defaultParallelSqlEnabled);
             this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelHashJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, false);
+            this.sqlParallelOrderByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, false);
+            this.sqlParallelOrderBySpillThreshold = Math.max(getLongSize(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_SPILL_THRESHOLD, 0), 0);
+            this.sqlParallelTopKMaxLimit = getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_TOP_K_MAX_LIMIT, 100_000);
+            this.sqlParallelWindowEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, false);
+            this.sqlResultCacheEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_ENABLED, false);
+            this.sqlResultCacheMemoryLimit = getLongSize(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_MEMORY_LIMIT, 64 * Numbers.SIZE_1MB);
             this.sqlParallelReadParquetEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_READ_PARQUET_ENABLED, defaultParallelSqlEnabled);
             this.walParallelExecutionEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_APPLY_PARALLEL_SQL_ENABLED, true);
+            this.walParallelMergeEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_APPLY_PARALLEL_MERGE_ENABLED, false);
             this.matViewParallelExecutionEnabled = getBoolean(properties, env, PropertyKey.CAIRO_MAT_VIEW_PARALLEL_SQL_ENABLED, true);
             this.sqlParallelWorkStealingThreshold = getInt(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 16);
             // TODO(puzpuzpuz): consider increasing default Parquet cache capacity
             this.sqlParquetFrameCacheCapacity = Math.max(getInt(properties, env, PropertyKey.CAIRO_SQL_PARQUET_FRAME_CACHE_CAPACITY, 3), 3);
+            this.sqlParquetPrefetchQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_PARQUET_PREFETCH_QUEUE_CAPACITY, defaultReduceQueueCapacity));
+            this.sqlParquetPrefetchRowGroups = Math.max(getInt(properties, env, PropertyKey.CAIRO_SQL_PARQUET_PREFETCH_ROW_GROUPS, 0), 0);
             this.sqlOrderBySortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_ORDER_BY_SORT_ENABLED, true);
             this.sqlOrderByRadixSortThreshold = getInt(properties, env, PropertyKey.CAIRO_SQL_ORDER_BY_RADIX_SORT_THRESHOLD, 600);
             this.writerAsyncCommandBusyWaitTimeout = getMillis(properties, env, PropertyKey.CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT, 500);
@@ -2910,6 +2959,26 @@ public class PropServerConfiguration implements ServerConfiguration {
         }
 
         @Override
+        public CharSequence getGroupBySpillRoot() {
+            return cairoGroupBySpillRoot;
+        }
+
+        @Override
+        public long getGroupBySpillThreshold() {
+            return cairoGroupBySpillThreshold;
+        }
+
+            @Override
+        public int getIOURingReadAheadChunkSize() {
+            return ioURingReadAheadChunkSize;
+        }
+
+        @Override
+        public int getIOURingReadAheadQueueDepth() {
+            return ioURingReadAheadQueueDepth;
+        }
+
+    @Override
         public int getIdGenerateBatchStep() {
             return idGenerateBatchStep;
         }
@@ -3279,6 +3348,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlAsOfJoinShortCircuitCacheCapacity;
         }
 
+        @Override
+        public int getSqlBloomFilterBitsPerValue() {
+            return sqlBloomFilterBitsPerValue;
+        }
+
         @Override
         public int getSqlCharacterStoreCapacity() {
             return sqlCharacterStoreCapacity;
@@ -3459,11 +3533,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMinRows;
         }
 
+        @Override
+        public long getSqlResultCacheMemoryLimit() {
+            return sqlResultCacheMemoryLimit;
+        }
+
         @Override
         public double getSqlParallelFilterPreTouchThreshold() {
             return sqlParallelFilterPreTouchThreshold;
         }
 
+        @Override
+        public long getSqlParallelOrderBySpillThreshold() {
+            return sqlParallelOrderBySpillThreshold;
+        }
+
+        @Override
+        public int getSqlParallelTopKMaxLimit() {
+            return sqlParallelTopKMaxLimit;
+        }
+
         @Override
         public int getSqlParallelWorkStealingThreshold() {
             return sqlParallelWorkStealingThreshold;
@@ -3474,6 +3563,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParquetFrameCacheCapacity;
         }
 
+        @Override
+        public int getSqlParquetPrefetchQueueCapacity() {
+            return sqlParquetPrefetchQueueCapacity;
+        }
+
+        @Override
+        public int getSqlParquetPrefetchRowGroups() {
+            return sqlParquetPrefetchRowGroups;
+        }
+
         @Override
         public int getSqlSmallMapKeyCapacity() {
             return sqlSmallMapKeyCapacity;
@@ -3559,6 +3658,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlWindowTreeKeyPageSize;
         }
 
+        @Override
+        public int getSqlZoneMapBlockRows() {
+            return sqlZoneMapBlockRows;
+        }
+
         @Override
         public int getStrFunctionMaxBufferLength() {
             return sqlStrFunctionBufferMaxSize;
@@ -3769,17 +3873,37 @@ public class PropServerConfiguration implements ServerConfiguration {
             return devModeEnabled;
         }
 
+        @Override
+        public boolean isGroupByKernelEnabled() {
+            return cairoGroupByKernelEnabled;
+        }
+
         @Override
         public boolean isGroupByPresizeEnabled() {
             return cairoGroupByPresizeEnabled;
         }
 
+        @Override
+        public boolean isGroupBySpillEnabled() {
+            return cairoGroupBySpillEnabled;
+        }
+
         @Override
         public boolean isIOURingEnabled() {
             return ioURingEnabled;
         }
 
+            @Override
+        public boolean isIOURingReadAheadO3Enabled() {
+            return ioURingReadAheadO3Enabled;
+        }
+
         @Override
+        public boolean isIOURingReadAheadScanEnabled() {
+            return ioURingReadAheadScanEnabled;
+        }
+
+    @Override
         public boolean isMatViewDebugEnabled() {
             return matViewDebugEnabled;
         }
@@ -3834,11 +3958,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlJitDebugEnabled;
         }
 
+        @Override
+        public boolean isSqlJitProjectionEnabled() {
+            return sqlJitProjectionEnabled;
+        }
+
         @Override
         public boolean isSqlOrderBySortEnabled() {
             return sqlOrderBySortEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelAsOfJoinEnabled() {
+            return sqlParallelAsOfJoinEnabled;
+        }
+
         @Override
         public boolean isSqlParallelFilterEnabled() {
             return sqlParallelFilterEnabled;
@@ -3854,6 +3988,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParallelGroupByEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelOrderByEnabled() {
+            return sqlParallelOrderByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelWindowEnabled() {
+            return sqlParallelWindowEnabled;
+        }
+
+        @Override
+        public boolean isSqlResultCacheEnabled() {
+            return sqlResultCacheEnabled;
+        }
+
         @Override
         public boolean isSqlParallelReadParquetEnabled() {
             return sqlParallelReadParquetEnabled;
@@ -3874,6 +4028,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walApplyEnabled;
         }
 
+        @Override
+        public boolean isWalApplyParallelMergeEnabled() {
+            return walParallelMergeEnabled;
+        }
+
         @Override
         public boolean isWalApplyParallelSqlEnabled() {
             return walParallelExecutionEnabled;
@@ -4701,6 +4860,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return maxFileNameLength;
         }
 
+        @Override
+        public double getMaxLoadRatio() {
+            return lineTcpMaxLoadRatio;
+        }
+
         @Override
         public int getMaxMeasurementSize() {
             return lineTcpMaxMeasurementSize;
@@ -4761,6 +4925,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return -1;
         }
 
+        @Override
+        public int getSymbolCacheSharedCapacity() {
+            return symbolCacheSharedCapacity;
+        }
+
         @Override
         public long getSymbolCacheWaitBeforeReload() {
             return symbolCacheWaitBeforeReload;
@@ -102,12 +102,25 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_SQL_PARALLEL_GROUPBY_ENABLED("cairo.sql.parallel.groupby.enabled"),
     CAIRO_SQL_PARALLEL_GROUPBY_MERGE_QUEUE_CAPACITY("cairo.sql.parallel.groupby.merge.shard.queue.capacity"),
     CAIRO_SQL_PARALLEL_GROUPBY_SHARDING_THRESHOLD("cairo.sql.parallel.groupby.sharding.threshold"),
+    CAIRO_SQL_PARALLEL_GROUPBY_KERNEL_ENABLED("cairo.sql.parallel.groupby.kernel.enabled"),
     CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_ENABLED("cairo.sql.parallel.groupby.presize.enabled"),
     CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_CAPACITY("cairo.sql.parallel.groupby.presize.max.capacity"),
     CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_HEAP_SIZE("cairo.sql.parallel.groupby.presize.max.heap.size"),
+    CAIRO_SQL_PARALLEL_GROUPBY_SPILL_ENABLED("cairo.sql.parallel.groupby.spill.enabled"),
+    CAIRO_SQL_PARALLEL_GROUPBY_SPILL_THRESHOLD("cairo.sql.parallel.groupby.spill.threshold"),
+    CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED("cairo.sql.parallel.hash.join.enabled"),
+    CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED("cairo.sql.parallel.orderby.enabled"),
+    CAIRO_SQL_PARALLEL_ORDER_BY_SPILL_THRESHOLD("cairo.sql.parallel.orderby.spill.threshold"),
+    CAIRO_SQL_PARALLEL_ORDER_BY_TOP_K_MAX_LIMIT("cairo.sql.parallel.orderby.topk.max.limit"),
+    CAIRO_SQL_PARALLEL_WINDOW_ENABLED("cairo.sql.parallel.window.enabled"),
+    CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED("cairo.sql.parallel.asof.join.enabled"),
+    CAIRO_SQL_RESULT_CACHE_ENABLED("cairo.sql.result.cache.enabled"),
+    CAIRO_SQL_RESULT_CACHE_MEMORY_LIMIT("cairo.sql.result.cache.memory.limit"),
     CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD("cairo.sql.parallel.work.stealing.threshold"),
     CAIRO_SQL_PARALLEL_READ_PARQUET_ENABLED("cairo.sql.parallel.read.parquet.enabled"),
     CAIRO_SQL_PARQUET_FRAME_CACHE_CAPACITY("cairo.sql.parquet.frame.cache.capacity"),
+    CAIRO_SQL_PARQUET_PREFETCH_QUEUE_CAPACITY("cairo.sql.parquet.prefetch.queue.capacity"),
+    CAIRO_SQL_PARQUET_PREFETCH_ROW_GROUPS("cairo.sql.parquet.prefetch.row.groups"),
     CAIRO_PAGE_FRAME_SHARD_COUNT("cairo.page.frame.shard.count"),
     CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY("cairo.page.frame.task.pool.capacity"),
     CAIRO_SQL_JOIN_METADATA_PAGE_SIZE("cairo.sql.join.metadata.page.size"),
@@ -150,6 +163,8 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR("cairo.sql.distinct.timestamp.load.factor"),
     CAIRO_SQL_PAGE_FRAME_MIN_ROWS("cairo.sql.page.frame.min.rows"),
     CAIRO_SQL_PAGE_FRAME_MAX_ROWS("cairo.sql.page.frame.max.rows"),
+    CAIRO_SQL_ZONE_MAP_BLOCK_ROWS("cairo.sql.zone.map.block.rows"),
+    CAIRO_SQL_BLOOM_FILTER_BITS_PER_VALUE("cairo.sql.bloom.filter.bits.per.value"),
     CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE("cairo.sql.jit.ir.memory.page.size"),
     CAIRO_SQL_JIT_IR_MEMORY_MAX_PAGES("cairo.sql.jit.ir.memory.max.pages"),
     CAIRO_SQL_JIT_BIND_VARS_MEMORY_PAGE_SIZE("cairo.sql.jit.bind.vars.memory.page.size"),
@@ -157,6 +172,7 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_SQL_JIT_ROWS_THRESHOLD("cairo.sql.jit.rows.threshold"),
     CAIRO_SQL_JIT_PAGE_ADDRESS_CACHE_THRESHOLD("cairo.sql.jit.page.address.cache.threshold"),
     CAIRO_SQL_JIT_DEBUG_ENABLED("cairo.sql.jit.debug.enabled"),
+    CAIRO_SQL_JIT_PROJECTION_ENABLED("cairo.sql.jit.projection.enabled"),
     CAIRO_WRITER_FO_OPTS("cairo.writer.fo_opts"),
     CAIRO_SQL_COPY_FORMATS_FILE("cairo.sql.copy.formats.file"),
     CAIRO_SQL_COPY_MODEL_POOL_CAPACITY("cairo.sql.copy.model.pool.capacity"),
@@ -223,6 +239,10 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_O3_ENABLED("cairo.o3.enabled"),
     CAIRO_QUERY_CACHE_EVENT_QUEUE_CAPACITY("cairo.query.cache.event.queue.capacity"),
     CAIRO_IO_URING_ENABLED("cairo.iouring.enabled"),
+    CAIRO_IO_URING_READ_AHEAD_CHUNK_SIZE("cairo.iouring.read.ahead.chunk.size"),
+    CAIRO_IO_URING_READ_AHEAD_O3_ENABLED("cairo.iouring.read.ahead.o3.enabled"),
+    CAIRO_IO_URING_READ_AHEAD_QUEUE_DEPTH("cairo.iouring.read.ahead.queue.depth"),
+    CAIRO_IO_URING_READ_AHEAD_SCAN_ENABLED("cairo.iouring.read.ahead.scan.enabled"),
     CAIRO_MAX_CRASH_FILES("cairo.max.crash.files"),
     CAIRO_LEGACY_STRING_COLUMN_TYPE_DEFAULT("cairo.legacy.string.column.type.default"),
     CIRCUIT_BREAKER_THROTTLE("circuit.breaker.throttle"),
@@ -362,6 +382,7 @@ public enum PropertyKey implements ConfigPropertyKey {
     LINE_TCP_WRITER_WORKER_NAP_THRESHOLD("line.tcp.writer.worker.nap.threshold"),
     LINE_TCP_WRITER_WORKER_SLEEP_THRESHOLD("line.tcp.writer.worker.sleep.threshold"),
     LINE_TCP_SYMBOL_CACHE_WAIT_BEFORE_RELOAD("line.tcp.symbol.cache.wait.before.reload"),
+    LINE_TCP_SYMBOL_CACHE_SHARED_CAPACITY("line.tcp.symbol.cache.shared.capacity"),
     LINE_TCP_IO_WORKER_COUNT("line.tcp.io.worker.count"),
     LINE_TCP_IO_WORKER_AFFINITY("line.tcp.io.worker.affinity"),
     LINE_TCP_IO_HALT_ON_ERROR("line.tcp.io.halt.on.error"),
@@ -369,6 +390,7 @@ public enum PropertyKey implements ConfigPropertyKey {
     LINE_TCP_IO_WORKER_NAP_THRESHOLD("line.tcp.io.worker.nap.threshold"),
     LINE_TCP_IO_WORKER_SLEEP_THRESHOLD("line.tcp.io.worker.sleep.threshold"),
     LINE_TCP_MAINTENANCE_JOB_INTERVAL("line.tcp.maintenance.job.interval"),
+    LINE_TCP_MAX_LOAD_RATIO("line.tcp.max.load.ratio"),
     LINE_TCP_COMMIT_INTERVAL_FRACTION("line.tcp.commit.interval.fraction"),
     LINE_TCP_COMMIT_INTERVAL_DEFAULT("line.tcp.commit.interval.default"),
     LINE_TCP_AUTH_DB_PATH("line.tcp.auth.db.path"),
@@ -500,6 +522,7 @@ public enum PropertyKey implements ConfigPropertyKey {
     CAIRO_WAL_TEMP_PENDING_RENAME_TABLE_PREFIX("cairo.wal.temp.pending.rename.table.prefix"),
     CAIRO_WAL_WRITER_POOL_MAX_SEGMENTS("cairo.wal.writer.pool.max.segments"),
     CAIRO_WAL_APPLY_PARALLEL_SQL_ENABLED("cairo.wal.apply.parallel.sql.enabled"),
+    CAIRO_WAL_APPLY_PARALLEL_MERGE_ENABLED("cairo.wal.apply.parallel.merge.enabled"),
     READ_ONLY_INSTANCE("readonly"),
     CAIRO_TABLE_REGISTRY_AUTO_RELOAD_FREQUENCY("cairo.table.registry.auto.reload.frequency"),
     CAIRO_TABLE_REGISTRY_COMPACTION_THRESHOLD("cairo.table.registry.compaction.threshold"),
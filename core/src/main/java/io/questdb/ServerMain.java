@@ -404,6 +404,9 @@ public class ServerMain implements Closeable {
                     WorkerPoolManager.Requester.WAL_APPLY
             );
             setupWalApplyJob(walApplyWorkerPool, engine, workerPoolManager.getSharedWorkerCount());
+            if (cairoConfig.isWalApplyParallelMergeEnabled()) {
+                setupWalApplyO3Jobs(walApplyWorkerPool, engine);
+            }
         }
 
         // http
@@ -488,6 +491,21 @@ public class ServerMain implements Closeable {
         }
     }
 
+    /**
+     * Lets idle apply workers merge partitions and shuffle columns of the table being applied
+     * by another worker, rather than leaving it all to the shared pool.
+     * <p>
+     * This can't deadlock even when the apply pool is the only consumer of the O3 queues and
+     * all its workers are busy applying WAL. The writer that publishes O3 tasks doesn't just
+     * wait for them: it steals the partition, open column and copy tasks from the queues until
+     * its own partitions are done, and only then waits for the tasks other threads already
+     * picked up and are processing. Column tasks are stolen the same way. O3 jobs never wait
+     * for the apply job, so a worker that runs both can always make progress.
+     */
+    protected void setupWalApplyO3Jobs(WorkerPool workerPool, CairoEngine engine) {
+        WorkerPoolUtils.setupO3Jobs(workerPool, engine.getMessageBus());
+    }
+
     protected String webConsoleSchema() {
         return "http";
     }
@@ -223,11 +223,26 @@ public interface CairoConfiguration {
 
     int getGroupByShardingThreshold();
 
+    CharSequence getGroupBySpillRoot();
+
+    long getGroupBySpillThreshold();
+
     @NotNull
     default IOURingFacade getIOURingFacade() {
         return IOURingFacadeImpl.INSTANCE;
     }
 
+    /**
+     * Returns the size of a single io_uring read issued by the page cache read-ahead.
+     */
+    int getIOURingReadAheadChunkSize();
+
+    /**
+     * Returns the maximum number of io_uring reads the page cache read-ahead keeps in flight.
+     * Always a power of 2.
+     */
+    int getIOURingReadAheadQueueDepth();
+
     int getIdGenerateBatchStep();
 
     long getIdleCheckInterval();
@@ -440,6 +455,13 @@ public interface CairoConfiguration {
 
     int getSqlAsOfJoinShortCircuitCacheCapacity();
 
+    /**
+     * Number of bits per row of in-memory Bloom filters, built for LONG and VARCHAR columns of
+     * native partitions on the first scan with an equality filter. The filters are kept per zone
+     * map block, see {@link #getSqlZoneMapBlockRows()}. Zero disables Bloom filters.
+     */
+    int getSqlBloomFilterBitsPerValue();
+
     int getSqlCharacterStoreCapacity();
 
     int getSqlCharacterStoreSequencePoolCapacity();
@@ -518,12 +540,31 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    long getSqlResultCacheMemoryLimit();
+
     double getSqlParallelFilterPreTouchThreshold();
 
+    /**
+     * Max size of the buffers of a parallel ORDER BY kept in the native heap. Larger sorts
+     * keep their sorted runs in a memory-mapped spill file. Zero disables spilling.
+     */
+    long getSqlParallelOrderBySpillThreshold();
+
+    int getSqlParallelTopKMaxLimit();
+
     int getSqlParallelWorkStealingThreshold();
 
     int getSqlParquetFrameCacheCapacity();
 
+    int getSqlParquetPrefetchQueueCapacity();
+
+    /**
+     * Number of Parquet row groups decoded ahead of a forward page frame scan by worker threads.
+     * Prefetched row groups are kept in the Parquet frame cache, so the memory used for prefetch
+     * is bounded by {@link #getSqlParquetFrameCacheCapacity()}. Zero disables prefetch.
+     */
+    int getSqlParquetPrefetchRowGroups();
+
     int getSqlSmallMapKeyCapacity();
 
     long getSqlSmallMapPageSize();
@@ -558,6 +599,13 @@ public interface CairoConfiguration {
 
     int getSqlWindowTreeKeyPageSize();
 
+    /**
+     * Number of rows per block of in-memory min/max zone maps, built for native partitions
+     * on the first filtered scan and used to skip blocks of rows that can't match the filter.
+     * Zero disables zone maps.
+     */
+    int getSqlZoneMapBlockRows();
+
     int getStrFunctionMaxBufferLength();
 
     long getSystemDataAppendPageSize();
@@ -665,10 +713,26 @@ public interface CairoConfiguration {
 
     boolean isDevModeEnabled();
 
+    boolean isGroupByKernelEnabled();
+
     boolean isGroupByPresizeEnabled();
 
+    boolean isGroupBySpillEnabled();
+
     boolean isIOURingEnabled();
 
+    /**
+     * Returns true when O3 merges warm up page cache for the source column ranges
+     * with batched io_uring reads before copying them.
+     */
+    boolean isIOURingReadAheadO3Enabled();
+
+    /**
+     * Returns true when table scans warm up page cache for the column ranges of
+     * native page frames with asynchronous io_uring reads.
+     */
+    boolean isIOURingReadAheadScanEnabled();
+
     boolean isMatViewDebugEnabled();
 
     boolean isMatViewEnabled();
@@ -691,14 +755,26 @@ public interface CairoConfiguration {
 
     boolean isSqlJitDebugEnabled();
 
+    boolean isSqlJitProjectionEnabled();
+
     boolean isSqlOrderBySortEnabled();
 
+    boolean isSqlParallelAsOfJoinEnabled();
+
     boolean isSqlParallelFilterEnabled();
 
     boolean isSqlParallelFilterPreTouchEnabled();
 
     boolean isSqlParallelGroupByEnabled();
 
+    boolean isSqlParallelHashJoinEnabled();
+
+    boolean isSqlParallelOrderByEnabled();
+
+    boolean isSqlParallelWindowEnabled();
+
+    boolean isSqlResultCacheEnabled();
+
     boolean isSqlParallelReadParquetEnabled();
 
     boolean isTableTypeConversionEnabled();
@@ -729,6 +805,13 @@ public interface CairoConfiguration {
 
     boolean isWalApplyEnabled();
 
+    /**
+     * Returns true when WAL apply workers also run O3 partition and column jobs, so that
+     * idle apply workers help merging partitions and remapping/shuffling columns of the table
+     * being applied by another worker.
+     */
+    boolean isWalApplyParallelMergeEnabled();
+
     boolean isWalApplyParallelSqlEnabled();
 
     boolean isWalSupported();
@@ -346,6 +346,26 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getGroupByShardingThreshold();
     }
 
+    @Override
+    public CharSequence getGroupBySpillRoot() {
+        return getDelegate().getGroupBySpillRoot();
+    }
+
+    @Override
+    public long getGroupBySpillThreshold() {
+        return getDelegate().getGroupBySpillThreshold();
+    }
+
+    @Override
+    public int getIOURingReadAheadChunkSize() {
+        return getDelegate().getIOURingReadAheadChunkSize();
+    }
+
+    @Override
+    public int getIOURingReadAheadQueueDepth() {
+        return getDelegate().getIOURingReadAheadQueueDepth();
+    }
+
     @Override
     public int getIdGenerateBatchStep() {
         return getDelegate().getIdGenerateBatchStep();
@@ -721,6 +741,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlAsOfJoinShortCircuitCacheCapacity();
     }
 
+    @Override
+    public int getSqlBloomFilterBitsPerValue() {
+        return getDelegate().getSqlBloomFilterBitsPerValue();
+    }
+
     @Override
     public int getSqlCharacterStoreCapacity() {
         return getDelegate().getSqlCharacterStoreCapacity();
@@ -901,11 +926,26 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlPageFrameMinRows();
     }
 
+    @Override
+    public long getSqlResultCacheMemoryLimit() {
+        return getDelegate().getSqlResultCacheMemoryLimit();
+    }
+
     @Override
     public double getSqlParallelFilterPreTouchThreshold() {
         return getDelegate().getSqlParallelFilterPreTouchThreshold();
     }
 
+    @Override
+    public long getSqlParallelOrderBySpillThreshold() {
+        return getDelegate().getSqlParallelOrderBySpillThreshold();
+    }
+
+    @Override
+    public int getSqlParallelTopKMaxLimit() {
+        return getDelegate().getSqlParallelTopKMaxLimit();
+    }
+
     @Override
     public int getSqlParallelWorkStealingThreshold() {
         return getDelegate().getSqlParallelWorkStealingThreshold();
@@ -916,6 +956,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlParquetFrameCacheCapacity();
     }
 
+    @Override
+    public int getSqlParquetPrefetchQueueCapacity() {
+        return getDelegate().getSqlParquetPrefetchQueueCapacity();
+    }
+
+    @Override
+    public int getSqlParquetPrefetchRowGroups() {
+        return getDelegate().getSqlParquetPrefetchRowGroups();
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return getDelegate().getSqlSmallMapKeyCapacity();
@@ -1001,6 +1051,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlWindowTreeKeyPageSize();
     }
 
+    @Override
+    public int getSqlZoneMapBlockRows() {
+        return getDelegate().getSqlZoneMapBlockRows();
+    }
+
     @Override
     public int getStrFunctionMaxBufferLength() {
         return getDelegate().getStrFunctionMaxBufferLength();
@@ -1211,16 +1266,36 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isDevModeEnabled();
     }
 
+    @Override
+    public boolean isGroupByKernelEnabled() {
+        return getDelegate().isGroupByKernelEnabled();
+    }
+
     @Override
     public boolean isGroupByPresizeEnabled() {
         return getDelegate().isGroupByPresizeEnabled();
     }
 
+    @Override
+    public boolean isGroupBySpillEnabled() {
+        return getDelegate().isGroupBySpillEnabled();
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return getDelegate().isIOURingEnabled();
     }
 
+    @Override
+    public boolean isIOURingReadAheadO3Enabled() {
+        return getDelegate().isIOURingReadAheadO3Enabled();
+    }
+
+    @Override
+    public boolean isIOURingReadAheadScanEnabled() {
+        return getDelegate().isIOURingReadAheadScanEnabled();
+    }
+
     @Override
     public boolean isMatViewDebugEnabled() {
         return getDelegate().isMatViewDebugEnabled();
@@ -1276,11 +1351,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSqlJitDebugEnabled();
     }
 
+    @Override
+    public boolean isSqlJitProjectionEnabled() {
+        return getDelegate().isSqlJitProjectionEnabled();
+    }
+
     @Override
     public boolean isSqlOrderBySortEnabled() {
         return getDelegate().isSqlOrderBySortEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelAsOfJoinEnabled() {
+        return getDelegate().isSqlParallelAsOfJoinEnabled();
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return getDelegate().isSqlParallelFilterEnabled();
@@ -1296,6 +1381,26 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSqlParallelGroupByEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return getDelegate().isSqlParallelHashJoinEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelOrderByEnabled() {
+        return getDelegate().isSqlParallelOrderByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelWindowEnabled() {
+        return getDelegate().isSqlParallelWindowEnabled();
+    }
+
+    @Override
+    public boolean isSqlResultCacheEnabled() {
+        return getDelegate().isSqlResultCacheEnabled();
+    }
+
     @Override
     public boolean isSqlParallelReadParquetEnabled() {
         return getDelegate().isSqlParallelReadParquetEnabled();
@@ -1316,6 +1421,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isWalApplyEnabled();
     }
 
+    @Override
+    public boolean isWalApplyParallelMergeEnabled() {
+        return getDelegate().isWalApplyParallelMergeEnabled();
+    }
+
     @Override
     public boolean isWalApplyParallelSqlEnabled() {
         return getDelegate().isWalApplyParallelSqlEnabled();
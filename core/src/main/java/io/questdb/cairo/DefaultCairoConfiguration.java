@@ -66,6 +66,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     private final long databaseIdHi;
     private final long databaseIdLo;
     private final String dbRoot;
+    private final CharSequence groupBySpillRoot;
     private final LongSupplier importIDSupplier = () -> getRandom().nextPositiveLong();
     private final String installRoot;
     private final CharSequence legacyCheckpointRoot;
@@ -85,6 +86,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         this.textConfiguration = new DefaultTextConfiguration(Chars.toString(confRoot));
         this.checkpointRoot = PropServerConfiguration.rootSubdir(dbRoot, TableUtils.CHECKPOINT_DIRECTORY);
         this.legacyCheckpointRoot = PropServerConfiguration.rootSubdir(dbRoot, TableUtils.LEGACY_CHECKPOINT_DIRECTORY);
+        this.groupBySpillRoot = PropServerConfiguration.rootSubdir(dbRoot, PropServerConfiguration.TMP_DIRECTORY);
         Rnd rnd = new Rnd(NanosecondClockImpl.INSTANCE.getTicks(), MicrosecondClockImpl.INSTANCE.getTicks());
         this.databaseIdLo = rnd.nextLong();
         this.databaseIdHi = rnd.nextLong();
@@ -375,6 +377,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1000;
     }
 
+    @Override
+    public CharSequence getGroupBySpillRoot() {
+        return groupBySpillRoot;
+    }
+
+    @Override
+    public long getGroupBySpillThreshold() {
+        return 128 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public int getIOURingReadAheadChunkSize() {
+        return 1024 * 1024;
+    }
+
+    @Override
+    public int getIOURingReadAheadQueueDepth() {
+        return 32;
+    }
+
     @Override
     public int getIdGenerateBatchStep() {
         return 512;
@@ -744,6 +766,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 10_000_000;
     }
 
+    @Override
+    public int getSqlBloomFilterBitsPerValue() {
+        return 0;
+    }
+
     @Override
     public int getSqlCharacterStoreCapacity() {
         // 1024 seems like a good fit, but tests need
@@ -926,11 +953,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1_000;
     }
 
+    @Override
+    public long getSqlResultCacheMemoryLimit() {
+        return 64 * Numbers.SIZE_1MB;
+    }
+
     @Override
     public double getSqlParallelFilterPreTouchThreshold() {
         return 0.05;
     }
 
+    @Override
+    public long getSqlParallelOrderBySpillThreshold() {
+        return 0;
+    }
+
+    @Override
+    public int getSqlParallelTopKMaxLimit() {
+        return 100_000;
+    }
+
     @Override
     public int getSqlParallelWorkStealingThreshold() {
         return 16;
@@ -941,6 +983,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 3;
     }
 
+    @Override
+    public int getSqlParquetPrefetchQueueCapacity() {
+        return 32;
+    }
+
+    @Override
+    public int getSqlParquetPrefetchRowGroups() {
+        return 0;
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return 64;
@@ -1026,6 +1078,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 4 * 1024;
     }
 
+    @Override
+    public int getSqlZoneMapBlockRows() {
+        return 0;
+    }
+
     @Override
     public int getStrFunctionMaxBufferLength() {
         return 1024 * 1024;
@@ -1235,16 +1292,36 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return false;
     }
 
+    @Override
+    public boolean isGroupByKernelEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isGroupByPresizeEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isGroupBySpillEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isIOURingReadAheadO3Enabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isIOURingReadAheadScanEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isMatViewDebugEnabled() {
         return false;
@@ -1300,11 +1377,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return false;
     }
 
+    @Override
+    public boolean isSqlJitProjectionEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSqlOrderBySortEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelAsOfJoinEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return true;
@@ -1320,6 +1407,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelOrderByEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelWindowEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlResultCacheEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSqlParallelReadParquetEnabled() {
         return true;
@@ -1335,6 +1442,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isWalApplyParallelMergeEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isWalApplyParallelSqlEnabled() {
         return true;
@@ -126,6 +126,23 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                 .I$();
 
         try {
+            if ((blockType == O3_BLOCK_MERGE || blockType == O3_BLOCK_DATA) && srcDataLo <= srcDataHi) {
+                readAheadSrcData(
+                        tableWriter.getConfiguration(),
+                        columnType,
+                        srcDataFixFd,
+                        srcDataFixAddr,
+                        // see the column top hack below
+                        blockType == O3_BLOCK_MERGE ? srcDataFixOffset - srcDataTop : srcDataFixOffset,
+                        srcDataFixSize,
+                        srcDataVarFd,
+                        srcDataVarAddr,
+                        srcDataVarOffset,
+                        srcDataVarSize,
+                        srcDataLo,
+                        srcDataHi
+                );
+            }
             switch (blockType) {
                 case O3_BLOCK_MERGE:
                     mergeCopy(
@@ -701,6 +718,62 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         }
     }
 
+    // Warms up page cache for the source rows, so that the copy doesn't
+    // fault mapped pages in one at a time when the partition is cold.
+    private static void readAheadSrcData(
+            CairoConfiguration configuration,
+            int columnType,
+            long srcDataFixFd,
+            long srcDataFixAddr,
+            long srcDataFixOffset,
+            long srcDataFixSize,
+            long srcDataVarFd,
+            long srcDataVarAddr,
+            long srcDataVarOffset,
+            long srcDataVarSize,
+            long srcDataLo,
+            long srcDataHi
+    ) {
+        if (!configuration.isIOURingReadAheadO3Enabled() || srcDataFixAddr == 0 || srcDataFixFd == 0) {
+            return;
+        }
+
+        // source memory is mapped from the start of the file, so offsets
+        // in the mapping are file offsets
+        long fixLo;
+        long fixHi;
+        long varLo = 0;
+        long varHi = 0;
+        if (ColumnType.isVarSize(columnType)) {
+            final ColumnTypeDriver driver = ColumnType.getDriver(columnType);
+            fixLo = srcDataFixOffset + driver.getAuxVectorOffset(srcDataLo);
+            fixHi = srcDataFixOffset + driver.getAuxVectorOffset(srcDataHi + 1);
+            if (srcDataVarAddr != 0 && srcDataVarFd != 0) {
+                final long srcAuxAddr = srcDataFixAddr + srcDataFixOffset;
+                varLo = srcDataVarOffset + driver.getDataVectorOffset(srcAuxAddr, srcDataLo);
+                varHi = Math.min(srcDataVarSize, srcDataVarOffset + driver.getDataVectorSizeAt(srcAuxAddr, srcDataHi));
+            }
+        } else {
+            final int shl = ColumnType.pow2SizeOf(Math.abs(columnType));
+            fixLo = srcDataFixOffset + (srcDataLo << shl);
+            fixHi = srcDataFixOffset + ((srcDataHi + 1) << shl);
+        }
+        fixLo = Math.max(0, fixLo);
+        fixHi = Math.min(srcDataFixSize, fixHi);
+
+        if (fixHi - fixLo < PageCacheReadAhead.MIN_RANGE_SIZE && varHi - varLo < PageCacheReadAhead.MIN_RANGE_SIZE) {
+            return;
+        }
+
+        try (PageCacheReadAhead readAhead = PageCacheReadAhead.newInstance(configuration, true, MemoryTag.NATIVE_O3)) {
+            if (readAhead != null) {
+                // the timestamp column fd is negative when it is closed externally
+                readAhead.read(Math.abs(srcDataFixFd), fixLo, fixHi - fixLo);
+                readAhead.read(Math.abs(srcDataVarFd), varLo, varHi - varLo);
+            }
+        }
+    }
+
     private static void syncColumns(
             AtomicInteger columnCounter,
             long timestampMergeIndexAddr,
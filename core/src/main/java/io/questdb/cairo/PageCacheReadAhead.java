@@ -0,0 +1,190 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.IOURing;
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Populates OS page cache for column file ranges with batched io_uring reads, so that
+ * subsequent access through the existing memory mappings doesn't stall on page faults
+ * one page at a time. Read data is discarded, all reads land in the same scratch buffer.
+ * <p>
+ * Reads are best-effort: errors are ignored and ranges that don't fit into the queue
+ * are left to the mapping. The ring and the buffer are allocated lazily on the first
+ * read and released on {@link #close()}, after which the instance can be reused.
+ */
+public class PageCacheReadAhead implements QuietCloseable {
+    // short ranges are cheaper to fault in through the mapping
+    public static final long MIN_RANGE_SIZE = 256 * 1024;
+    private static final Log LOG = LogFactory.getLog(PageCacheReadAhead.class);
+    private final int chunkSize;
+    private final int memoryTag;
+    private final int queueDepth;
+    private final IOURingFacade rf;
+    private long bufAddr;
+    private int inFlight;
+    private IOURing ring;
+    private boolean unavailable;
+
+    public PageCacheReadAhead(IOURingFacade rf, int queueDepth, int chunkSize, int memoryTag) {
+        assert Numbers.isPow2(queueDepth);
+        this.rf = rf;
+        this.queueDepth = queueDepth;
+        this.chunkSize = chunkSize;
+        this.memoryTag = memoryTag;
+    }
+
+    @Nullable
+    public static PageCacheReadAhead newInstance(CairoConfiguration configuration, boolean enabled, int memoryTag) {
+        final IOURingFacade rf = configuration.getIOURingFacade();
+        if (enabled && configuration.isIOURingEnabled() && rf.isAvailable()) {
+            return new PageCacheReadAhead(
+                    rf,
+                    configuration.getIOURingReadAheadQueueDepth(),
+                    configuration.getIOURingReadAheadChunkSize(),
+                    memoryTag
+            );
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        if (ring != null) {
+            drain();
+            ring = Misc.free(ring);
+        }
+        if (bufAddr != 0) {
+            bufAddr = Unsafe.free(bufAddr, chunkSize, memoryTag);
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Reads the given file range and waits for all reads to complete.
+     */
+    public void read(long fd, long offset, long len) {
+        if (fd < 0 || len < MIN_RANGE_SIZE || !open()) {
+            return;
+        }
+        final long hi = offset + len;
+        while (offset < hi) {
+            if (inFlight == queueDepth) {
+                awaitOne();
+            }
+            final int chunk = (int) Math.min(chunkSize, hi - offset);
+            if (ring.enqueueRead(fd, offset, bufAddr, chunk) < 0) {
+                break;
+            }
+            inFlight++;
+            offset += chunk;
+        }
+        drain();
+    }
+
+    /**
+     * Submits reads for the given file range without waiting for them to complete.
+     * Chunks that don't fit into the queue are dropped.
+     */
+    public void readAsync(long fd, long offset, long len) {
+        if (fd < 0 || len < MIN_RANGE_SIZE || !open()) {
+            return;
+        }
+        reap();
+        final long hi = offset + len;
+        int enqueued = 0;
+        while (offset < hi && inFlight < queueDepth) {
+            final int chunk = (int) Math.min(chunkSize, hi - offset);
+            if (ring.enqueueRead(fd, offset, bufAddr, chunk) < 0) {
+                break;
+            }
+            inFlight++;
+            enqueued++;
+            offset += chunk;
+        }
+        if (enqueued > 0) {
+            ring.submit();
+        }
+    }
+
+    /**
+     * Consumes completed reads, if any, without blocking.
+     */
+    public void reap() {
+        if (ring != null) {
+            while (inFlight > 0 && ring.nextCqe()) {
+                inFlight--;
+            }
+        }
+    }
+
+    private void awaitOne() {
+        // cqes already consumed by the ring are not visible to the kernel,
+        // so check them before blocking
+        while (!ring.nextCqe()) {
+            ring.submitAndWait();
+        }
+        inFlight--;
+    }
+
+    private void drain() {
+        while (inFlight > 0) {
+            awaitOne();
+        }
+    }
+
+    private boolean open() {
+        if (ring != null) {
+            return true;
+        }
+        if (unavailable) {
+            return false;
+        }
+        try {
+            ring = rf.newInstance(queueDepth);
+            bufAddr = Unsafe.malloc(chunkSize, memoryTag);
+            return true;
+        } catch (CairoException e) {
+            LOG.error().$("could not create io_uring instance, read-ahead is disabled [msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+            ring = Misc.free(ring);
+            unavailable = true;
+            return false;
+        }
+    }
+}
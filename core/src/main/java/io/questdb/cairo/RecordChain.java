@@ -169,6 +169,15 @@ public class RecordChain implements Closeable, RecordCursor, RecordSinkSPI, Wind
         return recordB;
     }
 
+    /**
+     * Creates a new record bound to this chain. Records returned by {@link #getRecord()}
+     * and {@link #getRecordB()} are shared, so threads reading the chain concurrently
+     * should use own records.
+     */
+    public Record newRecord() {
+        return newChainRecord();
+    }
+
     @Override
     public boolean hasNext() {
         if (nextRecordOffset != -1) {
@@ -25,6 +25,7 @@
 package io.questdb.cairo.map;
 
 import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.vm.api.MemoryA;
 import io.questdb.std.Mutable;
 import org.jetbrains.annotations.TestOnly;
 
@@ -60,8 +61,28 @@ public interface Map extends Mutable, Closeable, Reopenable {
 
     boolean isOpen();
 
+    /**
+     * Returns true if the map supports {@link #spill(MemoryA)} and
+     * {@link #mergeSpilled(long, long, MapValueMergeFunction)}.
+     */
+    default boolean isSpillSupported() {
+        return false;
+    }
+
     void merge(Map srcMap, MapValueMergeFunction mergeFunc);
 
+    /**
+     * Merges key-value pairs previously written by {@link #spill(MemoryA)} into this map.
+     * The spilled pairs must come from a map of the same class with the same key and value types.
+     *
+     * @param lo        address of the first spilled key-value pair
+     * @param hi        address right after the last spilled key-value pair
+     * @param mergeFunc function used to merge values of matching keys
+     */
+    default void mergeSpilled(long lo, long hi, MapValueMergeFunction mergeFunc) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Reopens previously closed map with given key capacity and initial heap size.
      * Key capacity is ignored if the map is not based on a hash table, e.g. {@link Unordered2Map}.
@@ -75,6 +96,18 @@ public interface Map extends Mutable, Closeable, Reopenable {
 
     long size();
 
+    /**
+     * Appends all key-value pairs to the given memory and then clears the map shrinking it
+     * to the initial capacity. Spilled pairs can be merged back with
+     * {@link #mergeSpilled(long, long, MapValueMergeFunction)}.
+     *
+     * @param mem memory to append key-value pairs to, e.g. a temporary file
+     * @return number of bytes written to the memory
+     */
+    default long spill(MemoryA mem) {
+        throw new UnsupportedOperationException();
+    }
+
     MapValue valueAt(long address);
 
     MapKey withKey();
@@ -35,6 +35,7 @@ import io.questdb.cairo.arr.ArrayTypeDriver;
 import io.questdb.cairo.arr.ArrayView;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.vm.api.MemoryA;
 import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.DirectIntList;
@@ -108,6 +109,8 @@ public class OrderedMap implements Map, Reopenable {
     private final int maxResizes;
     private final MergeFunction mergeRef;
     private final OrderedMapRecord record;
+    // Used to access values of spilled key-value pairs.
+    private final OrderedMapValue spilledValue;
     private final OrderedMapValue value;
     private final OrderedMapValue value2;
     private final OrderedMapValue value3;
@@ -235,6 +238,7 @@ public class OrderedMap implements Map, Reopenable {
             value = new OrderedMapValue(valueSize, valueOffsets);
             value2 = new OrderedMapValue(valueSize, valueOffsets);
             value3 = new OrderedMapValue(valueSize, valueOffsets);
+            spilledValue = new OrderedMapValue(valueSize, valueOffsets);
 
             assert keySize + valueSize <= heapLimit - heapStart : "page size is too small to fit a single key";
             if (keySize == -1) {
@@ -316,6 +320,11 @@ public class OrderedMap implements Map, Reopenable {
         return heapStart != 0;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return true;
+    }
+
     @Override
     public void merge(Map srcMap, MapValueMergeFunction mergeFunc) {
         assert this != srcMap;
@@ -325,6 +334,60 @@ public class OrderedMap implements Map, Reopenable {
         mergeRef.merge((OrderedMap) srcMap, mergeFunc);
     }
 
+    /**
+     * Merges key-value pairs previously written by {@link #spill(MemoryA)} into this map.
+     * The spilled pairs must come from a map with the same key and value types.
+     *
+     * @param lo        address of the first spilled key-value pair
+     * @param hi        address right after the last spilled key-value pair
+     * @param mergeFunc function used to merge values of matching keys
+     */
+    @Override
+    public void mergeSpilled(long lo, long hi, MapValueMergeFunction mergeFunc) {
+        OUTER:
+        for (long srcStartAddress = lo; srcStartAddress < hi; ) {
+            final long srcKeySize = keySize != -1 ? keySize : Unsafe.getUnsafe().getInt(srcStartAddress);
+            final long srcKeyAddress = srcStartAddress + keyOffset;
+            final long entrySize = keyOffset + srcKeySize + valueSize;
+            final long nextStartAddress = Bytes.align8b(srcStartAddress + entrySize);
+            // Hash codes are not spilled, so we have to calculate them once again.
+            final int hashCodeLo = Numbers.decodeLowInt(Hash.hashMem64(srcKeyAddress, srcKeySize));
+            int index = hashCodeLo & mask;
+
+            long destOffset;
+            while ((destOffset = getOffset(offsets, index)) > -1) {
+                final long destStartAddress = heapStart + destOffset;
+                if (
+                        hashCodeLo == getHashCodeLo(offsets, index)
+                                && (keySize != -1 || Unsafe.getUnsafe().getInt(destStartAddress) == srcKeySize)
+                                && Vect.memeq(destStartAddress + keyOffset, srcKeyAddress, srcKeySize)
+                ) {
+                    // Match found, merge values.
+                    mergeFunc.merge(
+                            valueAt(destStartAddress),
+                            spilledValue.of(srcStartAddress, srcKeyAddress + srcKeySize, hi, false)
+                    );
+                    srcStartAddress = nextStartAddress;
+                    continue OUTER;
+                }
+                index = (index + 1) & mask;
+            }
+
+            if (kPos + entrySize > heapLimit) {
+                resize(entrySize, kPos);
+            }
+            Vect.memcpy(kPos, srcStartAddress, entrySize);
+            setOffset(offsets, index, kPos - heapStart);
+            setHashCodeLo(offsets, index, hashCodeLo);
+            kPos = Bytes.align8b(kPos + entrySize);
+            size++;
+            if (--free == 0) {
+                rehash();
+            }
+            srcStartAddress = nextStartAddress;
+        }
+    }
+
     @Override
     public void reopen(int keyCapacity, long heapSize) {
         if (heapStart == 0) {
@@ -376,6 +439,24 @@ public class OrderedMap implements Map, Reopenable {
         return size;
     }
 
+    /**
+     * Appends all key-value pairs to the given memory and then clears the map shrinking it
+     * to the initial capacity. The pairs are written in the same layout as they have in the
+     * heap memory, including alignment padding, but without hash codes. Spilled pairs can be
+     * merged back with {@link #mergeSpilled(long, long, MapValueMergeFunction)}.
+     *
+     * @param mem memory to append key-value pairs to, e.g. a temporary file
+     * @return number of bytes written to the memory
+     */
+    @Override
+    public long spill(MemoryA mem) {
+        final long len = kPos - heapStart;
+        mem.putBlockOfBytes(heapStart, len);
+        restoreInitialCapacity();
+        clear();
+        return len;
+    }
+
     @Override
     public MapValue valueAt(long startAddress) {
         long keySize = this.keySize;
@@ -32,6 +32,7 @@ import io.questdb.cairo.Reopenable;
 import io.questdb.cairo.arr.ArrayView;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.vm.api.MemoryA;
 import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.Hash;
@@ -91,6 +92,8 @@ public class Unordered8Map implements Map, Reopenable {
     private final int maxResizes;
     private final int memoryTag;
     private final Unordered8MapRecord record;
+    // Used to access values of spilled key-value pairs.
+    private final Unordered8MapValue spilledValue;
     private final Unordered8MapValue value;
     private final Unordered8MapValue value2;
     private final Unordered8MapValue value3;
@@ -185,6 +188,7 @@ public class Unordered8Map implements Map, Reopenable {
             value = new Unordered8MapValue(valueSize, valueOffsets);
             value2 = new Unordered8MapValue(valueSize, valueOffsets);
             value3 = new Unordered8MapValue(valueSize, valueOffsets);
+            spilledValue = new Unordered8MapValue(valueSize, valueOffsets);
 
             record = new Unordered8MapRecord(valueSize, valueOffsets, value, keyTypes, valueTypes);
             cursor = new Unordered8MapCursor(record, this);
@@ -241,6 +245,11 @@ public class Unordered8Map implements Map, Reopenable {
         return memStart != 0;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return true;
+    }
+
     @Override
     public void merge(Map srcMap, MapValueMergeFunction mergeFunc) {
         assert this != srcMap;
@@ -299,6 +308,53 @@ public class Unordered8Map implements Map, Reopenable {
         }
     }
 
+    /**
+     * Merges key-value pairs previously written by {@link #spill(MemoryA)} into this map.
+     * The spilled pairs must come from a map with the same key and value types.
+     */
+    @Override
+    public void mergeSpilled(long lo, long hi, MapValueMergeFunction mergeFunc) {
+        OUTER:
+        for (long srcAddr = lo; srcAddr < hi; srcAddr += entrySize) {
+            long key = Unsafe.getUnsafe().getLong(srcAddr);
+            if (key == 0) {
+                // Only the zero key-value pair is spilled with the zero key.
+                if (hasZero) {
+                    mergeFunc.merge(
+                            valueAt(zeroMemStart),
+                            spilledValue.of(srcAddr, hi, false)
+                    );
+                } else {
+                    Vect.memcpy(zeroMemStart, srcAddr, entrySize);
+                    hasZero = true;
+                }
+                continue;
+            }
+
+            long destAddr = getStartAddress(Hash.hashLong64(key) & mask);
+            for (; ; ) {
+                long k = Unsafe.getUnsafe().getLong(destAddr);
+                if (k == 0) {
+                    break;
+                } else if (k == key) {
+                    // Match found, merge values.
+                    mergeFunc.merge(
+                            valueAt(destAddr),
+                            spilledValue.of(srcAddr, hi, false)
+                    );
+                    continue OUTER;
+                }
+                destAddr = getNextAddress(destAddr);
+            }
+
+            Vect.memcpy(destAddr, srcAddr, entrySize);
+            size++;
+            if (--free == 0) {
+                rehash();
+            }
+        }
+    }
+
     @Override
     public void reopen(int keyCapacity, long heapSize) {
         if (memStart == 0) {
@@ -353,6 +409,28 @@ public class Unordered8Map implements Map, Reopenable {
         return hasZero ? size + 1 : size;
     }
 
+    /**
+     * Appends all key-value pairs, including the zero key one, to the given memory and then
+     * clears the map shrinking it to the initial capacity. Empty hash table slots are skipped,
+     * so each pair takes exactly one entry. Spilled pairs can be merged back with
+     * {@link #mergeSpilled(long, long, MapValueMergeFunction)}.
+     */
+    @Override
+    public long spill(MemoryA mem) {
+        final long offset = mem.getAppendOffset();
+        if (hasZero) {
+            mem.putBlockOfBytes(zeroMemStart, entrySize);
+        }
+        for (long addr = memStart; addr < memLimit; addr += entrySize) {
+            if (Unsafe.getUnsafe().getLong(addr) != 0) {
+                mem.putBlockOfBytes(addr, entrySize);
+            }
+        }
+        restoreInitialCapacity();
+        clear();
+        return mem.getAppendOffset() - offset;
+    }
+
     @Override
     public MapValue valueAt(long startAddress) {
         return valueOf(startAddress, false, value);
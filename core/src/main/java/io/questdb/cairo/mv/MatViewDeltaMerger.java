@@ -0,0 +1,627 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SymbolMapReader;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapRecordCursor;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.wal.SymbolMapDiff;
+import io.questdb.cairo.wal.SymbolMapDiffEntry;
+import io.questdb.cairo.wal.WalDataRecord;
+import io.questdb.cairo.wal.WalEventCursor;
+import io.questdb.cairo.wal.WalReader;
+import io.questdb.cairo.wal.WalTxnType;
+import io.questdb.cairo.wal.WalWriter;
+import io.questdb.griffin.SqlKeywords;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.griffin.model.QueryColumn;
+import io.questdb.griffin.model.QueryModel;
+import io.questdb.std.Chars;
+import io.questdb.std.IntList;
+import io.questdb.std.IntObjHashMap;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.NotNull;
+
+import static io.questdb.cairo.wal.WalUtils.WAL_NAME_BASE;
+
+/**
+ * Refreshes a materialized view by merging aggregates computed over the newly inserted
+ * WAL rows into the stored view rows, instead of re-running the view query over whole
+ * SAMPLE BY buckets.
+ * <p>
+ * Only simple views are eligible: single table SAMPLE BY queries without filters, joins,
+ * FILL or time zone whose columns are the designated timestamp, plain key columns and
+ * sum(), count(), min() or max() aggregates. Other aggregates, such as avg() or first(),
+ * can't be derived from the stored view rows, so such views keep the re-aggregation path.
+ */
+public class MatViewDeltaMerger implements Mutable, QuietCloseable {
+    private static final int KIND_COUNT = 0;
+    private static final int KIND_KEY = 1;
+    private static final int KIND_MAX = 2;
+    private static final int KIND_MIN = 3;
+    private static final int KIND_SUM = 4;
+    private static final int KIND_TIMESTAMP = 5;
+    private final ObjList<CharSequence> baseColumnNames = new ObjList<>();
+    private final IntList baseColumnTypes = new IntList();
+    // per view column; WAL symbol keys below the count refer to the base table's symbol map
+    private final IntList cleanSymbolCounts = new IntList();
+    private final IntList columnKinds = new IntList();
+    private final ObjList<CharSequence> columnNames = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    private final CairoConfiguration configuration;
+    private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+    private final IntList mapIndexes = new IntList();
+    private final IntList recordColumnIndexes = new IntList();
+    // per view column; symbols added by the current WAL segment, by WAL symbol key
+    private final ObjList<IntObjHashMap<String>> segmentSymbols = new ObjList<>();
+    private final ObjList<SymbolMapReader> symbolMapReaders = new ObjList<>();
+    private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+    private final StringSink walNameSink = new StringSink();
+    private final IntList writerColumnIndexes = new IntList();
+    private Map map;
+    private long maxBucket;
+    private long minBucket;
+    private int timestampColumnIndex;
+
+    public MatViewDeltaMerger(CairoConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Aggregates the given WAL rows of the base table into SAMPLE BY buckets.
+     * <p>
+     * Symbol keys of the WAL rows are resolved with the base table reader's symbol maps
+     * for the symbols that existed when the segment was started, and with the segment's
+     * symbol map diffs for the ones added by the segment.
+     *
+     * @param baseTableReader base table reader, must include the given transactions
+     * @param txnRowRanges    WAL row ranges as loaded by {@link WalTxnRangeLoader#getTxnRowRanges()}
+     * @param sampler         view timestamp sampler with the start set to the view's offset
+     * @return false if a WAL segment's columns or symbols don't match the view query or
+     * the base table, true otherwise
+     */
+    public boolean aggregate(@NotNull TableReader baseTableReader, @NotNull LongList txnRowRanges, @NotNull TimestampSampler sampler) {
+        for (int i = 0, n = txnRowRanges.size(); i < n; ) {
+            final long walId = txnRowRanges.getQuick(i);
+            final long segmentId = txnRowRanges.getQuick(i + 1);
+            long segmentRowHi = txnRowRanges.getQuick(i + 3);
+            // consecutive transactions of the same segment share the reader
+            int hi = i + 4;
+            while (hi < n && txnRowRanges.getQuick(hi) == walId && txnRowRanges.getQuick(hi + 1) == segmentId) {
+                segmentRowHi = Math.max(segmentRowHi, txnRowRanges.getQuick(hi + 3));
+                hi += 4;
+            }
+
+            walNameSink.clear();
+            walNameSink.put(WAL_NAME_BASE).put(walId);
+            try (WalReader walReader = new WalReader(configuration, baseTableReader.getTableToken(), walNameSink, (int) segmentId, segmentRowHi, false)) {
+                if (!ofSegment(walReader, baseTableReader)) {
+                    return false;
+                }
+                final WalDataRecord record = (WalDataRecord) walReader.getDataCursor().getRecord();
+                final int timestampIndex = recordColumnIndexes.getQuick(timestampColumnIndex);
+                for (int j = i; j < hi; j += 4) {
+                    for (long row = txnRowRanges.getQuick(j + 2), rowHi = txnRowRanges.getQuick(j + 3); row < rowHi; row++) {
+                        record.jumpTo(row);
+                        final long bucket = sampler.round(record.getTimestamp(timestampIndex));
+                        minBucket = Math.min(minBucket, bucket);
+                        maxBucket = Math.max(maxBucket, bucket);
+                        final MapKey key = map.withKey();
+                        key.putTimestamp(bucket);
+                        putKeys(key, record, true);
+                        mergeValues(key.createValue(), record, baseColumnTypes, true);
+                    }
+                }
+            }
+            i = hi;
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        map = Misc.free(map);
+        baseColumnNames.clear();
+        baseColumnTypes.clear();
+        cleanSymbolCounts.clear();
+        columnKinds.clear();
+        columnNames.clear();
+        columnTypes.clear();
+        keyTypes.clear();
+        mapIndexes.clear();
+        recordColumnIndexes.clear();
+        segmentSymbols.clear();
+        symbolMapReaders.clear();
+        valueTypes.clear();
+        writerColumnIndexes.clear();
+        minBucket = Long.MAX_VALUE;
+        maxBucket = Long.MIN_VALUE;
+        timestampColumnIndex = -1;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * Appends merged view rows to the writer. The caller is responsible for the commit.
+     *
+     * @param walWriter view WAL writer
+     * @return number of appended rows
+     */
+    public long copyTo(@NotNull WalWriter walWriter) {
+        final int valueCount = valueTypes.getColumnCount();
+        final MapRecordCursor cursor = map.getCursor();
+        final MapRecord record = cursor.getRecord();
+        long rowCount = 0;
+        while (cursor.hasNext()) {
+            final TableWriter.Row row = walWriter.newRow(record.getTimestamp(valueCount));
+            for (int i = 0, n = columnKinds.size(); i < n; i++) {
+                final int kind = columnKinds.getQuick(i);
+                if (kind == KIND_TIMESTAMP) {
+                    continue;
+                }
+                final int writerIndex = writerColumnIndexes.getQuick(i);
+                final int mapIndex = kind == KIND_KEY ? valueCount + mapIndexes.getQuick(i) : mapIndexes.getQuick(i);
+                switch (columnTypes.getQuick(i)) {
+                    case ColumnType.SYMBOL:
+                        row.putSym(writerIndex, record.getStrA(mapIndex));
+                        break;
+                    case ColumnType.VARCHAR:
+                        row.putVarchar(writerIndex, record.getVarcharA(mapIndex));
+                        break;
+                    case ColumnType.INT:
+                        if (kind == KIND_KEY) {
+                            row.putInt(writerIndex, record.getInt(mapIndex));
+                        } else {
+                            final long value = record.getLong(mapIndex);
+                            row.putInt(writerIndex, value != Numbers.LONG_NULL ? (int) value : Numbers.INT_NULL);
+                        }
+                        break;
+                    case ColumnType.TIMESTAMP:
+                        row.putTimestamp(writerIndex, record.getLong(mapIndex));
+                        break;
+                    case ColumnType.DOUBLE:
+                        row.putDouble(writerIndex, record.getDouble(mapIndex));
+                        break;
+                    default:
+                        row.putLong(writerIndex, record.getLong(mapIndex));
+                        break;
+                }
+            }
+            row.append();
+            rowCount++;
+        }
+        return rowCount;
+    }
+
+    public long getMaxBucket() {
+        return maxBucket;
+    }
+
+    public long getMinBucket() {
+        return minBucket;
+    }
+
+    /**
+     * Merges the stored view rows of the touched buckets into the aggregated WAL rows.
+     *
+     * @param cursor   cursor over the view rows, e.g. the result of SELECT * on the view
+     * @param metadata cursor metadata
+     */
+    public void merge(@NotNull RecordCursor cursor, @NotNull RecordMetadata metadata) {
+        recordColumnIndexes.clear();
+        for (int i = 0, n = columnNames.size(); i < n; i++) {
+            final int index = metadata.getColumnIndexQuiet(columnNames.getQuick(i));
+            assert index > -1;
+            recordColumnIndexes.add(index);
+        }
+        final int timestampIndex = recordColumnIndexes.getQuick(timestampColumnIndex);
+
+        final Record record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            final MapKey key = map.withKey();
+            key.putTimestamp(record.getTimestamp(timestampIndex));
+            putKeys(key, record, false);
+            mergeValues(key.createValue(), record, columnTypes, false);
+        }
+    }
+
+    /**
+     * Checks if the view query is eligible for merge refresh and prepares the merge.
+     *
+     * @param model          parsed, not optimised view query model
+     * @param baseTableName  base table name
+     * @param baseMetadata   base table metadata
+     * @param viewMetadata   view table metadata
+     * @return true if the view can be refreshed by merging, false otherwise
+     */
+    public boolean of(
+            @NotNull QueryModel model,
+            @NotNull CharSequence baseTableName,
+            @NotNull RecordMetadata baseMetadata,
+            @NotNull RecordMetadata viewMetadata
+    ) {
+        clear();
+
+        final QueryModel nested = model.getNestedModel();
+        if (
+                nested == null
+                        || model.getUnionModel() != null
+                        || model.getLimitLo() != null
+                        || model.getLimitHi() != null
+                        || model.getOrderBy().size() > 0
+                        || nested.getNestedModel() != null
+                        || nested.getTableNameExpr() == null
+                        || nested.getTableNameExpr().type != ExpressionNode.LITERAL
+                        || !Chars.equalsIgnoreCase(nested.getTableNameExpr().token, baseTableName)
+                        || nested.getJoinModels().size() > 1
+                        || nested.getWhereClause() != null
+                        || nested.getLatestBy().size() > 0
+                        || nested.getTimestamp() != null
+                        || nested.getGroupBy().size() > 0
+                        || nested.getOrderBy().size() > 0
+                        || nested.getSampleBy() == null
+                        || nested.getSampleByFill().size() > 0
+                        || nested.getSampleByFrom() != null
+                        || nested.getSampleByTo() != null
+                        || nested.getSampleByTimezoneName() != null
+        ) {
+            return false;
+        }
+
+        // Deduplication may replace already aggregated rows.
+        final int baseTimestampIndex = baseMetadata.getTimestampIndex();
+        if (baseTimestampIndex < 0) {
+            return false;
+        }
+        for (int i = 0, n = baseMetadata.getColumnCount(); i < n; i++) {
+            if (baseMetadata.isDedupKey(i)) {
+                return false;
+            }
+        }
+
+        // The first key column is always the bucket timestamp.
+        keyTypes.add(ColumnType.TIMESTAMP);
+        final ObjList<QueryColumn> columns = model.getBottomUpColumns();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final QueryColumn column = columns.getQuick(i);
+            final int writerIndex = viewMetadata.getColumnIndexQuiet(column.getName());
+            if (writerIndex < 0) {
+                return false;
+            }
+            final int viewType = viewMetadata.getColumnType(writerIndex);
+            final ExpressionNode ast = column.getAst();
+
+            int kind;
+            int baseIndex = -1;
+            int baseType = ColumnType.UNDEFINED;
+            if (ast.type == ExpressionNode.LITERAL) {
+                baseIndex = baseMetadata.getColumnIndexQuiet(ast.token);
+                if (baseIndex < 0) {
+                    return false;
+                }
+                baseType = baseMetadata.getColumnType(baseIndex);
+                if (baseIndex == baseTimestampIndex) {
+                    if (timestampColumnIndex != -1 || writerIndex != viewMetadata.getTimestampIndex()) {
+                        return false;
+                    }
+                    timestampColumnIndex = i;
+                    kind = KIND_TIMESTAMP;
+                    mapIndexes.add(-1);
+                } else {
+                    if (viewType != baseType || !isSupportedKeyType(baseType)) {
+                        return false;
+                    }
+                    kind = KIND_KEY;
+                    // the bucket timestamp goes first among the keys
+                    mapIndexes.add(keyTypes.getColumnCount());
+                    keyTypes.add(baseType == ColumnType.SYMBOL ? ColumnType.STRING : baseType);
+                }
+            } else if (ast.type == ExpressionNode.FUNCTION) {
+                if (SqlKeywords.isCountKeyword(ast.token)) {
+                    final boolean countRows = ast.paramCount == 0
+                            || (ast.paramCount == 1 && ast.rhs.type == ExpressionNode.LITERAL && Chars.equals(ast.rhs.token, '*'));
+                    if (!countRows || viewType != ColumnType.LONG) {
+                        return false;
+                    }
+                    kind = KIND_COUNT;
+                } else {
+                    if (ast.paramCount != 1 || ast.rhs.type != ExpressionNode.LITERAL) {
+                        return false;
+                    }
+                    baseIndex = baseMetadata.getColumnIndexQuiet(ast.rhs.token);
+                    if (baseIndex < 0) {
+                        return false;
+                    }
+                    baseType = baseMetadata.getColumnType(baseIndex);
+                    if (SqlKeywords.isSumKeyword(ast.token)) {
+                        if (!isSupportedSum(viewType, baseType)) {
+                            return false;
+                        }
+                        kind = KIND_SUM;
+                    } else if (Chars.equalsLowerCaseAscii(ast.token, "min")) {
+                        if (viewType != baseType || !isSupportedMinMaxType(baseType)) {
+                            return false;
+                        }
+                        kind = KIND_MIN;
+                    } else if (Chars.equalsLowerCaseAscii(ast.token, "max")) {
+                        if (viewType != baseType || !isSupportedMinMaxType(baseType)) {
+                            return false;
+                        }
+                        kind = KIND_MAX;
+                    } else {
+                        return false;
+                    }
+                }
+                mapIndexes.add(valueTypes.getColumnCount());
+                valueTypes.add(viewType == ColumnType.DOUBLE ? ColumnType.DOUBLE : ColumnType.LONG);
+            } else {
+                return false;
+            }
+
+            columnKinds.add(kind);
+            columnNames.add(Chars.toString(column.getName()));
+            columnTypes.add(viewType);
+            writerColumnIndexes.add(writerIndex);
+            baseColumnNames.add(baseIndex > -1 ? baseMetadata.getColumnName(baseIndex) : null);
+            baseColumnTypes.add(baseType);
+        }
+
+        if (timestampColumnIndex == -1) {
+            return false;
+        }
+        map = MapFactory.createOrderedMap(configuration, keyTypes, valueTypes);
+        return true;
+    }
+
+    public long size() {
+        return map != null ? map.size() : 0;
+    }
+
+    private static long combine(int kind, long acc, long value) {
+        if (value == Numbers.LONG_NULL) {
+            return acc;
+        }
+        if (acc == Numbers.LONG_NULL) {
+            return value;
+        }
+        switch (kind) {
+            case KIND_MIN:
+                return Math.min(acc, value);
+            case KIND_MAX:
+                return Math.max(acc, value);
+            default:
+                return acc + value;
+        }
+    }
+
+    private static double combine(int kind, double acc, double value) {
+        if (Numbers.isNull(value)) {
+            return acc;
+        }
+        if (Numbers.isNull(acc)) {
+            return value;
+        }
+        switch (kind) {
+            case KIND_MIN:
+                return Math.min(acc, value);
+            case KIND_MAX:
+                return Math.max(acc, value);
+            default:
+                return acc + value;
+        }
+    }
+
+    private static long getLong(Record record, int columnIndex, int columnType) {
+        switch (columnType) {
+            case ColumnType.INT:
+                final int value = record.getInt(columnIndex);
+                return value != Numbers.INT_NULL ? value : Numbers.LONG_NULL;
+            case ColumnType.TIMESTAMP:
+                return record.getTimestamp(columnIndex);
+            default:
+                return record.getLong(columnIndex);
+        }
+    }
+
+    private static boolean isSupportedKeyType(int columnType) {
+        return columnType == ColumnType.SYMBOL
+                || columnType == ColumnType.VARCHAR
+                || columnType == ColumnType.INT
+                || columnType == ColumnType.LONG;
+    }
+
+    private static boolean isSupportedMinMaxType(int columnType) {
+        return columnType == ColumnType.INT
+                || columnType == ColumnType.LONG
+                || columnType == ColumnType.TIMESTAMP
+                || columnType == ColumnType.DOUBLE;
+    }
+
+    private static boolean isSupportedSum(int viewType, int baseType) {
+        if (viewType == ColumnType.LONG) {
+            return baseType == ColumnType.INT || baseType == ColumnType.LONG;
+        }
+        return viewType == ColumnType.DOUBLE && baseType == ColumnType.DOUBLE;
+    }
+
+    // WAL rows are single base table rows, while view rows hold partial aggregates.
+    private void mergeValues(MapValue value, Record record, IntList recordColumnTypes, boolean walRow) {
+        final boolean isNew = value.isNew();
+        for (int i = 0, n = columnKinds.size(); i < n; i++) {
+            final int kind = columnKinds.getQuick(i);
+            if (kind == KIND_TIMESTAMP || kind == KIND_KEY) {
+                continue;
+            }
+            final int valueIndex = mapIndexes.getQuick(i);
+            if (kind == KIND_COUNT) {
+                final long count = walRow ? 1 : record.getLong(recordColumnIndexes.getQuick(i));
+                if (isNew) {
+                    value.putLong(valueIndex, count);
+                } else {
+                    value.addLong(valueIndex, count);
+                }
+            } else if (columnTypes.getQuick(i) == ColumnType.DOUBLE) {
+                final double v = record.getDouble(recordColumnIndexes.getQuick(i));
+                value.putDouble(valueIndex, isNew ? v : combine(kind, value.getDouble(valueIndex), v));
+            } else {
+                final long v = getLong(record, recordColumnIndexes.getQuick(i), recordColumnTypes.getQuick(i));
+                value.putLong(valueIndex, isNew ? v : combine(kind, value.getLong(valueIndex), v));
+            }
+        }
+    }
+
+    private boolean ofSegment(WalReader walReader, TableReader baseTableReader) {
+        recordColumnIndexes.clear();
+        for (int i = 0, n = columnKinds.size(); i < n; i++) {
+            final CharSequence baseColumnName = baseColumnNames.getQuick(i);
+            if (baseColumnName == null) {
+                recordColumnIndexes.add(-1);
+                continue;
+            }
+            int index = -1;
+            for (int j = 0, m = walReader.getColumnCount(); j < m; j++) {
+                if (walReader.getColumnType(j) > 0 && Chars.equalsIgnoreCase(walReader.getColumnName(j), baseColumnName)) {
+                    index = j;
+                    break;
+                }
+            }
+            if (index < 0 || walReader.getColumnType(index) != baseColumnTypes.getQuick(i)) {
+                return false;
+            }
+            recordColumnIndexes.add(index);
+        }
+        return recordColumnIndexes.getQuick(timestampColumnIndex) == walReader.getTimestampIndex()
+                && ofSegmentSymbols(walReader, baseTableReader);
+    }
+
+    // Reads only the symbols added by the segment; the older ones are read from the base table on demand.
+    private boolean ofSegmentSymbols(WalReader walReader, TableReader baseTableReader) {
+        for (int i = 0, n = columnKinds.size(); i < n; i++) {
+            if (columnKinds.getQuick(i) != KIND_KEY || columnTypes.getQuick(i) != ColumnType.SYMBOL) {
+                continue;
+            }
+            final int baseIndex = baseTableReader.getMetadata().getColumnIndexQuiet(baseColumnNames.getQuick(i));
+            if (baseIndex < 0 || baseTableReader.getMetadata().getColumnType(baseIndex) != ColumnType.SYMBOL) {
+                return false;
+            }
+            symbolMapReaders.extendAndSet(i, baseTableReader.getSymbolMapReader(baseIndex));
+            // without a diff, the segment has no symbols of its own
+            cleanSymbolCounts.extendAndSet(i, Integer.MAX_VALUE);
+            IntObjHashMap<String> symbols = segmentSymbols.getQuiet(i);
+            if (symbols == null) {
+                symbols = new IntObjHashMap<>();
+                segmentSymbols.extendAndSet(i, symbols);
+            } else {
+                symbols.clear();
+            }
+        }
+
+        final WalEventCursor eventCursor = walReader.getEventCursor();
+        while (eventCursor.hasNext()) {
+            if (!WalTxnType.isDataType(eventCursor.getType())) {
+                continue;
+            }
+            final WalEventCursor.DataInfo dataInfo = eventCursor.getDataInfo();
+            SymbolMapDiff symbolDiff = dataInfo.nextSymbolMapDiff();
+            while (symbolDiff != null) {
+                final int i = recordColumnIndexes.indexOf(symbolDiff.getColumnIndex(), 0, recordColumnIndexes.size());
+                if (i < 0 || columnKinds.getQuick(i) != KIND_KEY || columnTypes.getQuick(i) != ColumnType.SYMBOL) {
+                    symbolDiff.drain();
+                } else {
+                    final int cleanSymbolCount = symbolDiff.getCleanSymbolCount();
+                    if (cleanSymbolCount > symbolMapReaders.getQuick(i).getSymbolCount()) {
+                        // the base table reader doesn't have the symbols the segment refers to
+                        return false;
+                    }
+                    cleanSymbolCounts.setQuick(i, cleanSymbolCount);
+                    final IntObjHashMap<String> symbols = segmentSymbols.getQuick(i);
+                    SymbolMapDiffEntry entry = symbolDiff.nextEntry();
+                    while (entry != null) {
+                        symbols.put(entry.getKey(), Chars.toString(entry.getSymbol()));
+                        entry = symbolDiff.nextEntry();
+                    }
+                }
+                symbolDiff = dataInfo.nextSymbolMapDiff();
+            }
+        }
+        return true;
+    }
+
+    private void putKeys(MapKey key, Record record, boolean walRow) {
+        for (int i = 0, n = columnKinds.size(); i < n; i++) {
+            if (columnKinds.getQuick(i) != KIND_KEY) {
+                continue;
+            }
+            final int columnIndex = recordColumnIndexes.getQuick(i);
+            switch (columnTypes.getQuick(i)) {
+                case ColumnType.SYMBOL:
+                    key.putStr(walRow ? walSymbolValueOf(i, record.getInt(columnIndex)) : record.getSymA(columnIndex));
+                    break;
+                case ColumnType.VARCHAR:
+                    key.putVarchar(record.getVarcharA(columnIndex));
+                    break;
+                case ColumnType.INT:
+                    key.putInt(record.getInt(columnIndex));
+                    break;
+                default:
+                    key.putLong(record.getLong(columnIndex));
+                    break;
+            }
+        }
+    }
+
+    private CharSequence walSymbolValueOf(int columnIndex, int key) {
+        if (key == SymbolTable.VALUE_IS_NULL) {
+            return null;
+        }
+        if (key < cleanSymbolCounts.getQuick(columnIndex)) {
+            return symbolMapReaders.getQuick(columnIndex).valueOf(key);
+        }
+        return segmentSymbols.getQuick(columnIndex).get(key);
+    }
+}
@@ -36,6 +36,7 @@ import io.questdb.cairo.TableWriterAPI;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.sql.TableReferenceOutOfDateException;
 import io.questdb.cairo.wal.WalWriter;
 import io.questdb.cairo.wal.seq.SeqTxnTracker;
@@ -47,6 +48,7 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.engine.groupby.TimestampSampler;
 import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
 import io.questdb.griffin.model.IntervalUtils;
+import io.questdb.griffin.model.QueryModel;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.Job;
@@ -76,6 +78,7 @@ public class MatViewRefreshJob implements Job, QuietCloseable {
     private final ObjList<TableToken> childViewSink2 = new ObjList<>();
     private final EntityColumnFilter columnFilter = new EntityColumnFilter();
     private final CairoConfiguration configuration;
+    private final MatViewDeltaMerger deltaMerger;
     private final CairoEngine engine;
     private final StringSink errorMsgSink = new StringSink();
     private final FixedOffsetIntervalIterator fixedOffsetIterator = new FixedOffsetIntervalIterator();
@@ -98,6 +101,7 @@ public class MatViewRefreshJob implements Job, QuietCloseable {
             this.graph = engine.getMatViewGraph();
             this.stateStore = engine.getMatViewStateStore();
             this.configuration = engine.getConfiguration();
+            this.deltaMerger = new MatViewDeltaMerger(configuration);
             this.txnRangeLoader = new WalTxnRangeLoader(configuration.getFilesFacade());
             this.microsecondClock = configuration.getMicrosecondClock();
         } catch (Throwable th) {
@@ -116,6 +120,7 @@ public class MatViewRefreshJob implements Job, QuietCloseable {
         LOG.info().$("materialized view refresh job closing [workerId=").$(workerId).I$();
         Misc.free(refreshSqlExecutionContext);
         Misc.free(txnRangeLoader);
+        Misc.free(deltaMerger);
     }
 
     @Override
@@ -235,6 +240,7 @@ public class MatViewRefreshJob implements Job, QuietCloseable {
                     txnRangeLoader.load(engine, Path.PATH.get(), baseTableToken, txnIntervals, lastRefreshTxn, lastTxn);
                     minTs = txnRangeLoader.getMinTimestamp();
                     maxTs = txnRangeLoader.getMaxTimestamp();
+                    refreshContext.txnRangesLoaded = true;
                 } catch (CairoException ex) {
                     LOG.error().$("could not read WAL transactions, falling back to full refresh [view=").$(viewToken)
                             .$(", ex=").$safe(ex.getFlyweightMessage())
@@ -868,6 +874,112 @@ public class MatViewRefreshJob implements Job, QuietCloseable {
         }
     }
 
+    /**
+     * Refreshes the view by merging aggregates of the new base table WAL rows into the stored
+     * view rows. Returns false when the view or the transactions are not eligible, in which
+     * case the caller falls back to re-running the view query over the touched buckets.
+     */
+    private boolean mergeRefresh(
+            @NotNull TableReader baseTableReader,
+            @NotNull MatViewState viewState,
+            @NotNull WalWriter walWriter,
+            @NotNull RefreshContext refreshContext,
+            long refreshTriggerTimestamp
+    ) {
+        assert viewState.isLocked();
+
+        final MatViewDefinition viewDefinition = viewState.getViewDefinition();
+        if (
+                !refreshContext.txnRangesLoaded
+                        || refreshContext.intervalIterator == null
+                        || !txnRangeLoader.isPlainInsertsOnly()
+                        || viewDefinition.getPeriodLength() > 0
+                        || viewDefinition.getRefreshLimitHoursOrMonths() != 0
+                        || viewDefinition.getTzRules() != null
+        ) {
+            return false;
+        }
+
+        final TableToken viewToken = viewDefinition.getMatViewToken();
+        // Stored view rows are the merge base, so all previous refreshes must be applied.
+        try (TableReader viewReader = engine.getReader(viewToken)) {
+            if (viewReader.getSeqTxn() != engine.getTableSequencerAPI().lastTxn(viewToken)) {
+                return false;
+            }
+        }
+
+        // The merged rows replace a single range, so the touched buckets must be adjacent.
+        final TimestampSampler sampler = viewDefinition.getTimestampSampler();
+        sampler.setStart(viewDefinition.getFixedOffset());
+        for (int i = 2, n = intervals.size(); i < n; i += 2) {
+            if (sampler.round(intervals.getQuick(i)) > sampler.nextTimestamp(sampler.round(intervals.getQuick(i - 1)))) {
+                return false;
+            }
+        }
+
+        final long refreshStartTimestamp = microsecondClock.getTicks();
+        try (SqlCompiler compiler = engine.getSqlCompiler()) {
+            final QueryModel model = compiler.parseSelect(viewDefinition.getMatViewSql(), refreshSqlExecutionContext);
+            final TableRecordMetadata viewMetadata = walWriter.getMetadata();
+            if (
+                    !deltaMerger.of(model, viewDefinition.getBaseTableName(), baseTableReader.getMetadata(), viewMetadata)
+                            || !deltaMerger.aggregate(baseTableReader, txnRangeLoader.getTxnRowRanges(), sampler)
+                            || deltaMerger.size() == 0
+            ) {
+                return false;
+            }
+
+            viewState.setLastRefreshStartTimestamp(refreshStartTimestamp);
+            final long replacementTimestampLo = deltaMerger.getMinBucket();
+            final long replacementTimestampHi = sampler.nextTimestamp(deltaMerger.getMaxBucket());
+            refreshSqlExecutionContext.setRange(replacementTimestampLo, replacementTimestampHi);
+            final CompiledQuery compiledQuery = compiler.query()
+                    .$("select * from \"").$(viewToken.getTableName())
+                    .$("\" where \"").$(viewMetadata.getColumnName(viewMetadata.getTimestampIndex()))
+                    .$("\" between $1 and $2")
+                    .compile(refreshSqlExecutionContext);
+            try (
+                    RecordCursorFactory factory = compiledQuery.getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(refreshSqlExecutionContext)
+            ) {
+                deltaMerger.merge(cursor, factory.getMetadata());
+            }
+
+            final long rowCount = deltaMerger.copyTo(walWriter);
+            final long commitBaseTxn = refreshContext.toBaseTxn;
+            final long commitPeriodHi = viewState.getLastPeriodHi();
+            final long refreshFinishTimestamp = microsecondClock.getTicks();
+            walWriter.commitMatView(
+                    commitBaseTxn,
+                    refreshFinishTimestamp,
+                    commitPeriodHi,
+                    replacementTimestampLo,
+                    replacementTimestampHi
+            );
+            viewState.refreshSuccessNoRows(
+                    refreshFinishTimestamp,
+                    refreshTriggerTimestamp,
+                    commitBaseTxn,
+                    commitPeriodHi
+            );
+            LOG.info().$("merged materialized view rows [view=").$(viewToken)
+                    .$(", toTxn=").$(commitBaseTxn)
+                    .$(", rows=").$(rowCount)
+                    .$(", replacementTsLo>=").$ts(replacementTimestampLo)
+                    .$(", replacementTsHi<").$ts(replacementTimestampHi)
+                    .I$();
+            return true;
+        } catch (Throwable th) {
+            walWriter.rollback();
+            LOG.error().$("could not merge materialized view rows, falling back to query [view=").$(viewToken)
+                    .$(", ex=").$(th)
+                    .I$();
+            return false;
+        } finally {
+            deltaMerger.clear();
+        }
+    }
+
     private boolean processNotifications() {
         boolean refreshed = false;
         while (stateStore.tryDequeueRefreshTask(refreshTask)) {
@@ -1167,6 +1279,9 @@ public class MatViewRefreshJob implements Job, QuietCloseable {
             refreshSqlExecutionContext.of(baseTableReader);
             try {
                 final RefreshContext refreshContext = findRefreshIntervals(baseTableReader, viewState, fromBaseTxn);
+                if (mergeRefresh(baseTableReader, viewState, walWriter, refreshContext, refreshTriggerTimestamp)) {
+                    return true;
+                }
                 return insertAsSelect(viewState, walWriter, refreshContext, refreshTriggerTimestamp);
             } finally {
                 refreshSqlExecutionContext.clearReader();
@@ -1231,12 +1346,14 @@ public class MatViewRefreshJob implements Job, QuietCloseable {
         public SampleByIntervalIterator intervalIterator;
         public long periodHi = Numbers.LONG_NULL;
         public long toBaseTxn = -1;
+        public boolean txnRangesLoaded;
 
         @Override
         public void clear() {
             intervalIterator = null;
             periodHi = Numbers.LONG_NULL;
             toBaseTxn = -1;
+            txnRangesLoaded = false;
         }
     }
 }
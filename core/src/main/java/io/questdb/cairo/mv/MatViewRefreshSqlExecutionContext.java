@@ -49,8 +49,12 @@ public class MatViewRefreshSqlExecutionContext extends SqlExecutionContextImpl {
     public MatViewRefreshSqlExecutionContext(CairoEngine engine, int workerCount, int sharedWorkerCount) {
         super(engine, workerCount, sharedWorkerCount);
         if (!engine.getConfiguration().isMatViewParallelSqlEnabled()) {
+            setParallelAsOfJoinEnabled(false);
             setParallelFilterEnabled(false);
             setParallelGroupByEnabled(false);
+            setParallelHashJoinEnabled(false);
+            setParallelOrderByEnabled(false);
+            setParallelWindowEnabled(false);
             setParallelReadParquetEnabled(false);
         }
         this.securityContext = new ReadOnlySecurityContext() {
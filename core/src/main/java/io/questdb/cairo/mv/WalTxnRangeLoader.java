@@ -45,9 +45,12 @@ import org.jetbrains.annotations.NotNull;
 import static io.questdb.cairo.wal.WalUtils.*;
 
 public class WalTxnRangeLoader implements QuietCloseable {
+    // walId, segmentId, start row id and end row id for each loaded data transaction
+    private final LongList txnRowRanges = new LongList();
     private final WalEventReader walEventReader;
     private long maxTimestamp;
     private long minTimestamp;
+    private boolean plainInsertsOnly;
     private DirectLongList txnDetails = new DirectLongList(10 * 4L, MemoryTag.NATIVE_TABLE_READER);
 
     public WalTxnRangeLoader(FilesFacade ff) {
@@ -67,6 +70,23 @@ public class WalTxnRangeLoader implements QuietCloseable {
         return minTimestamp;
     }
 
+    /**
+     * Returns WAL row ranges of the loaded data transactions, 4 longs per transaction:
+     * walId, segmentId, start row id (inclusive) and end row id (exclusive).
+     * The ranges are complete only when {@link #isPlainInsertsOnly()} returns true.
+     */
+    public LongList getTxnRowRanges() {
+        return txnRowRanges;
+    }
+
+    /**
+     * Returns true when all loaded transactions are plain data inserts, i.e. there are
+     * no replace range commits, upserts, SQL or structure change transactions among them.
+     */
+    public boolean isPlainInsertsOnly() {
+        return plainInsertsOnly;
+    }
+
     public void load(
             @NotNull CairoEngine engine,
             @NotNull Path tempPath,
@@ -93,15 +113,19 @@ public class WalTxnRangeLoader implements QuietCloseable {
             long txnHi
     ) {
         txnDetails.clear();
+        txnRowRanges.clear();
+        plainInsertsOnly = false;
 
         minTimestamp = Long.MAX_VALUE;
         maxTimestamp = Long.MIN_VALUE;
+        boolean plainInserts = true;
 
         try (WalEventReader eventReader = walEventReader) {
             final int maxLoadTxnCount = (int) (txnHi - txnLo);
             int txnsToLoad = (int) Math.min(maxLoadTxnCount, transactionLogCursor.getMaxTxn() - txnLo + 1);
             if (txnsToLoad > 0) {
                 txnsToLoad = WalTxnDetails.loadTxns(transactionLogCursor, txnsToLoad, txnDetails);
+                plainInserts = txnsToLoad == maxLoadTxnCount;
 
                 int lastWalId = -1;
                 int lastSegmentId = -1;
@@ -138,10 +162,17 @@ public class WalTxnRangeLoader implements QuietCloseable {
 
                         if (!WalTxnType.isDataType(walEventCursor.getType())) {
                             // Skip non-inserts
+                            plainInserts = false;
                             continue;
                         }
 
                         final WalEventCursor.DataInfo dataInfo = walEventCursor.getDataInfo();
+                        final byte dedupMode = dataInfo.getDedupMode();
+                        if (dedupMode == WAL_DEDUP_MODE_DEFAULT || dedupMode == WAL_DEDUP_MODE_NO_DEDUP) {
+                            txnRowRanges.add(walId, segmentId, dataInfo.getStartRowID(), dataInfo.getEndRowID());
+                        } else {
+                            plainInserts = false;
+                        }
                         long minTimestamp1 = dataInfo.getMinTimestamp();
                         long maxTimestamp1 = dataInfo.getMaxTimestamp();
                         if (dataInfo.getDedupMode() == WAL_DEDUP_MODE_REPLACE_RANGE) {
@@ -151,6 +182,9 @@ public class WalTxnRangeLoader implements QuietCloseable {
                         }
                         intervals.add(minTimestamp1, maxTimestamp1);
                         IntervalUtils.unionInPlace(intervals, intervals.size() - 2);
+                    } else {
+                        // Structure change transaction.
+                        plainInserts = false;
                     }
                 }
 
@@ -159,6 +193,7 @@ public class WalTxnRangeLoader implements QuietCloseable {
                     maxTimestamp = intervals.getQuick(intervals.size() - 1);
                 }
             }
+            plainInsertsOnly = plainInserts;
         } finally {
             txnDetails.resetCapacity();
         }
@@ -188,6 +188,11 @@ public final class SqlCompilerPool extends AbstractMultiTenantPool<SqlCompilerPo
             pool = null;
         }
 
+        @Override
+        public QueryModel parseSelect(CharSequence sqlText, SqlExecutionContext executionContext) throws SqlException {
+            return delegate.parseSelect(sqlText, executionContext);
+        }
+
         @Override
         public QueryBuilder query() {
             return delegate.query();
@@ -24,11 +24,15 @@
 
 package io.questdb.cairo.sql;
 
+import io.questdb.MessageBus;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.Reopenable;
 import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 import io.questdb.griffin.engine.table.parquet.RowGroupBuffers;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.MPSequence;
 import io.questdb.std.DirectIntList;
 import io.questdb.std.IntList;
 import io.questdb.std.LongList;
@@ -36,8 +40,13 @@ import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.ObjList;
+import io.questdb.std.Os;
 import io.questdb.std.QuietCloseable;
+import io.questdb.tasks.ParquetPrefetchTask;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Provides addresses for page frames in both native and Parquet formats.
@@ -49,9 +58,16 @@ import org.jetbrains.annotations.NotNull;
  * <p>
  * This pool is thread-unsafe as it may hold navigated Parquet partition data,
  * so it shouldn't be shared between multiple threads.
+ * <p>
+ * When a message bus is provided and the scan goes forward through whole row groups
+ * of a Parquet partition, the pool asks {@link io.questdb.cairo.sql.async.ParquetPrefetchJob}
+ * to decode the next few row groups into spare cache buffers, so that decoding overlaps
+ * with processing of the current frame. The prefetch request is owned by a single worker
+ * at a time: either a worker claims it, or the pool cancels it before touching the buffers.
  */
 public class PageFrameMemoryPool implements QuietCloseable, Mutable {
     private static final byte FRAME_MEMORY_MASK = 1 << 2;
+    private static final Log LOG = LogFactory.getLog(PageFrameMemoryPool.class);
     private static final byte RECORD_A_MASK = 1;
     private static final byte RECORD_B_MASK = 1 << 1;
     // LRU cache (most recently used buffers are to the right)
@@ -64,13 +80,38 @@ public class PageFrameMemoryPool implements QuietCloseable, Mutable {
     // Contains [parquet_column_index, column_type] pairs.
     private final DirectIntList parquetColumns;
     private final PartitionDecoder parquetDecoder;
+    // Buffers and row groups of the in-flight prefetch request, the worker that
+    // claimed the request is the only one accessing them until the request is done.
+    private final ObjList<ParquetBuffers> prefetchBuffers = new ObjList<>();
+    // Id of the published request not yet claimed by a worker, -1 if there is none.
+    private final AtomicLong prefetchClaim = new AtomicLong(-1);
+    // Prefetch copies of the column mappings, the owner may remap the columns while the request is in flight.
+    private final DirectIntList prefetchColumns;
+    private final PartitionDecoder prefetchDecoder;
+    private final IntList prefetchFromParquetColumnIndexes;
+    private final int prefetchRowGroupCount;
+    private final IntList prefetchRowGroupSizes = new IntList();
+    private final IntList prefetchRowGroups = new IntList();
     // Contains table reader to parquet column index mapping.
     private final IntList toParquetColumnIndexes;
     private PageFrameAddressCache addressCache;
+    private long lastParquetAddr;
+    private int lastRowGroupIndex = -1;
+    private MessageBus messageBus;
+    private int prefetchColumnCount;
+    private volatile long prefetchDoneId = -1;
+    private long prefetchId;
+    private boolean prefetchInFlight;
 
     public PageFrameMemoryPool(int parquetCacheSize) {
+        this(parquetCacheSize, 0);
+    }
+
+    public PageFrameMemoryPool(int parquetCacheSize, int prefetchRowGroupCount) {
         try {
             this.parquetCacheSize = parquetCacheSize;
+            // the current frame's buffers can't be used for prefetch
+            this.prefetchRowGroupCount = Math.max(Math.min(prefetchRowGroupCount, parquetCacheSize - 1), 0);
             cachedParquetBuffers = new ObjList<>(parquetCacheSize);
             freeParquetBuffers = new ObjList<>(parquetCacheSize);
             for (int i = 0; i < parquetCacheSize; i++) {
@@ -81,6 +122,15 @@ public class PageFrameMemoryPool implements QuietCloseable, Mutable {
             fromParquetColumnIndexes = new IntList(16);
             parquetColumns = new DirectIntList(32, MemoryTag.NATIVE_DEFAULT);
             parquetDecoder = new PartitionDecoder();
+            if (this.prefetchRowGroupCount > 0) {
+                prefetchDecoder = new PartitionDecoder();
+                prefetchColumns = new DirectIntList(32, MemoryTag.NATIVE_DEFAULT);
+                prefetchFromParquetColumnIndexes = new IntList(16);
+            } else {
+                prefetchDecoder = null;
+                prefetchColumns = null;
+                prefetchFromParquetColumnIndexes = null;
+            }
         } catch (Throwable th) {
             close();
             throw th;
@@ -89,7 +139,16 @@ public class PageFrameMemoryPool implements QuietCloseable, Mutable {
 
     @Override
     public void clear() {
+        awaitPrefetch();
         Misc.free(parquetDecoder);
+        Misc.free(prefetchDecoder);
+        if (prefetchColumns != null) {
+            prefetchColumns.resetCapacity();
+        }
+        prefetchBuffers.clear();
+        lastParquetAddr = 0;
+        lastRowGroupIndex = -1;
+        messageBus = null;
         toParquetColumnIndexes.restoreInitialCapacity();
         fromParquetColumnIndexes.restoreInitialCapacity();
         parquetColumns.resetCapacity();
@@ -102,8 +161,13 @@ public class PageFrameMemoryPool implements QuietCloseable, Mutable {
 
     @Override
     public void close() {
+        awaitPrefetch();
         Misc.free(parquetDecoder);
         Misc.free(parquetColumns);
+        Misc.free(prefetchDecoder);
+        Misc.free(prefetchColumns);
+        prefetchBuffers.clear();
+        messageBus = null;
         freeParquetBuffers.addAll(cachedParquetBuffers);
         cachedParquetBuffers.clear();
         Misc.freeObjListAndKeepObjects(freeParquetBuffers);
@@ -132,13 +196,8 @@ public class PageFrameMemoryPool implements QuietCloseable, Mutable {
                     addressCache.getAuxPageSizes(frameIndex)
             );
         } else if (format == PartitionFormat.PARQUET) {
-            openParquet(frameIndex);
             final byte usageBit = record.getLetter() == PageFrameMemoryRecord.RECORD_A_LETTER ? RECORD_A_MASK : RECORD_B_MASK;
-            final ParquetBuffers parquetBuffers = nextFreeBuffers(frameIndex, usageBit);
-            final int rowGroupIndex = addressCache.getParquetRowGroup(frameIndex);
-            final int rowGroupLo = addressCache.getParquetRowGroupLo(frameIndex);
-            final int rowGroupHi = addressCache.getParquetRowGroupHi(frameIndex);
-            parquetBuffers.decode(parquetDecoder, parquetColumns, rowGroupIndex, rowGroupLo, rowGroupHi);
+            final ParquetBuffers parquetBuffers = decodeParquetFrame(frameIndex, usageBit);
 
             record.init(
                     frameIndex,
@@ -173,12 +232,7 @@ public class PageFrameMemoryPool implements QuietCloseable, Mutable {
             frameMemory.pageSizes = addressCache.getPageSizes(frameIndex);
             frameMemory.auxPageSizes = addressCache.getAuxPageSizes(frameIndex);
         } else if (format == PartitionFormat.PARQUET) {
-            openParquet(frameIndex);
-            final ParquetBuffers parquetBuffers = nextFreeBuffers(frameIndex, FRAME_MEMORY_MASK);
-            final int rowGroupIndex = addressCache.getParquetRowGroup(frameIndex);
-            final int rowGroupLo = addressCache.getParquetRowGroupLo(frameIndex);
-            final int rowGroupHi = addressCache.getParquetRowGroupHi(frameIndex);
-            parquetBuffers.decode(parquetDecoder, parquetColumns, rowGroupIndex, rowGroupLo, rowGroupHi);
+            final ParquetBuffers parquetBuffers = decodeParquetFrame(frameIndex, FRAME_MEMORY_MASK);
 
             frameMemory.pageAddresses = parquetBuffers.pageAddresses;
             frameMemory.auxPageAddresses = parquetBuffers.auxPageAddresses;
@@ -192,13 +246,143 @@ public class PageFrameMemoryPool implements QuietCloseable, Mutable {
     }
 
     public void of(PageFrameAddressCache addressCache) {
+        of(addressCache, null);
+    }
+
+    /**
+     * Same as {@link #of(PageFrameAddressCache)}, but also enables Parquet row group
+     * prefetch via the given message bus, if the pool was created with non-zero
+     * prefetch row group count.
+     */
+    public void of(PageFrameAddressCache addressCache, @Nullable MessageBus messageBus) {
+        awaitPrefetch();
         this.addressCache = addressCache;
+        this.messageBus = prefetchRowGroupCount > 0 ? messageBus : null;
         parquetColumns.reopen();
         for (int i = 0, n = freeParquetBuffers.size(); i < n; i++) {
             freeParquetBuffers.getQuick(i).reopen();
         }
+        // Cached buffers may hold data of a file that has been unmapped since.
+        for (int i = 0, n = cachedParquetBuffers.size(); i < n; i++) {
+            cachedParquetBuffers.getQuick(i).resetDecoded();
+        }
         frameMemory.clear();
         Misc.free(parquetDecoder);
+        Misc.free(prefetchDecoder);
+        if (prefetchColumns != null) {
+            prefetchColumns.reopen();
+        }
+        lastParquetAddr = 0;
+        lastRowGroupIndex = -1;
+    }
+
+    /**
+     * Decodes the row groups of the prefetch request with the given id, unless the request
+     * has been claimed or cancelled already. Called by {@link io.questdb.cairo.sql.async.ParquetPrefetchJob}.
+     */
+    public void prefetch(long id) {
+        if (!prefetchClaim.compareAndSet(id, -1)) {
+            return;
+        }
+        try {
+            final long fileAddr = prefetchDecoder.getFileAddr();
+            for (int i = 0, n = prefetchBuffers.size(); i < n; i++) {
+                prefetchBuffers.getQuick(i).decode(
+                        prefetchDecoder,
+                        prefetchColumns,
+                        prefetchFromParquetColumnIndexes,
+                        prefetchColumnCount,
+                        fileAddr,
+                        prefetchRowGroups.getQuick(i),
+                        0,
+                        prefetchRowGroupSizes.getQuick(i)
+                );
+            }
+        } catch (Throwable th) {
+            // the remaining row groups will be decoded on demand
+            LOG.error().$("could not prefetch parquet row group [error=").$(th).I$();
+        } finally {
+            prefetchDoneId = id;
+        }
+    }
+
+    // Transfers ownership of the prefetch buffers back to this pool. Must be called
+    // before any of the cached buffers or the prefetch decoder are accessed.
+    private void awaitPrefetch() {
+        if (!prefetchInFlight) {
+            return;
+        }
+        prefetchInFlight = false;
+        if (prefetchClaim.compareAndSet(prefetchId, -1)) {
+            // No worker picked up the request yet. Cancel it, the frames will be decoded on demand.
+            return;
+        }
+        while (prefetchDoneId != prefetchId) {
+            Os.pause();
+        }
+    }
+
+    private ParquetBuffers decodeParquetFrame(int frameIndex, byte usageBit) {
+        openParquet(frameIndex);
+        awaitPrefetch();
+
+        final long fileAddr = parquetDecoder.getFileAddr();
+        final int rowGroupIndex = addressCache.getParquetRowGroup(frameIndex);
+        final int rowGroupLo = addressCache.getParquetRowGroupLo(frameIndex);
+        final int rowGroupHi = addressCache.getParquetRowGroupHi(frameIndex);
+        if (prefetchRowGroupCount > 0) {
+            usePrefetchedBuffers(frameIndex, fileAddr, rowGroupIndex, rowGroupLo, rowGroupHi);
+        }
+        final ParquetBuffers parquetBuffers = nextFreeBuffers(frameIndex, usageBit);
+        parquetBuffers.decode(
+                parquetDecoder,
+                parquetColumns,
+                fromParquetColumnIndexes,
+                addressCache.getColumnCount(),
+                fileAddr,
+                rowGroupIndex,
+                rowGroupLo,
+                rowGroupHi
+        );
+        if (messageBus != null) {
+            schedulePrefetch(fileAddr, rowGroupIndex, rowGroupLo, rowGroupHi);
+        }
+        return parquetBuffers;
+    }
+
+    private boolean isPrefetchCandidate(ParquetBuffers buffers, long fileAddr, int prefetchLo, int prefetchHi) {
+        // keep buffers already holding one of the row groups we are about to prefetch
+        return buffers.usageFlags == 0
+                && (buffers.decodedFileAddr != fileAddr || buffers.decodedRowGroup <= prefetchLo || buffers.decodedRowGroup >= prefetchHi)
+                && prefetchBuffers.indexOf(buffers) < 0;
+    }
+
+    private boolean isRowGroupCached(long fileAddr, int rowGroup, int rowLo, int rowHi) {
+        for (int i = 0, n = cachedParquetBuffers.size(); i < n; i++) {
+            if (cachedParquetBuffers.getQuick(i).isDecoded(fileAddr, rowGroup, rowLo, rowHi)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private ParquetBuffers nextPrefetchBuffers(long fileAddr, int prefetchLo, int prefetchHi) {
+        final int free = freeParquetBuffers.size();
+        if (free > 0) {
+            final ParquetBuffers buffers = freeParquetBuffers.getQuick(free - 1);
+            freeParquetBuffers.remove(free - 1);
+            cachedParquetBuffers.add(buffers);
+            return buffers;
+        }
+        // least recently used buffers are to the left
+        for (int i = 0, n = cachedParquetBuffers.size(); i < n; i++) {
+            final ParquetBuffers buffers = cachedParquetBuffers.getQuick(i);
+            if (isPrefetchCandidate(buffers, fileAddr, prefetchLo, prefetchHi)) {
+                return buffers;
+            }
+        }
+        return null;
     }
 
     // We don't use additional data structures to speed up the lookups
@@ -285,6 +469,91 @@ public class PageFrameMemoryPool implements QuietCloseable, Mutable {
         }
     }
 
+    private void schedulePrefetch(long fileAddr, int rowGroupIndex, int rowGroupLo, int rowGroupHi) {
+        // Prefetch only when the scan goes forward through whole row groups.
+        final boolean forward = fileAddr == lastParquetAddr ? rowGroupIndex == lastRowGroupIndex + 1 : rowGroupIndex == 0;
+        lastParquetAddr = fileAddr;
+        lastRowGroupIndex = rowGroupIndex;
+        final PartitionDecoder.Metadata parquetMetadata = parquetDecoder.metadata();
+        if (!forward || rowGroupLo != 0 || rowGroupHi != parquetMetadata.rowGroupSize(rowGroupIndex)) {
+            return;
+        }
+
+        prefetchBuffers.clear();
+        prefetchRowGroups.clear();
+        prefetchRowGroupSizes.clear();
+        final int prefetchHi = Math.min(parquetMetadata.rowGroupCount(), rowGroupIndex + 1 + prefetchRowGroupCount);
+        for (int rowGroup = rowGroupIndex + 1; rowGroup < prefetchHi; rowGroup++) {
+            final int rowGroupSize = parquetMetadata.rowGroupSize(rowGroup);
+            if (isRowGroupCached(fileAddr, rowGroup, 0, rowGroupSize)) {
+                continue;
+            }
+            final ParquetBuffers buffers = nextPrefetchBuffers(fileAddr, rowGroupIndex, prefetchHi);
+            if (buffers == null) {
+                break;
+            }
+            buffers.frameIndex = -1;
+            buffers.resetDecoded();
+            prefetchBuffers.add(buffers);
+            prefetchRowGroups.add(rowGroup);
+            prefetchRowGroupSizes.add(rowGroupSize);
+        }
+        if (prefetchBuffers.size() == 0) {
+            return;
+        }
+
+        final MPSequence pubSeq = messageBus.getParquetPrefetchPubSeq();
+        final long cursor = pubSeq.next();
+        if (cursor < 0) {
+            // the queue is full, the row groups will be decoded on demand
+            prefetchBuffers.clear();
+            return;
+        }
+
+        try {
+            if (prefetchDecoder.getFileAddr() != fileAddr || prefetchDecoder.getFileSize() != parquetDecoder.getFileSize()) {
+                prefetchDecoder.of(fileAddr, parquetDecoder.getFileSize(), MemoryTag.NATIVE_PARQUET_PARTITION_DECODER);
+            }
+            prefetchColumns.clear();
+            for (long i = 0, n = parquetColumns.size(); i < n; i++) {
+                prefetchColumns.add(parquetColumns.get(i));
+            }
+            prefetchFromParquetColumnIndexes.clear();
+            prefetchFromParquetColumnIndexes.addAll(fromParquetColumnIndexes);
+            prefetchColumnCount = addressCache.getColumnCount();
+
+            prefetchClaim.set(++prefetchId);
+            prefetchInFlight = true;
+            messageBus.getParquetPrefetchQueue().get(cursor).of(this, prefetchId);
+        } catch (Throwable th) {
+            LOG.error().$("could not schedule parquet row group prefetch [error=").$(th).I$();
+            Misc.free(prefetchDecoder);
+            // publish the task anyway, it has no pool attached and will be skipped
+            messageBus.getParquetPrefetchQueue().get(cursor).clear();
+            prefetchBuffers.clear();
+        } finally {
+            pubSeq.done(cursor);
+        }
+    }
+
+    // Prefetched buffers are cached without a frame index. Assign the index if one of
+    // them holds the given frame's data, so that nextFreeBuffers() picks the buffers up.
+    private void usePrefetchedBuffers(int frameIndex, long fileAddr, int rowGroup, int rowLo, int rowHi) {
+        ParquetBuffers prefetched = null;
+        for (int i = 0, n = cachedParquetBuffers.size(); i < n; i++) {
+            final ParquetBuffers buffers = cachedParquetBuffers.getQuick(i);
+            if (buffers.frameIndex == frameIndex) {
+                return;
+            }
+            if (buffers.frameIndex == -1 && buffers.isDecoded(fileAddr, rowGroup, rowLo, rowHi)) {
+                prefetched = buffers;
+            }
+        }
+        if (prefetched != null) {
+            prefetched.frameIndex = frameIndex;
+        }
+    }
+
     private class PageFrameMemoryImpl implements PageFrameMemory, Mutable {
         private LongList auxPageAddresses;
         private LongList auxPageSizes;
@@ -377,6 +646,11 @@ public class PageFrameMemoryPool implements QuietCloseable, Mutable {
         private final LongList pageAddresses = new LongList();
         private final LongList pageSizes = new LongList();
         private final RowGroupBuffers rowGroupBuffers = new RowGroupBuffers(MemoryTag.NATIVE_PARQUET_PARTITION_DECODER);
+        // Identifies the decoded data: [file address, row group, row lo, row hi].
+        private long decodedFileAddr;
+        private int decodedRowGroup = -1;
+        private int decodedRowHi;
+        private int decodedRowLo;
         private int frameIndex = -1;
         // Contains bits FRAME_MEMORY_MASK, RECORD_A_MASK and RECORD_B_MASK.
         private byte usageFlags;
@@ -392,18 +666,31 @@ public class PageFrameMemoryPool implements QuietCloseable, Mutable {
         public void close() {
             Misc.free(rowGroupBuffers);
             clearAddresses();
+            resetDecoded();
             usageFlags = 0;
             frameIndex = -1;
         }
 
-        public void decode(PartitionDecoder parquetDecoder, DirectIntList parquetColumns, int rowGroup, int rowLo, int rowHi) {
+        public void decode(
+                PartitionDecoder parquetDecoder,
+                DirectIntList parquetColumns,
+                IntList fromParquetColumnIndexes,
+                int columnCount,
+                long fileAddr,
+                int rowGroup,
+                int rowLo,
+                int rowHi
+        ) {
+            if (isDecoded(fileAddr, rowGroup, rowLo, rowHi)) {
+                return;
+            }
+            resetDecoded();
             clearAddresses();
             if (parquetColumns.size() > 0) {
                 // Decode the requested columns from the row group.
                 parquetDecoder.decodeRowGroup(rowGroupBuffers, parquetColumns, rowGroup, rowLo, rowHi);
 
                 // Now, we need to remap parquet column indexes to the query ones.
-                final int columnCount = addressCache.getColumnCount();
                 pageAddresses.setAll(columnCount, 0);
                 pageSizes.setAll(columnCount, 0);
                 auxPageAddresses.setAll(columnCount, 0);
@@ -421,6 +708,19 @@ public class PageFrameMemoryPool implements QuietCloseable, Mutable {
                     }
                 }
             }
+            decodedFileAddr = fileAddr;
+            decodedRowGroup = rowGroup;
+            decodedRowLo = rowLo;
+            decodedRowHi = rowHi;
+        }
+
+        public boolean isDecoded(long fileAddr, int rowGroup, int rowLo, int rowHi) {
+            return decodedRowGroup == rowGroup && decodedFileAddr == fileAddr && decodedRowLo == rowLo && decodedRowHi == rowHi;
+        }
+
+        public void resetDecoded() {
+            decodedFileAddr = 0;
+            decodedRowGroup = -1;
         }
 
         @Override
@@ -358,6 +358,20 @@ public class PageFrameMemoryRecord implements Record, StableStringSource, QuietC
         return Numbers.ipv4ToLong(getIPv4(columnIndex));
     }
 
+    /**
+     * Returns data page address of the given column in the current frame, or 0 in case of a column top.
+     */
+    public long getPageAddress(int columnIndex) {
+        return pageAddresses.getQuick(columnIndex);
+    }
+
+    /**
+     * Returns data page size in bytes of the given column in the current frame.
+     */
+    public long getPageSize(int columnIndex) {
+        return pageSizes.getQuick(columnIndex);
+    }
+
     @Override
     public long getRowId() {
         return Rows.toRowID(frameIndex, rowIndex);
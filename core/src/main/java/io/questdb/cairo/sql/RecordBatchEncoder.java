@@ -0,0 +1,88 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql;
+
+import io.questdb.std.Mutable;
+import io.questdb.std.QuietCloseable;
+
+/**
+ * Encodes query results in a columnar file or stream format, batch by batch. Callers
+ * encode the header, then repeatedly start a batch, fill it with rows and encode it,
+ * and finish with the footer.
+ * <p>
+ * Every encoded part is exposed as a list of memory segments, which must be written out
+ * in order. Segments stay valid until the next call to {@link #startBatch()} or one of
+ * the encode methods.
+ */
+public interface RecordBatchEncoder extends Mutable, QuietCloseable {
+
+    /**
+     * Adds rows of a page frame to the current batch, which must be empty. The batch may
+     * stop short of the requested range when var-size data grows too large.
+     *
+     * @return number of rows added to the batch
+     */
+    long appendFrame(PageFrameMemory frameMemory, PageFrameMemoryRecord record, long rowLo, long rowHi);
+
+    /**
+     * Adds the current row of a record cursor to the batch.
+     */
+    void appendRecord(Record record);
+
+    /**
+     * Encodes the current batch. Nothing is encoded when the batch is empty.
+     */
+    void encodeBatch();
+
+    void encodeFooter();
+
+    /**
+     * Must be called after {@link #of(RecordMetadata)}.
+     */
+    void encodeHeader();
+
+    int getBatchRowCount();
+
+    /**
+     * @return maximum number of rows in a batch, row ranges passed to
+     * {@link #appendFrame(PageFrameMemory, PageFrameMemoryRecord, long, long)} must not exceed it
+     */
+    int getMaxBatchRowCount();
+
+    long getSegmentAddress(int index);
+
+    int getSegmentCount();
+
+    long getSegmentSize(int index);
+
+    boolean isBatchFull();
+
+    void of(RecordMetadata metadata);
+
+    /**
+     * Resets the scratch buffers to accept the next batch of rows.
+     */
+    void startBatch();
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.arr.ArrayTypeDriver;
+import io.questdb.cairo.arr.ArrayView;
+import io.questdb.cairo.arr.NoopArrayWriteState;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.Interval;
+import io.questdb.std.Long256;
+import io.questdb.std.Long256Impl;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Uuid;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8Sink;
+
+/**
+ * Helpers shared by {@link RecordBatchEncoder} implementations. Bitmaps are LSB-first,
+ * which is the bit order of both Arrow validity buffers and Parquet bit-packed runs.
+ */
+public final class RecordBatchUtils {
+
+    private RecordBatchUtils() {
+    }
+
+    public static void appendBit(MemoryCARW mem, long bitIndex, boolean bit) {
+        if ((bitIndex & 7) == 0) {
+            mem.putByte((byte) 0);
+        }
+        if (bit) {
+            final long address = mem.getAddress() + (bitIndex >>> 3);
+            Unsafe.getUnsafe().putByte(address, (byte) (Unsafe.getUnsafe().getByte(address) | (1 << (bitIndex & 7))));
+        }
+    }
+
+    /**
+     * Packs a column of boolean bytes into a bitmap appended to the memory.
+     */
+    public static void putBits(MemoryCARW mem, long address, long count) {
+        final long bitmap = mem.appendAddressFor((count + 7) >>> 3);
+        for (long i = 0; i < count; i += 8) {
+            int b = 0;
+            for (int j = 0, n = (int) Math.min(8, count - i); j < n; j++) {
+                if (Unsafe.getUnsafe().getByte(address + i + j) != 0) {
+                    b |= 1 << j;
+                }
+            }
+            Unsafe.getUnsafe().putByte(bitmap + (i >>> 3), (byte) b);
+        }
+    }
+
+    /**
+     * Renders a value in its text form, the same one the CSV export uses.
+     *
+     * @return false when the value is NULL, in which case nothing is written
+     */
+    public static boolean putText(Record record, int columnIndex, int columnType, Utf8Sink sink) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.STRING: {
+                final CharSequence cs = record.getStrA(columnIndex);
+                if (cs != null) {
+                    sink.put(cs);
+                    return true;
+                }
+                return false;
+            }
+            case ColumnType.VARCHAR: {
+                final Utf8Sequence us = record.getVarcharA(columnIndex);
+                if (us != null) {
+                    sink.put(us);
+                    return true;
+                }
+                return false;
+            }
+            case ColumnType.SYMBOL: {
+                final CharSequence cs = record.getSymA(columnIndex);
+                if (cs != null) {
+                    sink.put(cs);
+                    return true;
+                }
+                return false;
+            }
+            case ColumnType.CHAR: {
+                final char c = record.getChar(columnIndex);
+                if (c > 0) {
+                    sink.put(c);
+                    return true;
+                }
+                return false;
+            }
+            case ColumnType.UUID: {
+                final long lo = record.getLong128Lo(columnIndex);
+                final long hi = record.getLong128Hi(columnIndex);
+                if (!Uuid.isNull(lo, hi)) {
+                    Numbers.appendUuid(lo, hi, sink);
+                    return true;
+                }
+                return false;
+            }
+            case ColumnType.LONG256: {
+                final Long256 value = record.getLong256A(columnIndex);
+                if (!Long256Impl.isNull(value)) {
+                    Numbers.appendLong256(value, sink);
+                    return true;
+                }
+                return false;
+            }
+            case ColumnType.IPv4: {
+                final int ip = record.getIPv4(columnIndex);
+                if (ip != Numbers.IPv4_NULL) {
+                    Numbers.intToIPv4Sink(sink, ip);
+                    return true;
+                }
+                return false;
+            }
+            case ColumnType.GEOBYTE:
+                return putGeoHash(sink, record.getGeoByte(columnIndex), columnType);
+            case ColumnType.GEOSHORT:
+                return putGeoHash(sink, record.getGeoShort(columnIndex), columnType);
+            case ColumnType.GEOINT:
+                return putGeoHash(sink, record.getGeoInt(columnIndex), columnType);
+            case ColumnType.GEOLONG:
+                return putGeoHash(sink, record.getGeoLong(columnIndex), columnType);
+            case ColumnType.INTERVAL: {
+                final Interval interval = record.getInterval(columnIndex);
+                if (!Interval.NULL.equals(interval)) {
+                    sink.put(interval);
+                    return true;
+                }
+                return false;
+            }
+            case ColumnType.ARRAY: {
+                final ArrayView array = record.getArray(columnIndex, columnType);
+                if (array != null && !array.isNull()) {
+                    ArrayTypeDriver.arrayToJson(array, sink, NoopArrayWriteState.INSTANCE, true);
+                    return true;
+                }
+                return false;
+            }
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Appends a validity bitmap of a fixed-width column, built from the NULL sentinels.
+     * BYTE and SHORT columns have no NULL sentinel, so no bitmap is appended for them.
+     *
+     * @return number of NULL values
+     */
+    public static long putValidity(MemoryCARW validity, int columnType, long address, long count) {
+        final int tag = ColumnType.tagOf(columnType);
+        if (tag == ColumnType.BYTE || tag == ColumnType.SHORT) {
+            return 0;
+        }
+
+        final long bitmap = validity.appendAddressFor((count + 7) >>> 3);
+        long nullCount = 0;
+        for (long i = 0; i < count; i += 8) {
+            int b = 0;
+            for (int j = 0, n = (int) Math.min(8, count - i); j < n; j++) {
+                final long row = i + j;
+                final boolean isNull;
+                switch (tag) {
+                    case ColumnType.INT:
+                        isNull = Unsafe.getUnsafe().getInt(address + (row << 2)) == Numbers.INT_NULL;
+                        break;
+                    case ColumnType.FLOAT:
+                        isNull = Float.isNaN(Unsafe.getUnsafe().getFloat(address + (row << 2)));
+                        break;
+                    case ColumnType.DOUBLE:
+                        isNull = Double.isNaN(Unsafe.getUnsafe().getDouble(address + (row << 3)));
+                        break;
+                    default:
+                        isNull = Unsafe.getUnsafe().getLong(address + (row << 3)) == Numbers.LONG_NULL;
+                        break;
+                }
+                if (isNull) {
+                    nullCount++;
+                } else {
+                    b |= 1 << j;
+                }
+            }
+            Unsafe.getUnsafe().putByte(bitmap + (i >>> 3), (byte) b);
+        }
+        return nullCount;
+    }
+
+    private static boolean putGeoHash(Utf8Sink sink, long hash, int columnType) {
+        if (hash == GeoHashes.NULL) {
+            return false;
+        }
+        final int bitFlags = GeoHashes.getBitFlags(columnType);
+        if (bitFlags < 0) {
+            GeoHashes.appendCharsUnsafe(hash, -bitFlags, sink);
+        } else {
+            GeoHashes.appendBinaryStringUnsafe(hash, bitFlags, sink);
+        }
+        return true;
+    }
+}
@@ -38,15 +38,18 @@ import io.questdb.std.QuietCloseable;
 import io.questdb.std.str.StringSink;
 
 public class PageFrameReduceTask implements QuietCloseable, Mutable {
+    public static final byte TYPE_ASOF_JOIN = 5;
     public static final byte TYPE_FILTER = 0;
     public static final byte TYPE_GROUP_BY = 1;
     public static final byte TYPE_GROUP_BY_NOT_KEYED = 2;
+    public static final byte TYPE_HASH_JOIN_BUILD = 3;
+    public static final byte TYPE_ORDER_BY = 4;
     private static final String exceptionMessage = "unexpected filter error";
 
     private final DirectLongList auxAddresses;
     private final DirectLongList dataAddresses;
     private final StringSink errorMsg = new StringSink();
-    private final DirectLongList filteredRows; // Used for TYPE_FILTER.
+    private final DirectLongList filteredRows; // Used for TYPE_FILTER and TYPE_ASOF_JOIN.
     private final PageFrameMemoryPool frameMemoryPool;
     private final long frameQueueCapacity;
     private int errorMessagePosition;
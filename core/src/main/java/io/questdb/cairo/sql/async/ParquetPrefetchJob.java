@@ -0,0 +1,56 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.sql.PageFrameMemoryPool;
+import io.questdb.mp.AbstractQueueConsumerJob;
+import io.questdb.tasks.ParquetPrefetchTask;
+
+/**
+ * Decodes Parquet row groups ahead of a page frame scan, see {@link PageFrameMemoryPool}.
+ */
+public class ParquetPrefetchJob extends AbstractQueueConsumerJob<ParquetPrefetchTask> {
+
+    public ParquetPrefetchJob(MessageBus messageBus) {
+        super(messageBus.getParquetPrefetchQueue(), messageBus.getParquetPrefetchSubSeq());
+    }
+
+    @Override
+    protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
+        final ParquetPrefetchTask task = queue.get(cursor);
+        final PageFrameMemoryPool pool = task.getPool();
+        final long prefetchId = task.getPrefetchId();
+        task.clear();
+        subSeq.done(cursor);
+        // tasks that failed to be scheduled are published without a pool
+        if (pool != null) {
+            // the pool may have cancelled or claimed the request by now, in which case this is a no-op
+            pool.prefetch(prefetchId);
+        }
+        return true;
+    }
+}
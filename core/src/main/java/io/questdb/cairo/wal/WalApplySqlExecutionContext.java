@@ -41,8 +41,12 @@ class WalApplySqlExecutionContext extends SqlExecutionContextImpl {
         // Disable parallel SQL execution for WAL apply. This may be handy to avoid
         // multithreaded workload generated by UPDATE queries processed by WAL apply job.
         if (!engine.getConfiguration().isWalApplyParallelSqlEnabled()) {
+            setParallelAsOfJoinEnabled(false);
             setParallelFilterEnabled(false);
             setParallelGroupByEnabled(false);
+            setParallelHashJoinEnabled(false);
+            setParallelOrderByEnabled(false);
+            setParallelWindowEnabled(false);
             setParallelReadParquetEnabled(false);
         }
     }
@@ -68,6 +68,22 @@ public class WalReader implements Closeable {
     private final String walName;
 
     public WalReader(CairoConfiguration configuration, TableToken tableToken, CharSequence walName, int segmentId, long rowCount) {
+        this(configuration, tableToken, walName, segmentId, rowCount, true);
+    }
+
+    /**
+     * @param openSymbolMaps when false, symbol values are not loaded and only symbol keys can be
+     *                       read from the segment; the caller resolves them on its own, e.g. with
+     *                       the symbol map diffs of the segment's events
+     */
+    public WalReader(
+            CairoConfiguration configuration,
+            TableToken tableToken,
+            CharSequence walName,
+            int segmentId,
+            long rowCount,
+            boolean openSymbolMaps
+    ) {
         this.tableName = tableToken.getTableName();
         this.walName = Chars.toString(walName);
         this.rowCount = rowCount;
@@ -86,7 +102,9 @@ public class WalReader implements Closeable {
             int pathLen = path.size();
             eventCursor = events.of(path.slash().put(segmentId), -1);
             path.trimTo(pathLen);
-            openSymbolMaps(eventCursor, configuration);
+            if (openSymbolMaps) {
+                openSymbolMaps(eventCursor, configuration);
+            }
             path.slash().put(segmentId);
             eventCursor.reset();
 
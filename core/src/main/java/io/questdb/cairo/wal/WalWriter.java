@@ -81,6 +81,7 @@ import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
 import io.questdb.std.Os;
+import io.questdb.std.Unsafe;
 import io.questdb.std.Utf8StringIntHashMap;
 import io.questdb.std.Uuid;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -138,6 +139,10 @@ public class WalWriter implements TableWriterAPI {
     private final int walId;
     private final String walName;
     private long avgRecordSize;
+    private long blockRowCount;
+    private long blockTxnMaxTimestamp;
+    private long blockTxnMinTimestamp;
+    private boolean blockTxnOutOfOrder;
     private SegmentColumnRollSink columnConversionSink;
     private int columnCount;
     private ColumnVersionReader columnVersionReader;
@@ -259,6 +264,39 @@ public class WalWriter implements TableWriterAPI {
         );
     }
 
+    /**
+     * Appends the block of rows started by {@link #newColumnBlock(long)}. Columns that
+     * were not supplied for the block are set to null.
+     */
+    public void appendColumnBlock() {
+        if (blockRowCount > 0 && timestampIndex != -1 && rowValueIsNotNull.getQuick(timestampIndex) < segmentRowCount) {
+            throw CairoException.nonCritical().put("designated timestamp column is missing");
+        }
+        for (int i = 0; i < columnCount; i++) {
+            if (rowValueIsNotNull.getQuick(i) < segmentRowCount) {
+                final Runnable nullSetter = nullSetters.getQuick(i);
+                for (long r = 0; r < blockRowCount; r++) {
+                    nullSetter.run();
+                }
+            }
+        }
+
+        if (blockRowCount > 0) {
+            if (timestampIndex != -1) {
+                txnMinTimestamp = blockTxnMinTimestamp;
+                txnMaxTimestamp = blockTxnMaxTimestamp;
+                txnOutOfOrder = blockTxnOutOfOrder;
+            } else {
+                // same as appending rows with zero timestamp one by one
+                txnOutOfOrder |= txnMaxTimestamp > 0;
+                txnMaxTimestamp = Math.max(txnMaxTimestamp, 0);
+                txnMinTimestamp = Math.min(txnMinTimestamp, 0);
+            }
+        }
+        segmentRowCount += blockRowCount;
+        blockRowCount = 0;
+    }
+
     @Override
     public long apply(AlterOperation alterOp, boolean contextAllowsAnyStructureChanges) throws AlterTableContextException {
         try {
@@ -299,6 +337,14 @@ public class WalWriter implements TableWriterAPI {
         //   versions of each table involved in the join when running the SQL.
     }
 
+    /**
+     * Discards the block of rows started by {@link #newColumnBlock(long)}.
+     */
+    public void cancelColumnBlock() {
+        setAppendPosition(segmentRowCount);
+        blockRowCount = 0;
+    }
+
     @Override
     public void close() {
         if (isOpen()) {
@@ -473,6 +519,31 @@ public class WalWriter implements TableWriterAPI {
         return this.open;
     }
 
+    /**
+     * Starts a block of rows that is supplied column by column rather than row by row.
+     * Values of fixed-size columns are copied from the caller's memory as is, with the
+     * column type's null sentinel used for nulls. The block must be finished with either
+     * {@link #appendColumnBlock()} or {@link #cancelColumnBlock()}.
+     *
+     * @param rowCount number of rows in the block
+     */
+    public void newColumnBlock(long rowCount) {
+        checkDistressed();
+        try {
+            if (rollSegmentOnNextRow) {
+                rollSegment();
+                rollSegmentOnNextRow = false;
+            }
+        } catch (Throwable e) {
+            distressed = true;
+            throw e;
+        }
+        blockRowCount = rowCount;
+        blockTxnMinTimestamp = txnMinTimestamp;
+        blockTxnMaxTimestamp = txnMaxTimestamp;
+        blockTxnOutOfOrder = txnOutOfOrder;
+    }
+
     @Override
     public TableWriter.Row newRow() {
         return newRow(0L);
@@ -512,6 +583,96 @@ public class WalWriter implements TableWriterAPI {
         }
     }
 
+    /**
+     * Copies values of a fixed-size column for the current column block.
+     *
+     * @param columnIndex column index, must not be the designated timestamp or a symbol column
+     * @param address     address of the values, the block's row count times the column size bytes long
+     */
+    public void putColumnBlock(int columnIndex, long address) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (columnType < 0 || ColumnType.isVarSize(columnType) || ColumnType.isSymbol(columnType) || columnIndex == timestampIndex) {
+            throw CairoException.nonCritical().put("column cannot be copied as a block [column=")
+                    .put(metadata.getColumnName(columnIndex)).put(']');
+        }
+        if (blockRowCount > 0) {
+            getDataColumn(columnIndex).putBlockOfBytes(address, blockRowCount * ColumnType.sizeOf(columnType));
+            rowValueIsNotNull.setQuick(columnIndex, segmentRowCount + blockRowCount - 1);
+        }
+    }
+
+    /**
+     * Writes symbol keys of the current column block. Values are given as indexes into a
+     * dictionary, keys of dictionary values are resolved upfront via {@link #resolveSymbolKey(int, CharSequence)}.
+     *
+     * @param columnIndex    symbol column index
+     * @param address        address of int dictionary indexes, negative index stands for null
+     * @param dictionaryKeys symbol keys of the dictionary values
+     */
+    public void putColumnBlockSymbols(int columnIndex, long address, IntList dictionaryKeys) {
+        if (symbolMapReaders.getQuick(columnIndex) == null) {
+            throw CairoException.nonCritical().put("not a symbol column [column=").put(metadata.getColumnName(columnIndex)).put(']');
+        }
+        final MemoryMA dataMem = getDataColumn(columnIndex);
+        final int dictionarySize = dictionaryKeys.size();
+        boolean hasNulls = false;
+        for (long i = 0; i < blockRowCount; i++) {
+            final int index = Unsafe.getUnsafe().getInt(address + i * Integer.BYTES);
+            if (index < 0) {
+                dataMem.putInt(SymbolTable.VALUE_IS_NULL);
+                hasNulls = true;
+            } else if (index < dictionarySize) {
+                dataMem.putInt(dictionaryKeys.getQuick(index));
+            } else {
+                throw CairoException.nonCritical().put("symbol dictionary index is out of range [column=")
+                        .put(metadata.getColumnName(columnIndex))
+                        .put(", index=").put(index)
+                        .put(", dictionarySize=").put(dictionarySize)
+                        .put(']');
+            }
+        }
+        if (hasNulls) {
+            symbolMapNullFlags.set(columnIndex, true);
+        }
+        if (blockRowCount > 0) {
+            rowValueIsNotNull.setQuick(columnIndex, segmentRowCount + blockRowCount - 1);
+        }
+    }
+
+    /**
+     * Writes designated timestamps of the current column block.
+     *
+     * @param address address of the block's row count long timestamps
+     */
+    public void putColumnBlockTimestamps(long address) {
+        if (timestampIndex == -1) {
+            throw CairoException.nonCritical().put("table has no designated timestamp");
+        }
+        final MemoryMA dataMem = getDataColumn(timestampIndex);
+        long minTimestamp = txnMinTimestamp;
+        long maxTimestamp = txnMaxTimestamp;
+        boolean outOfOrder = txnOutOfOrder;
+        for (long i = 0; i < blockRowCount; i++) {
+            final long timestamp = Unsafe.getUnsafe().getLong(address + i * Long.BYTES);
+            TableWriter.validateDesignatedTimestampBounds(timestamp);
+            dataMem.putLong128(timestamp, segmentRowCount + i);
+            if (timestamp > maxTimestamp) {
+                maxTimestamp = timestamp;
+            } else {
+                outOfOrder |= (maxTimestamp != timestamp);
+            }
+            if (timestamp < minTimestamp) {
+                minTimestamp = timestamp;
+            }
+        }
+        blockTxnMinTimestamp = minTimestamp;
+        blockTxnMaxTimestamp = maxTimestamp;
+        blockTxnOutOfOrder = outOfOrder;
+        if (blockRowCount > 0) {
+            rowValueIsNotNull.setQuick(timestampIndex, segmentRowCount + blockRowCount - 1);
+        }
+    }
+
     public long renameTable(@NotNull CharSequence oldName, String newTableName) {
         if (!Chars.equalsIgnoreCaseNc(oldName, tableToken.getTableName())) {
             throw CairoException.tableDoesNotExist(oldName);
@@ -547,6 +708,22 @@ public class WalWriter implements TableWriterAPI {
         }
     }
 
+    /**
+     * Returns the key of the symbol value, adding the value to the WAL-local symbol map when
+     * it's not in the table yet.
+     *
+     * @param columnIndex symbol column index
+     * @param value       symbol value, null for null
+     * @return symbol key
+     */
+    public int resolveSymbolKey(int columnIndex, @Nullable CharSequence value) {
+        final SymbolMapReader symbolMapReader = symbolMapReaders.getQuick(columnIndex);
+        if (symbolMapReader == null) {
+            throw CairoException.nonCritical().put("not a symbol column [column=").put(metadata.getColumnName(columnIndex)).put(']');
+        }
+        return resolveSymbolKey(columnIndex, value, symbolMapReader);
+    }
+
     public void rollSegment() {
         try {
             openNewSegment();
@@ -1665,6 +1842,31 @@ public class WalWriter implements TableWriterAPI {
         events.sync();
     }
 
+    private int resolveSymbolKey(int columnIndex, CharSequence utf16Value, SymbolMapReader symbolMapReader) {
+        int key;
+        if (utf16Value != null) {
+            final CharSequenceIntHashMap utf16Map = symbolMaps.getQuick(columnIndex);
+            final int index = utf16Map.keyIndex(utf16Value);
+            if (index > -1) {
+                key = symbolMapReader.keyOf(utf16Value);
+                if (key == SymbolTable.VALUE_NOT_FOUND) {
+                    // Add it to in-memory symbol map
+                    // Locally added symbols must have a continuous range of keys
+                    final int initialSymCount = initialSymbolCounts.get(columnIndex);
+                    key = initialSymCount + localSymbolIds.postIncrement(columnIndex);
+                }
+                // Chars.toString used as value is a parser buffer memory slice or mapped memory of symbolMapReader
+                utf16Map.putAt(index, Chars.toString(utf16Value), key);
+            } else {
+                key = utf16Map.valueAt(index);
+            }
+        } else {
+            key = SymbolTable.VALUE_IS_NULL;
+            symbolMapNullFlags.set(columnIndex, true);
+        }
+        return key;
+    }
+
     private void rowAppend(ObjList<Runnable> activeNullSetters, long rowTimestamp) {
         for (int i = 0; i < columnCount; i++) {
             if (rowValueIsNotNull.getQuick(i) < segmentRowCount) {
@@ -2606,28 +2808,7 @@ public class WalWriter implements TableWriterAPI {
         }
 
         private int putSym0(int columnIndex, CharSequence utf16Value, SymbolMapReader symbolMapReader) {
-            int key;
-            if (utf16Value != null) {
-                final CharSequenceIntHashMap utf16Map = symbolMaps.getQuick(columnIndex);
-                final int index = utf16Map.keyIndex(utf16Value);
-                if (index > -1) {
-                    key = symbolMapReader.keyOf(utf16Value);
-                    if (key == SymbolTable.VALUE_NOT_FOUND) {
-                        // Add it to in-memory symbol map
-                        // Locally added symbols must have a continuous range of keys
-                        final int initialSymCount = initialSymbolCounts.get(columnIndex);
-                        key = initialSymCount + localSymbolIds.postIncrement(columnIndex);
-                    }
-                    // Chars.toString used as value is a parser buffer memory slice or mapped memory of symbolMapReader
-                    utf16Map.putAt(index, Chars.toString(utf16Value), key);
-                } else {
-                    key = utf16Map.valueAt(index);
-                }
-            } else {
-                key = SymbolTable.VALUE_IS_NULL;
-                symbolMapNullFlags.set(columnIndex, true);
-            }
-
+            final int key = resolveSymbolKey(columnIndex, utf16Value, symbolMapReader);
             getPrimaryColumn(columnIndex).putInt(key);
             setRowValueNotNull(columnIndex);
             return key;
@@ -38,6 +38,15 @@ public class HttpKeywords {
                 && (tok.byteAt(4) | 32) == 't';
     }
 
+    public static boolean isArrow(@Nullable Utf8Sequence tok) {
+        return tok != null && tok.size() == 5
+                && (tok.byteAt(0) | 32) == 'a'
+                && (tok.byteAt(1) | 32) == 'r'
+                && (tok.byteAt(2) | 32) == 'r'
+                && (tok.byteAt(3) | 32) == 'o'
+                && (tok.byteAt(4) | 32) == 'w';
+    }
+
     public static boolean isChunked(@Nullable Utf8Sequence tok) {
         return tok != null && tok.size() == 7
                 && (tok.byteAt(0) | 32) == 'c'
@@ -145,6 +154,17 @@ public class HttpKeywords {
                 && (tok.byteAt(3) | 32) == 'n';
     }
 
+    public static boolean isParquet(@Nullable Utf8Sequence tok) {
+        return tok != null && tok.size() == 7
+                && (tok.byteAt(0) | 32) == 'p'
+                && (tok.byteAt(1) | 32) == 'a'
+                && (tok.byteAt(2) | 32) == 'r'
+                && (tok.byteAt(3) | 32) == 'q'
+                && (tok.byteAt(4) | 32) == 'u'
+                && (tok.byteAt(5) | 32) == 'e'
+                && (tok.byteAt(6) | 32) == 't';
+    }
+
     public static boolean isPOST(@Nullable Utf8Sequence tok) {
         return tok != null && tok.size() == 4
                 && (tok.byteAt(0)) == 'P'
@@ -0,0 +1,715 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordBatchEncoder;
+import io.questdb.cairo.sql.RecordBatchUtils;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.vm.MemoryCARWImpl;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.DirectUtf8Sink;
+
+/**
+ * Encodes query results as an Apache Arrow IPC stream: a schema message, a sequence
+ * of record batches and the end-of-stream marker.
+ * <p>
+ * Fixed-width columns of a page frame are referenced in place, so their values are
+ * never copied; the encoder only scans them to build validity bitmaps from the NULL
+ * sentinels. All other column types are rendered into scratch buffers, either from
+ * page frame rows or from a record cursor.
+ */
+public class ArrowStreamEncoder implements RecordBatchEncoder {
+    // maximum number of rows in a single record batch
+    public static final int BATCH_ROW_COUNT = 64 * 1024;
+    private static final byte ARROW_TYPE_BINARY = 4;
+    private static final byte ARROW_TYPE_BOOL = 6;
+    private static final byte ARROW_TYPE_FLOATING_POINT = 3;
+    private static final byte ARROW_TYPE_INT = 2;
+    private static final byte ARROW_TYPE_TIMESTAMP = 10;
+    private static final byte ARROW_TYPE_UTF8 = 5;
+    private static final int KIND_BINARY = 3;
+    private static final int KIND_BOOL = 1;
+    private static final int KIND_FIXED = 0;
+    private static final int KIND_UTF8 = 2;
+    private static final byte MESSAGE_HEADER_RECORD_BATCH = 3;
+    private static final byte MESSAGE_HEADER_SCHEMA = 1;
+    private static final short METADATA_VERSION_V5 = 4;
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short PRECISION_SINGLE = 1;
+    private static final short TIME_UNIT_MICROSECOND = 2;
+    private static final short TIME_UNIT_MILLISECOND = 1;
+    // var-size column data is kept within int32 Arrow offsets with plenty of headroom
+    private static final long VAR_DATA_SIZE_LIMIT = 64 * 1024 * 1024;
+    private static final int ZERO_PAD_SIZE = 8;
+    private final IntList columnKinds = new IntList();
+    private final IntList columnTypes = new IntList();
+    private final ObjList<MemoryCARWImpl> dataBuffers = new ObjList<>();
+    private final LongList directAddresses = new LongList();
+    private final MemoryCARWImpl meta = new MemoryCARWImpl(4096, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN);
+    private final LongList nullCounts = new LongList();
+    private final ObjList<MemoryCARWImpl> offsetBuffers = new ObjList<>();
+    // pairs of address and length
+    private final LongList segments = new LongList();
+    private final DirectUtf8Sink utf8Sink = new DirectUtf8Sink(64);
+    private final ObjList<MemoryCARWImpl> validityBuffers = new ObjList<>();
+    private final ObjList<DirectUtf8Sink> varBuffers = new ObjList<>();
+    private long bodyLengthAt;
+    private int columnCount;
+    private RecordMetadata metadata;
+    private int rowCount;
+    private boolean varDataLimitReached;
+    private long zeroPad;
+
+    public ArrowStreamEncoder() {
+        zeroPad = Unsafe.malloc(ZERO_PAD_SIZE, MemoryTag.NATIVE_HTTP_CONN);
+        Unsafe.getUnsafe().putLong(zeroPad, 0);
+    }
+
+    @Override
+    public void clear() {
+        metadata = null;
+        columnCount = 0;
+        rowCount = 0;
+        varDataLimitReached = false;
+        segments.clear();
+        meta.jumpTo(0);
+        for (int i = 0, n = validityBuffers.size(); i < n; i++) {
+            validityBuffers.getQuick(i).clear();
+            dataBuffers.getQuick(i).clear();
+            offsetBuffers.getQuick(i).clear();
+            varBuffers.getQuick(i).resetCapacity();
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(meta);
+        Misc.free(utf8Sink);
+        Misc.freeObjListAndClear(validityBuffers);
+        Misc.freeObjListAndClear(dataBuffers);
+        Misc.freeObjListAndClear(offsetBuffers);
+        Misc.freeObjListAndClear(varBuffers);
+        if (zeroPad != 0) {
+            Unsafe.free(zeroPad, ZERO_PAD_SIZE, MemoryTag.NATIVE_HTTP_CONN);
+            zeroPad = 0;
+        }
+    }
+
+    /**
+     * Fixed-width columns are referenced directly in the frame memory, var-size columns
+     * are read via the record.
+     */
+    @Override
+    public long appendFrame(PageFrameMemory frameMemory, PageFrameMemoryRecord record, long rowLo, long rowHi) {
+        assert rowCount == 0;
+        assert rowHi - rowLo <= BATCH_ROW_COUNT;
+        boolean hasVarColumns = false;
+        for (int i = 0; i < columnCount; i++) {
+            final int kind = columnKinds.getQuick(i);
+            if (kind == KIND_UTF8 || kind == KIND_BINARY) {
+                hasVarColumns = true;
+                break;
+            }
+        }
+
+        if (hasVarColumns) {
+            for (long r = rowLo; r < rowHi && !varDataLimitReached; r++) {
+                record.setRowIndex(r);
+                for (int i = 0; i < columnCount; i++) {
+                    final int kind = columnKinds.getQuick(i);
+                    if (kind == KIND_UTF8) {
+                        appendUtf8(record, i);
+                    } else if (kind == KIND_BINARY) {
+                        appendBinary(record, i);
+                    }
+                }
+                rowCount++;
+            }
+        } else {
+            rowCount = (int) (rowHi - rowLo);
+        }
+
+        for (int i = 0; i < columnCount; i++) {
+            final int kind = columnKinds.getQuick(i);
+            if (kind == KIND_FIXED || kind == KIND_BOOL) {
+                final int columnType = columnTypes.getQuick(i);
+                final int shift = ColumnType.pow2SizeOf(columnType);
+                final long pageAddress = frameMemory.getPageAddress(i);
+                if (pageAddress == 0) {
+                    // column top, the whole range is NULL
+                    putColumnTop(i, kind == KIND_BOOL ? (rowCount + 7) >>> 3 : (long) rowCount << shift);
+                } else if (kind == KIND_BOOL) {
+                    RecordBatchUtils.putBits(dataBuffers.getQuick(i), pageAddress + rowLo, rowCount);
+                } else {
+                    final long address = pageAddress + (rowLo << shift);
+                    directAddresses.setQuick(i, address);
+                    nullCounts.setQuick(i, RecordBatchUtils.putValidity(validityBuffers.getQuick(i), columnType, address, rowCount));
+                }
+            }
+        }
+        return rowCount;
+    }
+
+    @Override
+    public void appendRecord(Record record) {
+        for (int i = 0; i < columnCount; i++) {
+            switch (columnKinds.getQuick(i)) {
+                case KIND_FIXED:
+                    appendFixed(record, i);
+                    break;
+                case KIND_BOOL:
+                    appendBit(dataBuffers.getQuick(i), record.getBool(i));
+                    break;
+                case KIND_UTF8:
+                    appendUtf8(record, i);
+                    break;
+                default:
+                    appendBinary(record, i);
+                    break;
+            }
+        }
+        rowCount++;
+    }
+
+    /**
+     * Encodes the current batch as a RecordBatch message.
+     */
+    @Override
+    public void encodeBatch() {
+        if (rowCount == 0) {
+            segments.clear();
+            return;
+        }
+        final long headerAt = startMessage(MESSAGE_HEADER_RECORD_BATCH);
+        final long vt = putVTable(5);
+        final long table = startTable(vt);
+        patchOffset(headerAt, table);
+        final long nodesAt = putOffsetField(vt, table, 1);
+        final long buffersAt = putOffsetField(vt, table, 2);
+        align(8);
+        putField(vt, table, 0);
+        meta.putLong(rowCount);
+        endTable(vt, table);
+
+        // field nodes, struct of length and null count
+        alignStructVector();
+        patchOffset(nodesAt, meta.getAppendOffset());
+        meta.putInt(columnCount);
+        int bufferCount = 0;
+        for (int i = 0; i < columnCount; i++) {
+            meta.putLong(rowCount);
+            meta.putLong(nullCounts.getQuick(i));
+            final int kind = columnKinds.getQuick(i);
+            bufferCount += kind == KIND_UTF8 || kind == KIND_BINARY ? 3 : 2;
+        }
+
+        // buffers, struct of body offset and length
+        alignStructVector();
+        patchOffset(buffersAt, meta.getAppendOffset());
+        meta.putInt(bufferCount);
+        long bodyOffset = 0;
+        for (int i = 0; i < columnCount; i++) {
+            final MemoryCARW validity = validityBuffers.getQuick(i);
+            bodyOffset = putBuffer(bodyOffset, validity.getAddress(), nullCounts.getQuick(i) > 0 ? validity.getAppendOffset() : 0);
+            switch (columnKinds.getQuick(i)) {
+                case KIND_FIXED: {
+                    final long address = directAddresses.getQuick(i);
+                    final long size = (long) rowCount << ColumnType.pow2SizeOf(columnTypes.getQuick(i));
+                    bodyOffset = putBuffer(bodyOffset, address != 0 ? address : dataBuffers.getQuick(i).getAddress(), size);
+                    break;
+                }
+                case KIND_BOOL: {
+                    final MemoryCARW data = dataBuffers.getQuick(i);
+                    bodyOffset = putBuffer(bodyOffset, data.getAddress(), data.getAppendOffset());
+                    break;
+                }
+                case KIND_UTF8: {
+                    final MemoryCARW offsets = offsetBuffers.getQuick(i);
+                    final DirectUtf8Sink data = varBuffers.getQuick(i);
+                    bodyOffset = putBuffer(bodyOffset, offsets.getAddress(), offsets.getAppendOffset());
+                    bodyOffset = putBuffer(bodyOffset, data.ptr(), data.size());
+                    break;
+                }
+                default: {
+                    final MemoryCARW offsets = offsetBuffers.getQuick(i);
+                    final MemoryCARW data = dataBuffers.getQuick(i);
+                    bodyOffset = putBuffer(bodyOffset, offsets.getAddress(), offsets.getAppendOffset());
+                    bodyOffset = putBuffer(bodyOffset, data.getAddress(), data.getAppendOffset());
+                    break;
+                }
+            }
+        }
+        meta.putLong(bodyLengthAt, bodyOffset);
+        endMessage();
+    }
+
+    /**
+     * Encodes the end-of-stream marker.
+     */
+    @Override
+    public void encodeFooter() {
+        segments.clear();
+        meta.jumpTo(0);
+        meta.putInt(-1);
+        meta.putInt(0);
+        segments.add(meta.getAddress(), meta.getAppendOffset());
+    }
+
+    /**
+     * Encodes the Schema message.
+     */
+    @Override
+    public void encodeHeader() {
+        final long headerAt = startMessage(MESSAGE_HEADER_SCHEMA);
+        final long vt = putVTable(4);
+        final long table = startTable(vt);
+        patchOffset(headerAt, table);
+        final long fieldsAt = putOffsetField(vt, table, 1);
+        align(2);
+        putField(vt, table, 0);
+        // little endian
+        meta.putShort((short) 0);
+        endTable(vt, table);
+
+        align(4);
+        patchOffset(fieldsAt, meta.getAppendOffset());
+        meta.putInt(columnCount);
+        final long fieldOffsets = meta.getAppendOffset();
+        for (int i = 0; i < columnCount; i++) {
+            meta.putInt(0);
+        }
+        for (int i = 0; i < columnCount; i++) {
+            putSchemaField(fieldOffsets + 4L * i, i);
+        }
+        endMessage();
+    }
+
+    @Override
+    public int getBatchRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getMaxBatchRowCount() {
+        return BATCH_ROW_COUNT;
+    }
+
+    @Override
+    public long getSegmentAddress(int index) {
+        return segments.getQuick(2 * index);
+    }
+
+    @Override
+    public int getSegmentCount() {
+        return segments.size() / 2;
+    }
+
+    @Override
+    public long getSegmentSize(int index) {
+        return segments.getQuick(2 * index + 1);
+    }
+
+    @Override
+    public boolean isBatchFull() {
+        return rowCount >= BATCH_ROW_COUNT || varDataLimitReached;
+    }
+
+    @Override
+    public void of(RecordMetadata metadata) {
+        this.metadata = metadata;
+        this.columnCount = metadata.getColumnCount();
+        columnTypes.clear();
+        columnKinds.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            columnTypes.add(columnType);
+            columnKinds.add(kindOf(columnType));
+        }
+        for (int i = validityBuffers.size(); i < columnCount; i++) {
+            validityBuffers.add(new MemoryCARWImpl(64 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN));
+            dataBuffers.add(new MemoryCARWImpl(64 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN));
+            offsetBuffers.add(new MemoryCARWImpl(64 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN));
+            varBuffers.add(new DirectUtf8Sink(64));
+        }
+        directAddresses.setAll(columnCount, 0);
+        nullCounts.setAll(columnCount, 0);
+    }
+
+    @Override
+    public void startBatch() {
+        rowCount = 0;
+        varDataLimitReached = false;
+        for (int i = 0; i < columnCount; i++) {
+            validityBuffers.getQuick(i).jumpTo(0);
+            dataBuffers.getQuick(i).jumpTo(0);
+            varBuffers.getQuick(i).clear();
+            directAddresses.setQuick(i, 0);
+            nullCounts.setQuick(i, 0);
+            final MemoryCARW offsets = offsetBuffers.getQuick(i);
+            offsets.jumpTo(0);
+            final int kind = columnKinds.getQuick(i);
+            if (kind == KIND_UTF8 || kind == KIND_BINARY) {
+                offsets.putInt(0);
+            }
+        }
+    }
+
+    private static int kindOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return KIND_BOOL;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return KIND_FIXED;
+            case ColumnType.BINARY:
+                return KIND_BINARY;
+            default:
+                // everything else is exported in its text form
+                return KIND_UTF8;
+        }
+    }
+
+    private void align(int alignment) {
+        while ((meta.getAppendOffset() & (alignment - 1)) != 0) {
+            meta.putByte((byte) 0);
+        }
+    }
+
+    // positions vector length so that 8-byte structs that follow it are aligned
+    private void alignStructVector() {
+        align(4);
+        if ((meta.getAppendOffset() & 7) == 0) {
+            meta.putInt(0);
+        }
+    }
+
+    private void appendBinary(Record record, int columnIndex) {
+        final BinarySequence bin = record.getBin(columnIndex);
+        final MemoryCARW data = dataBuffers.getQuick(columnIndex);
+        if (bin != null) {
+            final long len = bin.length();
+            bin.copyTo(data.appendAddressFor(len), 0, len);
+        }
+        appendValidity(columnIndex, bin != null);
+        offsetBuffers.getQuick(columnIndex).putInt((int) data.getAppendOffset());
+        varDataLimitReached |= data.getAppendOffset() > VAR_DATA_SIZE_LIMIT;
+    }
+
+    private void appendBit(MemoryCARW mem, boolean bit) {
+        RecordBatchUtils.appendBit(mem, rowCount, bit);
+    }
+
+    private void appendFixed(Record record, int columnIndex) {
+        final MemoryCARW data = dataBuffers.getQuick(columnIndex);
+        switch (ColumnType.tagOf(columnTypes.getQuick(columnIndex))) {
+            case ColumnType.BYTE:
+                appendValidity(columnIndex, true);
+                data.putByte(record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                appendValidity(columnIndex, true);
+                data.putShort(record.getShort(columnIndex));
+                break;
+            case ColumnType.INT: {
+                final int value = record.getInt(columnIndex);
+                appendValidity(columnIndex, value != Numbers.INT_NULL);
+                data.putInt(value);
+                break;
+            }
+            case ColumnType.FLOAT: {
+                final float value = record.getFloat(columnIndex);
+                appendValidity(columnIndex, !Float.isNaN(value));
+                data.putFloat(value);
+                break;
+            }
+            case ColumnType.DOUBLE: {
+                final double value = record.getDouble(columnIndex);
+                appendValidity(columnIndex, !Double.isNaN(value));
+                data.putDouble(value);
+                break;
+            }
+            case ColumnType.DATE: {
+                final long value = record.getDate(columnIndex);
+                appendValidity(columnIndex, value != Numbers.LONG_NULL);
+                data.putLong(value);
+                break;
+            }
+            case ColumnType.TIMESTAMP: {
+                final long value = record.getTimestamp(columnIndex);
+                appendValidity(columnIndex, value != Numbers.LONG_NULL);
+                data.putLong(value);
+                break;
+            }
+            default: {
+                final long value = record.getLong(columnIndex);
+                appendValidity(columnIndex, value != Numbers.LONG_NULL);
+                data.putLong(value);
+                break;
+            }
+        }
+    }
+
+    private void appendUtf8(Record record, int columnIndex) {
+        final DirectUtf8Sink sink = varBuffers.getQuick(columnIndex);
+        appendValidity(columnIndex, RecordBatchUtils.putText(record, columnIndex, columnTypes.getQuick(columnIndex), sink));
+        offsetBuffers.getQuick(columnIndex).putInt(sink.size());
+        varDataLimitReached |= sink.size() > VAR_DATA_SIZE_LIMIT;
+    }
+
+    private void appendValidity(int columnIndex, boolean valid) {
+        RecordBatchUtils.appendBit(validityBuffers.getQuick(columnIndex), rowCount, valid);
+        if (!valid) {
+            nullCounts.increment(columnIndex);
+        }
+    }
+
+    private void endMessage() {
+        align(8);
+        // metadata length excludes the continuation marker and the length itself
+        meta.putInt(4, (int) (meta.getAppendOffset() - 8));
+        segments.setQuick(0, meta.getAddress());
+        segments.setQuick(1, meta.getAppendOffset());
+    }
+
+    private void endTable(long vt, long table) {
+        meta.putShort(vt + 2, (short) (meta.getAppendOffset() - table));
+    }
+
+    private void patchOffset(long at, long target) {
+        meta.putInt(at, (int) (target - at));
+    }
+
+    private long putBuffer(long bodyOffset, long address, long size) {
+        meta.putLong(bodyOffset);
+        meta.putLong(size);
+        if (size > 0) {
+            segments.add(address, size);
+        }
+        final long padding = -size & 7;
+        if (padding > 0) {
+            segments.add(zeroPad, padding);
+        }
+        return bodyOffset + size + padding;
+    }
+
+    private void putColumnTop(int columnIndex, long dataSize) {
+        final MemoryCARW validity = validityBuffers.getQuick(columnIndex);
+        final long validitySize = (rowCount + 7) >>> 3;
+        Vect.memset(validity.appendAddressFor(validitySize), validitySize, 0);
+        final MemoryCARW data = dataBuffers.getQuick(columnIndex);
+        Vect.memset(data.appendAddressFor(dataSize), dataSize, 0);
+        nullCounts.setQuick(columnIndex, rowCount);
+    }
+
+    private void putField(long vt, long table, int slot) {
+        meta.putShort(vt + 4 + 2L * slot, (short) (meta.getAppendOffset() - table));
+    }
+
+    private long putOffsetField(long vt, long table, int slot) {
+        align(4);
+        putField(vt, table, slot);
+        final long at = meta.getAppendOffset();
+        meta.putInt(0);
+        return at;
+    }
+
+    private void putSchemaField(long at, int columnIndex) {
+        final int columnType = columnTypes.getQuick(columnIndex);
+        final byte arrowType;
+        switch (columnKinds.getQuick(columnIndex)) {
+            case KIND_FIXED:
+                switch (ColumnType.tagOf(columnType)) {
+                    case ColumnType.FLOAT:
+                    case ColumnType.DOUBLE:
+                        arrowType = ARROW_TYPE_FLOATING_POINT;
+                        break;
+                    case ColumnType.DATE:
+                    case ColumnType.TIMESTAMP:
+                        arrowType = ARROW_TYPE_TIMESTAMP;
+                        break;
+                    default:
+                        arrowType = ARROW_TYPE_INT;
+                        break;
+                }
+                break;
+            case KIND_BOOL:
+                arrowType = ARROW_TYPE_BOOL;
+                break;
+            case KIND_BINARY:
+                arrowType = ARROW_TYPE_BINARY;
+                break;
+            default:
+                arrowType = ARROW_TYPE_UTF8;
+                break;
+        }
+
+        final long vt = putVTable(7);
+        final long table = startTable(vt);
+        patchOffset(at, table);
+        final long nameAt = putOffsetField(vt, table, 0);
+        final long typeAt = putOffsetField(vt, table, 3);
+        final long childrenAt = putOffsetField(vt, table, 5);
+        putField(vt, table, 1);
+        // nullable
+        meta.putByte((byte) 1);
+        putField(vt, table, 2);
+        meta.putByte(arrowType);
+        endTable(vt, table);
+
+        putString(nameAt, metadata.getColumnName(columnIndex));
+        putType(typeAt, arrowType, columnType);
+        // readers expect the children vector to be present, even if empty
+        align(4);
+        patchOffset(childrenAt, meta.getAppendOffset());
+        meta.putInt(0);
+    }
+
+    private void putString(long at, CharSequence value) {
+        utf8Sink.clear();
+        utf8Sink.put(value);
+        align(4);
+        patchOffset(at, meta.getAppendOffset());
+        meta.putInt(utf8Sink.size());
+        meta.putBlockOfBytes(utf8Sink.ptr(), utf8Sink.size());
+        meta.putByte((byte) 0);
+    }
+
+    private void putType(long at, byte arrowType, int columnType) {
+        switch (arrowType) {
+            case ARROW_TYPE_INT: {
+                final long vt = putVTable(2);
+                final long table = startTable(vt);
+                patchOffset(at, table);
+                putField(vt, table, 0);
+                meta.putInt(8 << ColumnType.pow2SizeOf(columnType));
+                putField(vt, table, 1);
+                // signed
+                meta.putByte((byte) 1);
+                endTable(vt, table);
+                break;
+            }
+            case ARROW_TYPE_FLOATING_POINT: {
+                final long vt = putVTable(1);
+                final long table = startTable(vt);
+                patchOffset(at, table);
+                putField(vt, table, 0);
+                meta.putShort(ColumnType.isDouble(columnType) ? PRECISION_DOUBLE : PRECISION_SINGLE);
+                endTable(vt, table);
+                break;
+            }
+            case ARROW_TYPE_TIMESTAMP: {
+                final long vt = putVTable(2);
+                final long table = startTable(vt);
+                patchOffset(at, table);
+                final long timezoneAt = putOffsetField(vt, table, 1);
+                putField(vt, table, 0);
+                meta.putShort(ColumnType.tagOf(columnType) == ColumnType.DATE ? TIME_UNIT_MILLISECOND : TIME_UNIT_MICROSECOND);
+                endTable(vt, table);
+                putString(timezoneAt, "UTC");
+                break;
+            }
+            default: {
+                // Bool, Utf8 and Binary type tables have no fields
+                final long vt = putVTable(0);
+                final long table = startTable(vt);
+                patchOffset(at, table);
+                endTable(vt, table);
+                break;
+            }
+        }
+    }
+
+    private long putVTable(int fieldCount) {
+        align(2);
+        final long vt = meta.getAppendOffset();
+        meta.putShort((short) (4 + 2 * fieldCount));
+        // table size, set by endTable()
+        meta.putShort((short) 0);
+        for (int i = 0; i < fieldCount; i++) {
+            meta.putShort((short) 0);
+        }
+        return vt;
+    }
+
+    /**
+     * Writes the encapsulated message prefix and the Message table. Flatbuffer objects
+     * are laid out front to back: vtables precede their tables, and referenced objects
+     * follow the referencing ones, so that all unsigned offsets point forward.
+     *
+     * @return position of the message header offset, to be patched by the caller
+     */
+    private long startMessage(byte headerType) {
+        segments.clear();
+        // reserve the metadata segment, it is resolved once the message is complete
+        segments.add(0, 0);
+        meta.jumpTo(0);
+        // continuation marker and metadata length
+        meta.putInt(-1);
+        meta.putInt(0);
+        final long rootAt = meta.getAppendOffset();
+        meta.putInt(0);
+        final long vt = putVTable(4);
+        final long table = startTable(vt);
+        patchOffset(rootAt, table);
+        final long headerAt = putOffsetField(vt, table, 2);
+        align(8);
+        putField(vt, table, 3);
+        bodyLengthAt = meta.getAppendOffset();
+        meta.putLong(0);
+        putField(vt, table, 0);
+        meta.putShort(METADATA_VERSION_V5);
+        putField(vt, table, 1);
+        meta.putByte(headerType);
+        endTable(vt, table);
+        return headerAt;
+    }
+
+    private long startTable(long vt) {
+        align(8);
+        final long table = meta.getAppendOffset();
+        // vtable precedes the table
+        meta.putInt((int) (table - vt));
+        return table;
+    }
+}
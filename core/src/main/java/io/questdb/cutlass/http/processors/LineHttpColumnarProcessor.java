@@ -0,0 +1,178 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.Metrics;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cutlass.http.HttpChunkedResponse;
+import io.questdb.cutlass.http.HttpConnectionContext;
+import io.questdb.cutlass.http.HttpContextConfiguration;
+import io.questdb.cutlass.http.HttpException;
+import io.questdb.cutlass.http.HttpPostPutProcessor;
+import io.questdb.cutlass.http.HttpRequestHeader;
+import io.questdb.cutlass.http.LocalValue;
+import io.questdb.metrics.AtomicLongGauge;
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8String;
+import io.questdb.std.str.Utf8s;
+
+import static io.questdb.cutlass.http.HttpConstants.CONTENT_TYPE_JSON;
+import static io.questdb.cutlass.http.HttpRequestValidator.METHOD_POST;
+import static io.questdb.cutlass.http.HttpRequestValidator.NON_MULTIPART_REQUEST;
+import static io.questdb.cutlass.http.processors.LineHttpProcessorState.Status.ENCODING_NOT_SUPPORTED;
+
+/**
+ * Handles ILP HTTP requests that carry column-oriented binary blocks rather than text lines,
+ * see {@link LineHttpColumnarProcessorState} for the format. Such requests are sent to the same
+ * URLs as ILP text with the {@link #CONTENT_TYPE_COLUMNAR} content type.
+ */
+public class LineHttpColumnarProcessor implements HttpPostPutProcessor {
+    public static final String CONTENT_TYPE_COLUMNAR = "application/x-questdb-columnar";
+    private static final Utf8String CONTENT_ENCODING = new Utf8String("Content-Encoding");
+    private static final LocalValue<LineHttpColumnarProcessorState> LV = new LocalValue<>();
+    private final LineHttpProcessorConfiguration configuration;
+    private final CairoEngine engine;
+    private final int maxResponseContentLength;
+    private final int recvBufferSize;
+    private LineHttpColumnarProcessorState state;
+
+    public LineHttpColumnarProcessor(CairoEngine engine, int recvBufferSize, int maxResponseContentLength, LineHttpProcessorConfiguration configuration) {
+        this.engine = engine;
+        this.recvBufferSize = recvBufferSize;
+        this.maxResponseContentLength = maxResponseContentLength;
+        this.configuration = configuration;
+    }
+
+    public static boolean isColumnarRequest(HttpRequestHeader requestHeader) {
+        final Utf8Sequence contentType = requestHeader.getContentType();
+        return contentType != null && Utf8s.startsWithAscii(contentType, CONTENT_TYPE_COLUMNAR);
+    }
+
+    @Override
+    public AtomicLongGauge connectionCountGauge(Metrics metrics) {
+        return metrics.lineMetrics().httpConnectionCountGauge();
+    }
+
+    @Override
+    public int getConnectionLimit(HttpContextConfiguration configuration) {
+        return configuration.getIlpConnectionLimit();
+    }
+
+    @Override
+    public short getSupportedRequestTypes() {
+        return METHOD_POST | NON_MULTIPART_REQUEST;
+    }
+
+    @Override
+    public void onChunk(long lo, long hi) {
+        state.onChunk(lo, hi);
+    }
+
+    @Override
+    public void onConnectionClosed(HttpConnectionContext context) {
+        state = LV.get(context);
+        if (state != null) {
+            state.onDisconnected();
+        }
+    }
+
+    @Override
+    public void onHeadersReady(HttpConnectionContext context) {
+        state = LV.get(context);
+        if (state == null) {
+            state = new LineHttpColumnarProcessorState(recvBufferSize, maxResponseContentLength, engine, configuration);
+            LV.set(context, state);
+        } else {
+            state.clear();
+        }
+
+        final Utf8Sequence encoding = context.getRequestHeader().getHeader(CONTENT_ENCODING);
+        if (encoding != null && Utf8s.endsWithAscii(encoding, "gzip")) {
+            state.reject(ENCODING_NOT_SUPPORTED, "gzip encoding is not supported", context.getFd());
+            return;
+        }
+        state.of(context.getFd(), context.getSecurityContext());
+    }
+
+    @Override
+    public void onRequestComplete(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (state.isOk()) {
+            state.commit();
+        }
+        // Check state again, commit may have failed
+        if (state.isOk()) {
+            state.setSendStatus(SendStatus.HEADER);
+            context.simpleResponse().sendStatusNoContent(204);
+        } else {
+            state.setSendStatus(SendStatus.HEADER);
+            sendErrorHeader(context);
+            state.setSendStatus(SendStatus.CONTENT);
+            sendErrorContent(context);
+        }
+        engine.getMetrics().lineMetrics().totalIlpHttpBytesGauge().add(context.getTotalReceived());
+    }
+
+    @Override
+    public void resumeRecv(HttpConnectionContext context) {
+        state = LV.get(context);
+    }
+
+    @Override
+    public void resumeSend(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        state = LV.get(context);
+        assert state != null;
+
+        switch (state.getSendStatus()) {
+            case HEADER:
+                context.resumeResponseSend();
+                if (!state.isOk()) {
+                    state.setSendStatus(SendStatus.CONTENT);
+                    sendErrorContent(context);
+                }
+                break;
+
+            case CONTENT:
+                context.resumeResponseSend();
+                break;
+
+            default:
+                throw HttpException.instance("unexpected send status: " + state.getSendStatus());
+        }
+    }
+
+    private void sendErrorContent(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        HttpChunkedResponse response = context.getChunkedResponse();
+        state.formatError(response);
+        response.sendChunk(true);
+    }
+
+    private void sendErrorHeader(HttpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        HttpChunkedResponse response = context.getChunkedResponse();
+        response.status(state.getHttpResponseCode(), CONTENT_TYPE_JSON);
+        response.sendHeader();
+    }
+}
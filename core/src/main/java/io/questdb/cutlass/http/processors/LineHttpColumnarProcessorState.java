@@ -0,0 +1,469 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SecurityContext;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.cairo.wal.WalWriter;
+import io.questdb.cutlass.http.ConnectionAware;
+import io.questdb.cutlass.http.processors.LineHttpProcessorState.Status;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.log.LogRecord;
+import io.questdb.std.IntList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sink;
+import io.questdb.std.str.Utf8s;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Receives a request body of column-oriented binary blocks and appends them to WAL tables.
+ * Values of fixed-size columns are copied to the WAL column files as they are, so there is
+ * no per-value parsing involved.
+ * <p>
+ * All numbers are little-endian. The body is a sequence of blocks:
+ * <pre>
+ * int32   block length in bytes, not including this field
+ * int16   table name length, followed by UTF-8 table name
+ * int32   row count
+ * int16   column count, followed by the columns
+ * </pre>
+ * Each column is:
+ * <pre>
+ * int16   column name length, followed by UTF-8 column name
+ * byte    column type tag, as defined by ColumnType, must match the table column type
+ * </pre>
+ * followed by the column values. Symbol values are dictionary-encoded: int32 dictionary size,
+ * the dictionary values as int32 length followed by UTF-8 bytes, then an int32 dictionary index
+ * per row, negative index stands for null. Values of the other columns are row count fixed-size
+ * values, nulls are represented by the column type's null sentinel. Timestamps are in microseconds.
+ * Var-size columns are not supported. Columns that are not present in a block are set to null,
+ * the designated timestamp column must be present.
+ * <p>
+ * Tables must exist and must be WAL tables. Blocks of a request are committed together
+ * when the request is complete, a failed request leaves no data behind.
+ */
+public class LineHttpColumnarProcessorState implements QuietCloseable, ConnectionAware {
+    private static final int BLOCK_HEADER_SIZE = Integer.BYTES;
+    private static final AtomicLong ERROR_COUNT = new AtomicLong();
+    private static final String ERROR_ID = UUID.randomUUID().toString().substring(24, 36);
+    private static final Log LOG = LogFactory.getLog(LineHttpColumnarProcessorState.class);
+    private final IntList blockColumnIndexes = new IntList();
+    private final IntList dictionaryKeys = new IntList();
+    private final CairoEngine engine;
+    private final StringSink error = new StringSink();
+    private final int initBufSize;
+    private final long maxBufSize;
+    private final int maxResponseErrorMessageLength;
+    private final StringSink tableName = new StringSink();
+    private final StringSink utf16Sink = new StringSink();
+    private final ObjList<WalWriter> writers = new ObjList<>();
+    private long buf;
+    private long bufCapacity;
+    private long bufPos;
+    private long errorId;
+    private long fd = -1;
+    private long rowCount;
+    private SecurityContext securityContext;
+    private SendStatus sendStatus = SendStatus.NONE;
+    private Status status = Status.OK;
+
+    public LineHttpColumnarProcessorState(
+            int initBufSize,
+            int maxResponseContentLength,
+            CairoEngine engine,
+            LineHttpProcessorConfiguration configuration
+    ) {
+        assert initBufSize > 0;
+        this.initBufSize = initBufSize;
+        this.maxBufSize = Math.max(initBufSize, configuration.getMaxRecvBufferSize());
+        // Response is measured in bytes some error messages can have non-ascii characters
+        // approximate 1.5 bytes per character
+        this.maxResponseErrorMessageLength = (int) ((maxResponseContentLength - 100) / 1.5);
+        this.engine = engine;
+    }
+
+    public void clear() {
+        rollback();
+        bufPos = 0;
+        rowCount = 0;
+        error.clear();
+        status = Status.OK;
+        sendStatus = SendStatus.NONE;
+        if (bufCapacity > initBufSize) {
+            // do not hold on to the memory of a large request
+            buf = Unsafe.free(buf, bufCapacity, MemoryTag.NATIVE_HTTP_CONN);
+            bufCapacity = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        rollback();
+        buf = Unsafe.free(buf, bufCapacity, MemoryTag.NATIVE_HTTP_CONN);
+        bufCapacity = 0;
+    }
+
+    public void commit() {
+        if (bufPos > 0) {
+            fail(Status.PARSE_ERROR, "incomplete block at the end of the request");
+            rollback();
+            return;
+        }
+        try {
+            for (int i = 0, n = writers.size(); i < n; i++) {
+                writers.getQuick(i).commit();
+            }
+        } catch (Throwable th) {
+            onError(th);
+            rollback();
+            return;
+        }
+        LOG.debug().$('[').$(fd).$("] committed columnar blocks [rows=").$(rowCount).I$();
+        freeWriters();
+    }
+
+    public void formatError(Utf8Sink sink) {
+        sink.putAscii("{\"code\":\"").putAscii(status.getCodeStr());
+        sink.putAscii("\",\"message\":\"");
+        sink.escapeJsonStr(error, 0, Math.min(error.length(), maxResponseErrorMessageLength));
+        sink.putQuote();
+        sink.putAscii(",\"errorId\":\"").putAscii(ERROR_ID).put('-').put(errorId).putAscii("\"").putAscii('}');
+    }
+
+    public int getHttpResponseCode() {
+        return status.getResponseCode();
+    }
+
+    public SendStatus getSendStatus() {
+        return sendStatus;
+    }
+
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+
+    public void of(long fd, SecurityContext securityContext) {
+        this.fd = fd;
+        this.securityContext = securityContext;
+    }
+
+    public void onChunk(long lo, long hi) {
+        if (status != Status.OK) {
+            return;
+        }
+        long pos = lo;
+        while (pos < hi) {
+            final long len = Math.min(hi - pos, ensureCapacity(hi - pos));
+            if (len == 0) {
+                fail(Status.MESSAGE_TOO_LARGE, "block is too large, either send smaller blocks or increase buffer size \"line.http.max.recv.buffer.size\"");
+                rollback();
+                return;
+            }
+            Vect.memcpy(buf + bufPos, pos, len);
+            bufPos += len;
+            pos += len;
+            if (!processBuffer()) {
+                rollback();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onDisconnected() {
+        clear();
+    }
+
+    public void reject(Status status, String errorText, long fd) {
+        this.fd = fd;
+        fail(status, errorText);
+    }
+
+    public void setSendStatus(SendStatus sendStatus) {
+        this.sendStatus = sendStatus;
+    }
+
+    private static int getInt(long address) {
+        return Unsafe.getUnsafe().getInt(address);
+    }
+
+    private static short getShort(long address) {
+        return Unsafe.getUnsafe().getShort(address);
+    }
+
+    private void appendBlock(long lo, long hi) {
+        long p = lo;
+        // table name
+        p = readName(p, hi, tableName, "table name");
+        final TableToken tableToken = engine.getTableTokenIfExists(tableName);
+        if (tableToken == null) {
+            throw CairoException.nonCritical().put("table does not exist [table=").put(tableName).put(']');
+        }
+        if (!engine.isWalTable(tableToken)) {
+            throw CairoException.nonCritical().put("columnar ingest requires a WAL table [table=").put(tableName).put(']');
+        }
+        checkBounds(p, Integer.BYTES + Short.BYTES, hi, "block header");
+        final int blockRowCount = getInt(p);
+        final int columnCount = getShort(p + Integer.BYTES);
+        p += Integer.BYTES + Short.BYTES;
+        if (blockRowCount < 0 || columnCount < 0) {
+            throw CairoException.nonCritical().put("invalid block header [rowCount=").put(blockRowCount)
+                    .put(", columnCount=").put(columnCount).put(']');
+        }
+
+        final WalWriter writer = getWriter(tableToken);
+        final TableRecordMetadata metadata = writer.getMetadata();
+        final int timestampIndex = metadata.getTimestampIndex();
+        blockColumnIndexes.clear();
+        writer.newColumnBlock(blockRowCount);
+        try {
+            for (int c = 0; c < columnCount; c++) {
+                p = readName(p, hi, utf16Sink, "column name");
+                final int columnIndex = metadata.getColumnIndexQuiet(utf16Sink);
+                if (columnIndex < 0) {
+                    throw CairoException.nonCritical().put("column does not exist [table=").put(tableName)
+                            .put(", column=").put(utf16Sink).put(']');
+                }
+                if (blockColumnIndexes.contains(columnIndex)) {
+                    throw CairoException.nonCritical().put("duplicate column [column=").put(utf16Sink).put(']');
+                }
+                blockColumnIndexes.add(columnIndex);
+
+                checkBounds(p, Byte.BYTES, hi, "column type");
+                final int wireTag = Unsafe.getUnsafe().getByte(p);
+                p += Byte.BYTES;
+                final int columnType = metadata.getColumnType(columnIndex);
+                if (wireTag != ColumnType.tagOf(columnType) || ColumnType.isVarSize(columnType)) {
+                    throw CairoException.nonCritical().put("column type mismatch [column=").put(utf16Sink)
+                            .put(", columnType=").put(ColumnType.nameOf(columnType))
+                            .put(", typeTag=").put(wireTag).put(']');
+                }
+
+                if (ColumnType.isSymbol(columnType)) {
+                    p = readDictionary(writer, columnIndex, p, hi);
+                    checkBounds(p, (long) blockRowCount * Integer.BYTES, hi, "symbol indexes");
+                    writer.putColumnBlockSymbols(columnIndex, p, dictionaryKeys);
+                    p += (long) blockRowCount * Integer.BYTES;
+                } else {
+                    final long size = (long) blockRowCount * ColumnType.sizeOf(columnType);
+                    checkBounds(p, size, hi, "column values");
+                    if (columnIndex == timestampIndex) {
+                        writer.putColumnBlockTimestamps(p);
+                    } else {
+                        writer.putColumnBlock(columnIndex, p);
+                    }
+                    p += size;
+                }
+            }
+            if (p != hi) {
+                throw CairoException.nonCritical().put("unexpected bytes at the end of block [table=").put(tableName)
+                        .put(", count=").put(hi - p).put(']');
+            }
+            writer.appendColumnBlock();
+            rowCount += blockRowCount;
+        } catch (Throwable th) {
+            writer.cancelColumnBlock();
+            throw th;
+        }
+    }
+
+    private void checkBounds(long p, long size, long hi, String what) {
+        if (size < 0 || hi - p < size) {
+            throw CairoException.nonCritical().put("block is truncated [table=").put(tableName)
+                    .put(", at=").put(what).put(']');
+        }
+    }
+
+    // returns number of bytes that can be appended to the buffer, up to the requested length
+    private long ensureCapacity(long len) {
+        final long required = Math.min(bufPos + len, maxBufSize);
+        if (required > bufCapacity) {
+            final long newCapacity = Math.min(Math.max(required, Math.max(bufCapacity * 2, initBufSize)), maxBufSize);
+            buf = Unsafe.realloc(buf, bufCapacity, newCapacity, MemoryTag.NATIVE_HTTP_CONN);
+            bufCapacity = newCapacity;
+        }
+        return bufCapacity - bufPos;
+    }
+
+    private void fail(Status status, CharSequence message) {
+        this.status = status;
+        error.put(message);
+        errorId = ERROR_COUNT.incrementAndGet();
+        LOG.info().$("columnar ingest error [errorId=").$(ERROR_ID).$('-').$(errorId)
+                .$(", error=").$safe(error)
+                .$(", fd=").$(fd)
+                .I$();
+    }
+
+    private void freeWriters() {
+        Misc.freeObjListAndClear(writers);
+    }
+
+    private WalWriter getWriter(TableToken tableToken) {
+        for (int i = 0, n = writers.size(); i < n; i++) {
+            final WalWriter writer = writers.getQuick(i);
+            if (writer.getTableToken().equals(tableToken)) {
+                return writer;
+            }
+        }
+        securityContext.authorizeInsert(tableToken);
+        final WalWriter writer = engine.getWalWriter(tableToken);
+        writers.add(writer);
+        return writer;
+    }
+
+    private void onError(Throwable th) {
+        error.clear();
+        errorId = ERROR_COUNT.incrementAndGet();
+        final LogRecord errorRec;
+        if (th instanceof CairoException) {
+            final CairoException ex = (CairoException) th;
+            if (ex.isAuthorizationError()) {
+                status = Status.SECURITY_ERROR;
+                errorRec = LOG.error();
+            } else if (ex.isCritical()) {
+                status = Status.INTERNAL_ERROR;
+                errorRec = LOG.critical();
+            } else {
+                // malformed block or data the table cannot accept
+                status = Status.PARSE_ERROR;
+                errorRec = LOG.info();
+            }
+            error.put("write error: ").put(tableName)
+                    .put(", errno: ").put(ex.getErrno())
+                    .put(", error: ").put(ex.getFlyweightMessage());
+        } else {
+            status = Status.INTERNAL_ERROR;
+            errorRec = LOG.critical();
+            error.put("write error: ").put(tableName)
+                    .put(", error: ").put(th.getClass().getCanonicalName());
+        }
+        errorRec.$('[').$(fd).$("] could not write columnar block [table=").$safe(tableName)
+                .$(", errorId=").$(ERROR_ID).$('-').$(errorId)
+                .$(", ex=").$(th)
+                .I$();
+    }
+
+    // appends complete blocks from the buffer, returns false on error
+    private boolean processBuffer() {
+        long p = buf;
+        final long hi = buf + bufPos;
+        try {
+            while (hi - p >= BLOCK_HEADER_SIZE) {
+                final int blockSize = getInt(p);
+                if (blockSize < 0) {
+                    throw CairoException.nonCritical().put("invalid block length [length=").put(blockSize).put(']');
+                }
+                if (BLOCK_HEADER_SIZE + (long) blockSize > maxBufSize) {
+                    fail(
+                            Status.MESSAGE_TOO_LARGE,
+                            "block is too large, either send smaller blocks or increase buffer size \"line.http.max.recv.buffer.size\""
+                    );
+                    return false;
+                }
+                if (hi - p < BLOCK_HEADER_SIZE + (long) blockSize) {
+                    break;
+                }
+                tableName.clear();
+                appendBlock(p + BLOCK_HEADER_SIZE, p + BLOCK_HEADER_SIZE + blockSize);
+                p += BLOCK_HEADER_SIZE + blockSize;
+            }
+        } catch (Throwable th) {
+            onError(th);
+            return false;
+        }
+
+        // move the incomplete block, if any, to the start of the buffer
+        final long remaining = hi - p;
+        if (remaining > 0 && p > buf) {
+            Vect.memmove(buf, p, remaining);
+        }
+        bufPos = remaining;
+        return true;
+    }
+
+    private long readDictionary(WalWriter writer, int columnIndex, long p, long hi) {
+        checkBounds(p, Integer.BYTES, hi, "symbol dictionary");
+        final int dictionarySize = getInt(p);
+        p += Integer.BYTES;
+        if (dictionarySize < 0) {
+            throw CairoException.nonCritical().put("invalid symbol dictionary size [size=").put(dictionarySize).put(']');
+        }
+        // each value is resolved to a symbol key once, rows refer to the values by index
+        dictionaryKeys.clear();
+        for (int i = 0; i < dictionarySize; i++) {
+            checkBounds(p, Integer.BYTES, hi, "symbol dictionary");
+            final int len = getInt(p);
+            p += Integer.BYTES;
+            checkBounds(p, len, hi, "symbol dictionary");
+            utf16Sink.clear();
+            if (!Utf8s.utf8ToUtf16(p, p + len, utf16Sink)) {
+                throw CairoException.nonCritical().put("invalid UTF-8 in symbol dictionary");
+            }
+            dictionaryKeys.add(writer.resolveSymbolKey(columnIndex, utf16Sink));
+            p += len;
+        }
+        return p;
+    }
+
+    private long readName(long p, long hi, StringSink sink, String what) {
+        checkBounds(p, Short.BYTES, hi, what);
+        final int len = getShort(p);
+        p += Short.BYTES;
+        checkBounds(p, len, hi, what);
+        sink.clear();
+        if (len == 0 || !Utf8s.utf8ToUtf16(p, p + len, sink)) {
+            throw CairoException.nonCritical().put("invalid ").put(what);
+        }
+        return p + len;
+    }
+
+    private void rollback() {
+        for (int i = 0, n = writers.size(); i < n; i++) {
+            final WalWriter writer = writers.getQuick(i);
+            try {
+                writer.rollback();
+            } catch (Throwable th) {
+                LOG.error().$("could not rollback WAL writer [table=").$(writer.getTableToken())
+                        .$(", ex=").$(th)
+                        .I$();
+            }
+        }
+        freeWriters();
+    }
+}
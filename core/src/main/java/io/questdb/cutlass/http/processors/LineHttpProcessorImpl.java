@@ -56,6 +56,7 @@ public class LineHttpProcessorImpl implements HttpMultipartContentProcessor, Htt
     private static final Log LOG = LogFactory.getLog(LineHttpProcessorImpl.class);
     private static final LocalValue<LineHttpProcessorState> LV = new LocalValue<>();
     private static final Utf8String URL_PARAM_PRECISION = new Utf8String("precision");
+    private final LineHttpColumnarProcessor columnarProcessor;
     private final LineHttpProcessorConfiguration configuration;
     private final CairoEngine engine;
     private final int maxResponseContentLength;
@@ -67,6 +68,7 @@ public class LineHttpProcessorImpl implements HttpMultipartContentProcessor, Htt
         this.recvBufferSize = recvBufferSize;
         this.maxResponseContentLength = maxResponseContentLength;
         this.configuration = configuration;
+        this.columnarProcessor = new LineHttpColumnarProcessor(engine, recvBufferSize, maxResponseContentLength, configuration);
     }
 
     @Override
@@ -81,7 +83,8 @@ public class LineHttpProcessorImpl implements HttpMultipartContentProcessor, Htt
 
     @Override
     public HttpRequestProcessor getProcessor(HttpRequestHeader requestHeader) {
-        return this;
+        // binary column blocks are sent to the same URLs, the content type tells them apart
+        return LineHttpColumnarProcessor.isColumnarRequest(requestHeader) ? columnarProcessor : this;
     }
 
     @Override
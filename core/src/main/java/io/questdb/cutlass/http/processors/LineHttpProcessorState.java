@@ -470,5 +470,13 @@ public class LineHttpProcessorState implements QuietCloseable, ConnectionAware {
             this.codeStr = codeStr;
             this.responseCode = responseCode;
         }
+
+        public String getCodeStr() {
+            return codeStr;
+        }
+
+        public int getResponseCode() {
+            return responseCode;
+        }
     }
 }
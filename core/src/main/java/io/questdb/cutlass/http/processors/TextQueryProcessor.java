@@ -35,7 +35,13 @@ import io.questdb.cairo.GeoHashes;
 import io.questdb.cairo.ImplicitCastException;
 import io.questdb.cairo.arr.ArrayTypeDriver;
 import io.questdb.cairo.sql.NetworkSqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.PartitionFrameCursorFactory;
 import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordBatchEncoder;
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cairo.sql.TableReferenceOutOfDateException;
 import io.questdb.cutlass.http.HttpChunkedResponse;
@@ -157,10 +163,15 @@ public class TextQueryProcessor implements HttpRequestProcessor, HttpRequestHand
 
             if (state.recordCursorFactory != null) {
                 try {
+                    PageFrameCursor pageFrameCursor = null;
                     boolean runQuery = true;
                     for (int retries = 0; runQuery; retries++) {
                         try {
-                            state.cursor = state.recordCursorFactory.getCursor(sqlExecutionContext);
+                            if (isPageFrameExport(state)) {
+                                pageFrameCursor = state.recordCursorFactory.getPageFrameCursor(sqlExecutionContext, PartitionFrameCursorFactory.ORDER_ASC);
+                            } else {
+                                state.cursor = state.recordCursorFactory.getCursor(sqlExecutionContext);
+                            }
                             runQuery = false;
                         } catch (TableReferenceOutOfDateException e) {
                             if (retries == maxSqlRecompileAttempts) {
@@ -178,6 +189,12 @@ public class TextQueryProcessor implements HttpRequestProcessor, HttpRequestHand
                         }
                     }
                     state.metadata = state.recordCursorFactory.getMetadata();
+                    if (pageFrameCursor != null) {
+                        state.ofPageFrameCursor(engine.getConfiguration(), pageFrameCursor);
+                    }
+                    if (state.format != TextQueryProcessorState.FORMAT_CSV) {
+                        state.ofBatchEncoder();
+                    }
                     doResumeSend(context);
                 } catch (CairoException e) {
                     state.setQueryCacheable(e.isCacheable());
@@ -254,6 +271,49 @@ public class TextQueryProcessor implements HttpRequestProcessor, HttpRequestHand
         }
     }
 
+    private static void fillBatchFromCursor(TextQueryProcessorState state) {
+        final RecordBatchEncoder encoder = state.batchEncoder;
+        final Record record = state.cursor.getRecord();
+        while (!encoder.isBatchFull() && state.count < state.stop) {
+            if (state.hasNext || state.cursor.hasNext()) {
+                state.hasNext = false;
+                if (state.count++ >= state.skip) {
+                    encoder.appendRecord(record);
+                }
+            } else {
+                break;
+            }
+        }
+    }
+
+    private static void fillBatchFromFrames(TextQueryProcessorState state) {
+        final RecordBatchEncoder encoder = state.batchEncoder;
+        while (encoder.getBatchRowCount() == 0) {
+            if (state.frameRowLo == state.frameRowHi) {
+                if (state.count >= state.stop) {
+                    return;
+                }
+                final PageFrame frame = state.frameCursor.next();
+                if (frame == null) {
+                    return;
+                }
+                state.frameAddressCache.add(state.frameCount, frame);
+                state.frameIndex = state.frameCount++;
+                // apply the row limit to the frame
+                final long frameSize = frame.getPartitionHi() - frame.getPartitionLo();
+                final long base = state.count;
+                state.count += frameSize;
+                state.frameRowLo = Math.max(0, state.skip - base);
+                state.frameRowHi = Math.max(state.frameRowLo, Math.min(frameSize, state.stop - base));
+                continue;
+            }
+            final long rowHi = Math.min(state.frameRowHi, state.frameRowLo + encoder.getMaxBatchRowCount());
+            final PageFrameMemory frameMemory = state.frameMemoryPool.navigateTo(state.frameIndex);
+            state.frameRecord.init(frameMemory);
+            state.frameRowLo += encoder.appendFrame(frameMemory, state.frameRecord, state.frameRowLo, rowHi);
+        }
+    }
+
     private static boolean isExpUrl(Utf8Sequence tok) {
         if (tok.size() != 4) {
             return false;
@@ -266,6 +326,16 @@ public class TextQueryProcessor implements HttpRequestProcessor, HttpRequestHand
                 && (tok.byteAt(i) | 32) == 'p';
     }
 
+    /**
+     * Arrow and Parquet exports read forward table scans frame by frame, this way
+     * fixed-width columns go out straight from the column memory.
+     */
+    private static boolean isPageFrameExport(TextQueryProcessorState state) {
+        return state.format != TextQueryProcessorState.FORMAT_CSV
+                && state.recordCursorFactory.supportsPageFrameCursor()
+                && state.recordCursorFactory.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD;
+    }
+
     private static void putGeoHashStringValue(HttpChunkedResponse response, long value, int type) {
         if (value == GeoHashes.NULL) {
             response.putAscii("null");
@@ -321,6 +391,29 @@ public class TextQueryProcessor implements HttpRequestProcessor, HttpRequestHand
                 .$(", totalBytesSent=").$(context.getTotalBytesSent()).I$();
     }
 
+    private static void sendSegments(
+            HttpChunkedResponse response,
+            TextQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final RecordBatchEncoder encoder = state.batchEncoder;
+        while (state.segmentIndex < encoder.getSegmentCount()) {
+            final long size = encoder.getSegmentSize(state.segmentIndex);
+            final long remaining = size - state.segmentOffset;
+            final int wrote = response.writeBytes(
+                    encoder.getSegmentAddress(state.segmentIndex) + state.segmentOffset,
+                    (int) Math.min(remaining, Integer.MAX_VALUE)
+            );
+            state.segmentOffset += wrote;
+            if (wrote < remaining) {
+                // response buffer is full
+                response.sendChunk(false);
+            } else {
+                state.segmentIndex++;
+                state.segmentOffset = 0;
+            }
+        }
+    }
+
     private LogRecord critical(TextQueryProcessorState state) {
         return LOG.critical().$('[').$(state.getFd()).$("] ");
     }
@@ -344,6 +437,12 @@ public class TextQueryProcessor implements HttpRequestProcessor, HttpRequestHand
         }
 
         final HttpChunkedResponse response = context.getChunkedResponse();
+        if (state.format != TextQueryProcessorState.FORMAT_CSV) {
+            doResumeSendBatches(response, state);
+            readyForNextRequest(context);
+            return;
+        }
+
         final RecordMetadata metadata = state.recordCursorFactory.getMetadata();
         final int columnCount = metadata.getColumnCount();
 
@@ -450,6 +549,72 @@ public class TextQueryProcessor implements HttpRequestProcessor, HttpRequestHand
         readyForNextRequest(context);
     }
 
+    private void doResumeSendBatches(
+            HttpChunkedResponse response,
+            TextQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException {
+        final RecordBatchEncoder encoder = state.batchEncoder;
+        OUT:
+        while (true) {
+            try {
+                switch (state.queryState) {
+                    case JsonQueryProcessorState.QUERY_SETUP_FIRST_RECORD:
+                        if (state.cursor != null) {
+                            state.hasNext = state.cursor.hasNext();
+                        }
+                        header(response, state, 200);
+                        encoder.encodeHeader();
+                        state.queryState = JsonQueryProcessorState.QUERY_METADATA;
+                        // fall through
+                    case JsonQueryProcessorState.QUERY_METADATA:
+                        sendSegments(response, state);
+                        encoder.startBatch();
+                        state.queryState = JsonQueryProcessorState.QUERY_RECORD_START;
+                        // fall through
+                    case JsonQueryProcessorState.QUERY_RECORD_START:
+                        // everything encoded so far is in the response buffer
+                        response.bookmark();
+                        if (state.frameCursor != null) {
+                            fillBatchFromFrames(state);
+                        } else {
+                            fillBatchFromCursor(state);
+                        }
+                        if (encoder.getBatchRowCount() > 0) {
+                            encoder.encodeBatch();
+                            state.queryState = JsonQueryProcessorState.QUERY_RECORD;
+                        } else {
+                            encoder.encodeFooter();
+                            state.queryState = JsonQueryProcessorState.QUERY_RECORD_SUFFIX;
+                        }
+                        state.segmentIndex = 0;
+                        state.segmentOffset = 0;
+                        break;
+                    case JsonQueryProcessorState.QUERY_RECORD:
+                        sendSegments(response, state);
+                        encoder.startBatch();
+                        state.queryState = JsonQueryProcessorState.QUERY_RECORD_START;
+                        break;
+                    case JsonQueryProcessorState.QUERY_RECORD_SUFFIX:
+                        sendSegments(response, state);
+                        state.queryState = JsonQueryProcessorState.QUERY_SUFFIX;
+                        // fall through
+                    case JsonQueryProcessorState.QUERY_SUFFIX:
+                        // close cursor before returning complete response
+                        // this will guarantee that by the time client reads the response fully the table will be released
+                        state.cursor = Misc.free(state.cursor);
+                        state.freePageFrameCursor();
+                        sendDone(response, state);
+                        break OUT;
+                    default:
+                        break OUT;
+                }
+            } catch (DataUnavailableException e) {
+                response.resetToBookmark();
+                throw QueryPausedException.instance(e.getEvent(), sqlExecutionContext.getCircuitBreaker());
+            }
+        }
+    }
+
     private LogRecord error(TextQueryProcessorState state) {
         return LOG.error().$('[').$(state.getFd()).$("] ");
     }
@@ -571,6 +736,14 @@ public class TextQueryProcessor implements HttpRequestProcessor, HttpRequestHand
         state.skip = skip;
         state.count = 0L;
         state.stop = stop;
+        final DirectUtf8Sequence format = request.getUrlParam(URL_PARAM_FMT);
+        if (HttpKeywords.isArrow(format)) {
+            state.format = TextQueryProcessorState.FORMAT_ARROW;
+        } else if (HttpKeywords.isParquet(format)) {
+            state.format = TextQueryProcessorState.FORMAT_PARQUET;
+        } else {
+            state.format = TextQueryProcessorState.FORMAT_CSV;
+        }
         state.noMeta = HttpKeywords.isTrue(request.getUrlParam(URL_PARAM_NM));
         state.countRows = HttpKeywords.isTrue(request.getUrlParam(URL_PARAM_COUNT));
         return true;
@@ -743,11 +916,25 @@ public class TextQueryProcessor implements HttpRequestProcessor, HttpRequestHand
             TextQueryProcessorState state,
             int statusCode
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        response.status(statusCode, CONTENT_TYPE_CSV);
+        final String extension;
+        switch (state.format) {
+            case TextQueryProcessorState.FORMAT_ARROW:
+                response.status(statusCode, CONTENT_TYPE_ARROW_STREAM);
+                extension = ".arrows\"";
+                break;
+            case TextQueryProcessorState.FORMAT_PARQUET:
+                response.status(statusCode, CONTENT_TYPE_PARQUET);
+                extension = ".parquet\"";
+                break;
+            default:
+                response.status(statusCode, CONTENT_TYPE_CSV);
+                extension = ".csv\"";
+                break;
+        }
         if (state.fileName != null && !state.fileName.isEmpty()) {
-            response.headers().putAscii("Content-Disposition: attachment; filename=\"").put(state.fileName).putAscii(".csv\"").putEOL();
+            response.headers().putAscii("Content-Disposition: attachment; filename=\"").put(state.fileName).putAscii(extension).putEOL();
         } else {
-            response.headers().putAscii("Content-Disposition: attachment; filename=\"questdb-query-").put(clock.getTicks()).putAscii(".csv\"").putEOL();
+            response.headers().putAscii("Content-Disposition: attachment; filename=\"questdb-query-").put(clock.getTicks()).putAscii(extension).putEOL();
         }
         response.headers().setKeepAlive(configuration.getKeepAliveHeader());
         response.sendHeader();
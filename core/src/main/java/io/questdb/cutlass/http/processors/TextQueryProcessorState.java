@@ -24,12 +24,20 @@
 
 package io.questdb.cutlass.http.processors;
 
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.PageFrameAddressCache;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameMemoryPool;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
 import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordBatchEncoder;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cutlass.http.HttpConnectionContext;
 import io.questdb.cutlass.http.HttpResponseArrayWriteState;
+import io.questdb.griffin.engine.table.parquet.ParquetStreamEncoder;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.Rnd;
@@ -38,9 +46,15 @@ import io.questdb.std.str.StringSink;
 import java.io.Closeable;
 
 public class TextQueryProcessorState implements Mutable, Closeable {
+    static final byte FORMAT_ARROW = 1;
+    static final byte FORMAT_CSV = 0;
+    static final byte FORMAT_PARQUET = 2;
     final StringSink query = new StringSink();
     private final HttpConnectionContext httpConnectionContext;
     HttpResponseArrayWriteState arrayState = new HttpResponseArrayWriteState();
+    ArrowStreamEncoder arrowEncoder;
+    // encoder of the current request, when the format is not CSV
+    RecordBatchEncoder batchEncoder;
     int columnIndex;
     boolean columnValueFullySent = true;
     long count;
@@ -48,14 +62,26 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     RecordCursor cursor;
     char delimiter = ',';
     String fileName;
+    byte format = FORMAT_CSV;
+    PageFrameAddressCache frameAddressCache;
+    int frameCount;
+    PageFrameCursor frameCursor;
+    int frameIndex;
+    PageFrameMemoryPool frameMemoryPool;
+    PageFrameMemoryRecord frameRecord;
+    long frameRowHi;
+    long frameRowLo;
     boolean hasNext;
     RecordMetadata metadata;
     boolean noMeta = false;
     boolean pausedQuery = false;
+    ParquetStreamEncoder parquetEncoder;
     int queryState;
     Record record;
     RecordCursorFactory recordCursorFactory;
     Rnd rnd;
+    int segmentIndex;
+    long segmentOffset;
     long skip;
     long stop;
     private boolean queryCacheable = false;
@@ -72,6 +98,14 @@ public class TextQueryProcessorState implements Mutable, Closeable {
         rnd = null;
         record = null;
         cursor = Misc.free(cursor);
+        freePageFrameCursor();
+        if (batchEncoder != null) {
+            batchEncoder.clear();
+            batchEncoder = null;
+        }
+        format = FORMAT_CSV;
+        segmentIndex = 0;
+        segmentOffset = 0;
         if (recordCursorFactory != null) {
             if (queryCacheable) {
                 httpConnectionContext.getSelectCache().put(query, recordCursorFactory);
@@ -98,13 +132,62 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     @Override
     public void close() {
         cursor = Misc.free(cursor);
+        freePageFrameCursor();
         recordCursorFactory = Misc.free(recordCursorFactory);
+        arrowEncoder = Misc.free(arrowEncoder);
+        parquetEncoder = Misc.free(parquetEncoder);
+        batchEncoder = null;
+        frameMemoryPool = Misc.free(frameMemoryPool);
+        frameRecord = Misc.free(frameRecord);
     }
 
     public long getFd() {
         return httpConnectionContext.getFd();
     }
 
+    void freePageFrameCursor() {
+        if (frameCursor != null) {
+            // release frame memory before the cursor closes the partitions it came from
+            frameMemoryPool.clear();
+            frameRecord.clear();
+            frameAddressCache.clear();
+            frameCursor = Misc.free(frameCursor);
+        }
+    }
+
+    void ofBatchEncoder() {
+        if (format == FORMAT_PARQUET) {
+            if (parquetEncoder == null) {
+                parquetEncoder = new ParquetStreamEncoder(MemoryTag.NATIVE_HTTP_CONN);
+            }
+            batchEncoder = parquetEncoder;
+        } else {
+            if (arrowEncoder == null) {
+                arrowEncoder = new ArrowStreamEncoder();
+            }
+            batchEncoder = arrowEncoder;
+        }
+        batchEncoder.of(metadata);
+        segmentIndex = 0;
+        segmentOffset = 0;
+    }
+
+    void ofPageFrameCursor(CairoConfiguration configuration, PageFrameCursor frameCursor) {
+        if (frameAddressCache == null) {
+            frameAddressCache = new PageFrameAddressCache(configuration);
+            frameMemoryPool = new PageFrameMemoryPool(configuration.getSqlParquetFrameCacheCapacity());
+            frameRecord = new PageFrameMemoryRecord(PageFrameMemoryRecord.RECORD_A_LETTER);
+        }
+        this.frameCursor = frameCursor;
+        frameAddressCache.of(metadata, frameCursor.getColumnIndexes());
+        frameMemoryPool.of(frameAddressCache);
+        frameRecord.of(frameCursor);
+        frameCount = 0;
+        frameIndex = -1;
+        frameRowLo = 0;
+        frameRowHi = 0;
+    }
+
     void setQueryCacheable(boolean queryCacheable) {
         this.queryCacheable = queryCacheable;
     }
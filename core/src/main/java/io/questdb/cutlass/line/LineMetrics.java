@@ -35,6 +35,8 @@ public class LineMetrics implements Mutable {
     private final Counter aboveMaxConnectionCountCounter;
     private final Counter belowMaxConnectionCountCounter;
     private final AtomicLongGauge httpConnectionCountGauge;
+    private final Counter symbolCacheHitCounter;
+    private final Counter symbolCacheMissCounter;
     private final LongGauge tcpConnectionCountGauge;
     private final LongGauge totalIlpHttpBytesGauge;
     private final LongGauge totalIlpTcpBytesGauge;
@@ -46,6 +48,8 @@ public class LineMetrics implements Mutable {
         this.totalIlpHttpBytesGauge = metricsRegistry.newLongGauge("line_http_recv_bytes");
         this.aboveMaxConnectionCountCounter = metricsRegistry.newCounter("line_tcp_above_max_connection_count");
         this.belowMaxConnectionCountCounter = metricsRegistry.newCounter("line_tcp_below_max_connection_count");
+        this.symbolCacheHitCounter = metricsRegistry.newCounter("line_tcp_symbol_cache_hits");
+        this.symbolCacheMissCounter = metricsRegistry.newCounter("line_tcp_symbol_cache_misses");
     }
 
     public Counter aboveMaxConnectionCountCounter() {
@@ -64,12 +68,22 @@ public class LineMetrics implements Mutable {
         totalIlpHttpBytesGauge.setValue(0);
         aboveMaxConnectionCountCounter.reset();
         belowMaxConnectionCountCounter.reset();
+        symbolCacheHitCounter.reset();
+        symbolCacheMissCounter.reset();
     }
 
     public AtomicLongGauge httpConnectionCountGauge() {
         return httpConnectionCountGauge;
     }
 
+    public Counter symbolCacheHitCounter() {
+        return symbolCacheHitCounter;
+    }
+
+    public Counter symbolCacheMissCounter() {
+        return symbolCacheMissCounter;
+    }
+
     public LongGauge tcpConnectionCountGauge() {
         return tcpConnectionCountGauge;
     }
@@ -151,6 +151,11 @@ public class DefaultLineTcpReceiverConfiguration extends DefaultIODispatcherConf
         return 127;
     }
 
+    @Override
+    public double getMaxLoadRatio() {
+        return 0;
+    }
+
     @Override
     public int getMaxMeasurementSize() {
         return 512;
@@ -186,6 +191,11 @@ public class DefaultLineTcpReceiverConfiguration extends DefaultIODispatcherConf
         return 2048;
     }
 
+    @Override
+    public int getSymbolCacheSharedCapacity() {
+        return 0;
+    }
+
     @Override
     public long getSymbolCacheWaitBeforeReload() {
         return 500_000;
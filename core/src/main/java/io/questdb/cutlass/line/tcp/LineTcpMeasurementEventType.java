@@ -30,4 +30,8 @@ class LineTcpMeasurementEventType {
     static final int ALL_WRITERS_INCOMPLETE_EVENT = -2;
 
     static final int ALL_WRITERS_RELEASE_WRITER = -3;
+
+    // Published to the previous owner of a table when the table is moved to another writer thread,
+    // the previous owner releases the table once all events queued before the handover are applied
+    static final int ALL_WRITERS_HANDOVER_TABLE = -4;
 }
@@ -79,17 +79,24 @@ public class LineTcpMeasurementScheduler implements Closeable {
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> idleTableUpdateDetailsUtf16;
     private final LineWalAppender lineWalAppender;
     private final long[] loadByWriterThread;
+    private final long maintenanceInterval;
+    private final double maxLoadRatio;
     private final NetworkIOJob[] netIoJobs;
     private final Path path = new Path();
     private final MPSequence[] pubSeq;
     private final RingQueue<LineTcpMeasurementEvent>[] queue;
     private final long spinLockTimeoutMs;
+    private final SCSequence[] subSeq;
     private final StringSink[] tableNameSinks;
     private final TableStructureAdapter tableStructureAdapter;
     private final ReadWriteLock tableUpdateDetailsLock = new SimpleReadWriteLock();
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf16;
     private final Telemetry<TelemetryTask> telemetry;
     private final long writerIdleTimeout;
+    // table that is being moved between writer threads, only one table is moved at a time
+    private volatile TableUpdateDetails handoverTud;
+    private boolean isHandoverEventPublished;
+    private volatile long nextRebalanceMillis;
 
     public LineTcpMeasurementScheduler(
             LineTcpReceiverConfiguration lineConfiguration,
@@ -129,6 +136,7 @@ public class LineTcpMeasurementScheduler implements Closeable {
             long commitInterval = configuration.getCommitInterval();
             int nWriterThreads = writerWorkerPool.getWorkerCount();
             pubSeq = new MPSequence[nWriterThreads];
+            subSeq = new SCSequence[nWriterThreads];
             //noinspection unchecked
             queue = new RingQueue[nWriterThreads];
             //noinspection unchecked
@@ -154,15 +162,16 @@ public class LineTcpMeasurementScheduler implements Closeable {
                 );
 
                 queue[i] = q;
-                SCSequence subSeq = new SCSequence();
-                ps.then(subSeq).then(ps);
+                SCSequence ss = new SCSequence();
+                ps.then(ss).then(ps);
+                subSeq[i] = ss;
 
                 assignedTables[i] = new ObjList<>();
 
                 final LineTcpWriterJob lineTcpWriterJob = new LineTcpWriterJob(
                         i,
                         q,
-                        subSeq,
+                        ss,
                         clock,
                         commitInterval, this, engine.getMetrics(), assignedTables[i]
                 );
@@ -176,6 +185,9 @@ public class LineTcpMeasurementScheduler implements Closeable {
                     cairoConfiguration.getWalEnabledDefault()
             );
             writerIdleTimeout = lineConfiguration.getWriterIdleTimeout();
+            maxLoadRatio = lineConfiguration.getMaxLoadRatio();
+            maintenanceInterval = lineConfiguration.getMaintenanceInterval();
+            nextRebalanceMillis = clock.getTicks() + maintenanceInterval;
             lineWalAppender = new LineWalAppender(
                     autoCreateNewColumns,
                     configuration.isStringToCharCastAllowed(),
@@ -219,11 +231,19 @@ public class LineTcpMeasurementScheduler implements Closeable {
             int readerWorkerId,
             long millis
     ) {
+        // when the handover event could not be published, keep the maintenance job busy to retry soon,
+        // the new owner of the table cannot proceed until the event is processed by the previous owner
+        boolean busy = false;
+        if (handoverTud != null || (millis >= nextRebalanceMillis && maxLoadRatio > 0 && loadByWriterThread.length > 1)) {
+            busy = rebalance(millis);
+        }
+
         for (int n = 0, sz = tableUpdateDetailsUtf8.size(); n < sz; n++) {
             final Utf8String tableNameUtf8 = tableUpdateDetailsUtf8.keys().get(n);
             final TableUpdateDetails tud = tableUpdateDetailsUtf8.get(tableNameUtf8);
 
-            if (millis - tud.getLastMeasurementMillis() >= writerIdleTimeout) {
+            // table being moved between writer threads is not idle, it will be checked again on the next run
+            if (millis - tud.getLastMeasurementMillis() >= writerIdleTimeout && !tud.isHandoverPending()) {
                 tableUpdateDetailsLock.writeLock().lock();
                 try {
                     if (tud.getNetworkIOOwnerCount() == 1) {
@@ -245,13 +265,13 @@ public class LineTcpMeasurementScheduler implements Closeable {
                         tableUpdateDetailsUtf8.remove(tableNameUtf8);
                         tud.removeReference(readerWorkerId);
                     }
-                    return sz > 1;
+                    return sz > 1 || busy;
                 } finally {
                     tableUpdateDetailsLock.writeLock().unlock();
                 }
             }
         }
-        return false;
+        return busy;
     }
 
     public void processWriterReleaseEvent(LineTcpMeasurementEvent event, int workerId) {
@@ -378,21 +398,30 @@ public class LineTcpMeasurementScheduler implements Closeable {
             LineTcpParser parser,
             TableUpdateDetails tud
     ) {
-        final int writerThreadId = tud.getWriterThreadId();
-        long seq = getNextPublisherEventSequence(writerThreadId);
-        if (seq > -1) {
-            try {
-                if (tud.isWriterInError()) {
-                    throw CairoException.critical(0).put("writer is in error, aborting ILP pipeline");
+        while (true) {
+            final int writerThreadId = tud.getWriterThreadId();
+            long seq = getNextPublisherEventSequence(writerThreadId);
+            if (seq > -1) {
+                try {
+                    if (tud.getWriterThreadId() != writerThreadId) {
+                        // the table has been handed over to another writer thread after we've read the thread id,
+                        // the previous owner may have already released the table, so we publish an incomplete
+                        // event to it and try the new owner instead
+                        queue[writerThreadId].get(seq).createIncompleteEvent();
+                        continue;
+                    }
+                    if (tud.isWriterInError()) {
+                        throw CairoException.critical(0).put("writer is in error, aborting ILP pipeline");
+                    }
+                    queue[writerThreadId].get(seq).createMeasurementEvent(securityContext, tud, parser, netIoJob.getWorkerId(), writerThreadId);
+                } finally {
+                    pubSeq[writerThreadId].done(seq);
                 }
-                queue[writerThreadId].get(seq).createMeasurementEvent(securityContext, tud, parser, netIoJob.getWorkerId());
-            } finally {
-                pubSeq[writerThreadId].done(seq);
+                tud.incrementEventsProcessedSinceReshuffle();
+                return false;
             }
-            tud.incrementEventsProcessedSinceReshuffle();
-            return false;
+            return true;
         }
-        return true;
     }
 
     private TableUpdateDetails getTableUpdateDetailsFromSharedArea(
@@ -511,6 +540,104 @@ public class LineTcpMeasurementScheduler implements Closeable {
         return pubSeq != null;
     }
 
+    /**
+     * Moves a table from the busiest writer thread to the least busy one when the load
+     * of the former exceeds the load of the latter by more than the configured ratio.
+     *
+     * @return true when the handover event is yet to be published to the previous owner
+     */
+    private boolean rebalance(long millis) {
+        tableUpdateDetailsLock.writeLock().lock();
+        try {
+            final TableUpdateDetails pendingTud = handoverTud;
+            if (pendingTud != null) {
+                // the handover event could not be published because the queue was full
+                if (!isHandoverEventPublished && !unsafePublishHandoverEvent(pendingTud)) {
+                    return true;
+                }
+                if (pendingTud.isHandoverPending()) {
+                    return false;
+                }
+                handoverTud = null;
+            }
+
+            if (millis < nextRebalanceMillis || maxLoadRatio <= 0) {
+                // another IO thread got here first or rebalancing is disabled
+                return false;
+            }
+            nextRebalanceMillis = millis + maintenanceInterval;
+
+            // load is the number of events received by each writer thread since the previous check
+            Arrays.fill(loadByWriterThread, 0);
+            ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+            for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+                final TableUpdateDetails tud = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+                if (tud != null) {
+                    loadByWriterThread[tud.getWriterThreadId()] += tud.updateLoad();
+                }
+            }
+
+            int fromThreadId = 0;
+            int toThreadId = 0;
+            for (int i = 1, n = loadByWriterThread.length; i < n; i++) {
+                if (loadByWriterThread[i] > loadByWriterThread[fromThreadId]) {
+                    fromThreadId = i;
+                }
+                if (loadByWriterThread[i] < loadByWriterThread[toThreadId]) {
+                    toThreadId = i;
+                }
+            }
+
+            final long maxLoad = loadByWriterThread[fromThreadId];
+            final long minLoad = loadByWriterThread[toThreadId];
+            if (maxLoad <= maxLoadRatio * minLoad || fromThreadId == toThreadId) {
+                return false;
+            }
+
+            // the busiest writer is keeping up, there is no point in moving tables around
+            if (pubSeq[fromThreadId].current() == subSeq[fromThreadId].current()) {
+                return false;
+            }
+
+            // find the table that brings both writer threads closest to the average load,
+            // a table with the load above the difference would just make the other thread the busiest one
+            final long loadDiff = maxLoad - minLoad;
+            TableUpdateDetails candidate = null;
+            long candidateDistance = Long.MAX_VALUE;
+            for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+                final TableUpdateDetails tud = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+                if (tud != null && tud.getWriterThreadId() == fromThreadId) {
+                    final long load = tud.getLastLoad();
+                    if (load > 0 && load < loadDiff) {
+                        final long distance = Math.abs(loadDiff - 2 * load);
+                        if (distance < candidateDistance) {
+                            candidate = tud;
+                            candidateDistance = distance;
+                        }
+                    }
+                }
+            }
+
+            if (candidate != null) {
+                LOG.info().$("rebalance load [tableName=").$safe(candidate.getTableNameUtf16())
+                        .$(", fromThread=").$(fromThreadId)
+                        .$(", fromThreadLoad=").$(maxLoad)
+                        .$(", toThread=").$(toThreadId)
+                        .$(", toThreadLoad=").$(minLoad)
+                        .I$();
+                // switch the thread id first, IO threads that have already claimed a slot
+                // in the old queue detect the switch and move on to the new owner
+                candidate.startHandover(toThreadId);
+                handoverTud = candidate;
+                isHandoverEventPublished = false;
+                return !unsafePublishHandoverEvent(candidate);
+            }
+            return false;
+        } finally {
+            tableUpdateDetailsLock.writeLock().unlock();
+        }
+    }
+
     @NotNull
     private TableUpdateDetails unsafeAssignTableToWriterThread(
             int tudKeyIndex,
@@ -545,6 +672,23 @@ public class LineTcpMeasurementScheduler implements Closeable {
         return tud;
     }
 
+    private boolean unsafePublishHandoverEvent(TableUpdateDetails tud) {
+        // this is called under the write lock, which writer threads need to release tables,
+        // so we must not spin here waiting for the queue space
+        final int fromThreadId = tud.getHandoverFromThreadId();
+        long seq;
+        while ((seq = pubSeq[fromThreadId].next()) == -2) {
+            Os.pause();
+        }
+        if (seq > -1) {
+            queue[fromThreadId].get(seq).createHandoverEvent(tud);
+            pubSeq[fromThreadId].done(seq);
+            isHandoverEventPublished = true;
+            return true;
+        }
+        return false;
+    }
+
     private void unsafeCalcThreadLoad() {
         Arrays.fill(loadByWriterThread, 0);
         ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
@@ -77,6 +77,15 @@ public interface LineTcpReceiverConfiguration extends IODispatcherConfiguration
 
     int getMaxFileNameLength();
 
+    /**
+     * Ratio between the busiest and the least busy writer thread load, above which
+     * a non-WAL table is moved from the busiest writer thread to the least busy one.
+     * Zero or negative value disables load rebalancing.
+     *
+     * @return max load ratio
+     */
+    double getMaxLoadRatio();
+
     int getMaxMeasurementSize();
 
     long getMaxRecvBufferSize();
@@ -89,6 +98,12 @@ public interface LineTcpReceiverConfiguration extends IODispatcherConfiguration
 
     NetworkFacade getNetworkFacade();
 
+    /**
+     * Returns the number of symbol values cached per table column and shared between
+     * network IO threads, or 0 when every thread keeps its own unbounded cache.
+     */
+    int getSymbolCacheSharedCapacity();
+
     long getSymbolCacheWaitBeforeReload();
 
     LineTcpTimestampAdapter getTimestampAdapter();
@@ -210,6 +210,11 @@ public class LineTcpReceiverConfigurationWrapper implements LineTcpReceiverConfi
         return getDelegate().getMaxFileNameLength();
     }
 
+    @Override
+    public double getMaxLoadRatio() {
+        return getDelegate().getMaxLoadRatio();
+    }
+
     @Override
     public int getMaxMeasurementSize() {
         return getDelegate().getMaxMeasurementSize();
@@ -275,6 +280,11 @@ public class LineTcpReceiverConfigurationWrapper implements LineTcpReceiverConfi
         return getDelegate().getSendBufferSize();
     }
 
+    @Override
+    public int getSymbolCacheSharedCapacity() {
+        return getDelegate().getSymbolCacheSharedCapacity();
+    }
+
     @Override
     public long getSymbolCacheWaitBeforeReload() {
         return getDelegate().getSymbolCacheWaitBeforeReload();
@@ -138,12 +138,17 @@ class LineTcpWriterJob implements Job, Closeable {
             }
             busy = true;
             final LineTcpMeasurementEvent event = queue.get(cursor);
+            final TableUpdateDetails tud = event.getTableUpdateDetails();
+            if (tud != null && tud.isHandoverPendingFor(workerId) && event.getWriterWorkerId() != LineTcpMeasurementEventType.ALL_WRITERS_INCOMPLETE_EVENT) {
+                // the table has just been moved to this thread, but the previous owner
+                // is yet to apply its queued events; leave the event in the queue for now
+                return true;
+            }
 
             try {
                 // we check the event's writer thread ID to avoid consuming
                 // incomplete events
 
-                final TableUpdateDetails tud = event.getTableUpdateDetails();
                 boolean closeWriter = false;
                 if (event.getWriterWorkerId() == workerId) {
                     try {
@@ -172,10 +177,22 @@ class LineTcpWriterJob implements Job, Closeable {
                         event.createWriterReleaseEvent(tud, false);
                         // This is a critical error, so we treat it as an unhandled one.
                     }
-                } else {
-                    if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
-                        closeWriter = true;
+                } else if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_RELEASE_WRITER) {
+                    closeWriter = true;
+                } else if (event.getWriterWorkerId() == LineTcpMeasurementEventType.ALL_WRITERS_HANDOVER_TABLE) {
+                    // all events queued for the table before the handover are applied,
+                    // the uncommitted rows are left to the new owner to commit
+                    if (tud.isAssignedToJob()) {
+                        assignedTables.remove(tud);
+                        tud.setAssignedToJob(false);
+                        nextCommitTime = millisecondClock.getTicks();
                     }
+                    tud.completeHandover();
+                    LOG.info()
+                            .$("handed over table to another writer thread [tableName=").$(tud.getTableToken())
+                            .$(", workerId=").$(workerId)
+                            .$(", newWorkerId=").$(tud.getWriterThreadId())
+                            .I$();
                 }
 
                 if (closeWriter && tud.getWriter() != null) {
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.metrics.Counter;
+import io.questdb.std.Hash;
+import io.questdb.std.Numbers;
+import io.questdb.std.str.DirectUtf8Sequence;
+import io.questdb.std.str.Utf8String;
+import io.questdb.std.str.Utf8s;
+
+/**
+ * Symbol value to key cache shared by all network IO threads that write to a table column.
+ * <p>
+ * The cache is set-associative: a value hashes to a row of {@link #BLOCKS} slots and each
+ * row is guarded by its own lock. Slots keep a hit count; when a row is full, the least
+ * frequently hit slot is evicted and the counts of the row are halved, so that values
+ * that were hot once eventually age out. Memory is bounded by the capacity given
+ * on construction.
+ * <p>
+ * Symbol keys never change for a given column version, so entries don't need to be
+ * invalidated, the cache is replaced when the column name txn changes.
+ */
+public class SharedSymbolCache {
+    static final int BLOCKS = 8;
+    private static final int MAX_HITS = 1 << 16;
+    private final long columnNameTxn;
+    private final int[] hits;
+    private final Counter hitCounter;
+    private final int[] keys;
+    private final Object[] locks;
+    private final Counter missCounter;
+    private final int rowMask;
+    private final Utf8String[] values;
+
+    public SharedSymbolCache(int capacity, long columnNameTxn, Counter hitCounter, Counter missCounter) {
+        final int rows = Math.max(1, Numbers.ceilPow2(capacity) / BLOCKS);
+        this.columnNameTxn = columnNameTxn;
+        this.hitCounter = hitCounter;
+        this.missCounter = missCounter;
+        this.rowMask = rows - 1;
+        this.locks = new Object[rows];
+        for (int i = 0; i < rows; i++) {
+            locks[i] = new Object();
+        }
+        this.values = new Utf8String[rows * BLOCKS];
+        this.keys = new int[rows * BLOCKS];
+        this.hits = new int[rows * BLOCKS];
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public long getColumnNameTxn() {
+        return columnNameTxn;
+    }
+
+    public int keyOf(DirectUtf8Sequence value) {
+        final int row = row(value);
+        final int lo = row * BLOCKS;
+        synchronized (locks[row]) {
+            // rows are filled left-to-right and never have gaps
+            for (int i = lo, hi = lo + BLOCKS; i < hi && values[i] != null; i++) {
+                if (Utf8s.equals(value, values[i])) {
+                    if (hits[i] < MAX_HITS) {
+                        hits[i]++;
+                    }
+                    hitCounter.inc();
+                    return keys[i];
+                }
+            }
+        }
+        missCounter.inc();
+        return SymbolTable.VALUE_NOT_FOUND;
+    }
+
+    public void put(DirectUtf8Sequence value, int key) {
+        final int row = row(value);
+        final int lo = row * BLOCKS;
+        final int hi = lo + BLOCKS;
+        final Utf8String immutableValue = Utf8String.newInstance(value);
+        synchronized (locks[row]) {
+            int victim = lo;
+            for (int i = lo; i < hi; i++) {
+                if (values[i] == null) {
+                    victim = i;
+                    break;
+                }
+                if (Utf8s.equals(value, values[i])) {
+                    // another thread got here first
+                    return;
+                }
+                if (hits[i] < hits[victim]) {
+                    victim = i;
+                }
+            }
+            if (values[victim] != null) {
+                for (int i = lo; i < hi; i++) {
+                    hits[i] >>>= 1;
+                }
+            }
+            values[victim] = immutableValue;
+            keys[victim] = key;
+            hits[victim] = 1;
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (int row = 0, n = locks.length; row < n; row++) {
+            synchronized (locks[row]) {
+                for (int i = row * BLOCKS, hi = i + BLOCKS; i < hi && values[i] != null; i++) {
+                    size++;
+                }
+            }
+        }
+        return size;
+    }
+
+    private int row(DirectUtf8Sequence value) {
+        return Hash.spread(Utf8s.hashCode(value)) & rowMask;
+    }
+}
@@ -33,6 +33,7 @@ import io.questdb.std.Unsafe;
 import io.questdb.std.Utf8StringIntHashMap;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.str.*;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -48,6 +49,8 @@ public class SymbolCache implements DirectUtf8SymbolLookup, Closeable {
     private final long waitIntervalBeforeReload;
     private int columnIndex;
     private long lastSymbolReaderReloadTimestamp;
+    // when set, replaces the local map, so that IO threads share resolved symbols
+    private SharedSymbolCache sharedCache;
     private int symbolIndexInTxFile;
     private TxReader txReader;
     private TableWriterAPI writerAPI;
@@ -65,6 +68,7 @@ public class SymbolCache implements DirectUtf8SymbolLookup, Closeable {
     public void close() {
         txReader = null;
         writerAPI = null;
+        sharedCache = null;
         symbolMapReader.close();
         symbolValueToKeyMap.reset();
     }
@@ -79,10 +83,16 @@ public class SymbolCache implements DirectUtf8SymbolLookup, Closeable {
 
     @Override
     public int keyOf(DirectUtf8Sequence value) {
-        final int index = symbolValueToKeyMap.keyIndex(value);
+        final int index = sharedCache == null ? symbolValueToKeyMap.keyIndex(value) : 0;
         if (index < 0) {
             return symbolValueToKeyMap.valueAt(index);
         }
+        if (sharedCache != null) {
+            final int cachedKey = sharedCache.keyOf(value);
+            if (cachedKey != SymbolTable.VALUE_NOT_FOUND) {
+                return cachedKey;
+            }
+        }
 
         final long ticks = clock.getTicks();
         int symbolValueCount;
@@ -99,7 +109,11 @@ public class SymbolCache implements DirectUtf8SymbolLookup, Closeable {
         final int symbolKey = symbolMapReader.keyOf(tempSink);
 
         if (symbolKey != SymbolTable.VALUE_NOT_FOUND) {
-            symbolValueToKeyMap.putAt(index, Utf8String.newInstance(value), symbolKey);
+            if (sharedCache != null) {
+                sharedCache.put(value, symbolKey);
+            } else {
+                symbolValueToKeyMap.putAt(index, Utf8String.newInstance(value), symbolKey);
+            }
         }
 
         return symbolKey;
@@ -114,8 +128,23 @@ public class SymbolCache implements DirectUtf8SymbolLookup, Closeable {
             int symbolIndexInTxFile,
             TxReader txReader,
             long columnNameTxn
+    ) {
+        of(configuration, writerAPI, columnIndex, path, columnName, symbolIndexInTxFile, txReader, columnNameTxn, null);
+    }
+
+    public void of(
+            CairoConfiguration configuration,
+            TableWriterAPI writerAPI,
+            int columnIndex,
+            Path path,
+            CharSequence columnName,
+            int symbolIndexInTxFile,
+            TxReader txReader,
+            long columnNameTxn,
+            @Nullable SharedSymbolCache sharedCache
     ) {
         this.writerAPI = writerAPI;
+        this.sharedCache = sharedCache;
         this.columnIndex = columnIndex;
         this.symbolIndexInTxFile = symbolIndexInTxFile;
         final int plen = path.size();
@@ -40,6 +40,7 @@ import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.sql.TableReferenceOutOfDateException;
 import io.questdb.cairo.wal.MetadataService;
+import io.questdb.cutlass.line.LineMetrics;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.BitSet;
@@ -73,10 +74,15 @@ public class TableUpdateDetails implements Closeable {
     private final DefaultColumnTypes defaultColumnTypes;
     private final long defaultMaxUncommittedRows;
     private final CairoEngine engine;
+    private final LineMetrics lineMetrics;
     private final ThreadLocalDetails[] localDetailsArray;
     private final MillisecondClock millisecondClock;
     // Set only for WAL tables, i.e. when writerThreadId == -1.
     private final SecurityContext ownSecurityContext;
+    // 0 when symbol caches are not shared between network IO threads
+    private final int sharedSymbolCacheCapacity;
+    // indexed by column writer index, guarded by the list itself
+    private final ObjList<SharedSymbolCache> sharedSymbolCaches = new ObjList<>();
     private final Utf8String tableNameUtf8;
     private final TableToken tableToken;
     private final int timestampIndex;
@@ -86,14 +92,22 @@ public class TableUpdateDetails implements Closeable {
     // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
     // multiple threads without synchronisation
     private long eventsProcessedSinceReshuffle = 0;
+    private int handoverFromThreadId = -1;
+    // Set while the table is being handed over from one writer thread to another,
+    // the new owner must not touch the writer until the previous owner clears the flag.
+    private volatile boolean handoverPending;
     private boolean isDropped;
+    // Number of events received between the last two load checks, accessed under scheduler's lock
+    private long lastLoad;
+    // Value of eventsProcessedSinceReshuffle as of the last load check, accessed under scheduler's lock
+    private long lastLoadCheckEvents;
     private long lastMeasurementMillis = Long.MAX_VALUE;
     private long latestKnownMetadataVersion;
     private MetadataService metadataService;
     private int networkIOOwnerCount = 0;
     private long nextCommitTime;
     private volatile boolean writerInError;
-    private int writerThreadId;
+    private volatile int writerThreadId;
 
     public TableUpdateDetails(
             LineTcpReceiverConfiguration configuration,
@@ -119,6 +133,8 @@ public class TableUpdateDetails implements Closeable {
         this.metadataService = writer.supportsMultipleWriters() ? null : (MetadataService) writer;
         this.commitInterval = configuration.getCommitInterval();
         this.nextCommitTime = millisecondClock.getTicks() + commitInterval;
+        this.sharedSymbolCacheCapacity = configuration.getSymbolCacheSharedCapacity();
+        this.lineMetrics = configuration.getMetrics().lineMetrics();
 
         final int n = netIoJobs.length;
         this.localDetailsArray = new ThreadLocalDetails[n];
@@ -157,6 +173,9 @@ public class TableUpdateDetails implements Closeable {
         this.metadataService = writer.supportsMultipleWriters() ? null : (MetadataService) writer;
         this.commitInterval = commitInterval;
         this.nextCommitTime = millisecondClock.getTicks() + this.commitInterval;
+        // a single network IO thread has nothing to share
+        this.sharedSymbolCacheCapacity = 0;
+        this.lineMetrics = null;
         this.localDetailsArray = new ThreadLocalDetails[]{new ThreadLocalDetails(symbolCachePool)};
         this.tableNameUtf8 = tableNameUtf8;
     }
@@ -190,6 +209,9 @@ public class TableUpdateDetails implements Closeable {
         if (writerThreadId != Integer.MIN_VALUE) {
             LOG.info().$("closing table writer [tableName=").$(tableToken).$(']').$();
             closeLocals();
+            synchronized (sharedSymbolCaches) {
+                sharedSymbolCaches.clear();
+            }
             if (writerAPI != null) {
                 try {
                     if (commitOnClose) {
@@ -236,10 +258,26 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
+    /**
+     * Called by the previous owner writer thread once it's done with the table.
+     */
+    public void completeHandover() {
+        handoverFromThreadId = -1;
+        handoverPending = false;
+    }
+
     public long getEventsProcessedSinceReshuffle() {
         return eventsProcessedSinceReshuffle;
     }
 
+    public int getHandoverFromThreadId() {
+        return handoverFromThreadId;
+    }
+
+    public long getLastLoad() {
+        return lastLoad;
+    }
+
     public long getLastMeasurementMillis() {
         return lastMeasurementMillis;
     }
@@ -280,6 +318,18 @@ public class TableUpdateDetails implements Closeable {
         return this.isDropped;
     }
 
+    public boolean isHandoverPending() {
+        return handoverPending;
+    }
+
+    /**
+     * Returns true if the given writer thread is the new owner of the table,
+     * but the previous owner hasn't released it yet.
+     */
+    public boolean isHandoverPendingFor(int workerId) {
+        return handoverPending && writerThreadId == workerId;
+    }
+
     public boolean isWal() {
         return writerThreadId == -1;
     }
@@ -316,12 +366,32 @@ public class TableUpdateDetails implements Closeable {
         writerInError = true;
     }
 
+    /**
+     * Switches the table to the given writer thread. Events already published to the previous
+     * owner will be applied by it before it calls {@link #completeHandover()}.
+     */
+    public void startHandover(int toThreadId) {
+        handoverFromThreadId = writerThreadId;
+        handoverPending = true;
+        writerThreadId = toThreadId;
+    }
+
     public void tick() {
         if (metadataService != null) {
             metadataService.tick();
         }
     }
 
+    /**
+     * Returns the number of events received since the previous call.
+     */
+    public long updateLoad() {
+        final long events = eventsProcessedSinceReshuffle;
+        lastLoad = Math.max(events - lastLoadCheckEvents, 0);
+        lastLoadCheckEvents = events;
+        return lastLoad;
+    }
+
     private void authorizeCommit() {
         if (ownSecurityContext != null) {
             ownSecurityContext.authorizeInsert(tableToken);
@@ -335,6 +405,25 @@ public class TableUpdateDetails implements Closeable {
         return defaultMaxUncommittedRows;
     }
 
+    private @Nullable SharedSymbolCache getSharedSymbolCache(int columnWriterIndex, long columnNameTxn) {
+        if (sharedSymbolCacheCapacity == 0) {
+            return null;
+        }
+        synchronized (sharedSymbolCaches) {
+            SharedSymbolCache cache = sharedSymbolCaches.getQuiet(columnWriterIndex);
+            if (cache == null || cache.getColumnNameTxn() != columnNameTxn) {
+                cache = new SharedSymbolCache(
+                        sharedSymbolCacheCapacity,
+                        columnNameTxn,
+                        lineMetrics.symbolCacheHitCounter(),
+                        lineMetrics.symbolCacheMissCounter()
+                );
+                sharedSymbolCaches.extendAndSet(columnWriterIndex, cache);
+            }
+            return cache;
+        }
+    }
+
     private void handleCommitException(Throwable ex) {
         setWriterInError();
         LOG.error().$("could not commit [table=").$(tableToken).$(", e=").$(ex).I$();
@@ -523,7 +612,8 @@ public class TableUpdateDetails implements Closeable {
                         symbolNameTemp,
                         symIndex,
                         txReader,
-                        columnNameTxn
+                        columnNameTxn,
+                        getSharedSymbolCache(colWriterIndex, columnNameTxn)
                 );
                 symbolCacheByColumnIndex.extendAndSet(colWriterIndex, symCache);
                 return symCache;
@@ -106,6 +106,7 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
     public static final String TAG_ALTER_ROLE = "ALTER ROLE";
     public static final String TAG_BEGIN = "BEGIN";
     public static final String TAG_COMMIT = "COMMIT";
+    public static final String TAG_COPY = "COPY";
     public static final String TAG_CREATE_ROLE = "CREATE ROLE";
     // create as select tag
     public static final String TAG_DEALLOCATE = "DEALLOCATE";
@@ -126,6 +127,10 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
     static final byte MESSAGE_TYPE_BIND_COMPLETE = '2';
     static final byte MESSAGE_TYPE_CLOSE_COMPLETE = '3';
     static final byte MESSAGE_TYPE_COMMAND_COMPLETE = 'C';
+    static final byte MESSAGE_TYPE_COPY_DATA = 'd';
+    static final byte MESSAGE_TYPE_COPY_DONE = 'c';
+    static final byte MESSAGE_TYPE_COPY_IN_RESPONSE = 'G';
+    static final byte MESSAGE_TYPE_COPY_OUT_RESPONSE = 'H';
     static final byte MESSAGE_TYPE_DATA_ROW = 'D';
     static final byte MESSAGE_TYPE_EMPTY_QUERY = 'I';
     static final byte MESSAGE_TYPE_ERROR_RESPONSE = 'E';
@@ -155,6 +160,8 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
     private final CharacterStore bindVariableValuesCharacterStore;
     private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
     private final PGWireConfiguration configuration;
+    private final PGCopyOut copyOut = new PGCopyOut();
+    private final PGCopyStatement copyStatement = new PGCopyStatement();
     private final DirectUtf8String directUtf8NamedPortal = new DirectUtf8String();
     private final DirectUtf8String directUtf8NamedStatement = new DirectUtf8String();
     private final boolean dumpNetworkTraffic;
@@ -180,6 +187,8 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
     private SocketAuthenticator authenticator;
     private int bufferRemainingOffset = 0;
     private int bufferRemainingSize = 0;
+    // lazily created on the first COPY FROM STDIN
+    private PGCopyIn copyIn;
     private boolean freezeRecvBuffer;
     private int namedStatementLimit;
     // PG wire protocol has two phases:
@@ -326,6 +335,7 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
 
         prepareForNewQuery();
         clearRecvBuffer();
+        Misc.clear(copyIn);
         clearWriters();
         // Clear every field, even if already cleaned to be on the safe side.
         Misc.clear(bindVariableTypes);
@@ -367,6 +377,7 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
             sqlExecutionContext.with(DenyAllSecurityContext.INSTANCE, null, null, -1, null);
         }
         authenticator = Misc.free(authenticator);
+        copyIn = Misc.free(copyIn);
         tasCache = Misc.free(tasCache);
         taiCache = Misc.free(taiCache);
 
@@ -538,11 +549,40 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
         throw BadProtocolException.INSTANCE;
     }
 
+    private void beginCopyIn() throws BadProtocolException, PeerIsSlowToReadException, PeerDisconnectedException, QueryPausedException {
+        try {
+            if (copyIn == null) {
+                copyIn = new PGCopyIn(engine, recvBufferSize);
+            }
+            copyIn.of(
+                    copyStatement,
+                    sqlExecutionContext.getSecurityContext(),
+                    this,
+                    transactionState == IN_TRANSACTION ? pendingWriters : null
+            );
+            copyIn.outCopyInResponse(responseUtf8Sink);
+        } catch (Throwable th) {
+            final BadProtocolException e = copyInKaput().put(th);
+            msgSync();
+            throw e;
+        }
+    }
+
     private void clearRecvBuffer() {
         recvBufferWriteOffset = 0;
         recvBufferReadOffset = 0;
     }
 
+    private BadProtocolException copyInKaput() {
+        // rolls back the rows, unless the writer is part of the transaction,
+        // in which case it is rolled back together with the transaction
+        Misc.clear(copyIn);
+        if (transactionState == IN_TRANSACTION) {
+            transactionState = ERROR_TRANSACTION;
+        }
+        return msgKaput();
+    }
+
     private void deallocateNamedStatement(Utf8Sequence statementName) {
         PGPipelineEntry pe = removeNamedStatementFromCache(statementName);
 
@@ -706,6 +746,24 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
         responseUtf8Sink.sendBufferAndReset();
     }
 
+    // returns true when the SQL text is COPY FROM STDIN or COPY TO STDOUT, which are not passed to the SQL compiler
+    private boolean isCopyStatement(CharSequence sqlText) throws BadProtocolException, PeerIsSlowToReadException, PeerDisconnectedException, QueryPausedException {
+        try {
+            return copyStatement.of(sqlText);
+        } catch (Throwable th) {
+            if (transactionState == IN_TRANSACTION) {
+                transactionState = ERROR_TRANSACTION;
+            }
+            final BadProtocolException e = msgKaput().put(th);
+            msgSync();
+            throw e;
+        }
+    }
+
+    private boolean isCopyInActive() {
+        return copyIn != null && copyIn.isActive();
+    }
+
     private void lookupPipelineEntryForNamedPortal(@Nullable Utf8Sequence namedPortal) throws BadProtocolException {
         if (namedPortal != null) {
             PGPipelineEntry pe = namedPortals.get(namedPortal);
@@ -909,6 +967,43 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
         pipelineCurrentEntry.setStateClosed(true, isStatementClose);
     }
 
+    private void msgCopyData(long lo, long msgLimit) throws PeerIsSlowToReadException, PeerDisconnectedException, QueryPausedException {
+        if (!isCopyInActive()) {
+            // the copy has failed, the remaining data is dropped
+            return;
+        }
+        try {
+            copyIn.onData(lo, msgLimit);
+        } catch (Throwable th) {
+            copyInKaput().put(th);
+            msgSync();
+        }
+    }
+
+    private void msgCopyDone() throws PeerIsSlowToReadException, PeerDisconnectedException, QueryPausedException {
+        if (!isCopyInActive()) {
+            return;
+        }
+        try {
+            final CharSequence sqlText = copyIn.getSqlText();
+            final long rowCount = copyIn.done();
+            pipelineCurrentEntry = entryPool.next();
+            pipelineCurrentEntry.ofCopy(sqlText, rowCount);
+        } catch (Throwable th) {
+            copyInKaput().put(th);
+        }
+        msgSync();
+    }
+
+    private void msgCopyFail(long lo, long msgLimit) throws BadProtocolException, PeerIsSlowToReadException, PeerDisconnectedException, QueryPausedException {
+        if (!isCopyInActive()) {
+            return;
+        }
+        final long hi = getUtf8StrSize(lo, msgLimit, "bad copy fail message", null);
+        copyInKaput().put("COPY from stdin failed: ").put(utf8String.of(lo, hi));
+        msgSync();
+    }
+
     private void msgDescribe(long lo, long msgLimit) throws BadProtocolException {
         if (pipelineCurrentEntry != null && pipelineCurrentEntry.isError()) {
             return;
@@ -1134,6 +1229,17 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
         }
         sqlExecutionContext.initNow();
         CharSequence activeSqlText = sqlTextCharacterStore.toImmutable();
+        if (isCopyStatement(activeSqlText)) {
+            if (copyStatement.isCopyOut()) {
+                msgQueryCopyOut();
+            } else {
+                beginCopyIn();
+                // the client is now expected to send CopyData messages, ReadyForQuery is
+                // sent once the copy is done or has failed
+                responseUtf8Sink.sendBufferAndReset();
+            }
+            return;
+        }
         try (SqlCompiler compiler = engine.getSqlCompiler()) {
             compiler.compileBatch(activeSqlText, sqlExecutionContext, batchCallback);
             if (pipelineCurrentEntry == null) {
@@ -1151,6 +1257,62 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
         }
     }
 
+    // COPY TO STDOUT runs its query as a simple query, the pipeline entry sends the result set as copy data
+    private void msgQueryCopyOut() throws BadProtocolException, PeerIsSlowToReadException, QueryPausedException, PeerDisconnectedException {
+        addPipelineEntry();
+        pipelineCurrentEntry = entryPool.next();
+        try {
+            final CharacterStoreEntry e = sqlTextCharacterStore.newEntry();
+            e.put(copyStatement.getQueryText());
+            final CharSequence queryText = e.toImmutable();
+            final TypesAndSelectModern tas = tasCache.poll(queryText);
+            if (tas != null) {
+                try {
+                    pipelineCurrentEntry.ofSimpleCachedSelect(queryText, sqlExecutionContext, tas);
+                } catch (Throwable th) {
+                    tas.close();
+                    throw th;
+                }
+            } else {
+                try (SqlCompiler compiler = engine.getSqlCompiler()) {
+                    final CompiledQuery cq = compiler.compile(queryText, sqlExecutionContext);
+                    // the entry takes ownership of the compiled query, so that it is released with the entry
+                    pipelineCurrentEntry.ofSimpleQuery(queryText, sqlExecutionContext, cq, taiPool);
+                    if (cq.getType() != CompiledQuery.SELECT) {
+                        throw msgKaput().put("COPY query must be a SELECT");
+                    }
+                    transactionState = pipelineCurrentEntry.msgExecute(
+                            sqlExecutionContext,
+                            transactionState,
+                            taiPool,
+                            pendingWriters,
+                            this,
+                            bindVariableValuesCharacterStore,
+                            utf8String,
+                            binarySequenceParamsPool,
+                            tempSequence,
+                            preparedStatementDeallocator
+                    );
+                }
+            }
+            copyOut.of(copyStatement);
+            pipelineCurrentEntry.ofCopyOut(copyOut);
+            pipelineCurrentEntry.setStateExec(true);
+        } catch (BadProtocolException ex) {
+            if (transactionState == IN_TRANSACTION) {
+                transactionState = ERROR_TRANSACTION;
+            }
+            throw ex;
+        } catch (Throwable ex) {
+            if (transactionState == IN_TRANSACTION) {
+                transactionState = ERROR_TRANSACTION;
+            }
+            throw msgKaput().put(ex);
+        } finally {
+            msgSync();
+        }
+    }
+
     private void msgSync() throws PeerIsSlowToReadException, PeerDisconnectedException, QueryPausedException {
         if (transactionState == IMPLICIT_TRANSACTION) {
             // implicit transactions must be committed on SYNC
@@ -1261,6 +1423,12 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
         }
 
 
+        if (isCopyInActive() && type != 'd' && type != 'c' && type != 'f' && type != 'S' && type != 'H') {
+            // the client abandoned the copy, abort it and carry on processing the message
+            copyInKaput().put("unexpected message type during COPY FROM STDIN [type=").put((char) type).put(']');
+            msgSync();
+        }
+
         // Message types in the order they usually come over the wire. All "msg" methods
         // are called only from here and are responsible for handling individual messages.
         // Please do not create other methods that start with "msg".
@@ -1282,10 +1450,23 @@ public class PGConnectionContextModern extends IOContext<PGConnectionContextMode
                 msgQuery(msgLo, msgLimit);
                 break;
             case 'S': // sync
-                msgSync();
+                if (!isCopyInActive()) {
+                    msgSync();
+                }
                 break;
             case 'H': // flush
-                msgFlush();
+                if (!isCopyInActive()) {
+                    msgFlush();
+                }
+                break;
+            case 'd': // copy data
+                msgCopyData(msgLo, msgLimit);
+                break;
+            case 'c': // copy done
+                msgCopyDone();
+                break;
+            case 'f': // copy fail
+                msgCopyFail(msgLo, msgLimit);
                 break;
             case 'X': // 'Terminate'
                 throw PeerDisconnectedException.INSTANCE;
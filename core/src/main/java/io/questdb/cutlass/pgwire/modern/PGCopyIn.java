@@ -0,0 +1,865 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.pgwire.modern;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.SecurityContext;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.TableWriterAPI;
+import io.questdb.cairo.pool.WriterSource;
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.cutlass.pgwire.PGResponseSink;
+import io.questdb.cutlass.text.Utf8Exception;
+import io.questdb.cutlass.text.types.TypeAdapter;
+import io.questdb.cutlass.text.types.TypeManager;
+import io.questdb.griffin.SqlUtil;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FlyweightMessageContainer;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.ObjObjHashMap;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.datetime.millitime.Dates;
+import io.questdb.std.str.DirectUtf16Sink;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.std.str.DirectUtf8String;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8StringSink;
+import io.questdb.std.str.Utf8s;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cutlass.pgwire.modern.PGConnectionContextModern.*;
+import static io.questdb.cutlass.pgwire.modern.PGCopyStatement.*;
+
+/**
+ * Streams rows of the COPY FROM STDIN sub-protocol into a table writer. For WAL tables
+ * this is a WalWriter. CopyData messages carry arbitrary chunks of the data stream, so rows
+ * that span message boundaries are accumulated in a native buffer until they are complete.
+ * A row that doesn't fit into maxRowSize bytes, the receive buffer size of the connection,
+ * fails the copy.
+ * The parsing is done in place, text values are unescaped into the same memory they were received in.
+ * <p>
+ * Outside an explicit transaction the rows are committed every time the uncommitted row count
+ * reaches the table's maxUncommittedRows. This keeps memory use bounded for arbitrarily large
+ * loads. Inside an explicit transaction the writer joins the connection's pending writers
+ * and the rows are committed or rolled back together with the transaction.
+ */
+public class PGCopyIn implements QuietCloseable, Mutable {
+    static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
+    private static final int BINARY_HEADER_SIZE = BINARY_SIGNATURE.length + 2 * Integer.BYTES;
+    private static final int BINARY_OIDS_FLAG = 1 << 16;
+    private static final long INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final Log LOG = LogFactory.getLog(PGCopyIn.class);
+    private static final String WRITER_LOCK_REASON = "pgCopy";
+    private final ObjList<TypeAdapter> adapters = new ObjList<>();
+    private final IntList columnIndexes = new IntList();
+    private final IntList columnTypes = new IntList();
+    private final CairoEngine engine;
+    private final DirectUtf8String field = new DirectUtf8String();
+    // pairs of [lo, hi) addresses, lo is 0 for NULL values
+    private final LongList fields = new LongList();
+    private final long maxRowSize;
+    private final Utf8StringSink nullValue = new Utf8StringSink();
+    private final TypeManager typeManager;
+    private final DirectUtf16Sink utf16Sink;
+    private final DirectUtf8Sink utf8Sink;
+    private boolean active;
+    private boolean binaryHeaderRead;
+    private long buffer;
+    private long bufferCapacity;
+    private long bufferSize;
+    private byte delimiter;
+    private boolean endOfData;
+    private byte escape;
+    private byte format;
+    private long lineNumber;
+    private long maxUncommittedRows;
+    private boolean ownsWriter;
+    private byte quote;
+    private long rowCount;
+    private boolean skipHeader;
+    private CharSequence sqlText;
+    private int timestampFieldIndex;
+    private TableWriterAPI writer;
+
+    public PGCopyIn(CairoEngine engine, long maxRowSize) {
+        this.engine = engine;
+        this.maxRowSize = maxRowSize;
+        final int sinkSize = engine.getConfiguration().getTextConfiguration().getUtf8SinkSize();
+        this.utf16Sink = new DirectUtf16Sink(sinkSize);
+        this.utf8Sink = new DirectUtf8Sink(sinkSize);
+        this.typeManager = new TypeManager(engine.getConfiguration().getTextConfiguration(), utf16Sink, utf8Sink);
+    }
+
+    @Override
+    public void clear() {
+        if (writer != null) {
+            if (ownsWriter) {
+                // the writer is not shared with the transaction, discard uncommitted rows
+                writer.rollback();
+                Misc.free(writer);
+            }
+            writer = null;
+        }
+        buffer = Unsafe.free(buffer, bufferCapacity, MemoryTag.NATIVE_PGW_CONN);
+        bufferCapacity = 0;
+        bufferSize = 0;
+        adapters.clear();
+        columnIndexes.clear();
+        columnTypes.clear();
+        fields.clear();
+        nullValue.clear();
+        typeManager.clear();
+        active = false;
+        binaryHeaderRead = false;
+        endOfData = false;
+        lineNumber = 0;
+        rowCount = 0;
+        skipHeader = false;
+        sqlText = null;
+        timestampFieldIndex = -1;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(utf16Sink);
+        Misc.free(utf8Sink);
+    }
+
+    /**
+     * Processes the remainder of the data stream and commits the rows, unless the copy is
+     * part of an explicit transaction.
+     *
+     * @return number of rows copied
+     */
+    public long done() {
+        if (bufferSize > 0 && !endOfData) {
+            final long consumed = parse(buffer, buffer + bufferSize, true) - buffer;
+            if (consumed < bufferSize && !endOfData) {
+                throw CairoException.nonCritical().put("unexpected end of COPY data [line=").put(lineNumber + 1).put(']');
+            }
+        }
+        if (ownsWriter) {
+            writer.commit();
+        }
+        final long n = rowCount;
+        LOG.info().$("copy complete [table=").$(writer.getTableToken()).$(", rows=").$(n).I$();
+        clear();
+        return n;
+    }
+
+    public CharSequence getSqlText() {
+        return sqlText;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Starts the copy. When the method throws, the caller is expected to call {@link #clear()}
+     * to release the writer.
+     *
+     * @param statement      parsed COPY FROM STDIN statement
+     * @param writerSource   source of table writers, it is aware of pending writers of the transaction
+     * @param pendingWriters writers of the explicit transaction, null outside an explicit transaction
+     */
+    public void of(
+            PGCopyStatement statement,
+            SecurityContext securityContext,
+            WriterSource writerSource,
+            @Nullable ObjObjHashMap<TableToken, TableWriterAPI> pendingWriters
+    ) {
+        clear();
+        final CharSequence tableName = statement.getTableName();
+        final TableToken tableToken = engine.getTableTokenIfExists(tableName);
+        if (tableToken == null) {
+            throw CairoException.tableDoesNotExist(tableName);
+        }
+        if (tableToken.isMatView()) {
+            throw CairoException.nonCritical().put("cannot modify materialized view [view=").put(tableToken.getTableName()).put(']');
+        }
+        securityContext.authorizeInsert(tableToken);
+
+        writer = writerSource.getTableWriterAPI(tableToken, WRITER_LOCK_REASON);
+        if (pendingWriters != null) {
+            pendingWriters.put(tableToken, writer);
+            ownsWriter = false;
+            maxUncommittedRows = Long.MAX_VALUE;
+        } else {
+            ownsWriter = true;
+            maxUncommittedRows = Math.max(1, TableUtils.getMaxUncommittedRows(writer.getMetadata(), engine));
+        }
+
+        format = statement.getFormat();
+        delimiter = statement.getDelimiter();
+        quote = statement.getQuote();
+        escape = statement.getEscape();
+        skipHeader = statement.isHeader();
+        nullValue.put(statement.getNullValue());
+        sqlText = statement.getSqlText();
+
+        final TableRecordMetadata metadata = writer.getMetadata();
+        final ObjList<CharSequence> columnNames = statement.getColumnNames();
+        if (columnNames.size() == 0) {
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                if (metadata.getColumnType(i) > 0) {
+                    addColumn(metadata, i);
+                }
+            }
+        } else {
+            for (int i = 0, n = columnNames.size(); i < n; i++) {
+                final CharSequence columnName = columnNames.getQuick(i);
+                final int columnIndex = metadata.getColumnIndexQuiet(columnName);
+                if (columnIndex < 0) {
+                    throw CairoException.nonCritical().put("column does not exist [table=").put(tableToken.getTableName())
+                            .put(", column=").put(columnName).put(']');
+                }
+                if (columnIndexes.contains(columnIndex)) {
+                    throw CairoException.nonCritical().put("column specified more than once [column=").put(columnName).put(']');
+                }
+                addColumn(metadata, columnIndex);
+            }
+        }
+        if (metadata.getTimestampIndex() > -1 && timestampFieldIndex == -1) {
+            throw CairoException.nonCritical().put("designated timestamp column must be copied [column=")
+                    .put(metadata.getColumnName(metadata.getTimestampIndex())).put(']');
+        }
+        active = true;
+    }
+
+    /**
+     * Consumes the payload of a CopyData message.
+     */
+    public void onData(long lo, long hi) {
+        if (endOfData) {
+            // data after the end-of-data marker is ignored
+            return;
+        }
+        if (bufferSize == 0) {
+            // common case, there is no partial row left from the previous message,
+            // the rows are parsed straight from the receive buffer
+            final long p = parse(lo, hi, false);
+            if (p < hi) {
+                checkRowSize(hi - p);
+                append(p, hi);
+            }
+        } else {
+            append(lo, hi);
+            final long consumed = parse(buffer, buffer + bufferSize, false) - buffer;
+            bufferSize -= consumed;
+            // the partial row is at most maxRowSize bytes, so the buffer never
+            // grows beyond maxRowSize plus the size of a single message
+            checkRowSize(bufferSize);
+            if (bufferSize > 0 && consumed > 0) {
+                Vect.memmove(buffer, buffer + consumed, bufferSize);
+            }
+        }
+    }
+
+    public void outCopyInResponse(PGResponseSink sink) {
+        final int columnCount = columnIndexes.size();
+        final short columnFormat = format == FORMAT_BINARY ? (short) 1 : 0;
+        sink.put(MESSAGE_TYPE_COPY_IN_RESPONSE);
+        final long addr = sink.skipInt();
+        sink.put((byte) columnFormat);
+        sink.putNetworkShort((short) columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            sink.putNetworkShort(columnFormat);
+        }
+        sink.putLen(addr);
+    }
+
+    private static double getFloating(long lo, int len) {
+        switch (len) {
+            case Float.BYTES:
+                return Float.intBitsToFloat(getIntUnsafe(lo));
+            case Double.BYTES:
+                return Double.longBitsToDouble(getLongUnsafe(lo));
+            default:
+                throw unexpectedBinarySize(len);
+        }
+    }
+
+    private static long getIntegral(long lo, int len) {
+        switch (len) {
+            case Byte.BYTES:
+                return Unsafe.getUnsafe().getByte(lo);
+            case Short.BYTES:
+                return getShortUnsafe(lo);
+            case Integer.BYTES:
+                return getIntUnsafe(lo);
+            case Long.BYTES:
+                return getLongUnsafe(lo);
+            default:
+                throw unexpectedBinarySize(len);
+        }
+    }
+
+    private static long getTimestamp(long lo, int len) {
+        if (len != Long.BYTES) {
+            throw unexpectedBinarySize(len);
+        }
+        return getLongUnsafe(lo) + Numbers.JULIAN_EPOCH_OFFSET_USEC;
+    }
+
+    private static int hexDigit(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        final int c = b | 32;
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    private static boolean parseBoolean(Utf8Sequence value) {
+        // accepts the same spellings as PostgreSQL, e.g. 't', 'true', 'yes', 'on' and '1'
+        if (value.size() > 0) {
+            switch (value.byteAt(0) | 32) {
+                case 't':
+                case 'y':
+                case '1':
+                    return true;
+                case 'f':
+                case 'n':
+                case '0':
+                    return false;
+                case 'o':
+                    if (value.size() > 1) {
+                        return (value.byteAt(1) | 32) == 'n';
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        throw CairoException.nonCritical().put("invalid boolean value");
+    }
+
+    private static CairoException unexpectedBinarySize(int len) {
+        return CairoException.nonCritical().put("unexpected binary value size [size=").put(len).put(']');
+    }
+
+    private void addColumn(TableRecordMetadata metadata, int columnIndex) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.CHAR:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+            case ColumnType.SYMBOL:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                adapters.add(null);
+                break;
+            case ColumnType.BINARY:
+                if (format != FORMAT_BINARY) {
+                    throw CairoException.nonCritical().put("BINARY columns can only be copied in binary format [column=")
+                            .put(metadata.getColumnName(columnIndex)).put(']');
+                }
+                adapters.add(null);
+                break;
+            default:
+                adapters.add(typeManager.getTypeAdapter(columnType));
+                break;
+        }
+        if (columnIndex == metadata.getTimestampIndex()) {
+            timestampFieldIndex = columnIndexes.size();
+        }
+        columnIndexes.add(columnIndex);
+        columnTypes.add(columnType);
+    }
+
+    private void append(long lo, long hi) {
+        final long len = hi - lo;
+        if (bufferSize + len > bufferCapacity) {
+            final long newCapacity = Math.max(Numbers.ceilPow2(bufferSize + len), INITIAL_BUFFER_SIZE);
+            buffer = Unsafe.realloc(buffer, bufferCapacity, newCapacity, MemoryTag.NATIVE_PGW_CONN);
+            bufferCapacity = newCapacity;
+        }
+        Vect.memcpy(buffer + bufferSize, lo, len);
+        bufferSize += len;
+    }
+
+    private void checkRowSize(long size) {
+        if (size > maxRowSize) {
+            throw CairoException.nonCritical().put("COPY row is too large [line=").put(lineNumber + 1)
+                    .put(", size=").put(size).put(", maxSize=").put(maxRowSize).put(']');
+        }
+    }
+
+    private long findCsvLineEnd(long lo, long hi) {
+        boolean quoted = false;
+        for (long p = lo; p < hi; p++) {
+            final byte b = Unsafe.getUnsafe().getByte(p);
+            if (quoted) {
+                if (b == escape && escape != quote && p + 1 < hi) {
+                    p++;
+                } else if (b == quote) {
+                    quoted = false;
+                }
+            } else if (b == quote) {
+                quoted = true;
+            } else if (b == '\n') {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    private long findTextLineEnd(long lo, long hi) {
+        for (long p = lo; p < hi; p++) {
+            if (Unsafe.getUnsafe().getByte(p) == '\n') {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    private long getRowTimestamp() {
+        final long lo = fields.getQuick(2 * timestampFieldIndex);
+        if (lo == 0) {
+            throw CairoException.nonCritical().put("designated timestamp column cannot be NULL [line=").put(lineNumber).put(']');
+        }
+        final long hi = fields.getQuick(2 * timestampFieldIndex + 1);
+        try {
+            if (format == FORMAT_BINARY) {
+                return getTimestamp(lo, (int) (hi - lo));
+            }
+            return SqlUtil.implicitCastStrAsTimestamp(toUtf16(field.of(lo, hi)));
+        } catch (Throwable th) {
+            throw inconvertibleValue(timestampFieldIndex, th);
+        }
+    }
+
+    private CairoException inconvertibleValue(int fieldIndex, Throwable th) {
+        if (th instanceof CairoException && ((CairoException) th).isCritical()) {
+            return (CairoException) th;
+        }
+        final int columnType = columnTypes.getQuick(fieldIndex);
+        final CairoException e = CairoException.nonCritical().put("inconvertible value [line=").put(lineNumber)
+                .put(", column=").put(writer.getMetadata().getColumnName(columnIndexes.getQuick(fieldIndex)))
+                .put(", type=").put(ColumnType.nameOf(columnType));
+        if (th instanceof FlyweightMessageContainer) {
+            e.put(", error=").put(((FlyweightMessageContainer) th).getFlyweightMessage());
+        }
+        return e.put(']');
+    }
+
+    private boolean isNullValue(long lo, long hi) {
+        final int size = nullValue.size();
+        if (hi - lo < size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (Unsafe.getUnsafe().getByte(lo + i) != nullValue.byteAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void onLine(long lo, long hi) {
+        lineNumber++;
+        if (skipHeader) {
+            skipHeader = false;
+            return;
+        }
+        // end-of-data marker sent by older clients
+        if (hi - lo == 2 && Unsafe.getUnsafe().getByte(lo) == '\\' && Unsafe.getUnsafe().getByte(lo + 1) == '.') {
+            endOfData = true;
+            return;
+        }
+        fields.clear();
+        if (format == FORMAT_CSV) {
+            splitCsv(lo, hi);
+        } else {
+            splitText(lo, hi);
+        }
+        writeRow();
+    }
+
+    private long parse(long lo, long hi, boolean eof) {
+        if (format == FORMAT_BINARY) {
+            return parseBinary(lo, hi);
+        }
+        long p = lo;
+        while (p < hi) {
+            long lineEnd = format == FORMAT_CSV ? findCsvLineEnd(p, hi) : findTextLineEnd(p, hi);
+            if (lineEnd == -1) {
+                if (!eof) {
+                    break;
+                }
+                lineEnd = hi;
+            }
+            long lineHi = lineEnd;
+            if (lineHi > p && Unsafe.getUnsafe().getByte(lineHi - 1) == '\r') {
+                lineHi--;
+            }
+            onLine(p, lineHi);
+            if (endOfData) {
+                return hi;
+            }
+            p = Math.min(lineEnd + 1, hi);
+        }
+        return p;
+    }
+
+    private long parseBinary(long lo, long hi) {
+        long p = lo;
+        if (!binaryHeaderRead) {
+            if (hi - p < BINARY_HEADER_SIZE) {
+                return p;
+            }
+            for (int i = 0, n = BINARY_SIGNATURE.length; i < n; i++) {
+                if (Unsafe.getUnsafe().getByte(p + i) != BINARY_SIGNATURE[i]) {
+                    throw CairoException.nonCritical().put("COPY file signature not recognized");
+                }
+            }
+            final int flags = getIntUnsafe(p + BINARY_SIGNATURE.length);
+            if ((flags & BINARY_OIDS_FLAG) != 0) {
+                throw CairoException.nonCritical().put("COPY with OIDs is not supported");
+            }
+            final int extensionSize = getIntUnsafe(p + BINARY_SIGNATURE.length + Integer.BYTES);
+            if (extensionSize < 0) {
+                throw CairoException.nonCritical().put("invalid COPY file header (wrong length)");
+            }
+            if (BINARY_HEADER_SIZE + (long) extensionSize > maxRowSize) {
+                throw CairoException.nonCritical().put("COPY file header extension is too large [size=").put(extensionSize)
+                        .put(", maxSize=").put(maxRowSize - BINARY_HEADER_SIZE).put(']');
+            }
+            if (hi - p < BINARY_HEADER_SIZE + extensionSize) {
+                return p;
+            }
+            p += BINARY_HEADER_SIZE + extensionSize;
+            binaryHeaderRead = true;
+        }
+
+        while (hi - p >= Short.BYTES) {
+            final short fieldCount = getShortUnsafe(p);
+            if (fieldCount == -1) {
+                // trailer
+                endOfData = true;
+                return hi;
+            }
+            long q = p + Short.BYTES;
+            fields.clear();
+            for (int i = 0; i < fieldCount; i++) {
+                if (hi - q < Integer.BYTES) {
+                    return p;
+                }
+                final int len = getIntUnsafe(q);
+                q += Integer.BYTES;
+                if (len == -1) {
+                    fields.add(0, 0);
+                } else if (len < 0) {
+                    throw CairoException.nonCritical().put("invalid field size [line=").put(lineNumber + 1).put(", size=").put(len).put(']');
+                } else {
+                    if (hi - q < len) {
+                        return p;
+                    }
+                    fields.add(q, q + len);
+                    q += len;
+                }
+            }
+            lineNumber++;
+            writeRow();
+            p = q;
+        }
+        return p;
+    }
+
+    private void putBinaryValue(TableWriter.Row row, int columnIndex, int columnType, TypeAdapter adapter, long lo, long hi) throws Exception {
+        final int len = (int) (hi - lo);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                if (len != Byte.BYTES) {
+                    throw unexpectedBinarySize(len);
+                }
+                row.putBool(columnIndex, Unsafe.getUnsafe().getByte(lo) != 0);
+                break;
+            case ColumnType.BYTE:
+                row.putByte(columnIndex, (byte) getIntegral(lo, len));
+                break;
+            case ColumnType.SHORT:
+                row.putShort(columnIndex, (short) getIntegral(lo, len));
+                break;
+            case ColumnType.INT:
+                row.putInt(columnIndex, (int) getIntegral(lo, len));
+                break;
+            case ColumnType.LONG:
+                row.putLong(columnIndex, getIntegral(lo, len));
+                break;
+            case ColumnType.FLOAT:
+                row.putFloat(columnIndex, (float) getFloating(lo, len));
+                break;
+            case ColumnType.DOUBLE:
+                row.putDouble(columnIndex, getFloating(lo, len));
+                break;
+            case ColumnType.DATE:
+                if (len == Integer.BYTES) {
+                    // PostgreSQL date, days since 2000-01-01
+                    row.putDate(columnIndex, Dates.addDays(Numbers.JULIAN_EPOCH_OFFSET_MILLIS, getIntUnsafe(lo)));
+                } else {
+                    row.putDate(columnIndex, getTimestamp(lo, len) / 1000);
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                row.putTimestamp(columnIndex, getTimestamp(lo, len));
+                break;
+            case ColumnType.UUID:
+                if (len != 2 * Long.BYTES) {
+                    throw unexpectedBinarySize(len);
+                }
+                row.putLong128(columnIndex, getLongUnsafe(lo + Long.BYTES), getLongUnsafe(lo));
+                break;
+            case ColumnType.BINARY:
+                row.putBin(columnIndex, lo, len);
+                break;
+            default:
+                // the rest of the types are sent to clients as text, and that is how they come back
+                putTextValue(row, columnIndex, columnType, adapter, lo, hi);
+                break;
+        }
+    }
+
+    private void putTextValue(TableWriter.Row row, int columnIndex, int columnType, TypeAdapter adapter, long lo, long hi) throws Exception {
+        field.of(lo, hi);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                row.putBool(columnIndex, parseBoolean(field));
+                break;
+            case ColumnType.CHAR:
+                row.putChar(columnIndex, toUtf16(field).length() > 0 ? utf16Sink.charAt(0) : 0);
+                break;
+            case ColumnType.STRING:
+                row.putStr(columnIndex, toUtf16(field));
+                break;
+            case ColumnType.VARCHAR:
+                row.putVarchar(columnIndex, field);
+                break;
+            case ColumnType.SYMBOL:
+                row.putSymUtf8(columnIndex, field);
+                break;
+            case ColumnType.DATE:
+                row.putDate(columnIndex, SqlUtil.implicitCastStrAsDate(toUtf16(field)));
+                break;
+            case ColumnType.TIMESTAMP:
+                row.putTimestamp(columnIndex, SqlUtil.implicitCastStrAsTimestamp(toUtf16(field)));
+                break;
+            default:
+                adapter.write(row, columnIndex, field, utf16Sink, utf8Sink);
+                break;
+        }
+    }
+
+    private void splitCsv(long lo, long hi) {
+        long p = lo;
+        long w = lo;
+        while (true) {
+            final long fieldLo = w;
+            boolean quoted = false;
+            boolean inQuotes = false;
+            while (p < hi) {
+                final byte b = Unsafe.getUnsafe().getByte(p);
+                if (inQuotes) {
+                    if (b == escape && p + 1 < hi) {
+                        final byte next = Unsafe.getUnsafe().getByte(p + 1);
+                        if (next == quote || next == escape) {
+                            Unsafe.getUnsafe().putByte(w++, next);
+                            p += 2;
+                            continue;
+                        }
+                    }
+                    if (b == quote) {
+                        inQuotes = false;
+                    } else {
+                        Unsafe.getUnsafe().putByte(w++, b);
+                    }
+                } else if (b == delimiter) {
+                    break;
+                } else if (b == quote) {
+                    inQuotes = quoted = true;
+                } else {
+                    Unsafe.getUnsafe().putByte(w++, b);
+                }
+                p++;
+            }
+            // quoted values are never NULL, e.g. "" is an empty string
+            if (!quoted && w - fieldLo == nullValue.size() && isNullValue(fieldLo, w)) {
+                fields.add(0, 0);
+            } else {
+                fields.add(fieldLo, w);
+            }
+            if (p >= hi) {
+                break;
+            }
+            p++;
+        }
+    }
+
+    private void splitText(long lo, long hi) {
+        final int nullSize = nullValue.size();
+        long p = lo;
+        long w = lo;
+        while (true) {
+            // NULL marker is matched against the raw, not yet unescaped, bytes
+            if (isNullValue(p, hi) && (p + nullSize == hi || Unsafe.getUnsafe().getByte(p + nullSize) == delimiter)) {
+                fields.add(0, 0);
+                p += nullSize;
+            } else {
+                final long fieldLo = w;
+                while (p < hi) {
+                    byte b = Unsafe.getUnsafe().getByte(p++);
+                    if (b == delimiter) {
+                        p--;
+                        break;
+                    }
+                    if (b == '\\' && p < hi) {
+                        b = Unsafe.getUnsafe().getByte(p++);
+                        switch (b) {
+                            case 'b':
+                                b = '\b';
+                                break;
+                            case 'f':
+                                b = '\f';
+                                break;
+                            case 'n':
+                                b = '\n';
+                                break;
+                            case 'r':
+                                b = '\r';
+                                break;
+                            case 't':
+                                b = '\t';
+                                break;
+                            case 'v':
+                                b = 11;
+                                break;
+                            case 'x': {
+                                int value = 0;
+                                int digits = 0;
+                                int d;
+                                while (digits < 2 && p < hi && (d = hexDigit(Unsafe.getUnsafe().getByte(p))) > -1) {
+                                    value = value * 16 + d;
+                                    digits++;
+                                    p++;
+                                }
+                                if (digits > 0) {
+                                    b = (byte) value;
+                                }
+                                break;
+                            }
+                            default:
+                                if (b >= '0' && b <= '7') {
+                                    int value = b - '0';
+                                    for (int digits = 1; digits < 3 && p < hi; digits++) {
+                                        final byte d = Unsafe.getUnsafe().getByte(p);
+                                        if (d < '0' || d > '7') {
+                                            break;
+                                        }
+                                        value = value * 8 + d - '0';
+                                        p++;
+                                    }
+                                    b = (byte) value;
+                                }
+                                break;
+                        }
+                    }
+                    Unsafe.getUnsafe().putByte(w++, b);
+                }
+                fields.add(fieldLo, w);
+            }
+            if (p >= hi) {
+                break;
+            }
+            p++;
+        }
+    }
+
+    private DirectUtf16Sink toUtf16(DirectUtf8String value) throws Utf8Exception {
+        utf16Sink.clear();
+        if (!Utf8s.utf8ToUtf16(value.lo(), value.hi(), utf16Sink)) {
+            throw Utf8Exception.INSTANCE;
+        }
+        return utf16Sink;
+    }
+
+    private void writeRow() {
+        final int columnCount = columnIndexes.size();
+        final int fieldCount = fields.size() / 2;
+        if (fieldCount != columnCount) {
+            throw CairoException.nonCritical()
+                    .put(fieldCount < columnCount ? "missing data for columns" : "extra data after last expected column")
+                    .put(" [line=").put(lineNumber)
+                    .put(", expected=").put(columnCount)
+                    .put(", actual=").put(fieldCount)
+                    .put(']');
+        }
+
+        final TableWriter.Row row = timestampFieldIndex > -1 ? writer.newRow(getRowTimestamp()) : writer.newRow();
+        final boolean binary = format == FORMAT_BINARY;
+        int i = 0;
+        try {
+            for (; i < columnCount; i++) {
+                final long lo = fields.getQuick(2 * i);
+                if (lo == 0 || i == timestampFieldIndex) {
+                    continue;
+                }
+                final long hi = fields.getQuick(2 * i + 1);
+                if (binary) {
+                    putBinaryValue(row, columnIndexes.getQuick(i), columnTypes.getQuick(i), adapters.getQuick(i), lo, hi);
+                } else {
+                    putTextValue(row, columnIndexes.getQuick(i), columnTypes.getQuick(i), adapters.getQuick(i), lo, hi);
+                }
+            }
+        } catch (Throwable th) {
+            row.cancel();
+            throw inconvertibleValue(i, th);
+        }
+        row.append();
+
+        rowCount++;
+        if (writer.getUncommittedRowCount() >= maxUncommittedRows) {
+            writer.commit();
+        }
+    }
+
+}
@@ -0,0 +1,451 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.pgwire.modern;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.arr.ArrayTypeDriver;
+import io.questdb.cairo.arr.ArrayView;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cutlass.pgwire.PGResponseSink;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.IntList;
+import io.questdb.std.Interval;
+import io.questdb.std.Long256;
+import io.questdb.std.Mutable;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Uuid;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.millitime.DateFormatUtils;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8StringSink;
+
+import static io.questdb.cutlass.pgwire.modern.PGConnectionContextModern.*;
+import static io.questdb.cutlass.pgwire.modern.PGCopyStatement.*;
+import static io.questdb.std.datetime.millitime.DateFormatUtils.PG_DATE_MILLI_TIME_Z_PRINT_FORMAT;
+
+/**
+ * Writes the result set of COPY TO STDOUT as CopyData messages, one message per row.
+ * <p>
+ * Text and CSV rows are formatted straight into the send buffer. Values are escaped or quoted
+ * in place, after they have been written, so that only the values that need it pay for it.
+ * A tuple of the binary format has the same layout as the body of a DataRow message, so binary
+ * rows are written by {@link PGPipelineEntry}, this class only provides the framing around them.
+ */
+public class PGCopyOut implements Mutable {
+    private final Utf8StringSink nullValue = new Utf8StringSink();
+    private byte delimiter;
+    private byte escape;
+    private byte format;
+    private boolean header;
+    private byte quote;
+
+    @Override
+    public void clear() {
+        nullValue.clear();
+        delimiter = 0;
+        escape = 0;
+        format = FORMAT_TEXT;
+        header = false;
+        quote = 0;
+    }
+
+    public boolean isBinary() {
+        return format == FORMAT_BINARY;
+    }
+
+    public void of(PGCopyStatement statement) {
+        clear();
+        format = statement.getFormat();
+        delimiter = statement.getDelimiter();
+        quote = statement.getQuote();
+        escape = statement.getEscape();
+        header = statement.isHeader();
+        nullValue.put(statement.getNullValue());
+    }
+
+    /**
+     * Writes the end of the copy data: the trailer of the binary format and the CopyDone message.
+     */
+    public void outCopyDone(PGResponseSink sink) {
+        if (format == FORMAT_BINARY) {
+            sink.put(MESSAGE_TYPE_COPY_DATA);
+            final long addr = sink.skipInt();
+            sink.putNetworkShort((short) -1);
+            sink.putLen(addr);
+        }
+        sink.put(MESSAGE_TYPE_COPY_DONE);
+        sink.putIntDirect(INT_BYTES_X);
+    }
+
+    /**
+     * Writes the CopyOutResponse message followed by the header of the binary format
+     * or the header row of the text formats, when one was requested.
+     */
+    public void outCopyOutResponse(PGResponseSink sink, ObjList<String> columnNames) {
+        final int columnCount = columnNames.size();
+        final short columnFormat = format == FORMAT_BINARY ? (short) 1 : 0;
+        sink.put(MESSAGE_TYPE_COPY_OUT_RESPONSE);
+        long addr = sink.skipInt();
+        sink.put((byte) columnFormat);
+        sink.putNetworkShort((short) columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            sink.putNetworkShort(columnFormat);
+        }
+        sink.putLen(addr);
+
+        if (format == FORMAT_BINARY) {
+            sink.put(MESSAGE_TYPE_COPY_DATA);
+            addr = sink.skipInt();
+            for (int i = 0, n = PGCopyIn.BINARY_SIGNATURE.length; i < n; i++) {
+                sink.put(PGCopyIn.BINARY_SIGNATURE[i]);
+            }
+            // flags and header extension length
+            sink.putNetworkInt(0);
+            sink.putNetworkInt(0);
+            sink.putLen(addr);
+        } else if (header) {
+            sink.put(MESSAGE_TYPE_COPY_DATA);
+            addr = sink.skipInt();
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    sink.put(delimiter);
+                }
+                final long lo = sink.getSendBufferPtr();
+                sink.put(columnNames.getQuick(i));
+                escapeValue(sink, lo);
+            }
+            sink.put((byte) '\n');
+            sink.putLen(addr);
+        }
+    }
+
+    /**
+     * Writes a row of the text or CSV format as a single CopyData message.
+     *
+     * @param columnTypes pairs of column type and geohash bit flags, as kept by the pipeline entry
+     */
+    public void putRecord(PGResponseSink sink, Record record, IntList columnTypes, int columnCount) {
+        sink.put(MESSAGE_TYPE_COPY_DATA);
+        final long addr = sink.skipInt();
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                sink.put(delimiter);
+            }
+            final long lo = sink.getSendBufferPtr();
+            if (putValue(sink, record, i, columnTypes.getQuick(2 * i), columnTypes.getQuick(2 * i + 1))) {
+                escapeValue(sink, lo);
+            } else {
+                sink.put(nullValue);
+            }
+        }
+        sink.put((byte) '\n');
+        sink.putLen(addr);
+    }
+
+    private static byte getTextEscape(byte b) {
+        switch (b) {
+            case '\b':
+                return 'b';
+            case '\f':
+                return 'f';
+            case '\n':
+                return 'n';
+            case '\r':
+                return 'r';
+            case '\t':
+                return 't';
+            case 0x0b:
+                return 'v';
+            default:
+                return b;
+        }
+    }
+
+    private static boolean putGeoHashValue(PGResponseSink sink, long value, int bitFlags) {
+        if (value == GeoHashes.NULL) {
+            return false;
+        }
+        if (bitFlags < 0) {
+            GeoHashes.appendCharsUnsafe(value, -bitFlags, sink);
+        } else {
+            GeoHashes.appendBinaryStringUnsafe(value, bitFlags, sink);
+        }
+        return true;
+    }
+
+    // CSV values are quoted when they contain the delimiter, the quote or a line break, or could be taken for NULL
+    private void escapeCsv(PGResponseSink sink, long lo, long hi) {
+        boolean quoted = isNullValue(lo, hi);
+        int extra = 2;
+        for (long p = lo; p < hi; p++) {
+            final byte b = Unsafe.getUnsafe().getByte(p);
+            if (b == quote || b == escape) {
+                quoted = true;
+                extra++;
+            } else if (b == delimiter || b == '\n' || b == '\r') {
+                quoted = true;
+            }
+        }
+        if (!quoted) {
+            return;
+        }
+        sink.checkCapacity(extra);
+        sink.bump(extra);
+        // expand the value towards the end of the buffer, so that nothing is overwritten before it is read
+        long dst = hi + extra;
+        Unsafe.getUnsafe().putByte(--dst, quote);
+        for (long p = hi - 1; p >= lo; p--) {
+            final byte b = Unsafe.getUnsafe().getByte(p);
+            Unsafe.getUnsafe().putByte(--dst, b);
+            if (b == quote || b == escape) {
+                Unsafe.getUnsafe().putByte(--dst, escape);
+            }
+        }
+        Unsafe.getUnsafe().putByte(--dst, quote);
+        assert dst == lo;
+    }
+
+    private void escapeText(PGResponseSink sink, long lo, long hi) {
+        int extra = 0;
+        for (long p = lo; p < hi; p++) {
+            if (isTextSpecial(Unsafe.getUnsafe().getByte(p))) {
+                extra++;
+            }
+        }
+        if (extra == 0) {
+            return;
+        }
+        sink.checkCapacity(extra);
+        sink.bump(extra);
+        long dst = hi + extra;
+        for (long p = hi - 1; p >= lo; p--) {
+            final byte b = Unsafe.getUnsafe().getByte(p);
+            if (isTextSpecial(b)) {
+                Unsafe.getUnsafe().putByte(--dst, getTextEscape(b));
+                Unsafe.getUnsafe().putByte(--dst, (byte) '\\');
+            } else {
+                Unsafe.getUnsafe().putByte(--dst, b);
+            }
+        }
+        assert dst == lo;
+    }
+
+    // escapes the value written to the send buffer at [lo, current position)
+    private void escapeValue(PGResponseSink sink, long lo) {
+        final long hi = sink.getSendBufferPtr();
+        if (format == FORMAT_CSV) {
+            escapeCsv(sink, lo, hi);
+        } else {
+            escapeText(sink, lo, hi);
+        }
+    }
+
+    private boolean isNullValue(long lo, long hi) {
+        final int size = nullValue.size();
+        if (hi - lo != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (Unsafe.getUnsafe().getByte(lo + i) != nullValue.byteAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isTextSpecial(byte b) {
+        return b == '\\' || b == delimiter || (b >= '\b' && b <= '\r');
+    }
+
+    // writes the value in the text form, returns false when the value is NULL
+    private boolean putValue(PGResponseSink sink, Record record, int columnIndex, int columnType, int geoHashBitFlags) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                sink.put(record.getBool(columnIndex) ? 't' : 'f');
+                return true;
+            case ColumnType.BYTE:
+                sink.put((int) record.getByte(columnIndex));
+                return true;
+            case ColumnType.SHORT:
+                sink.put(record.getShort(columnIndex));
+                return true;
+            case ColumnType.CHAR: {
+                final char value = record.getChar(columnIndex);
+                if (value == 0) {
+                    return false;
+                }
+                sink.put(value);
+                return true;
+            }
+            case ColumnType.INT: {
+                final int value = record.getInt(columnIndex);
+                if (value == Numbers.INT_NULL) {
+                    return false;
+                }
+                sink.put(value);
+                return true;
+            }
+            case ColumnType.LONG: {
+                final long value = record.getLong(columnIndex);
+                if (value == Numbers.LONG_NULL) {
+                    return false;
+                }
+                sink.put(value);
+                return true;
+            }
+            case ColumnType.DATE: {
+                final long value = record.getDate(columnIndex);
+                if (value == Numbers.LONG_NULL) {
+                    return false;
+                }
+                PG_DATE_MILLI_TIME_Z_PRINT_FORMAT.format(value, DateFormatUtils.EN_LOCALE, null, sink);
+                return true;
+            }
+            case ColumnType.TIMESTAMP: {
+                final long value = record.getTimestamp(columnIndex);
+                if (value == Numbers.LONG_NULL) {
+                    return false;
+                }
+                TimestampFormatUtils.PG_TIMESTAMP_FORMAT.format(value, DateFormatUtils.EN_LOCALE, null, sink);
+                return true;
+            }
+            case ColumnType.FLOAT: {
+                final float value = record.getFloat(columnIndex);
+                if (Float.isNaN(value)) {
+                    return false;
+                }
+                sink.put(value);
+                return true;
+            }
+            case ColumnType.DOUBLE: {
+                final double value = record.getDouble(columnIndex);
+                if (Double.isNaN(value)) {
+                    return false;
+                }
+                sink.put(value);
+                return true;
+            }
+            case ColumnType.STRING:
+            case ColumnType.ARRAY_STRING: {
+                final CharSequence value = record.getStrA(columnIndex);
+                if (value == null) {
+                    return false;
+                }
+                sink.put(value);
+                return true;
+            }
+            case ColumnType.SYMBOL: {
+                final CharSequence value = record.getSymA(columnIndex);
+                if (value == null) {
+                    return false;
+                }
+                sink.put(value);
+                return true;
+            }
+            case ColumnType.VARCHAR: {
+                final Utf8Sequence value = record.getVarcharA(columnIndex);
+                if (value == null) {
+                    return false;
+                }
+                sink.put(value);
+                return true;
+            }
+            case ColumnType.LONG256: {
+                final Long256 value = record.getLong256A(columnIndex);
+                if (value.getLong0() == Numbers.LONG_NULL
+                        && value.getLong1() == Numbers.LONG_NULL
+                        && value.getLong2() == Numbers.LONG_NULL
+                        && value.getLong3() == Numbers.LONG_NULL) {
+                    return false;
+                }
+                Numbers.appendLong256(value, sink);
+                return true;
+            }
+            case ColumnType.GEOBYTE:
+                return putGeoHashValue(sink, record.getGeoByte(columnIndex), geoHashBitFlags);
+            case ColumnType.GEOSHORT:
+                return putGeoHashValue(sink, record.getGeoShort(columnIndex), geoHashBitFlags);
+            case ColumnType.GEOINT:
+                return putGeoHashValue(sink, record.getGeoInt(columnIndex), geoHashBitFlags);
+            case ColumnType.GEOLONG:
+                return putGeoHashValue(sink, record.getGeoLong(columnIndex), geoHashBitFlags);
+            case ColumnType.BINARY: {
+                final BinarySequence value = record.getBin(columnIndex);
+                if (value == null) {
+                    return false;
+                }
+                // bytea hex format
+                sink.putAscii('\\').putAscii('x');
+                for (long i = 0, n = value.length(); i < n; i++) {
+                    final int b = value.byteAt(i) & 0xff;
+                    sink.putAscii(Numbers.hexDigits[b >> 4]).putAscii(Numbers.hexDigits[b & 0xf]);
+                }
+                return true;
+            }
+            case ColumnType.UUID: {
+                final long lo = record.getLong128Lo(columnIndex);
+                final long hi = record.getLong128Hi(columnIndex);
+                if (Uuid.isNull(lo, hi)) {
+                    return false;
+                }
+                Numbers.appendUuid(lo, hi, sink);
+                return true;
+            }
+            case ColumnType.IPv4: {
+                final int value = record.getIPv4(columnIndex);
+                if (value == Numbers.IPv4_NULL) {
+                    return false;
+                }
+                Numbers.intToIPv4Sink(sink, value);
+                return true;
+            }
+            case ColumnType.INTERVAL: {
+                final Interval value = record.getInterval(columnIndex);
+                if (Interval.NULL.equals(value)) {
+                    return false;
+                }
+                value.toSink(sink);
+                return true;
+            }
+            case ColumnType.ARRAY: {
+                final ArrayView value = record.getArray(columnIndex, columnType);
+                // zero dimension array indicates NULL
+                if (value.getDimCount() == 0) {
+                    return false;
+                }
+                ArrayTypeDriver.arrayToPgWire(value, sink);
+                return true;
+            }
+            case ColumnType.NULL:
+                return false;
+            default:
+                throw CairoException.nonCritical().put("COPY TO STDOUT does not support column type [type=").put(ColumnType.nameOf(columnType)).put(']');
+        }
+    }
+}
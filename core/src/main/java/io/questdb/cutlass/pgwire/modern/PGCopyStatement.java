@@ -0,0 +1,433 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.pgwire.modern;
+
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlUtil;
+import io.questdb.std.Chars;
+import io.questdb.std.GenericLexer;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8StringSink;
+
+import static io.questdb.griffin.SqlKeywords.*;
+
+/**
+ * Parser for the PostgreSQL flavour of <code>COPY table [(columns)] FROM STDIN [options]</code>,
+ * <code>COPY table [(columns)] TO STDOUT [options]</code> and <code>COPY (query) TO STDOUT [options]</code>.
+ * <p>
+ * The statement is handled by the PG Wire connection rather than the SQL compiler, because the
+ * data that follows it travels in CopyData messages. Both the current option list syntax,
+ * e.g. <code>WITH (FORMAT csv, HEADER true)</code>, and the pre-9.0 syntax, e.g.
+ * <code>WITH CSV HEADER</code>, used by older drivers and pgx are supported.
+ */
+public class PGCopyStatement implements Mutable {
+    public static final byte FORMAT_BINARY = 2;
+    public static final byte FORMAT_CSV = 1;
+    public static final byte FORMAT_TEXT = 0;
+    private final ObjList<CharSequence> columnNames = new ObjList<>();
+    private final StringSink escapedValue = new StringSink();
+    private final GenericLexer lexer = new GenericLexer(64);
+    private final Utf8StringSink nullValue = new Utf8StringSink();
+    private final StringSink queryText = new StringSink();
+    private boolean copyOut;
+    private byte delimiter;
+    private byte escape;
+    private byte format;
+    private boolean header;
+    private boolean nullValueSet;
+    private byte quote;
+    private CharSequence sqlText;
+    private CharSequence tableName;
+
+    public PGCopyStatement() {
+        lexer.defineSymbol("(");
+        lexer.defineSymbol(")");
+        lexer.defineSymbol(",");
+        lexer.defineSymbol(";");
+    }
+
+    @Override
+    public void clear() {
+        columnNames.clear();
+        nullValue.clear();
+        nullValueSet = false;
+        queryText.clear();
+        copyOut = false;
+        delimiter = 0;
+        escape = 0;
+        quote = 0;
+        format = FORMAT_TEXT;
+        header = false;
+        sqlText = null;
+        tableName = null;
+    }
+
+    public ObjList<CharSequence> getColumnNames() {
+        return columnNames;
+    }
+
+    public byte getDelimiter() {
+        return delimiter;
+    }
+
+    public byte getEscape() {
+        return escape;
+    }
+
+    public byte getFormat() {
+        return format;
+    }
+
+    public Utf8Sequence getNullValue() {
+        return nullValue;
+    }
+
+    /**
+     * Returns the query, which produces the rows of COPY TO STDOUT. For the table form
+     * of the statement the query is a select of the listed columns.
+     */
+    public CharSequence getQueryText() {
+        return queryText;
+    }
+
+    public byte getQuote() {
+        return quote;
+    }
+
+    public CharSequence getSqlText() {
+        return sqlText;
+    }
+
+    public CharSequence getTableName() {
+        return tableName;
+    }
+
+    public boolean isCopyOut() {
+        return copyOut;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    /**
+     * Parses the SQL text as a COPY FROM STDIN or COPY TO STDOUT statement.
+     *
+     * @param sql the SQL text
+     * @return false when the text is not a COPY FROM STDIN or COPY TO STDOUT statement and should be passed to the SQL compiler
+     * @throws SqlException when the text is a COPY FROM STDIN or COPY TO STDOUT statement, but it is malformed
+     */
+    public boolean of(CharSequence sql) throws SqlException {
+        clear();
+        lexer.of(sql);
+
+        CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok == null || !isCopyKeyword(tok)) {
+            return false;
+        }
+
+        tok = SqlUtil.fetchNext(lexer);
+        if (tok != null && isOnlyKeyword(tok)) {
+            tok = SqlUtil.fetchNext(lexer);
+        }
+        if (tok == null || (isSymbol(tok) && !Chars.equals(tok, '('))) {
+            return false;
+        }
+
+        final CharSequence tableName;
+        if (Chars.equals(tok, '(')) {
+            // "copy (select ...) to stdout", the query text is everything between the outer parentheses
+            tableName = null;
+            final int queryLo = lexer.getPosition();
+            tok = expectToken("query");
+            // statements other than queries can run at compile time, they must not reach the compiler
+            if (!isSelectKeyword(tok) && !isWithKeyword(tok) && !Chars.equals(tok, '(')) {
+                throw SqlException.$(lexer.lastTokenPosition(), "COPY query must be a SELECT");
+            }
+            lexer.unparseLast();
+            int depth = 1;
+            do {
+                tok = expectToken("')'");
+                if (Chars.equals(tok, '(')) {
+                    depth++;
+                } else if (Chars.equals(tok, ')')) {
+                    depth--;
+                }
+            } while (depth > 0);
+            queryText.put(sql, queryLo, lexer.lastTokenPosition());
+            tok = SqlUtil.fetchNext(lexer);
+            if (tok == null || !isToKeyword(tok)) {
+                throw SqlException.$(tok == null ? lexer.getPosition() : lexer.lastTokenPosition(), "'to' expected");
+            }
+        } else {
+            tableName = Chars.toString(GenericLexer.unquote(tok));
+            tok = SqlUtil.fetchNext(lexer);
+            if (tok != null && Chars.equals(tok, '(')) {
+                do {
+                    tok = expectToken("column name");
+                    if (isSymbol(tok)) {
+                        throw SqlException.$(lexer.lastTokenPosition(), "column name expected");
+                    }
+                    columnNames.add(Chars.toString(GenericLexer.unquote(tok)));
+                    tok = expectToken("',' or ')'");
+                } while (Chars.equals(tok, ','));
+                if (!Chars.equals(tok, ')')) {
+                    throw SqlException.$(lexer.lastTokenPosition(), "',' or ')' expected");
+                }
+                tok = SqlUtil.fetchNext(lexer);
+            }
+            if (tok == null || !(isFromKeyword(tok) || isToKeyword(tok))) {
+                clear();
+                return false;
+            }
+        }
+
+        copyOut = isToKeyword(tok);
+        tok = SqlUtil.fetchNext(lexer);
+        if (tok == null || !Chars.equalsLowerCaseAscii(tok, copyOut ? "stdout" : "stdin")) {
+            // file import or export, this is what COPY means in QuestDB SQL
+            clear();
+            return false;
+        }
+
+        if (copyOut && tableName != null) {
+            queryText.putAscii("select ");
+            if (columnNames.size() == 0) {
+                queryText.putAscii('*');
+            }
+            for (int i = 0, n = columnNames.size(); i < n; i++) {
+                if (i > 0) {
+                    queryText.putAscii(',');
+                }
+                queryText.putAscii('"').put(columnNames.getQuick(i)).putAscii('"');
+            }
+            queryText.putAscii(" from \"").put(tableName).putAscii('"');
+        }
+
+        this.sqlText = sql;
+        this.tableName = tableName;
+
+        tok = SqlUtil.fetchNext(lexer);
+        if (tok != null && isWithKeyword(tok)) {
+            tok = expectToken("copy option");
+        }
+        if (tok != null && Chars.equals(tok, '(')) {
+            parseOptionList();
+            tok = SqlUtil.fetchNext(lexer);
+        } else {
+            while (tok != null && !Chars.equals(tok, ';')) {
+                parseLegacyOption(tok);
+                tok = SqlUtil.fetchNext(lexer);
+            }
+        }
+        if (tok != null && !Chars.equals(tok, ';')) {
+            throw SqlException.$(lexer.lastTokenPosition(), "unexpected token [token=").put(tok).put(']');
+        }
+        if (tok != null && SqlUtil.fetchNext(lexer) != null) {
+            throw SqlException.$(lexer.lastTokenPosition(), copyOut ? "COPY TO STDOUT" : "COPY FROM STDIN").put(" must be the only statement in the query");
+        }
+
+        if (format == FORMAT_BINARY) {
+            if (delimiter != 0 || nullValueSet || header || quote != 0 || escape != 0) {
+                throw SqlException.$(0, "cannot specify DELIMITER, NULL, HEADER, QUOTE or ESCAPE in BINARY mode");
+            }
+        } else {
+            if (delimiter == 0) {
+                delimiter = format == FORMAT_CSV ? (byte) ',' : (byte) '\t';
+            }
+            if (!nullValueSet && format == FORMAT_TEXT) {
+                nullValue.putAscii("\\N");
+            }
+            if (format == FORMAT_CSV) {
+                if (quote == 0) {
+                    quote = '"';
+                }
+                if (escape == 0) {
+                    escape = quote;
+                }
+            } else if (quote != 0 || escape != 0) {
+                throw SqlException.$(0, "QUOTE and ESCAPE are available only in CSV mode");
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSymbol(CharSequence tok) {
+        return tok.length() == 1 && (tok.charAt(0) == '(' || tok.charAt(0) == ')' || tok.charAt(0) == ',' || tok.charAt(0) == ';');
+    }
+
+    private CharSequence expectToken(String expected) throws SqlException {
+        final CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok == null) {
+            throw SqlException.$(lexer.getPosition(), expected).put(" expected");
+        }
+        return tok;
+    }
+
+    private byte parseCharValue(CharSequence option) throws SqlException {
+        final int position = lexer.lastTokenPosition();
+        final CharSequence value = parseStringValue(expectToken("single character"));
+        if (value.length() != 1 || value.charAt(0) > 127) {
+            throw SqlException.$(position, option).put(" must be a single one-byte character");
+        }
+        return (byte) value.charAt(0);
+    }
+
+    private boolean parseHeaderValue() throws SqlException {
+        final CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok == null || isSymbol(tok)) {
+            if (tok != null) {
+                lexer.unparseLast();
+            }
+            return true;
+        }
+        if (isTrueKeyword(tok) || isOnKeyword(tok) || Chars.equals(tok, '1') || Chars.equalsLowerCaseAscii(tok, "match")) {
+            return true;
+        }
+        if (isFalseKeyword(tok) || Chars.equalsLowerCaseAscii(tok, "off") || Chars.equals(tok, '0')) {
+            return false;
+        }
+        throw SqlException.$(lexer.lastTokenPosition(), "HEADER requires a Boolean value or \"match\"");
+    }
+
+    private void parseLegacyOption(CharSequence tok) throws SqlException {
+        if (Chars.equalsLowerCaseAscii(tok, "binary")) {
+            format = FORMAT_BINARY;
+        } else if (Chars.equalsLowerCaseAscii(tok, "csv")) {
+            format = FORMAT_CSV;
+        } else if (isHeaderKeyword(tok)) {
+            header = true;
+        } else if (isDelimiterKeyword(tok)) {
+            skipAs();
+            delimiter = parseCharValue("COPY delimiter");
+        } else if (isNullKeyword(tok)) {
+            skipAs();
+            parseNullValue();
+        } else if (Chars.equalsLowerCaseAscii(tok, "quote")) {
+            skipAs();
+            quote = parseCharValue("COPY quote");
+        } else if (Chars.equalsLowerCaseAscii(tok, "escape")) {
+            skipAs();
+            escape = parseCharValue("COPY escape");
+        } else {
+            throw SqlException.$(lexer.lastTokenPosition(), "unsupported COPY option [option=").put(tok).put(']');
+        }
+    }
+
+    private void parseNullValue() throws SqlException {
+        nullValue.clear();
+        nullValue.put(parseStringValue(expectToken("null string")));
+        nullValueSet = true;
+    }
+
+    private void parseOptionList() throws SqlException {
+        CharSequence tok;
+        do {
+            tok = expectToken("copy option");
+            if (isFormatKeyword(tok)) {
+                tok = expectToken("'text', 'csv' or 'binary'");
+                final CharSequence value = GenericLexer.unquote(tok);
+                if (isTextKeyword(value)) {
+                    format = FORMAT_TEXT;
+                } else if (Chars.equalsLowerCaseAscii(value, "csv")) {
+                    format = FORMAT_CSV;
+                } else if (Chars.equalsLowerCaseAscii(value, "binary")) {
+                    format = FORMAT_BINARY;
+                } else {
+                    throw SqlException.$(lexer.lastTokenPosition(), "COPY format not recognized [format=").put(value).put(']');
+                }
+            } else if (isHeaderKeyword(tok)) {
+                header = parseHeaderValue();
+            } else if (isDelimiterKeyword(tok)) {
+                delimiter = parseCharValue("COPY delimiter");
+            } else if (isNullKeyword(tok)) {
+                parseNullValue();
+            } else if (Chars.equalsLowerCaseAscii(tok, "quote")) {
+                quote = parseCharValue("COPY quote");
+            } else if (Chars.equalsLowerCaseAscii(tok, "escape")) {
+                escape = parseCharValue("COPY escape");
+            } else {
+                throw SqlException.$(lexer.lastTokenPosition(), "unsupported COPY option [option=").put(tok).put(']');
+            }
+            tok = expectToken("',' or ')'");
+        } while (Chars.equals(tok, ','));
+        if (!Chars.equals(tok, ')')) {
+            throw SqlException.$(lexer.lastTokenPosition(), "',' or ')' expected");
+        }
+    }
+
+    // supports plain 'x' and escape E'\t' string constants
+    private CharSequence parseStringValue(CharSequence tok) throws SqlException {
+        final boolean escapeString = tok.length() > 2 && (tok.charAt(0) | 32) == 'e' && tok.charAt(1) == '\'';
+        if (escapeString) {
+            tok = tok.subSequence(1, tok.length());
+        }
+        if (!Chars.isQuoted(tok)) {
+            throw SqlException.$(lexer.lastTokenPosition(), "string constant expected");
+        }
+        final CharSequence value = GenericLexer.unquote(tok);
+        if (!escapeString || Chars.indexOf(value, '\\') == -1) {
+            return value;
+        }
+        escapedValue.clear();
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < n) {
+                c = value.charAt(++i);
+                switch (c) {
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    default:
+                        break;
+                }
+            }
+            escapedValue.put(c);
+        }
+        return escapedValue;
+    }
+
+    private void skipAs() throws SqlException {
+        final CharSequence tok = expectToken("value");
+        if (!isAsKeyword(tok)) {
+            lexer.unparseLast();
+        }
+    }
+}
@@ -156,6 +156,8 @@ public class PGPipelineEntry implements QuietCloseable, Mutable {
     boolean isCopy;
     private boolean cacheHit = false;    // extended protocol cursor resume callback
     private CompiledQueryImpl compiledQuery;
+    // set when the result set is sent via the COPY TO STDOUT sub-protocol
+    private PGCopyOut copyOut;
     private RecordCursor cursor;
     private boolean empty;
     private boolean error = false;
@@ -297,6 +299,7 @@ public class PGPipelineEntry implements QuietCloseable, Mutable {
         namedPortals.clear();
         isCopy = false;
         cacheHit = false;
+        copyOut = null;
         cursor = Misc.free(cursor);
         error = false;
         empty = false;
@@ -774,7 +777,9 @@ public class PGPipelineEntry implements QuietCloseable, Mutable {
                             // fall through
                         case SYNC_DESC_ROW_DESCRIPTION:
                             // portal
-                            if (factory != null) {
+                            if (copyOut != null) {
+                                outCopyOutResponse(utf8Sink);
+                            } else if (factory != null) {
                                 outRowDescription(utf8Sink);
                             } else {
                                 outNoData(utf8Sink);
@@ -816,6 +821,7 @@ public class PGPipelineEntry implements QuietCloseable, Mutable {
                                 }
                                 case CompiledQuery.UPDATE:
                                 case CompiledQuery.CREATE_TABLE_AS_SELECT:
+                                case CompiledQuery.COPY_REMOTE:
                                     outCommandComplete(utf8Sink, sqlAffectedRowCount);
                                     stateSync = SYNC_DONE;
                                     break;
@@ -845,7 +851,11 @@ public class PGPipelineEntry implements QuietCloseable, Mutable {
             switch (stateSync) {
                 case SYNC_DATA_EXHAUSTED:
                     cursor = Misc.free(cursor);
-                    outCommandComplete(utf8Sink, sqlReturnRowCount);
+                    if (copyOut != null) {
+                        outCopyDone(utf8Sink);
+                    } else {
+                        outCommandComplete(utf8Sink, sqlReturnRowCount);
+                    }
                     break;
                 case SYNC_DATA_SUSPENDED:
                     outPortalSuspended(utf8Sink);
@@ -892,6 +902,26 @@ public class PGPipelineEntry implements QuietCloseable, Mutable {
         this.outParameterTypeDescriptionTypes.addAll(tas.getOutPgParameterTypes());
     }
 
+    // COPY FROM STDIN is executed by the connection, the entry only reports completion to the client
+    public void ofCopy(CharSequence utf16SqlText, long rowCount) {
+        this.sqlText = utf16SqlText;
+        this.sqlType = CompiledQuery.COPY_REMOTE;
+        this.sqlTag = TAG_COPY;
+        this.sqlAffectedRowCount = rowCount;
+        setStateExec(true);
+    }
+
+    // COPY TO STDOUT, the entry is a simple query select, which sends its result set as copy data
+    public void ofCopyOut(PGCopyOut copyOut) {
+        this.copyOut = copyOut;
+        if (copyOut.isBinary()) {
+            // same as a bind message with a single binary result format code
+            msgBindSelectFormatCodes.clear();
+            msgBindSelectFormatCodes.set(0);
+            msgBindSelectFormatCodeCount = 1;
+        }
+    }
+
     public void ofEmpty(CharSequence utf16SqlText) {
         this.sqlText = utf16SqlText;
         this.empty = true;
@@ -2078,6 +2108,25 @@ public class PGPipelineEntry implements QuietCloseable, Mutable {
         }
     }
 
+    // the end of the copy data and the command completion are re-sent together when the send buffer overflows
+    private void outCopyDone(PGResponseSink utf8Sink) {
+        utf8Sink.bookmark();
+        copyOut.outCopyDone(utf8Sink);
+        utf8Sink.put(MESSAGE_TYPE_COMMAND_COMPLETE);
+        final long addr = utf8Sink.skipInt();
+        utf8Sink.put(TAG_COPY).putAscii(' ').put(sqlReturnRowCount).put((byte) 0);
+        utf8Sink.putLen(addr);
+    }
+
+    private void outCopyOutResponse(PGResponseSink utf8Sink) {
+        if (pgResultSetColumnTypes.size() == 0) {
+            copyPgResultSetColumnTypesAndNames();
+        }
+        utf8Sink.bookmark();
+        copyOut.outCopyOutResponse(utf8Sink, pgResultSetColumnNames);
+        utf8Sink.bookmark();
+    }
+
     private void outCursor(SqlExecutionContext sqlExecutionContext, PGResponseSink utf8Sink)
             throws QueryPausedException {
         if (pgResultSetColumnTypes.size() == 0) {
@@ -2110,14 +2159,14 @@ public class PGPipelineEntry implements QuietCloseable, Mutable {
         try {
             final Record record = cursor.getRecord();
             if (outResendCursorRecord) {
-                outRecord(utf8Sink, record, columnCount);
+                outRow(utf8Sink, record, columnCount);
                 recordStartAddress = utf8Sink.getSendBufferPtr();
             }
 
             while (sqlReturnRowCount < sqlReturnRowCountToBeSent && cursor.hasNext()) {
                 outResendCursorRecord = true;
                 outResendRecordHeader = true;
-                outRecord(utf8Sink, record, columnCount);
+                outRow(utf8Sink, record, columnCount);
                 recordStartAddress = utf8Sink.getSendBufferPtr();
             }
         } catch (DataUnavailableException e) {
@@ -2228,7 +2277,8 @@ public class PGPipelineEntry implements QuietCloseable, Mutable {
         long messageLengthAddress = 0;
         // message header can be sent alone if we run out of space on the first column
         if (outResendColumnIndex == 0 && outResendRecordHeader) {
-            utf8Sink.put(MESSAGE_TYPE_DATA_ROW);
+            // binary COPY tuples have the same layout as DataRow, only the message type differs
+            utf8Sink.put(copyOut != null ? MESSAGE_TYPE_COPY_DATA : MESSAGE_TYPE_DATA_ROW);
             messageLengthAddress = utf8Sink.skipInt();
             utf8Sink.putNetworkShort((short) columnCount);
             utf8Sink.bookmark();
@@ -2422,6 +2472,18 @@ public class PGPipelineEntry implements QuietCloseable, Mutable {
         sqlReturnRowCount++;
     }
 
+    private void outRow(PGResponseSink utf8Sink, Record record, int columnCount) throws BadProtocolException {
+        if (copyOut == null || copyOut.isBinary()) {
+            outRecord(utf8Sink, record, columnCount);
+        } else {
+            // text rows are written whole, an incomplete row is discarded when the send buffer overflows
+            copyOut.putRecord(utf8Sink, record, pgResultSetColumnTypes, columnCount);
+            utf8Sink.bookmark();
+            outResendCursorRecord = false;
+            sqlReturnRowCount++;
+        }
+    }
+
     private void outRowDescription(PGResponseSink utf8Sink) {
         if (pgResultSetColumnTypes.size() == 0) {
             copyPgResultSetColumnTypesAndNames();
@@ -2770,6 +2832,9 @@ public class PGPipelineEntry implements QuietCloseable, Mutable {
             case CompiledQuery.SET:
                 sqlTag = TAG_SET;
                 break;
+            case CompiledQuery.COPY_REMOTE:
+                sqlTag = TAG_COPY;
+                break;
             case CompiledQuery.DEALLOCATE:
                 utf8StringSink.clear();
                 utf8StringSink.put(cq.getStatementName());
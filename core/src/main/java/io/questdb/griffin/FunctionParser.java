@@ -154,6 +154,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
     private final PostOrderTreeTraversalAlgo traverseAlgo = new PostOrderTreeTraversalAlgo();
     private final IntList undefinedVariables = new IntList();
     private RecordMetadata metadata;
+    private boolean nonDeterministicFunctionParsed;
     private SqlCodeGenerator sqlCodeGenerator;
     private SqlExecutionContext sqlExecutionContext;
 
@@ -294,6 +295,14 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         return functionFactoryCache;
     }
 
+    /**
+     * Returns true when a non-deterministic function or a bind variable was parsed
+     * since the last {@link #resetNonDeterministicFunctionParsed()} call.
+     */
+    public boolean isNonDeterministicFunctionParsed() {
+        return nonDeterministicFunctionParsed;
+    }
+
     /**
      * Creates function instance. When node type is {@link ExpressionNode#LITERAL} a column or parameter
      * function is returned. We will be using the supplied {@link #metadata} to resolve type of column. When node token
@@ -394,6 +403,10 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         }
     }
 
+    public void resetNonDeterministicFunctionParsed() {
+        nonDeterministicFunctionParsed = false;
+    }
+
     public void setSqlCodeGenerator(SqlCodeGenerator sqlCodeGenerator) {
         this.sqlCodeGenerator = sqlCodeGenerator;
     }
@@ -635,9 +648,12 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
                     .I$();
             Misc.freeObjList(args);
             throw SqlException.position(position).put("bad function factory (NULL), check log");
-        } else if (!sqlExecutionContext.allowNonDeterministicFunctions() && function.isNonDeterministic()) {
-            Misc.freeObjList(args);
-            throw SqlException.nonDeterministicColumn(node.position, node.token);
+        } else if (function.isNonDeterministic()) {
+            if (!sqlExecutionContext.allowNonDeterministicFunctions()) {
+                Misc.freeObjList(args);
+                throw SqlException.nonDeterministicColumn(node.position, node.token);
+            }
+            nonDeterministicFunctionParsed = true;
         }
         if (args != null) {
             args.clear(); // To enforce that args are not used after this point
@@ -1126,6 +1142,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
     }
 
     private Function createIndexParameter(int variableIndex, int position) throws SqlException {
+        nonDeterministicFunctionParsed = true;
         Function function = getBindVariableService().getFunction(variableIndex);
         if (function == null) {
             // bind variable is undefined
@@ -1135,6 +1152,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
     }
 
     private Function createNamedParameter(int position, CharSequence name) throws SqlException {
+        nonDeterministicFunctionParsed = true;
         Function function = getBindVariableService().getFunction(name);
         if (function == null) {
             throw SqlException.position(position).put("undefined bind variable: ").put(name);
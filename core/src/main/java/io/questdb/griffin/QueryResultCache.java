@@ -0,0 +1,274 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.Record;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.CharSequenceObjHashMap;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A concurrent cache of materialized SELECT results. Results are keyed by query text and
+ * stored along with the transaction and metadata versions of the tables they were read from.
+ * A result is served only as long as none of these tables was committed to or altered, so
+ * stale entries are dropped on lookup. When the memory limit is exceeded, the least recently
+ * used entries are evicted. Entries that are being read are freed once the last reader
+ * releases them.
+ */
+public class QueryResultCache implements QuietCloseable, Mutable {
+    private static final Log LOG = LogFactory.getLog(QueryResultCache.class);
+    private final CairoConfiguration configuration;
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    // most recently used entry
+    private Entry head;
+    private long memoryUsed;
+    // least recently used entry
+    private Entry tail;
+
+    public QueryResultCache(CairoConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Returns cached result of the query or null when there is no result, or it was produced
+     * for different table versions. Returned entry must be released via {@link #release(Entry)}.
+     *
+     * @param query         query text
+     * @param tableVersions current versions of the tables used by the query
+     * @return acquired entry or null
+     */
+    public synchronized Entry acquire(@Transient @NotNull CharSequence query, @Transient @NotNull LongList tableVersions) {
+        final Entry entry = entries.get(query);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.tableVersions.equals(tableVersions)) {
+            LOG.debug().$("stale result [query=").$safe(query).I$();
+            remove(entry);
+            return null;
+        }
+        unlink(entry);
+        linkFirst(entry);
+        entry.refCount++;
+        return entry;
+    }
+
+    @Override
+    public synchronized void clear() {
+        while (tail != null) {
+            remove(tail);
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public long getMemoryLimit() {
+        return configuration.getSqlResultCacheMemoryLimit();
+    }
+
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Stores materialized result of the query, replacing the existing one, if any. The cache
+     * takes ownership of the chain, which is freed straight away when it does not fit the
+     * memory limit.
+     *
+     * @param query         query text
+     * @param tableVersions versions of the tables the result was read from
+     * @param chain         materialized result
+     * @param rowCount      number of rows in the chain
+     * @return true when the result was cached
+     */
+    public synchronized boolean put(
+            @NotNull String query,
+            @Transient @NotNull LongList tableVersions,
+            @NotNull Chain chain,
+            long rowCount
+    ) {
+        final long memoryLimit = getMemoryLimit();
+        final long size = chain.getHeapSize();
+        if (size > memoryLimit) {
+            Misc.free(chain);
+            return false;
+        }
+
+        final Entry existing = entries.get(query);
+        if (existing != null) {
+            remove(existing);
+        }
+        while (memoryUsed + size > memoryLimit && tail != null) {
+            remove(tail);
+        }
+
+        final Entry entry = new Entry(query, tableVersions, chain, rowCount, size);
+        entries.put(query, entry);
+        linkFirst(entry);
+        memoryUsed += size;
+        return true;
+    }
+
+    public synchronized void release(@Nullable Entry entry) {
+        if (entry != null && --entry.refCount == 0 && entry.evicted) {
+            Misc.free(entry.chain);
+        }
+    }
+
+    private void linkFirst(Entry entry) {
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        } else {
+            tail = entry;
+        }
+        head = entry;
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.query);
+        unlink(entry);
+        memoryUsed -= entry.size;
+        entry.evicted = true;
+        if (entry.refCount == 0) {
+            Misc.free(entry.chain);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            head = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        } else {
+            tail = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    /**
+     * Record chain that stores symbols as strings, so that cached results do not depend
+     * on symbol tables of the cursor they were copied from.
+     */
+    public static class Chain extends RecordChain {
+
+        public Chain(@Transient @NotNull ColumnTypes columnTypes, @NotNull RecordSink recordSink, long pageSize, int maxPages) {
+            super(columnTypes, recordSink, pageSize, maxPages);
+        }
+
+        public long getHeapSize() {
+            return mem.size();
+        }
+
+        /**
+         * Returns offset of the record that follows the given one, or -1 when
+         * the given record is the last one.
+         */
+        public long getNextRecordOffset(long recordOffset) {
+            return mem.getLong(recordOffset);
+        }
+
+        @Override
+        protected RecordChainRecord newChainRecord() {
+            return new ChainRecord(columnCount);
+        }
+
+        private class ChainRecord extends RecordChainRecord {
+
+            public ChainRecord(int columnCount) {
+                super(columnCount);
+            }
+
+            @Override
+            public CharSequence getSymA(int col) {
+                return getStrA(col);
+            }
+
+            @Override
+            public CharSequence getSymB(int col) {
+                return getStrB(col);
+            }
+        }
+    }
+
+    public static class Entry {
+        private final Chain chain;
+        private final String query;
+        private final long rowCount;
+        private final long size;
+        private final LongList tableVersions;
+        private boolean evicted;
+        private Entry next;
+        private Entry prev;
+        private int refCount;
+
+        private Entry(String query, LongList tableVersions, Chain chain, long rowCount, long size) {
+            this.query = query;
+            this.tableVersions = new LongList(tableVersions);
+            this.chain = chain;
+            this.rowCount = rowCount;
+            this.size = size;
+        }
+
+        public Chain getChain() {
+            return chain;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Creates a record to read the result. Records are not shared between
+         * readers, since the same entry may be read by several threads at once.
+         */
+        public Record newRecord() {
+            return chain.newRecord();
+        }
+    }
+}
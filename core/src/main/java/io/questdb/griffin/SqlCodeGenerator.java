@@ -70,6 +70,7 @@ import io.questdb.griffin.engine.ExplainPlanFactory;
 import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.griffin.engine.LimitRecordCursorFactory;
 import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.functions.CompiledDoubleProjectionFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.SymbolFunction;
 import io.questdb.griffin.engine.functions.cast.CastByteToCharFunctionFactory;
@@ -136,6 +137,7 @@ import io.questdb.griffin.engine.functions.constants.StrConstant;
 import io.questdb.griffin.engine.functions.constants.SymbolConstant;
 import io.questdb.griffin.engine.functions.constants.TimestampConstant;
 import io.questdb.griffin.engine.functions.date.TimestampFloorFunctionFactory;
+import io.questdb.griffin.engine.functions.window.BasePartitionedWindowFunction;
 import io.questdb.griffin.engine.groupby.CountRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.DistinctRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.DistinctTimeSeriesRecordCursorFactory;
@@ -190,6 +192,8 @@ import io.questdb.griffin.engine.join.AsOfJoinLightNoKeyRecordCursorFactory;
 import io.questdb.griffin.engine.join.AsOfJoinLightRecordCursorFactory;
 import io.questdb.griffin.engine.join.AsOfJoinNoKeyFastRecordCursorFactory;
 import io.questdb.griffin.engine.join.AsOfJoinRecordCursorFactory;
+import io.questdb.griffin.engine.join.AsyncAsOfJoinRecordCursorFactory;
+import io.questdb.griffin.engine.join.AsyncHashJoinLightRecordCursorFactory;
 import io.questdb.griffin.engine.join.ChainedSymbolShortCircuit;
 import io.questdb.griffin.engine.join.CrossJoinRecordCursorFactory;
 import io.questdb.griffin.engine.join.DisabledSymbolShortCircuit;
@@ -214,6 +218,8 @@ import io.questdb.griffin.engine.join.SingleSymbolSymbolShortCircuit;
 import io.questdb.griffin.engine.join.SingleVarcharSymbolShortCircuit;
 import io.questdb.griffin.engine.join.SpliceJoinLightRecordCursorFactory;
 import io.questdb.griffin.engine.join.SymbolShortCircuit;
+import io.questdb.griffin.engine.orderby.AsyncLongSortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.AsyncLongTopKRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.LongSortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.LongTopKRecordCursorFactory;
@@ -224,6 +230,7 @@ import io.questdb.griffin.engine.table.AsyncFilteredRecordCursorFactory;
 import io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory;
 import io.questdb.griffin.engine.table.AsyncGroupByRecordCursorFactory;
 import io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory;
+import io.questdb.griffin.engine.table.DataSkippingFilter;
 import io.questdb.griffin.engine.table.DeferredSingleSymbolFilterPageFrameRecordCursorFactory;
 import io.questdb.griffin.engine.table.DeferredSymbolIndexFilteredRowCursorFactory;
 import io.questdb.griffin.engine.table.DeferredSymbolIndexRowCursorFactory;
@@ -273,6 +280,7 @@ import io.questdb.griffin.model.RuntimeIntrinsicIntervalModel;
 import io.questdb.griffin.model.WindowColumn;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.jit.CompiledFilterIRSerializer;
+import io.questdb.jit.CompiledProjection;
 import io.questdb.jit.JitUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -289,6 +297,7 @@ import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.Numbers;
+import io.questdb.std.NumericException;
 import io.questdb.std.ObjList;
 import io.questdb.std.ObjObjHashMap;
 import io.questdb.std.ObjectPool;
@@ -383,12 +392,14 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final CairoConfiguration configuration;
     private final ObjList<TableColumnMetadata> deferredWindowMetadata = new ObjList<>();
     private final boolean enableJitDebug;
+    private final boolean enableJitProjections;
     private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
     private final ObjectPool<ExpressionNode> expressionNodePool;
     private final boolean fastAsOfJoins;
     private final FunctionParser functionParser;
     private final IntList groupByFunctionPositions = new IntList();
     private final ObjObjHashMap<IntList, ObjList<WindowFunction>> groupedWindow = new ObjObjHashMap<>();
+    private final ObjObjHashMap<IntList, IntList> groupedWindowColumns = new ObjObjHashMap<>();
     private final IntHashSet intHashSet = new IntHashSet();
     private final ObjectPool<IntList> intListPool = new ObjectPool<>(IntList::new, 4);
     private final MemoryCARW jitIRMem;
@@ -400,6 +411,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final LongList prefixes = new LongList();
     private final RecordComparatorCompiler recordComparatorCompiler;
     private final IntList recordFunctionPositions = new IntList();
+    // tables read by the generated queries, used to validate cached query results
+    private final ObjList<TableToken> queriedTables = new ObjList<>();
     private final PageFrameReduceTaskFactory reduceTaskFactory;
     private final ArrayDeque<ExpressionNode> sqlNodeStack = new ArrayDeque<>();
     private final WhereClauseSymbolEstimator symbolEstimator = new WhereClauseSymbolEstimator();
@@ -421,6 +434,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final BitSet writeSymbolAsString = new BitSet();
     private boolean enableJitNullChecks = true;
     private boolean fullFatJoins = false;
+    // set when a generated query reads from a cursor function rather than a table,
+    // or its rows cannot be copied to the result cache as is
+    private boolean resultCacheBypassed;
 
     public SqlCodeGenerator(
             CairoConfiguration configuration,
@@ -432,6 +448,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             this.functionParser = functionParser;
             this.recordComparatorCompiler = new RecordComparatorCompiler(asm);
             this.enableJitDebug = configuration.isSqlJitDebugEnabled();
+            this.enableJitProjections = configuration.isSqlJitProjectionEnabled();
             this.jitIRMem = Vm.getCARWInstance(
                     configuration.getSqlJitIRMemoryPageSize(),
                     configuration.getSqlJitIRMemoryMaxPages(),
@@ -589,10 +606,28 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return listColumnFilterA;
     }
 
+    public ObjList<TableToken> getQueriedTables() {
+        return queriedTables;
+    }
+
     public RecordComparatorCompiler getRecordComparatorCompiler() {
         return recordComparatorCompiler;
     }
 
+    /**
+     * Returns true when the result of the queries generated since the last {@link #resetQueriedTables()}
+     * call depends only on the data of the queried tables, so it can be cached until these tables change.
+     */
+    public boolean isResultCacheable() {
+        return queriedTables.size() > 0 && !resultCacheBypassed && !functionParser.isNonDeterministicFunctionParsed();
+    }
+
+    public void resetQueriedTables() {
+        queriedTables.clear();
+        resultCacheBypassed = false;
+        functionParser.resetNonDeterministicFunctionParsed();
+    }
+
     public IntList toOrderIndices(RecordMetadata m, ObjList<ExpressionNode> orderBy, IntList orderByDirection) throws SqlException {
         final IntList indices = intListPool.next();
         for (int i = 0, n = orderBy.size(); i < n; i++) {
@@ -773,11 +808,84 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return perThreadKeyFunctions;
     }
 
+    private static void freeWorkerWindowFunctions(@Nullable ObjList<ObjList<WindowFunction>> workerWindowFunctions) {
+        if (workerWindowFunctions != null) {
+            for (int i = 0, n = workerWindowFunctions.size(); i < n; i++) {
+                Misc.freeObjList(workerWindowFunctions.getQuick(i));
+                workerWindowFunctions.setQuick(i, null);
+            }
+        }
+    }
+
     private static int getOrderByDirectionOrDefault(QueryModel model, int index) {
         final IntList direction = model.getOrderByDirectionAdvice();
         return index >= direction.size() ? ORDER_DIRECTION_ASCENDING : direction.getQuick(index);
     }
 
+    /**
+     * Checks if the expression is an arithmetic expression that can be JIT-compiled as a DOUBLE projection.
+     * All arithmetic has to be done on doubles, so that the compiled code matches the Java functions,
+     * so each operation must have a DOUBLE column in at least one of its operands.
+     *
+     * @return -1 if the expression is not supported, 1 if it references a DOUBLE column, 0 otherwise
+     */
+    private static int isJitProjectionSupported(ExpressionNode node, RecordMetadata metadata, IntList columnIndexes) {
+        switch (node.type) {
+            case LITERAL: {
+                final int columnIndex = metadata.getColumnIndexQuiet(node.token);
+                if (columnIndex == -1) {
+                    return -1;
+                }
+                switch (ColumnType.tagOf(metadata.getColumnType(columnIndex))) {
+                    case ColumnType.INT:
+                    case ColumnType.LONG:
+                    case ColumnType.FLOAT:
+                        if (!columnIndexes.contains(columnIndex)) {
+                            columnIndexes.add(columnIndex);
+                        }
+                        return 0;
+                    case ColumnType.DOUBLE:
+                        if (!columnIndexes.contains(columnIndex)) {
+                            columnIndexes.add(columnIndex);
+                        }
+                        return 1;
+                    default:
+                        return -1;
+                }
+            }
+            case CONSTANT:
+                try {
+                    Numbers.parseDouble(node.token);
+                    return 0;
+                } catch (NumericException e) {
+                    return -1;
+                }
+            case OPERATION: {
+                if (node.paramCount == 1 && Chars.equals(node.token, '-')) {
+                    final ExpressionNode arg = node.lhs != null ? node.lhs : node.rhs;
+                    return isJitProjectionSupported(arg, metadata, columnIndexes) == 1 ? 1 : -1;
+                }
+                if (
+                        node.paramCount != 2
+                                || !(Chars.equals(node.token, '+') || Chars.equals(node.token, '-') || Chars.equals(node.token, '*') || Chars.equals(node.token, '/'))
+                ) {
+                    return -1;
+                }
+                final int lhs = isJitProjectionSupported(node.lhs, metadata, columnIndexes);
+                if (lhs == -1) {
+                    return -1;
+                }
+                final int rhs = isJitProjectionSupported(node.rhs, metadata, columnIndexes);
+                if (rhs == -1) {
+                    return -1;
+                }
+                return lhs == 1 || rhs == 1 ? 1 : -1;
+            }
+            default:
+                return -1;
+        }
+    }
+
     private static boolean isSingleColumnFunction(ExpressionNode ast, CharSequence name) {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equalsIgnoreCase(ast.token, name) && ast.rhs.type == LITERAL;
     }
@@ -822,6 +930,51 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return toleranceInterval;
     }
 
+    /**
+     * Distributes window functions of an ordered group between partition buckets. Returns null
+     * when the group has to be evaluated serially, i.e. when some of the functions can't be
+     * copied or the functions don't share the same partition key.
+     */
+    private static @Nullable ObjList<ObjList<WindowFunction>> toWindowFunctionBuckets(
+            ObjList<QueryColumn> columns,
+            IntList groupColumns,
+            ObjList<WindowFunction> groupFunctions,
+            ObjList<ObjList<WindowFunction>> workerWindowFunctions
+    ) {
+        final ObjList<ExpressionNode> partitionBy = ((WindowColumn) columns.getQuick(groupColumns.getQuick(0))).getPartitionBy();
+        for (int i = 0, n = groupColumns.size(); i < n; i++) {
+            final int columnIndex = groupColumns.getQuick(i);
+            if (workerWindowFunctions.getQuiet(columnIndex) == null) {
+                return null;
+            }
+            final ObjList<ExpressionNode> columnPartitionBy = ((WindowColumn) columns.getQuick(columnIndex)).getPartitionBy();
+            if (columnPartitionBy.size() != partitionBy.size()) {
+                return null;
+            }
+            for (int j = 0, m = partitionBy.size(); j < m; j++) {
+                if (!ExpressionNode.compareNodesExact(partitionBy.getQuick(j), columnPartitionBy.getQuick(j))) {
+                    return null;
+                }
+            }
+        }
+
+        final int copyCount = workerWindowFunctions.getQuick(groupColumns.getQuick(0)).size();
+        final ObjList<ObjList<WindowFunction>> buckets = new ObjList<>(copyCount + 1);
+        buckets.add(groupFunctions);
+        for (int b = 0; b < copyCount; b++) {
+            final ObjList<WindowFunction> bucket = new ObjList<>(groupColumns.size());
+            for (int i = 0, n = groupColumns.size(); i < n; i++) {
+                bucket.add(workerWindowFunctions.getQuick(groupColumns.getQuick(i)).getQuick(b));
+            }
+            buckets.add(bucket);
+        }
+        // the copies are owned by the buckets from now on
+        for (int i = 0, n = groupColumns.size(); i < n; i++) {
+            workerWindowFunctions.setQuick(groupColumns.getQuick(i), null);
+        }
+        return buckets;
+    }
+
     private static RecordMetadata widenSetMetadata(RecordMetadata typesA, RecordMetadata typesB) {
         int columnCount = typesA.getColumnCount();
         assert columnCount == typesB.getColumnCount();
@@ -1017,6 +1170,52 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return null;
     }
 
+    private Function compileProjectionConditionally(
+            SqlExecutionContext executionContext,
+            ExpressionNode node,
+            Function function,
+            RecordMetadata baseMetadata
+    ) {
+        if (
+                executionContext.getJitMode() == SqlJitMode.JIT_MODE_DISABLED
+                        || !JitUtil.isProjectionSupported()
+                        || node.type != OPERATION
+                        || function.isConstant()
+                        || function.isRuntimeConstant()
+        ) {
+            return function;
+        }
+        final IntList columnIndexes = new IntList();
+        if (isJitProjectionSupported(node, baseMetadata, columnIndexes) != 1) {
+            return function;
+        }
+
+        CompiledProjection compiledProjection = null;
+        try {
+            final boolean forceScalar = executionContext.getJitMode() == SqlJitMode.JIT_MODE_FORCE_SCALAR;
+            jitIRSerializer.of(jitIRMem, executionContext, baseMetadata, null, null);
+            final int jitOptions = jitIRSerializer.serializeProjection(node, forceScalar, enableJitDebug, enableJitNullChecks);
+            compiledProjection = new CompiledProjection();
+            compiledProjection.compile(jitIRMem, jitOptions);
+            return new CompiledDoubleProjectionFunction(
+                    function,
+                    compiledProjection,
+                    columnIndexes,
+                    baseMetadata.getColumnType(columnIndexes.getQuick(0)),
+                    baseMetadata.getColumnCount()
+            );
+        } catch (SqlException e) {
+            Misc.free(compiledProjection);
+            LOG.debug()
+                    .$("JIT cannot be applied to projection [ex=").$safe(e.getFlyweightMessage())
+                    .$(", fd=").$(executionContext.getRequestFd()).$(']').$();
+            return function;
+        } finally {
+            jitIRSerializer.clear();
+            jitIRMem.truncate();
+        }
+    }
+
     private @Nullable ObjList<Function> compileWorkerFilterConditionally(
             SqlExecutionContext executionContext,
             @Nullable Function filter,
@@ -1071,6 +1270,79 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return null;
     }
 
+    /**
+     * Compiles copies of an ordered, partitioned window function, one per partition bucket
+     * except for the first one, which uses the original function.
+     */
+    private ObjList<WindowFunction> compileWorkerWindowFunctions(
+            SqlExecutionContext executionContext,
+            WindowColumn ac,
+            RecordCursorFactory base,
+            GenericRecordMetadata chainMetadata,
+            ArrayColumnTypes chainTypes,
+            IntList order,
+            int columnIndex,
+            int copyCount
+    ) throws SqlException {
+        final ObjList<WindowFunction> copies = new ObjList<>(copyCount);
+        ObjList<Function> partitionByFunctions = null;
+        try {
+            final ExpressionNode ast = ac.getAst();
+            for (int i = 0; i < copyCount; i++) {
+                final int psz = ac.getPartitionBy().size();
+                partitionByFunctions = new ObjList<>(psz);
+                for (int j = 0; j < psz; j++) {
+                    partitionByFunctions.add(functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext));
+                }
+
+                keyTypes.clear();
+                for (int j = 0; j < psz; j++) {
+                    keyTypes.add(partitionByFunctions.getQuick(j).getType());
+                }
+                entityColumnFilter.of(psz);
+                final RecordSink partitionBySink = RecordSinkFactory.getInstance(asm, keyTypes, entityColumnFilter);
+
+                executionContext.configureWindowContext(
+                        new VirtualRecord(partitionByFunctions),
+                        partitionBySink,
+                        keyTypes,
+                        true,
+                        RecordCursorFactory.SCAN_DIRECTION_OTHER,
+                        ac.getOrderBy().getQuick(0).position,
+                        base.recordCursorSupportsRandomAccess(),
+                        ac.getFramingMode(),
+                        ac.getRowsLo(),
+                        ac.getRowsLoKindPos(),
+                        ac.getRowsHi(),
+                        ac.getRowsHiKindPos(),
+                        ac.getExclusionKind(),
+                        ac.getExclusionKindPos(),
+                        chainMetadata.getTimestampIndex(),
+                        ac.isIgnoreNulls(),
+                        ac.getNullsDescPos()
+                );
+                final Function f;
+                try {
+                    f = functionParser.parseFunction(ast, chainMetadata, executionContext);
+                } finally {
+                    executionContext.clearWindowContext();
+                }
+                // the function owns partition by functions from now on
+                partitionByFunctions = null;
+
+                final WindowFunction windowFunction = (WindowFunction) f;
+                copies.add(windowFunction);
+                windowFunction.initRecordComparator(this, chainMetadata, chainTypes, order, null, null);
+                windowFunction.setColumnIndex(columnIndex);
+            }
+            return copies;
+        } catch (Throwable th) {
+            Misc.freeObjList(partitionByFunctions);
+            Misc.freeObjList(copies);
+            throw th;
+        }
+    }
+
     private RecordCursorFactory createAsOfJoin(
             RecordMetadata metadata,
             RecordCursorFactory master,
@@ -1243,7 +1515,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordCursorFactory slave,
             int joinType,
             Function filter,
-            JoinContext context
+            JoinContext context,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -1282,6 +1555,23 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 // For inner join we can also store per-key count to speed up size calculation.
                 valueTypes.add(ColumnType.INT); // record count for the key
 
+                if (executionContext.isParallelHashJoinEnabled() && slave.supportsPageFrameCursor()) {
+                    return new AsyncHashJoinLightRecordCursorFactory(
+                            configuration,
+                            executionContext.getMessageBus(),
+                            metadata,
+                            master,
+                            slave,
+                            keyTypes,
+                            masterKeySink,
+                            slaveKeySink,
+                            masterMetadata.getColumnCount(),
+                            context,
+                            reduceTaskFactory,
+                            executionContext.getSharedWorkerCount()
+                    );
+                }
+
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -2395,6 +2685,26 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             }
         }
 
+        if (factory instanceof PageFrameRecordCursorFactory && ((PageFrameRecordCursorFactory) factory).supportsDataSkipping()) {
+            try {
+                final DataSkippingFilter skippingFilter = DataSkippingFilter.of(
+                        filterExpr,
+                        factory.getMetadata(),
+                        functionParser,
+                        executionContext,
+                        configuration.getSqlZoneMapBlockRows(),
+                        configuration.getSqlBloomFilterBitsPerValue()
+                );
+                if (skippingFilter != null) {
+                    ((PageFrameRecordCursorFactory) factory).setDataSkippingFilter(skippingFilter);
+                }
+            } catch (Throwable e) {
+                Misc.free(filter);
+                Misc.free(factory);
+                throw e;
+            }
+        }
+
         final boolean enableParallelFilter = executionContext.isParallelFilterEnabled();
         if (enableParallelFilter && factory.supportsPageFrameCursor()) {
             final boolean useJit = executionContext.getJitMode() != SqlJitMode.JIT_MODE_DISABLED
@@ -2484,6 +2794,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     }
 
     private RecordCursorFactory generateFunctionQuery(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
+        resultCacheBypassed = true;
         final RecordCursorFactory tableFactory = model.getTableNameFunction();
         if (tableFactory != null) {
             // We're transferring ownership of the tableFactory's factory to another factory
@@ -2649,7 +2960,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         );
                                         boolean created = false;
                                         if (!asOfAvoidBinarySearch) {
-                                            if (slave.supportsTimeFrameCursor() && fastAsOfJoins) {
+                                            if (fastAsOfJoins && isParallelAsOfJoinSupported(master, slave, executionContext)) {
+                                                master = new AsyncAsOfJoinRecordCursorFactory(
+                                                        configuration,
+                                                        executionContext.getMessageBus(),
+                                                        createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                        master,
+                                                        masterSink,
+                                                        slave,
+                                                        slaveSink,
+                                                        masterMetadata.getColumnCount(),
+                                                        slaveModel.getContext(),
+                                                        asOfToleranceInterval,
+                                                        false,
+                                                        reduceTaskFactory,
+                                                        executionContext.getSharedWorkerCount()
+                                                );
+                                                created = true;
+                                            } else if (slave.supportsTimeFrameCursor() && fastAsOfJoins) {
                                                 // support for short-circuiting when joining on a single symbol column and the slave table does not have a matching key
                                                 SymbolShortCircuit symbolShortCircuit = createSymbolShortCircuit(masterMetadata, slaveMetadata, selfJoin);
 
@@ -2762,8 +3090,25 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                     } else {
                                         boolean created = false;
                                         if (fastAsOfJoins && !asOfAvoidBinarySearch) {
-                                            // when slave directly supports time frame cursor then it's strictly better to use it, even without any hint
-                                            if (slave.supportsTimeFrameCursor()) {
+                                            if (isParallelAsOfJoinSupported(master, slave, executionContext)) {
+                                                master = new AsyncAsOfJoinRecordCursorFactory(
+                                                        configuration,
+                                                        executionContext.getMessageBus(),
+                                                        createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                        master,
+                                                        null,
+                                                        slave,
+                                                        null,
+                                                        masterMetadata.getColumnCount(),
+                                                        null,
+                                                        asOfToleranceInterval,
+                                                        false,
+                                                        reduceTaskFactory,
+                                                        executionContext.getSharedWorkerCount()
+                                                );
+                                                created = true;
+                                            } else if (slave.supportsTimeFrameCursor()) {
+                                                // when slave directly supports time frame cursor then it's strictly better to use it, even without any hint
                                                 master = new AsOfJoinNoKeyFastRecordCursorFactory(
                                                         configuration,
                                                         createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
@@ -2893,30 +3238,66 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 processJoinContext(index == 1, isSameTable(master, slave), slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
                                     if (isKeyedTemporalJoin(masterMetadata, slaveMetadata)) {
-                                        master = createLtJoin(
-                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
-                                                master,
-                                                RecordSinkFactory.getInstance(
-                                                        asm,
-                                                        masterMetadata,
-                                                        listColumnFilterB,
-                                                        writeSymbolAsString,
-                                                        writeStringAsVarcharB
-                                                ),
-                                                slave,
-                                                RecordSinkFactory.getInstance(
-                                                        asm,
-                                                        slaveMetadata,
-                                                        listColumnFilterA,
-                                                        writeSymbolAsString,
-                                                        writeStringAsVarcharA
-                                                ),
-                                                masterMetadata.getColumnCount(),
-                                                slaveModel.getContext(),
-                                                ltToleranceInterval
+                                        final RecordSink masterSink = RecordSinkFactory.getInstance(
+                                                asm,
+                                                masterMetadata,
+                                                listColumnFilterB,
+                                                writeSymbolAsString,
+                                                writeStringAsVarcharB
+                                        );
+                                        final RecordSink slaveSink = RecordSinkFactory.getInstance(
+                                                asm,
+                                                slaveMetadata,
+                                                listColumnFilterA,
+                                                writeSymbolAsString,
+                                                writeStringAsVarcharA
                                         );
+                                        if (!ltAvoidBinarySearch && isParallelAsOfJoinSupported(master, slave, executionContext)) {
+                                            master = new AsyncAsOfJoinRecordCursorFactory(
+                                                    configuration,
+                                                    executionContext.getMessageBus(),
+                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    master,
+                                                    masterSink,
+                                                    slave,
+                                                    slaveSink,
+                                                    masterMetadata.getColumnCount(),
+                                                    slaveModel.getContext(),
+                                                    ltToleranceInterval,
+                                                    true,
+                                                    reduceTaskFactory,
+                                                    executionContext.getSharedWorkerCount()
+                                            );
+                                        } else {
+                                            master = createLtJoin(
+                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    master,
+                                                    masterSink,
+                                                    slave,
+                                                    slaveSink,
+                                                    masterMetadata.getColumnCount(),
+                                                    slaveModel.getContext(),
+                                                    ltToleranceInterval
+                                            );
+                                        }
                                     } else {
-                                        if (slave.supportsTimeFrameCursor() && !ltAvoidBinarySearch) {
+                                        if (!ltAvoidBinarySearch && isParallelAsOfJoinSupported(master, slave, executionContext)) {
+                                            master = new AsyncAsOfJoinRecordCursorFactory(
+                                                    configuration,
+                                                    executionContext.getMessageBus(),
+                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    master,
+                                                    null,
+                                                    slave,
+                                                    null,
+                                                    masterMetadata.getColumnCount(),
+                                                    null,
+                                                    ltToleranceInterval,
+                                                    true,
+                                                    reduceTaskFactory,
+                                                    executionContext.getSharedWorkerCount()
+                                            );
+                                        } else if (slave.supportsTimeFrameCursor() && !ltAvoidBinarySearch) {
                                             master = new LtJoinNoKeyFastRecordCursorFactory(
                                                     configuration,
                                                     createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
@@ -3018,7 +3399,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         slave,
                                         joinType,
                                         filter,
-                                        slaveModel.getContext()
+                                        slaveModel.getContext(),
+                                        executionContext
                                 );
                                 masterAlias = null;
                                 break;
@@ -3593,6 +3975,34 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     if (canSortAndLimitBeOptimized(model, executionContext, loFunc, hiFunc)) {
                         model.setLimitImplemented(true);
                         int baseCursorTimestampIndex = preSortedByTs ? timestampIndex : -1;
+                        if (
+                                !preSortedByTs
+                                        && loFunc.isConstant()
+                                        && hiFunc == null
+                                        && listColumnFilterA.size() == 1
+                                        && executionContext.isParallelOrderByEnabled()
+                                        && recordCursorFactory.supportsPageFrameCursor()
+                        ) {
+                            final long lo = loFunc.getLong(null);
+                            final int index = listColumnFilterA.getQuick(0);
+                            final int columnIndex = (index > 0 ? index : -index) - 1;
+                            if (
+                                    lo > 0
+                                            && lo <= configuration.getSqlParallelTopKMaxLimit()
+                                            && LongSortedLightRecordCursorFactory.isSupportedColumnType(metadata.getColumnType(columnIndex))
+                            ) {
+                                return new AsyncLongTopKRecordCursorFactory(
+                                        configuration,
+                                        executionContext.getMessageBus(),
+                                        orderedMetadata,
+                                        recordCursorFactory,
+                                        listColumnFilterA.copy(),
+                                        reduceTaskFactory,
+                                        (int) lo,
+                                        executionContext.getSharedWorkerCount()
+                                );
+                            }
+                        }
                         if (
                                 !preSortedByTs
                                         && loFunc.isConstant()
@@ -3630,6 +4040,17 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         && orderByColumnNames.size() == 1
                                         && LongSortedLightRecordCursorFactory.isSupportedColumnType(columnType)
                         ) {
+                            if (executionContext.isParallelOrderByEnabled() && recordCursorFactory.supportsPageFrameCursor()) {
+                                return new AsyncLongSortedLightRecordCursorFactory(
+                                        configuration,
+                                        executionContext.getMessageBus(),
+                                        orderedMetadata,
+                                        recordCursorFactory,
+                                        listColumnFilterA.copy(),
+                                        reduceTaskFactory,
+                                        executionContext.getSharedWorkerCount()
+                                );
+                            }
                             return new LongSortedLightRecordCursorFactory(
                                     configuration,
                                     orderedMetadata,
@@ -3808,6 +4229,15 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             valueTypes.clear();
             listColumnFilterA.clear();
 
+            for (int i = 0; i < fillCount; i++) {
+                if (isLinearKeyword(sampleByFill.getQuick(i).token)) {
+                    // interpolated records may return different values when read twice,
+                    // so they cannot be copied to the result cache
+                    resultCacheBypassed = true;
+                    break;
+                }
+            }
+
             if (fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "linear")) {
                 valueTypes.add(ColumnType.BYTE); // gap flag
 
@@ -4151,6 +4581,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             case SELECT_MODEL_CURSOR:
                 return generateSelectCursor(model, executionContext);
             case SELECT_MODEL_SHOW:
+                resultCacheBypassed = true;
                 return model.getTableNameFunction();
             default:
                 if (model.getJoinModels().size() > 1 && processJoins) {
@@ -4843,6 +5274,15 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     }
                 }
 
+                if (
+                        enableJitProjections
+                                && columnType == ColumnType.DOUBLE
+                                && !model.isUpdate()
+                                && factory.supportsPageFrameCursor()
+                ) {
+                    function = compileProjectionConditionally(executionContext, node, function, baseMetadata);
+                }
+
                 functions.add(function);
                 TableColumnMetadata m = null;
                 if (columnType == ColumnType.SYMBOL) {
@@ -4937,6 +5377,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         final ObjList<QueryColumn> columns = model.getColumns();
         final int columnCount = columns.size();
         groupedWindow.clear();
+        groupedWindowColumns.clear();
 
         valueTypes.clear();
         ArrayColumnTypes chainTypes = valueTypes;
@@ -4946,6 +5387,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         ObjList<Function> functions = new ObjList<>();
         ObjList<WindowFunction> naturalOrderFunctions = null;
         ObjList<Function> partitionByFunctions = null;
+        // column index -> copies of the window function used to evaluate partitions in parallel
+        ObjList<ObjList<WindowFunction>> workerWindowFunctions = null;
+        // group -> bucket -> functions, null when no group can be evaluated in parallel
+        ObjList<ObjList<ObjList<WindowFunction>>> bucketFunctions = null;
         try {
             // if all window function don't require sorting or more than one pass then use streaming factory
             boolean isFastPath = true;
@@ -5301,10 +5746,38 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         // init comparator if we need
                         windowFunction.initRecordComparator(this, chainMetadata, chainTypes, order, null, null);
                         ObjList<WindowFunction> funcs = groupedWindow.get(order);
+                        IntList funcColumns = groupedWindowColumns.get(order);
                         if (funcs == null) {
                             groupedWindow.put(order, funcs = new ObjList<>());
+                            groupedWindowColumns.put(order, funcColumns = new IntList());
                         }
                         funcs.add(windowFunction);
+                        funcColumns.add(i);
+
+                        if (
+                                executionContext.isParallelWindowEnabled()
+                                        && executionContext.getSharedWorkerCount() > 1
+                                        && psz > 0
+                                        && windowFunction instanceof BasePartitionedWindowFunction
+                                        && windowFunction.getPassCount() != WindowFunction.TWO_PASS
+                        ) {
+                            if (workerWindowFunctions == null) {
+                                workerWindowFunctions = new ObjList<>();
+                            }
+                            workerWindowFunctions.extendAndSet(
+                                    i,
+                                    compileWorkerWindowFunctions(
+                                            executionContext,
+                                            ac,
+                                            base,
+                                            chainMetadata,
+                                            chainTypes,
+                                            order,
+                                            i,
+                                            executionContext.getSharedWorkerCount() - 1
+                                    )
+                            );
+                        }
                     } else {
                         if (osz > 0) {
                             windowFunction.initRecordComparator(this, chainMetadata, chainTypes, null, ac.getOrderBy(), ac.getOrderByDirection());
@@ -5347,7 +5820,27 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 windowComparators.add(recordComparatorCompiler.compile(chainTypes, e.key));
                 functionGroups.add(e.value);
                 keys.add(e.key);
+                if (workerWindowFunctions != null) {
+                    final ObjList<ObjList<WindowFunction>> buckets = toWindowFunctionBuckets(
+                            columns,
+                            groupedWindowColumns.get(e.key),
+                            e.value,
+                            workerWindowFunctions
+                    );
+                    if (buckets != null) {
+                        if (bucketFunctions == null) {
+                            bucketFunctions = new ObjList<>();
+                        }
+                        bucketFunctions.extendAndSet(functionGroups.size() - 1, buckets);
+                    }
+                }
             }
+            if (bucketFunctions != null) {
+                // serial groups at the tail of the list are null too
+                bucketFunctions.extendAndSet(functionGroups.size() - 1, bucketFunctions.getQuiet(functionGroups.size() - 1));
+            }
+            // free copies of the functions that have to be evaluated serially
+            freeWorkerWindowFunctions(workerWindowFunctions);
 
             final RecordSink recordSink = RecordSinkFactory.getInstance(
                     asm,
@@ -5359,21 +5852,34 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
             return new CachedWindowRecordCursorFactory(
                     configuration,
+                    executionContext.getMessageBus(),
                     base,
                     recordSink,
                     factoryMetadata,
                     chainTypes,
                     windowComparators,
                     functionGroups,
+                    bucketFunctions,
                     naturalOrderFunctions,
                     columnIndexes,
                     keys,
-                    chainMetadata
+                    chainMetadata,
+                    executionContext.getSharedWorkerCount()
             );
         } catch (Throwable th) {
             for (ObjObjHashMap.Entry<IntList, ObjList<WindowFunction>> e : groupedWindow) {
                 Misc.freeObjList(e.value);
             }
+            freeWorkerWindowFunctions(workerWindowFunctions);
+            if (bucketFunctions != null) {
+                for (int i = 0, n = bucketFunctions.size(); i < n; i++) {
+                    final ObjList<ObjList<WindowFunction>> buckets = bucketFunctions.getQuick(i);
+                    // the first bucket holds the original functions, they're freed above
+                    for (int b = 1, m = buckets != null ? buckets.size() : 0; b < m; b++) {
+                        Misc.freeObjList(buckets.getQuick(b));
+                    }
+                }
+            }
             Misc.free(base);
             Misc.freeObjList(functions);
             Misc.freeObjList(naturalOrderFunctions);
@@ -5558,6 +6064,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
 
         final TableToken tableToken = executionContext.getTableToken(tableName);
+        if (queriedTables.indexOf(tableToken) < 0) {
+            queriedTables.add(tableToken);
+        }
         if (model.isUpdate() && !executionContext.isWalApplication() && executionContext.getCairoEngine().isWalTable(tableToken)) {
             // two phase update execution, this is client-side branch. It has to execute against the sequencer metadata
             // to allow the client to succeed even if WAL apply does not run.
@@ -6395,6 +6904,20 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 && Chars.equalsIgnoreCase(model.getOrderByAdvice().getQuick(0).token, model.getTimestamp().token);
     }
 
+    private boolean isParallelAsOfJoinSupported(
+            RecordCursorFactory master,
+            RecordCursorFactory slave,
+            SqlExecutionContext executionContext
+    ) {
+        // master frames are dispatched to workers as is, while each worker
+        // navigates slave table frames with its own time frame cursor
+        return executionContext.isParallelAsOfJoinEnabled()
+                && master.supportsPageFrameCursor()
+                && master.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD
+                && slave.supportsTimeFrameCursor()
+                && !slave.isProjection();
+    }
+
     private boolean isSameTable(RecordCursorFactory masterFactory, RecordCursorFactory slaveFactory) {
         return masterFactory.getTableToken() != null && masterFactory.getTableToken().equals(slaveFactory.getTableToken());
     }
@@ -64,6 +64,17 @@ public interface SqlCompiler extends QuietCloseable, Mutable {
 
     CairoEngine getEngine();
 
+    /**
+     * Parses the given SELECT statement without optimising it or generating a factory.
+     * The returned model belongs to the compiler and stays valid until the next call.
+     *
+     * @param sqlText          the SELECT statement text
+     * @param executionContext the context used to resolve declared variables
+     * @return parsed, not yet optimised query model
+     * @throws SqlException when the text is not a valid SELECT statement
+     */
+    QueryModel parseSelect(CharSequence sqlText, SqlExecutionContext executionContext) throws SqlException;
+
     QueryBuilder query();
 
     @TestOnly
@@ -82,8 +82,10 @@ import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cairo.wal.WalUtils;
 import io.questdb.cairo.wal.WalWriterMetadata;
 import io.questdb.griffin.engine.QueryProgress;
+import io.questdb.griffin.engine.QueryResultCacheRecordCursorFactory;
 import io.questdb.griffin.engine.ops.AlterOperationBuilder;
 import io.questdb.griffin.engine.ops.CopyCancelFactory;
+import io.questdb.griffin.engine.ops.CopyExportFactory;
 import io.questdb.griffin.engine.ops.CopyFactory;
 import io.questdb.griffin.engine.ops.CreateMatViewOperation;
 import io.questdb.griffin.engine.ops.CreateMatViewOperationBuilder;
@@ -202,6 +204,8 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
     //true - compiler treats whole input as single query and doesn't stop on ';'. Default mode.
     //false - compiler treats input as list of statements and stops processing statement on ';'. Used in batch processing.
     private boolean isSingleQueryMode = true;
+    // set while a SELECT statement is being compiled, allows wrapping its factory with the result cache
+    private boolean selectResultCacheAllowed;
 
     public SqlCompilerImpl(CairoEngine engine) {
         try {
@@ -506,6 +510,17 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         return functionParser.getFunctionFactoryCache();
     }
 
+    @Override
+    public QueryModel parseSelect(CharSequence sqlText, SqlExecutionContext executionContext) throws SqlException {
+        clear();
+        lexer.of(sqlText);
+        final ExecutionModel model = parser.parse(lexer, executionContext, this);
+        if (model.getModelType() != ExecutionModel.QUERY) {
+            throw SqlException.$(0, "SELECT query expected");
+        }
+        return (QueryModel) model;
+    }
+
     @Override
     public QueryBuilder query() {
         queryBuilder.clear();
@@ -2106,6 +2121,26 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         );
     }
 
+    private RecordCursorFactory compileCopyExport(SqlExecutionContext executionContext, CopyModel model) throws SqlException {
+        assert model.isExport();
+
+        final ExpressionNode fileNameNode = model.getFileName();
+        final CharSequence fileName = GenericLexer.assertNoDots(GenericLexer.unquote(fileNameNode.token), fileNameNode.position);
+
+        final QueryBuilder queryBuilder = query();
+        if (model.getQuery() != null) {
+            queryBuilder.$(model.getQuery());
+        } else {
+            queryBuilder.$("select * from \"").$(GenericLexer.unquote(model.getTableName())).$('"');
+        }
+        // access to the exported data is authorized when the query is compiled
+        return new CopyExportFactory(
+                engine.getConfiguration(),
+                queryBuilder.compile(executionContext).getRecordCursorFactory(),
+                Chars.toString(fileName)
+        );
+    }
+
     private void compileDeallocate(SqlExecutionContext executionContext, @Transient CharSequence sqlText) throws SqlException {
         CharSequence statementName = GenericLexer.unquote(expectToken(lexer, "statement name"));
         CharSequence tok = SqlUtil.fetchNext(lexer);
@@ -2910,13 +2945,19 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
             executionModel = compileExecutionModel(executionContext);
             switch (executionModel.getModelType()) {
                 case ExecutionModel.QUERY:
-                    compiledQuery.ofSelect(
-                            generateSelectWithRetries(
-                                    (QueryModel) executionModel,
-                                    executionContext,
-                                    generateProgressLogger
-                            )
-                    );
+                    // only results of plain SELECT statements are cached
+                    selectResultCacheAllowed = true;
+                    try {
+                        compiledQuery.ofSelect(
+                                generateSelectWithRetries(
+                                        (QueryModel) executionModel,
+                                        executionContext,
+                                        generateProgressLogger
+                                )
+                        );
+                    } finally {
+                        selectResultCacheAllowed = false;
+                    }
                     break;
                 case ExecutionModel.CREATE_TABLE:
                     compiledQuery.ofCreateTable(((CreateTableOperationBuilder) executionModel)
@@ -2928,7 +2969,9 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                     break;
                 case ExecutionModel.COPY:
                     QueryProgress.logStart(sqlId, sqlText, executionContext, false);
-                    checkMatViewModification(executionModel);
+                    if (!((CopyModel) executionModel).isExport()) {
+                        checkMatViewModification(executionModel);
+                    }
                     copy(executionContext, (CopyModel) executionModel);
                     QueryProgress.logEnd(sqlId, sqlText, executionContext, beginNanos);
                     break;
@@ -3037,7 +3080,9 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
     }
 
     private void copy(SqlExecutionContext executionContext, CopyModel copyModel) throws SqlException {
-        if (!copyModel.isCancel() && Chars.equalsLowerCaseAscii(copyModel.getFileName().token, "stdin")) {
+        if (copyModel.isExport()) {
+            compiledQuery.ofPseudoSelect(compileCopyExport(executionContext, copyModel));
+        } else if (!copyModel.isCancel() && Chars.equalsLowerCaseAscii(copyModel.getFileName().token, "stdin")) {
             // no-op implementation
             authorizeInsertForCopy(executionContext.getSecurityContext(), copyModel);
             compiledQuery.ofCopyRemote();
@@ -3938,8 +3983,30 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
             SqlExecutionContext executionContext,
             boolean generateProgressLogger
     ) throws SqlException {
+        codeGenerator.resetQueriedTables();
         RecordCursorFactory factory = codeGenerator.generate(selectQueryModel, executionContext);
         if (generateProgressLogger) {
+            if (
+                    selectResultCacheAllowed
+                            && configuration.isSqlResultCacheEnabled()
+                            && !executionContext.containsSecret()
+                            && codeGenerator.isResultCacheable()
+                            && QueryResultCacheRecordCursorFactory.isCacheable(factory.getMetadata())
+            ) {
+                try {
+                    factory = new QueryResultCacheRecordCursorFactory(
+                            configuration,
+                            engine.getQueryResultCache(),
+                            asm,
+                            sqlText,
+                            codeGenerator.getQueriedTables(),
+                            factory
+                    );
+                } catch (Throwable th) {
+                    Misc.free(factory);
+                    throw th;
+                }
+            }
             return new QueryProgress(queryRegistry, sqlText, factory);
         } else {
             return factory;
@@ -186,10 +186,18 @@ public interface SqlExecutionContext extends Sinkable, Closeable {
         return false;
     }
 
+    boolean isParallelAsOfJoinEnabled();
+
     boolean isParallelFilterEnabled();
 
     boolean isParallelGroupByEnabled();
 
+    boolean isParallelHashJoinEnabled();
+
+    boolean isParallelOrderByEnabled();
+
+    boolean isParallelWindowEnabled();
+
     boolean isParallelReadParquetEnabled();
 
     boolean isTimestampRequired();
@@ -229,10 +237,18 @@ public interface SqlExecutionContext extends Sinkable, Closeable {
 
     void setNowAndFixClock(long now);
 
+    void setParallelAsOfJoinEnabled(boolean parallelAsOfJoinEnabled);
+
     void setParallelFilterEnabled(boolean parallelFilterEnabled);
 
     void setParallelGroupByEnabled(boolean parallelGroupByEnabled);
 
+    void setParallelHashJoinEnabled(boolean parallelHashJoinEnabled);
+
+    void setParallelOrderByEnabled(boolean parallelOrderByEnabled);
+
+    void setParallelWindowEnabled(boolean parallelWindowEnabled);
+
     void setParallelReadParquetEnabled(boolean parallelReadParquetEnabled);
 
     void setRandom(Rnd rnd);
@@ -72,8 +72,12 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
     private int jitMode;
     private long now;
     private final MicrosecondClock nowClock = () -> now;
+    private boolean parallelAsOfJoinEnabled;
     private boolean parallelFilterEnabled;
     private boolean parallelGroupByEnabled;
+    private boolean parallelHashJoinEnabled;
+    private boolean parallelOrderByEnabled;
+    private boolean parallelWindowEnabled;
     private boolean parallelReadParquetEnabled;
     private Rnd random;
     private long requestFd = -1;
@@ -90,8 +94,12 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         clock = cairoConfiguration.getMicrosecondClock();
         securityContext = DenyAllSecurityContext.INSTANCE;
         jitMode = cairoConfiguration.getSqlJitMode();
+        parallelAsOfJoinEnabled = cairoConfiguration.isSqlParallelAsOfJoinEnabled();
         parallelFilterEnabled = cairoConfiguration.isSqlParallelFilterEnabled();
         parallelGroupByEnabled = cairoConfiguration.isSqlParallelGroupByEnabled();
+        parallelHashJoinEnabled = cairoConfiguration.isSqlParallelHashJoinEnabled();
+        parallelOrderByEnabled = cairoConfiguration.isSqlParallelOrderByEnabled();
+        parallelWindowEnabled = cairoConfiguration.isSqlParallelWindowEnabled();
         parallelReadParquetEnabled = cairoConfiguration.isSqlParallelReadParquetEnabled();
         telemetry = cairoEngine.getTelemetry();
         telemetryFacade = telemetry.isEnabled() ? this::doStoreTelemetry : this::storeTelemetryNoOp;
@@ -263,6 +271,11 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         return columnPreTouchEnabledOverride;
     }
 
+    @Override
+    public boolean isParallelAsOfJoinEnabled() {
+        return parallelAsOfJoinEnabled;
+    }
+
     @Override
     public boolean isParallelFilterEnabled() {
         return parallelFilterEnabled;
@@ -273,6 +286,21 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         return parallelGroupByEnabled;
     }
 
+    @Override
+    public boolean isParallelHashJoinEnabled() {
+        return parallelHashJoinEnabled;
+    }
+
+    @Override
+    public boolean isParallelOrderByEnabled() {
+        return parallelOrderByEnabled;
+    }
+
+    @Override
+    public boolean isParallelWindowEnabled() {
+        return parallelWindowEnabled;
+    }
+
     @Override
     public boolean isParallelReadParquetEnabled() {
         return parallelReadParquetEnabled;
@@ -350,6 +378,11 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         clock = nowClock;
     }
 
+    @Override
+    public void setParallelAsOfJoinEnabled(boolean parallelAsOfJoinEnabled) {
+        this.parallelAsOfJoinEnabled = parallelAsOfJoinEnabled;
+    }
+
     @Override
     public void setParallelFilterEnabled(boolean parallelFilterEnabled) {
         this.parallelFilterEnabled = parallelFilterEnabled;
@@ -360,6 +393,21 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
         this.parallelGroupByEnabled = parallelGroupByEnabled;
     }
 
+    @Override
+    public void setParallelHashJoinEnabled(boolean parallelHashJoinEnabled) {
+        this.parallelHashJoinEnabled = parallelHashJoinEnabled;
+    }
+
+    @Override
+    public void setParallelOrderByEnabled(boolean parallelOrderByEnabled) {
+        this.parallelOrderByEnabled = parallelOrderByEnabled;
+    }
+
+    @Override
+    public void setParallelWindowEnabled(boolean parallelWindowEnabled) {
+        this.parallelWindowEnabled = parallelWindowEnabled;
+    }
+
     @Override
     public void setParallelReadParquetEnabled(boolean parallelReadParquetEnabled) {
         this.parallelReadParquetEnabled = parallelReadParquetEnabled;
@@ -812,8 +812,35 @@ public class SqlParser {
         if (Chars.isBlank(configuration.getSqlCopyInputRoot())) {
             throw SqlException.$(lexer.lastTokenPosition(), "COPY is disabled ['cairo.sql.copy.root' is not set?]");
         }
+        CharSequence tok = tok(lexer, "table name or '('");
+        if (Chars.equals(tok, '(')) {
+            // "copy (select ...) to 'file'", the query text is everything between the outer parentheses
+            final int queryLo = lexer.getPosition();
+            tok = tok(lexer, "query");
+            // statements other than queries can run at compile time, they must not be exported
+            if (!isSelectKeyword(tok) && !isWithKeyword(tok) && !Chars.equals(tok, '(')) {
+                throw SqlException.$(lexer.lastTokenPosition(), "COPY query must be a SELECT");
+            }
+            lexer.unparseLast();
+            int depth = 1;
+            do {
+                tok = tok(lexer, "')'");
+                if (Chars.equals(tok, '(')) {
+                    depth++;
+                } else if (Chars.equals(tok, ')')) {
+                    depth--;
+                }
+            } while (depth > 0);
+            final CharSequence query = lexer.immutableBetween(queryLo, lexer.lastTokenPosition());
+            expectTok(lexer, "to");
+            final CopyModel model = parseCopyTo(lexer, sqlParserCallback);
+            model.setQuery(query);
+            return model;
+        }
+        lexer.unparseLast();
+
         ExpressionNode target = expectExpr(lexer, sqlParserCallback);
-        CharSequence tok = tok(lexer, "'from' or 'to' or 'cancel'");
+        tok = tok(lexer, "'from' or 'to' or 'cancel'");
 
         if (isCancelKeyword(tok)) {
             CopyModel model = copyModelPool.next();
@@ -828,6 +855,12 @@ public class SqlParser {
             throw errUnexpected(lexer, tok);
         }
 
+        if (isToKeyword(tok)) {
+            final CopyModel model = parseCopyTo(lexer, sqlParserCallback);
+            model.setTarget(target);
+            return model;
+        }
+
         if (isFromKeyword(tok)) {
             final ExpressionNode fileName = expectExpr(lexer, sqlParserCallback);
             if (fileName.token.length() < 3 && Chars.startsWith(fileName.token, '\'')) {
@@ -901,7 +934,24 @@ public class SqlParser {
             }
             return model;
         }
-        throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
+        throw SqlException.$(lexer.lastTokenPosition(), "'from' or 'to' expected");
+    }
+
+    private CopyModel parseCopyTo(GenericLexer lexer, SqlParserCallback sqlParserCallback) throws SqlException {
+        final ExpressionNode fileName = expectExpr(lexer, sqlParserCallback);
+        if (fileName.token.length() < 3 || !Chars.startsWith(fileName.token, '\'')) {
+            throw SqlException.$(fileName.position, "file name expected");
+        }
+
+        final CopyModel model = copyModelPool.next();
+        model.setExport(true);
+        model.setFileName(fileName);
+
+        final CharSequence tok = optTok(lexer);
+        if (tok != null && !isSemicolon(tok)) {
+            throw errUnexpected(lexer, tok);
+        }
+        return model;
     }
 
     private ExecutionModel parseCreate(
@@ -0,0 +1,396 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.DataUnavailableException;
+import io.questdb.cairo.EntityColumnFilter;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.RecordSinkFactory;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.QueryResultCache;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.BitSet;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Serves the query from {@link QueryResultCache} when the tables the query reads from were not
+ * changed since the result was cached. Otherwise, the base cursor is streamed as usual and its rows
+ * are copied aside. Once the base cursor is exhausted, the copy is put in the cache.
+ */
+public class QueryResultCacheRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final QueryResultCache cache;
+    private final ArrayColumnTypes chainTypes = new ArrayColumnTypes();
+    private final CairoConfiguration configuration;
+    private final ResultCacheRecordCursor cursor = new ResultCacheRecordCursor();
+    private final String query;
+    private final RecordSink recordSink;
+    private final ObjList<TableToken> tableTokens;
+    // table id, txn and metadata version triplets, one per table
+    private final LongList tableVersions = new LongList();
+
+    public QueryResultCacheRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull QueryResultCache cache,
+            @NotNull BytecodeAssembler asm,
+            @NotNull CharSequence query,
+            @Transient @NotNull ObjList<TableToken> tableTokens,
+            @NotNull RecordCursorFactory base
+    ) {
+        super(base.getMetadata());
+        this.configuration = configuration;
+        this.cache = cache;
+        this.query = query.toString();
+        this.tableTokens = new ObjList<>(tableTokens);
+        this.base = base;
+
+        final RecordMetadata metadata = base.getMetadata();
+        final BitSet writeSymbolAsString = new BitSet();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (ColumnType.isSymbol(columnType)) {
+                chainTypes.add(ColumnType.STRING);
+                writeSymbolAsString.set(i);
+            } else {
+                chainTypes.add(columnType);
+            }
+        }
+        final EntityColumnFilter columnFilter = new EntityColumnFilter();
+        columnFilter.of(metadata.getColumnCount());
+        this.recordSink = RecordSinkFactory.getInstance(asm, metadata, columnFilter, writeSymbolAsString);
+    }
+
+    /**
+     * Checks whether rows of the given metadata can be copied to the cache.
+     */
+    public static boolean isCacheable(RecordMetadata metadata) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (ColumnType.tagOf(metadata.getColumnType(i)) == ColumnType.RECORD) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public PageFrameSequence<?> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
+        return base.execute(executionContext, collectSubSeq, order);
+    }
+
+    @Override
+    public boolean followedLimitAdvice() {
+        return base.followedLimitAdvice();
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public boolean fragmentedSymbolTables() {
+        // cached rows store symbol values rather than keys, so there are no symbol tables to rely on
+        return true;
+    }
+
+    @Override
+    public String getBaseColumnName(int idx) {
+        return base.getBaseColumnName(idx);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        tableVersions.clear();
+        for (int i = 0, n = tableTokens.size(); i < n; i++) {
+            final TableToken tableToken = tableTokens.getQuick(i);
+            try (TableReader reader = executionContext.getReader(tableToken)) {
+                // table id tells apart a table that was dropped and re-created under the same name
+                tableVersions.add(tableToken.getTableId());
+                tableVersions.add(reader.getTxn());
+                tableVersions.add(reader.getMetadataVersion());
+            }
+        }
+
+        final QueryResultCache.Entry entry = cache.acquire(query, tableVersions);
+        if (entry != null) {
+            cursor.ofEntry(entry);
+            return cursor;
+        }
+
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.ofBase(
+                    baseCursor,
+                    new QueryResultCache.Chain(
+                            chainTypes,
+                            recordSink,
+                            configuration.getSqlSortValuePageSize(),
+                            configuration.getSqlSortValueMaxPages()
+                    )
+            );
+        } catch (Throwable th) {
+            cursor.close();
+            Misc.free(baseCursor);
+            throw th;
+        }
+        return cursor;
+    }
+
+    @Override
+    public PageFrameCursor getPageFrameCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        return base.getPageFrameCursor(executionContext, order);
+    }
+
+    @Override
+    public int getScanDirection() {
+        return base.getScanDirection();
+    }
+
+    @Override
+    public TableToken getTableToken() {
+        return base.getTableToken();
+    }
+
+    @Override
+    public boolean implementsLimit() {
+        return base.implementsLimit();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public boolean supportsPageFrameCursor() {
+        return base.supportsPageFrameCursor();
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(TableToken tableName) {
+        return base.supportsUpdateRowId(tableName);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        cursor.close();
+        base.close();
+    }
+
+    private class ResultCacheRecordCursor implements RecordCursor {
+        private RecordCursor baseCursor;
+        // rows of the base cursor are copied here until the cursor is exhausted;
+        // null when the rows are served from the cache or the copy was abandoned
+        private QueryResultCache.Chain chain;
+        private long chainRowCount;
+        private QueryResultCache.Entry entry;
+        private long memoryLimit;
+        private long nextRecordOffset;
+        private long prevRecordOffset;
+        private Record recordA;
+        private Record recordB;
+
+        @Override
+        public void calculateSize(SqlExecutionCircuitBreaker circuitBreaker, Counter counter) {
+            if (baseCursor == null) {
+                while (hasNext()) {
+                    counter.inc();
+                }
+            } else if (chain != null) {
+                // iterate via hasNext(), so that the counted rows are copied
+                RecordCursor.super.calculateSize(circuitBreaker, counter);
+            } else {
+                baseCursor.calculateSize(circuitBreaker, counter);
+            }
+        }
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+            chain = Misc.free(chain);
+            cache.release(entry);
+            entry = null;
+        }
+
+        @Override
+        public Record getRecord() {
+            return baseCursor != null ? baseCursor.getRecord() : recordA;
+        }
+
+        @Override
+        public Record getRecordB() {
+            if (baseCursor != null) {
+                return baseCursor.getRecordB();
+            }
+            if (base.recordCursorSupportsRandomAccess()) {
+                return recordB;
+            }
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            // cached rows have no symbol keys, symbol values are read via getSymA() and getSymB()
+            return baseCursor != null ? baseCursor.getSymbolTable(columnIndex) : null;
+        }
+
+        @Override
+        public boolean hasNext() throws DataUnavailableException {
+            if (baseCursor == null) {
+                if (nextRecordOffset != -1) {
+                    final QueryResultCache.Chain entryChain = entry.getChain();
+                    entryChain.recordAt(recordA, nextRecordOffset);
+                    nextRecordOffset = entryChain.getNextRecordOffset(nextRecordOffset);
+                    return true;
+                }
+                return false;
+            }
+
+            if (baseCursor.hasNext()) {
+                if (chain != null) {
+                    prevRecordOffset = chain.put(baseCursor.getRecord(), prevRecordOffset);
+                    chainRowCount++;
+                    if (chain.getHeapSize() > memoryLimit) {
+                        // the result would not fit the cache anyway
+                        chain = Misc.free(chain);
+                    }
+                }
+                return true;
+            }
+
+            if (chain != null) {
+                // the cache owns the chain from now on
+                cache.put(query, tableVersions, chain, chainRowCount);
+                chain = null;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isUsingIndex() {
+            return baseCursor != null && baseCursor.isUsingIndex();
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor != null ? baseCursor.newSymbolTable(columnIndex) : null;
+        }
+
+        public void ofBase(RecordCursor baseCursor, QueryResultCache.Chain chain) {
+            this.baseCursor = baseCursor;
+            this.chain = chain;
+            chainRowCount = 0;
+            prevRecordOffset = -1;
+            memoryLimit = cache.getMemoryLimit();
+        }
+
+        public void ofEntry(QueryResultCache.Entry entry) {
+            this.entry = entry;
+            recordA = entry.newRecord();
+            recordB = entry.newRecord();
+            toTop();
+        }
+
+        @Override
+        public long preComputedStateSize() {
+            return baseCursor != null ? baseCursor.preComputedStateSize() : 0;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            if (baseCursor != null) {
+                baseCursor.recordAt(record, atRowId);
+            } else if (base.recordCursorSupportsRandomAccess()) {
+                entry.getChain().recordAt(record, atRowId);
+            } else {
+                throw new UnsupportedOperationException();
+            }
+        }
+
+        @Override
+        public long size() throws DataUnavailableException {
+            return baseCursor != null ? baseCursor.size() : entry.getRowCount();
+        }
+
+        @Override
+        public void skipRows(Counter rowCount) throws DataUnavailableException {
+            if (baseCursor == null || chain != null) {
+                RecordCursor.super.skipRows(rowCount);
+            } else {
+                baseCursor.skipRows(rowCount);
+            }
+        }
+
+        @Override
+        public void toTop() {
+            if (baseCursor != null) {
+                baseCursor.toTop();
+                if (chain != null) {
+                    chain.clear();
+                    chainRowCount = 0;
+                    prevRecordOffset = -1;
+                }
+            } else {
+                nextRecordOffset = entry.getRowCount() > 0 ? 0 : -1;
+            }
+        }
+    }
+}
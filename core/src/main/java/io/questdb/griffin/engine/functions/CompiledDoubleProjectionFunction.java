@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.jit.CompiledProjection;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.IntList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+
+/**
+ * Evaluates a DOUBLE arithmetic projection with a JIT-compiled kernel. Values are computed
+ * for the whole page frame once the scan enters it, no matter which of the frame's rows
+ * is accessed first, and then read from the buffer. Record B, which is used for random
+ * access, and frames with column tops are evaluated with the original function.
+ */
+public class CompiledDoubleProjectionFunction extends DoubleFunction implements UnaryFunction {
+    private final Function arg;
+    // base column addresses of the current frame, indexed by column index
+    private final DirectLongList columnAddresses;
+    private final IntList columnIndexes;
+    private final CompiledProjection compiledProjection;
+    // size shift of the first referenced column, used to calculate frame row count
+    private final int firstColumnSizeShift;
+    private final DirectLongList values;
+    private long frameAddress;
+    private int frameIndex = -1;
+    private long frameRowCount;
+
+    public CompiledDoubleProjectionFunction(
+            Function arg,
+            CompiledProjection compiledProjection,
+            IntList columnIndexes,
+            int firstColumnType,
+            int baseColumnCount
+    ) {
+        assert columnIndexes.size() > 0;
+        this.arg = arg;
+        this.compiledProjection = compiledProjection;
+        this.columnIndexes = columnIndexes;
+        this.firstColumnSizeShift = ColumnType.pow2SizeOf(firstColumnType);
+        this.columnAddresses = new DirectLongList(baseColumnCount, MemoryTag.NATIVE_JIT);
+        this.columnAddresses.setPos(baseColumnCount);
+        this.columnAddresses.zero();
+        this.values = new DirectLongList(16, MemoryTag.NATIVE_JIT);
+    }
+
+    @Override
+    public void close() {
+        UnaryFunction.super.close();
+        Misc.free(compiledProjection);
+        Misc.free(columnAddresses);
+        Misc.free(values);
+    }
+
+    @Override
+    public void cursorClosed() {
+        UnaryFunction.super.cursorClosed();
+        frameIndex = -1;
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        if (rec instanceof PageFrameMemoryRecord) {
+            final PageFrameMemoryRecord frameRecord = (PageFrameMemoryRecord) rec;
+            if (frameRecord.getLetter() == PageFrameMemoryRecord.RECORD_A_LETTER) {
+                if (
+                        frameRecord.getFrameIndex() != frameIndex
+                                || frameRecord.getPageAddress(columnIndexes.getQuick(0)) != frameAddress
+                ) {
+                    computeFrame(frameRecord);
+                }
+                final long rowIndex = frameRecord.getRowIndex();
+                if (rowIndex < frameRowCount) {
+                    return Unsafe.getUnsafe().getDouble(values.getAddress() + (rowIndex << 3));
+                }
+            }
+        }
+        return arg.getDouble(rec);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        UnaryFunction.super.init(symbolTableSource, executionContext);
+        frameIndex = -1;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val("jit(").val(arg).val(')');
+    }
+
+    @Override
+    public void toTop() {
+        UnaryFunction.super.toTop();
+        frameIndex = -1;
+    }
+
+    private void computeFrame(PageFrameMemoryRecord frameRecord) {
+        final int firstColumnIndex = columnIndexes.getQuick(0);
+        // Remember the frame even if it can't be computed, so that we don't retry on each row.
+        frameIndex = frameRecord.getFrameIndex();
+        frameAddress = frameRecord.getPageAddress(firstColumnIndex);
+        frameRowCount = 0;
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final long address = frameRecord.getPageAddress(columnIndex);
+            if (address == 0) {
+                // column top, fall back to the original function
+                return;
+            }
+            columnAddresses.set(columnIndex, address);
+        }
+
+        final long rowCount = frameRecord.getPageSize(firstColumnIndex) >>> firstColumnSizeShift;
+        if (rowCount == 0) {
+            return;
+        }
+        if (values.getCapacity() < rowCount) {
+            values.setCapacity(rowCount);
+        }
+        if (compiledProjection.call(columnAddresses.getAddress(), columnAddresses.size(), values.getAddress(), rowCount) == rowCount) {
+            frameRowCount = rowCount;
+        }
+    }
+}
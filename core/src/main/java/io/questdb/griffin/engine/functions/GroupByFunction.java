@@ -140,6 +140,15 @@ public interface GroupByFunction extends Function, Mutable {
         return true;
     }
 
+    /**
+     * Returns true if the function's map values can be spilled to disk and merged back in
+     * parallel GROUP BY. Functions that keep their state in {@link GroupByAllocator} memory
+     * and store pointers to it in map values must return false.
+     */
+    default boolean isSpillSupported() {
+        return true;
+    }
+
     /**
      * Used in parallel GROUP BY to merge partial results. Both values are guaranteed to be not new
      * when this method is called, i.e. {@code !destValue.isNew() && !srcValue.isNew()} is true.
@@ -148,6 +148,11 @@ public class ApproxCountDistinctIntGroupByFunction extends LongFunction implemen
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
@@ -148,6 +148,11 @@ public class ApproxCountDistinctLongGroupByFunction extends LongFunction impleme
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
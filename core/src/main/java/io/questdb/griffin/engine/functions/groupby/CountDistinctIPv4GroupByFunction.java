@@ -124,6 +124,11 @@ public class CountDistinctIPv4GroupByFunction extends LongFunction implements Un
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
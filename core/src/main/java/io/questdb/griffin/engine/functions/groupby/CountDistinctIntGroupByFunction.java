@@ -123,6 +123,11 @@ public class CountDistinctIntGroupByFunction extends LongFunction implements Una
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
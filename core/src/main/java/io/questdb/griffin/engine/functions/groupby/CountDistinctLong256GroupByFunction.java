@@ -133,6 +133,11 @@ public class CountDistinctLong256GroupByFunction extends LongFunction implements
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
@@ -123,6 +123,11 @@ public class CountDistinctLongGroupByFunction extends LongFunction implements Un
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
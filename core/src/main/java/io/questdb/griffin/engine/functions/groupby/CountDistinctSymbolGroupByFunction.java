@@ -156,6 +156,11 @@ public class CountDistinctSymbolGroupByFunction extends LongFunction implements
         return true;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
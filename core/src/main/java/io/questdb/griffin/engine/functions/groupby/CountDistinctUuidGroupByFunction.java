@@ -126,6 +126,11 @@ public final class CountDistinctUuidGroupByFunction extends LongFunction impleme
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
@@ -127,6 +127,11 @@ public class FirstArrayGroupByFunction extends ArrayFunction implements GroupByF
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
@@ -123,6 +123,11 @@ public class FirstStrGroupByFunction extends StrFunction implements GroupByFunct
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
@@ -125,6 +125,11 @@ public class FirstVarcharGroupByFunction extends VarcharFunction implements Grou
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
@@ -127,6 +127,11 @@ public class MinStrGroupByFunction extends StrFunction implements GroupByFunctio
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
@@ -123,6 +123,11 @@ public final class MinVarcharGroupByFunction extends VarcharFunction implements
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public boolean isThreadSafe() {
         return false;
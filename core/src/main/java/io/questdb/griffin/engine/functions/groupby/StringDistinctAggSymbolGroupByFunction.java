@@ -153,6 +153,11 @@ class StringDistinctAggSymbolGroupByFunction extends StrFunction implements Unar
         return false;
     }
 
+    @Override
+    public boolean isSpillSupported() {
+        return false;
+    }
+
     @Override
     public void setAllocator(GroupByAllocator allocator) {
         set.setAllocator(allocator);
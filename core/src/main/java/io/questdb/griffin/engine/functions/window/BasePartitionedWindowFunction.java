@@ -27,7 +27,9 @@ package io.questdb.griffin.engine.functions.window;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.Reopenable;
 import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.SymbolTableSource;
 import io.questdb.cairo.sql.VirtualRecord;
 import io.questdb.griffin.PlanSink;
@@ -54,6 +56,18 @@ public abstract class BasePartitionedWindowFunction extends BaseWindowFunction i
         Misc.freeObjList(partitionByRecord.getFunctions());
     }
 
+    /**
+     * Returns hash code of the given record's partition key. Used to distribute
+     * partitions between workers when the function is evaluated in parallel.
+     */
+    public long getPartitionKeyHash(Record record) {
+        partitionByRecord.of(record);
+        final MapKey key = map.withKey();
+        key.put(partitionByRecord, partitionBySink);
+        key.commit();
+        return key.hash();
+    }
+
     @Override
     public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
         super.init(symbolTableSource, executionContext);
@@ -0,0 +1,366 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.ColumnFilter;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.Unordered4Map;
+import io.questdb.cairo.map.Unordered8Map;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.columns.DoubleColumn;
+import io.questdb.griffin.engine.functions.columns.LongColumn;
+import io.questdb.griffin.engine.functions.groupby.AvgDoubleGroupByFunction;
+import io.questdb.griffin.engine.functions.groupby.CountDoubleGroupByFunction;
+import io.questdb.griffin.engine.functions.groupby.CountLongConstGroupByFunction;
+import io.questdb.griffin.engine.functions.groupby.MaxDoubleGroupByFunction;
+import io.questdb.griffin.engine.functions.groupby.MaxLongGroupByFunction;
+import io.questdb.griffin.engine.functions.groupby.MinDoubleGroupByFunction;
+import io.questdb.griffin.engine.functions.groupby.MinLongGroupByFunction;
+import io.questdb.griffin.engine.functions.groupby.SumDoubleGroupByFunction;
+import io.questdb.griffin.engine.functions.groupby.SumLongGroupByFunction;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Columnar aggregation kernel for keyed GROUP BY over a single fixed-size key column.
+ * <p>
+ * The group by functions are compiled into a flat list of operations that read column
+ * memory of a page frame directly. A frame is aggregated in two passes: the first one
+ * resolves map values for all rows, the second one runs a tight loop per aggregate
+ * function over its column. Thus, record and function virtual calls are avoided and
+ * each column is scanned sequentially.
+ * <p>
+ * Only {@link Unordered4Map} and {@link Unordered8Map} are supported since their value
+ * addresses are only invalidated by rehash which is detected by a key capacity change.
+ * The kernel is stateless and may be shared between workers.
+ */
+public class GroupByKernel {
+    private static final int OP_COUNT = 0;
+    private static final int OP_COUNT_DOUBLE = 1;
+    private static final int OP_MAX_DOUBLE = 2;
+    private static final int OP_MAX_LONG = 3;
+    private static final int OP_MIN_DOUBLE = 4;
+    private static final int OP_MIN_LONG = 5;
+    // sum(double) and avg(double) share the same [sum, count] value layout
+    private static final int OP_SUM_DOUBLE = 6;
+    private static final int OP_SUM_LONG = 7;
+    private final int[] columnIndexes;
+    private final int keyColumnIndex;
+    private final boolean longKey;
+    private final int[] opCodes;
+    private final int[] valueIndexes;
+
+    private GroupByKernel(int keyColumnIndex, boolean longKey, int[] opCodes, int[] columnIndexes, int[] valueIndexes) {
+        this.keyColumnIndex = keyColumnIndex;
+        this.longKey = longKey;
+        this.opCodes = opCodes;
+        this.columnIndexes = columnIndexes;
+        this.valueIndexes = valueIndexes;
+    }
+
+    /**
+     * Compiles a kernel for the given GROUP BY shape.
+     *
+     * @return the kernel or null if the keys or any of the functions are not supported
+     */
+    @Nullable
+    public static GroupByKernel compile(
+            ColumnTypes columnTypes,
+            ColumnFilter keyColumnFilter,
+            ObjList<Function> keyFunctions,
+            ObjList<GroupByFunction> groupByFunctions
+    ) {
+        if (keyColumnFilter.getColumnCount() != 1 || keyFunctions.size() > 0 || groupByFunctions.size() == 0) {
+            return null;
+        }
+
+        final int keyColumnIndex = keyColumnFilter.getColumnIndexFactored(0);
+        final boolean longKey;
+        switch (ColumnType.tagOf(columnTypes.getColumnType(keyColumnIndex))) {
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                longKey = false;
+                break;
+            case ColumnType.LONG:
+                longKey = true;
+                break;
+            default:
+                return null;
+        }
+
+        final int n = groupByFunctions.size();
+        final int[] opCodes = new int[n];
+        final int[] columnIndexes = new int[n];
+        final int[] valueIndexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            final GroupByFunction function = groupByFunctions.getQuick(i);
+            final Class<?> clazz = function.getClass();
+            final int opCode;
+            final int columnIndex;
+            if (clazz == CountLongConstGroupByFunction.class) {
+                opCode = OP_COUNT;
+                columnIndex = -1;
+            } else if (clazz == CountDoubleGroupByFunction.class) {
+                opCode = OP_COUNT_DOUBLE;
+                columnIndex = doubleColumnIndex(((CountDoubleGroupByFunction) function).getArg());
+            } else if (clazz == SumDoubleGroupByFunction.class) {
+                opCode = OP_SUM_DOUBLE;
+                columnIndex = doubleColumnIndex(((SumDoubleGroupByFunction) function).getArg());
+            } else if (clazz == AvgDoubleGroupByFunction.class) {
+                opCode = OP_SUM_DOUBLE;
+                columnIndex = doubleColumnIndex(((AvgDoubleGroupByFunction) function).getArg());
+            } else if (clazz == MinDoubleGroupByFunction.class) {
+                opCode = OP_MIN_DOUBLE;
+                columnIndex = doubleColumnIndex(((MinDoubleGroupByFunction) function).getArg());
+            } else if (clazz == MaxDoubleGroupByFunction.class) {
+                opCode = OP_MAX_DOUBLE;
+                columnIndex = doubleColumnIndex(((MaxDoubleGroupByFunction) function).getArg());
+            } else if (clazz == SumLongGroupByFunction.class) {
+                opCode = OP_SUM_LONG;
+                columnIndex = longColumnIndex(((SumLongGroupByFunction) function).getArg());
+            } else if (clazz == MinLongGroupByFunction.class) {
+                opCode = OP_MIN_LONG;
+                columnIndex = longColumnIndex(((MinLongGroupByFunction) function).getArg());
+            } else if (clazz == MaxLongGroupByFunction.class) {
+                opCode = OP_MAX_LONG;
+                columnIndex = longColumnIndex(((MaxLongGroupByFunction) function).getArg());
+            } else {
+                return null;
+            }
+            if (opCode != OP_COUNT && columnIndex == -1) {
+                return null;
+            }
+            opCodes[i] = opCode;
+            columnIndexes[i] = columnIndex;
+            valueIndexes[i] = function.getValueIndex();
+        }
+        return new GroupByKernel(keyColumnIndex, longKey, opCodes, columnIndexes, valueIndexes);
+    }
+
+    /**
+     * Aggregates the current frame of the given record into the map.
+     *
+     * @param record         record initialized with the frame memory
+     * @param rows           filtered row indexes or null to aggregate all frame rows
+     * @param frameRowCount  frame row count; ignored when rows are given
+     * @param map            non-sharded destination map
+     * @param valueAddresses scratch list used to hold map value addresses, one per row
+     * @return false if the frame can't be handled by the kernel, e.g. due to a column top;
+     * in that case, the map is left intact and the caller has to aggregate the frame itself
+     */
+    public boolean aggregate(
+            PageFrameMemoryRecord record,
+            @Nullable DirectLongList rows,
+            long frameRowCount,
+            Map map,
+            DirectLongList valueAddresses
+    ) {
+        if (!(map instanceof Unordered4Map || map instanceof Unordered8Map)) {
+            return false;
+        }
+        final long keyAddress = record.getPageAddress(keyColumnIndex);
+        if (keyAddress == 0) {
+            return false;
+        }
+        for (int i = 0, n = columnIndexes.length; i < n; i++) {
+            if (opCodes[i] != OP_COUNT && record.getPageAddress(columnIndexes[i]) == 0) {
+                return false;
+            }
+        }
+
+        final long rowCount = rows != null ? rows.size() : frameRowCount;
+        resolveValues(keyAddress, rows, rowCount, map, valueAddresses);
+        for (int i = 0, n = opCodes.length; i < n; i++) {
+            final long columnAddress = opCodes[i] != OP_COUNT ? record.getPageAddress(columnIndexes[i]) : 0;
+            aggregateColumn(opCodes[i], valueIndexes[i], columnAddress, rows, rowCount, map, valueAddresses);
+        }
+        return true;
+    }
+
+    private static void aggregateColumn(
+            int opCode,
+            int valueIndex,
+            long columnAddress,
+            @Nullable DirectLongList rows,
+            long rowCount,
+            Map map,
+            DirectLongList valueAddresses
+    ) {
+        switch (opCode) {
+            case OP_COUNT:
+                for (long p = 0; p < rowCount; p++) {
+                    map.valueAt(valueAddresses.get(p)).addLong(valueIndex, 1);
+                }
+                break;
+            case OP_COUNT_DOUBLE:
+                for (long p = 0; p < rowCount; p++) {
+                    final double value = Unsafe.getUnsafe().getDouble(columnAddress + (rowIndex(rows, p) << 3));
+                    if (Numbers.isFinite(value)) {
+                        map.valueAt(valueAddresses.get(p)).addLong(valueIndex, 1);
+                    }
+                }
+                break;
+            case OP_SUM_DOUBLE:
+                for (long p = 0; p < rowCount; p++) {
+                    final double value = Unsafe.getUnsafe().getDouble(columnAddress + (rowIndex(rows, p) << 3));
+                    if (Numbers.isFinite(value)) {
+                        final MapValue mapValue = map.valueAt(valueAddresses.get(p));
+                        mapValue.addDouble(valueIndex, value);
+                        mapValue.addLong(valueIndex + 1, 1);
+                    }
+                }
+                break;
+            case OP_MIN_DOUBLE:
+                for (long p = 0; p < rowCount; p++) {
+                    final double value = Unsafe.getUnsafe().getDouble(columnAddress + (rowIndex(rows, p) << 3));
+                    final MapValue mapValue = map.valueAt(valueAddresses.get(p));
+                    final double min = mapValue.getDouble(valueIndex);
+                    if (value < min || Numbers.isNull(min)) {
+                        mapValue.putDouble(valueIndex, value);
+                    }
+                }
+                break;
+            case OP_MAX_DOUBLE:
+                for (long p = 0; p < rowCount; p++) {
+                    final double value = Unsafe.getUnsafe().getDouble(columnAddress + (rowIndex(rows, p) << 3));
+                    final MapValue mapValue = map.valueAt(valueAddresses.get(p));
+                    final double max = mapValue.getDouble(valueIndex);
+                    if (value > max || Numbers.isNull(max)) {
+                        mapValue.putDouble(valueIndex, value);
+                    }
+                }
+                break;
+            case OP_SUM_LONG:
+                for (long p = 0; p < rowCount; p++) {
+                    final long value = Unsafe.getUnsafe().getLong(columnAddress + (rowIndex(rows, p) << 3));
+                    if (value != Numbers.LONG_NULL) {
+                        final MapValue mapValue = map.valueAt(valueAddresses.get(p));
+                        mapValue.addLong(valueIndex, value);
+                        mapValue.addLong(valueIndex + 1, 1);
+                    }
+                }
+                break;
+            case OP_MIN_LONG:
+                for (long p = 0; p < rowCount; p++) {
+                    final long value = Unsafe.getUnsafe().getLong(columnAddress + (rowIndex(rows, p) << 3));
+                    map.valueAt(valueAddresses.get(p)).minLong(valueIndex, value);
+                }
+                break;
+            case OP_MAX_LONG:
+                for (long p = 0; p < rowCount; p++) {
+                    final long value = Unsafe.getUnsafe().getLong(columnAddress + (rowIndex(rows, p) << 3));
+                    map.valueAt(valueAddresses.get(p)).maxLong(valueIndex, value);
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException("unexpected op code: " + opCode);
+        }
+    }
+
+    private static int doubleColumnIndex(Function arg) {
+        return arg instanceof DoubleColumn ? ((DoubleColumn) arg).getColumnIndex() : -1;
+    }
+
+    private static int longColumnIndex(Function arg) {
+        return arg instanceof LongColumn ? ((LongColumn) arg).getColumnIndex() : -1;
+    }
+
+    private static long rowIndex(@Nullable DirectLongList rows, long p) {
+        return rows != null ? rows.get(p) : p;
+    }
+
+    // Puts the aggregates of a new key into the state that is equivalent to no rows seen,
+    // so that all rows, including the first one, are applied in the same way.
+    private void initValue(MapValue mapValue) {
+        for (int i = 0, n = opCodes.length; i < n; i++) {
+            final int valueIndex = valueIndexes[i];
+            switch (opCodes[i]) {
+                case OP_COUNT:
+                case OP_COUNT_DOUBLE:
+                    mapValue.putLong(valueIndex, 0);
+                    break;
+                case OP_SUM_DOUBLE:
+                    mapValue.putDouble(valueIndex, 0);
+                    mapValue.putLong(valueIndex + 1, 0);
+                    break;
+                case OP_MIN_DOUBLE:
+                case OP_MAX_DOUBLE:
+                    mapValue.putDouble(valueIndex, Double.NaN);
+                    break;
+                case OP_SUM_LONG:
+                    mapValue.putLong(valueIndex, 0);
+                    mapValue.putLong(valueIndex + 1, 0);
+                    break;
+                default:
+                    mapValue.putLong(valueIndex, Numbers.LONG_NULL);
+                    break;
+            }
+        }
+    }
+
+    private void resolveValues(
+            long keyAddress,
+            @Nullable DirectLongList rows,
+            long rowCount,
+            Map map,
+            DirectLongList valueAddresses
+    ) {
+        if (valueAddresses.getCapacity() < rowCount) {
+            valueAddresses.setCapacity(rowCount);
+        }
+        valueAddresses.setPos(rowCount);
+        int keyCapacity = map.getKeyCapacity();
+        for (long p = 0; p < rowCount; p++) {
+            final long r = rowIndex(rows, p);
+            final MapKey key = map.withKey();
+            if (longKey) {
+                key.putLong(Unsafe.getUnsafe().getLong(keyAddress + (r << 3)));
+            } else {
+                key.putInt(Unsafe.getUnsafe().getInt(keyAddress + (r << 2)));
+            }
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                initValue(value);
+            }
+            if (keyCapacity != map.getKeyCapacity()) {
+                // The map was rehashed, so the addresses resolved so far are stale.
+                // The keys are already in the map, so another pass won't create new values for them.
+                keyCapacity = map.getKeyCapacity();
+                p = -1;
+                continue;
+            }
+            valueAddresses.set(p, value.getStartAddress());
+        }
+    }
+}
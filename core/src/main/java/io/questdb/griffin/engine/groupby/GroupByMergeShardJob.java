@@ -27,7 +27,7 @@ package io.questdb.griffin.engine.groupby;
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
 import io.questdb.cairo.sql.ExecutionCircuitBreaker;
-import io.questdb.griffin.engine.table.AsyncGroupByAtom;
+import io.questdb.griffin.engine.table.ShardMergeAtom;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.AbstractQueueConsumerJob;
@@ -49,12 +49,12 @@ public class GroupByMergeShardJob extends AbstractQueueConsumerJob<GroupByMergeS
             GroupByMergeShardTask task,
             Sequence subSeq,
             long cursor,
-            AsyncGroupByAtom stealingAtom
+            ShardMergeAtom stealingAtom
     ) {
         final AtomicBooleanCircuitBreaker circuitBreaker = task.getCircuitBreaker();
         final AtomicInteger startedCounter = task.getStartedCounter();
         final CountDownLatchSPI doneLatch = task.getDoneLatch();
-        final AsyncGroupByAtom atom = task.getAtom();
+        final ShardMergeAtom atom = task.getAtom();
         final int shardIndex = task.getShardIndex();
 
         task.clear();
@@ -414,6 +414,15 @@ public class GroupByUtils {
         return true;
     }
 
+    public static boolean isSpillSupported(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (!functions.getQuick(i).isSpillSupported()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static void prepareWorkerGroupByFunctions(
             @NotNull QueryModel model,
             @NotNull RecordMetadata metadata,
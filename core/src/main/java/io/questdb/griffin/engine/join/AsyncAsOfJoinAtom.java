@@ -0,0 +1,382 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SingleRecordSink;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.TimeFrame;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.table.TimeFrameRecordCursorImpl;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Rows;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds the per-worker state of {@link AsyncAsOfJoinRecordCursorFactory}.
+ * <p>
+ * Each worker slot owns a {@link SlaveLookup} that navigates the slave time frames on its own,
+ * while sharing page frame addresses with the slave cursor of the query thread. A lookup finds
+ * the slave row for each master row of a page frame, so that master page frames can be joined
+ * independently of each other.
+ */
+public class AsyncAsOfJoinAtom implements StatefulAtom {
+    private final SlaveLookup ownerLookup;
+    private final ObjList<SlaveLookup> perWorkerLookups;
+    private final PerWorkerLocks perWorkerLocks;
+
+    public AsyncAsOfJoinAtom(
+            @NotNull CairoConfiguration configuration,
+            @NotNull RecordMetadata slaveMetadata,
+            @Nullable RecordSink masterKeySink,
+            @Nullable RecordSink slaveKeySink,
+            int masterTimestampIndex,
+            long toleranceInterval,
+            boolean strict,
+            int workerCount
+    ) {
+        assert (masterKeySink == null) == (slaveKeySink == null);
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        try {
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+            ownerLookup = new SlaveLookup(configuration, slaveMetadata, masterKeySink, slaveKeySink, masterTimestampIndex, toleranceInterval, strict);
+            perWorkerLookups = new ObjList<>(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerLookups.extendAndSet(i, new SlaveLookup(configuration, slaveMetadata, masterKeySink, slaveKeySink, masterTimestampIndex, toleranceInterval, strict));
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void clear() {
+        Misc.free(ownerLookup);
+        Misc.freeObjListAndKeepObjects(perWorkerLookups);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerLookup);
+        Misc.freeObjList(perWorkerLookups);
+    }
+
+    public SlaveLookup getLookup(int slotId) {
+        if (slotId == -1) {
+            return ownerLookup;
+        }
+        return perWorkerLookups.getQuick(slotId);
+    }
+
+    /**
+     * Attempts to acquire a slot for the given worker thread.
+     * On success, a {@link #release(int)} call must follow.
+     *
+     * @throws io.questdb.cairo.CairoException when circuit breaker has tripped
+     */
+    public int maybeAcquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own private lookup anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    /**
+     * Makes the lookups navigate time frames of the given slave cursor. Must be called
+     * on the query thread before page frames are dispatched.
+     */
+    public void of(TimeFrameRecordCursorImpl slaveCursor) {
+        int frameCount = 0;
+        slaveCursor.toTop();
+        while (slaveCursor.next()) {
+            frameCount++;
+        }
+        slaveCursor.toTop();
+
+        ownerLookup.of(slaveCursor, frameCount);
+        for (int i = 0, n = perWorkerLookups.size(); i < n; i++) {
+            perWorkerLookups.getQuick(i).of(slaveCursor, frameCount);
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    /**
+     * Finds slave rows for master rows that come in ascending timestamp order, such as rows
+     * of a single master page frame. The lookup is the same as in {@link AbstractAsOfJoinFastRecordCursor}:
+     * the last slave row with timestamp less or equal to the master one is located, and then,
+     * for keyed joins, slave rows are scanned backwards until the join key matches.
+     */
+    public static class SlaveLookup implements QuietCloseable {
+        private final int lookahead;
+        private final RecordSink masterKeySink;
+        private final SingleRecordSink masterSinkTarget;
+        private final int masterTimestampIndex;
+        private final Record slaveRecord;
+        private final SingleRecordSink slaveSinkTarget;
+        private final TimeFrameRecordCursorImpl slaveTimeFrameCursor;
+        private final RecordSink slaveKeySink;
+        private final int slaveTimestampIndex;
+        // LT join looks for strictly lower slave timestamps
+        private final boolean strict;
+        private final long toleranceInterval;
+        // the frame that holds the last found row, -1 when not positioned yet
+        private int frameIndex = -1;
+        private long frameRow;
+        private long frameRowHi;
+        private int frameCount;
+        // index of the first frame after the current one that was not looked into yet
+        // and the lower bound of its timestamps
+        private int nextFrameIndex;
+        private long nextFrameTimestampLo;
+        private TimeFrame timeFrame;
+
+        private SlaveLookup(
+                CairoConfiguration configuration,
+                RecordMetadata slaveMetadata,
+                @Nullable RecordSink masterKeySink,
+                @Nullable RecordSink slaveKeySink,
+                int masterTimestampIndex,
+                long toleranceInterval,
+                boolean strict
+        ) {
+            this.masterKeySink = masterKeySink;
+            this.slaveKeySink = slaveKeySink;
+            this.masterTimestampIndex = masterTimestampIndex;
+            this.slaveTimestampIndex = slaveMetadata.getTimestampIndex();
+            this.toleranceInterval = toleranceInterval;
+            this.strict = strict;
+            this.lookahead = configuration.getSqlAsOfJoinLookAhead();
+            this.slaveTimeFrameCursor = new TimeFrameRecordCursorImpl(configuration, slaveMetadata);
+            this.slaveRecord = slaveTimeFrameCursor.getRecord();
+            if (masterKeySink != null) {
+                final long maxSinkTargetHeapSize = (long) configuration.getSqlHashJoinValuePageSize() * configuration.getSqlHashJoinValueMaxPages();
+                masterSinkTarget = new SingleRecordSink(maxSinkTargetHeapSize, MemoryTag.NATIVE_RECORD_CHAIN);
+                slaveSinkTarget = new SingleRecordSink(maxSinkTargetHeapSize, MemoryTag.NATIVE_RECORD_CHAIN);
+            } else {
+                masterSinkTarget = null;
+                slaveSinkTarget = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            Misc.free(slaveTimeFrameCursor);
+            Misc.free(masterSinkTarget);
+            Misc.free(slaveSinkTarget);
+        }
+
+        /**
+         * Returns row id of the slave row that joins the given master row, or -1 when there is none.
+         * Master rows passed to this method since the last {@link #toTop()} call must be
+         * in ascending timestamp order.
+         */
+        public long find(Record masterRecord, SqlExecutionCircuitBreaker circuitBreaker) {
+            final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+            final long rowId = findNotKeyed(strict ? masterTimestamp - 1 : masterTimestamp);
+            if (rowId == -1) {
+                return -1;
+            }
+            if (masterKeySink == null) {
+                slaveTimeFrameCursor.recordAt(slaveRecord, rowId);
+                return isWithinTolerance(masterTimestamp) ? rowId : -1;
+            }
+            return findKeyed(masterRecord, masterTimestamp, rowId, circuitBreaker);
+        }
+
+        public void toTop() {
+            frameIndex = -1;
+            if (masterSinkTarget != null) {
+                masterSinkTarget.reopen();
+                slaveSinkTarget.reopen();
+            }
+        }
+
+        // Returns true when the frame following the current one may hold rows with timestamps
+        // less or equal to the given one, and moves to that frame.
+        private boolean advance(long timestamp) {
+            if (timestamp < nextFrameTimestampLo) {
+                return false;
+            }
+            for (int i = nextFrameIndex; i < frameCount; i++) {
+                slaveTimeFrameCursor.jumpTo(i);
+                if (timestamp < timeFrame.getTimestampEstimateLo()) {
+                    nextFrameIndex = i;
+                    nextFrameTimestampLo = timeFrame.getTimestampEstimateLo();
+                    return false;
+                }
+                final long rowCount = slaveTimeFrameCursor.open();
+                if (rowCount > 0) {
+                    if (timestamp < timeFrame.getTimestampLo()) {
+                        nextFrameIndex = i;
+                        nextFrameTimestampLo = timeFrame.getTimestampLo();
+                        return false;
+                    }
+                    openFrame(i, rowCount);
+                    return true;
+                }
+            }
+            nextFrameIndex = frameCount;
+            nextFrameTimestampLo = Long.MAX_VALUE;
+            return false;
+        }
+
+        private long findKeyed(Record masterRecord, long masterTimestamp, long rowId, SqlExecutionCircuitBreaker circuitBreaker) {
+            masterSinkTarget.clear();
+            masterKeySink.copy(masterRecord, masterSinkTarget);
+
+            int keyedFrameIndex = Rows.toPartitionIndex(rowId);
+            long keyedRow = Rows.toLocalRowID(rowId);
+            slaveTimeFrameCursor.recordAt(slaveRecord, rowId);
+            while (true) {
+                if (!isWithinTolerance(masterTimestamp)) {
+                    return -1;
+                }
+
+                slaveSinkTarget.clear();
+                slaveKeySink.copy(slaveRecord, slaveSinkTarget);
+                if (masterSinkTarget.memeq(slaveSinkTarget)) {
+                    return Rows.toRowID(keyedFrameIndex, keyedRow);
+                }
+
+                if (--keyedRow < 0) {
+                    // this frame is exhausted, move to the previous non-empty one
+                    do {
+                        if (--keyedFrameIndex < 0) {
+                            return -1;
+                        }
+                        slaveTimeFrameCursor.jumpTo(keyedFrameIndex);
+                        keyedRow = slaveTimeFrameCursor.open() - 1;
+                    } while (keyedRow < 0);
+                    slaveTimeFrameCursor.recordAt(slaveRecord, Rows.toRowID(keyedFrameIndex, keyedRow));
+                } else {
+                    slaveTimeFrameCursor.recordAtRowIndex(slaveRecord, keyedRow);
+                }
+                circuitBreaker.statefulThrowExceptionIfTripped();
+            }
+        }
+
+        // Finds the last slave row with timestamp less or equal to the given one.
+        private long findNotKeyed(long timestamp) {
+            if (frameIndex == -1 && !seek(timestamp)) {
+                return -1;
+            }
+            while (true) {
+                frameRow = searchFrame(timestamp);
+                if (frameRow < frameRowHi - 1 || !advance(timestamp)) {
+                    return Rows.toRowID(frameIndex, frameRow);
+                }
+            }
+        }
+
+        private boolean isWithinTolerance(long masterTimestamp) {
+            return toleranceInterval == Numbers.LONG_NULL
+                    || slaveRecord.getTimestamp(slaveTimestampIndex) >= masterTimestamp - toleranceInterval;
+        }
+
+        private void of(TimeFrameRecordCursorImpl slaveCursor, int frameCount) {
+            slaveTimeFrameCursor.ofShared(slaveCursor);
+            timeFrame = slaveTimeFrameCursor.getTimeFrame();
+            this.frameCount = frameCount;
+            toTop();
+        }
+
+        private void openFrame(int frameIndex, long rowCount) {
+            this.frameIndex = frameIndex;
+            frameRow = 0;
+            frameRowHi = rowCount;
+            nextFrameIndex = frameIndex + 1;
+            nextFrameTimestampLo = Long.MIN_VALUE;
+        }
+
+        // Finds the last row in the current frame with timestamp less or equal to the given one.
+        // The current frame row is known to satisfy the condition.
+        private long searchFrame(long timestamp) {
+            long lo = frameRow;
+            long hi = frameRowHi - 1;
+            slaveTimeFrameCursor.recordAt(slaveRecord, Rows.toRowID(frameIndex, lo));
+
+            // scan a few rows to speed up the case of interleaved master and slave rows
+            final long scanHi = Math.min(lo + lookahead, hi);
+            while (lo < scanHi) {
+                slaveTimeFrameCursor.recordAtRowIndex(slaveRecord, lo + 1);
+                if (slaveRecord.getTimestamp(slaveTimestampIndex) > timestamp) {
+                    return lo;
+                }
+                lo++;
+            }
+
+            while (lo < hi) {
+                final long mid = (lo + hi + 1) >>> 1;
+                slaveTimeFrameCursor.recordAtRowIndex(slaveRecord, mid);
+                if (slaveRecord.getTimestamp(slaveTimestampIndex) > timestamp) {
+                    hi = mid - 1;
+                } else {
+                    lo = mid;
+                }
+            }
+            return lo;
+        }
+
+        // Positions the lookup at the last non-empty frame that starts at or before the given timestamp.
+        private boolean seek(long timestamp) {
+            // binary search for the last frame that may hold the timestamp
+            int lo = 0;
+            int hi = frameCount - 1;
+            while (lo < hi) {
+                final int mid = (lo + hi + 1) >>> 1;
+                slaveTimeFrameCursor.jumpTo(mid);
+                if (timeFrame.getTimestampEstimateLo() > timestamp) {
+                    hi = mid - 1;
+                } else {
+                    lo = mid;
+                }
+            }
+
+            for (int i = hi; i > -1; i--) {
+                slaveTimeFrameCursor.jumpTo(i);
+                final long rowCount = slaveTimeFrameCursor.open();
+                if (rowCount > 0 && timeFrame.getTimestampLo() <= timestamp) {
+                    openFrame(i, rowCount);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
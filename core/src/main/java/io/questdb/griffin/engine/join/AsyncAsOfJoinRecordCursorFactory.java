@@ -0,0 +1,441 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.TimeFrameRecordCursorImpl;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.PartitionFrameCursorFactory.ORDER_ASC;
+
+/**
+ * ASOF and LT join that looks up slave rows for master page frames in parallel. Master page
+ * frames are dispatched to the shared workers, each of them navigating the slave time frames
+ * on its own to find the joined slave row for every master row of the frame. Found row ids are
+ * then collected on the query thread in the frame order, so that the output keeps the master
+ * order just like {@link AsOfJoinFastRecordCursorFactory} and {@link AsOfJoinNoKeyFastRecordCursorFactory} do.
+ */
+public class AsyncAsOfJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final Log LOG = LogFactory.getLog(AsyncAsOfJoinRecordCursorFactory.class);
+    private static final PageFrameReducer LOOKUP = AsyncAsOfJoinRecordCursorFactory::lookup;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncAsOfJoinRecordCursor cursor;
+    private final PageFrameSequence<AsyncAsOfJoinAtom> frameSequence;
+    private final boolean isKeyed;
+    private final boolean isLtJoin;
+    private final int workerCount;
+
+    public AsyncAsOfJoinRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory masterFactory,
+            @Nullable RecordSink masterKeySink,
+            @NotNull RecordCursorFactory slaveFactory,
+            @Nullable RecordSink slaveKeySink,
+            int columnSplit,
+            @Nullable JoinContext joinContext,
+            long toleranceInterval,
+            boolean isLtJoin,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        assert masterFactory.supportsPageFrameCursor();
+        assert slaveFactory.supportsTimeFrameCursor();
+        try {
+            this.isKeyed = masterKeySink != null;
+            this.isLtJoin = isLtJoin;
+            this.workerCount = workerCount;
+            final AsyncAsOfJoinAtom atom = new AsyncAsOfJoinAtom(
+                    configuration,
+                    slaveFactory.getMetadata(),
+                    masterKeySink,
+                    slaveKeySink,
+                    masterFactory.getMetadata().getTimestampIndex(),
+                    toleranceInterval,
+                    isLtJoin,
+                    workerCount
+            );
+            this.frameSequence = new PageFrameSequence<>(
+                    configuration,
+                    messageBus,
+                    atom,
+                    LOOKUP,
+                    reduceTaskFactory,
+                    workerCount,
+                    PageFrameReduceTask.TYPE_ASOF_JOIN
+            );
+            this.cursor = new AsyncAsOfJoinRecordCursor(columnSplit, NullRecordFactory.getInstance(slaveFactory.getMetadata()));
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        // Forcefully disable column pre-touch for nested filter queries.
+        executionContext.setColumnPreTouchEnabled(false);
+        TimeFrameRecordCursorImpl slaveCursor = null;
+        try {
+            slaveCursor = (TimeFrameRecordCursorImpl) slaveFactory.getTimeFrameCursor(executionContext);
+            frameSequence.getAtom().of(slaveCursor);
+            cursor.of(frameSequence.of(masterFactory, executionContext, collectSubSeq, ORDER_ASC), slaveCursor);
+            return cursor;
+        } catch (Throwable e) {
+            frameSequence.getAtom().clear();
+            Misc.free(slaveCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(isLtJoin ? "Async Lt Join" : "Async AsOf Join");
+        sink.meta("workers").val(workerCount);
+        if (isKeyed) {
+            sink.attr("condition").val(joinContext);
+        }
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
+    private static void lookup(
+            int workerId,
+            @NotNull PageFrameMemoryRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncAsOfJoinAtom atom = task.getFrameSequence(AsyncAsOfJoinAtom.class).getAtom();
+
+        final DirectLongList rows = task.getFilteredRows();
+        rows.clear();
+
+        // Key sinks may read symbols as strings. Both the task record and the lookup's slave
+        // records resolve symbol tables via newSymbolTable(), so every worker reads symbols
+        // through its own tables rather than the shared reader's ones.
+        record.init(task.populateFrameMemory());
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.maybeAcquire(workerId, owner, circuitBreaker);
+        try {
+            final AsyncAsOfJoinAtom.SlaveLookup slaveLookup = atom.getLookup(slotId);
+            slaveLookup.toTop();
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                rows.add(slaveLookup.find(record, circuitBreaker));
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(cursor);
+        Misc.free(frameSequence);
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+    }
+
+    private static class AsyncAsOfJoinRecordCursor extends AbstractJoinCursor {
+        private final PageFrameMemoryRecord masterRecord;
+        private final OuterJoinRecord record;
+        private boolean allFramesActive;
+        private long cursor = -1;
+        private int frameIndex;
+        private int frameLimit;
+        private long frameRowCount;
+        private long frameRowIndex;
+        private PageFrameSequence<AsyncAsOfJoinAtom> frameSequence;
+        private boolean isOpen;
+        private DirectLongList rows;
+        private TimeFrameRecordCursorImpl slaveTimeFrameCursor;
+        private Record slaveRecord;
+
+        public AsyncAsOfJoinRecordCursor(int columnSplit, Record nullRecord) {
+            super(columnSplit);
+            masterRecord = new PageFrameMemoryRecord(PageFrameMemoryRecord.RECORD_A_LETTER);
+            record = new OuterJoinRecord(columnSplit, nullRecord);
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                if (frameSequence != null) {
+                    LOG.debug()
+                            .$("closing [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(frameIndex)
+                            .$(", frameCount=").$(frameLimit)
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+
+                    collectCursor(true);
+                    if (frameLimit > -1) {
+                        frameSequence.await();
+                    }
+                    // frees per-worker slave lookups before the slave cursor they share frames with
+                    frameSequence.clear();
+                }
+                Misc.free(masterRecord);
+                slaveRecord = null;
+                slaveTimeFrameCursor = Misc.free(slaveTimeFrameCursor);
+                super.close();
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+            }
+            return slaveTimeFrameCursor.getSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public boolean hasNext() {
+            // Check for the first hasNext call.
+            if (frameIndex == -1) {
+                fetchNextFrame();
+            }
+
+            // We have rows in the current frame we still need to dispatch
+            if (frameRowIndex < frameRowCount) {
+                nextRow();
+                return true;
+            }
+
+            // Release the previous queue item.
+            // There is no identity check here because this check
+            // had been done when 'cursor' was assigned.
+            collectCursor(false);
+
+            // Do we have more frames?
+            if (frameIndex < frameLimit) {
+                fetchNextFrame();
+                if (frameRowIndex < frameRowCount) {
+                    nextRow();
+                    return true;
+                }
+            }
+
+            if (!allFramesActive) {
+                throwTimeoutException();
+            }
+            return false;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+            }
+            return slaveTimeFrameCursor.newSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public long preComputedStateSize() {
+            return 0;
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            collectCursor(false);
+            frameSequence.toTop();
+            // Don't reset frameLimit here since its value is used to prepare frame sequence for dispatch only once.
+            frameIndex = -1;
+            frameRowIndex = -1;
+            frameRowCount = -1;
+            allFramesActive = true;
+        }
+
+        private void collectCursor(boolean forceCollect) {
+            if (cursor > -1) {
+                frameSequence.collect(cursor, forceCollect);
+                // It is necessary to clear 'cursor' value
+                // because we updated frameIndex and loop can exit due to lack of frames.
+                // Non-update of 'cursor' could cause double-free.
+                cursor = -1;
+                // We also need to clear the record as it's initialized with the task's
+                // page frame memory that is now closed.
+                masterRecord.clear();
+            }
+        }
+
+        private void fetchNextFrame() {
+            if (frameLimit == -1) {
+                frameSequence.prepareForDispatch();
+                frameLimit = frameSequence.getFrameCount() - 1;
+            }
+
+            try {
+                do {
+                    cursor = frameSequence.next();
+                    if (cursor > -1) {
+                        PageFrameReduceTask task = frameSequence.getTask(cursor);
+                        LOG.debug()
+                                .$("collected [shard=").$(frameSequence.getShard())
+                                .$(", frameIndex=").$(task.getFrameIndex())
+                                .$(", frameCount=").$(frameSequence.getFrameCount())
+                                .$(", frameId=").$(frameSequence.getId())
+                                .$(", active=").$(frameSequence.isActive())
+                                .$(", cursor=").$(cursor)
+                                .I$();
+
+                        if (task.hasError()) {
+                            throw CairoException.nonCritical()
+                                    .position(task.getErrorMessagePosition())
+                                    .put(task.getErrorMsg())
+                                    .setCancellation(task.isCancelled())
+                                    .setInterruption(task.isCancelled())
+                                    .setOutOfMemory(task.isOutOfMemory());
+                        }
+
+                        allFramesActive &= frameSequence.isActive();
+                        rows = task.getFilteredRows();
+                        frameRowCount = rows.size();
+                        frameIndex = task.getFrameIndex();
+                        frameRowIndex = 0;
+                        if (frameRowCount > 0 && frameSequence.isActive()) {
+                            masterRecord.init(task.getFrameMemory());
+                            break;
+                        } else {
+                            // Force reset frame size if frameSequence was canceled or failed.
+                            frameRowCount = 0;
+                            collectCursor(false);
+                        }
+                    } else if (cursor == -2) {
+                        break; // No frames to join
+                    } else {
+                        Os.pause();
+                    }
+                } while (frameIndex < frameLimit);
+            } catch (Throwable th) {
+                if (th instanceof CairoException) {
+                    CairoException ce = (CairoException) th;
+                    if (ce.isInterruption() || ce.isCancellation()) {
+                        LOG.error().$("join error [ex=").$safe(ce.getFlyweightMessage()).I$();
+                        throwTimeoutException();
+                    } else {
+                        LOG.error().$("join error [ex=").$(th).I$();
+                        throw ce;
+                    }
+                }
+                LOG.error().$("join error [ex=").$(th).I$();
+                throw CairoException.nonCritical().put(th.getMessage());
+            }
+        }
+
+        private void nextRow() {
+            masterRecord.setRowIndex(frameRowIndex);
+            final long slaveRowId = rows.get(frameRowIndex++);
+            if (slaveRowId != -1) {
+                slaveTimeFrameCursor.recordAt(slaveRecord, slaveRowId);
+                record.hasSlave(true);
+            } else {
+                record.hasSlave(false);
+            }
+        }
+
+        private void throwTimeoutException() {
+            if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+                throw CairoException.queryCancelled();
+            } else {
+                throw CairoException.queryTimedOut();
+            }
+        }
+
+        void of(PageFrameSequence<AsyncAsOfJoinAtom> frameSequence, TimeFrameRecordCursorImpl slaveTimeFrameCursor) {
+            isOpen = true;
+            this.frameSequence = frameSequence;
+            this.slaveTimeFrameCursor = slaveTimeFrameCursor;
+            slaveRecord = slaveTimeFrameCursor.getRecordB();
+            frameIndex = -1;
+            frameLimit = -1;
+            frameRowIndex = -1;
+            frameRowCount = -1;
+            allFramesActive = true;
+            masterRecord.of(frameSequence.getSymbolTableSource());
+            record.of(masterRecord, slaveRecord);
+        }
+    }
+}
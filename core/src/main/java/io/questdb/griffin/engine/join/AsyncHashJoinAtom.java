@@ -0,0 +1,386 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.ExecutionCircuitBreaker;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.table.ShardMergeAtom;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+
+/**
+ * Holds the state of the parallel build phase of {@link AsyncHashJoinLightRecordCursorFactory}.
+ * <p>
+ * Each worker slot owns a fragment that consists of a key-to-chain map and a {@link LinkedLongChain}
+ * with row ids of slave rows. Once all page frames are reduced, the fragment maps are merged
+ * into a single map (or a set of shard maps, when the maps are large) that holds the total row
+ * count for each key followed by the head and the tail of a single chain. The fragment chains
+ * of a key are linked into that chain rather than copied, so the merge costs O(keys) rather
+ * than O(rows).
+ */
+public class AsyncHashJoinAtom implements StatefulAtom, ShardMergeAtom, Closeable, Reopenable {
+    // Per-fragment map value layout.
+    public static final int FRAGMENT_VALUE_CHAIN_HEAD = 2;
+    public static final int FRAGMENT_VALUE_CHAIN_TAIL = 0;
+    public static final int FRAGMENT_VALUE_COUNT = 1;
+    // Merged map value layout.
+    public static final int MERGED_VALUE_CHAIN_HEAD = 1;
+    public static final int MERGED_VALUE_CHAIN_TAIL = 2;
+    public static final int MERGED_VALUE_COUNT = 0;
+    // We use the first 8 bits of a hash code to determine the shard.
+    private static final int MAX_SHARDS = 128;
+    private final ChainCursor chainCursor = new ChainCursor();
+    private final CairoConfiguration configuration;
+    private final ObjList<Map> destShards;
+    private final ArrayColumnTypes destValueTypes;
+    private final ColumnTypes keyTypes;
+    private final JoinFragment ownerFragment;
+    private final ObjList<JoinFragment> perWorkerFragments;
+    private final PerWorkerLocks perWorkerLocks;
+    private final int shardCount;
+    private final int shardCountShr;
+    private final RecordSink slaveKeySink;
+    private final ColumnTypes valueTypes;
+    private Map destMap;
+    // Set to true if we had to shard during the last query execution.
+    private boolean lastSharded;
+    private volatile boolean sharded;
+
+    public AsyncHashJoinAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @NotNull RecordSink slaveKeySink,
+            int workerCount
+    ) {
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        try {
+            this.configuration = configuration;
+            this.keyTypes = new ArrayColumnTypes().addAll(keyTypes);
+            this.slaveKeySink = slaveKeySink;
+            this.valueTypes = new ArrayColumnTypes()
+                    .add(ColumnType.LONG) // chain tail reference
+                    .add(ColumnType.INT) // record count for the key
+                    .add(ColumnType.LONG); // chain head reference
+            this.destValueTypes = new ArrayColumnTypes()
+                    .add(ColumnType.INT) // total record count for the key
+                    .add(ColumnType.LONG) // merged chain head reference
+                    .add(ColumnType.LONG); // merged chain tail reference
+
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+
+            shardCount = Math.min(Numbers.ceilPow2(2 * workerCount), MAX_SHARDS);
+            shardCountShr = Long.numberOfLeadingZeros(shardCount) + 1;
+            // Chain indexes match fragment indexes, the owner fragment goes first.
+            ownerFragment = new JoinFragment(0);
+            perWorkerFragments = new ObjList<>(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerFragments.extendAndSet(i, new JoinFragment(i + 1));
+            }
+            // Destination shards are lazily initialized by the worker threads.
+            destShards = new ObjList<>(shardCount);
+            destShards.setPos(shardCount);
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void clear() {
+        sharded = false;
+        Misc.free(ownerFragment);
+        Misc.freeObjListAndKeepObjects(perWorkerFragments);
+        Misc.freeObjListAndKeepObjects(destShards);
+        Misc.free(destMap);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerFragment);
+        Misc.freeObjList(perWorkerFragments);
+        Misc.freeObjList(destShards);
+        destMap = Misc.free(destMap);
+    }
+
+    /**
+     * Returns a cursor over slave row ids of the merged chain that starts with the given tail.
+     */
+    public ChainCursor getChainCursor(long tailRef) {
+        chainCursor.of(tailRef);
+        return chainCursor;
+    }
+
+    public ObjList<Map> getDestShards() {
+        return destShards;
+    }
+
+    public Map getDestShardMap(long hashCode) {
+        return destShards.getQuick((int) (hashCode >>> shardCountShr));
+    }
+
+    public JoinFragment getFragment(int slotId) {
+        if (slotId == -1) {
+            return ownerFragment;
+        }
+        return perWorkerFragments.getQuick(slotId);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public RecordSink getSlaveKeySink() {
+        return slaveKeySink;
+    }
+
+    public boolean isSharded() {
+        return sharded;
+    }
+
+    @Override
+    public int maybeAcquire(int workerId, boolean owner, ExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own private fragment anytime.
+            return -1;
+        }
+        // All other threads, e.g. worker or work stealing threads, must always acquire a lock
+        // to use shared resources.
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    public Map mergeOwnerMap() {
+        lastSharded = false;
+        if (destMap == null) {
+            destMap = MapFactory.createUnorderedMap(configuration, keyTypes, destValueTypes);
+        } else {
+            destMap.reopen();
+        }
+        mergeFragmentMap(ownerFragment.map, destMap);
+        for (int i = 0, n = perWorkerFragments.size(); i < n; i++) {
+            mergeFragmentMap(perWorkerFragments.getQuick(i).map, destMap);
+        }
+        return destMap;
+    }
+
+    @Override
+    public void mergeShard(int slotId, int shardIndex) {
+        assert sharded;
+
+        Map destShard = destShards.getQuick(shardIndex);
+        if (destShard == null) {
+            destShard = MapFactory.createUnorderedMap(configuration, keyTypes, destValueTypes);
+            destShards.set(shardIndex, destShard);
+        } else {
+            destShard.reopen();
+        }
+
+        mergeFragmentMap(ownerFragment.shards.getQuick(shardIndex), destShard);
+        for (int i = 0, n = perWorkerFragments.size(); i < n; i++) {
+            mergeFragmentMap(perWorkerFragments.getQuick(i).shards.getQuick(shardIndex), destShard);
+        }
+    }
+
+    @Override
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void reopen() {
+        if (lastSharded) {
+            // Looks like we had to shard during previous execution, so let's do it ahead of time.
+            sharded = true;
+        }
+        // The maps and chains will be open lazily by worker threads.
+    }
+
+    public void requestSharding(JoinFragment fragment) {
+        if (!sharded && fragment.map.size() > configuration.getGroupByShardingThreshold()) {
+            sharded = true;
+        }
+    }
+
+    public void shardAll() {
+        lastSharded = true;
+        ownerFragment.shard();
+        for (int i = 0, n = perWorkerFragments.size(); i < n; i++) {
+            perWorkerFragments.getQuick(i).shard();
+        }
+    }
+
+    private LinkedLongChain getChain(int chainIndex) {
+        return chainIndex == 0 ? ownerFragment.chain : perWorkerFragments.getQuick(chainIndex - 1).chain;
+    }
+
+    private void mergeFragmentMap(Map srcMap, Map destMap) {
+        if (srcMap.isOpen() && srcMap.size() > 0) {
+            final RecordCursor cursor = srcMap.getCursor();
+            final MapRecord record = srcMap.getRecord();
+            while (cursor.hasNext()) {
+                final MapKey destKey = destMap.withKey();
+                record.copyToKey(destKey);
+                final MapValue destValue = destKey.createValue(record.keyHashCode());
+                final MapValue srcValue = record.getValue();
+                if (destValue.isNew()) {
+                    destValue.putInt(MERGED_VALUE_COUNT, srcValue.getInt(FRAGMENT_VALUE_COUNT));
+                    destValue.putLong(MERGED_VALUE_CHAIN_TAIL, srcValue.getLong(FRAGMENT_VALUE_CHAIN_TAIL));
+                } else {
+                    destValue.addInt(MERGED_VALUE_COUNT, srcValue.getInt(FRAGMENT_VALUE_COUNT));
+                    // Append the fragment chain to the merged one: the merged head becomes the fragment tail's child.
+                    // Each key belongs to a single shard, so shard merge workers never link the same values.
+                    final long headRef = destValue.getLong(MERGED_VALUE_CHAIN_HEAD);
+                    getChain(LinkedLongChain.chainIndexOf(headRef)).setParentRef(headRef, srcValue.getLong(FRAGMENT_VALUE_CHAIN_TAIL));
+                }
+                destValue.putLong(MERGED_VALUE_CHAIN_HEAD, srcValue.getLong(FRAGMENT_VALUE_CHAIN_HEAD));
+            }
+        }
+        srcMap.close();
+    }
+
+    public class ChainCursor {
+        private long nextRef;
+
+        public boolean hasNext() {
+            return nextRef != -1;
+        }
+
+        public long next() {
+            final LinkedLongChain chain = getChain(LinkedLongChain.chainIndexOf(nextRef));
+            final long value = chain.getValue(nextRef);
+            nextRef = chain.getParentRef(nextRef);
+            return value;
+        }
+
+        void of(long tailRef) {
+            this.nextRef = tailRef;
+        }
+    }
+
+    public class JoinFragment implements QuietCloseable {
+        private final LinkedLongChain chain;
+        private final Map map; // non-sharded partial result
+        private final ObjList<Map> shards; // this.map split into shards
+        private boolean sharded;
+
+        private JoinFragment(int chainIndex) {
+            this.map = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+            this.shards = new ObjList<>(shardCount);
+            this.chain = new LinkedLongChain(chainIndex, configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+            // Chain memory is allocated lazily, on the first use by a worker.
+            chain.close();
+        }
+
+        @Override
+        public void close() {
+            sharded = false;
+            map.close();
+            chain.close();
+            for (int i = 0, n = shards.size(); i < n; i++) {
+                Misc.free(shards.getQuick(i));
+            }
+        }
+
+        public LinkedLongChain getChain() {
+            return chain;
+        }
+
+        public Map getShardMap(long hashCode) {
+            return shards.getQuick((int) (hashCode >>> shardCountShr));
+        }
+
+        public ObjList<Map> getShards() {
+            return shards;
+        }
+
+        public boolean isNotSharded() {
+            return !sharded;
+        }
+
+        public Map reopen() {
+            chain.reopen();
+            if (!map.isOpen()) {
+                map.reopen();
+            }
+            return map;
+        }
+
+        public void shard() {
+            if (sharded) {
+                return;
+            }
+
+            reopenShards();
+
+            if (map.isOpen() && map.size() > 0) {
+                RecordCursor cursor = map.getCursor();
+                MapRecord record = map.getRecord();
+                while (cursor.hasNext()) {
+                    final long hashCode = record.keyHashCode();
+                    final Map shard = getShardMap(hashCode);
+                    MapKey shardKey = shard.withKey();
+                    record.copyToKey(shardKey);
+                    MapValue shardValue = shardKey.createValue(hashCode);
+                    record.copyValue(shardValue);
+                }
+            }
+
+            map.close();
+            sharded = true;
+        }
+
+        private void reopenShards() {
+            int size = shards.size();
+            if (size == 0) {
+                for (int i = 0; i < shardCount; i++) {
+                    shards.add(MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes));
+                }
+            } else {
+                assert size == shardCount;
+                for (int i = 0; i < shardCount; i++) {
+                    shards.getQuick(i).reopen();
+                }
+            }
+        }
+    }
+}
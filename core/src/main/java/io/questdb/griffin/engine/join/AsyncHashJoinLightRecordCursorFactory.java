@@ -0,0 +1,616 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.PageFrameMemoryPool;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.sql.async.WorkStealingStrategy;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.groupby.GroupByMergeShardJob;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.MCSequence;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SCSequence;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+import io.questdb.std.Transient;
+import io.questdb.tasks.GroupByMergeShardTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.questdb.cairo.sql.PartitionFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Inner hash join that builds the slave side hash table in parallel. Slave page frames
+ * are dispatched to the shared workers, each of them building its own partial hash table
+ * of row ids. Partial tables are then merged, in parallel if they had to be sharded,
+ * and probed by the master cursor on the query thread, so that the output keeps
+ * the master order just like {@link HashJoinLightRecordCursorFactory} does.
+ */
+public class AsyncHashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final PageFrameReducer BUILD = AsyncHashJoinLightRecordCursorFactory::build;
+    private static final Log LOG = LogFactory.getLog(AsyncHashJoinLightRecordCursorFactory.class);
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncHashJoinRecordCursor cursor;
+    private final PageFrameSequence<AsyncHashJoinAtom> frameSequence;
+    private final RecordSink masterSink;
+    private final int workerCount;
+
+    public AsyncHashJoinLightRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory masterFactory,
+            @NotNull RecordCursorFactory slaveFactory,
+            @Transient @NotNull ArrayColumnTypes joinColumnTypes,
+            @NotNull RecordSink masterSink,
+            @NotNull RecordSink slaveKeySink,
+            int columnSplit,
+            @Nullable JoinContext joinContext,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int workerCount
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        try {
+            this.masterSink = masterSink;
+            final AsyncHashJoinAtom atom = new AsyncHashJoinAtom(configuration, joinColumnTypes, slaveKeySink, workerCount);
+            this.frameSequence = new PageFrameSequence<>(
+                    configuration,
+                    messageBus,
+                    atom,
+                    BUILD,
+                    reduceTaskFactory,
+                    workerCount,
+                    PageFrameReduceTask.TYPE_HASH_JOIN_BUILD
+            );
+            this.cursor = new AsyncHashJoinRecordCursor(configuration, messageBus, columnSplit);
+            this.workerCount = workerCount;
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        // Forcefully disable column pre-touch for nested filter queries.
+        executionContext.setColumnPreTouchEnabled(false);
+        RecordCursor masterCursor = masterFactory.getCursor(executionContext);
+        try {
+            cursor.of(masterCursor, frameSequence.of(slaveFactory, executionContext, collectSubSeq, ORDER_ASC), executionContext);
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(masterCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(TableToken tableToken) {
+        return masterFactory.supportsUpdateRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Hash Join Light");
+        sink.meta("workers").val(workerCount);
+        sink.attr("condition").val(joinContext);
+        sink.child(masterFactory);
+        sink.child("Hash", slaveFactory);
+    }
+
+    private static void build(
+            int workerId,
+            @NotNull PageFrameMemoryRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        assert frameRowCount > 0;
+        final AsyncHashJoinAtom atom = task.getFrameSequence(AsyncHashJoinAtom.class).getAtom();
+
+        final PageFrameMemory frameMemory = task.populateFrameMemory();
+        record.init(frameMemory);
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        try {
+            final int slotId = atom.maybeAcquire(workerId, owner, circuitBreaker);
+            final AsyncHashJoinAtom.JoinFragment fragment = atom.getFragment(slotId);
+            final RecordSink keySink = atom.getSlaveKeySink();
+            try {
+                if (atom.isSharded()) {
+                    fragment.shard();
+                }
+
+                record.setRowIndex(0);
+                final long baseRowId = record.getRowId();
+
+                if (fragment.isNotSharded()) {
+                    buildNonSharded(record, frameRowCount, baseRowId, fragment, keySink);
+                } else {
+                    buildSharded(record, frameRowCount, baseRowId, fragment, keySink);
+                }
+
+                atom.requestSharding(fragment);
+            } finally {
+                atom.release(slotId);
+            }
+        } finally {
+            task.releaseFrameMemory();
+        }
+    }
+
+    private static void buildNonSharded(
+            PageFrameMemoryRecord record,
+            long frameRowCount,
+            long baseRowId,
+            AsyncHashJoinAtom.JoinFragment fragment,
+            RecordSink keySink
+    ) {
+        final Map map = fragment.reopen();
+        final LinkedLongChain chain = fragment.getChain();
+        for (long r = 0; r < frameRowCount; r++) {
+            record.setRowIndex(r);
+
+            final MapKey key = map.withKey();
+            keySink.copy(record, key);
+            putRowId(key.createValue(), chain, baseRowId + r);
+        }
+    }
+
+    private static void buildSharded(
+            PageFrameMemoryRecord record,
+            long frameRowCount,
+            long baseRowId,
+            AsyncHashJoinAtom.JoinFragment fragment,
+            RecordSink keySink
+    ) {
+        final LinkedLongChain chain = fragment.getChain();
+        chain.reopen();
+        // The first map is used to write keys.
+        final Map lookupShard = fragment.getShards().getQuick(0);
+        for (long r = 0; r < frameRowCount; r++) {
+            record.setRowIndex(r);
+
+            final MapKey lookupKey = lookupShard.withKey();
+            keySink.copy(record, lookupKey);
+            lookupKey.commit();
+            final long hashCode = lookupKey.hash();
+
+            final Map shard = fragment.getShardMap(hashCode);
+            final MapKey shardKey;
+            if (shard != lookupShard) {
+                shardKey = shard.withKey();
+                shardKey.copyFrom(lookupKey);
+            } else {
+                shardKey = lookupKey;
+            }
+
+            putRowId(shardKey.createValue(hashCode), chain, baseRowId + r);
+        }
+    }
+
+    private static void putRowId(MapValue value, LinkedLongChain chain, long rowId) {
+        if (value.isNew()) {
+            final long ref = chain.put(rowId, -1);
+            value.putLong(AsyncHashJoinAtom.FRAGMENT_VALUE_CHAIN_TAIL, ref);
+            value.putInt(AsyncHashJoinAtom.FRAGMENT_VALUE_COUNT, 1);
+            value.putLong(AsyncHashJoinAtom.FRAGMENT_VALUE_CHAIN_HEAD, ref);
+        } else {
+            value.putLong(AsyncHashJoinAtom.FRAGMENT_VALUE_CHAIN_TAIL, chain.put(rowId, value.getLong(AsyncHashJoinAtom.FRAGMENT_VALUE_CHAIN_TAIL)));
+            value.addInt(AsyncHashJoinAtom.FRAGMENT_VALUE_COUNT, 1);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(cursor);
+        Misc.free(frameSequence);
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+    }
+
+    private class AsyncHashJoinRecordCursor extends AbstractJoinCursor {
+        private final PageFrameMemoryPool frameMemoryPool;
+        private final AtomicBooleanCircuitBreaker mergeCircuitBreaker; // used to signal cancellation to merge shard workers
+        private final SOUnboundedCountDownLatch mergeDoneLatch = new SOUnboundedCountDownLatch(); // used for merge shard workers
+        private final AtomicInteger mergeStartedCounter = new AtomicInteger();
+        private final MessageBus messageBus;
+        private final JoinRecord record;
+        private final PageFrameMemoryRecord slaveRecord;
+        private AsyncHashJoinAtom atom;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private int frameLimit;
+        private PageFrameSequence<AsyncHashJoinAtom> frameSequence;
+        private boolean isMapBuilt;
+        private boolean isOpen;
+        private Map joinKeyMap; // null when the map is sharded
+        private Record masterRecord;
+        private long size = -1;
+        private AsyncHashJoinAtom.ChainCursor slaveChainCursor;
+
+        public AsyncHashJoinRecordCursor(CairoConfiguration configuration, MessageBus messageBus, int columnSplit) {
+            super(columnSplit);
+            try {
+                this.messageBus = messageBus;
+                isOpen = true;
+                record = new JoinRecord(columnSplit);
+                slaveRecord = new PageFrameMemoryRecord(PageFrameMemoryRecord.RECORD_A_LETTER);
+                frameMemoryPool = new PageFrameMemoryPool(configuration.getSqlParquetFrameCacheCapacity());
+                mergeCircuitBreaker = new AtomicBooleanCircuitBreaker();
+            } catch (Throwable th) {
+                close();
+                throw th;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                size = -1;
+                joinKeyMap = null;
+                slaveChainCursor = null;
+                Misc.free(slaveRecord);
+                Misc.free(frameMemoryPool);
+                if (frameSequence != null) {
+                    LOG.debug()
+                            .$("closing [shard=").$(frameSequence.getShard())
+                            .$(", frameCount=").$(frameLimit)
+                            .I$();
+
+                    if (frameLimit > -1) {
+                        frameSequence.await();
+                    }
+                    frameSequence.clear();
+                }
+                super.close();
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.getSymbolTable(columnIndex);
+            }
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public boolean hasNext() {
+            buildMapConditionally();
+
+            if (nextSlaveRow()) {
+                return true;
+            }
+
+            while (masterCursor.hasNext()) {
+                final MapValue matchValue = findValue(masterRecord);
+                if (matchValue != null) {
+                    slaveChainCursor = atom.getChainCursor(matchValue.getLong(AsyncHashJoinAtom.MERGED_VALUE_CHAIN_TAIL));
+                    // we know there is at least one value in the chain
+                    return nextSlaveRow();
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            if (columnIndex < columnSplit) {
+                return masterCursor.newSymbolTable(columnIndex);
+            }
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex - columnSplit);
+        }
+
+        @Override
+        public long preComputedStateSize() {
+            return isMapBuilt ? 1 : 0;
+        }
+
+        @Override
+        public long size() {
+            if (size > -1) {
+                return size;
+            }
+            buildMapConditionally();
+            long size = 0;
+            try {
+                masterCursor.toTop();
+                while (masterCursor.hasNext()) {
+                    final MapValue value = findValue(masterRecord);
+                    if (value != null) {
+                        size += value.getInt(AsyncHashJoinAtom.MERGED_VALUE_COUNT);
+                    }
+                }
+            } finally {
+                masterCursor.toTop();
+            }
+            return this.size = size;
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            slaveChainCursor = null;
+        }
+
+        private void buildMap() {
+            if (frameLimit == -1) {
+                frameSequence.prepareForDispatch();
+                frameLimit = frameSequence.getFrameCount() - 1;
+            }
+
+            int frameIndex = -1;
+            boolean allFramesActive = true;
+            try {
+                do {
+                    final long cursor = frameSequence.next();
+                    if (cursor > -1) {
+                        PageFrameReduceTask task = frameSequence.getTask(cursor);
+                        LOG.debug()
+                                .$("collected [shard=").$(frameSequence.getShard())
+                                .$(", frameIndex=").$(task.getFrameIndex())
+                                .$(", frameCount=").$(frameSequence.getFrameCount())
+                                .$(", active=").$(frameSequence.isActive())
+                                .$(", cursor=").$(cursor)
+                                .I$();
+                        if (task.hasError()) {
+                            throw CairoException.nonCritical()
+                                    .position(task.getErrorMessagePosition())
+                                    .put(task.getErrorMsg())
+                                    .setCancellation(task.isCancelled())
+                                    .setInterruption(task.isCancelled())
+                                    .setOutOfMemory(task.isOutOfMemory());
+                        }
+
+                        allFramesActive &= frameSequence.isActive();
+                        frameIndex = task.getFrameIndex();
+
+                        frameSequence.collect(cursor, false);
+                    } else if (cursor == -2) {
+                        break; // No frames to build the hash table from.
+                    } else {
+                        Os.pause();
+                    }
+                } while (frameIndex < frameLimit);
+            } catch (CairoException e) {
+                if (e.isInterruption()) {
+                    throwTimeoutException();
+                } else {
+                    throw e;
+                }
+            }
+
+            if (!allFramesActive) {
+                throwTimeoutException();
+            }
+
+            if (!atom.isSharded()) {
+                // No sharding was necessary, so the maps are small, and we merge them ourselves.
+                joinKeyMap = atom.mergeOwnerMap();
+            } else {
+                // We had to shard the maps, so they must be big.
+                mergeShards();
+                joinKeyMap = null;
+            }
+
+            frameMemoryPool.of(frameSequence.getPageFrameAddressCache());
+            isMapBuilt = true;
+        }
+
+        private void buildMapConditionally() {
+            if (!isMapBuilt) {
+                buildMap();
+            }
+        }
+
+        private MapValue findValue(Record masterRecord) {
+            if (joinKeyMap != null) {
+                final MapKey key = joinKeyMap.withKey();
+                key.put(masterRecord, masterSink);
+                return key.findValue();
+            }
+
+            // The first shard is used to write keys.
+            final Map lookupShard = atom.getDestShards().getQuick(0);
+            final MapKey lookupKey = lookupShard.withKey();
+            lookupKey.put(masterRecord, masterSink);
+            lookupKey.commit();
+            final long hashCode = lookupKey.hash();
+
+            final Map shard = atom.getDestShardMap(hashCode);
+            if (shard != lookupShard) {
+                final MapKey shardKey = shard.withKey();
+                shardKey.copyFrom(lookupKey);
+                return shardKey.findValue();
+            }
+            return lookupKey.findValue();
+        }
+
+        private void mergeShards() {
+            mergeCircuitBreaker.reset();
+            mergeStartedCounter.set(0);
+            mergeDoneLatch.reset();
+
+            // First, make sure to shard all non-sharded maps, if any.
+            atom.shardAll();
+
+            // Next, merge each set of partial shard maps into the final shard map. This is done in parallel.
+            final int shardCount = atom.getShardCount();
+            final RingQueue<GroupByMergeShardTask> queue = messageBus.getGroupByMergeShardQueue();
+            final MPSequence pubSeq = messageBus.getGroupByMergeShardPubSeq();
+            final MCSequence subSeq = messageBus.getGroupByMergeShardSubSeq();
+            final WorkStealingStrategy workStealingStrategy = frameSequence.getWorkStealingStrategy().of(mergeStartedCounter);
+
+            int queuedCount = 0;
+            int mergedCount = 0; // used for work stealing decisions
+
+            try {
+                for (int i = 0; i < shardCount; i++) {
+                    while (true) {
+                        long cursor = pubSeq.next();
+                        if (cursor < 0) {
+                            circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+
+                            if (workStealingStrategy.shouldSteal(mergedCount)) {
+                                atom.mergeShard(-1, i);
+                                mergedCount = mergeDoneLatch.getCount();
+                                break;
+                            }
+                            mergedCount = mergeDoneLatch.getCount();
+                        } else {
+                            queue.get(cursor).of(mergeCircuitBreaker, mergeStartedCounter, mergeDoneLatch, atom, i);
+                            pubSeq.done(cursor);
+                            queuedCount++;
+                            break;
+                        }
+                    }
+                }
+            } catch (Throwable th) {
+                mergeCircuitBreaker.cancel();
+                throw th;
+            } finally {
+                // Wait for the queued merge tasks to finish, helping the workers if we're allowed to.
+                while (!mergeDoneLatch.done(queuedCount)) {
+                    if (circuitBreaker.checkIfTripped()) {
+                        mergeCircuitBreaker.cancel();
+                    }
+
+                    if (workStealingStrategy.shouldSteal(mergedCount)) {
+                        long cursor = subSeq.next();
+                        if (cursor > -1) {
+                            GroupByMergeShardTask task = queue.get(cursor);
+                            GroupByMergeShardJob.run(-1, task, subSeq, cursor, atom);
+                        } else {
+                            Os.pause();
+                        }
+                    } else {
+                        Os.pause();
+                    }
+                    mergedCount = mergeDoneLatch.getCount();
+                }
+            }
+
+            if (mergeCircuitBreaker.checkIfTripped()) {
+                throwTimeoutException();
+            }
+        }
+
+        private boolean nextSlaveRow() {
+            if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
+                final long rowId = slaveChainCursor.next();
+                frameMemoryPool.navigateTo(Rows.toPartitionIndex(rowId), slaveRecord);
+                slaveRecord.setRowIndex(Rows.toLocalRowID(rowId));
+                return true;
+            }
+            slaveChainCursor = null;
+            return false;
+        }
+
+        private void throwTimeoutException() {
+            if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+                throw CairoException.queryCancelled();
+            } else {
+                throw CairoException.queryTimedOut();
+            }
+        }
+
+        private void of(
+                RecordCursor masterCursor,
+                PageFrameSequence<AsyncHashJoinAtom> frameSequence,
+                SqlExecutionContext executionContext
+        ) {
+            this.frameSequence = frameSequence;
+            atom = frameSequence.getAtom();
+            if (!isOpen) {
+                isOpen = true;
+                atom.reopen();
+            }
+            this.masterCursor = masterCursor;
+            circuitBreaker = executionContext.getCircuitBreaker();
+            masterRecord = masterCursor.getRecord();
+            slaveRecord.of(frameSequence.getSymbolTableSource());
+            record.of(masterRecord, slaveRecord);
+            joinKeyMap = null;
+            slaveChainCursor = null;
+            size = -1;
+            frameLimit = -1;
+            isMapBuilt = false;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.Reopenable;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * A native memory heap-based chain of long values, one of a set of chains that may be linked
+ * together. Used to store row id lists in parallel hash joins, where each build fragment appends
+ * to its own chain and the fragment chains of a key are then linked into a single chain.
+ * <p>
+ * For each long value also stores a reference to its parent (previous in the chain) value.
+ * A reference holds the index of the chain in the high 32 bits and the compressed offset
+ * of the value in the chain's heap memory in the low 32 bits. Value addresses are 8-byte aligned.
+ */
+public class LinkedLongChain implements Closeable, Reopenable {
+    private static final long CHAIN_VALUE_SIZE = 16;
+    private static final long MAX_HEAP_SIZE_LIMIT = (Integer.toUnsignedLong(-1) - 1) << 3;
+    private final int chainIndex;
+    private final long initialHeapSize;
+    private final long maxHeapSize;
+    private long heapLimit;
+    private long heapPos;
+    private long heapSize;
+    private long heapStart;
+
+    public LinkedLongChain(int chainIndex, long valuePageSize, int valueMaxPages) {
+        this.chainIndex = chainIndex;
+        heapSize = initialHeapSize = valuePageSize;
+        heapStart = heapPos = Unsafe.malloc(heapSize, MemoryTag.NATIVE_DEFAULT);
+        heapLimit = heapStart + heapSize;
+        maxHeapSize = Math.min(valuePageSize * valueMaxPages, MAX_HEAP_SIZE_LIMIT);
+    }
+
+    public static int chainIndexOf(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    @Override
+    public void close() {
+        if (heapStart != 0) {
+            heapStart = Unsafe.free(heapStart, heapSize, MemoryTag.NATIVE_DEFAULT);
+            heapLimit = heapPos = 0;
+            heapSize = 0;
+        }
+    }
+
+    public long getParentRef(long ref) {
+        return Unsafe.getUnsafe().getLong(heapStart + uncompressOffset(ref) + 8);
+    }
+
+    public long getValue(long ref) {
+        return Unsafe.getUnsafe().getLong(heapStart + uncompressOffset(ref));
+    }
+
+    /**
+     * Appends the value to the chain.
+     *
+     * @param value     value
+     * @param parentRef reference of the parent value, -1 if there is none
+     * @return reference of the appended value
+     */
+    public long put(long value, long parentRef) {
+        checkCapacity();
+
+        final long appendRawOffset = heapPos - heapStart;
+        Unsafe.getUnsafe().putLong(heapPos, value);
+        Unsafe.getUnsafe().putLong(heapPos + 8, parentRef);
+        heapPos += CHAIN_VALUE_SIZE;
+        return ((long) chainIndex << 32) | (appendRawOffset >>> 3);
+    }
+
+    @Override
+    public void reopen() {
+        if (heapStart == 0) {
+            heapSize = initialHeapSize;
+            heapStart = heapPos = Unsafe.malloc(heapSize, MemoryTag.NATIVE_DEFAULT);
+            heapLimit = heapStart + heapSize;
+        }
+    }
+
+    /**
+     * Links the value to a parent value, possibly stored in another chain.
+     */
+    public void setParentRef(long ref, long parentRef) {
+        Unsafe.getUnsafe().putLong(heapStart + uncompressOffset(ref) + 8, parentRef);
+    }
+
+    private static long uncompressOffset(long ref) {
+        return (ref & 0xffffffffL) << 3;
+    }
+
+    private void checkCapacity() {
+        if (heapPos + CHAIN_VALUE_SIZE > heapLimit) {
+            final long newHeapSize = heapSize << 1;
+            if (newHeapSize > maxHeapSize) {
+                throw LimitOverflowException.instance().put("limit of ").put(maxHeapSize).put(" memory exceeded in LinkedLongChain");
+            }
+            long newHeapPos = Unsafe.realloc(heapStart, heapSize, newHeapSize, MemoryTag.NATIVE_DEFAULT);
+
+            heapSize = newHeapSize;
+            long delta = newHeapPos - heapStart;
+            heapPos += delta;
+
+            this.heapStart = newHeapPos;
+            this.heapLimit = newHeapPos + newHeapSize;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.ops;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GenericRecordMetadata;
+import io.questdb.cairo.TableColumnMetadata;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameAddressCache;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.PageFrameMemoryPool;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.PartitionFrameCursorFactory;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.SingleValueRecordCursor;
+import io.questdb.griffin.engine.table.parquet.ParquetStreamEncoder;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.str.Path;
+
+/**
+ * Executes COPY ... TO statement lazily, i.e. on record cursor initialization. The query
+ * result is written to a Parquet file under the COPY root directory one row group at a
+ * time, so memory usage does not depend on the result size. Forward table scans are
+ * read frame by frame, this way fixed-width columns are written straight from the
+ * column memory.
+ * <p>
+ * The cursor has a single row, which holds the number of exported rows.
+ */
+public class CopyExportFactory extends AbstractRecordCursorFactory {
+    private final static GenericRecordMetadata METADATA = new GenericRecordMetadata();
+    private final RecordCursorFactory base;
+    private final CairoConfiguration configuration;
+    private final String fileName;
+    private final Path path = new Path();
+    private final CopyExportRecord record = new CopyExportRecord();
+    private final SingleValueRecordCursor cursor = new SingleValueRecordCursor(record);
+    private ParquetStreamEncoder encoder;
+    private long fd = -1;
+    private long fileSize;
+    private PageFrameAddressCache frameAddressCache;
+    private PageFrameMemoryPool frameMemoryPool;
+    private PageFrameMemoryRecord frameRecord;
+
+    public CopyExportFactory(CairoConfiguration configuration, RecordCursorFactory base, String fileName) {
+        super(METADATA);
+        this.configuration = configuration;
+        this.base = base;
+        this.fileName = fileName;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final FilesFacade ff = configuration.getFilesFacade();
+        path.of(configuration.getSqlCopyInputRoot()).concat(fileName);
+        fd = ff.openRW(path.$(), configuration.getWriterFileOpenOpts());
+        if (fd < 0) {
+            throw CairoException.critical(ff.errno()).put("could not open export file [path=").put(path).put(']');
+        }
+        fileSize = 0;
+        boolean success = false;
+        try {
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate export file [path=").put(path).put(']');
+            }
+            if (encoder == null) {
+                encoder = new ParquetStreamEncoder(MemoryTag.NATIVE_DEFAULT);
+            }
+            encoder.of(base.getMetadata());
+            encoder.encodeHeader();
+            writeSegments(ff);
+
+            final long rowCount;
+            if (base.supportsPageFrameCursor() && base.getScanDirection() == SCAN_DIRECTION_FORWARD) {
+                try (PageFrameCursor frameCursor = base.getPageFrameCursor(executionContext, PartitionFrameCursorFactory.ORDER_ASC)) {
+                    rowCount = exportFrames(ff, frameCursor, executionContext.getCircuitBreaker());
+                } finally {
+                    // release frame memory before the partitions it came from are closed
+                    if (frameMemoryPool != null) {
+                        frameMemoryPool.clear();
+                        frameRecord.clear();
+                        frameAddressCache.clear();
+                    }
+                }
+            } else {
+                try (RecordCursor baseCursor = base.getCursor(executionContext)) {
+                    rowCount = exportRecords(ff, baseCursor, executionContext.getCircuitBreaker());
+                }
+            }
+
+            encoder.encodeFooter();
+            writeSegments(ff);
+            record.setValue(rowCount);
+            cursor.toTop();
+            success = true;
+            return cursor;
+        } finally {
+            ff.close(fd);
+            fd = -1;
+            if (encoder != null) {
+                encoder.clear();
+            }
+            if (!success) {
+                // do not leave a truncated file behind
+                ff.removeQuiet(path.$());
+            }
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Copy Export");
+        sink.attr("file").val(fileName);
+        sink.child(base);
+    }
+
+    private long exportFrames(FilesFacade ff, PageFrameCursor frameCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (frameAddressCache == null) {
+            frameAddressCache = new PageFrameAddressCache(configuration);
+            frameMemoryPool = new PageFrameMemoryPool(configuration.getSqlParquetFrameCacheCapacity());
+            frameRecord = new PageFrameMemoryRecord(PageFrameMemoryRecord.RECORD_A_LETTER);
+        }
+        frameAddressCache.of(base.getMetadata(), frameCursor.getColumnIndexes());
+        frameMemoryPool.of(frameAddressCache);
+        frameRecord.of(frameCursor);
+
+        long rowCount = 0;
+        int frameCount = 0;
+        PageFrame frame;
+        while ((frame = frameCursor.next()) != null) {
+            frameAddressCache.add(frameCount, frame);
+            final PageFrameMemory frameMemory = frameMemoryPool.navigateTo(frameCount++);
+            frameRecord.init(frameMemory);
+            final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+            long rowLo = 0;
+            while (rowLo < frameRowCount) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                encoder.startBatch();
+                final long rowHi = Math.min(frameRowCount, rowLo + encoder.getMaxBatchRowCount());
+                rowLo += encoder.appendFrame(frameMemory, frameRecord, rowLo, rowHi);
+                rowCount += encoder.getBatchRowCount();
+                encoder.encodeBatch();
+                writeSegments(ff);
+            }
+        }
+        return rowCount;
+    }
+
+    private long exportRecords(FilesFacade ff, RecordCursor baseCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        final Record baseRecord = baseCursor.getRecord();
+        long rowCount = 0;
+        boolean hasNext = baseCursor.hasNext();
+        while (hasNext) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            encoder.startBatch();
+            do {
+                encoder.appendRecord(baseRecord);
+                hasNext = baseCursor.hasNext();
+            } while (hasNext && !encoder.isBatchFull());
+            rowCount += encoder.getBatchRowCount();
+            encoder.encodeBatch();
+            writeSegments(ff);
+        }
+        return rowCount;
+    }
+
+    private void writeSegments(FilesFacade ff) {
+        for (int i = 0, n = encoder.getSegmentCount(); i < n; i++) {
+            final long size = encoder.getSegmentSize(i);
+            if (ff.write(fd, encoder.getSegmentAddress(i), size, fileSize) != size) {
+                throw CairoException.critical(ff.errno()).put("could not write export file [path=").put(path).put(']');
+            }
+            fileSize += size;
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(path);
+        encoder = Misc.free(encoder);
+        frameMemoryPool = Misc.free(frameMemoryPool);
+        frameRecord = Misc.free(frameRecord);
+    }
+
+    private static class CopyExportRecord implements Record {
+        private long value;
+
+        @Override
+        public long getLong(int col) {
+            return value;
+        }
+
+        public void setValue(long value) {
+            this.value = value;
+        }
+    }
+
+    static {
+        METADATA.add(new TableColumnMetadata("rows", ColumnType.LONG));
+    }
+}
@@ -0,0 +1,351 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.Path;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared state of the parallel single column sort. Each page frame owns a disjoint
+ * region of the value/row id buffer, so that workers may encode and sort their frames
+ * without any coordination. Sorted runs are then merged by the query thread.
+ * <p>
+ * When the buffers would exceed the spill threshold, they are allocated in a memory-mapped
+ * spill file instead of the native heap, so that the OS may write sorted runs back to disk
+ * and evict them under memory pressure rather than the sort running out of memory.
+ */
+class AsyncLongSortAtom implements StatefulAtom, Reopenable {
+    private static final int CIRCUIT_BREAKER_CHECK_MASK = 0xFFFF;
+    private static final Log LOG = LogFactory.getLog(AsyncLongSortAtom.class);
+    private static final AtomicLong SPILL_FILE_COUNTER = new AtomicLong();
+    private final int columnIndex;
+    private final int columnTypeTag;
+    private final CairoConfiguration configuration;
+    // Holds <value, rowId> pairs; sorted runs are written here by the workers.
+    private final DirectLongList frameValueRowIds;
+    private final LongList frameOffsets = new LongList(); // first pair index of each frame's run
+    // Heap of run indexes used in k-way merge; ordered by the current value of each run.
+    private final IntList mergeHeap = new IntList();
+    private final LongList mergePositions = new LongList(); // current pair index of each run
+    // Holds merged <value, rowId> pairs; also used as scratch space by radix sort.
+    private final DirectLongList mergedValueRowIds;
+    private final long radixSortThreshold;
+    // Max size of both buffers kept in the native heap; 0 means no limit.
+    private final long spillThreshold;
+    private long frameAddr;
+    private long mergedAddr;
+    private long sortedAddr;
+    private long spillAddr;
+    private long spillFd = -1;
+    private Path spillPath;
+    private long spillSize;
+    private long totalRowCount;
+
+    public AsyncLongSortAtom(CairoConfiguration configuration, int columnIndex, int columnType) {
+        try {
+            this.configuration = configuration;
+            this.columnIndex = columnIndex;
+            this.columnTypeTag = ColumnType.tagOf(columnType);
+            radixSortThreshold = configuration.getSqlOrderByRadixSortThreshold();
+            spillThreshold = configuration.getSqlParallelOrderBySpillThreshold();
+            frameValueRowIds = new DirectLongList(configuration.getSqlSortLightValuePageSize() / 16, MemoryTag.NATIVE_DEFAULT);
+            mergedValueRowIds = new DirectLongList(configuration.getSqlSortLightValuePageSize() / 16, MemoryTag.NATIVE_DEFAULT);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void clear() {
+        // release the buffers, they are sized to the whole result set
+        Misc.free(frameValueRowIds);
+        Misc.free(mergedValueRowIds);
+        closeSpill();
+        frameOffsets.clear();
+        mergeHeap.clear();
+        mergePositions.clear();
+        frameAddr = 0;
+        mergedAddr = 0;
+        sortedAddr = 0;
+        totalRowCount = 0;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(frameValueRowIds);
+        Misc.free(mergedValueRowIds);
+        closeSpill();
+        spillPath = Misc.free(spillPath);
+        frameAddr = 0;
+        mergedAddr = 0;
+        sortedAddr = 0;
+    }
+
+    /**
+     * Returns address of sorted <value, rowId> pairs, 16 bytes each. Must be called after
+     * {@link #merge(SqlExecutionCircuitBreaker)}.
+     */
+    public long getSortedValueRowIdsAddress() {
+        return sortedAddr;
+    }
+
+    public long getTotalRowCount() {
+        return totalRowCount;
+    }
+
+    /**
+     * Merges sorted frame runs into a single sorted sequence. Must be called
+     * once all frames were reduced.
+     */
+    public void merge(SqlExecutionCircuitBreaker circuitBreaker) {
+        final int runCount = frameOffsets.size();
+        if (runCount < 2) {
+            // A single run is already sorted.
+            sortedAddr = frameAddr;
+            return;
+        }
+
+        mergeHeap.clear();
+        mergePositions.clear();
+        for (int i = 0; i < runCount; i++) {
+            mergePositions.add(frameOffsets.getQuick(i));
+            if (runLimit(i) > frameOffsets.getQuick(i)) {
+                mergeHeap.add(i);
+                siftUp(mergeHeap.size() - 1);
+            }
+        }
+
+        final long srcAddr = frameAddr;
+        final long dstAddr = mergedAddr;
+        long dstPos = 0;
+        while (mergeHeap.size() > 0) {
+            if ((dstPos & CIRCUIT_BREAKER_CHECK_MASK) == 0) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+            }
+            final int run = mergeHeap.getQuick(0);
+            final long pos = mergePositions.getQuick(run);
+            final long src = srcAddr + (pos << 4);
+            final long dst = dstAddr + (dstPos++ << 4);
+            Unsafe.getUnsafe().putLong(dst, Unsafe.getUnsafe().getLong(src));
+            Unsafe.getUnsafe().putLong(dst + 8, Unsafe.getUnsafe().getLong(src + 8));
+            if (pos + 1 < runLimit(run)) {
+                mergePositions.setQuick(run, pos + 1);
+            } else {
+                // The run is exhausted, so replace it with the last one.
+                final int last = mergeHeap.size() - 1;
+                mergeHeap.setQuick(0, mergeHeap.getQuick(last));
+                mergeHeap.setPos(last);
+            }
+            if (mergeHeap.size() > 0) {
+                siftDown(0);
+            }
+        }
+        sortedAddr = mergedAddr;
+    }
+
+    /**
+     * Allocates buffer space for all frames. Must be called before frames are dispatched to workers.
+     */
+    public void of(PageFrameSequence<?> frameSequence) {
+        frameOffsets.clear();
+        long offset = 0;
+        for (int i = 0, n = frameSequence.getFrameCount(); i < n; i++) {
+            frameOffsets.add(offset);
+            offset += frameSequence.getFrameRowCount(i);
+        }
+        totalRowCount = offset;
+        frameValueRowIds.clear();
+        mergedValueRowIds.clear();
+        closeSpill();
+        frameAddr = 0;
+        mergedAddr = 0;
+        sortedAddr = 0;
+        if (totalRowCount > 0) {
+            final long bufferSize = totalRowCount << 4;
+            if (spillThreshold > 0 && 2 * bufferSize > spillThreshold) {
+                openSpill(2 * bufferSize);
+                frameAddr = spillAddr;
+                mergedAddr = spillAddr + bufferSize;
+            } else {
+                frameValueRowIds.setCapacity(totalRowCount << 1);
+                frameValueRowIds.setPos(totalRowCount << 1);
+                mergedValueRowIds.setCapacity(totalRowCount << 1);
+                frameAddr = frameValueRowIds.getAddress();
+                mergedAddr = mergedValueRowIds.getAddress();
+            }
+        }
+    }
+
+    @Override
+    public void reopen() {
+        frameValueRowIds.reopen();
+        mergedValueRowIds.reopen();
+    }
+
+    /**
+     * Encodes and sorts rows of a single frame. Called by the workers and the query thread.
+     */
+    public void sortFrame(PageFrameMemoryRecord record, int frameIndex, long frameRowCount, long baseRowId) {
+        final long lo = frameOffsets.getQuick(frameIndex);
+        final long runAddr = frameAddr + (lo << 4);
+        long p = runAddr;
+        switch (columnTypeTag) {
+            case ColumnType.INT:
+                for (long r = 0; r < frameRowCount; r++, p += 16) {
+                    record.setRowIndex(r);
+                    final int value = record.getInt(columnIndex);
+                    // sort assumes unsigned 64-bit integers,
+                    // so we flip the highest bit to get the correct order
+                    Unsafe.getUnsafe().putLong(p, (value != Numbers.INT_NULL ? value : Numbers.LONG_NULL) ^ Long.MIN_VALUE);
+                    Unsafe.getUnsafe().putLong(p + 8, baseRowId + r);
+                }
+                break;
+            case ColumnType.IPv4:
+                for (long r = 0; r < frameRowCount; r++, p += 16) {
+                    record.setRowIndex(r);
+                    Unsafe.getUnsafe().putLong(p, record.getLongIPv4(columnIndex) ^ Long.MIN_VALUE);
+                    Unsafe.getUnsafe().putLong(p + 8, baseRowId + r);
+                }
+                break;
+            default:
+                for (long r = 0; r < frameRowCount; r++, p += 16) {
+                    record.setRowIndex(r);
+                    Unsafe.getUnsafe().putLong(p, record.getLong(columnIndex) ^ Long.MIN_VALUE);
+                    Unsafe.getUnsafe().putLong(p + 8, baseRowId + r);
+                }
+                break;
+        }
+
+        if (frameRowCount > radixSortThreshold) {
+            // merge buffer isn't in use yet, so we use the frame's region as radix sort scratch space
+            Vect.radixSortLongIndexAscInPlace(runAddr, frameRowCount, mergedAddr + (lo << 4));
+        } else {
+            Vect.quickSortLongIndexAscInPlace(runAddr, frameRowCount);
+        }
+    }
+
+    private void closeSpill() {
+        final FilesFacade ff = configuration.getFilesFacade();
+        if (spillAddr != 0) {
+            ff.munmap(spillAddr, spillSize, MemoryTag.MMAP_DEFAULT);
+            spillAddr = 0;
+            spillSize = 0;
+        }
+        if (spillFd != -1) {
+            ff.close(spillFd);
+            ff.removeQuiet(spillPath.$());
+            spillFd = -1;
+        }
+    }
+
+    private boolean less(int runA, int runB) {
+        final long pA = frameAddr + (mergePositions.getQuick(runA) << 4);
+        final long pB = frameAddr + (mergePositions.getQuick(runB) << 4);
+        final int cmp = Long.compareUnsigned(Unsafe.getUnsafe().getLong(pA), Unsafe.getUnsafe().getLong(pB));
+        if (cmp != 0) {
+            return cmp < 0;
+        }
+        // equal values keep the scan order, just like in the single-threaded sort
+        return Unsafe.getUnsafe().getLong(pA + 8) < Unsafe.getUnsafe().getLong(pB + 8);
+    }
+
+    private void openSpill(long size) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        if (spillPath == null) {
+            spillPath = new Path();
+        }
+        spillPath.of(configuration.getGroupBySpillRoot()).slash();
+        if (ff.mkdirs(spillPath, configuration.getMkDirMode()) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create order by spill directory [path=").put(spillPath).put(']');
+        }
+        spillPath.put("orderby-")
+                .put(configuration.getMicrosecondClock().getTicks())
+                .put('-')
+                .put(SPILL_FILE_COUNTER.incrementAndGet())
+                .put(".spill");
+        spillFd = TableUtils.openRW(ff, spillPath.$(), LOG, configuration.getWriterFileOpenOpts());
+        spillAddr = TableUtils.mapRW(ff, spillFd, size, MemoryTag.MMAP_DEFAULT);
+        spillSize = size;
+    }
+
+    private long runLimit(int run) {
+        return run + 1 < frameOffsets.size() ? frameOffsets.getQuick(run + 1) : totalRowCount;
+    }
+
+    private void siftDown(int index) {
+        final int size = mergeHeap.size();
+        final int run = mergeHeap.getQuick(index);
+        while (true) {
+            int child = (index << 1) + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && less(mergeHeap.getQuick(child + 1), mergeHeap.getQuick(child))) {
+                child++;
+            }
+            if (!less(mergeHeap.getQuick(child), run)) {
+                break;
+            }
+            mergeHeap.setQuick(index, mergeHeap.getQuick(child));
+            index = child;
+        }
+        mergeHeap.setQuick(index, run);
+    }
+
+    private void siftUp(int index) {
+        final int run = mergeHeap.getQuick(index);
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (!less(run, mergeHeap.getQuick(parent))) {
+                break;
+            }
+            mergeHeap.setQuick(index, mergeHeap.getQuick(parent));
+            index = parent;
+        }
+        mergeHeap.setQuick(index, run);
+    }
+}
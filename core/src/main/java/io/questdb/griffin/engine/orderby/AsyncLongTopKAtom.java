@@ -0,0 +1,276 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Keeps a bounded list of the first N <key, rowId> pairs per worker. Keys are encoded
+ * so that both ascending and descending orders become an unsigned ascending order,
+ * while equal keys are ordered by row id, i.e. they keep the scan order.
+ */
+class AsyncLongTopKAtom implements StatefulAtom, Reopenable {
+    private static final long INITIAL_CAPACITY = 64;
+    private final int columnIndex;
+    private final int columnTypeTag;
+    // Flips the key bits, so that the encoded keys are always sorted as unsigned ascending.
+    private final long keyMask;
+    private final int limit;
+    private final DirectLongList ownerTopK;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<DirectLongList> perWorkerTopK;
+    private DirectLongList mergeScratch;
+    private DirectLongList mergedTopK;
+
+    public AsyncLongTopKAtom(
+            CairoConfiguration configuration,
+            int columnIndex,
+            int columnType,
+            boolean ascOrder,
+            int limit,
+            int workerCount
+    ) {
+        final int slotCount = Math.min(workerCount, configuration.getPageFrameReduceQueueCapacity());
+        try {
+            this.columnIndex = columnIndex;
+            this.columnTypeTag = ColumnType.tagOf(columnType);
+            this.keyMask = ascOrder ? Long.MIN_VALUE : Long.MAX_VALUE;
+            this.limit = limit;
+            final long initialCapacity = 2 * Math.min(limit, INITIAL_CAPACITY);
+            ownerTopK = new DirectLongList(initialCapacity, MemoryTag.NATIVE_DEFAULT);
+            perWorkerTopK = new ObjList<>(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerTopK.extendAndSet(i, new DirectLongList(initialCapacity, MemoryTag.NATIVE_DEFAULT));
+            }
+            perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+            mergeScratch = new DirectLongList(initialCapacity, MemoryTag.NATIVE_DEFAULT);
+            mergedTopK = new DirectLongList(initialCapacity, MemoryTag.NATIVE_DEFAULT);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void clear() {
+        // release the buffers, they may grow up to the limit
+        Misc.free(ownerTopK);
+        Misc.freeObjListAndKeepObjects(perWorkerTopK);
+        Misc.free(mergeScratch);
+        Misc.free(mergedTopK);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerTopK);
+        Misc.freeObjList(perWorkerTopK);
+        mergeScratch = Misc.free(mergeScratch);
+        mergedTopK = Misc.free(mergedTopK);
+    }
+
+    /**
+     * Returns merged <key, rowId> pairs. Must be called after {@link #merge(SqlExecutionCircuitBreaker)}.
+     */
+    public DirectLongList getTopK() {
+        return mergedTopK;
+    }
+
+    /**
+     * Attempts to acquire a slot for the given worker thread.
+     * On success, a {@link #release(int)} call must follow.
+     *
+     * @throws io.questdb.cairo.CairoException when circuit breaker has tripped
+     */
+    public int maybeAcquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own private list anytime.
+            return -1;
+        }
+        // All other threads, e.g. worker or work stealing threads, must always acquire a lock
+        // to use shared resources.
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    /**
+     * Merges per-worker lists into a single list of at most N pairs. Must be called
+     * once all frames were reduced.
+     */
+    public void merge(SqlExecutionCircuitBreaker circuitBreaker) {
+        mergedTopK.clear();
+        mergeInto(ownerTopK);
+        for (int i = 0, n = perWorkerTopK.size(); i < n; i++) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            mergeInto(perWorkerTopK.getQuick(i));
+        }
+    }
+
+    /**
+     * Offers rows of a single frame to the slot's list. Called by the workers and the query thread.
+     */
+    public void reduceFrame(int slotId, PageFrameMemoryRecord record, long frameRowCount, long baseRowId) {
+        final DirectLongList topK = slotId == -1 ? ownerTopK : perWorkerTopK.getQuick(slotId);
+        switch (columnTypeTag) {
+            case ColumnType.INT:
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+                    final int value = record.getInt(columnIndex);
+                    offer(topK, (value != Numbers.INT_NULL ? value : Numbers.LONG_NULL) ^ keyMask, baseRowId + r);
+                }
+                break;
+            case ColumnType.IPv4:
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+                    offer(topK, record.getLongIPv4(columnIndex) ^ keyMask, baseRowId + r);
+                }
+                break;
+            default:
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+                    offer(topK, record.getLong(columnIndex) ^ keyMask, baseRowId + r);
+                }
+                break;
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void reopen() {
+        ownerTopK.reopen();
+        for (int i = 0, n = perWorkerTopK.size(); i < n; i++) {
+            perWorkerTopK.getQuick(i).reopen();
+        }
+        mergeScratch.reopen();
+        mergedTopK.reopen();
+    }
+
+    private static int compare(long keyA, long rowIdA, long keyB, long rowIdB) {
+        final int cmp = Long.compareUnsigned(keyA, keyB);
+        return cmp != 0 ? cmp : Long.compare(rowIdA, rowIdB);
+    }
+
+    private static void ensureCapacity(DirectLongList list, long capacity) {
+        if (list.getCapacity() < capacity) {
+            list.setCapacity(Math.max(capacity, list.getCapacity() << 1));
+        }
+    }
+
+    private void mergeInto(DirectLongList topK) {
+        final long srcCount = topK.size() >>> 1;
+        if (srcCount == 0) {
+            return;
+        }
+        final long dstCount = mergedTopK.size() >>> 1;
+        final long count = Math.min(limit, srcCount + dstCount);
+        ensureCapacity(mergeScratch, count << 1);
+
+        final long srcAddr = topK.getAddress();
+        final long dstAddr = mergedTopK.getAddress();
+        final long outAddr = mergeScratch.getAddress();
+        long i = 0, j = 0;
+        for (long k = 0; k < count; k++) {
+            final long p;
+            if (j == dstCount) {
+                p = srcAddr + (i++ << 4);
+            } else if (i == srcCount) {
+                p = dstAddr + (j++ << 4);
+            } else {
+                final long pi = srcAddr + (i << 4);
+                final long pj = dstAddr + (j << 4);
+                if (compare(Unsafe.getUnsafe().getLong(pi), Unsafe.getUnsafe().getLong(pi + 8), Unsafe.getUnsafe().getLong(pj), Unsafe.getUnsafe().getLong(pj + 8)) < 0) {
+                    p = pi;
+                    i++;
+                } else {
+                    p = pj;
+                    j++;
+                }
+            }
+            final long out = outAddr + (k << 4);
+            Unsafe.getUnsafe().putLong(out, Unsafe.getUnsafe().getLong(p));
+            Unsafe.getUnsafe().putLong(out + 8, Unsafe.getUnsafe().getLong(p + 8));
+        }
+        mergeScratch.setPos(count << 1);
+
+        final DirectLongList tmp = mergedTopK;
+        mergedTopK = mergeScratch;
+        mergeScratch = tmp;
+    }
+
+    private void offer(DirectLongList topK, long key, long rowId) {
+        final long count = topK.size() >>> 1;
+        long addr = topK.getAddress();
+        if (count == limit) {
+            // fast path: most rows are rejected once the list is full
+            final long last = addr + ((count - 1) << 4);
+            if (compare(key, rowId, Unsafe.getUnsafe().getLong(last), Unsafe.getUnsafe().getLong(last + 8)) >= 0) {
+                return;
+            }
+        }
+
+        long lo = 0;
+        long hi = count;
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            final long p = addr + (mid << 4);
+            if (compare(Unsafe.getUnsafe().getLong(p), Unsafe.getUnsafe().getLong(p + 8), key, rowId) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        final long newCount;
+        if (count < limit) {
+            newCount = count + 1;
+            ensureCapacity(topK, newCount << 1);
+            topK.setPos(newCount << 1);
+            addr = topK.getAddress();
+        } else {
+            newCount = count;
+        }
+        if (lo < newCount - 1) {
+            Vect.memmove(addr + ((lo + 1) << 4), addr + (lo << 4), (newCount - 1 - lo) << 4);
+        }
+        final long p = addr + (lo << 4);
+        Unsafe.getUnsafe().putLong(p, key);
+        Unsafe.getUnsafe().putLong(p + 8, rowId);
+    }
+}
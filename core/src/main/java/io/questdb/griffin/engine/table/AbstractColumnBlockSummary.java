@@ -0,0 +1,127 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TxReader;
+import io.questdb.std.QuietCloseable;
+
+/**
+ * Base class for summaries of a column, kept per block of rows of a native partition, such as
+ * min/max zone maps or Bloom filters. A summary is built lazily, on the first scan of the
+ * partition, and is extended when rows get appended to the partition. Any change to the
+ * partition or column files, such as an O3 merge, an update or a truncate, leads to the full
+ * rebuild.
+ */
+abstract class AbstractColumnBlockSummary implements QuietCloseable {
+    protected final long blockRows;
+    private long columnNameTxn;
+    private long columnTop;
+    private long coveredRows;
+    private long partitionNameTxn;
+    private long partitionTableVersion;
+    private int tableId = -1;
+    private long truncateVersion;
+
+    AbstractColumnBlockSummary(long blockRows) {
+        this.blockRows = blockRows;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Brings the summary up to date with the given partition.
+     *
+     * @param reader         table reader with the partition open
+     * @param partitionIndex partition index
+     * @param columnIndex    table reader column index
+     * @param columnType     column type
+     */
+    void of(TableReader reader, int partitionIndex, int columnIndex, int columnType) {
+        final TxReader txFile = reader.getTxFile();
+        final long partitionTimestamp = reader.getPartitionTimestampByIndex(partitionIndex);
+        final long partitionNameTxn = txFile.getPartitionNameTxn(partitionIndex);
+        final long columnNameTxn = reader.getColumnVersionReader().getColumnNameTxn(
+                partitionTimestamp,
+                reader.getMetadata().getWriterIndex(columnIndex)
+        );
+        final int base = reader.getColumnBase(partitionIndex);
+        final long columnTop = reader.getColumnTop(base, columnIndex);
+        final long rowCount = reader.getPartitionRowCount(partitionIndex);
+
+        if (tableId != reader.getMetadata().getTableId()
+                || truncateVersion != txFile.getTruncateVersion()
+                || partitionTableVersion != txFile.getPartitionTableVersion()
+                || this.partitionNameTxn != partitionNameTxn
+                || this.columnNameTxn != columnNameTxn
+                || this.columnTop != columnTop
+                || rowCount < coveredRows
+        ) {
+            tableId = reader.getMetadata().getTableId();
+            truncateVersion = txFile.getTruncateVersion();
+            partitionTableVersion = txFile.getPartitionTableVersion();
+            this.partitionNameTxn = partitionNameTxn;
+            this.columnNameTxn = columnNameTxn;
+            this.columnTop = columnTop;
+            coveredRows = 0;
+            clear();
+        }
+
+        if (coveredRows < rowCount) {
+            // Committed rows are immutable, so only the newly appended rows have to be processed.
+            update(reader, base, columnIndex, columnType, columnTop, coveredRows, rowCount);
+            coveredRows = rowCount;
+        }
+    }
+
+    /**
+     * Drops the summary of all blocks.
+     */
+    protected abstract void clear();
+
+    /**
+     * Adds the given rows to the summary.
+     *
+     * @param reader      table reader with the partition open
+     * @param base        column base of the partition
+     * @param columnIndex table reader column index
+     * @param columnType  column type
+     * @param columnTop   column top of the partition
+     * @param rowLo       first row to add, all rows below it are already summarized
+     * @param rowHi       partition row count
+     */
+    protected abstract void update(
+            TableReader reader,
+            int base,
+            int columnIndex,
+            int columnType,
+            long columnTop,
+            long rowLo,
+            long rowHi
+    );
+}
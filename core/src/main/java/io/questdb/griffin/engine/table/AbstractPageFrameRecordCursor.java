@@ -24,12 +24,14 @@
 
 package io.questdb.griffin.engine.table;
 
+import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.std.Misc;
 import io.questdb.std.Rows;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public abstract class AbstractPageFrameRecordCursor implements PageFrameRecordCursor {
     protected final PageFrameAddressCache frameAddressCache;
@@ -48,7 +50,10 @@ public abstract class AbstractPageFrameRecordCursor implements PageFrameRecordCu
         recordA = new PageFrameMemoryRecord(PageFrameMemoryRecord.RECORD_A_LETTER);
         recordB = new PageFrameMemoryRecord(PageFrameMemoryRecord.RECORD_B_LETTER);
         frameAddressCache = new PageFrameAddressCache(configuration);
-        frameMemoryPool = new PageFrameMemoryPool(configuration.getSqlParquetFrameCacheCapacity());
+        frameMemoryPool = new PageFrameMemoryPool(
+                configuration.getSqlParquetFrameCacheCapacity(),
+                configuration.getSqlParquetPrefetchRowGroups()
+        );
     }
 
     @Override
@@ -98,8 +103,16 @@ public abstract class AbstractPageFrameRecordCursor implements PageFrameRecordCu
     }
 
     protected void init() {
+        init(null);
+    }
+
+    /**
+     * Prepares the cursor for page frame iteration. Forward scans may pass
+     * a message bus to have Parquet row groups decoded ahead by worker threads.
+     */
+    protected void init(@Nullable MessageBus messageBus) {
         frameAddressCache.of(metadata, frameCursor.getColumnIndexes());
-        frameMemoryPool.of(frameAddressCache);
+        frameMemoryPool.of(frameAddressCache, messageBus);
         frameCount = 0;
         frameCursor.toTop();
     }
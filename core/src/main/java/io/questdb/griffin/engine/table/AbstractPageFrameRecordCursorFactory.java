@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.PageCacheReadAhead;
 import io.questdb.cairo.TableToken;
 import io.questdb.cairo.sql.PageFrameCursor;
 import io.questdb.cairo.sql.PartitionFrameCursor;
@@ -35,8 +36,10 @@ import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.IntList;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import static io.questdb.cairo.sql.PartitionFrameCursorFactory.ORDER_ANY;
 import static io.questdb.cairo.sql.PartitionFrameCursorFactory.ORDER_ASC;
@@ -47,7 +50,9 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
     protected final int pageFrameMaxRows;
     protected final int pageFrameMinRows;
     protected final PartitionFrameCursorFactory partitionFrameCursorFactory;
+    private final CairoConfiguration configuration;
     protected TablePageFrameCursor pageFrameCursor;
+    protected DataSkippingFilter skippingFilter;
 
     public AbstractPageFrameRecordCursorFactory(
             @NotNull CairoConfiguration configuration,
@@ -57,6 +62,7 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
             @NotNull IntList columnSizeShifts
     ) {
         super(metadata);
+        this.configuration = configuration;
         this.partitionFrameCursorFactory = partitionFrameCursorFactory;
         this.columnIndexes = columnIndexes;
         this.columnSizeShifts = columnSizeShifts;
@@ -94,6 +100,7 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
     protected void _close() {
         Misc.free(pageFrameCursor);
         Misc.free(partitionFrameCursorFactory);
+        skippingFilter = Misc.free(skippingFilter);
     }
 
     protected TablePageFrameCursor initPageFrameCursor(SqlExecutionContext executionContext) throws SqlException {
@@ -106,7 +113,8 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
                         columnSizeShifts,
                         1, // used for single-threaded exec plans
                         pageFrameMinRows,
-                        pageFrameMaxRows
+                        pageFrameMaxRows,
+                        newPageCacheReadAhead()
                 );
             } else {
                 pageFrameCursor = new BwdTableReaderPageFrameCursor(
@@ -114,10 +122,12 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
                         columnSizeShifts,
                         1, // used for single-threaded exec plans
                         pageFrameMinRows,
-                        pageFrameMaxRows
+                        pageFrameMaxRows,
+                        newPageCacheReadAhead()
                 );
             }
         }
+        initDataSkippingFilter(pageFrameCursor, executionContext);
         return pageFrameCursor.of(partitionFrameCursor);
     }
 
@@ -125,4 +135,15 @@ abstract class AbstractPageFrameRecordCursorFactory extends AbstractRecordCursor
             PageFrameCursor frameCursor,
             SqlExecutionContext executionContext
     ) throws SqlException;
+
+    protected void initDataSkippingFilter(TablePageFrameCursor pageFrameCursor, SqlExecutionContext executionContext) throws SqlException {
+        if (skippingFilter != null) {
+            skippingFilter.init(executionContext);
+        }
+        pageFrameCursor.setDataSkippingFilter(skippingFilter);
+    }
+
+    protected @Nullable PageCacheReadAhead newPageCacheReadAhead() {
+        return PageCacheReadAhead.newInstance(configuration, configuration.isIOURingReadAheadScanEnabled(), MemoryTag.NATIVE_DEFAULT);
+    }
 }
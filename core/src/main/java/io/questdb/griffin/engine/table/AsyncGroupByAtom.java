@@ -26,6 +26,8 @@ package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.ListColumnFilter;
 import io.questdb.cairo.RecordSink;
@@ -42,7 +44,9 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.StatefulAtom;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.cairo.vm.api.MemoryCMARW;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.Plannable;
 import io.questdb.griffin.SqlException;
@@ -53,31 +57,43 @@ import io.questdb.griffin.engine.groupby.GroupByAllocator;
 import io.questdb.griffin.engine.groupby.GroupByAllocatorFactory;
 import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
 import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdaterFactory;
+import io.questdb.griffin.engine.groupby.GroupByKernel;
 import io.questdb.griffin.engine.groupby.GroupByUtils;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.FilesFacade;
 import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
 import io.questdb.std.QuietCloseable;
 import io.questdb.std.Transient;
+import io.questdb.std.bytes.Bytes;
+import io.questdb.std.str.Path;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory.prepareBindVarMemory;
 
-public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Plannable {
+public class AsyncGroupByAtom implements StatefulAtom, ShardMergeAtom, Closeable, Reopenable, Plannable {
     // We use the first 8 bits of a hash code to determine the shard.
     private static final int MAX_SHARDS = 128;
+    private static final AtomicLong SPILL_FILE_COUNTER = new AtomicLong();
     private final ObjList<Function> bindVarFunctions;
     private final MemoryCARW bindVarMemory;
     private final CompiledFilter compiledFilter;
     private final CairoConfiguration configuration;
     // Used to merge shards from ownerFragment and perWorkerFragments.
     private final ObjList<Map> destShards;
+    // Set when spilling is enabled for a single VARCHAR key. Unordered varchar maps keep pointers
+    // to keys stored outside the map, so they can't be spilled and ordered maps are used instead.
+    private final boolean forceOrderedMaps;
+    private final GroupByKernel kernel;
     private final ColumnTypes keyTypes;
     private final MapStats lastOwnerStats;
     private final ObjList<MapStats> lastShardStats;
@@ -89,17 +105,26 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
     private final GroupByFunctionsUpdater ownerFunctionUpdater;
     private final ObjList<GroupByFunction> ownerGroupByFunctions;
     private final ObjList<Function> ownerKeyFunctions;
+    private final DirectLongList ownerKernelValueAddresses;
     private final RecordSink ownerMapSink;
     private final ObjList<GroupByAllocator> perWorkerAllocators;
     private final ObjList<Function> perWorkerFilters;
     private final ObjList<MapFragment> perWorkerFragments;
     private final ObjList<GroupByFunctionsUpdater> perWorkerFunctionUpdaters;
+    private final ObjList<DirectLongList> perWorkerKernelValueAddresses;
     private final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions;
     private final ObjList<ObjList<Function>> perWorkerKeyFunctions;
     private final PerWorkerLocks perWorkerLocks;
     private final ObjList<RecordSink> perWorkerMapSinks;
     private final int shardCount;
     private final int shardCountShr;
+    private final boolean spillEnabled;
+    // Max heap size of a single fragment's shards; once exceeded, the shards are spilled to disk.
+    // Only partial maps are bounded: a destination shard holds its part of the final result in memory.
+    private final long spillThreshold;
+    // Estimated hash table size per entry of unordered maps; they don't use heap, so it's used
+    // to account their size against the spill threshold.
+    private final long unorderedEntrySize;
     private final ColumnTypes valueTypes;
     // Set to true if we had to shard during the last query execution.
     private boolean lastSharded;
@@ -154,6 +179,16 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
 
             perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
 
+            // Map values of functions that keep their state in allocator memory can't be spilled.
+            spillEnabled = configuration.isGroupBySpillEnabled() && GroupByUtils.isSpillSupported(ownerGroupByFunctions);
+            spillThreshold = configuration.getGroupBySpillThreshold() / (slotCount + 1);
+            forceOrderedMaps = spillEnabled && keyTypes.getColumnCount() == 1 && keyTypes.getColumnType(0) == ColumnType.VARCHAR;
+            long valueSize = 0;
+            for (int i = 0, n = valueTypes.getColumnCount(); i < n; i++) {
+                valueSize += Math.max(ColumnType.sizeOf(valueTypes.getColumnType(i)), 0);
+            }
+            unorderedEntrySize = (long) (Bytes.align8b(Long.BYTES + valueSize) / configuration.getSqlFastMapLoadFactor());
+
             shardCount = Math.min(Numbers.ceilPow2(2 * workerCount), MAX_SHARDS);
             shardCountShr = Long.numberOfLeadingZeros(shardCount) + 1;
             lastShardStats = new ObjList<>(shardCount);
@@ -181,6 +216,22 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
                 perWorkerMapSinks = null;
             }
 
+            if (configuration.isGroupByKernelEnabled()) {
+                kernel = GroupByKernel.compile(columnTypes, listColumnFilter, ownerKeyFunctions, ownerGroupByFunctions);
+            } else {
+                kernel = null;
+            }
+            if (kernel != null) {
+                ownerKernelValueAddresses = new DirectLongList(configuration.getPageFrameReduceRowIdListCapacity(), MemoryTag.NATIVE_OFFLOAD);
+                perWorkerKernelValueAddresses = new ObjList<>(slotCount);
+                for (int i = 0; i < slotCount; i++) {
+                    perWorkerKernelValueAddresses.extendAndSet(i, new DirectLongList(configuration.getPageFrameReduceRowIdListCapacity(), MemoryTag.NATIVE_OFFLOAD));
+                }
+            } else {
+                ownerKernelValueAddresses = null;
+                perWorkerKernelValueAddresses = null;
+            }
+
             ownerAllocator = GroupByAllocatorFactory.createAllocator(configuration);
             perWorkerAllocators = new ObjList<>(slotCount);
             for (int i = 0; i < slotCount; i++) {
@@ -220,6 +271,8 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         Misc.freeObjList(perWorkerFilters);
         Misc.free(ownerAllocator);
         Misc.freeObjList(perWorkerAllocators);
+        Misc.free(ownerKernelValueAddresses);
+        Misc.freeObjList(perWorkerKernelValueAddresses);
         if (perWorkerKeyFunctions != null) {
             for (int i = 0, n = perWorkerKeyFunctions.size(); i < n; i++) {
                 Misc.freeObjList(perWorkerKeyFunctions.getQuick(i));
@@ -286,6 +339,20 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return perWorkerFunctionUpdaters.getQuick(slotId);
     }
 
+    /**
+     * Returns the columnar aggregation kernel or null if the GROUP BY shape isn't supported by it.
+     */
+    public GroupByKernel getKernel() {
+        return kernel;
+    }
+
+    public DirectLongList getKernelValueAddresses(int slotId) {
+        if (slotId == -1) {
+            return ownerKernelValueAddresses;
+        }
+        return perWorkerKernelValueAddresses.getQuick(slotId);
+    }
+
     public RecordSink getMapSink(int slotId) {
         if (slotId == -1 || perWorkerMapSinks == null) {
             return ownerMapSink;
@@ -371,6 +438,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
      *
      * @throws io.questdb.cairo.CairoException when circuit breaker has tripped
      */
+    @Override
     public int maybeAcquire(int workerId, boolean owner, ExecutionCircuitBreaker circuitBreaker) {
         if (workerId == -1 && owner) {
             // Owner thread is free to use its own private filter, function updaters, allocator,
@@ -382,6 +450,16 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
     }
 
+    /**
+     * Spills shards of the given fragment to disk if their total heap size exceeds
+     * the per-fragment spill threshold. Non-sharded fragments are never spilled.
+     */
+    public void maybeSpill(MapFragment fragment) {
+        if (spillEnabled && !fragment.isNotSharded() && fragment.getShardsHeapSize() > spillThreshold) {
+            fragment.spill();
+        }
+    }
+
     public Map mergeOwnerMap() {
         lastSharded = false;
         final Map destMap = ownerFragment.reopenMap();
@@ -429,6 +507,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         return destMap;
     }
 
+    @Override
     public void mergeShard(int slotId, int shardIndex) {
         assert sharded;
 
@@ -477,12 +556,21 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         destMap.merge(srcOwnerMap, functionUpdater);
         srcOwnerMap.close();
 
+        // Finally, merge what was spilled to disk, if anything.
+        if (spillEnabled) {
+            for (int i = 0; i < perWorkerMapCount; i++) {
+                perWorkerFragments.getQuick(i).mergeSpilled(shardIndex, destMap, functionUpdater);
+            }
+            ownerFragment.mergeSpilled(shardIndex, destMap, functionUpdater);
+        }
+
         // Don't forget to update the stats.
         if (configuration.isGroupByPresizeEnabled()) {
             stats.update(medianSize, maxHeapSize, destMap.size(), destMap.getHeapSize());
         }
     }
 
+    @Override
     public void release(int slotId) {
         perWorkerLocks.releaseSlot(slotId);
     }
@@ -523,10 +611,17 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         }
     }
 
+    private Map createMap() {
+        if (forceOrderedMaps) {
+            return MapFactory.createOrderedMap(configuration, keyTypes, valueTypes);
+        }
+        return MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+    }
+
     private Map reopenDestShard(int shardIndex) {
         Map destMap = destShards.getQuick(shardIndex);
         if (destMap == null) {
-            destMap = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+            destMap = createMap();
             destShards.set(shardIndex, destMap);
         } else if (!destMap.isOpen()) {
             MapStats stats = lastShardStats.getQuick(shardIndex);
@@ -607,11 +702,16 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
         private final Map map; // non-sharded partial result
         private final boolean owner;
         private final ObjList<Map> shards; // this.map split into shards
+        // [offset, length] pairs of spilled chunks, one list per shard
+        private final ObjList<LongList> spilledChunks;
         private boolean sharded;
+        private MemoryCMARW spillMem;
+        private Path spillPath;
 
         private MapFragment(boolean owner) {
-            this.map = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+            this.map = createMap();
             this.shards = new ObjList<>(shardCount);
+            this.spilledChunks = new ObjList<>(shardCount);
             this.owner = owner;
         }
 
@@ -623,6 +723,7 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
                 Map m = shards.getQuick(i);
                 Misc.free(m);
             }
+            closeSpill();
         }
 
         public Map getMap() {
@@ -637,6 +738,16 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
             return shards;
         }
 
+        public long getShardsHeapSize() {
+            long heapSize = 0;
+            for (int i = 0, n = shards.size(); i < n; i++) {
+                final Map shard = shards.getQuick(i);
+                final long usedHeapSize = shard.getUsedHeapSize();
+                heapSize += usedHeapSize != -1 ? usedHeapSize : shard.size() * unorderedEntrySize;
+            }
+            return heapSize;
+        }
+
         public boolean isNotSharded() {
             return !sharded;
         }
@@ -674,11 +785,83 @@ public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, Pl
             sharded = true;
         }
 
+        /**
+         * Appends all shards to the fragment's spill file and shrinks them back to the initial
+         * capacity. The spilled data is merged into the destination shards by
+         * {@link AsyncGroupByAtom#mergeShard(int, int)}. Shards that don't support spilling,
+         * e.g. {@link io.questdb.cairo.map.Unordered2Map} ones, are kept in memory.
+         */
+        public void spill() {
+            assert sharded;
+            if (spillMem == null) {
+                openSpill();
+            }
+            for (int i = 0; i < shardCount; i++) {
+                final Map shard = shards.getQuick(i);
+                if (shard.isSpillSupported() && shard.size() > 0) {
+                    final long offset = spillMem.getAppendOffset();
+                    final long len = shard.spill(spillMem);
+                    spilledChunks.getQuick(i).add(offset, len);
+                }
+            }
+        }
+
+        private void closeSpill() {
+            if (spillMem != null) {
+                spillMem = Misc.free(spillMem);
+                configuration.getFilesFacade().removeQuiet(spillPath.$());
+            }
+            spillPath = Misc.free(spillPath);
+            for (int i = 0, n = spilledChunks.size(); i < n; i++) {
+                spilledChunks.getQuick(i).clear();
+            }
+        }
+
+        private void mergeSpilled(int shardIndex, Map destMap, GroupByFunctionsUpdater functionUpdater) {
+            if (spillMem == null) {
+                return;
+            }
+            final LongList chunks = spilledChunks.getQuick(shardIndex);
+            for (int i = 0, n = chunks.size(); i < n; i += 2) {
+                final long lo = spillMem.addressOf(chunks.getQuick(i));
+                destMap.mergeSpilled(lo, lo + chunks.getQuick(i + 1), functionUpdater);
+            }
+        }
+
+        private void openSpill() {
+            final FilesFacade ff = configuration.getFilesFacade();
+            spillPath = new Path().of(configuration.getGroupBySpillRoot()).slash();
+            if (ff.mkdirs(spillPath, configuration.getMkDirMode()) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create group by spill directory [path=").put(spillPath).put(']');
+            }
+            spillPath.put("groupby-")
+                    .put(configuration.getMicrosecondClock().getTicks())
+                    .put('-')
+                    .put(SPILL_FILE_COUNTER.incrementAndGet())
+                    .put(".spill");
+            try {
+                spillMem = Vm.getCMARWInstance(
+                        ff,
+                        spillPath.$(),
+                        configuration.getDataAppendPageSize(),
+                        -1,
+                        MemoryTag.MMAP_DEFAULT,
+                        configuration.getWriterFileOpenOpts()
+                );
+            } catch (Throwable th) {
+                ff.removeQuiet(spillPath.$());
+                throw th;
+            }
+            for (int i = spilledChunks.size(); i < shardCount; i++) {
+                spilledChunks.add(new LongList());
+            }
+        }
+
         private void reopenShards() {
             int size = shards.size();
             if (size == 0) {
                 for (int i = 0; i < shardCount; i++) {
-                    shards.add(MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes));
+                    shards.add(createMap());
                 }
             } else {
                 assert size == shardCount;
@@ -50,6 +50,7 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.groupby.GroupByFunctionsUpdater;
+import io.questdb.griffin.engine.groupby.GroupByKernel;
 import io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.mp.SCSequence;
@@ -237,12 +238,16 @@ public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory
                 long baseRowId = record.getRowId();
 
                 if (fragment.isNotSharded()) {
-                    aggregateNonSharded(record, frameRowCount, baseRowId, functionUpdater, fragment, mapSink);
+                    final GroupByKernel kernel = atom.getKernel();
+                    if (kernel == null || !kernel.aggregate(record, null, frameRowCount, fragment.reopenMap(), atom.getKernelValueAddresses(slotId))) {
+                        aggregateNonSharded(record, frameRowCount, baseRowId, functionUpdater, fragment, mapSink);
+                    }
                 } else {
                     aggregateSharded(record, frameRowCount, baseRowId, functionUpdater, fragment, mapSink);
                 }
 
                 atom.requestSharding(fragment);
+                atom.maybeSpill(fragment);
             } finally {
                 atom.release(slotId);
             }
@@ -414,12 +419,16 @@ public class AsyncGroupByRecordCursorFactory extends AbstractRecordCursorFactory
                 long baseRowId = record.getRowId();
 
                 if (fragment.isNotSharded()) {
-                    aggregateFilteredNonSharded(record, rows, baseRowId, functionUpdater, fragment, mapSink);
+                    final GroupByKernel kernel = atom.getKernel();
+                    if (kernel == null || !kernel.aggregate(record, rows, frameRowCount, fragment.reopenMap(), atom.getKernelValueAddresses(slotId))) {
+                        aggregateFilteredNonSharded(record, rows, baseRowId, functionUpdater, fragment, mapSink);
+                    }
                 } else {
                     aggregateFilteredSharded(record, rows, baseRowId, functionUpdater, fragment, mapSink);
                 }
 
                 atom.requestSharding(fragment);
+                atom.maybeSpill(fragment);
             } finally {
                 atom.release(slotId);
             }
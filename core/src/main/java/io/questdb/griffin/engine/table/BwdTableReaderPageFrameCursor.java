@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ColumnTypeDriver;
+import io.questdb.cairo.PageCacheReadAhead;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.PartitionFormat;
@@ -36,7 +37,7 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.vm.NullMemoryCMR;
-import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.cairo.vm.api.MemoryCR;
 import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 import io.questdb.std.IntList;
 import io.questdb.std.LongList;
@@ -52,6 +53,7 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
     private final int pageFrameMaxRows;
     private final int pageFrameMinRows;
     private final LongList pageSizes = new LongList();
+    private final PageCacheReadAhead readAhead;
     private final int workerCount;
     private PartitionFrameCursor partitionFrameCursor;
     private TableReader reader;
@@ -61,13 +63,15 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
     private long reenterPartitionHi;
     private int reenterPartitionIndex;
     private long reenterPartitionLo;
+    private DataSkippingFilter skippingFilter;
 
     public BwdTableReaderPageFrameCursor(
             IntList columnIndexes,
             IntList columnSizeShifts,
             int workerCount,
             int pageFrameMinRows,
-            int pageFrameMaxRows
+            int pageFrameMaxRows,
+            @Nullable PageCacheReadAhead readAhead
     ) {
         this.columnIndexes = columnIndexes;
         this.columnSizeShifts = columnSizeShifts;
@@ -75,6 +79,7 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
         this.workerCount = workerCount;
         this.pageFrameMinRows = pageFrameMinRows;
         this.pageFrameMaxRows = pageFrameMaxRows;
+        this.readAhead = readAhead;
     }
 
     @Override
@@ -85,6 +90,8 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
     @Override
     public void close() {
         partitionFrameCursor = Misc.free(partitionFrameCursor);
+        // waits for in-flight reads and releases the ring
+        Misc.free(readAhead);
     }
 
     @Override
@@ -110,14 +117,16 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
     @Override
     public @Nullable PageFrame next() {
         if (reenterPartitionFrame) {
-            if (reenterParquetDecoder != null) {
-                return computeParquetFrame(reenterPartitionLo, reenterPartitionHi);
+            final TableReaderPageFrame reenterFrame = reenterParquetDecoder == null
+                    ? computeNativeFrame(reenterPartitionLo, reenterPartitionHi)
+                    : computeParquetFrame(reenterPartitionLo, reenterPartitionHi);
+            if (reenterFrame != null) {
+                return reenterFrame;
             }
-            return computeNativeFrame(reenterPartitionLo, reenterPartitionHi);
         }
 
-        final PartitionFrame partitionFrame = partitionFrameCursor.next();
-        if (partitionFrame != null) {
+        PartitionFrame partitionFrame;
+        while ((partitionFrame = partitionFrameCursor.next()) != null) {
             reenterPartitionIndex = partitionFrame.getPartitionIndex();
             final long lo = partitionFrame.getRowLo();
             final long hi = partitionFrame.getRowHi();
@@ -127,7 +136,12 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
                 clearAddresses();
                 reenterParquetDecoder = partitionFrame.getParquetDecoder();
                 reenterPageFrameRowLimit = 0;
-                return computeParquetFrame(lo, hi);
+                final TableReaderPageFrame parquetFrame = computeParquetFrame(lo, hi);
+                if (parquetFrame != null) {
+                    return parquetFrame;
+                }
+                // all row groups of the partition were pruned
+                continue;
             }
 
             assert format == PartitionFormat.NATIVE;
@@ -136,7 +150,11 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
                     pageFrameMaxRows,
                     Math.max(pageFrameMinRows, (hi - lo) / workerCount)
             );
-            return computeNativeFrame(lo, hi);
+            final TableReaderPageFrame nativeFrame = computeNativeFrame(lo, hi);
+            if (nativeFrame != null) {
+                return nativeFrame;
+            }
+            // all blocks of the partition were skipped
         }
         return null;
     }
@@ -149,6 +167,11 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
         return this;
     }
 
+    @Override
+    public void setDataSkippingFilter(@Nullable DataSkippingFilter skippingFilter) {
+        this.skippingFilter = skippingFilter;
+    }
+
     @Override
     public long size() {
         return partitionFrameCursor.size();
@@ -172,12 +195,25 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
         pageSizes.setAll(2 * columnCount, -1);
     }
 
-    private TableReaderPageFrame computeNativeFrame(long partitionLo, long partitionHi) {
+    private @Nullable TableReaderPageFrame computeNativeFrame(long partitionLo, long partitionHi) {
+        // Skip blocks of rows that have no rows matching the filter.
+        if (skippingFilter != null) {
+            partitionHi = skippingFilter.skipBlocksBwd(reader, reenterPartitionIndex, columnIndexes, partitionLo, partitionHi);
+            if (partitionHi == partitionLo) {
+                reenterPartitionFrame = false;
+                return null;
+            }
+        }
+
         final int base = reader.getColumnBase(reenterPartitionIndex);
 
         // we may need to split this partition frame either along "top" lines, or along
         // max page frame sizes; to do this, we calculate min top value from given position
         long adjustedLo = Math.max(partitionLo, partitionHi - reenterPageFrameRowLimit);
+        if (skippingFilter != null) {
+            // also split the frame at the previous block that can be skipped
+            adjustedLo = skippingFilter.matchingRowsLo(adjustedLo, partitionHi);
+        }
         for (int i = 0; i < columnCount; i++) {
             final int columnIndex = columnIndexes.getQuick(i);
             long top = reader.getColumnTop(base, columnIndex);
@@ -189,7 +225,7 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
         for (int i = 0; i < columnCount; i++) {
             final int columnIndex = columnIndexes.getQuick(i);
             final int readerColIndex = TableReader.getPrimaryColumnIndex(base, columnIndex);
-            final MemoryR colMem = reader.getColumn(readerColIndex);
+            final MemoryCR colMem = reader.getColumn(readerColIndex);
             // when the entire column is NULL we make it skip the whole of the partition frame
             final long top = colMem instanceof NullMemoryCMR ? partitionHi : reader.getColumnTop(base, columnIndex);
             final long partitionLoAdjusted = adjustedLo - top;
@@ -205,10 +241,13 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
                     final long offset = partitionLoAdjusted << sh;
                     columnPageAddresses.setQuick(2 * i, address + offset);
                     pageSizes.setQuick(2 * i, addressSize - offset);
+                    if (readAhead != null) {
+                        readAhead.readAsync(colMem.getFd(), offset, addressSize - offset);
+                    }
                 } else {
                     final int columnType = reader.getMetadata().getColumnType(columnIndex);
                     final ColumnTypeDriver columnTypeDriver = ColumnType.getDriver(columnType);
-                    final MemoryR auxCol = reader.getColumn(readerColIndex + 1);
+                    final MemoryCR auxCol = reader.getColumn(readerColIndex + 1);
                     final long auxAddress = auxCol.getPageAddress(0);
                     final long auxOffsetLo = columnTypeDriver.getAuxVectorOffset(partitionLoAdjusted);
                     final long auxOffsetHi = columnTypeDriver.getAuxVectorOffset(partitionHiAdjusted);
@@ -221,6 +260,13 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
                     columnPageAddresses.setQuick(2 * i + 1, auxAddress + auxOffsetLo);
                     pageSizes.setQuick(2 * i, dataSize);
                     pageSizes.setQuick(2 * i + 1, auxOffsetHi - auxOffsetLo);
+                    if (readAhead != null) {
+                        readAhead.readAsync(auxCol.getFd(), auxOffsetLo, auxOffsetHi - auxOffsetLo);
+                        if (dataSize > 0) {
+                            final long dataOffsetLo = columnTypeDriver.getDataVectorOffset(auxAddress, partitionLoAdjusted);
+                            readAhead.readAsync(colMem.getFd(), dataOffsetLo, dataSize - dataOffsetLo);
+                        }
+                    }
                 }
             } else { // column top
                 columnPageAddresses.setQuick(2 * i, 0);
@@ -255,7 +301,7 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
         return frame;
     }
 
-    private TableReaderPageFrame computeParquetFrame(long partitionLo, long partitionHi) {
+    private @Nullable TableReaderPageFrame computeParquetFrame(long partitionLo, long partitionHi) {
         final PartitionDecoder.Metadata metadata = reenterParquetDecoder.metadata();
         final int rowGroupCount = metadata.rowGroupCount();
 
@@ -270,6 +316,16 @@ public class BwdTableReaderPageFrameCursor implements TablePageFrameCursor {
             rowCount += rowGroupSize;
         }
 
+        // Skip row groups that have no rows matching the filter.
+        while (skippingFilter != null && skippingFilter.canSkipRowGroup(reenterParquetDecoder, columnIndexes, rowGroupIndex)) {
+            if (rowCount <= partitionLo || rowGroupIndex == 0) {
+                reenterPartitionFrame = false;
+                return null;
+            }
+            partitionHi = rowCount;
+            rowCount -= metadata.rowGroupSize(--rowGroupIndex);
+        }
+
         final long adjustedLo = Math.max(partitionLo, rowCount);
         if (adjustedLo > partitionLo) {
             this.reenterPartitionLo = partitionLo;
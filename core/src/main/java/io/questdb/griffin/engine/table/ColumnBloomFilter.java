@@ -0,0 +1,171 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.VarcharTypeDriver;
+import io.questdb.cairo.vm.NullMemoryCMR;
+import io.questdb.cairo.vm.api.MemoryCR;
+import io.questdb.std.Hash;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8SplitString;
+import io.questdb.std.str.Utf8s;
+
+/**
+ * Bloom filters of a LONG or VARCHAR column, kept per block of rows of a native partition.
+ * The filters are used for equality lookups of values that are too scattered for the min/max
+ * zone maps to help, e.g. random ids. Nulls are not added to the filters, so a block of nulls
+ * only never matches a non-null value.
+ * <p>
+ * The filters are kept in native memory, one bit array of a fixed size per block.
+ */
+class ColumnBloomFilter extends AbstractColumnBlockSummary {
+    private static final int MAX_HASH_COUNT = 8;
+    private final long blockBits;
+    private final long blockSize;
+    private final int hashCount;
+    private final Utf8SplitString utf8View = new Utf8SplitString();
+    private long blockCount;
+    private long memAddr;
+    private long memSize;
+
+    ColumnBloomFilter(long blockRows, int bitsPerValue) {
+        super(blockRows);
+        // whole 64-bit words per block
+        this.blockBits = Math.max(Long.SIZE, ((blockRows * bitsPerValue + Long.SIZE - 1) / Long.SIZE) * Long.SIZE);
+        this.blockSize = blockBits / Byte.SIZE;
+        // k = m/n * ln(2) minimizes the false positive rate
+        this.hashCount = Math.max(1, Math.min(MAX_HASH_COUNT, (int) Math.round(bitsPerValue * Math.log(2))));
+    }
+
+    static long hash(long value) {
+        return Hash.hashLong64(value);
+    }
+
+    static long hash(Utf8Sequence value) {
+        return Hash.hashLong64(Utf8s.hashCode(value));
+    }
+
+    @Override
+    public void close() {
+        memAddr = Unsafe.free(memAddr, memSize, MemoryTag.NATIVE_BIT_SET);
+        memSize = 0;
+        blockCount = 0;
+    }
+
+    /**
+     * Returns false if the block definitely has no rows with the value of the given hash.
+     */
+    boolean mightContain(int block, long hash) {
+        final long blockAddr = memAddr + block * blockSize;
+        final long h1 = hash & 0xffffffffL;
+        final long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = bitOf(h1 + i * h2);
+            if ((Unsafe.getUnsafe().getLong(blockAddr + ((bit >>> 6) << 3)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void clear() {
+        blockCount = 0;
+    }
+
+    @Override
+    protected void update(TableReader reader, int base, int columnIndex, int columnType, long columnTop, long rowLo, long rowHi) {
+        ensureBlocks((rowHi + blockRows - 1) / blockRows);
+
+        final int primaryIndex = TableReader.getPrimaryColumnIndex(base, columnIndex);
+        final MemoryCR colMem = reader.getColumn(primaryIndex);
+        if (colMem instanceof NullMemoryCMR) {
+            // nulls only
+            return;
+        }
+        final long lo = Math.max(rowLo, columnTop);
+        if (ColumnType.tagOf(columnType) == ColumnType.VARCHAR) {
+            final MemoryCR auxMem = reader.getColumn(primaryIndex + 1);
+            final long auxAddr = auxMem.getPageAddress(0);
+            final long auxLim = auxAddr + auxMem.size();
+            // fully inlined values have no data memory
+            final long dataAddr = colMem.size() > 0 ? colMem.getPageAddress(0) : 0;
+            final long dataLim = dataAddr + colMem.size();
+            for (long row = lo; row < rowHi; row++) {
+                final Utf8Sequence value = VarcharTypeDriver.getSplitValue(auxAddr, auxLim, dataAddr, dataLim, row - columnTop, utf8View);
+                if (value != null) {
+                    add(row / blockRows, hash(value));
+                }
+            }
+        } else {
+            final long address = colMem.getPageAddress(0);
+            for (long row = lo; row < rowHi; row++) {
+                final long value = Unsafe.getUnsafe().getLong(address + ((row - columnTop) << 3));
+                if (value != Numbers.LONG_NULL) {
+                    add(row / blockRows, hash(value));
+                }
+            }
+        }
+    }
+
+    private void add(long block, long hash) {
+        final long blockAddr = memAddr + block * blockSize;
+        final long h1 = hash & 0xffffffffL;
+        final long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = bitOf(h1 + i * h2);
+            final long wordAddr = blockAddr + ((bit >>> 6) << 3);
+            Unsafe.getUnsafe().putLong(wordAddr, Unsafe.getUnsafe().getLong(wordAddr) | (1L << bit));
+        }
+    }
+
+    private long bitOf(long h) {
+        // maps the lower 32 bits of the hash onto [0, blockBits) without a division
+        return ((h & 0xffffffffL) * blockBits) >>> 32;
+    }
+
+    private void ensureBlocks(long count) {
+        if (count <= blockCount) {
+            return;
+        }
+        final long size = count * blockSize;
+        if (size > memSize) {
+            final long newSize = Math.max(size, memSize * 2);
+            memAddr = memAddr == 0
+                    ? Unsafe.malloc(newSize, MemoryTag.NATIVE_BIT_SET)
+                    : Unsafe.realloc(memAddr, memSize, newSize, MemoryTag.NATIVE_BIT_SET);
+            memSize = newSize;
+        }
+        Vect.memset(memAddr + blockCount * blockSize, (count - blockCount) * blockSize, 0);
+        blockCount = count;
+    }
+}
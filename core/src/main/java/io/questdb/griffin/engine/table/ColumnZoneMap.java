@@ -0,0 +1,120 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.vm.NullMemoryCMR;
+import io.questdb.cairo.vm.api.MemoryCR;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+import io.questdb.std.Vect;
+
+/**
+ * Min/max values of a fixed-size numeric column, kept per block of rows of a native partition.
+ * <p>
+ * Blocks that hold nulls only have null min and max. Min and max of DOUBLE columns are stored
+ * as raw long bits; a block with no usable double min/max gets -Infinity/+Infinity bounds.
+ */
+class ColumnZoneMap extends AbstractColumnBlockSummary {
+    // [min, max] pairs per block
+    private final LongList minMax = new LongList();
+
+    ColumnZoneMap(long blockRows) {
+        super(blockRows);
+    }
+
+    long getMax(int block) {
+        return minMax.getQuick(2 * block + 1);
+    }
+
+    long getMin(int block) {
+        return minMax.getQuick(2 * block);
+    }
+
+    @Override
+    protected void clear() {
+        minMax.clear();
+    }
+
+    @Override
+    protected void update(TableReader reader, int base, int columnIndex, int columnType, long columnTop, long rowLo, long rowHi) {
+        // the last, possibly incomplete, block is calculated once again
+        final long firstBlock = rowLo / blockRows;
+        minMax.setPos((int) (2 * firstBlock));
+
+        final MemoryCR colMem = reader.getColumn(TableReader.getPrimaryColumnIndex(base, columnIndex));
+        final boolean allNulls = colMem instanceof NullMemoryCMR;
+        final long address = allNulls ? 0 : colMem.getPageAddress(0);
+        final int shift = ColumnType.pow2SizeOf(columnType);
+        final int tag = ColumnType.tagOf(columnType);
+        for (long lo = firstBlock * blockRows; lo < rowHi; lo += blockRows) {
+            final long hi = Math.min(lo + blockRows, rowHi);
+            final long dataLo = Math.max(lo, columnTop);
+            if (allNulls || dataLo >= hi) {
+                // the block is entirely under the column top
+                addNullBlock(tag);
+                continue;
+            }
+            final long blockAddress = address + ((dataLo - columnTop) << shift);
+            final long count = hi - dataLo;
+            switch (tag) {
+                case ColumnType.INT:
+                    final int minInt = Vect.minInt(blockAddress, count);
+                    final int maxInt = Vect.maxInt(blockAddress, count);
+                    minMax.add(minInt != Numbers.INT_NULL ? minInt : Numbers.LONG_NULL);
+                    minMax.add(maxInt != Numbers.INT_NULL ? maxInt : Numbers.LONG_NULL);
+                    break;
+                case ColumnType.DOUBLE:
+                    final double minDouble = Vect.minDouble(blockAddress, count);
+                    final double maxDouble = Vect.maxDouble(blockAddress, count);
+                    if (Double.isNaN(minDouble) || Double.isNaN(maxDouble)) {
+                        // nulls only, or infinities the vectorized min/max don't report
+                        addNullBlock(tag);
+                    } else {
+                        minMax.add(Double.doubleToRawLongBits(minDouble));
+                        minMax.add(Double.doubleToRawLongBits(maxDouble));
+                    }
+                    break;
+                default:
+                    minMax.add(Vect.minLong(blockAddress, count));
+                    minMax.add(Vect.maxLong(blockAddress, count));
+                    break;
+            }
+        }
+    }
+
+    private void addNullBlock(int tag) {
+        if (tag == ColumnType.DOUBLE) {
+            // NaN is not distinguishable from the absent min/max, so the block is never skipped
+            minMax.add(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+            minMax.add(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+        } else {
+            minMax.add(Numbers.LONG_NULL);
+            minMax.add(Numbers.LONG_NULL);
+        }
+    }
+}
@@ -0,0 +1,913 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ImplicitCastException;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.FunctionParser;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlKeywords;
+import io.questdb.griffin.SqlUtil;
+import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
+import io.questdb.griffin.engine.table.parquet.RowGroupStatBuffers;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.std.Chars;
+import io.questdb.std.DirectIntList;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.LongObjHashMap;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.DirectUtf8String;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.Utf8StringSink;
+import io.questdb.std.str.Utf8s;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Skips Parquet row groups and blocks of native partition rows that can't hold rows matching
+ * a filter. The filter's top-level AND-ed predicates of the form {@code column op constant},
+ * where op is one of =, &lt;, &lt;=, &gt;, &gt;=, IN or BETWEEN, are checked against the min/max
+ * column chunk statistics of each row group, or against the min/max values of each block of
+ * a native partition. Everything else in the filter is ignored, so the rows that are not skipped
+ * still have to be filtered as usual.
+ * <p>
+ * Only nullable column types are considered, since their statistics don't take nulls into
+ * account and a null never matches a comparison with a non-null constant. Symbol, string and
+ * varchar columns are supported for = and IN only, as their statistics are ordered by UTF-8 bytes.
+ * Row groups with no statistics for a column, e.g. the ones written with statistics disabled,
+ * are never skipped.
+ * <p>
+ * Native partitions have no statistics on disk, so min/max values of INT, LONG, DATE, TIMESTAMP
+ * and DOUBLE columns are calculated per block of rows on the first scan of the partition, see
+ * {@link ColumnZoneMap}. When enabled, = and IN predicates on LONG and VARCHAR columns are also
+ * checked against per block Bloom filters, see {@link ColumnBloomFilter}. The block summaries
+ * are kept along with the filter, so that they are reused by subsequent executions of the query.
+ */
+public class DataSkippingFilter implements QuietCloseable {
+    private static final int KIND_DOUBLE = 1;
+    private static final int KIND_LONG = 0;
+    private static final int KIND_UTF8 = 2;
+    private static final int OP_BETWEEN = 6;
+    private static final int OP_EQ = 0;
+    private static final int OP_GE = 4;
+    private static final int OP_GT = 3;
+    private static final int OP_IN = 5;
+    private static final int OP_LE = 2;
+    private static final int OP_LT = 1;
+    private static final int SUMMARY_BLOOM_FILTER = 1;
+    private static final int SUMMARY_ZONE_MAP = 0;
+    private final long blockRows;
+    private final int bloomFilterBitsPerValue;
+    // Bloom filter slot per condition, -1 when the condition can't be checked against a Bloom filter
+    private final IntList bloomFilterSlots = new IntList();
+    private final IntList columnIndexes = new IntList();
+    private final IntList columnTypes = new IntList();
+    private final IntList enabled = new IntList();
+    private final IntList kinds = new IntList();
+    private final LongList longValues = new LongList();
+    private final IntList ops = new IntList();
+    private final IntList statIndexes = new IntList();
+    private final DirectUtf8String statValue = new DirectUtf8String();
+    // first condition per slot, it refers to the slot's column
+    private final IntList summaryConditions = new IntList();
+    // block summaries of the current native partition, per slot
+    private final ObjList<AbstractColumnBlockSummary> summaryPartition = new ObjList<>();
+    private final IntList summaryTypes = new IntList();
+    // per slot block summaries, keyed by partition timestamp
+    private final ObjList<LongObjHashMap<AbstractColumnBlockSummary>> summaries = new ObjList<>();
+    private final ObjList<Utf8StringSink> utf8Values = new ObjList<>();
+    private final LongList valueHashes = new LongList();
+    // values of condition i reside at [valueOffsets[i], valueOffsets[i+1])
+    private final IntList valueOffsets = new IntList();
+    private final ObjList<Function> values = new ObjList<>();
+    // zone map slot per condition, -1 when the condition can't be checked against a zone map
+    private final IntList zoneMapSlots = new IntList();
+    private long decoderFileAddr;
+    private long decoderFileSize;
+    // native buffers are allocated lazily, on the first Parquet partition
+    private DirectIntList parquetColumns;
+    private RowGroupStatBuffers statBuffers;
+    private boolean summariesReady;
+
+    private DataSkippingFilter(long blockRows, int bloomFilterBitsPerValue) {
+        this.blockRows = blockRows;
+        this.bloomFilterBitsPerValue = bloomFilterBitsPerValue;
+        valueOffsets.add(0);
+    }
+
+    /**
+     * Extracts the predicates usable for data skipping out of the given filter.
+     *
+     * @param blockRows               number of rows per zone map and Bloom filter block of native partitions,
+     *                                0 disables both
+     * @param bloomFilterBitsPerValue number of Bloom filter bits per row, 0 disables Bloom filters
+     * @return the data skipping filter or null if the filter has no usable predicates
+     */
+    @Nullable
+    public static DataSkippingFilter of(
+            ExpressionNode filterExpr,
+            RecordMetadata metadata,
+            FunctionParser functionParser,
+            SqlExecutionContext executionContext,
+            long blockRows,
+            int bloomFilterBitsPerValue
+    ) {
+        final DataSkippingFilter filter = new DataSkippingFilter(blockRows, bloomFilterBitsPerValue);
+        try {
+            filter.addConditions(filterExpr, metadata, functionParser, executionContext);
+        } catch (Throwable th) {
+            filter.close();
+            throw th;
+        }
+        if (filter.ops.size() == 0) {
+            filter.close();
+            return null;
+        }
+        return filter;
+    }
+
+    /**
+     * Returns true if none of the rows in the given row group may pass the filter.
+     *
+     * @param decoder       decoder of the Parquet partition
+     * @param columnIndexes table reader column indexes of the filtered metadata columns
+     * @param rowGroupIndex row group index
+     */
+    public boolean canSkipRowGroup(PartitionDecoder decoder, IntList columnIndexes, int rowGroupIndex) {
+        if (decoder.getFileAddr() != decoderFileAddr || decoder.getFileSize() != decoderFileSize) {
+            mapColumns(decoder, columnIndexes);
+        }
+        if (parquetColumns.size() == 0) {
+            return false;
+        }
+        decoder.readRowGroupStats(statBuffers, parquetColumns, rowGroupIndex);
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final int statIndex = statIndexes.getQuick(i);
+            if (statIndex > -1 && enabled.getQuick(i) == 1 && cannotMatch(i, statIndex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjListAndClear(values);
+        statBuffers = Misc.free(statBuffers);
+        parquetColumns = Misc.free(parquetColumns);
+        decoderFileAddr = 0;
+        decoderFileSize = 0;
+        for (int i = 0, n = summaries.size(); i < n; i++) {
+            final LongObjHashMap<AbstractColumnBlockSummary> partitionSummaries = summaries.getQuick(i);
+            partitionSummaries.forEach((partitionTimestamp, summary) -> summary.close());
+            partitionSummaries.clear();
+        }
+        summaryPartition.clear();
+        summariesReady = false;
+    }
+
+    /**
+     * Evaluates constant sides of the predicates. Must be called before each execution
+     * since the constants may be bind variables.
+     */
+    public void init(SqlExecutionContext executionContext) throws SqlException {
+        Function.init(values, null, executionContext, null);
+        decoderFileAddr = 0;
+        decoderFileSize = 0;
+        longValues.setAll(values.size(), 0);
+        valueHashes.setAll(values.size(), 0);
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            boolean usable = true;
+            final int kind = kinds.getQuick(i);
+            for (int j = valueOffsets.getQuick(i), m = valueOffsets.getQuick(i + 1); j < m && usable; j++) {
+                final Function value = values.getQuick(j);
+                if (kindOf(columnTypes.getQuick(i), value.getType()) != kind) {
+                    // bind variable type has changed since the compilation
+                    usable = false;
+                    break;
+                }
+                switch (kind) {
+                    case KIND_LONG:
+                        final long l = evalLong(value);
+                        longValues.setQuick(j, l);
+                        valueHashes.setQuick(j, ColumnBloomFilter.hash(l));
+                        usable = l != Numbers.LONG_NULL;
+                        break;
+                    case KIND_DOUBLE:
+                        final double d = evalDouble(value);
+                        longValues.setQuick(j, Double.doubleToRawLongBits(d));
+                        usable = !Numbers.isNull(d);
+                        break;
+                    default:
+                        final Utf8StringSink sink = utf8Values.getQuick(j);
+                        usable = evalUtf8(value, sink);
+                        valueHashes.setQuick(j, ColumnBloomFilter.hash(sink));
+                        break;
+                }
+            }
+            // a null constant may match nulls, and these are not accounted in the stats
+            enabled.setQuick(i, usable ? 1 : 0);
+        }
+        summariesReady = false;
+    }
+
+    /**
+     * Returns the last row in (lo, hi) that ends a block of rows that may be skipped,
+     * or lo if there is no such block. Must be called after {@link #skipBlocksBwd}.
+     *
+     * @param lo partition row to end the search at, inclusive
+     * @param hi partition row returned by {@link #skipBlocksBwd}, exclusive
+     * @return the row that starts a range of possibly matching rows ending at hi
+     */
+    public long matchingRowsLo(long lo, long hi) {
+        if (!summariesReady) {
+            return lo;
+        }
+        for (long row = ((hi - 1) / blockRows) * blockRows; row > lo; row -= blockRows) {
+            if (canSkipBlock((int) ((row - 1) / blockRows))) {
+                return row;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the first row in (lo, hi) that starts a block of rows that may be skipped,
+     * or hi if there is no such block. Must be called after {@link #skipBlocksFwd}.
+     *
+     * @param lo partition row returned by {@link #skipBlocksFwd}, inclusive
+     * @param hi partition row to end the search at, exclusive
+     * @return the row that ends a range of possibly matching rows starting at lo
+     */
+    public long matchingRowsHi(long lo, long hi) {
+        if (!summariesReady) {
+            return hi;
+        }
+        for (long row = (lo / blockRows + 1) * blockRows; row < hi; row += blockRows) {
+            if (canSkipBlock((int) (row / blockRows))) {
+                return row;
+            }
+        }
+        return hi;
+    }
+
+    /**
+     * Skips trailing blocks of a native partition that can't hold rows matching the filter.
+     *
+     * @param reader         table reader
+     * @param partitionIndex partition index
+     * @param columnIndexes  table reader column indexes of the filtered metadata columns
+     * @param lo             partition row to start the scan from, inclusive
+     * @param hi             partition row to end the scan at, exclusive
+     * @return the row the backward scan should start from, exclusive; lo if all rows were skipped
+     */
+    public long skipBlocksBwd(TableReader reader, int partitionIndex, IntList columnIndexes, long lo, long hi) {
+        if (!prepareSummaries(reader, partitionIndex, columnIndexes)) {
+            return hi;
+        }
+        long row = hi;
+        while (row > lo) {
+            final long block = (row - 1) / blockRows;
+            if (!canSkipBlock((int) block)) {
+                return row;
+            }
+            row = block * blockRows;
+        }
+        return lo;
+    }
+
+    /**
+     * Skips leading blocks of a native partition that can't hold rows matching the filter.
+     *
+     * @param reader         table reader
+     * @param partitionIndex partition index
+     * @param columnIndexes  table reader column indexes of the filtered metadata columns
+     * @param lo             partition row to start the scan from, inclusive
+     * @param hi             partition row to end the scan at, exclusive
+     * @return the row the forward scan should start from; hi if all rows were skipped
+     */
+    public long skipBlocksFwd(TableReader reader, int partitionIndex, IntList columnIndexes, long lo, long hi) {
+        if (!prepareSummaries(reader, partitionIndex, columnIndexes)) {
+            return lo;
+        }
+        long row = lo;
+        while (row < hi) {
+            final long block = row / blockRows;
+            if (!canSkipBlock((int) block)) {
+                return row;
+            }
+            row = (block + 1) * blockRows;
+        }
+        return hi;
+    }
+
+    private static int compareStat(long lo, long size, Utf8Sequence value, DirectUtf8String statValue) {
+        return Utf8s.compare(statValue.of(lo, lo + size), value);
+    }
+
+    private static double evalDouble(Function value) {
+        switch (ColumnType.tagOf(value.getType())) {
+            case ColumnType.FLOAT:
+                return value.getFloat(null);
+            case ColumnType.DOUBLE:
+                return value.getDouble(null);
+            default:
+                final long l = evalLong(value);
+                return l != Numbers.LONG_NULL ? l : Double.NaN;
+        }
+    }
+
+    private static long evalLong(Function value) {
+        switch (ColumnType.tagOf(value.getType())) {
+            case ColumnType.BYTE:
+                return value.getByte(null);
+            case ColumnType.SHORT:
+                return value.getShort(null);
+            case ColumnType.INT:
+                final int i = value.getInt(null);
+                return i != Numbers.INT_NULL ? i : Numbers.LONG_NULL;
+            case ColumnType.LONG:
+                return value.getLong(null);
+            case ColumnType.DATE:
+                return value.getDate(null);
+            case ColumnType.TIMESTAMP:
+                return value.getTimestamp(null);
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+                // string literals compared to a timestamp column
+                try {
+                    return SqlUtil.implicitCastStrAsTimestamp(value.getStrA(null));
+                } catch (ImplicitCastException ignore) {
+                    return Numbers.LONG_NULL;
+                }
+            case ColumnType.VARCHAR:
+                final Utf8Sequence us = value.getVarcharA(null);
+                try {
+                    return us != null ? SqlUtil.implicitCastVarcharAsTimestamp(us.asAsciiCharSequence()) : Numbers.LONG_NULL;
+                } catch (ImplicitCastException ignore) {
+                    return Numbers.LONG_NULL;
+                }
+            default:
+                return Numbers.LONG_NULL;
+        }
+    }
+
+    private static boolean evalUtf8(Function value, Utf8StringSink sink) {
+        sink.clear();
+        if (ColumnType.tagOf(value.getType()) == ColumnType.VARCHAR) {
+            final Utf8Sequence us = value.getVarcharA(null);
+            if (us == null) {
+                return false;
+            }
+            sink.put(us);
+            return true;
+        }
+        final CharSequence cs = value.getStrA(null);
+        if (cs == null) {
+            return false;
+        }
+        sink.put(cs);
+        return true;
+    }
+
+    private static int flip(int op) {
+        switch (op) {
+            case OP_LT:
+                return OP_GT;
+            case OP_LE:
+                return OP_GE;
+            case OP_GT:
+                return OP_LT;
+            case OP_GE:
+                return OP_LE;
+            default:
+                return op;
+        }
+    }
+
+    private static boolean isIntegerTag(int tag) {
+        return tag == ColumnType.BYTE || tag == ColumnType.SHORT || tag == ColumnType.INT || tag == ColumnType.LONG;
+    }
+
+    private static boolean isStringTag(int tag) {
+        return tag == ColumnType.STRING || tag == ColumnType.VARCHAR || tag == ColumnType.SYMBOL;
+    }
+
+    private static int kindOf(int columnType, int valueType) {
+        final int columnTag = ColumnType.tagOf(columnType);
+        final int valueTag = ColumnType.tagOf(valueType);
+        switch (columnTag) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                if (isIntegerTag(valueTag)) {
+                    return KIND_LONG;
+                }
+                return valueTag == ColumnType.FLOAT || valueTag == ColumnType.DOUBLE ? KIND_DOUBLE : -1;
+            case ColumnType.DATE:
+                return isIntegerTag(valueTag) || valueTag == ColumnType.DATE ? KIND_LONG : -1;
+            case ColumnType.TIMESTAMP:
+                return isIntegerTag(valueTag) || valueTag == ColumnType.TIMESTAMP || isStringTag(valueTag) ? KIND_LONG : -1;
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return isIntegerTag(valueTag) || valueTag == ColumnType.FLOAT || valueTag == ColumnType.DOUBLE ? KIND_DOUBLE : -1;
+            case ColumnType.SYMBOL:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+                return isStringTag(valueTag) ? KIND_UTF8 : -1;
+            default:
+                return -1;
+        }
+    }
+
+    private static int opOf(CharSequence token) {
+        if (Chars.equals(token, '=')) {
+            return OP_EQ;
+        }
+        if (Chars.equals(token, '<')) {
+            return OP_LT;
+        }
+        if (Chars.equals(token, "<=")) {
+            return OP_LE;
+        }
+        if (Chars.equals(token, '>')) {
+            return OP_GT;
+        }
+        if (Chars.equals(token, ">=")) {
+            return OP_GE;
+        }
+        if (SqlKeywords.isInKeyword(token)) {
+            return OP_IN;
+        }
+        if (SqlKeywords.isBetweenKeyword(token)) {
+            return OP_BETWEEN;
+        }
+        return -1;
+    }
+
+    private void addCondition(
+            int op,
+            ExpressionNode columnNode,
+            ExpressionNode valueNode1,
+            ExpressionNode valueNode2,
+            ExpressionNode node,
+            RecordMetadata metadata,
+            FunctionParser functionParser,
+            SqlExecutionContext executionContext
+    ) {
+        if (columnNode.type != ExpressionNode.LITERAL) {
+            return;
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(columnNode.token);
+        if (columnIndex < 0) {
+            return;
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        final int valueLo = values.size();
+        int kind = -1;
+        if (op == OP_IN && valueNode1 == null) {
+            // values are in args, the last one is the column
+            for (int i = 0, n = node.args.size() - 1; i < n; i++) {
+                kind = addValue(node.args.getQuick(i), columnType, kind, metadata, functionParser, executionContext);
+                if (kind < 0) {
+                    break;
+                }
+            }
+        } else {
+            kind = addValue(valueNode1, columnType, kind, metadata, functionParser, executionContext);
+            if (kind > -1 && valueNode2 != null) {
+                kind = addValue(valueNode2, columnType, kind, metadata, functionParser, executionContext);
+            }
+        }
+        if (kind < 0 || (kind == KIND_UTF8 && op != OP_EQ && op != OP_IN)) {
+            for (int i = values.size() - 1; i >= valueLo; i--) {
+                Misc.free(values.getQuick(i));
+                values.remove(i);
+                utf8Values.remove(i);
+            }
+            return;
+        }
+        columnIndexes.add(columnIndex);
+        columnTypes.add(columnType);
+        ops.add(op);
+        kinds.add(kind);
+        enabled.add(0);
+        valueOffsets.add(values.size());
+        zoneMapSlots.add(zoneMapSlotOf(columnIndex, columnType, kind, metadata));
+        bloomFilterSlots.add(bloomFilterSlotOf(columnIndex, columnType, kind, op));
+    }
+
+    private void addConditions(
+            ExpressionNode node,
+            RecordMetadata metadata,
+            FunctionParser functionParser,
+            SqlExecutionContext executionContext
+    ) {
+        if (node == null) {
+            return;
+        }
+        if (SqlKeywords.isAndKeyword(node.token) && node.paramCount == 2) {
+            addConditions(node.lhs, metadata, functionParser, executionContext);
+            addConditions(node.rhs, metadata, functionParser, executionContext);
+            return;
+        }
+        if (node.type != ExpressionNode.OPERATION && node.type != ExpressionNode.FUNCTION) {
+            return;
+        }
+        final int op = opOf(node.token);
+        switch (op) {
+            case -1:
+                return;
+            case OP_IN:
+                if (node.paramCount == 2) {
+                    addCondition(op, node.lhs, node.rhs, null, node, metadata, functionParser, executionContext);
+                } else if (node.paramCount > 2) {
+                    addCondition(op, node.args.getLast(), null, null, node, metadata, functionParser, executionContext);
+                }
+                return;
+            case OP_BETWEEN:
+                if (node.paramCount == 3) {
+                    addCondition(op, node.args.getQuick(2), node.args.getQuick(1), node.args.getQuick(0), node, metadata, functionParser, executionContext);
+                }
+                return;
+            default:
+                if (node.paramCount != 2) {
+                    return;
+                }
+                if (node.lhs.type == ExpressionNode.LITERAL) {
+                    addCondition(op, node.lhs, node.rhs, null, node, metadata, functionParser, executionContext);
+                } else {
+                    addCondition(flip(op), node.rhs, node.lhs, null, node, metadata, functionParser, executionContext);
+                }
+        }
+    }
+
+    private int addValue(
+            ExpressionNode valueNode,
+            int columnType,
+            int kind,
+            RecordMetadata metadata,
+            FunctionParser functionParser,
+            SqlExecutionContext executionContext
+    ) {
+        if (valueNode.type == ExpressionNode.LITERAL || valueNode.type == ExpressionNode.QUERY) {
+            return -1;
+        }
+        final Function value;
+        try {
+            value = functionParser.parseFunction(valueNode, metadata, executionContext);
+        } catch (SqlException | CairoException | ImplicitCastException e) {
+            // the filter is compiled on its own, anything we can't handle here is simply not used
+            return -1;
+        }
+        if (!value.isConstantOrRuntimeConstant()) {
+            Misc.free(value);
+            return -1;
+        }
+        final int valueKind = kindOf(columnType, value.getType());
+        values.add(value);
+        utf8Values.add(valueKind == KIND_UTF8 ? new Utf8StringSink() : null);
+        return kind == -1 || kind == valueKind ? valueKind : -1;
+    }
+
+    private boolean canSkipBlock(int block) {
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            if (enabled.getQuick(i) == 0) {
+                continue;
+            }
+            final int zoneMapSlot = zoneMapSlots.getQuick(i);
+            if (zoneMapSlot > -1 && cannotMatchBlock(i, (ColumnZoneMap) summaryPartition.getQuick(zoneMapSlot), block)) {
+                return true;
+            }
+            final int bloomFilterSlot = bloomFilterSlots.getQuick(i);
+            if (bloomFilterSlot > -1 && cannotMatchBlock(i, (ColumnBloomFilter) summaryPartition.getQuick(bloomFilterSlot), block)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean cannotMatch(int condition, int statIndex) {
+        final long minSize = statBuffers.getMinValueSize(statIndex);
+        final long maxSize = statBuffers.getMaxValueSize(statIndex);
+        if (minSize == 0 || maxSize == 0) {
+            // no stats, or all values in the column chunk are null
+            return false;
+        }
+        final long minPtr = statBuffers.getMinValuePtr(statIndex);
+        final long maxPtr = statBuffers.getMaxValuePtr(statIndex);
+        final int lo = valueOffsets.getQuick(condition);
+        final int hi = valueOffsets.getQuick(condition + 1);
+        final int op = ops.getQuick(condition);
+        switch (kinds.getQuick(condition)) {
+            case KIND_LONG: {
+                final long min;
+                final long max;
+                if (ColumnType.tagOf(columnTypes.getQuick(condition)) == ColumnType.INT) {
+                    if (minSize != Integer.BYTES || maxSize != Integer.BYTES) {
+                        return false;
+                    }
+                    min = Unsafe.getUnsafe().getInt(minPtr);
+                    max = Unsafe.getUnsafe().getInt(maxPtr);
+                } else {
+                    if (minSize != Long.BYTES || maxSize != Long.BYTES) {
+                        return false;
+                    }
+                    min = Unsafe.getUnsafe().getLong(minPtr);
+                    max = Unsafe.getUnsafe().getLong(maxPtr);
+                }
+                return cannotMatchLong(op, min, max, lo, hi);
+            }
+            case KIND_DOUBLE: {
+                final double min;
+                final double max;
+                switch (ColumnType.tagOf(columnTypes.getQuick(condition))) {
+                    case ColumnType.INT:
+                    case ColumnType.FLOAT:
+                        if (minSize != Integer.BYTES || maxSize != Integer.BYTES) {
+                            return false;
+                        }
+                        final boolean isInt = ColumnType.tagOf(columnTypes.getQuick(condition)) == ColumnType.INT;
+                        min = isInt ? Unsafe.getUnsafe().getInt(minPtr) : Unsafe.getUnsafe().getFloat(minPtr);
+                        max = isInt ? Unsafe.getUnsafe().getInt(maxPtr) : Unsafe.getUnsafe().getFloat(maxPtr);
+                        break;
+                    default:
+                        if (minSize != Long.BYTES || maxSize != Long.BYTES) {
+                            return false;
+                        }
+                        final boolean isLong = ColumnType.tagOf(columnTypes.getQuick(condition)) == ColumnType.LONG;
+                        min = isLong ? Unsafe.getUnsafe().getLong(minPtr) : Unsafe.getUnsafe().getDouble(minPtr);
+                        max = isLong ? Unsafe.getUnsafe().getLong(maxPtr) : Unsafe.getUnsafe().getDouble(maxPtr);
+                        break;
+                }
+                return cannotMatchDouble(op, min, max, lo, hi);
+            }
+            default:
+                // = and IN only
+                for (int i = lo; i < hi; i++) {
+                    final Utf8StringSink value = utf8Values.getQuick(i);
+                    if (compareStat(minPtr, minSize, value, statValue) <= 0 && compareStat(maxPtr, maxSize, value, statValue) >= 0) {
+                        return false;
+                    }
+                }
+                return true;
+        }
+    }
+
+    private boolean cannotMatchBlock(int condition, ColumnBloomFilter bloomFilter, int block) {
+        // = and IN only
+        for (int i = valueOffsets.getQuick(condition), n = valueOffsets.getQuick(condition + 1); i < n; i++) {
+            if (bloomFilter.mightContain(block, valueHashes.getQuick(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean cannotMatchBlock(int condition, ColumnZoneMap zoneMap, int block) {
+        final long min = zoneMap.getMin(block);
+        final long max = zoneMap.getMax(block);
+        final int lo = valueOffsets.getQuick(condition);
+        final int hi = valueOffsets.getQuick(condition + 1);
+        final int op = ops.getQuick(condition);
+        if (ColumnType.tagOf(columnTypes.getQuick(condition)) == ColumnType.DOUBLE) {
+            return cannotMatchDouble(op, Double.longBitsToDouble(min), Double.longBitsToDouble(max), lo, hi);
+        }
+        if (min == Numbers.LONG_NULL) {
+            // nulls only
+            return true;
+        }
+        if (kinds.getQuick(condition) == KIND_DOUBLE) {
+            return cannotMatchDouble(op, min, max, lo, hi);
+        }
+        return cannotMatchLong(op, min, max, lo, hi);
+    }
+
+    private boolean cannotMatchDouble(int op, double min, double max, int lo, int hi) {
+        final double v = Double.longBitsToDouble(longValues.getQuick(lo));
+        switch (op) {
+            case OP_LT:
+                return min >= v;
+            case OP_LE:
+                return min > v;
+            case OP_GT:
+                return max <= v;
+            case OP_GE:
+                return max < v;
+            case OP_BETWEEN:
+                final double v2 = Double.longBitsToDouble(longValues.getQuick(lo + 1));
+                return max < Math.min(v, v2) || min > Math.max(v, v2);
+            default:
+                for (int i = lo; i < hi; i++) {
+                    final double value = Double.longBitsToDouble(longValues.getQuick(i));
+                    if (value >= min && value <= max) {
+                        return false;
+                    }
+                }
+                return true;
+        }
+    }
+
+    private boolean cannotMatchLong(int op, long min, long max, int lo, int hi) {
+        final long v = longValues.getQuick(lo);
+        switch (op) {
+            case OP_LT:
+                return min >= v;
+            case OP_LE:
+                return min > v;
+            case OP_GT:
+                return max <= v;
+            case OP_GE:
+                return max < v;
+            case OP_BETWEEN:
+                final long v2 = longValues.getQuick(lo + 1);
+                return max < Math.min(v, v2) || min > Math.max(v, v2);
+            default:
+                for (int i = lo; i < hi; i++) {
+                    final long value = longValues.getQuick(i);
+                    if (value >= min && value <= max) {
+                        return false;
+                    }
+                }
+                return true;
+        }
+    }
+
+    private void mapColumns(PartitionDecoder decoder, IntList readerColumnIndexes) {
+        final PartitionDecoder.Metadata parquetMetadata = decoder.metadata();
+        if (parquetColumns == null) {
+            parquetColumns = new DirectIntList(8, MemoryTag.NATIVE_PARQUET_PARTITION_DECODER);
+            statBuffers = new RowGroupStatBuffers(MemoryTag.NATIVE_PARQUET_PARTITION_DECODER);
+        }
+        parquetColumns.clear();
+        statIndexes.clear();
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final int columnIndex = readerColumnIndexes.getQuick(columnIndexes.getQuick(i));
+            int parquetColumnIndex = -1;
+            for (int j = 0, m = parquetMetadata.columnCount(); j < m; j++) {
+                if (parquetMetadata.columnId(j) == columnIndex) {
+                    parquetColumnIndex = j;
+                    break;
+                }
+            }
+            // the column may be missing or have a different type, e.g. symbols written as varchar
+            if (parquetColumnIndex == -1
+                    || ColumnType.tagOf(parquetMetadata.getColumnType(parquetColumnIndex)) != ColumnType.tagOf(columnTypes.getQuick(i))) {
+                statIndexes.add(-1);
+                continue;
+            }
+            int statIndex = -1;
+            for (int j = 0, m = (int) (parquetColumns.size() >>> 1); j < m; j++) {
+                if (parquetColumns.get(2L * j) == parquetColumnIndex) {
+                    statIndex = j;
+                    break;
+                }
+            }
+            if (statIndex == -1) {
+                statIndex = (int) (parquetColumns.size() >>> 1);
+                parquetColumns.add(parquetColumnIndex);
+                parquetColumns.add(parquetMetadata.getColumnType(parquetColumnIndex));
+            }
+            statIndexes.add(statIndex);
+        }
+        decoderFileAddr = decoder.getFileAddr();
+        decoderFileSize = decoder.getFileSize();
+    }
+
+    private int bloomFilterSlotOf(int columnIndex, int columnType, int kind, int op) {
+        if (blockRows < 1 || bloomFilterBitsPerValue < 1 || (op != OP_EQ && op != OP_IN)) {
+            return -1;
+        }
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+                if (kind != KIND_LONG) {
+                    return -1;
+                }
+                break;
+            case ColumnType.VARCHAR:
+                break;
+            default:
+                return -1;
+        }
+        return slotOf(bloomFilterSlots, SUMMARY_BLOOM_FILTER, columnIndex);
+    }
+
+    private boolean prepareSummaries(TableReader reader, int partitionIndex, IntList readerColumnIndexes) {
+        summariesReady = false;
+        final int slotCount = summaries.size();
+        if (slotCount == 0) {
+            return false;
+        }
+        summaryPartition.setAll(slotCount, null);
+        final long partitionTimestamp = reader.getPartitionTimestampByIndex(partitionIndex);
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            if (enabled.getQuick(i) == 1) {
+                prepareSummary(zoneMapSlots.getQuick(i), reader, partitionIndex, partitionTimestamp, readerColumnIndexes);
+                prepareSummary(bloomFilterSlots.getQuick(i), reader, partitionIndex, partitionTimestamp, readerColumnIndexes);
+            }
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (summaryPartition.getQuick(slot) != null) {
+                summariesReady = true;
+                break;
+            }
+        }
+        return summariesReady;
+    }
+
+    private void prepareSummary(
+            int slot,
+            TableReader reader,
+            int partitionIndex,
+            long partitionTimestamp,
+            IntList readerColumnIndexes
+    ) {
+        if (slot < 0 || summaryPartition.getQuick(slot) != null) {
+            return;
+        }
+        final LongObjHashMap<AbstractColumnBlockSummary> partitionSummaries = summaries.getQuick(slot);
+        final int keyIndex = partitionSummaries.keyIndex(partitionTimestamp);
+        final AbstractColumnBlockSummary summary;
+        if (keyIndex > -1) {
+            summary = summaryTypes.getQuick(slot) == SUMMARY_ZONE_MAP
+                    ? new ColumnZoneMap(blockRows)
+                    : new ColumnBloomFilter(blockRows, bloomFilterBitsPerValue);
+            partitionSummaries.putAt(keyIndex, partitionTimestamp, summary);
+        } else {
+            summary = partitionSummaries.valueAt(keyIndex);
+        }
+        final int condition = summaryConditions.getQuick(slot);
+        summary.of(
+                reader,
+                partitionIndex,
+                readerColumnIndexes.getQuick(columnIndexes.getQuick(condition)),
+                columnTypes.getQuick(condition)
+        );
+        summaryPartition.setQuick(slot, summary);
+    }
+
+    private int slotOf(IntList conditionSlots, int summaryType, int columnIndex) {
+        // conditions on the same column share the block summary
+        for (int i = 0, n = conditionSlots.size(); i < n; i++) {
+            final int slot = conditionSlots.getQuick(i);
+            if (slot > -1 && columnIndexes.getQuick(i) == columnIndex) {
+                return slot;
+            }
+        }
+        // the slot is assigned to the last added condition
+        summaryConditions.add(ops.size() - 1);
+        summaryTypes.add(summaryType);
+        summaries.add(new LongObjHashMap<>());
+        return summaries.size() - 1;
+    }
+
+    private int zoneMapSlotOf(int columnIndex, int columnType, int kind, RecordMetadata metadata) {
+        if (blockRows < 1 || kind == KIND_UTF8 || columnIndex == metadata.getTimestampIndex()) {
+            // the designated timestamp is taken care of by interval scans
+            return -1;
+        }
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DOUBLE:
+                break;
+            default:
+                return -1;
+        }
+        return slotOf(zoneMapSlots, SUMMARY_ZONE_MAP, columnIndex);
+    }
+}
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ColumnTypeDriver;
+import io.questdb.cairo.PageCacheReadAhead;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.PartitionFormat;
@@ -36,7 +37,7 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.vm.NullMemoryCMR;
-import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.cairo.vm.api.MemoryCR;
 import io.questdb.griffin.engine.table.parquet.PartitionDecoder;
 import io.questdb.std.IntList;
 import io.questdb.std.LongList;
@@ -52,6 +53,7 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
     private final int pageFrameMaxRows;
     private final int pageFrameMinRows;
     private final LongList pageSizes = new LongList();
+    private final PageCacheReadAhead readAhead;
     private final int workerCount;
     private PartitionFrameCursor partitionFrameCursor;
     private TableReader reader;
@@ -62,13 +64,15 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
     private long reenterPartitionHi;
     private int reenterPartitionIndex;
     private long reenterPartitionLo;
+    private DataSkippingFilter skippingFilter;
 
     public FwdTableReaderPageFrameCursor(
             IntList columnIndexes,
             IntList columnSizeShifts,
             int workerCount,
             int pageFrameMinRows,
-            int pageFrameMaxRows
+            int pageFrameMaxRows,
+            @Nullable PageCacheReadAhead readAhead
     ) {
         this.columnIndexes = columnIndexes;
         this.columnSizeShifts = columnSizeShifts;
@@ -76,6 +80,7 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
         this.workerCount = workerCount;
         this.pageFrameMinRows = pageFrameMinRows;
         this.pageFrameMaxRows = pageFrameMaxRows;
+        this.readAhead = readAhead;
     }
 
     @Override
@@ -86,6 +91,8 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
     @Override
     public void close() {
         partitionFrameCursor = Misc.free(partitionFrameCursor);
+        // waits for in-flight reads and releases the ring
+        Misc.free(readAhead);
     }
 
     @Override
@@ -111,14 +118,16 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
     @Override
     public @Nullable PageFrame next() {
         if (reenterPartitionFrame) {
-            if (reenterParquetDecoder != null) {
-                return computeParquetFrame(reenterPartitionLo, reenterPartitionHi);
+            final TableReaderPageFrame reenterFrame = reenterParquetDecoder == null
+                    ? computeNativeFrame(reenterPartitionLo, reenterPartitionHi)
+                    : computeParquetFrame(reenterPartitionLo, reenterPartitionHi);
+            if (reenterFrame != null) {
+                return reenterFrame;
             }
-            return computeNativeFrame(reenterPartitionLo, reenterPartitionHi);
         }
 
-        final PartitionFrame partitionFrame = partitionFrameCursor.next();
-        if (partitionFrame != null) {
+        PartitionFrame partitionFrame;
+        while ((partitionFrame = partitionFrameCursor.next()) != null) {
             reenterPartitionIndex = partitionFrame.getPartitionIndex();
             final long lo = partitionFrame.getRowLo();
             final long hi = partitionFrame.getRowHi();
@@ -128,7 +137,12 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
                 clearAddresses();
                 reenterParquetDecoder = partitionFrame.getParquetDecoder();
                 reenterPageFrameRowLimit = 0;
-                return computeParquetFrame(lo, hi);
+                final TableReaderPageFrame parquetFrame = computeParquetFrame(lo, hi);
+                if (parquetFrame != null) {
+                    return parquetFrame;
+                }
+                // all row groups of the partition were pruned
+                continue;
             }
 
             assert format == PartitionFormat.NATIVE;
@@ -137,7 +151,11 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
                     pageFrameMaxRows,
                     Math.max(pageFrameMinRows, (hi - lo) / workerCount)
             );
-            return computeNativeFrame(lo, hi);
+            final TableReaderPageFrame nativeFrame = computeNativeFrame(lo, hi);
+            if (nativeFrame != null) {
+                return nativeFrame;
+            }
+            // all blocks of the partition were skipped
         }
         return null;
     }
@@ -150,6 +168,11 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
         return this;
     }
 
+    @Override
+    public void setDataSkippingFilter(@Nullable DataSkippingFilter skippingFilter) {
+        this.skippingFilter = skippingFilter;
+    }
+
     @Override
     public long size() {
         return partitionFrameCursor.size();
@@ -173,12 +196,25 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
         pageSizes.setAll(2 * columnCount, -1);
     }
 
-    private TableReaderPageFrame computeNativeFrame(long partitionLo, long partitionHi) {
+    private @Nullable TableReaderPageFrame computeNativeFrame(long partitionLo, long partitionHi) {
+        // Skip blocks of rows that have no rows matching the filter.
+        if (skippingFilter != null) {
+            partitionLo = skippingFilter.skipBlocksFwd(reader, reenterPartitionIndex, columnIndexes, partitionLo, partitionHi);
+            if (partitionLo == partitionHi) {
+                reenterPartitionFrame = false;
+                return null;
+            }
+        }
+
         final int base = reader.getColumnBase(reenterPartitionIndex);
 
         // we may need to split this partition frame either along "top" lines, or along
         // max page frame sizes; to do this, we calculate min top value from given position
         long adjustedHi = Math.min(partitionHi, partitionLo + reenterPageFrameRowLimit);
+        if (skippingFilter != null) {
+            // also split the frame at the next block that can be skipped
+            adjustedHi = skippingFilter.matchingRowsHi(partitionLo, adjustedHi);
+        }
         for (int i = 0; i < columnCount; i++) {
             final int columnIndex = columnIndexes.getQuick(i);
             long top = reader.getColumnTop(base, columnIndex);
@@ -190,7 +226,7 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
         for (int i = 0; i < columnCount; i++) {
             final int columnIndex = columnIndexes.getQuick(i);
             final int readerColIndex = TableReader.getPrimaryColumnIndex(base, columnIndex);
-            final MemoryR colMem = reader.getColumn(readerColIndex);
+            final MemoryCR colMem = reader.getColumn(readerColIndex);
             // when the entire column is NULL we make it skip the whole of the partition frame
             final long top = colMem instanceof NullMemoryCMR ? adjustedHi : reader.getColumnTop(base, columnIndex);
             final long partitionLoAdjusted = partitionLo - top;
@@ -206,10 +242,13 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
                     final long offset = partitionLoAdjusted << sh;
                     columnPageAddresses.setQuick(2 * i, address + offset);
                     pageSizes.setQuick(2 * i, addressSize - offset);
+                    if (readAhead != null) {
+                        readAhead.readAsync(colMem.getFd(), offset, addressSize - offset);
+                    }
                 } else {
                     final int columnType = reader.getMetadata().getColumnType(columnIndex);
                     final ColumnTypeDriver columnTypeDriver = ColumnType.getDriver(columnType);
-                    final MemoryR auxCol = reader.getColumn(readerColIndex + 1);
+                    final MemoryCR auxCol = reader.getColumn(readerColIndex + 1);
                     final long auxAddress = auxCol.getPageAddress(0);
                     final long auxOffsetLo = columnTypeDriver.getAuxVectorOffset(partitionLoAdjusted);
                     final long auxOffsetHi = columnTypeDriver.getAuxVectorOffset(partitionHiAdjusted);
@@ -222,6 +261,13 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
                     columnPageAddresses.setQuick(2 * i + 1, auxAddress + auxOffsetLo);
                     pageSizes.setQuick(2 * i, dataSize);
                     pageSizes.setQuick(2 * i + 1, auxOffsetHi - auxOffsetLo);
+                    if (readAhead != null) {
+                        readAhead.readAsync(auxCol.getFd(), auxOffsetLo, auxOffsetHi - auxOffsetLo);
+                        if (dataSize > 0) {
+                            final long dataOffsetLo = columnTypeDriver.getDataVectorOffset(auxAddress, partitionLoAdjusted);
+                            readAhead.readAsync(colMem.getFd(), dataOffsetLo, dataSize - dataOffsetLo);
+                        }
+                    }
                 }
             } else { // column top
                 columnPageAddresses.setQuick(2 * i, 0);
@@ -257,7 +303,7 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
         return frame;
     }
 
-    private TableReaderPageFrame computeParquetFrame(long partitionLo, long partitionHi) {
+    private @Nullable TableReaderPageFrame computeParquetFrame(long partitionLo, long partitionHi) {
         final PartitionDecoder.Metadata metadata = reenterParquetDecoder.metadata();
         final int rowGroupCount = metadata.rowGroupCount();
 
@@ -273,6 +319,17 @@ public class FwdTableReaderPageFrameCursor implements TablePageFrameCursor {
             rowCount += rowGroupSize;
         }
 
+        // Skip row groups that have no rows matching the filter.
+        while (skippingFilter != null && skippingFilter.canSkipRowGroup(reenterParquetDecoder, columnIndexes, rowGroupIndex)) {
+            rowCount += rowGroupSize;
+            if (rowCount >= partitionHi || ++rowGroupIndex == rowGroupCount) {
+                reenterPartitionFrame = false;
+                return null;
+            }
+            partitionLo = rowCount;
+            rowGroupSize = metadata.rowGroupSize(rowGroupIndex);
+        }
+
         // We may add rowGroupSize to rowCount second time here if we scanned to the last row group.
         // This is fine since then we're going to proceed with the partitionHi value.
         final long adjustedHi = Math.min(partitionHi, rowCount + rowGroupSize);
@@ -150,11 +150,29 @@ public class PageFrameRecordCursorFactory extends AbstractPageFrameRecordCursorF
         return supportsRandomAccess;
     }
 
+    /**
+     * Sets the filter used to skip Parquet row groups which can't hold rows matching
+     * the filter applied on top of this factory. The factory takes ownership of the filter.
+     */
+    public void setDataSkippingFilter(@NotNull DataSkippingFilter skippingFilter) {
+        assert supportsDataSkipping();
+        Misc.free(this.skippingFilter);
+        this.skippingFilter = skippingFilter;
+    }
+
     @Override
     public boolean supportsPageFrameCursor() {
         return framingSupported;
     }
 
+    /**
+     * Row groups may be skipped only when the factory produces all rows of the frames
+     * independently of each other, i.e. when it's a plain table scan.
+     */
+    public boolean supportsDataSkipping() {
+        return framingSupported && rowCursorFactory.isEntity() && !rowCursorFactory.isUsingIndex();
+    }
+
     @Override
     public boolean supportsTimeFrameCursor() {
         // Time frames are supported only for full table scan cursors, i.e. "x" queries.
@@ -196,32 +214,36 @@ public class PageFrameRecordCursorFactory extends AbstractPageFrameRecordCursorF
     protected PageFrameCursor initBwdPageFrameCursor(
             PartitionFrameCursor partitionFrameCursor,
             SqlExecutionContext executionContext
-    ) {
+    ) throws SqlException {
         if (bwdPageFrameCursor == null) {
             bwdPageFrameCursor = new BwdTableReaderPageFrameCursor(
                     columnIndexes,
                     columnSizeShifts,
                     executionContext.getSharedWorkerCount(),
                     pageFrameMinRows,
-                    pageFrameMaxRows
+                    pageFrameMaxRows,
+                    newPageCacheReadAhead()
             );
         }
+        initDataSkippingFilter(bwdPageFrameCursor, executionContext);
         return bwdPageFrameCursor.of(partitionFrameCursor);
     }
 
     protected PageFrameCursor initFwdPageFrameCursor(
             PartitionFrameCursor partitionFrameCursor,
             SqlExecutionContext executionContext
-    ) {
+    ) throws SqlException {
         if (fwdPageFrameCursor == null) {
             fwdPageFrameCursor = new FwdTableReaderPageFrameCursor(
                     columnIndexes,
                     columnSizeShifts,
                     executionContext.getSharedWorkerCount(),
                     pageFrameMinRows,
-                    pageFrameMaxRows
+                    pageFrameMaxRows,
+                    newPageCacheReadAhead()
             );
         }
+        initDataSkippingFilter(fwdPageFrameCursor, executionContext);
         return fwdPageFrameCursor.of(partitionFrameCursor);
     }
 
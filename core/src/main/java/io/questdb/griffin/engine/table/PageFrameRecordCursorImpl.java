@@ -136,7 +136,7 @@ public class PageFrameRecordCursorImpl extends AbstractPageFrameRecordCursor {
         rowCursor = null;
         isSkipped = false;
         // prepare for page frame iteration
-        super.init();
+        super.init(sqlExecutionContext.getMessageBus());
     }
 
     @Override
@@ -27,10 +27,17 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.PageFrameCursor;
 import io.questdb.cairo.sql.PartitionFrameCursor;
+import org.jetbrains.annotations.Nullable;
 
 public interface TablePageFrameCursor extends PageFrameCursor {
 
     TableReader getTableReader();
 
     TablePageFrameCursor of(PartitionFrameCursor partitionFrameCursor);
+
+    /**
+     * Sets the filter used to skip Parquet row groups and native partition blocks with no matching rows.
+     * The filter is owned by the caller.
+     */
+    void setDataSkippingFilter(@Nullable DataSkippingFilter skippingFilter);
 }
@@ -45,6 +45,7 @@ import io.questdb.std.IntList;
 import io.questdb.std.LongList;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
 import io.questdb.std.Rows;
 import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
@@ -61,10 +62,14 @@ public final class TimeFrameRecordCursorImpl implements TimeFrameRecordCursor {
     private final RecordMetadata metadata;
     private final PageFrameMemoryRecord recordA = new PageFrameMemoryRecord(PageFrameMemoryRecord.RECORD_A_LETTER);
     private final PageFrameMemoryRecord recordB = new PageFrameMemoryRecord(PageFrameMemoryRecord.RECORD_B_LETTER);
+    // symbol tables of a shared cursor; the reader's tables are used by the owner's thread
+    private final ObjList<StaticSymbolTable> sharedSymbolTables = new ObjList<>();
     private final TableReaderTimeFrame timeFrame = new TableReaderTimeFrame();
     private int frameCount = 0;
     private PageFrameCursor frameCursor;
     private boolean isFrameCacheBuilt;
+    // set when frames are shared with another cursor that owns the frame cursor
+    private boolean isShared;
     private PartitionBy.PartitionCeilMethod partitionCeilMethod;
     private int partitionHi;
     private TableReader reader;
@@ -81,7 +86,14 @@ public final class TimeFrameRecordCursorImpl implements TimeFrameRecordCursor {
     @Override
     public void close() {
         Misc.free(frameMemoryPool);
-        frameCursor = Misc.free(frameCursor);
+        Misc.freeObjListIfCloseable(sharedSymbolTables);
+        sharedSymbolTables.clear();
+        if (isShared) {
+            frameCursor = null;
+            reader = null;
+        } else {
+            frameCursor = Misc.free(frameCursor);
+        }
     }
 
     @Override
@@ -96,6 +108,14 @@ public final class TimeFrameRecordCursorImpl implements TimeFrameRecordCursor {
 
     @Override
     public StaticSymbolTable getSymbolTable(int columnIndex) {
+        if (isShared) {
+            StaticSymbolTable symbolTable = sharedSymbolTables.getQuiet(columnIndex);
+            if (symbolTable == null) {
+                symbolTable = reader.newSymbolTable(frameCursor.getColumnIndexes().getQuick(columnIndex));
+                sharedSymbolTables.extendAndSet(columnIndex, symbolTable);
+            }
+            return symbolTable;
+        }
         return frameCursor.getSymbolTable(columnIndex);
     }
 
@@ -142,6 +162,7 @@ public final class TimeFrameRecordCursorImpl implements TimeFrameRecordCursor {
 
     public TimeFrameRecordCursor of(TablePageFrameCursor frameCursor) {
         this.frameCursor = frameCursor;
+        isShared = false;
         frameAddressCache.of(metadata, frameCursor.getColumnIndexes());
         frameMemoryPool.of(frameAddressCache);
         reader = frameCursor.getTableReader();
@@ -154,6 +175,41 @@ public final class TimeFrameRecordCursorImpl implements TimeFrameRecordCursor {
         return this;
     }
 
+    /**
+     * Initializes this cursor to navigate the time frames of the given cursor independently of it.
+     * Page frame addresses are shared rather than copied, so several cursors can navigate the same
+     * table concurrently, e.g. from worker threads. The given cursor must stay open and must not
+     * be moved to top while this cursor is in use.
+     * <p>
+     * Symbol values are never read through the shared reader's symbol tables: records resolve
+     * them via {@link #newSymbolTable(int)} and {@link #getSymbolTable(int)} returns tables
+     * owned by this cursor, so concurrent lookups don't share flyweights.
+     *
+     * @param other cursor that owns the page frame cursor
+     * @return this cursor
+     */
+    public TimeFrameRecordCursorImpl ofShared(TimeFrameRecordCursorImpl other) {
+        other.buildFrameCache();
+        frameCursor = other.frameCursor;
+        isShared = true;
+        frameMemoryPool.of(other.frameAddressCache);
+        reader = other.reader;
+        Misc.freeObjListIfCloseable(sharedSymbolTables);
+        sharedSymbolTables.clear();
+        recordA.of(frameCursor);
+        recordB.of(frameCursor);
+        partitionHi = other.partitionHi;
+        partitionCeilMethod = other.partitionCeilMethod;
+        framePartitionIndexes.clear();
+        framePartitionIndexes.addAll(other.framePartitionIndexes);
+        frameRowCounts.clear();
+        frameRowCounts.addAll(other.frameRowCounts);
+        frameCount = other.frameCount;
+        isFrameCacheBuilt = true;
+        timeFrame.clear();
+        return this;
+    }
+
     @Override
     public long open() throws DataUnavailableException {
         final int frameIndex = timeFrame.frameIndex;
@@ -0,0 +1,710 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table.parquet;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordBatchEncoder;
+import io.questdb.cairo.sql.RecordBatchUtils;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.vm.MemoryCARWImpl;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.DirectUtf8Sink;
+
+/**
+ * Encodes query results as a Parquet file, one row group per batch, so that the file
+ * can be streamed out while the query runs. Unlike {@link PartitionEncoder}, which
+ * converts table partitions, this encoder accepts any record cursor or page frame
+ * cursor and keeps no more than a single row group in memory.
+ * <p>
+ * Every column chunk is a single v1 data page with PLAIN values and RLE/bit-packed
+ * definition levels, all columns are optional. Pages are not compressed; the transfer
+ * is expected to be compressed by the transport, e.g. HTTP gzip. Fixed-width columns of
+ * a page frame without NULLs are referenced in place. Column types that Parquet has no
+ * direct equivalent for are written as UTF8 strings in their text form.
+ * <p>
+ * The file metadata footer is built from the row group layout collected along the way,
+ * so the only per-file state is a few longs per column chunk.
+ */
+public class ParquetStreamEncoder implements RecordBatchEncoder {
+    // maximum number of rows in a single row group
+    public static final int ROW_GROUP_ROW_COUNT = 256 * 1024;
+    private static final int CONVERTED_TYPE_INT_16 = 16;
+    private static final int CONVERTED_TYPE_INT_8 = 15;
+    private static final int CONVERTED_TYPE_NONE = -1;
+    private static final int CONVERTED_TYPE_TIMESTAMP_MICROS = 10;
+    private static final int CONVERTED_TYPE_TIMESTAMP_MILLIS = 9;
+    private static final int CONVERTED_TYPE_UTF8 = 0;
+    private static final String CREATED_BY = "QuestDB";
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int FIELD_REPETITION_OPTIONAL = 1;
+    private static final int PAGE_TYPE_DATA_PAGE = 0;
+    private static final int PARQUET_MAGIC = 0x31524150; // "PAR1", little endian
+    private static final int PHYSICAL_TYPE_BOOLEAN = 0;
+    private static final int PHYSICAL_TYPE_BYTE_ARRAY = 6;
+    private static final int PHYSICAL_TYPE_DOUBLE = 5;
+    private static final int PHYSICAL_TYPE_FLOAT = 4;
+    private static final int PHYSICAL_TYPE_INT32 = 1;
+    private static final int PHYSICAL_TYPE_INT64 = 2;
+    private static final int THRIFT_BINARY = 8;
+    private static final int THRIFT_I32 = 5;
+    private static final int THRIFT_I64 = 6;
+    private static final int THRIFT_LIST = 9;
+    private static final int THRIFT_STRUCT = 12;
+    // var-size values of a column chunk are kept well within the int32 page size
+    private static final long VAR_DATA_SIZE_LIMIT = 64 * 1024 * 1024;
+    // pairs of offset and size of every column chunk written so far
+    private final LongList columnChunks = new LongList();
+    private final IntList columnTypes = new IntList();
+    private final IntList convertedTypes = new IntList();
+    private final LongList directAddresses = new LongList();
+    private final MemoryCARWImpl meta;
+    // pairs of offset and size of page headers and definition levels in the meta buffer
+    private final LongList metaSlices = new LongList();
+    private final LongList nullCounts = new LongList();
+    private final IntList physicalTypes = new IntList();
+    private final LongList rowGroupRowCounts = new LongList();
+    // pairs of address and length
+    private final LongList segments = new LongList();
+    private final IntList thriftFieldIdStack = new IntList();
+    private final DirectUtf8Sink utf8Sink = new DirectUtf8Sink(64);
+    private final ObjList<MemoryCARWImpl> validityBuffers = new ObjList<>();
+    private final ObjList<MemoryCARWImpl> valueBuffers = new ObjList<>();
+    private final int memoryTag;
+    private int columnCount;
+    private long fileOffset;
+    private int lastThriftFieldId;
+    private RecordMetadata metadata;
+    private int rowCount;
+    private boolean varDataLimitReached;
+
+    public ParquetStreamEncoder(int memoryTag) {
+        this.memoryTag = memoryTag;
+        this.meta = new MemoryCARWImpl(4096, Integer.MAX_VALUE, memoryTag);
+    }
+
+    @Override
+    public void clear() {
+        metadata = null;
+        columnCount = 0;
+        rowCount = 0;
+        fileOffset = 0;
+        varDataLimitReached = false;
+        segments.clear();
+        columnChunks.clear();
+        rowGroupRowCounts.clear();
+        thriftFieldIdStack.clear();
+        lastThriftFieldId = 0;
+        meta.jumpTo(0);
+        for (int i = 0, n = validityBuffers.size(); i < n; i++) {
+            validityBuffers.getQuick(i).clear();
+            valueBuffers.getQuick(i).clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(meta);
+        Misc.free(utf8Sink);
+        Misc.freeObjListAndClear(validityBuffers);
+        Misc.freeObjListAndClear(valueBuffers);
+    }
+
+    /**
+     * Fixed-width columns without NULLs are referenced directly in the frame memory,
+     * all other columns are compacted into scratch buffers.
+     */
+    @Override
+    public long appendFrame(PageFrameMemory frameMemory, PageFrameMemoryRecord record, long rowLo, long rowHi) {
+        assert rowCount == 0;
+        assert rowHi - rowLo <= ROW_GROUP_ROW_COUNT;
+        boolean hasVarColumns = false;
+        for (int i = 0; i < columnCount; i++) {
+            if (physicalTypes.getQuick(i) == PHYSICAL_TYPE_BYTE_ARRAY) {
+                hasVarColumns = true;
+                break;
+            }
+        }
+
+        if (hasVarColumns) {
+            for (long r = rowLo; r < rowHi && !varDataLimitReached; r++) {
+                record.setRowIndex(r);
+                for (int i = 0; i < columnCount; i++) {
+                    if (physicalTypes.getQuick(i) == PHYSICAL_TYPE_BYTE_ARRAY) {
+                        appendByteArray(record, i);
+                    }
+                }
+                rowCount++;
+            }
+        } else {
+            rowCount = (int) (rowHi - rowLo);
+        }
+
+        for (int i = 0; i < columnCount; i++) {
+            final int physicalType = physicalTypes.getQuick(i);
+            if (physicalType == PHYSICAL_TYPE_BYTE_ARRAY) {
+                continue;
+            }
+            final int columnType = columnTypes.getQuick(i);
+            final int shift = ColumnType.pow2SizeOf(columnType);
+            final long pageAddress = frameMemory.getPageAddress(i);
+            final MemoryCARW values = valueBuffers.getQuick(i);
+            if (pageAddress == 0) {
+                // column top reads as false or zero for types without a NULL sentinel
+                final int tag = ColumnType.tagOf(columnType);
+                if (tag == ColumnType.BOOLEAN) {
+                    final long size = (rowCount + 7) >>> 3;
+                    Vect.memset(values.appendAddressFor(size), size, 0);
+                } else if (tag == ColumnType.BYTE || tag == ColumnType.SHORT) {
+                    final long size = (long) rowCount << 2;
+                    Vect.memset(values.appendAddressFor(size), size, 0);
+                } else {
+                    nullCounts.setQuick(i, rowCount);
+                }
+                continue;
+            }
+
+            final long address = pageAddress + (rowLo << shift);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BOOLEAN:
+                    RecordBatchUtils.putBits(values, address, rowCount);
+                    break;
+                case ColumnType.BYTE:
+                    for (int r = 0; r < rowCount; r++) {
+                        values.putInt(Unsafe.getUnsafe().getByte(address + r));
+                    }
+                    break;
+                case ColumnType.SHORT:
+                    for (int r = 0; r < rowCount; r++) {
+                        values.putInt(Unsafe.getUnsafe().getShort(address + ((long) r << 1)));
+                    }
+                    break;
+                default: {
+                    final MemoryCARW validity = validityBuffers.getQuick(i);
+                    final long nullCount = RecordBatchUtils.putValidity(validity, columnType, address, rowCount);
+                    nullCounts.setQuick(i, nullCount);
+                    if (nullCount == 0) {
+                        directAddresses.setQuick(i, address);
+                    } else if (nullCount < rowCount) {
+                        compactValues(values, validity.getAddress(), address, shift);
+                    }
+                    break;
+                }
+            }
+        }
+        return rowCount;
+    }
+
+    @Override
+    public void appendRecord(Record record) {
+        for (int i = 0; i < columnCount; i++) {
+            final MemoryCARW values = valueBuffers.getQuick(i);
+            switch (ColumnType.tagOf(columnTypes.getQuick(i))) {
+                case ColumnType.BOOLEAN:
+                    appendValidity(i, true);
+                    RecordBatchUtils.appendBit(values, rowCount, record.getBool(i));
+                    break;
+                case ColumnType.BYTE:
+                    appendValidity(i, true);
+                    values.putInt(record.getByte(i));
+                    break;
+                case ColumnType.SHORT:
+                    appendValidity(i, true);
+                    values.putInt(record.getShort(i));
+                    break;
+                case ColumnType.INT: {
+                    final int value = record.getInt(i);
+                    if (appendValidity(i, value != Numbers.INT_NULL)) {
+                        values.putInt(value);
+                    }
+                    break;
+                }
+                case ColumnType.LONG: {
+                    final long value = record.getLong(i);
+                    if (appendValidity(i, value != Numbers.LONG_NULL)) {
+                        values.putLong(value);
+                    }
+                    break;
+                }
+                case ColumnType.DATE: {
+                    final long value = record.getDate(i);
+                    if (appendValidity(i, value != Numbers.LONG_NULL)) {
+                        values.putLong(value);
+                    }
+                    break;
+                }
+                case ColumnType.TIMESTAMP: {
+                    final long value = record.getTimestamp(i);
+                    if (appendValidity(i, value != Numbers.LONG_NULL)) {
+                        values.putLong(value);
+                    }
+                    break;
+                }
+                case ColumnType.FLOAT: {
+                    final float value = record.getFloat(i);
+                    if (appendValidity(i, !Float.isNaN(value))) {
+                        values.putFloat(value);
+                    }
+                    break;
+                }
+                case ColumnType.DOUBLE: {
+                    final double value = record.getDouble(i);
+                    if (appendValidity(i, !Double.isNaN(value))) {
+                        values.putDouble(value);
+                    }
+                    break;
+                }
+                default:
+                    appendByteArray(record, i);
+                    break;
+            }
+        }
+        rowCount++;
+    }
+
+    /**
+     * Encodes the current batch as a row group. Column chunks follow each other, each
+     * one made of a page header, definition levels and values.
+     */
+    @Override
+    public void encodeBatch() {
+        segments.clear();
+        if (rowCount == 0) {
+            return;
+        }
+
+        // page headers go to the meta buffer first, it may move while it grows
+        meta.jumpTo(0);
+        metaSlices.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final long lo = meta.getAppendOffset();
+            final long valuesSize = getValuesSize(i);
+            final long levelsSize = getDefinitionLevelsSize(i);
+            final long pageSize = 4 + levelsSize + valuesSize;
+            putPageHeader(pageSize);
+            meta.putInt((int) levelsSize);
+            putDefinitionLevels(i);
+            metaSlices.add(lo, meta.getAppendOffset() - lo);
+        }
+
+        for (int i = 0; i < columnCount; i++) {
+            final long metaLo = metaSlices.getQuick(2 * i);
+            final long metaSize = metaSlices.getQuick(2 * i + 1);
+            final long valuesSize = getValuesSize(i);
+            segments.add(meta.getAddress() + metaLo, metaSize);
+            if (valuesSize > 0) {
+                final long address = directAddresses.getQuick(i);
+                segments.add(address != 0 ? address : valueBuffers.getQuick(i).getAddress(), valuesSize);
+            }
+            final long chunkSize = metaSize + valuesSize;
+            columnChunks.add(fileOffset, chunkSize);
+            fileOffset += chunkSize;
+        }
+        rowGroupRowCounts.add(rowCount);
+    }
+
+    /**
+     * Encodes the file metadata, its length and the trailing magic.
+     */
+    @Override
+    public void encodeFooter() {
+        segments.clear();
+        meta.jumpTo(0);
+        long totalRowCount = 0;
+        for (int i = 0, n = rowGroupRowCounts.size(); i < n; i++) {
+            totalRowCount += rowGroupRowCounts.getQuick(i);
+        }
+
+        beginThriftStruct();
+        putThriftI32(1, 1);
+        // schema is a flattened tree, the root is followed by its leaves
+        putThriftListHeader(2, THRIFT_STRUCT, columnCount + 1);
+        beginThriftStruct();
+        putThriftString(4, "schema");
+        putThriftI32(5, columnCount);
+        endThriftStruct();
+        for (int i = 0; i < columnCount; i++) {
+            beginThriftStruct();
+            putThriftI32(1, physicalTypes.getQuick(i));
+            putThriftI32(3, FIELD_REPETITION_OPTIONAL);
+            putThriftString(4, metadata.getColumnName(i));
+            final int convertedType = convertedTypes.getQuick(i);
+            if (convertedType != CONVERTED_TYPE_NONE) {
+                putThriftI32(6, convertedType);
+            }
+            endThriftStruct();
+        }
+        putThriftI64(3, totalRowCount);
+        final int rowGroupCount = rowGroupRowCounts.size();
+        putThriftListHeader(4, THRIFT_STRUCT, rowGroupCount);
+        for (int g = 0; g < rowGroupCount; g++) {
+            final long rowGroupRowCount = rowGroupRowCounts.getQuick(g);
+            long totalByteSize = 0;
+            beginThriftStruct();
+            putThriftListHeader(1, THRIFT_STRUCT, columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                final int chunkIndex = g * columnCount + i;
+                final long chunkOffset = columnChunks.getQuick(2 * chunkIndex);
+                final long chunkSize = columnChunks.getQuick(2 * chunkIndex + 1);
+                totalByteSize += chunkSize;
+                beginThriftStruct();
+                putThriftI64(2, chunkOffset);
+                putThriftStructHeader(3);
+                putThriftI32(1, physicalTypes.getQuick(i));
+                putThriftListHeader(2, THRIFT_I32, 2);
+                putVarLong(zigzag(ENCODING_PLAIN));
+                putVarLong(zigzag(ENCODING_RLE));
+                putThriftListHeader(3, THRIFT_BINARY, 1);
+                putString(metadata.getColumnName(i));
+                // uncompressed
+                putThriftI32(4, 0);
+                putThriftI64(5, rowGroupRowCount);
+                putThriftI64(6, chunkSize);
+                putThriftI64(7, chunkSize);
+                putThriftI64(9, chunkOffset);
+                endThriftStruct();
+                endThriftStruct();
+            }
+            putThriftI64(2, totalByteSize);
+            putThriftI64(3, rowGroupRowCount);
+            endThriftStruct();
+        }
+        putThriftString(6, CREATED_BY);
+        endThriftStruct();
+
+        meta.putInt((int) meta.getAppendOffset());
+        meta.putInt(PARQUET_MAGIC);
+        segments.add(meta.getAddress(), meta.getAppendOffset());
+    }
+
+    /**
+     * Encodes the leading magic.
+     */
+    @Override
+    public void encodeHeader() {
+        segments.clear();
+        meta.jumpTo(0);
+        meta.putInt(PARQUET_MAGIC);
+        segments.add(meta.getAddress(), meta.getAppendOffset());
+        fileOffset = meta.getAppendOffset();
+    }
+
+    @Override
+    public int getBatchRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getMaxBatchRowCount() {
+        return ROW_GROUP_ROW_COUNT;
+    }
+
+    @Override
+    public long getSegmentAddress(int index) {
+        return segments.getQuick(2 * index);
+    }
+
+    @Override
+    public int getSegmentCount() {
+        return segments.size() / 2;
+    }
+
+    @Override
+    public long getSegmentSize(int index) {
+        return segments.getQuick(2 * index + 1);
+    }
+
+    @Override
+    public boolean isBatchFull() {
+        return rowCount >= ROW_GROUP_ROW_COUNT || varDataLimitReached;
+    }
+
+    @Override
+    public void of(RecordMetadata metadata) {
+        this.metadata = metadata;
+        this.columnCount = metadata.getColumnCount();
+        columnTypes.clear();
+        physicalTypes.clear();
+        convertedTypes.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            columnTypes.add(columnType);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BOOLEAN:
+                    physicalTypes.add(PHYSICAL_TYPE_BOOLEAN);
+                    convertedTypes.add(CONVERTED_TYPE_NONE);
+                    break;
+                case ColumnType.BYTE:
+                    physicalTypes.add(PHYSICAL_TYPE_INT32);
+                    convertedTypes.add(CONVERTED_TYPE_INT_8);
+                    break;
+                case ColumnType.SHORT:
+                    physicalTypes.add(PHYSICAL_TYPE_INT32);
+                    convertedTypes.add(CONVERTED_TYPE_INT_16);
+                    break;
+                case ColumnType.INT:
+                    physicalTypes.add(PHYSICAL_TYPE_INT32);
+                    convertedTypes.add(CONVERTED_TYPE_NONE);
+                    break;
+                case ColumnType.LONG:
+                    physicalTypes.add(PHYSICAL_TYPE_INT64);
+                    convertedTypes.add(CONVERTED_TYPE_NONE);
+                    break;
+                case ColumnType.DATE:
+                    physicalTypes.add(PHYSICAL_TYPE_INT64);
+                    convertedTypes.add(CONVERTED_TYPE_TIMESTAMP_MILLIS);
+                    break;
+                case ColumnType.TIMESTAMP:
+                    physicalTypes.add(PHYSICAL_TYPE_INT64);
+                    convertedTypes.add(CONVERTED_TYPE_TIMESTAMP_MICROS);
+                    break;
+                case ColumnType.FLOAT:
+                    physicalTypes.add(PHYSICAL_TYPE_FLOAT);
+                    convertedTypes.add(CONVERTED_TYPE_NONE);
+                    break;
+                case ColumnType.DOUBLE:
+                    physicalTypes.add(PHYSICAL_TYPE_DOUBLE);
+                    convertedTypes.add(CONVERTED_TYPE_NONE);
+                    break;
+                case ColumnType.BINARY:
+                    physicalTypes.add(PHYSICAL_TYPE_BYTE_ARRAY);
+                    convertedTypes.add(CONVERTED_TYPE_NONE);
+                    break;
+                default:
+                    // everything else is exported in its text form
+                    physicalTypes.add(PHYSICAL_TYPE_BYTE_ARRAY);
+                    convertedTypes.add(CONVERTED_TYPE_UTF8);
+                    break;
+            }
+        }
+        for (int i = validityBuffers.size(); i < columnCount; i++) {
+            validityBuffers.add(new MemoryCARWImpl(64 * 1024, Integer.MAX_VALUE, memoryTag));
+            valueBuffers.add(new MemoryCARWImpl(64 * 1024, Integer.MAX_VALUE, memoryTag));
+        }
+        directAddresses.setAll(columnCount, 0);
+        nullCounts.setAll(columnCount, 0);
+        columnChunks.clear();
+        rowGroupRowCounts.clear();
+        fileOffset = 0;
+    }
+
+    @Override
+    public void startBatch() {
+        rowCount = 0;
+        varDataLimitReached = false;
+        for (int i = 0; i < columnCount; i++) {
+            validityBuffers.getQuick(i).jumpTo(0);
+            valueBuffers.getQuick(i).jumpTo(0);
+            directAddresses.setQuick(i, 0);
+            nullCounts.setQuick(i, 0);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void appendByteArray(Record record, int columnIndex) {
+        final MemoryCARW values = valueBuffers.getQuick(columnIndex);
+        if (ColumnType.tagOf(columnTypes.getQuick(columnIndex)) == ColumnType.BINARY) {
+            final BinarySequence bin = record.getBin(columnIndex);
+            if (appendValidity(columnIndex, bin != null)) {
+                final long len = bin.length();
+                values.putInt((int) len);
+                bin.copyTo(values.appendAddressFor(len), 0, len);
+            }
+        } else {
+            utf8Sink.clear();
+            if (appendValidity(columnIndex, RecordBatchUtils.putText(record, columnIndex, columnTypes.getQuick(columnIndex), utf8Sink))) {
+                values.putInt(utf8Sink.size());
+                values.putBlockOfBytes(utf8Sink.ptr(), utf8Sink.size());
+            }
+        }
+        varDataLimitReached |= values.getAppendOffset() > VAR_DATA_SIZE_LIMIT;
+    }
+
+    private boolean appendValidity(int columnIndex, boolean valid) {
+        RecordBatchUtils.appendBit(validityBuffers.getQuick(columnIndex), rowCount, valid);
+        if (!valid) {
+            nullCounts.increment(columnIndex);
+        }
+        return valid;
+    }
+
+    private void beginThriftStruct() {
+        thriftFieldIdStack.add(lastThriftFieldId);
+        lastThriftFieldId = 0;
+    }
+
+    // PLAIN encoding has no room for NULLs, only the defined values are kept
+    private void compactValues(MemoryCARW values, long validity, long address, int shift) {
+        for (long r = 0; r < rowCount; r++) {
+            if ((Unsafe.getUnsafe().getByte(validity + (r >>> 3)) & (1 << (r & 7))) != 0) {
+                if (shift == 2) {
+                    values.putInt(Unsafe.getUnsafe().getInt(address + (r << 2)));
+                } else {
+                    values.putLong(Unsafe.getUnsafe().getLong(address + (r << 3)));
+                }
+            }
+        }
+    }
+
+    private void endThriftStruct() {
+        meta.putByte((byte) 0);
+        final int n = thriftFieldIdStack.size() - 1;
+        lastThriftFieldId = thriftFieldIdStack.getQuick(n);
+        thriftFieldIdStack.setPos(n);
+    }
+
+    private long getDefinitionLevelsSize(int columnIndex) {
+        final long nullCount = nullCounts.getQuick(columnIndex);
+        if (nullCount == 0 || nullCount == rowCount) {
+            // single RLE run
+            return varLongSize((long) rowCount << 1) + 1;
+        }
+        final long byteCount = (rowCount + 7) >>> 3;
+        return varLongSize((byteCount << 1) | 1) + byteCount;
+    }
+
+    private long getValuesSize(int columnIndex) {
+        final int physicalType = physicalTypes.getQuick(columnIndex);
+        if (physicalType == PHYSICAL_TYPE_BYTE_ARRAY || physicalType == PHYSICAL_TYPE_BOOLEAN) {
+            return valueBuffers.getQuick(columnIndex).getAppendOffset();
+        }
+        final long valueCount = rowCount - nullCounts.getQuick(columnIndex);
+        if (physicalType == PHYSICAL_TYPE_INT32) {
+            return valueCount << 2;
+        }
+        return valueCount << ColumnType.pow2SizeOf(columnTypes.getQuick(columnIndex));
+    }
+
+    /**
+     * Definition levels are either 0 (NULL) or 1 (defined). Columns without NULLs, as
+     * well as all-NULL ones, are a single RLE run. Otherwise, the validity bitmap is a
+     * ready-made bit-packed run of 1-bit levels.
+     */
+    private void putDefinitionLevels(int columnIndex) {
+        final long nullCount = nullCounts.getQuick(columnIndex);
+        if (nullCount == 0 || nullCount == rowCount) {
+            putVarLong((long) rowCount << 1);
+            meta.putByte((byte) (nullCount == 0 ? 1 : 0));
+        } else {
+            final long byteCount = (rowCount + 7) >>> 3;
+            putVarLong((byteCount << 1) | 1);
+            meta.putBlockOfBytes(validityBuffers.getQuick(columnIndex).getAddress(), byteCount);
+        }
+    }
+
+    private void putPageHeader(long pageSize) {
+        beginThriftStruct();
+        putThriftI32(1, PAGE_TYPE_DATA_PAGE);
+        putThriftI32(2, (int) pageSize);
+        putThriftI32(3, (int) pageSize);
+        putThriftStructHeader(5);
+        putThriftI32(1, rowCount);
+        putThriftI32(2, ENCODING_PLAIN);
+        putThriftI32(3, ENCODING_RLE);
+        putThriftI32(4, ENCODING_RLE);
+        endThriftStruct();
+        endThriftStruct();
+    }
+
+    private void putString(CharSequence value) {
+        utf8Sink.clear();
+        utf8Sink.put(value);
+        putVarLong(utf8Sink.size());
+        meta.putBlockOfBytes(utf8Sink.ptr(), utf8Sink.size());
+    }
+
+    // Thrift compact protocol, field ids are delta-encoded within a struct
+    private void putThriftFieldHeader(int fieldId, int type) {
+        final int delta = fieldId - lastThriftFieldId;
+        if (delta > 0 && delta < 16) {
+            meta.putByte((byte) ((delta << 4) | type));
+        } else {
+            meta.putByte((byte) type);
+            putVarLong(zigzag(fieldId));
+        }
+        lastThriftFieldId = fieldId;
+    }
+
+    private void putThriftI32(int fieldId, int value) {
+        putThriftFieldHeader(fieldId, THRIFT_I32);
+        putVarLong(zigzag(value));
+    }
+
+    private void putThriftI64(int fieldId, long value) {
+        putThriftFieldHeader(fieldId, THRIFT_I64);
+        putVarLong(zigzag(value));
+    }
+
+    private void putThriftListHeader(int fieldId, int elementType, int size) {
+        putThriftFieldHeader(fieldId, THRIFT_LIST);
+        if (size < 15) {
+            meta.putByte((byte) ((size << 4) | elementType));
+        } else {
+            meta.putByte((byte) (0xf0 | elementType));
+            putVarLong(size);
+        }
+    }
+
+    private void putThriftString(int fieldId, CharSequence value) {
+        putThriftFieldHeader(fieldId, THRIFT_BINARY);
+        putString(value);
+    }
+
+    private void putThriftStructHeader(int fieldId) {
+        putThriftFieldHeader(fieldId, THRIFT_STRUCT);
+        beginThriftStruct();
+    }
+
+    private void putVarLong(long value) {
+        while ((value & ~0x7fL) != 0) {
+            meta.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        meta.putByte((byte) value);
+    }
+
+    private int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7fL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
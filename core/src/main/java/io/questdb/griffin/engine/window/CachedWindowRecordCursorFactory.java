@@ -25,44 +25,64 @@
 package io.questdb.griffin.engine.window;
 
 
+import io.questdb.MessageBus;
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.GenericRecordMetadata;
 import io.questdb.cairo.RecordArray;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.async.WorkStealingStrategy;
+import io.questdb.cairo.sql.async.WorkStealingStrategyFactory;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.groupby.GroupByMergeShardJob;
 import io.questdb.griffin.engine.orderby.LongTreeChain;
+import io.questdb.mp.MCSequence;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
 import io.questdb.std.IntList;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
+import io.questdb.std.Os;
 import io.questdb.std.Transient;
+import io.questdb.tasks.GroupByMergeShardTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory {
     private final ObjList<WindowFunction> allFunctions;
     private final RecordCursorFactory base;
     private final GenericRecordMetadata chainMetadata;
+    // scan direction of the record chain for each ordered group, SCAN_DIRECTION_OTHER stands for a tree
+    private final IntList chainScanDirections;
     private final ObjList<RecordComparator> comparators;
     private final CachedWindowRecordCursor cursor;
     private final ObjList<ObjList<WindowFunction>> ordered2PassFunctions;
     private final ObjList<ObjList<WindowFunction>> orderedFunctions;
     private final int orderedGroupCount;
+    @Nullable
+    private final ParallelWindowAtom parallelAtom;
     private final ObjList<IntList> sortKeys;
     private final ObjList<WindowFunction> unordered2PassFunctions;
     @Nullable
     private final ObjList<WindowFunction> unorderedFunctions;
+    private final int workerCount;
     private boolean closed = false;
 
     public CachedWindowRecordCursorFactory(
@@ -77,6 +97,45 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             @NotNull IntList columnIndexes,
             @NotNull final ObjList<IntList> sortKeys,
             @NotNull GenericRecordMetadata chainMetadata
+    ) {
+        this(
+                configuration,
+                null,
+                base,
+                recordSink,
+                metadata,
+                chainTypes,
+                comparators,
+                orderedFunctions,
+                null,
+                unorderedFunctions,
+                columnIndexes,
+                sortKeys,
+                chainMetadata,
+                0
+        );
+    }
+
+    /**
+     * @param bucketFunctions per ordered group list of window function copies, one list per partition bucket,
+     *                        where the first bucket holds the functions from {@code orderedFunctions};
+     *                        null entries stand for the groups that are evaluated serially
+     */
+    public CachedWindowRecordCursorFactory(
+            CairoConfiguration configuration,
+            @Nullable MessageBus messageBus,
+            RecordCursorFactory base,
+            RecordSink recordSink,
+            GenericRecordMetadata metadata,
+            @Transient ColumnTypes chainTypes,
+            ObjList<RecordComparator> comparators,
+            ObjList<ObjList<WindowFunction>> orderedFunctions,
+            @Nullable ObjList<ObjList<ObjList<WindowFunction>>> bucketFunctions,
+            @Nullable ObjList<WindowFunction> unorderedFunctions,
+            @NotNull IntList columnIndexes,
+            @NotNull final ObjList<IntList> sortKeys,
+            @NotNull GenericRecordMetadata chainMetadata,
+            int workerCount
     ) {
         super(metadata);
         try {
@@ -93,11 +152,34 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             );
             this.sortKeys = sortKeys;
             this.chainMetadata = chainMetadata;
+            this.workerCount = workerCount;
 
+            ParallelWindowAtom parallelAtom = null;
             ObjList<LongTreeChain> orderedSources = new ObjList<>(orderedGroupCount);
+            this.chainScanDirections = new IntList(orderedGroupCount);
             // red&black trees, one for each comparator where comparator is not null
             try {
+                if (bucketFunctions != null) {
+                    parallelAtom = new ParallelWindowAtom(configuration, recordChain, bucketFunctions, workerCount);
+                }
+                final int chainTimestampIndex = getChainTimestampIndex(base, chainMetadata, columnIndexes);
                 for (int i = 0; i < orderedGroupCount; i++) {
+                    if (parallelAtom != null && parallelAtom.isParallel(i)) {
+                        // partition buckets have their own trees and evaluate the group on their own,
+                        // even when it's ordered by the designated timestamp, so the record chain
+                        // must not be scanned for it
+                        chainScanDirections.add(SCAN_DIRECTION_OTHER);
+                        orderedSources.add(null);
+                        continue;
+                    }
+                    final int chainScanDirection = getChainScanDirection(base, sortKeys.getQuick(i), chainTimestampIndex);
+                    chainScanDirections.add(chainScanDirection);
+                    if (chainScanDirection != SCAN_DIRECTION_OTHER) {
+                        // the group is ordered by the designated timestamp, so the record chain
+                        // already has the rows in the right order, or in the reverse one
+                        orderedSources.add(null);
+                        continue;
+                    }
                     orderedSources.add(
                             new LongTreeChain(
                                     configuration.getSqlWindowTreeKeyPageSize(),
@@ -109,12 +191,25 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
                 }
             } catch (Throwable t) {
                 Misc.freeObjList(orderedSources);
+                Misc.free(parallelAtom);
                 recordChain.close();
                 throw t;
             }
 
-            this.cursor = new CachedWindowRecordCursor(columnIndexes, recordChain, orderedSources);
+            this.parallelAtom = parallelAtom;
+            this.cursor = new CachedWindowRecordCursor(configuration, messageBus, columnIndexes, recordChain, orderedSources);
             this.allFunctions = new ObjList<>();
+            if (bucketFunctions != null) {
+                // copies of the functions live in the buckets other than the first one
+                for (int i = 0, n = bucketFunctions.size(); i < n; i++) {
+                    final ObjList<ObjList<WindowFunction>> buckets = bucketFunctions.getQuick(i);
+                    if (buckets != null) {
+                        for (int b = 1, m = buckets.size(); b < m; b++) {
+                            allFunctions.addAll(buckets.getQuick(b));
+                        }
+                    }
+                }
+            }
 
             ObjList<ObjList<WindowFunction>> orderedTmp = null;
             for (int i = 0, n = orderedFunctions.size(); i < n; i++) {
@@ -202,6 +297,9 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
     @Override
     public void toPlan(PlanSink sink) {
         sink.type("CachedWindow");
+        if (parallelAtom != null) {
+            sink.meta("workers").val(workerCount);
+        }
 
         boolean oldVal = sink.getUseBaseMetadata();
         try {
@@ -251,6 +349,37 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
         return base.usesIndex();
     }
 
+    private static int getChainScanDirection(RecordCursorFactory base, IntList sortKeys, int chainTimestampIndex) {
+        if (chainTimestampIndex == -1 || sortKeys.size() != 1) {
+            return SCAN_DIRECTION_OTHER;
+        }
+        final int sortKey = sortKeys.getQuick(0);
+        if ((sortKey > 0 ? sortKey : -sortKey) - 1 != chainTimestampIndex) {
+            return SCAN_DIRECTION_OTHER;
+        }
+        switch (base.getScanDirection()) {
+            case SCAN_DIRECTION_FORWARD:
+                return sortKey > 0 ? SCAN_DIRECTION_FORWARD : SCAN_DIRECTION_BACKWARD;
+            case SCAN_DIRECTION_BACKWARD:
+                return sortKey > 0 ? SCAN_DIRECTION_BACKWARD : SCAN_DIRECTION_FORWARD;
+            default:
+                return SCAN_DIRECTION_OTHER;
+        }
+    }
+
+    private static int getChainTimestampIndex(RecordCursorFactory base, RecordMetadata chainMetadata, IntList columnIndexes) {
+        final RecordMetadata baseMetadata = base.getMetadata();
+        final int baseTimestampIndex = baseMetadata.getTimestampIndex();
+        if (baseTimestampIndex == -1) {
+            return -1;
+        }
+        final int index = chainMetadata.getColumnIndexQuiet(baseMetadata.getColumnName(baseTimestampIndex));
+        if (index == -1 || index >= columnIndexes.size() || columnIndexes.getQuick(index) != baseTimestampIndex) {
+            return -1;
+        }
+        return index;
+    }
+
     private void addSortKeys(PlanSink sink, IntList list) {
         for (int i = 0, n = list.size(); i < n; i++) {
             int colIdx = list.get(i);
@@ -279,25 +408,46 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
         closed = true;
         Misc.free(base);
         Misc.free(cursor);
+        Misc.free(parallelAtom);
         Misc.freeObjList(allFunctions);
     }
 
     class CachedWindowRecordCursor implements RecordCursor {
         private final IntList columnIndexes; // Used for symbol table lookups.
+        private final AtomicBooleanCircuitBreaker evalCircuitBreaker; // used to signal cancellation to bucket workers
+        private final SOUnboundedCountDownLatch evalDoneLatch = new SOUnboundedCountDownLatch();
+        private final AtomicInteger evalStartedCounter = new AtomicInteger();
+        private final MessageBus messageBus;
         private final ObjList<LongTreeChain> orderedSources;
         private final RecordArray recordChain;
+        private final WorkStealingStrategy workStealingStrategy;
         private RecordCursor baseCursor;
         private SqlExecutionCircuitBreaker circuitBreaker;
         private boolean isOpen;
         private boolean isRecordChainBuilt;
         private long recordChainOffset;
 
-        public CachedWindowRecordCursor(IntList columnIndexes, RecordArray recordChain, ObjList<LongTreeChain> orderedSources) {
+        public CachedWindowRecordCursor(
+                CairoConfiguration configuration,
+                @Nullable MessageBus messageBus,
+                IntList columnIndexes,
+                RecordArray recordChain,
+                ObjList<LongTreeChain> orderedSources
+        ) {
             this.columnIndexes = columnIndexes;
             this.recordChain = recordChain;
             this.recordChain.setSymbolTableResolver(this);
             this.isOpen = true;
             this.orderedSources = orderedSources;
+            this.messageBus = messageBus;
+            if (parallelAtom != null) {
+                evalCircuitBreaker = new AtomicBooleanCircuitBreaker();
+                workStealingStrategy = WorkStealingStrategyFactory.getInstance(configuration, workerCount);
+                parallelAtom.setCircuitBreaker(evalCircuitBreaker);
+            } else {
+                evalCircuitBreaker = null;
+                workStealingStrategy = null;
+            }
         }
 
         @Override
@@ -317,6 +467,7 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
                 for (int i = 0, n = orderedSources.size(); i < n; i++) {
                     Misc.free(orderedSources.getQuick(i));
                 }
+                Misc.free(parallelAtom);
                 resetFunctions();
                 isOpen = false;
             }
@@ -385,7 +536,12 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
                     recordChain.recordAt(chainRecord, recordChainOffset);
                     for (int i = 0; i < orderedGroupCount; i++) {
                         circuitBreaker.statefulThrowExceptionIfTripped();
-                        orderedSources.getQuick(i).put(chainRecord, recordChain, chainRightRecord, comparators.getQuick(i));
+                        final LongTreeChain tree = orderedSources.getQuick(i);
+                        if (tree != null) {
+                            tree.put(chainRecord, recordChain, chainRightRecord, comparators.getQuick(i));
+                        } else if (parallelAtom != null && parallelAtom.isParallel(i)) {
+                            parallelAtom.put(i, chainRecord, chainRightRecord, comparators.getQuick(i));
+                        }
                     }
                 }
             } else {
@@ -399,9 +555,20 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             // run pass1 for all ordered functions
             long offset;
             if (orderedGroupCount > 0) {
+                if (parallelAtom != null) {
+                    evaluatePartitionBuckets();
+                }
                 for (int i = 0; i < orderedGroupCount; i++) {
                     final LongTreeChain tree = orderedSources.getQuick(i);
                     final ObjList<WindowFunction> functions = orderedFunctions.getQuick(i);
+                    if (tree == null) {
+                        // either already evaluated in parallel or ordered by the designated timestamp
+                        final int chainScanDirection = chainScanDirections.getQuick(i);
+                        if (chainScanDirection != SCAN_DIRECTION_OTHER) {
+                            passRecordChain(functions, chainScanDirection, false);
+                        }
+                        continue;
+                    }
                     final LongTreeChain.TreeCursor cursor = tree.getCursor();
                     final int functionCount = functions.size();
                     while (cursor.hasNext()) {
@@ -462,6 +629,10 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
                     if (functions == null) {
                         continue;
                     }
+                    if (tree == null) {
+                        passRecordChain(functions, chainScanDirections.getQuick(i), true);
+                        continue;
+                    }
                     final LongTreeChain.TreeCursor cursor = tree.getCursor();
                     final int functionCount = functions.size();
                     while (cursor.hasNext()) {
@@ -490,6 +661,78 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
             recordChain.toTop();
         }
 
+        private void evaluatePartitionBuckets() {
+            assert parallelAtom != null;
+            evalCircuitBreaker.reset();
+            parallelAtom.clearError();
+            evalStartedCounter.set(0);
+            evalDoneLatch.reset();
+
+            final int bucketCount = parallelAtom.getBucketCount();
+            final RingQueue<GroupByMergeShardTask> queue = messageBus.getGroupByMergeShardQueue();
+            final MPSequence pubSeq = messageBus.getGroupByMergeShardPubSeq();
+            final MCSequence subSeq = messageBus.getGroupByMergeShardSubSeq();
+            workStealingStrategy.of(evalStartedCounter);
+
+            int queuedCount = 0;
+            int evaluatedCount = 0; // used for work stealing decisions
+
+            try {
+                for (int i = 0; i < bucketCount; i++) {
+                    while (true) {
+                        long cursor = pubSeq.next();
+                        if (cursor < 0) {
+                            circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+
+                            if (workStealingStrategy.shouldSteal(evaluatedCount)) {
+                                parallelAtom.mergeShard(-1, i);
+                                evaluatedCount = evalDoneLatch.getCount();
+                                break;
+                            }
+                            evaluatedCount = evalDoneLatch.getCount();
+                        } else {
+                            queue.get(cursor).of(evalCircuitBreaker, evalStartedCounter, evalDoneLatch, parallelAtom, i);
+                            pubSeq.done(cursor);
+                            queuedCount++;
+                            break;
+                        }
+                    }
+                }
+            } catch (Throwable th) {
+                evalCircuitBreaker.cancel();
+                throw th;
+            } finally {
+                // Wait for the queued tasks to finish, helping the workers if we're allowed to.
+                while (!evalDoneLatch.done(queuedCount)) {
+                    if (circuitBreaker.checkIfTripped()) {
+                        evalCircuitBreaker.cancel();
+                    }
+
+                    if (workStealingStrategy.shouldSteal(evaluatedCount)) {
+                        long cursor = subSeq.next();
+                        if (cursor > -1) {
+                            GroupByMergeShardTask task = queue.get(cursor);
+                            GroupByMergeShardJob.run(-1, task, subSeq, cursor, parallelAtom);
+                        } else {
+                            Os.pause();
+                        }
+                    } else {
+                        Os.pause();
+                    }
+                    evaluatedCount = evalDoneLatch.getCount();
+                }
+            }
+
+            if (evalCircuitBreaker.checkIfTripped()) {
+                // either the query was cancelled or one of the workers failed
+                circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                if (parallelAtom.hasError()) {
+                    throw parallelAtom.toException();
+                }
+                throw CairoException.nonCritical().put("parallel window function evaluation failed");
+            }
+        }
+
         private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) throws SqlException {
             this.baseCursor = baseCursor;
             isRecordChainBuilt = false;
@@ -500,11 +743,43 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
                 recordChain.reopen();
                 recordChain.setSymbolTableResolver(this);
                 reopenTrees();
+                if (parallelAtom != null) {
+                    parallelAtom.reopen();
+                }
                 reopen(allFunctions);
             }
             Function.init(allFunctions, this, executionContext, null);
         }
 
+        private void passRecordChain(ObjList<WindowFunction> functions, int scanDirection, boolean pass2) {
+            final Record chainRecord = recordChain.getRecord();
+            final int functionCount = functions.size();
+            if (scanDirection == SCAN_DIRECTION_FORWARD) {
+                recordChain.toTop();
+                while (recordChain.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    passRecord(functions, functionCount, chainRecord, pass2);
+                }
+            } else {
+                recordChain.toBottom();
+                while (recordChain.hasPrev()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    passRecord(functions, functionCount, chainRecord, pass2);
+                }
+            }
+        }
+
+        private void passRecord(ObjList<WindowFunction> functions, int functionCount, Record chainRecord, boolean pass2) {
+            final long offset = chainRecord.getRowId();
+            for (int j = 0; j < functionCount; j++) {
+                if (pass2) {
+                    functions.getQuick(j).pass2(chainRecord, offset, recordChain);
+                } else {
+                    functions.getQuick(j).pass1(chainRecord, offset, recordChain);
+                }
+            }
+        }
+
         private void reopen(ObjList<?> list) {
             for (int i = 0, n = list.size(); i < n; i++) {
                 if (list.getQuick(i) instanceof Reopenable) {
@@ -515,7 +790,10 @@ public class CachedWindowRecordCursorFactory extends AbstractRecordCursorFactory
 
         private void reopenTrees() {
             for (int i = 0; i < orderedGroupCount; i++) {
-                orderedSources.getQuick(i).reopen();
+                final LongTreeChain tree = orderedSources.getQuick(i);
+                if (tree != null) {
+                    tree.reopen();
+                }
             }
         }
     }
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.window;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordArray;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.ExecutionCircuitBreaker;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.functions.window.BasePartitionedWindowFunction;
+import io.questdb.griffin.engine.orderby.LongTreeChain;
+import io.questdb.griffin.engine.table.ShardMergeAtom;
+import io.questdb.std.FlyweightMessageContainer;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Evaluates ordered groups of partitioned window functions in parallel. Rows are split
+ * into buckets by the hash of their partition key, so that each partition belongs to
+ * a single bucket. Every bucket has its own tree to order the rows and its own copies
+ * of the window functions, which means that buckets are independent, and each of them
+ * can be evaluated by a different worker.
+ */
+class ParallelWindowAtom implements ShardMergeAtom, QuietCloseable, Reopenable {
+    private static final int CIRCUIT_BREAKER_CHECK_MASK = 0xFFFF;
+    private static final String exceptionMessage = "unexpected window function error";
+    private final int bucketCount;
+    // group -> bucket -> functions; null for groups evaluated serially
+    private final ObjList<ObjList<ObjList<WindowFunction>>> bucketFunctions;
+    private final ObjList<Record> bucketRecords = new ObjList<>();
+    private final ObjList<BucketWindowSPI> bucketSPIs = new ObjList<>();
+    // group -> bucket -> tree; null for groups evaluated serially
+    private final ObjList<ObjList<LongTreeChain>> bucketTrees = new ObjList<>();
+    private final StringSink errorMsg = new StringSink();
+    // the first worker failure wins, the query thread rethrows it once all buckets are done
+    private final AtomicBoolean failed = new AtomicBoolean();
+    private final RecordArray recordChain;
+    private ExecutionCircuitBreaker circuitBreaker;
+    private int errno;
+    private int errorMessagePosition;
+    private boolean isCancelled;
+    private boolean isCritical;
+    private boolean isOutOfMemory;
+
+    public ParallelWindowAtom(
+            @NotNull CairoConfiguration configuration,
+            @NotNull RecordArray recordChain,
+            @NotNull ObjList<ObjList<ObjList<WindowFunction>>> bucketFunctions,
+            int bucketCount
+    ) {
+        try {
+            this.recordChain = recordChain;
+            this.bucketFunctions = bucketFunctions;
+            this.bucketCount = bucketCount;
+            for (int b = 0; b < bucketCount; b++) {
+                bucketRecords.add(recordChain.newRecord());
+                bucketSPIs.add(new BucketWindowSPI(recordChain));
+            }
+            for (int i = 0, n = bucketFunctions.size(); i < n; i++) {
+                if (bucketFunctions.getQuick(i) == null) {
+                    bucketTrees.add(null);
+                    continue;
+                }
+                final ObjList<LongTreeChain> trees = new ObjList<>(bucketCount);
+                bucketTrees.add(trees);
+                for (int b = 0; b < bucketCount; b++) {
+                    trees.add(
+                            new LongTreeChain(
+                                    configuration.getSqlWindowTreeKeyPageSize(),
+                                    configuration.getSqlWindowTreeKeyMaxPages(),
+                                    configuration.getSqlWindowRowIdPageSize(),
+                                    configuration.getSqlWindowRowIdMaxPages()
+                            )
+                    );
+                }
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void close() {
+        // trees are reopened for the next query, so we keep them in the lists
+        for (int i = 0, n = bucketTrees.size(); i < n; i++) {
+            final ObjList<LongTreeChain> trees = bucketTrees.getQuick(i);
+            if (trees != null) {
+                for (int b = 0, m = trees.size(); b < m; b++) {
+                    Misc.free(trees.getQuick(b));
+                }
+            }
+        }
+    }
+
+    public void clearError() {
+        errorMsg.clear();
+        errno = 0;
+        errorMessagePosition = 0;
+        isCancelled = false;
+        isCritical = false;
+        isOutOfMemory = false;
+        failed.set(false);
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    public boolean hasError() {
+        return failed.get();
+    }
+
+    public boolean isParallel(int groupIndex) {
+        return bucketTrees.getQuick(groupIndex) != null;
+    }
+
+    @Override
+    public int maybeAcquire(int workerId, boolean owner, ExecutionCircuitBreaker circuitBreaker) {
+        // all state is per bucket, so there is nothing to acquire
+        return -1;
+    }
+
+    @Override
+    public void mergeShard(int slotId, int bucketIndex) {
+        try {
+            mergeShard0(bucketIndex);
+        } catch (Throwable th) {
+            setError(th);
+            throw th;
+        }
+    }
+
+    /**
+     * Adds the chain record to the tree of its partition bucket. Called by the query thread
+     * while the record chain is being built.
+     */
+    public void put(int groupIndex, Record chainRecord, Record chainRightRecord, RecordComparator comparator) {
+        // the first function of the first bucket is used to hash partition keys,
+        // all functions in the group share the same partition key
+        final BasePartitionedWindowFunction function = (BasePartitionedWindowFunction) bucketFunctions.getQuick(groupIndex).getQuick(0).getQuick(0);
+        final long hashCode = function.getPartitionKeyHash(chainRecord);
+        final int bucketIndex = (int) ((hashCode >>> 1) % bucketCount);
+        bucketTrees.getQuick(groupIndex).getQuick(bucketIndex).put(chainRecord, recordChain, chainRightRecord, comparator);
+    }
+
+    @Override
+    public void release(int slotId) {
+    }
+
+    @Override
+    public void reopen() {
+        for (int i = 0, n = bucketTrees.size(); i < n; i++) {
+            final ObjList<LongTreeChain> trees = bucketTrees.getQuick(i);
+            if (trees != null) {
+                for (int b = 0; b < bucketCount; b++) {
+                    trees.getQuick(b).reopen();
+                }
+            }
+        }
+    }
+
+    public void setCircuitBreaker(ExecutionCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Creates an exception describing the first worker failure. Must be called
+     * by the query thread once all buckets are done.
+     */
+    public CairoException toException() {
+        final CairoException e = isCritical ? CairoException.critical(errno) : CairoException.nonCritical();
+        return e.position(errorMessagePosition)
+                .put(errorMsg)
+                .setCancellation(isCancelled)
+                .setInterruption(isCancelled)
+                .setOutOfMemory(isOutOfMemory);
+    }
+
+    private void mergeShard0(int bucketIndex) {
+        final Record record = bucketRecords.getQuick(bucketIndex);
+        final WindowSPI spi = bucketSPIs.getQuick(bucketIndex);
+        long rowCount = 0;
+        for (int i = 0, n = bucketTrees.size(); i < n; i++) {
+            final ObjList<LongTreeChain> trees = bucketTrees.getQuick(i);
+            if (trees == null) {
+                continue;
+            }
+            final ObjList<WindowFunction> functions = bucketFunctions.getQuick(i).getQuick(bucketIndex);
+            final int functionCount = functions.size();
+            final LongTreeChain.TreeCursor cursor = trees.getQuick(bucketIndex).getCursor();
+            while (cursor.hasNext()) {
+                if ((++rowCount & CIRCUIT_BREAKER_CHECK_MASK) == 0 && circuitBreaker.checkIfTripped()) {
+                    return;
+                }
+                final long offset = cursor.next();
+                recordChain.recordAt(record, offset);
+                for (int j = 0; j < functionCount; j++) {
+                    functions.getQuick(j).pass1(record, offset, spi);
+                }
+            }
+        }
+    }
+
+    private void setError(Throwable th) {
+        if (!failed.compareAndSet(false, true)) {
+            return;
+        }
+        if (th instanceof FlyweightMessageContainer) {
+            errorMsg.put(((FlyweightMessageContainer) th).getFlyweightMessage());
+        } else {
+            final String msg = th.getMessage();
+            errorMsg.put(msg != null ? msg : exceptionMessage);
+        }
+        if (th instanceof CairoException) {
+            final CairoException ce = (CairoException) th;
+            errno = ce.getErrno();
+            errorMessagePosition = ce.getPosition();
+            isCancelled = ce.isCancellation();
+            isCritical = ce.isCritical();
+            isOutOfMemory = ce.isOutOfMemory();
+        }
+    }
+
+    /**
+     * Record chain's own SPI implementation reuses a single record in {@link WindowSPI#getRecordAt(long)},
+     * so each bucket needs its own record to be safely evaluated on a worker thread.
+     */
+    private static class BucketWindowSPI implements WindowSPI {
+        private final RecordArray recordChain;
+        private final Record recordC;
+
+        private BucketWindowSPI(RecordArray recordChain) {
+            this.recordChain = recordChain;
+            this.recordC = recordChain.newRecord();
+        }
+
+        @Override
+        public long getAddress(long recordAddress, int columnIndex) {
+            return recordChain.getAddress(recordAddress, columnIndex);
+        }
+
+        @Override
+        public Record getRecordAt(long recordOffset) {
+            recordChain.recordAt(recordC, recordOffset);
+            return recordC;
+        }
+    }
+}
@@ -35,10 +35,12 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     private int atomicity;
     private boolean cancel;
     private byte delimiter;
+    private boolean export;
     private ExpressionNode fileName;
     private boolean header;
     private int partitionBy;
-    private ExpressionNode target; // holds table name (new import) or import id (cancel model)
+    private CharSequence query; // query text of "copy (query) to 'file'"
+    private ExpressionNode target; // holds table name (new import or export) or import id (cancel model)
     private CharSequence timestampColumnName;
     private CharSequence timestampFormat;
 
@@ -51,6 +53,8 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         fileName = null;
         header = false;
         cancel = false;
+        export = false;
+        query = null;
         timestampFormat = null;
         timestampColumnName = null;
         partitionBy = -1;
@@ -79,9 +83,13 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return partitionBy;
     }
 
+    public CharSequence getQuery() {
+        return query;
+    }
+
     @Override
     public CharSequence getTableName() {
-        return target.token;
+        return target != null ? target.token : null;
     }
 
     @Override
@@ -101,6 +109,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return cancel;
     }
 
+    public boolean isExport() {
+        return export;
+    }
+
     public boolean isHeader() {
         return header;
     }
@@ -117,6 +129,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.delimiter = delimiter;
     }
 
+    public void setExport(boolean export) {
+        this.export = export;
+    }
+
     public void setFileName(ExpressionNode fileName) {
         this.fileName = fileName;
     }
@@ -129,6 +145,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.partitionBy = partitionBy;
     }
 
+    public void setQuery(CharSequence query) {
+        this.query = query;
+    }
+
     public void setTarget(ExpressionNode tableName) {
         this.target = tableName;
     }
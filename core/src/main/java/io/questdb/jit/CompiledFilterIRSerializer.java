@@ -107,12 +107,15 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
     private MemoryCARW memory;
     private RecordMetadata metadata;
     private PageFrameCursor pageFrameCursor;
+    // root of the arithmetic expression serialized by serializeProjection()
+    private ExpressionNode projectionRoot;
 
     @Override
     public void clear() {
         memory = null;
         metadata = null;
         pageFrameCursor = null;
+        projectionRoot = null;
         forceScalarMode = false;
         predicateContext.clear();
         backfillNodes.clear();
@@ -174,6 +177,7 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
      * <li>2-4 LSBs - filter's arithmetic type size (widest type size): 0 - 1B, 1 - 2B, 2 - 4B, 3 - 8B, 4 - 16B</li>
      * <li>5-6 LSBs - filter's execution hint: 0 - scalar, 1 - single size (SIMD-friendly), 2 - mixed sizes</li>
      * <li>7 LSB - flag to include null checks for column values into compiled filter</li>
+     * <li>8 LSB - projection flag, see {@link #serializeProjection(ExpressionNode, boolean, boolean, boolean)}</li>
      * </ul>
      * <p>
      * Examples:
@@ -206,6 +210,23 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         return options;
     }
 
+    /**
+     * Writes IR of the arithmetic expression described by the given tree to memory.
+     * Unlike filters, compiled projections store the expression value for each input row
+     * into the output vector instead of storing ids of the matching rows.
+     *
+     * @param node       arithmetic expression tree's root node.
+     * @param scalar     set use only scalar instruction set execution hint in the returned options.
+     * @param debug      set enable debug flag in the returned options.
+     * @param nullChecks a flag for JIT, allowing or disallowing generation of null check
+     * @return JIT compiler options, see {@link #serialize(ExpressionNode, boolean, boolean, boolean)}.
+     * @throws SqlException thrown when IR serialization failed.
+     */
+    public int serializeProjection(ExpressionNode node, boolean scalar, boolean debug, boolean nullChecks) throws SqlException {
+        projectionRoot = node;
+        return serialize(node, scalar, debug, nullChecks) | (1 << 7);
+    }
+
     @Override
     public void visit(ExpressionNode node) throws SqlException {
         int argCount = node.paramCount;
@@ -1289,7 +1310,8 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
 
         public void onNodeDescended(final ExpressionNode node) {
             if (rootNode == null) {
-                boolean topLevelOperation = isTopLevelOperation(node);
+                // A projection is serialized as a single numeric "predicate".
+                boolean topLevelOperation = node == projectionRoot || isTopLevelOperation(node);
                 boolean topLevelBooleanColumn = isTopLevelBooleanColumn(node);
                 if (topLevelOperation || topLevelBooleanColumn) {
                     // We entered a predicate.
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.jit;
+
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.ThreadLocal;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * JIT-compiled arithmetic expression. Evaluates the expression for a range of page frame
+ * rows at once and writes the values into the output vector, one value per row.
+ */
+public class CompiledProjection implements Closeable {
+
+    private static final ThreadLocal<FiltersCompiler.JitError> tlJitError = new ThreadLocal<>(FiltersCompiler.JitError::new);
+
+    private long fnAddress;
+
+    /**
+     * Evaluates the expression for the given number of rows.
+     *
+     * @param dataAddress   address of column addresses vector, indexed by the column index
+     * @param dataSize      number of columns in the column addresses vector
+     * @param valuesAddress address of the output vector, must have enough space for all rows
+     * @param rowCount      number of rows to evaluate
+     * @return number of evaluated rows
+     */
+    public long call(long dataAddress, long dataSize, long valuesAddress, long rowCount) {
+        return FiltersCompiler.callFunction(
+                fnAddress,
+                dataAddress,
+                dataSize,
+                0,
+                0,
+                0,
+                valuesAddress,
+                rowCount,
+                0
+        );
+    }
+
+    @Override
+    public void close() {
+        if (fnAddress > 0) {
+            FiltersCompiler.freeFunction(fnAddress);
+            Unsafe.recordMemAlloc(-1, MemoryTag.NATIVE_JIT);
+            fnAddress = 0;
+        }
+    }
+
+    public void compile(MemoryCARW projection, int options) throws SqlException {
+        final long projectionSize = projection.getAppendOffset();
+        final long projectionAddress = projection.getPageAddress(0);
+
+        FiltersCompiler.JitError error = tlJitError.get();
+        error.reset();
+        fnAddress = FiltersCompiler.compileFunction(projectionAddress, projectionSize, options, error);
+        if (error.errorCode() != 0) {
+            throw SqlException.position(0)
+                    .put("JIT compilation failed [errorCode").put(error.errorCode())
+                    .put(", msg=").put(error.message()).put("]");
+        }
+        Unsafe.recordMemAlloc(1, MemoryTag.NATIVE_JIT);
+    }
+}
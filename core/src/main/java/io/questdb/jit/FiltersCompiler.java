@@ -47,6 +47,12 @@ final class FiltersCompiler {
 
     public static native long freeFunction(long fnAddress);
 
+    /**
+     * Returns a bit mask of optional features supported by the native compiler,
+     * see {@link JitUtil#isProjectionSupported()}.
+     */
+    public static native int getFeatures();
+
     static class JitError {
 
         private final StringSink message = new StringSink();
@@ -27,6 +27,8 @@ package io.questdb.jit;
 import io.questdb.std.Os;
 
 public final class JitUtil {
+    // must match JIT_FEATURE_PROJECTION in compiler.cpp
+    private static final int FEATURE_PROJECTION = 1;
 
     private JitUtil() {
     }
@@ -34,4 +36,26 @@ public final class JitUtil {
     public static boolean isJitSupported() {
         return Os.arch == Os.ARCH_X86_64;
     }
+
+    /**
+     * Returns true if the native compiler can build projection kernels. Older native
+     * libraries ignore the projection option and build a filter kernel instead,
+     * so the capability has to be checked before compiling projections.
+     */
+    public static boolean isProjectionSupported() {
+        return isJitSupported() && (FeaturesHolder.FEATURES & FEATURE_PROJECTION) != 0;
+    }
+
+    private static class FeaturesHolder {
+        private static final int FEATURES = loadFeatures();
+
+        private static int loadFeatures() {
+            try {
+                return FiltersCompiler.getFeatures();
+            } catch (UnsatisfiedLinkError e) {
+                // native library predates the feature check
+                return 0;
+            }
+        }
+    }
 }
@@ -27,6 +27,7 @@ package io.questdb.mp;
 import io.questdb.MessageBus;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.async.PageFrameReduceJob;
+import io.questdb.cairo.sql.async.ParquetPrefetchJob;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.engine.groupby.GroupByMergeShardJob;
 import io.questdb.griffin.engine.groupby.vect.GroupByVectorAggregateJob;
@@ -46,13 +47,25 @@ public class WorkerPoolUtils {
         final int workerCount = workerPool.getWorkerCount();
 
         workerPool.assign(new LatestByAllIndexedJob(messageBus));
+        workerPool.assign(new ParquetPrefetchJob(messageBus));
 
         if (configuration.isSqlParallelGroupByEnabled()) {
             workerPool.assign(new GroupByVectorAggregateJob(messageBus));
+        }
+
+        if (configuration.isSqlParallelGroupByEnabled()
+                || configuration.isSqlParallelHashJoinEnabled()
+                || configuration.isSqlParallelWindowEnabled()) {
+            // Parallel hash join reuses the shard merge queue to merge sharded hash tables,
+            // and parallel window functions use it to evaluate partition buckets.
             workerPool.assign(new GroupByMergeShardJob(messageBus));
         }
 
-        if (configuration.isSqlParallelFilterEnabled() || configuration.isSqlParallelGroupByEnabled()) {
+        if (configuration.isSqlParallelFilterEnabled()
+                || configuration.isSqlParallelGroupByEnabled()
+                || configuration.isSqlParallelHashJoinEnabled()
+                || configuration.isSqlParallelOrderByEnabled()
+                || configuration.isSqlParallelAsOfJoinEnabled()) {
             final MicrosecondClock microsecondClock = messageBus.getConfiguration().getMicrosecondClock();
             final NanosecondClock nanosecondClock = messageBus.getConfiguration().getNanosecondClock();
             for (int i = 0; i < workerCount; i++) {
@@ -85,6 +98,15 @@ public class WorkerPoolUtils {
         }
 
         workerPool.assign(new ColumnIndexerJob(messageBus));
+        setupO3Jobs(workerPool, messageBus);
+    }
+
+    /**
+     * Assigns jobs that consume partition merge and column tasks published by table writers
+     * during O3 commits and WAL apply. Any pool running these jobs helps the writer to finish
+     * its commit sooner, the writer itself steals the tasks nobody picked up.
+     */
+    public static void setupO3Jobs(WorkerPool workerPool, MessageBus messageBus) {
         workerPool.assign(new O3PartitionJob(messageBus));
         workerPool.assign(new O3OpenColumnJob(messageBus));
         workerPool.assign(new O3CopyJob(messageBus));
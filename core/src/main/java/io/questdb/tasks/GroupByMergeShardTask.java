@@ -25,14 +25,14 @@
 package io.questdb.tasks;
 
 import io.questdb.cairo.sql.AtomicBooleanCircuitBreaker;
-import io.questdb.griffin.engine.table.AsyncGroupByAtom;
+import io.questdb.griffin.engine.table.ShardMergeAtom;
 import io.questdb.mp.CountDownLatchSPI;
 import io.questdb.std.Mutable;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class GroupByMergeShardTask implements Mutable {
-    private AsyncGroupByAtom atom;
+    private ShardMergeAtom atom;
     private AtomicBooleanCircuitBreaker circuitBreaker;
     private CountDownLatchSPI doneLatch;
     private int shardIndex = -1;
@@ -47,7 +47,7 @@ public class GroupByMergeShardTask implements Mutable {
         startedCounter = null;
     }
 
-    public AsyncGroupByAtom getAtom() {
+    public ShardMergeAtom getAtom() {
         return atom;
     }
 
@@ -71,7 +71,7 @@ public class GroupByMergeShardTask implements Mutable {
             AtomicBooleanCircuitBreaker circuitBreaker,
             AtomicInteger startedCounter,
             CountDownLatchSPI doneLatch,
-            AsyncGroupByAtom atom,
+            ShardMergeAtom atom,
             int shardIndex
     ) {
         this.circuitBreaker = circuitBreaker;
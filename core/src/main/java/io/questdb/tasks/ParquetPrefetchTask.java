@@ -0,0 +1,53 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.tasks;
+
+import io.questdb.cairo.sql.PageFrameMemoryPool;
+import io.questdb.std.Mutable;
+
+public class ParquetPrefetchTask implements Mutable {
+    private PageFrameMemoryPool pool;
+    private long prefetchId = -1;
+
+    @Override
+    public void clear() {
+        pool = null;
+        prefetchId = -1;
+    }
+
+    public PageFrameMemoryPool getPool() {
+        return pool;
+    }
+
+    public long getPrefetchId() {
+        return prefetchId;
+    }
+
+    public void of(PageFrameMemoryPool pool, long prefetchId) {
+        this.pool = pool;
+        this.prefetchId = prefetchId;
+    }
+}
@@ -591,8 +591,12 @@ public abstract class AbstractCairoTest extends AbstractTest {
         memoryUsage = -1;
         forEachNode(QuestDBTestNode::setUpGriffin);
         sqlExecutionContext.resetFlags();
+        sqlExecutionContext.setParallelAsOfJoinEnabled(configuration.isSqlParallelAsOfJoinEnabled());
         sqlExecutionContext.setParallelFilterEnabled(configuration.isSqlParallelFilterEnabled());
         sqlExecutionContext.setParallelGroupByEnabled(configuration.isSqlParallelGroupByEnabled());
+        sqlExecutionContext.setParallelHashJoinEnabled(configuration.isSqlParallelHashJoinEnabled());
+        sqlExecutionContext.setParallelOrderByEnabled(configuration.isSqlParallelOrderByEnabled());
+        sqlExecutionContext.setParallelWindowEnabled(configuration.isSqlParallelWindowEnabled());
         sqlExecutionContext.setParallelReadParquetEnabled(configuration.isSqlParallelReadParquetEnabled());
         // 30% chance to enable paranoia checking FD mode
         ParanoiaState.FD_PARANOIA_MODE = new Rnd(System.nanoTime(), System.currentTimeMillis()).nextInt(100) > 70;
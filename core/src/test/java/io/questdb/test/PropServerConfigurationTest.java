@@ -284,6 +284,10 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(ff.allowMixedIO(root), configuration.getCairoConfiguration().isWriterMixedIOEnabled());
         Assert.assertEquals(CairoConfiguration.O_NONE, configuration.getCairoConfiguration().getWriterFileOpenOpts());
         Assert.assertTrue(configuration.getCairoConfiguration().isIOURingEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isIOURingReadAheadScanEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isIOURingReadAheadO3Enabled());
+        Assert.assertEquals(32, configuration.getCairoConfiguration().getIOURingReadAheadQueueDepth());
+        Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getIOURingReadAheadChunkSize());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getPreferencesStringPoolCapacity());
 
         // cannot assert for exact number as it is platform dependant
@@ -304,17 +308,31 @@ public class PropServerConfigurationTest {
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
         Assert.assertEquals(0.05, configuration.getCairoConfiguration().getSqlParallelFilterPreTouchThreshold(), 0.000001);
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelGroupByEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelHashJoinEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelOrderByEnabled());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlParallelOrderBySpillThreshold());
+        Assert.assertEquals(100_000, configuration.getCairoConfiguration().getSqlParallelTopKMaxLimit());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelWindowEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelAsOfJoinEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlResultCacheEnabled());
+        Assert.assertEquals(64 * 1024 * 1024, configuration.getCairoConfiguration().getSqlResultCacheMemoryLimit());
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelReadParquetEnabled());
         Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlParallelWorkStealingThreshold());
         Assert.assertEquals(3, configuration.getCairoConfiguration().getSqlParquetFrameCacheCapacity());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlParquetPrefetchRowGroups());
         Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
         Assert.assertEquals(100_000, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlZoneMapBlockRows());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlBloomFilterBitsPerValue());
         Assert.assertEquals(256, configuration.getCairoConfiguration().getPageFrameReduceRowIdListCapacity());
         Assert.assertEquals(16, configuration.getCairoConfiguration().getPageFrameReduceColumnListCapacity());
         Assert.assertEquals(100_000, configuration.getCairoConfiguration().getGroupByShardingThreshold());
+        Assert.assertFalse(configuration.getCairoConfiguration().isGroupByKernelEnabled());
         Assert.assertTrue(configuration.getCairoConfiguration().isGroupByPresizeEnabled());
         Assert.assertEquals(100_000_000, configuration.getCairoConfiguration().getGroupByPresizeMaxCapacity());
         Assert.assertEquals(Numbers.SIZE_1GB, configuration.getCairoConfiguration().getGroupByPresizeMaxHeapSize());
+        Assert.assertFalse(configuration.getCairoConfiguration().isGroupBySpillEnabled());
+        Assert.assertEquals(Numbers.SIZE_1GB, configuration.getCairoConfiguration().getGroupBySpillThreshold());
         Assert.assertEquals(128 * 1024, configuration.getCairoConfiguration().getGroupByAllocatorDefaultChunkSize());
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlOrderBySortEnabled());
         Assert.assertEquals(600, configuration.getCairoConfiguration().getSqlOrderByRadixSortThreshold());
@@ -326,6 +344,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(8, configuration.getCairoConfiguration().getSqlJitBindVarsMemoryMaxPages());
         Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlJitPageAddressCacheThreshold());
         Assert.assertFalse(configuration.getCairoConfiguration().isSqlJitDebugEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlJitProjectionEnabled());
 
         Assert.assertEquals(8192, configuration.getCairoConfiguration().getRndFunctionMemoryPageSize());
         Assert.assertEquals(128, configuration.getCairoConfiguration().getRndFunctionMemoryMaxPages());
@@ -382,6 +401,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(-1, configuration.getLineTcpReceiverConfiguration().getSendBufferSize());
         Assert.assertEquals(-1, configuration.getLineTcpReceiverConfiguration().getNetSendBufferSize());
         Assert.assertEquals(32768, configuration.getLineTcpReceiverConfiguration().getMaxMeasurementSize());
+        Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getSymbolCacheSharedCapacity());
         Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getWriterQueueCapacity());
         Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerCount());
         Assert.assertEquals(10, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getYieldThreshold());
@@ -394,6 +414,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(10_000, configuration.getLineTcpReceiverConfiguration().getIOWorkerPoolConfiguration().getSleepThreshold());
         Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().getIOWorkerPoolConfiguration().haltOnError());
         Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getMaintenanceInterval());
+        Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getMaxLoadRatio(), 0.000001);
         Assert.assertEquals(PropServerConfiguration.COMMIT_INTERVAL_DEFAULT, configuration.getLineTcpReceiverConfiguration().getCommitIntervalDefault());
         Assert.assertEquals(PartitionBy.DAY, configuration.getLineTcpReceiverConfiguration().getDefaultPartitionBy());
         Assert.assertEquals(500, configuration.getLineTcpReceiverConfiguration().getWriterIdleTimeout());
@@ -493,6 +514,7 @@ public class PropServerConfigurationTest {
         Assert.assertTrue(configuration.getCairoConfiguration().isTableTypeConversionEnabled());
         Assert.assertEquals(10, configuration.getCairoConfiguration().getWalWriterPoolMaxSegments());
         Assert.assertTrue(configuration.getCairoConfiguration().isWalApplyParallelSqlEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isWalApplyParallelMergeEnabled());
 
         Assert.assertEquals(20, configuration.getCairoConfiguration().getO3LastPartitionMaxSplits());
         Assert.assertEquals(50 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getPartitionO3SplitMinSize());
@@ -1285,6 +1307,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(2049, configuration.getLineTcpReceiverConfiguration().getRecvBufferSize());
             Assert.assertEquals(32768, configuration.getLineTcpReceiverConfiguration().getNetRecvBufferSize());
             Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getMaxMeasurementSize());
+            Assert.assertEquals(1024, configuration.getLineTcpReceiverConfiguration().getSymbolCacheSharedCapacity());
             Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getWriterQueueCapacity());
             Assert.assertEquals(2, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerCount());
             Assert.assertArrayEquals(new int[]{1, 2}, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerAffinity());
@@ -1299,6 +1322,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(10_003, configuration.getLineTcpReceiverConfiguration().getIOWorkerPoolConfiguration().getSleepThreshold());
             Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().getIOWorkerPoolConfiguration().haltOnError());
             Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getMaintenanceInterval());
+            Assert.assertEquals(2.5, configuration.getLineTcpReceiverConfiguration().getMaxLoadRatio(), 0.000001);
             Assert.assertEquals(PartitionBy.MONTH, configuration.getLineTcpReceiverConfiguration().getDefaultPartitionBy());
             Assert.assertEquals(5_000, configuration.getLineTcpReceiverConfiguration().getWriterIdleTimeout());
             Assert.assertEquals(ColumnType.FLOAT, configuration.getLineTcpReceiverConfiguration().getDefaultColumnTypeForFloat());
@@ -1361,6 +1385,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(33, configuration.getWalApplyPoolConfiguration().getSleepThreshold());
             Assert.assertEquals(33033, configuration.getWalApplyPoolConfiguration().getYieldThreshold());
             Assert.assertFalse(configuration.getCairoConfiguration().isWalApplyParallelSqlEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isWalApplyParallelMergeEnabled());
 
             Assert.assertTrue(configuration.getMatViewRefreshPoolConfiguration().isEnabled());
             Assert.assertTrue(configuration.getMatViewRefreshPoolConfiguration().haltOnError());
@@ -1791,6 +1816,10 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(ff.allowMixedIO(root), configuration.isWriterMixedIOEnabled());
         Assert.assertEquals(CairoConfiguration.O_DIRECT | CairoConfiguration.O_SYNC, configuration.getWriterFileOpenOpts());
         Assert.assertFalse(configuration.isIOURingEnabled());
+        Assert.assertTrue(configuration.isIOURingReadAheadScanEnabled());
+        Assert.assertTrue(configuration.isIOURingReadAheadO3Enabled());
+        Assert.assertEquals(16, configuration.getIOURingReadAheadQueueDepth());
+        Assert.assertEquals(256 * 1024, configuration.getIOURingReadAheadChunkSize());
 
         Assert.assertEquals(100_000, configuration.getMaxUncommittedRows());
         Assert.assertEquals(42_000_000, configuration.getO3MinLag());
@@ -1805,22 +1834,37 @@ public class PropServerConfigurationTest {
         Assert.assertFalse(configuration.isSqlParallelFilterPreTouchEnabled());
         Assert.assertEquals(0.1, configuration.getSqlParallelFilterPreTouchThreshold(), 0.000001);
         Assert.assertFalse(configuration.isSqlParallelGroupByEnabled());
+        Assert.assertTrue(configuration.isSqlParallelHashJoinEnabled());
+        Assert.assertTrue(configuration.isSqlParallelOrderByEnabled());
+        Assert.assertEquals(4096, configuration.getSqlParallelOrderBySpillThreshold());
+        Assert.assertEquals(1000, configuration.getSqlParallelTopKMaxLimit());
+        Assert.assertTrue(configuration.isSqlParallelWindowEnabled());
+        Assert.assertTrue(configuration.isSqlParallelAsOfJoinEnabled());
+        Assert.assertTrue(configuration.isSqlResultCacheEnabled());
+        Assert.assertEquals(16 * 1024 * 1024, configuration.getSqlResultCacheMemoryLimit());
         Assert.assertFalse(configuration.isSqlParallelReadParquetEnabled());
         Assert.assertFalse(configuration.isSqlOrderBySortEnabled());
         Assert.assertEquals(100, configuration.getSqlOrderByRadixSortThreshold());
         Assert.assertEquals(32, configuration.getSqlParallelWorkStealingThreshold());
         Assert.assertEquals(42, configuration.getSqlParquetFrameCacheCapacity());
+        Assert.assertEquals(256, configuration.getSqlParquetPrefetchQueueCapacity());
+        Assert.assertEquals(4, configuration.getSqlParquetPrefetchRowGroups());
         Assert.assertEquals(1000, configuration.getSqlPageFrameMaxRows());
         Assert.assertEquals(100, configuration.getSqlPageFrameMinRows());
+        Assert.assertEquals(1024, configuration.getSqlZoneMapBlockRows());
+        Assert.assertEquals(12, configuration.getSqlBloomFilterBitsPerValue());
         Assert.assertEquals(128, configuration.getPageFrameReduceShardCount());
         Assert.assertEquals(1024, configuration.getPageFrameReduceQueueCapacity());
         Assert.assertEquals(8, configuration.getPageFrameReduceRowIdListCapacity());
         Assert.assertEquals(4, configuration.getPageFrameReduceColumnListCapacity());
         Assert.assertEquals(2048, configuration.getGroupByMergeShardQueueCapacity());
         Assert.assertEquals(100, configuration.getGroupByShardingThreshold());
+        Assert.assertTrue(configuration.isGroupByKernelEnabled());
         Assert.assertFalse(configuration.isGroupByPresizeEnabled());
         Assert.assertEquals(100_000, configuration.getGroupByPresizeMaxCapacity());
         Assert.assertEquals(1024, configuration.getGroupByPresizeMaxHeapSize());
+        Assert.assertTrue(configuration.isGroupBySpillEnabled());
+        Assert.assertEquals(2048, configuration.getGroupBySpillThreshold());
         Assert.assertEquals(4096, configuration.getGroupByAllocatorDefaultChunkSize());
 
         Assert.assertEquals(SqlJitMode.JIT_MODE_FORCE_SCALAR, configuration.getSqlJitMode());
@@ -1830,6 +1874,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(1, configuration.getSqlJitBindVarsMemoryMaxPages());
         Assert.assertEquals(1024, configuration.getSqlJitPageAddressCacheThreshold());
         Assert.assertTrue(configuration.isSqlJitDebugEnabled());
+        Assert.assertTrue(configuration.isSqlJitProjectionEnabled());
 
         Assert.assertEquals(16384, configuration.getRndFunctionMemoryPageSize());
         Assert.assertEquals(32, configuration.getRndFunctionMemoryMaxPages());
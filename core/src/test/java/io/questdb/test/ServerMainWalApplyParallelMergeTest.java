@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test;
+
+import io.questdb.MessageBus;
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.ColumnTaskJob;
+import io.questdb.cairo.O3CopyJob;
+import io.questdb.cairo.O3OpenColumnJob;
+import io.questdb.cairo.O3PartitionJob;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ServerMainWalApplyParallelMergeTest extends AbstractBootstrapTest {
+
+    @Test
+    public void testO3CommitMergedByApplyWorkers() throws Exception {
+        TestUtils.unchecked(() -> createDummyConfiguration(
+                PropertyKey.CAIRO_WAL_SUPPORTED + "=true",
+                PropertyKey.CAIRO_WAL_APPLY_PARALLEL_MERGE_ENABLED + "=true",
+                PropertyKey.WAL_APPLY_WORKER_COUNT + "=4",
+                // keep idle apply workers polling the O3 queues
+                PropertyKey.WAL_APPLY_WORKER_NAP_THRESHOLD + "=" + Long.MAX_VALUE,
+                PropertyKey.WAL_APPLY_WORKER_SLEEP_THRESHOLD + "=" + Long.MAX_VALUE
+        ));
+        final AtomicLong o3TaskCount = new AtomicLong();
+        TestUtils.assertMemoryLeak(() -> {
+            try (TestServerMain serverMain = new TestServerMain(getServerMainArgs()) {
+                @Override
+                protected void setupWalApplyO3Jobs(WorkerPool workerPool, CairoEngine engine) {
+                    final MessageBus messageBus = engine.getMessageBus();
+                    workerPool.assign(new O3PartitionJob(messageBus) {
+                        @Override
+                        protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
+                            o3TaskCount.incrementAndGet();
+                            return super.doRun(workerId, cursor, runStatus);
+                        }
+                    });
+                    workerPool.assign(new O3OpenColumnJob(messageBus) {
+                        @Override
+                        protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
+                            o3TaskCount.incrementAndGet();
+                            return super.doRun(workerId, cursor, runStatus);
+                        }
+                    });
+                    workerPool.assign(new O3CopyJob(messageBus) {
+                        @Override
+                        protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
+                            o3TaskCount.incrementAndGet();
+                            return super.doRun(workerId, cursor, runStatus);
+                        }
+                    });
+                    workerPool.assign(new ColumnTaskJob(messageBus));
+                }
+            }) {
+                serverMain.start();
+                serverMain.ddl("create table x (ts timestamp, v long) timestamp(ts) partition by day wal");
+                // a row every minute for 30 days
+                serverMain.ddl("insert into x select (x * 60_000_000)::timestamp, x from long_sequence(43_200)");
+                awaitWriterTxn(serverMain, 1);
+
+                // a single commit that interleaves a row into every minute of every partition
+                serverMain.ddl("insert into x select (x * 60_000_000 - 30_000_000)::timestamp, -x from long_sequence(43_200)");
+                awaitWriterTxn(serverMain, 2);
+
+                serverMain.assertSql(
+                        "select count(), sum(v), min(ts), max(ts) from x",
+                        "count\tsum\tmin\tmax\n" +
+                                "86400\t0\t1970-01-01T00:00:30.000000Z\t1970-01-31T00:00:00.000000Z\n"
+                );
+                serverMain.assertSql(
+                        "select * from x limit 4",
+                        "ts\tv\n" +
+                                "1970-01-01T00:00:30.000000Z\t-1\n" +
+                                "1970-01-01T00:01:00.000000Z\t1\n" +
+                                "1970-01-01T00:01:30.000000Z\t-2\n" +
+                                "1970-01-01T00:02:00.000000Z\t2\n"
+                );
+                serverMain.assertSql(
+                        "select * from x where ts in '1970-01-15T23:59'",
+                        "ts\tv\n" +
+                                "1970-01-15T23:59:00.000000Z\t21599\n" +
+                                "1970-01-15T23:59:30.000000Z\t-21600\n"
+                );
+            }
+        });
+        Assert.assertTrue(o3TaskCount.get() > 0);
+    }
+
+    private static void awaitWriterTxn(TestServerMain serverMain, long txn) throws Exception {
+        TestUtils.assertEventually(() -> serverMain.assertSql(
+                "select suspended, writerTxn, sequencerTxn from wal_tables() where name = 'x'",
+                "suspended\twriterTxn\tsequencerTxn\n" +
+                        "false\t" + txn + "\t" + txn + "\n"
+        ));
+    }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cairo;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.PageCacheReadAhead;
+import io.questdb.std.Files;
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.IOURingFacadeImpl;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+public class PageCacheReadAheadTest extends AbstractCairoTest {
+    private static final int FILE_SIZE = 1024 * 1024;
+    private static final IOURingFacade rf = new IOURingFacadeImpl();
+
+    @Override
+    @Before
+    public void setUp() {
+        node1.setProperty(PropertyKey.CAIRO_IO_URING_READ_AHEAD_SCAN_ENABLED, true);
+        node1.setProperty(PropertyKey.CAIRO_IO_URING_READ_AHEAD_O3_ENABLED, true);
+        node1.setProperty(PropertyKey.CAIRO_IO_URING_READ_AHEAD_QUEUE_DEPTH, 4);
+        node1.setProperty(PropertyKey.CAIRO_IO_URING_READ_AHEAD_CHUNK_SIZE, 64 * 1024);
+        super.setUp();
+    }
+
+    @Test
+    public void testFailsToCreateRing() throws Exception {
+        final IOURingFacade rf = new IOURingFacadeImpl() {
+            @Override
+            public long create(int capacity) {
+                return -42;
+            }
+        };
+        assertMemoryLeak(() -> {
+            try (
+                    Path path = new Path();
+                    PageCacheReadAhead readAhead = new PageCacheReadAhead(rf, 4, 64 * 1024, MemoryTag.NATIVE_DEFAULT)
+            ) {
+                final long fd = Files.openRO(path.of(newFile().getAbsolutePath()).$());
+                Assert.assertTrue(fd > -1);
+                try {
+                    // read-ahead is best-effort, the failure is only logged
+                    readAhead.read(fd, 0, FILE_SIZE);
+                    readAhead.readAsync(fd, 0, FILE_SIZE);
+                    Assert.assertEquals(0, readAhead.getInFlight());
+                } finally {
+                    Files.close(fd);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testO3MergeAndScan() throws Exception {
+        Assume.assumeTrue(rf.isAvailable());
+        assertMemoryLeak(() -> {
+            execute("create table x as (" +
+                    "select x id, rnd_varchar(10, 40, 0) v, timestamp_sequence(0, 1000000) ts from long_sequence(200000)" +
+                    ") timestamp(ts) partition by day");
+            // rewrites the partitions, the source rows are read ahead
+            execute("insert into x select -x, 'abc', timestamp_sequence(500000, 1000000) from long_sequence(100)");
+
+            final String expected = "count\tsum\tmin\n" +
+                    "200100\t20000094950\t-100\n";
+            assertSql(expected, "select count(), sum(id), min(id) from x where length(v) > 0");
+            assertSql(expected, "select count(), sum(id), min(id) from (x order by ts desc) where length(v) > 0");
+        });
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        Assume.assumeTrue(rf.isAvailable());
+        assertMemoryLeak(() -> {
+            try (
+                    Path path = new Path();
+                    PageCacheReadAhead readAhead = new PageCacheReadAhead(rf, 4, 64 * 1024, MemoryTag.NATIVE_DEFAULT)
+            ) {
+                final long fd = Files.openRO(path.of(newFile().getAbsolutePath()).$());
+                Assert.assertTrue(fd > -1);
+                try {
+                    readAhead.read(fd, 0, FILE_SIZE);
+                    Assert.assertEquals(0, readAhead.getInFlight());
+
+                    readAhead.readAsync(fd, 0, FILE_SIZE);
+                    Assert.assertEquals(4, readAhead.getInFlight());
+
+                    // the ring is released on close and the instance can be reused
+                    readAhead.close();
+                    Assert.assertEquals(0, readAhead.getInFlight());
+                    readAhead.readAsync(fd, 0, FILE_SIZE);
+                    Assert.assertTrue(readAhead.getInFlight() > 0);
+                } finally {
+                    Files.close(fd);
+                }
+            }
+        });
+    }
+
+    private File newFile() throws Exception {
+        final File file = temp.newFile();
+        final StringBuilder sb = new StringBuilder(FILE_SIZE);
+        for (int i = 0; i < FILE_SIZE; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        TestUtils.writeStringToFile(file, sb.toString());
+        return file;
+    }
+}
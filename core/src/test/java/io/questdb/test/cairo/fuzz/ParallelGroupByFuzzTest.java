@@ -1049,6 +1049,28 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
                 "0.50356769718027\n");
     }
 
+    @Test
+    public void testParallelGroupBySpill() throws Exception {
+        testParallelGroupBySpill(
+                "SELECT count(*) key_count, sum(c) row_count, min(c) min_c, max(c) max_c, sum(s) total FROM (SELECT key, count() c, sum(value) s FROM tab GROUP BY key)",
+                "key_count\trow_count\tmin_c\tmax_c\ttotal\n" +
+                        "1000\t4000\t4\t4\t8002000.0\n",
+                "SELECT count(*) key_count, sum(c) row_count, min(c) min_c, max(c) max_c, sum(s) total FROM (SELECT vkey, count() c, sum(value) s FROM tab GROUP BY vkey)",
+                "key_count\trow_count\tmin_c\tmax_c\ttotal\n" +
+                        "1000\t4000\t4\t4\t8002000.0\n",
+                "SELECT count(*) key_count, sum(c) row_count, min(c) min_c, max(c) max_c FROM (SELECT key, vkey, count() c FROM tab WHERE value > 2000 GROUP BY key, vkey)",
+                "key_count\trow_count\tmin_c\tmax_c\n" +
+                        "1000\t2000\t2\t2\n",
+                "SELECT count(*) key_count, sum(c) row_count, min(c) min_c, max(c) max_c, sum(s) total FROM (SELECT ikey, count() c, sum(value) s FROM tab GROUP BY ikey)",
+                "key_count\trow_count\tmin_c\tmax_c\ttotal\n" +
+                        "1000\t4000\t4\t4\t8002000.0\n",
+                // count_distinct() keeps its state in allocator memory, so the query is not spilled
+                "SELECT count(*) key_count, sum(d) distinct_count, min(l) min_l, max(l) max_l FROM (SELECT key, count_distinct(ikey) d, length(first(vkey)) l FROM tab GROUP BY key)",
+                "key_count\tdistinct_count\tmin_l\tmax_l\n" +
+                        "1000\t1000\t2\t4\n"
+        );
+    }
+
     @Test
     public void testParallelGroupByStdDev() throws Exception {
         Assume.assumeTrue(enableParallelGroupBy);
@@ -1103,6 +1125,17 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelIntKeyedKernelFuzz() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testGroupByKernelFuzz(
+                "SELECT anint, count(), count(adouble), sum(aroundeddouble), avg(aroundeddouble), min(adouble), max(adouble), " +
+                        " sum(along), min(along), max(along) " +
+                        "FROM tab ORDER BY anint"
+        );
+    }
+
     @Test
     public void testParallelKSumNSum() throws Exception {
         testParallelStringAndVarcharKeyGroupBy(
@@ -1151,6 +1184,15 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelLongKeyedKernelFuzz() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testGroupByKernelFuzz(
+                "SELECT along, count(), sum(aroundeddouble), min(adouble), max(along) FROM tab ORDER BY along"
+        );
+    }
+
     @Test
     public void testParallelMultiJsonKeyGroupBy() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
@@ -3112,6 +3154,14 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelSymbolKeyedKernelWithFilterFuzz() throws Exception {
+        testGroupByKernelFuzz(
+                "SELECT asymbol, count(), avg(aroundeddouble), max(adouble), sum(along), min(along) " +
+                        "FROM tab WHERE anint > 100 ORDER BY asymbol"
+        );
+    }
+
     @Test
     public void testParallelToStrFunctionKeyGroupBy() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
@@ -3271,6 +3321,75 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         });
     }
 
+    private void testGroupByKernelFuzz(String query) throws Exception {
+        // With this test, we aim to verify correctness of columnar aggregation
+        // kernels against single-threaded GROUP BY.
+
+        // This test controls sets enable parallel GROUP BY flag on its own.
+        Assume.assumeTrue(enableParallelGroupBy);
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_KERNEL_ENABLED, true);
+        assertMemoryLeak(() -> {
+            final Rnd rnd = TestUtils.generateRandom(LOG);
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+                        sqlExecutionContext.setRandom(rnd);
+
+                        execute(
+                                compiler,
+                                "create table tab as (select" +
+                                        " rnd_int(0,1000,3) anint," +
+                                        " rnd_symbol(4,4,4,2) asymbol," +
+                                        " rnd_long(0,1000,3) along," +
+                                        " rnd_double(3) adouble," +
+                                        // integer values keep double sums exact regardless of the summation order
+                                        " rnd_long(0,1000,3)::double aroundeddouble," +
+                                        " timestamp_sequence(400000000000, 500000000) ts" +
+                                        " from long_sequence(10000)) timestamp(ts) partition by day",
+                                sqlExecutionContext
+                        );
+                        if (convertToParquet) {
+                            execute(compiler, "alter table tab convert partition to parquet where ts >= 0", sqlExecutionContext);
+                        }
+
+                        // Run with single-threaded GROUP BY.
+                        sqlExecutionContext.setParallelGroupByEnabled(false);
+                        try {
+                            TestUtils.printSql(
+                                    engine,
+                                    sqlExecutionContext,
+                                    query,
+                                    sink
+                            );
+                        } finally {
+                            sqlExecutionContext.setParallelGroupByEnabled(engine.getConfiguration().isSqlParallelGroupByEnabled());
+                        }
+
+                        // Run with parallel GROUP BY.
+                        sqlExecutionContext.setParallelGroupByEnabled(true);
+                        final StringSink sinkB = new StringSink();
+                        try {
+                            TestUtils.printSql(
+                                    engine,
+                                    sqlExecutionContext,
+                                    query,
+                                    sinkB
+                            );
+                        } finally {
+                            sqlExecutionContext.setParallelGroupByEnabled(engine.getConfiguration().isSqlParallelGroupByEnabled());
+                        }
+
+                        // Compare the results.
+                        TestUtils.assertEquals(sink, sinkB);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
     private void testParallelGroupByAllTypes(BindVariablesInitializer initializer, String... queriesAndExpectedResults) throws Exception {
         assertMemoryLeak(() -> {
             final WorkerPool pool = new WorkerPool(() -> 4);
@@ -3393,6 +3512,41 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         });
     }
 
+    private void testParallelGroupBySpill(String... queriesAndExpectedResults) throws Exception {
+        // Spill sharded maps to disk after each page frame.
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SPILL_ENABLED, true);
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SPILL_THRESHOLD, 1);
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        sqlExecutionContext.setJitMode(enableJitCompiler ? SqlJitMode.JIT_MODE_ENABLED : SqlJitMode.JIT_MODE_DISABLED);
+
+                        engine.execute(
+                                "CREATE TABLE tab (" +
+                                        "  ts TIMESTAMP," +
+                                        "  key LONG," +
+                                        "  ikey INT," +
+                                        "  vkey VARCHAR," +
+                                        "  value DOUBLE) timestamp (ts) PARTITION BY DAY",
+                                sqlExecutionContext
+                        );
+                        engine.execute(
+                                "insert into tab select (x * 864000000)::timestamp, x % 1000, x % 1000, 'k' || (x % 1000), x from long_sequence(" + ROW_COUNT + ")",
+                                sqlExecutionContext
+                        );
+                        if (convertToParquet) {
+                            execute(compiler, "alter table tab convert partition to parquet where ts >= 0", sqlExecutionContext);
+                        }
+                        assertQueries(engine, sqlExecutionContext, queriesAndExpectedResults);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
     private void testParallelGroupByThrowsOnTimeout(String query, long tripWhenTicks) throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
         Assume.assumeTrue(enableJitCompiler);
@@ -49,6 +49,8 @@ import io.questdb.cairo.map.MapValueMergeFunction;
 import io.questdb.cairo.map.OrderedMap;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.engine.functions.columns.LongColumn;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.BitSet;
@@ -1552,6 +1554,111 @@ public class OrderedMapTest extends AbstractCairoTest {
         });
     }
 
+
+    @Test
+    public void testMergeSpilledFixedSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.INT);
+            keyTypes.add(ColumnType.LONG);
+
+            ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+            valueTypes.add(ColumnType.LONG);
+
+            try (
+                    OrderedMap mapA = new OrderedMap(1024, keyTypes, valueTypes, 64, 0.8, 24);
+                    OrderedMap mapB = new OrderedMap(1024, keyTypes, valueTypes, 64, 0.8, 24);
+                    MemoryCARW spillMem = Vm.getCARWInstance(4096, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)
+            ) {
+                final int N = 10000;
+                // spill keys [0, 2N) twice, so that each of them is found in two chunks
+                for (int k = 0; k < 2; k++) {
+                    for (int i = 0; i < 2 * N; i++) {
+                        MapKey keyB = mapB.withKey();
+                        keyB.putInt(i);
+                        keyB.putLong(i + 1);
+
+                        MapValue valueB = keyB.createValue();
+                        Assert.assertTrue(valueB.isNew());
+                        valueB.putLong(0, i + 2);
+                    }
+                    Assert.assertEquals(2 * N * 24, mapB.spill(spillMem));
+                    Assert.assertEquals(0, mapB.size());
+                }
+
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putInt(i);
+                    keyA.putLong(i + 1);
+
+                    MapValue valueA = keyA.createValue();
+                    Assert.assertTrue(valueA.isNew());
+                    valueA.putLong(0, i + 2);
+                }
+
+                final long lo = spillMem.addressOf(0);
+                mapA.mergeSpilled(lo, lo + spillMem.getAppendOffset(), new TestMapValueMergeFunction());
+                Assert.assertEquals(2 * N, mapA.size());
+
+                for (int i = 0; i < 2 * N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putInt(i);
+                    keyA.putLong(i + 1);
+                    MapValue valueA = keyA.findValue();
+
+                    Assert.assertNotNull(valueA);
+                    Assert.assertEquals(i < N ? 3L * (i + 2) : 2L * (i + 2), valueA.getLong(0));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMergeSpilledVarSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            SingleColumnType keyTypes = new SingleColumnType(ColumnType.STRING);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+
+            try (
+                    OrderedMap mapA = new OrderedMap(64, keyTypes, valueTypes, 16, 0.9, Integer.MAX_VALUE);
+                    OrderedMap mapB = new OrderedMap(64, keyTypes, valueTypes, 16, 0.9, Integer.MAX_VALUE);
+                    MemoryCARW spillMem = Vm.getCARWInstance(4096, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)
+            ) {
+                final int N = 100;
+                final int M = 1000;
+                final LongList chunks = new LongList();
+                for (int i = 0; i < N; i++) {
+                    for (int j = 0; j < M; j++) {
+                        MapKey keyB = mapB.withKey();
+                        // every second chunk repeats keys of the previous one
+                        keyB.putStr(String.valueOf((long) M * (i / 2) + j));
+
+                        MapValue valueB = keyB.createValue();
+                        Assert.assertTrue(valueB.isNew());
+                        valueB.putLong(0, 1);
+                    }
+                    chunks.add(spillMem.getAppendOffset());
+                    chunks.add(mapB.spill(spillMem));
+                    Assert.assertEquals(0, mapB.size());
+                }
+
+                for (int i = 0, n = chunks.size(); i < n; i += 2) {
+                    final long lo = spillMem.addressOf(chunks.getQuick(i));
+                    mapA.mergeSpilled(lo, lo + chunks.getQuick(i + 1), new TestMapValueMergeFunction());
+                }
+                Assert.assertEquals(N / 2 * M, mapA.size());
+
+                RecordCursor cursorA = mapA.getCursor();
+                MapRecord recordA = mapA.getRecord();
+                long expectedKey = 0;
+                while (cursorA.hasNext()) {
+                    // insertion order is preserved
+                    TestUtils.assertEquals(String.valueOf(expectedKey++), recordA.getStrA(1));
+                    Assert.assertEquals(2, recordA.getValue().getLong(0));
+                }
+            }
+        });
+    }
     @Test
     public void testMergeVarSizeKey() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
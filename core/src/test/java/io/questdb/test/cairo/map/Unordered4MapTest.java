@@ -32,9 +32,12 @@ import io.questdb.cairo.map.MapKey;
 import io.questdb.cairo.map.MapRecord;
 import io.questdb.cairo.map.MapRecordCursor;
 import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.MapValueMergeFunction;
 import io.questdb.cairo.map.Unordered4Map;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.engine.functions.columns.LongColumn;
 import io.questdb.std.Chars;
 import io.questdb.std.DirectLongLongAscList;
@@ -231,6 +234,57 @@ public class Unordered4MapTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testMergeSpilled() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            SingleColumnType keyTypes = new SingleColumnType(ColumnType.INT);
+            SingleColumnType valueTypes = new SingleColumnType(ColumnType.LONG);
+
+            try (
+                    Unordered4Map mapA = new Unordered4Map(keyTypes, valueTypes, 64, 0.8, Integer.MAX_VALUE);
+                    Unordered4Map mapB = new Unordered4Map(keyTypes, valueTypes, 64, 0.8, Integer.MAX_VALUE);
+                    MemoryCARW spillMem = Vm.getCARWInstance(4096, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)
+            ) {
+                final int N = 10000;
+                // spill keys [0, 2N) twice, so that each of them, including the zero key, is found in two chunks
+                for (int k = 0; k < 2; k++) {
+                    for (int i = 0; i < 2 * N; i++) {
+                        MapKey keyB = mapB.withKey();
+                        keyB.putInt(i);
+
+                        MapValue valueB = keyB.createValue();
+                        Assert.assertTrue(valueB.isNew());
+                        valueB.putLong(0, i + 1);
+                    }
+                    Assert.assertEquals(2 * N * 16, mapB.spill(spillMem));
+                    Assert.assertEquals(0, mapB.size());
+                }
+
+                for (int i = 0; i < N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putInt(i);
+
+                    MapValue valueA = keyA.createValue();
+                    Assert.assertTrue(valueA.isNew());
+                    valueA.putLong(0, i + 1);
+                }
+
+                final long lo = spillMem.addressOf(0);
+                mapA.mergeSpilled(lo, lo + spillMem.getAppendOffset(), new TestMapValueMergeFunction());
+                Assert.assertEquals(2 * N, mapA.size());
+
+                for (int i = 0; i < 2 * N; i++) {
+                    MapKey keyA = mapA.withKey();
+                    keyA.putInt(i);
+                    MapValue valueA = keyA.findValue();
+
+                    Assert.assertNotNull(valueA);
+                    Assert.assertEquals(i < N ? 3L * (i + 1) : 2L * (i + 1), valueA.getLong(0));
+                }
+            }
+        });
+    }
+
     @Test
     public void testPutBinUnsupported() throws Exception {
         assertUnsupported(key -> key.putBin(null));
@@ -384,4 +438,12 @@ public class Unordered4MapTest extends AbstractCairoTest {
             }
         });
     }
+
+    private static class TestMapValueMergeFunction implements MapValueMergeFunction {
+
+        @Override
+        public void merge(MapValue destValue, MapValue srcValue) {
+            destValue.addLong(0, srcValue.getLong(0));
+        }
+    }
 }
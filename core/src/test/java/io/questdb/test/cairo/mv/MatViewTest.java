@@ -3178,6 +3178,157 @@ public class MatViewTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testMergeRefreshDecomposableAggregates() throws Exception {
+        assertMemoryLeak(() -> {
+            execute(
+                    "create table base_price (" +
+                            "sym symbol, price double, qty long, ts timestamp" +
+                            ") timestamp(ts) partition by DAY WAL"
+            );
+
+            final String viewSql = "select sym, sum(price) sum_price, count() cnt, min(qty) min_qty, max(qty) max_qty, ts " +
+                    "from base_price sample by 1h";
+            createMatView(viewSql);
+
+            execute(
+                    "insert into base_price values('gbpusd', 1, 10, '2024-09-10T12:01')" +
+                            ",('gbpusd', 2, 20, '2024-09-10T12:02')" +
+                            ",('jpyusd', 100, 5, '2024-09-10T12:02')" +
+                            ",('gbpusd', 3, 30, '2024-09-10T13:02')"
+            );
+            drainQueues();
+
+            // late rows land in the already refreshed buckets, including a new key and null values
+            execute(
+                    "insert into base_price values('gbpusd', 4, 1, '2024-09-10T12:30')" +
+                            ",('eurusd', 7, null, '2024-09-10T12:45')" +
+                            ",('jpyusd', null, 50, '2024-09-10T13:10')"
+            );
+            drainQueues();
+
+            final String expected = "sym\tsum_price\tcnt\tmin_qty\tmax_qty\tts\n" +
+                    "eurusd\t7.0\t1\tnull\tnull\t2024-09-10T12:00:00.000000Z\n" +
+                    "gbpusd\t7.0\t3\t1\t20\t2024-09-10T12:00:00.000000Z\n" +
+                    "jpyusd\t100.0\t1\t5\t5\t2024-09-10T12:00:00.000000Z\n" +
+                    "gbpusd\t3.0\t1\t30\t30\t2024-09-10T13:00:00.000000Z\n" +
+                    "jpyusd\tnull\t1\t50\t50\t2024-09-10T13:00:00.000000Z\n";
+            assertSql(expected, "price_1h order by ts, sym");
+            assertSql(expected, viewSql + " order by ts, sym");
+
+            execute(
+                    "insert into base_price values('eurusd', 1, 3, '2024-09-10T12:50')" +
+                            ",('gbpusd', 5, 40, '2024-09-10T14:00')"
+            );
+            execute("insert into base_price values('jpyusd', 1, 2, '2024-09-10T13:59')");
+            drainQueues();
+
+            final String expected2 = "sym\tsum_price\tcnt\tmin_qty\tmax_qty\tts\n" +
+                    "eurusd\t8.0\t2\t3\t3\t2024-09-10T12:00:00.000000Z\n" +
+                    "gbpusd\t7.0\t3\t1\t20\t2024-09-10T12:00:00.000000Z\n" +
+                    "jpyusd\t100.0\t1\t5\t5\t2024-09-10T12:00:00.000000Z\n" +
+                    "gbpusd\t3.0\t1\t30\t30\t2024-09-10T13:00:00.000000Z\n" +
+                    "jpyusd\t1.0\t2\t2\t50\t2024-09-10T13:00:00.000000Z\n" +
+                    "gbpusd\t5.0\t1\t40\t40\t2024-09-10T14:00:00.000000Z\n";
+            assertSql(expected2, "price_1h order by ts, sym");
+            assertSql(expected2, viewSql + " order by ts, sym");
+        });
+    }
+
+    @Test
+    public void testMergeRefreshFallbackOnNonAdjacentBuckets() throws Exception {
+        assertMemoryLeak(() -> {
+            execute(
+                    "create table base_price (" +
+                            "sym symbol, price double, ts timestamp" +
+                            ") timestamp(ts) partition by DAY WAL"
+            );
+
+            final String viewSql = "select sym, sum(price) sum_price, avg(price) avg_price, ts from base_price sample by 1h";
+            createMatView(viewSql);
+            createMatView("price_1h_sum", "select sym, sum(price) sum_price, ts from base_price sample by 1h");
+
+            execute(
+                    "insert into base_price values('gbpusd', 1, '2024-09-10T12:01')" +
+                            ",('gbpusd', 3, '2024-09-10T14:02')" +
+                            ",('jpyusd', 100, '2024-09-10T16:02')"
+            );
+            drainQueues();
+
+            // the touched buckets have a gap in between, so the rows are re-aggregated by the query
+            execute(
+                    "insert into base_price values('gbpusd', 2, '2024-09-10T12:30')" +
+                            ",('jpyusd', 50, '2024-09-10T16:45')"
+            );
+            drainQueues();
+
+            assertSql(
+                    "sym\tsum_price\tavg_price\tts\n" +
+                            "gbpusd\t3.0\t1.5\t2024-09-10T12:00:00.000000Z\n" +
+                            "gbpusd\t3.0\t3.0\t2024-09-10T14:00:00.000000Z\n" +
+                            "jpyusd\t150.0\t75.0\t2024-09-10T16:00:00.000000Z\n",
+                    "price_1h order by ts, sym"
+            );
+            assertSql(
+                    "sym\tsum_price\tts\n" +
+                            "gbpusd\t3.0\t2024-09-10T12:00:00.000000Z\n" +
+                            "gbpusd\t3.0\t2024-09-10T14:00:00.000000Z\n" +
+                            "jpyusd\t150.0\t2024-09-10T16:00:00.000000Z\n",
+                    "price_1h_sum order by ts, sym"
+            );
+        });
+    }
+
+    @Test
+    public void testMergeRefreshWalWriterReopened() throws Exception {
+        assertMemoryLeak(() -> {
+            execute(
+                    "create table base_price (" +
+                            "sym symbol, price double, ts timestamp" +
+                            ") timestamp(ts) partition by DAY WAL"
+            );
+
+            final String viewSql = "select sym, sum(price) sum_price, count() cnt, ts from base_price sample by 1h";
+            createMatView(viewSql);
+
+            execute(
+                    "insert into base_price values('gbpusd', 1, '2024-09-10T12:01')" +
+                            ",('jpyusd', 100, '2024-09-10T12:02')"
+            );
+            drainQueues();
+
+            // the new WAL segment starts with the symbols already in the base table
+            engine.releaseAllWalWriters();
+            execute(
+                    "insert into base_price values('jpyusd', 2, '2024-09-10T12:30')" +
+                            ",('eurusd', 7, '2024-09-10T12:45')" +
+                            ",(null, 3, '2024-09-10T12:50')" +
+                            ",('gbpusd', 4, '2024-09-10T12:55')"
+            );
+            drainQueues();
+
+            final String expected = "sym\tsum_price\tcnt\tts\n" +
+                    "\t3.0\t1\t2024-09-10T12:00:00.000000Z\n" +
+                    "eurusd\t7.0\t1\t2024-09-10T12:00:00.000000Z\n" +
+                    "gbpusd\t5.0\t2\t2024-09-10T12:00:00.000000Z\n" +
+                    "jpyusd\t102.0\t2\t2024-09-10T12:00:00.000000Z\n";
+            assertSql(expected, "price_1h order by ts, sym");
+            assertSql(expected, viewSql + " order by ts, sym");
+
+            engine.releaseAllWalWriters();
+            execute("insert into base_price values('eurusd', 1, '2024-09-10T12:59')");
+            drainQueues();
+
+            final String expected2 = "sym\tsum_price\tcnt\tts\n" +
+                    "\t3.0\t1\t2024-09-10T12:00:00.000000Z\n" +
+                    "eurusd\t8.0\t2\t2024-09-10T12:00:00.000000Z\n" +
+                    "gbpusd\t5.0\t2\t2024-09-10T12:00:00.000000Z\n" +
+                    "jpyusd\t102.0\t2\t2024-09-10T12:00:00.000000Z\n";
+            assertSql(expected2, "price_1h order by ts, sym");
+            assertSql(expected2, viewSql + " order by ts, sym");
+        });
+    }
+
     @Test
     public void testPeriodMatViewSmoke() throws Exception {
         assertMemoryLeak(() -> {
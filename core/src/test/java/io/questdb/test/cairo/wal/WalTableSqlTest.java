@@ -49,6 +49,8 @@ import io.questdb.griffin.engine.ops.AlterOperation;
 import io.questdb.griffin.engine.ops.AlterOperationBuilder;
 import io.questdb.griffin.model.IntervalUtils;
 import io.questdb.mp.Job;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolUtils;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.MemoryTag;
@@ -1498,6 +1500,46 @@ public class WalTableSqlTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testO3CommitAppliedByWorkerRunningO3Jobs() throws Exception {
+        // The only worker runs both the apply job and the O3 jobs, and nothing else consumes
+        // the O3 queues, so the commit completes only if the writer drains them itself.
+        assertMemoryLeak(() -> {
+            execute("create table x (ts timestamp, v long) timestamp(ts) partition by day wal");
+            execute("insert into x select (x * 60_000_000)::timestamp, x from long_sequence(43_200)");
+            drainWalQueue();
+
+            execute("insert into x select (x * 60_000_000 - 30_000_000)::timestamp, -x from long_sequence(43_200)");
+            final WorkerPool pool = new WorkerPool(() -> 1);
+            final ApplyWal2TableJob applyJob = new ApplyWal2TableJob(engine, 1, 1);
+            pool.assign(0, applyJob);
+            pool.freeOnExit(applyJob);
+            WorkerPoolUtils.setupO3Jobs(pool, engine.getMessageBus());
+            pool.start(LOG);
+            try {
+                TestUtils.assertEventually(() -> assertSql(
+                        "suspended\twriterTxn\tsequencerTxn\n" +
+                                "false\t2\t2\n",
+                        "select suspended, writerTxn, sequencerTxn from wal_tables() where name = 'x'"
+                ));
+            } finally {
+                pool.halt();
+            }
+
+            assertSql(
+                    "count\tsum\tmin\tmax\n" +
+                            "86400\t0\t1970-01-01T00:00:30.000000Z\t1970-01-31T00:00:00.000000Z\n",
+                    "select count(), sum(v), min(ts), max(ts) from x"
+            );
+            assertSql(
+                    "ts\tv\n" +
+                            "1970-01-15T23:59:00.000000Z\t21599\n" +
+                            "1970-01-15T23:59:30.000000Z\t-21600\n",
+                    "select * from x where ts in '1970-01-15T23:59'"
+            );
+        });
+    }
+
     @Test
     public void testQueryNullSymbols() throws Exception {
         assertMemoryLeak(() -> {
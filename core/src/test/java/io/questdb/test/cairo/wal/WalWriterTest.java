@@ -1202,6 +1202,75 @@ public class WalWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testColumnBlock() throws Exception {
+        assertMemoryLeak(() -> {
+            execute("create table tab (ts timestamp, sym symbol, x long, d double) timestamp(ts) partition by DAY WAL");
+            TableToken tableToken = engine.verifyTableName("tab");
+
+            final int rowCount = 3;
+            final long tsAddr = Unsafe.malloc(rowCount * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            final long symAddr = Unsafe.malloc(rowCount * Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+            final long xAddr = Unsafe.malloc(rowCount * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            try (WalWriter walWriter = engine.getWalWriter(tableToken)) {
+                TableWriter.Row row = walWriter.newRow(IntervalUtils.parseFloorPartialTimestamp("2024-01-01T00:00:03"));
+                row.putSym(1, "c");
+                row.putLong(2, 1);
+                row.putDouble(3, 1.5);
+                row.append();
+
+                for (int i = 0; i < rowCount; i++) {
+                    // the last timestamp is out of order
+                    Unsafe.getUnsafe().putLong(tsAddr + i * Long.BYTES, IntervalUtils.parseFloorPartialTimestamp("2024-01-01T00:00:0" + (i < 2 ? i + 1 : 0)));
+                    Unsafe.getUnsafe().putInt(symAddr + i * Integer.BYTES, i - 1);
+                    Unsafe.getUnsafe().putLong(xAddr + i * Long.BYTES, 10 + i);
+                }
+                IntList dictionaryKeys = new IntList();
+                dictionaryKeys.add(walWriter.resolveSymbolKey(1, "a"));
+                dictionaryKeys.add(walWriter.resolveSymbolKey(1, "c"));
+
+                walWriter.newColumnBlock(rowCount);
+                walWriter.putColumnBlockTimestamps(tsAddr);
+                walWriter.putColumnBlockSymbols(1, symAddr, dictionaryKeys);
+                walWriter.putColumnBlock(2, xAddr);
+                walWriter.appendColumnBlock();
+                assertEquals(4, walWriter.getSegmentRowCount());
+
+                // block without the designated timestamp is rejected and discarded
+                walWriter.newColumnBlock(rowCount);
+                walWriter.putColumnBlock(2, xAddr);
+                try {
+                    walWriter.appendColumnBlock();
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "designated timestamp column is missing");
+                    walWriter.cancelColumnBlock();
+                }
+                assertEquals(4, walWriter.getSegmentRowCount());
+
+                row = walWriter.newRow(IntervalUtils.parseFloorPartialTimestamp("2024-01-01T00:00:05"));
+                row.putSym(1, "d");
+                row.append();
+                walWriter.commit();
+            } finally {
+                Unsafe.free(tsAddr, rowCount * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(symAddr, rowCount * Integer.BYTES, MemoryTag.NATIVE_DEFAULT);
+                Unsafe.free(xAddr, rowCount * Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            }
+
+            drainWalQueue();
+            assertSql(
+                    "ts\tsym\tx\td\n" +
+                            "2024-01-01T00:00:00.000000Z\tc\t12\tnull\n" +
+                            "2024-01-01T00:00:01.000000Z\t\t10\tnull\n" +
+                            "2024-01-01T00:00:02.000000Z\ta\t11\tnull\n" +
+                            "2024-01-01T00:00:03.000000Z\tc\t1\t1.5\n" +
+                            "2024-01-01T00:00:05.000000Z\td\tnull\tnull\n",
+                    "tab"
+            );
+        });
+    }
+
     @Test
     public void testCommit() throws Exception {
         assertMemoryLeak(() -> {
@@ -0,0 +1,283 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cutlass.http;
+
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameAddressCache;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.PageFrameMemoryPool;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cutlass.http.processors.ArrowStreamEncoder;
+import io.questdb.std.Unsafe;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static io.questdb.cairo.sql.PartitionFrameCursorFactory.ORDER_ASC;
+
+public class ArrowStreamEncoderTest extends AbstractCairoTest {
+
+    @Test
+    public void testEndOfStream() throws Exception {
+        assertMemoryLeak(() -> {
+            try (ArrowStreamEncoder encoder = new ArrowStreamEncoder()) {
+                encoder.encodeFooter();
+                Assert.assertArrayEquals(new byte[]{-1, -1, -1, -1, 0, 0, 0, 0}, toBytes(encoder));
+            }
+        });
+    }
+
+    @Test
+    public void testPageFrameBatchMatchesRecordBatch() throws Exception {
+        assertMemoryLeak(() -> {
+            execute(
+                    "create table x as (" +
+                            "select" +
+                            " x::int i," +
+                            " case when x % 2 = 0 then null else x end l," +
+                            " case when x % 3 = 0 then null else x / 4.0 end d," +
+                            " x % 2 = 0 b," +
+                            " case when x % 4 = 0 then null else 'v' || x end s," +
+                            " rnd_symbol('a', 'b', null) sym," +
+                            " timestamp_sequence(0, 1000000) ts" +
+                            " from long_sequence(100)" +
+                            ")"
+            );
+
+            final byte[] expected;
+            try (
+                    RecordCursorFactory factory = select("x");
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext);
+                    ArrowStreamEncoder encoder = new ArrowStreamEncoder()
+            ) {
+                encoder.of(factory.getMetadata());
+                encoder.startBatch();
+                while (cursor.hasNext()) {
+                    encoder.appendRecord(cursor.getRecord());
+                }
+                encoder.encodeBatch();
+                expected = toBytes(encoder);
+            }
+
+            try (
+                    RecordCursorFactory factory = select("x");
+                    PageFrameCursor frameCursor = factory.getPageFrameCursor(sqlExecutionContext, ORDER_ASC);
+                    PageFrameMemoryPool frameMemoryPool = new PageFrameMemoryPool(1);
+                    PageFrameMemoryRecord record = new PageFrameMemoryRecord(PageFrameMemoryRecord.RECORD_A_LETTER);
+                    ArrowStreamEncoder encoder = new ArrowStreamEncoder()
+            ) {
+                final PageFrameAddressCache addressCache = new PageFrameAddressCache(configuration);
+                addressCache.of(factory.getMetadata(), frameCursor.getColumnIndexes());
+                frameMemoryPool.of(addressCache);
+                record.of(frameCursor);
+
+                final PageFrame frame = frameCursor.next();
+                Assert.assertNotNull(frame);
+                addressCache.add(0, frame);
+                final PageFrameMemory frameMemory = frameMemoryPool.navigateTo(0);
+                record.init(frameMemory);
+
+                encoder.of(factory.getMetadata());
+                encoder.startBatch();
+                Assert.assertEquals(100, encoder.appendFrame(frameMemory, record, 0, frame.getPartitionHi() - frame.getPartitionLo()));
+                encoder.encodeBatch();
+                Assert.assertArrayEquals(expected, toBytes(encoder));
+                Assert.assertNull(frameCursor.next());
+            }
+        });
+    }
+
+    @Test
+    public void testRecordBatch() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    RecordCursorFactory factory = select(
+                            "select x::int i, case when x % 2 = 0 then null else x / 2.0 end d, case when x % 3 = 0 then null else 'v' || x end s" +
+                                    " from long_sequence(10)"
+                    );
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext);
+                    ArrowStreamEncoder encoder = new ArrowStreamEncoder()
+            ) {
+                encoder.of(factory.getMetadata());
+                encoder.startBatch();
+                while (cursor.hasNext()) {
+                    encoder.appendRecord(cursor.getRecord());
+                }
+                Assert.assertEquals(10, encoder.getBatchRowCount());
+                encoder.encodeBatch();
+
+                final ByteBuffer buf = ByteBuffer.wrap(toBytes(encoder)).order(ByteOrder.LITTLE_ENDIAN);
+                final int message = assertMessage(buf, 3);
+                final int body = 8 + buf.getInt(4);
+                final long bodyLength = buf.getLong(field(buf, message, 3));
+                Assert.assertEquals(buf.capacity(), body + bodyLength);
+
+                final int batch = offset(buf, field(buf, message, 2));
+                Assert.assertEquals(10, buf.getLong(field(buf, batch, 0)));
+
+                // field nodes: row count and null count per column
+                final int nodes = offset(buf, field(buf, batch, 1));
+                Assert.assertEquals(3, buf.getInt(nodes));
+                Assert.assertEquals(0, buf.getLong(nodes + 4 + 8));
+                Assert.assertEquals(5, buf.getLong(nodes + 4 + 16 + 8));
+                Assert.assertEquals(3, buf.getLong(nodes + 4 + 32 + 8));
+
+                // INT column has no validity bitmap
+                final int buffers = offset(buf, field(buf, batch, 2));
+                Assert.assertEquals(7, buf.getInt(buffers));
+                Assert.assertEquals(0, buf.getLong(buffers + 4 + 8));
+                final int intData = body + (int) buf.getLong(buffers + 4 + 16);
+                for (int i = 0; i < 10; i++) {
+                    Assert.assertEquals(i + 1, buf.getInt(intData + 4 * i));
+                }
+
+                // every other DOUBLE is NULL
+                final int doubleValidity = body + (int) buf.getLong(buffers + 4 + 32);
+                Assert.assertEquals(2, buf.getLong(buffers + 4 + 32 + 8));
+                Assert.assertEquals(0b01010101, buf.get(doubleValidity) & 0xff);
+                Assert.assertEquals(0b01, buf.get(doubleValidity + 1) & 0xff);
+
+                // STRING offsets and data
+                final int stringOffsets = body + (int) buf.getLong(buffers + 4 + 80);
+                final int stringData = body + (int) buf.getLong(buffers + 4 + 96);
+                final StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < 10; i++) {
+                    final int lo = buf.getInt(stringOffsets + 4 * i);
+                    final int hi = buf.getInt(stringOffsets + 4 * (i + 1));
+                    sb.append('[');
+                    for (int j = lo; j < hi; j++) {
+                        sb.append((char) buf.get(stringData + j));
+                    }
+                    sb.append(']');
+                }
+                Assert.assertEquals("[v1][v2][][v4][v5][][v7][v8][][v10]", sb.toString());
+            }
+        });
+    }
+
+    @Test
+    public void testSchema() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    RecordCursorFactory factory = select("select 1::long a, now() ts, 'x' s, true b, 1.5::float f from long_sequence(1)");
+                    ArrowStreamEncoder encoder = new ArrowStreamEncoder()
+            ) {
+                encoder.of(factory.getMetadata());
+                encoder.encodeHeader();
+
+                final ByteBuffer buf = ByteBuffer.wrap(toBytes(encoder)).order(ByteOrder.LITTLE_ENDIAN);
+                final int message = assertMessage(buf, 1);
+                Assert.assertEquals(0, buf.getLong(field(buf, message, 3)));
+                Assert.assertEquals(buf.capacity(), 8 + buf.getInt(4));
+
+                final int schema = offset(buf, field(buf, message, 2));
+                final int fields = offset(buf, field(buf, schema, 1));
+                Assert.assertEquals(5, buf.getInt(fields));
+
+                final String[] names = {"a", "ts", "s", "b", "f"};
+                // Int, Timestamp, Utf8, Bool, FloatingPoint
+                final int[] types = {2, 10, 5, 6, 3};
+                for (int i = 0; i < names.length; i++) {
+                    final int f = offset(buf, fields + 4 + 4 * i);
+                    Assert.assertEquals(names[i], string(buf, offset(buf, field(buf, f, 0))));
+                    Assert.assertEquals(types[i], buf.get(field(buf, f, 2)));
+                    // empty children vector
+                    Assert.assertEquals(0, buf.getInt(offset(buf, field(buf, f, 5))));
+                }
+
+                // Int(64, signed)
+                final int intType = offset(buf, field(buf, offset(buf, fields + 4), 3));
+                Assert.assertEquals(64, buf.getInt(field(buf, intType, 0)));
+                Assert.assertEquals(1, buf.get(field(buf, intType, 1)));
+
+                // Timestamp(MICROSECOND, "UTC")
+                final int timestampType = offset(buf, field(buf, offset(buf, fields + 8), 3));
+                Assert.assertEquals(2, buf.getShort(field(buf, timestampType, 0)));
+                Assert.assertEquals("UTC", string(buf, offset(buf, field(buf, timestampType, 1))));
+
+                // FloatingPoint(SINGLE)
+                final int floatType = offset(buf, field(buf, offset(buf, fields + 20), 3));
+                Assert.assertEquals(1, buf.getShort(field(buf, floatType, 0)));
+            }
+        });
+    }
+
+    private static int assertMessage(ByteBuffer buf, int expectedHeaderType) {
+        Assert.assertEquals(-1, buf.getInt(0));
+        Assert.assertEquals(0, buf.getInt(4) & 7);
+        final int message = offset(buf, 8);
+        Assert.assertEquals(4, buf.getShort(field(buf, message, 0)));
+        Assert.assertEquals(expectedHeaderType, buf.get(field(buf, message, 1)));
+        return message;
+    }
+
+    // returns absolute position of the given field of a flatbuffer table
+    private static int field(ByteBuffer buf, int table, int slot) {
+        final int vtable = table - buf.getInt(table);
+        Assert.assertTrue(4 + 2 * slot < buf.getShort(vtable));
+        final int offset = buf.getShort(vtable + 4 + 2 * slot);
+        Assert.assertTrue(offset > 0);
+        final int pos = table + offset;
+        Assert.assertTrue(pos < table + buf.getShort(vtable + 2));
+        return pos;
+    }
+
+    private static int offset(ByteBuffer buf, int at) {
+        final int offset = buf.getInt(at);
+        Assert.assertTrue(offset > 0);
+        return at + offset;
+    }
+
+    private static String string(ByteBuffer buf, int at) {
+        final byte[] bytes = new byte[buf.getInt(at)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buf.get(at + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toBytes(ArrowStreamEncoder encoder) {
+        long size = 0;
+        for (int i = 0, n = encoder.getSegmentCount(); i < n; i++) {
+            size += encoder.getSegmentSize(i);
+        }
+        final byte[] bytes = new byte[(int) size];
+        int pos = 0;
+        for (int i = 0, n = encoder.getSegmentCount(); i < n; i++) {
+            final long address = encoder.getSegmentAddress(i);
+            for (long j = 0, len = encoder.getSegmentSize(i); j < len; j++) {
+                bytes[pos++] = Unsafe.getUnsafe().getByte(address + j);
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,460 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cutlass.http.line;
+
+import io.questdb.DefaultHttpClientConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cutlass.http.client.Fragment;
+import io.questdb.cutlass.http.client.HttpClient;
+import io.questdb.cutlass.http.client.HttpClientFactory;
+import io.questdb.cutlass.http.client.Response;
+import io.questdb.std.str.Utf8StringSink;
+import io.questdb.std.str.Utf8s;
+import io.questdb.test.AbstractBootstrapTest;
+import io.questdb.test.TestServerMain;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static io.questdb.PropertyKey.HTTP_RECV_BUFFER_SIZE;
+import static io.questdb.PropertyKey.LINE_HTTP_MAX_RECV_BUFFER_SIZE;
+import static io.questdb.cutlass.http.processors.LineHttpColumnarProcessor.CONTENT_TYPE_COLUMNAR;
+
+public class LineHttpColumnarTest extends AbstractBootstrapTest {
+    private static final long TS_2024_01_01 = 1_704_067_200_000_000L;
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        TestUtils.unchecked(() -> createDummyConfiguration());
+        dbPath.parent().$();
+    }
+
+    @Test
+    public void testBlockTooLarge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables(
+                    HTTP_RECV_BUFFER_SIZE.getEnvVarName(), "4096",
+                    LINE_HTTP_MAX_RECV_BUFFER_SIZE.getEnvVarName(), "8192"
+            )) {
+                serverMain.start();
+                createTable(serverMain);
+
+                final int rowCount = 1000;
+                final long[] timestamps = new long[rowCount];
+                final double[] values = new double[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    timestamps[i] = TS_2024_01_01 + i;
+                    values[i] = i;
+                }
+                // 16KB of values doesn't fit into the 8KB buffer
+                final Block block = new Block("x", rowCount)
+                        .doubleColumn("d", values)
+                        .timestampColumn("ts", timestamps);
+                assertResponse(serverMain, body(block), 413, "block is too large, either send smaller blocks or increase buffer size \\\"line.http.max.recv.buffer.size\\\"");
+
+                // the table accepts blocks that fit
+                assertResponse(serverMain, body(newXBlock(0, 2)), 204, "");
+                assertX(serverMain, "count\n2\n");
+            }
+        });
+    }
+
+    @Test
+    public void testContentTypeRouting() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.start();
+                createTable(serverMain);
+
+                try (HttpClient httpClient = HttpClientFactory.newPlainTextInstance(new DefaultHttpClientConfiguration())) {
+                    // text ILP still goes to the text processor
+                    HttpClient.Request request = httpClient.newRequest("localhost", serverMain.getHttpServerPort());
+                    request.POST()
+                            .url("/write ")
+                            .withContent()
+                            .putAscii("x,sym=a i=1i,d=1.5 1704067200000000000\n");
+                    TestUtils.assertResponse(request, 204, "");
+
+                    // text ILP sent with the columnar content type is parsed as a block,
+                    // its first bytes make for a block length way over the buffer limit
+                    request = httpClient.newRequest("localhost", serverMain.getHttpServerPort());
+                    request.POST()
+                            .url("/write ")
+                            .header("Content-Type", CONTENT_TYPE_COLUMNAR)
+                            .withContent()
+                            .putAscii("x,sym=a i=2i,d=2.5 1704067201000000000\n");
+                    try (HttpClient.ResponseHeaders responseHeaders = request.send()) {
+                        responseHeaders.await();
+                        TestUtils.assertEquals("413", responseHeaders.getStatusCode());
+                    }
+                }
+
+                // both URLs accept columnar blocks
+                assertResponse(serverMain, "/write ", body(newXBlock(10, 1)), 204, "");
+                assertResponse(serverMain, "/api/v2/write ", body(newXBlock(20, 1)), 204, "");
+
+                serverMain.awaitTable("x");
+                serverMain.assertSql(
+                        "x",
+                        "sym\ti\td\tts\n" +
+                                "a\t1\t1.5\t2024-01-01T00:00:00.000000Z\n" +
+                                "a\t10\t10.5\t2024-01-01T00:00:10.000000Z\n" +
+                                "a\t20\t20.5\t2024-01-01T00:00:20.000000Z\n"
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testDuplicateColumn() throws Exception {
+        assertMalformedBlock(
+                new Block("x", 1)
+                        .intColumn("i", 1)
+                        .intColumn("i", 2)
+                        .timestampColumn("ts", TS_2024_01_01),
+                "duplicate column [column=i]"
+        );
+    }
+
+    @Test
+    public void testMissingDesignatedTimestamp() throws Exception {
+        assertMalformedBlock(
+                new Block("x", 1).intColumn("i", 1),
+                "designated timestamp column is missing"
+        );
+    }
+
+    @Test
+    public void testMultiBlockCommit() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.start();
+                createTable(serverMain);
+                serverMain.ddl("create table y (l long, ts timestamp) timestamp(ts) partition by day wal");
+
+                final Block yBlock = new Block("y", 3)
+                        .longColumn("l", 100, Long.MIN_VALUE, 300)
+                        .timestampColumn("ts", TS_2024_01_01 + 3_000_000, TS_2024_01_01 + 1_000_000, TS_2024_01_01 + 2_000_000);
+                assertResponse(serverMain, body(newXBlock(0, 2), yBlock, newXBlock(2, 2)), 204, "");
+
+                serverMain.awaitTable("x");
+                serverMain.awaitTable("y");
+                serverMain.assertSql(
+                        "x",
+                        "sym\ti\td\tts\n" +
+                                "a\t0\t0.5\t2024-01-01T00:00:00.000000Z\n" +
+                                "b\t1\t1.5\t2024-01-01T00:00:01.000000Z\n" +
+                                "a\t2\t2.5\t2024-01-01T00:00:02.000000Z\n" +
+                                "b\t3\t3.5\t2024-01-01T00:00:03.000000Z\n"
+                );
+                // out-of-order timestamps and missing columns
+                serverMain.assertSql(
+                        "y",
+                        "l\tts\n" +
+                                "null\t2024-01-01T00:00:01.000000Z\n" +
+                                "300\t2024-01-01T00:00:02.000000Z\n" +
+                                "100\t2024-01-01T00:00:03.000000Z\n"
+                );
+                // blocks of a request are committed together
+                serverMain.assertSql("select writerTxn from wal_tables() where name = 'x'", "writerTxn\n1\n");
+            }
+        });
+    }
+
+    @Test
+    public void testNegativeBlockLength() throws Exception {
+        assertMalformedBody(int32(-1), "invalid block length [length=-1]");
+    }
+
+    @Test
+    public void testNegativeNameLength() throws Exception {
+        final ByteBuffer buf = newBuffer(16);
+        buf.putInt(Short.BYTES).putShort((short) -1);
+        assertMalformedBody(toBytes(buf), "block is truncated [table=, at=table name]");
+    }
+
+    @Test
+    public void testNegativeRowCount() throws Exception {
+        assertMalformedBlock(new Block("x", -1), "invalid block header [rowCount=-1, columnCount=0]");
+    }
+
+    @Test
+    public void testNegativeSymbolDictionarySize() throws Exception {
+        final ByteBuffer buf = newBuffer(64);
+        putName(buf, "x");
+        buf.putInt(1).putShort((short) 1);
+        putName(buf, "sym");
+        buf.put((byte) ColumnType.SYMBOL).putInt(-5);
+        assertMalformedBody(withLength(buf), "invalid symbol dictionary size [size=-5]");
+    }
+
+    @Test
+    public void testRollbackOnFailedBlock() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.start();
+                createTable(serverMain);
+
+                final Block badBlock = new Block("x", 1)
+                        .intColumn("unknown", 1)
+                        .timestampColumn("ts", TS_2024_01_01);
+                assertResponse(serverMain, body(newXBlock(0, 2), badBlock, newXBlock(2, 2)), 400, "column does not exist [table=x, column=unknown]");
+
+                // rows of the failed request are not committed with the next one
+                assertResponse(serverMain, body(newXBlock(10, 1)), 204, "");
+                serverMain.awaitTable("x");
+                serverMain.assertSql(
+                        "x",
+                        "sym\ti\td\tts\n" +
+                                "a\t10\t10.5\t2024-01-01T00:00:10.000000Z\n"
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testSymbolIndexOutOfRange() throws Exception {
+        assertMalformedBlock(
+                new Block("x", 2)
+                        .symbolColumn("sym", new String[]{"a"}, 0, 1)
+                        .timestampColumn("ts", TS_2024_01_01, TS_2024_01_01 + 1),
+                "symbol dictionary index is out of range [column=sym, index=1, dictionarySize=1]"
+        );
+    }
+
+    @Test
+    public void testTruncatedBlock() throws Exception {
+        final byte[] body = body(newXBlock(0, 2));
+        // the declared block length exceeds the request body
+        assertMalformedBody(Arrays.copyOf(body, body.length - 3), "incomplete block at the end of the request");
+    }
+
+    @Test
+    public void testTruncatedColumnValues() throws Exception {
+        // the block length is consistent, but the values of the column are cut short
+        final ByteBuffer buf = newBuffer(64);
+        putName(buf, "x");
+        buf.putInt(2).putShort((short) 1);
+        putName(buf, "i");
+        buf.put((byte) ColumnType.INT).putInt(1);
+        assertMalformedBody(withLength(buf), "block is truncated [table=x, at=column values]");
+    }
+
+    @Test
+    public void testWrongColumnType() throws Exception {
+        assertMalformedBlock(
+                new Block("x", 1)
+                        .longColumn("i", 1)
+                        .timestampColumn("ts", TS_2024_01_01),
+                "column type mismatch [column=i, columnType=INT, typeTag=" + ColumnType.LONG + "]"
+        );
+    }
+
+    private static void assertResponse(TestServerMain serverMain, byte[] body, int expectedStatusCode, String expectedMessage) {
+        assertResponse(serverMain, "/write ", body, expectedStatusCode, expectedMessage);
+    }
+
+    private static void assertResponse(TestServerMain serverMain, String url, byte[] body, int expectedStatusCode, String expectedMessage) {
+        try (HttpClient httpClient = HttpClientFactory.newPlainTextInstance(new DefaultHttpClientConfiguration())) {
+            final HttpClient.Request request = httpClient.newRequest("localhost", serverMain.getHttpServerPort());
+            request.POST()
+                    .url(url)
+                    .header("Content-Type", CONTENT_TYPE_COLUMNAR)
+                    .withContent();
+            for (byte b : body) {
+                request.put(b);
+            }
+            try (HttpClient.ResponseHeaders responseHeaders = request.send()) {
+                responseHeaders.await();
+                TestUtils.assertEquals(String.valueOf(expectedStatusCode), responseHeaders.getStatusCode());
+
+                final Utf8StringSink sink = new Utf8StringSink();
+                final Response response = responseHeaders.getResponse();
+                Fragment fragment;
+                while ((fragment = response.recv()) != null) {
+                    Utf8s.strCpy(fragment.lo(), fragment.hi(), sink);
+                }
+                if (expectedMessage.isEmpty()) {
+                    Assert.assertEquals(0, sink.size());
+                } else {
+                    TestUtils.assertContains(sink.toString(), expectedMessage);
+                }
+            }
+        }
+    }
+
+    private static void assertX(TestServerMain serverMain, String expected) {
+        serverMain.awaitTable("x");
+        serverMain.assertSql("select count() from x", expected);
+    }
+
+    private static byte[] body(Block... blocks) {
+        final ByteBuffer buf = newBuffer(64 * 1024);
+        for (Block block : blocks) {
+            buf.put(block.toBytes());
+        }
+        return toBytes(buf);
+    }
+
+    private static void createTable(TestServerMain serverMain) {
+        serverMain.ddl("create table x (sym symbol, i int, d double, ts timestamp) timestamp(ts) partition by day wal");
+    }
+
+    private static byte[] int32(int value) {
+        return toBytes(newBuffer(Integer.BYTES).putInt(value));
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // rows lo..lo+count-1 of table x, symbols alternate between 'a' and 'b'
+    private static Block newXBlock(int lo, int count) {
+        final int[] ints = new int[count];
+        final double[] doubles = new double[count];
+        final int[] symbols = new int[count];
+        final long[] timestamps = new long[count];
+        for (int r = 0; r < count; r++) {
+            ints[r] = lo + r;
+            doubles[r] = lo + r + 0.5;
+            symbols[r] = (lo + r) % 2;
+            timestamps[r] = TS_2024_01_01 + (lo + r) * 1_000_000L;
+        }
+        return new Block("x", count)
+                .symbolColumn("sym", new String[]{"a", "b"}, symbols)
+                .intColumn("i", ints)
+                .doubleColumn("d", doubles)
+                .timestampColumn("ts", timestamps);
+    }
+
+    private static void putName(ByteBuffer buf, String name) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        buf.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static byte[] toBytes(ByteBuffer buf) {
+        return Arrays.copyOf(buf.array(), buf.position());
+    }
+
+    private static byte[] withLength(ByteBuffer block) {
+        final ByteBuffer buf = newBuffer(Integer.BYTES + block.position());
+        buf.putInt(block.position()).put(block.array(), 0, block.position());
+        return toBytes(buf);
+    }
+
+    private void assertMalformedBlock(Block block, String expectedMessage) throws Exception {
+        assertMalformedBody(body(block), expectedMessage);
+    }
+
+    private void assertMalformedBody(byte[] body, String expectedMessage) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (final TestServerMain serverMain = startWithEnvVariables()) {
+                serverMain.start();
+                createTable(serverMain);
+
+                assertResponse(serverMain, body, 400, expectedMessage);
+
+                // the failed request leaves no data behind, and the table accepts valid blocks
+                assertResponse(serverMain, body(newXBlock(0, 2)), 204, "");
+                assertX(serverMain, "count\n2\n");
+            }
+        });
+    }
+
+    // Builds a single block of the columnar ILP format, see LineHttpColumnarProcessorState.
+    private static class Block {
+        private final ByteBuffer buf = newBuffer(64 * 1024);
+        private final int columnCountPosition;
+
+        Block(String tableName, int rowCount) {
+            putName(buf, tableName);
+            buf.putInt(rowCount);
+            columnCountPosition = buf.position();
+            buf.putShort((short) 0);
+        }
+
+        Block doubleColumn(String name, double... values) {
+            column(name, ColumnType.DOUBLE);
+            for (double value : values) {
+                buf.putDouble(value);
+            }
+            return this;
+        }
+
+        Block intColumn(String name, int... values) {
+            column(name, ColumnType.INT);
+            for (int value : values) {
+                buf.putInt(value);
+            }
+            return this;
+        }
+
+        Block longColumn(String name, long... values) {
+            column(name, ColumnType.LONG);
+            for (long value : values) {
+                buf.putLong(value);
+            }
+            return this;
+        }
+
+        Block symbolColumn(String name, String[] dictionary, int... indexes) {
+            column(name, ColumnType.SYMBOL);
+            buf.putInt(dictionary.length);
+            for (String value : dictionary) {
+                final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                buf.putInt(bytes.length).put(bytes);
+            }
+            for (int index : indexes) {
+                buf.putInt(index);
+            }
+            return this;
+        }
+
+        Block timestampColumn(String name, long... values) {
+            column(name, ColumnType.TIMESTAMP);
+            for (long value : values) {
+                buf.putLong(value);
+            }
+            return this;
+        }
+
+        byte[] toBytes() {
+            return withLength(buf);
+        }
+
+        private void column(String name, short type) {
+            buf.putShort(columnCountPosition, (short) (buf.getShort(columnCountPosition) + 1));
+            putName(buf, name);
+            buf.put((byte) type);
+        }
+    }
+}
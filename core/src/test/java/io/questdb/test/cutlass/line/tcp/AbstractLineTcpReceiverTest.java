@@ -107,6 +107,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     protected double commitIntervalFraction = 0.5;
     protected boolean disconnectOnError = false;
     protected long maintenanceInterval = 25;
+    protected double maxLoadRatio = 0;
     protected int maxMeasurementSize = 1024;
     protected long minIdleMsBeforeWriterRelease = 30000;
     protected int msgBufferSize = 256 * 1024;
@@ -169,6 +170,11 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
             return maintenanceInterval;
         }
 
+        @Override
+        public double getMaxLoadRatio() {
+            return maxLoadRatio;
+        }
+
         @Override
         public int getMaxMeasurementSize() {
             return maxMeasurementSize;
@@ -249,6 +255,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
         msgBufferSize = 256 * 1024;
         minIdleMsBeforeWriterRelease = 30000;
         maintenanceInterval = 25;
+        maxLoadRatio = 0;
         commitIntervalFraction = 0.5;
         commitIntervalDefault = 2000;
         partitionByDefault = PartitionBy.DAY;
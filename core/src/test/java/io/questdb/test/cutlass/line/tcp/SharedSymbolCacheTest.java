@@ -0,0 +1,142 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.cutlass.line.tcp;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cutlass.line.tcp.SharedSymbolCache;
+import io.questdb.metrics.CounterImpl;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.test.AbstractTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SharedSymbolCacheTest extends AbstractTest {
+
+    @Test
+    public void testCapacity() {
+        Assert.assertEquals(8, newCache(1).capacity());
+        Assert.assertEquals(1024, newCache(1000).capacity());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int threadCount = 4;
+            final int symbolCount = 1000;
+            final SharedSymbolCache cache = newCache(256);
+            final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+            final AtomicInteger errors = new AtomicInteger();
+            final Thread[] threads = new Thread[threadCount];
+            for (int t = 0; t < threadCount; t++) {
+                threads[t] = new Thread(() -> {
+                    try (DirectUtf8Sink sink = new DirectUtf8Sink(16)) {
+                        barrier.await();
+                        for (int i = 0; i < 10 * symbolCount; i++) {
+                            final int key = i % symbolCount;
+                            sink.clear();
+                            sink.put("sym").put(key);
+                            final int cachedKey = cache.keyOf(sink);
+                            if (cachedKey == SymbolTable.VALUE_NOT_FOUND) {
+                                cache.put(sink, key);
+                            } else if (cachedKey != key) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.incrementAndGet();
+                    }
+                });
+                threads[t].start();
+            }
+            for (int t = 0; t < threadCount; t++) {
+                threads[t].join();
+            }
+            Assert.assertEquals(0, errors.get());
+            Assert.assertTrue(cache.size() <= cache.capacity());
+        });
+    }
+
+    @Test
+    public void testEvictsLeastFrequentlyUsed() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CounterImpl hits = new CounterImpl("hits");
+            final CounterImpl misses = new CounterImpl("misses");
+            // a single row
+            final SharedSymbolCache cache = new SharedSymbolCache(8, 0, hits, misses);
+            try (DirectUtf8Sink sink = new DirectUtf8Sink(16)) {
+                for (int i = 0; i < 8; i++) {
+                    Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache.keyOf(of(sink, i)));
+                    cache.put(sink, i);
+                }
+                Assert.assertEquals(8, cache.size());
+                Assert.assertEquals(8, misses.getValue());
+
+                // all values but the last one get hot
+                for (int j = 0; j < 3; j++) {
+                    for (int i = 0; i < 7; i++) {
+                        Assert.assertEquals(i, cache.keyOf(of(sink, i)));
+                    }
+                }
+                Assert.assertEquals(21, hits.getValue());
+
+                cache.put(of(sink, 8), 8);
+                Assert.assertEquals(8, cache.size());
+                Assert.assertEquals(8, cache.keyOf(of(sink, 8)));
+                Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache.keyOf(of(sink, 7)));
+                for (int i = 0; i < 7; i++) {
+                    Assert.assertEquals(i, cache.keyOf(of(sink, i)));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testPutExisting() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final SharedSymbolCache cache = newCache(8);
+            try (DirectUtf8Sink sink = new DirectUtf8Sink(16)) {
+                cache.put(of(sink, 1), 1);
+                cache.put(of(sink, 1), 1);
+                Assert.assertEquals(1, cache.size());
+                Assert.assertEquals(1, cache.keyOf(of(sink, 1)));
+            }
+        });
+    }
+
+    private static SharedSymbolCache newCache(int capacity) {
+        return new SharedSymbolCache(capacity, 0, new CounterImpl("hits"), new CounterImpl("misses"));
+    }
+
+    private static DirectUtf8Sink of(DirectUtf8Sink sink, int i) {
+        sink.clear();
+        sink.put("sym").put(i);
+        return sink;
+    }
+}
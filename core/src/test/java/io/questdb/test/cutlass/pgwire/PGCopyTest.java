@@ -0,0 +1,403 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cutlass.pgwire;
+
+import io.questdb.std.Numbers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.util.PSQLException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+public class PGCopyTest extends BasePGTest {
+
+    public PGCopyTest() {
+        super(LegacyMode.MODERN);
+    }
+
+    @Test
+    public void testCopyFromStdinBadValue() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (a int, ts timestamp) timestamp(ts) partition by day bypass wal");
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copyManager.copyIn(
+                        "COPY x FROM STDIN",
+                        new StringReader("1\t2024-01-01 00:00:00\nabc\t2024-01-01 00:00:01\n")
+                );
+                Assert.fail();
+            } catch (PSQLException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("inconvertible value [line=2, column=a, type=INT"));
+            }
+
+            // the rows are rolled back, and the connection is usable
+            try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("select count() from x")) {
+                assertResultSet("count[BIGINT]\n0\n", sink, rs);
+            }
+        });
+    }
+
+    @Test
+    public void testCopyFromStdinBinary() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (i int, l long, d double, s varchar, ts timestamp) timestamp(ts) partition by day bypass wal");
+
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.write(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0});
+                out.writeInt(0);
+                out.writeInt(0);
+                for (int i = 0; i < 3; i++) {
+                    out.writeShort(5);
+                    out.writeInt(Integer.BYTES);
+                    out.writeInt(i);
+                    out.writeInt(Long.BYTES);
+                    out.writeLong(i * 1_000_000_000L);
+                    if (i == 1) {
+                        out.writeInt(-1);
+                    } else {
+                        out.writeInt(Double.BYTES);
+                        out.writeDouble(i + 0.5);
+                    }
+                    final byte[] s = ("row" + i).getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(s.length);
+                    out.write(s);
+                    out.writeInt(Long.BYTES);
+                    // 2024-01-01T00:00:00Z plus i seconds, PostgreSQL epoch
+                    out.writeLong(1_704_067_200_000_000L + i * 1_000_000L - Numbers.JULIAN_EPOCH_OFFSET_USEC);
+                }
+                out.writeShort(-1);
+            }
+
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            final long rowCount = copyManager.copyIn(
+                    "copy \"x\" ( \"i\", \"l\", \"d\", \"s\", \"ts\" ) from stdin binary;",
+                    new ByteArrayInputStream(bytes.toByteArray())
+            );
+            Assert.assertEquals(3, rowCount);
+
+            assertSql(
+                    "i\tl\td\ts\tts\n" +
+                            "0\t0\t0.5\trow0\t2024-01-01T00:00:00.000000Z\n" +
+                            "1\t1000000000\tnull\trow1\t2024-01-01T00:00:01.000000Z\n" +
+                            "2\t2000000000\t2.5\trow2\t2024-01-01T00:00:02.000000Z\n",
+                    "x"
+            );
+        });
+    }
+
+    @Test
+    public void testCopyFromStdinBinaryHeaderExtensionTooLarge() throws Exception {
+        recvBufferSize = 4096;
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (i int, ts timestamp) timestamp(ts) partition by day bypass wal");
+
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.write(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0});
+                out.writeInt(0);
+                // the extension area would have to be buffered in full before the first row
+                out.writeInt(Integer.MAX_VALUE);
+            }
+
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copyManager.copyIn("COPY x FROM STDIN BINARY", new ByteArrayInputStream(bytes.toByteArray()), 1000);
+                Assert.fail();
+            } catch (PSQLException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("COPY file header extension is too large [size=2147483647, maxSize=4077]"));
+            }
+
+            // the connection is usable after the failed copy
+            try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("select count() from x")) {
+                assertResultSet("count[BIGINT]\n0\n", sink, rs);
+            }
+        });
+    }
+
+    @Test
+    public void testCopyFromStdinCsv() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (ts timestamp, name string, qty long, extra int) timestamp(ts) partition by day bypass wal");
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            final long rowCount = copyManager.copyIn(
+                    "COPY x (ts, name, qty) FROM STDIN WITH (FORMAT csv, HEADER true)",
+                    new StringReader(
+                            "ts,name,qty\r\n" +
+                                    "2024-01-01T00:00:00.000000Z,\"a, \"\"quoted\"\"\nname\",10\r\n" +
+                                    "2024-01-01T00:00:01.000000Z,,\r\n" +
+                                    "2024-01-01T00:00:02.000000Z,\"\",30"
+                    )
+            );
+            Assert.assertEquals(3, rowCount);
+
+            assertSql(
+                    "ts\tname\tqty\textra\n" +
+                            "2024-01-01T00:00:00.000000Z\ta, \"quoted\"\nname\t10\tnull\n" +
+                            "2024-01-01T00:00:01.000000Z\t\tnull\tnull\n" +
+                            "2024-01-01T00:00:02.000000Z\t\t30\tnull\n",
+                    "x"
+            );
+            assertSql(
+                    "count\n" +
+                            "1\n",
+                    "select count() from x where name is null"
+            );
+        });
+    }
+
+    @Test
+    public void testCopyFromStdinIncrementalCommits() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (a long, ts timestamp) timestamp(ts) partition by hour wal with maxUncommittedRows=100");
+
+            final StringBuilder data = new StringBuilder();
+            for (int i = 0; i < 10_000; i++) {
+                data.append(i).append('\t').append(1_704_067_200_000_000L + i * 1_000_000L).append('\n');
+            }
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            // small buffer makes rows span CopyData messages
+            final long rowCount = copyManager.copyIn("COPY x FROM STDIN", new StringReader(data.toString()), 1000);
+            Assert.assertEquals(10_000, rowCount);
+
+            drainWalQueue();
+            assertSql(
+                    "count\tsum\tmin\tmax\n" +
+                            "10000\t49995000\t2024-01-01T00:00:00.000000Z\t2024-01-01T02:46:39.000000Z\n",
+                    "select count(), sum(a), min(ts), max(ts) from x"
+            );
+        });
+    }
+
+    @Test
+    public void testCopyFromStdinRowTooLarge() throws Exception {
+        recvBufferSize = 4096;
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (a int, s varchar, ts timestamp) timestamp(ts) partition by day bypass wal");
+
+            final StringBuilder data = new StringBuilder("1\tshort\t2024-01-01 00:00:00\n2\t");
+            for (int i = 0; i < 10_000; i++) {
+                data.append('a');
+            }
+            data.append("\t2024-01-01 00:00:01\n");
+
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                // the row spans several CopyData messages and never fits into the receive buffer
+                copyManager.copyIn("COPY x FROM STDIN", new StringReader(data.toString()), 1000);
+                Assert.fail();
+            } catch (PSQLException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("COPY row is too large [line=2"));
+            }
+
+            // the rows are rolled back, and the connection is usable
+            try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("select count() from x")) {
+                assertResultSet("count[BIGINT]\n0\n", sink, rs);
+            }
+        });
+    }
+
+    @Test
+    public void testCopyFromStdinText() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (a int, s string, v varchar, d double, b boolean, ts timestamp) timestamp(ts) partition by day wal");
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            final long rowCount = copyManager.copyIn(
+                    "copy x from stdin",
+                    new StringReader(
+                            "1\thello\tworld\t1.5\tt\t2024-01-01 00:00:00\n" +
+                                    "\\N\t\\N\t\\N\t\\N\t\\N\t2024-01-01 00:00:01\n" +
+                                    "3\tback\\\\slash\tsym\\101\t2.25\tfalse\t2024-01-01T00:00:02.000000Z\n" +
+                                    "\\.\n"
+                    )
+            );
+            Assert.assertEquals(3, rowCount);
+
+            drainWalQueue();
+            assertSql(
+                    "a\ts\tv\td\tb\tts\n" +
+                            "1\thello\tworld\t1.5\ttrue\t2024-01-01T00:00:00.000000Z\n" +
+                            "null\t\t\tnull\tfalse\t2024-01-01T00:00:01.000000Z\n" +
+                            "3\tback\\slash\tsymA\t2.25\tfalse\t2024-01-01T00:00:02.000000Z\n",
+                    "x"
+            );
+        });
+    }
+
+    @Test
+    public void testCopyFromStdinUnknownColumn() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (a int, ts timestamp) timestamp(ts) partition by day bypass wal");
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copyManager.copyIn("COPY x (a, b, ts) FROM STDIN", new StringReader(""));
+                Assert.fail();
+            } catch (PSQLException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("column does not exist [table=x, column=b]"));
+            }
+        });
+    }
+
+    @Test
+    public void testCopyToStdoutBinary() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (i int, d double, s varchar, ts timestamp) timestamp(ts) partition by day bypass wal");
+            execute("insert into x values (1, 1.5, 'one', '2024-01-01T00:00:00.000000Z'), (2, null, null, '2024-01-01T00:00:01.000000Z')");
+
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final long rowCount = copyManager.copyOut("COPY (select i, d, s, ts from x) TO STDOUT WITH (FORMAT binary)", bytes);
+            Assert.assertEquals(2, rowCount);
+
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                final byte[] signature = new byte[11];
+                in.readFully(signature);
+                Assert.assertArrayEquals(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0}, signature);
+                Assert.assertEquals(0, in.readInt());
+                Assert.assertEquals(0, in.readInt());
+
+                Assert.assertEquals(4, in.readShort());
+                Assert.assertEquals(Integer.BYTES, in.readInt());
+                Assert.assertEquals(1, in.readInt());
+                Assert.assertEquals(Double.BYTES, in.readInt());
+                Assert.assertEquals(1.5, in.readDouble(), 0.0);
+                Assert.assertEquals(3, in.readInt());
+                Assert.assertEquals('o', in.readByte());
+                Assert.assertEquals('n', in.readByte());
+                Assert.assertEquals('e', in.readByte());
+                Assert.assertEquals(Long.BYTES, in.readInt());
+                Assert.assertEquals(1_704_067_200_000_000L - Numbers.JULIAN_EPOCH_OFFSET_USEC, in.readLong());
+
+                Assert.assertEquals(4, in.readShort());
+                Assert.assertEquals(Integer.BYTES, in.readInt());
+                Assert.assertEquals(2, in.readInt());
+                Assert.assertEquals(-1, in.readInt());
+                Assert.assertEquals(-1, in.readInt());
+                Assert.assertEquals(Long.BYTES, in.readInt());
+                Assert.assertEquals(1_704_067_201_000_000L - Numbers.JULIAN_EPOCH_OFFSET_USEC, in.readLong());
+
+                // trailer
+                Assert.assertEquals(-1, in.readShort());
+                Assert.assertEquals(-1, in.read());
+            }
+        });
+    }
+
+    @Test
+    public void testCopyToStdoutCsv() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (a int, s varchar)");
+            execute("insert into x values (1, 'a, \"quoted\"'), (2, ''), (null, null), (4, 'line\nbreak')");
+
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final long rowCount = copyManager.copyOut("copy (select a, s as \"my col\" from x) to stdout with csv header", bytes);
+            Assert.assertEquals(4, rowCount);
+            Assert.assertEquals(
+                    "a,my col\n" +
+                            "1,\"a, \"\"quoted\"\"\"\n" +
+                            "2,\"\"\n" +
+                            ",\n" +
+                            "4,\"line\nbreak\"\n",
+                    bytes.toString(StandardCharsets.UTF_8.name())
+            );
+        });
+    }
+
+    @Test
+    public void testCopyToStdoutNotSelect() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (a int)");
+            execute("insert into x values (1)");
+
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copyManager.copyOut("COPY (truncate table x) TO STDOUT", new ByteArrayOutputStream());
+                Assert.fail();
+            } catch (PSQLException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("COPY query must be a SELECT"));
+            }
+            assertSql("a\n1\n", "x");
+        });
+    }
+
+    @Test
+    public void testCopyToStdoutSmallSendBuffer() throws Exception {
+        sendBufferSize = 512;
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x as (select x, rnd_str(5, 20, 1) s, timestamp_sequence(0, 1000) ts from long_sequence(10000)) timestamp(ts) partition by day");
+
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final long rowCount = copyManager.copyOut("COPY x TO STDOUT", bytes);
+            Assert.assertEquals(10_000, rowCount);
+
+            final String[] lines = bytes.toString(StandardCharsets.UTF_8.name()).split("\n");
+            Assert.assertEquals(10_000, lines.length);
+            long sum = 0;
+            for (String line : lines) {
+                Assert.assertEquals(3, line.split("\t").length);
+                sum += Long.parseLong(line.substring(0, line.indexOf('\t')));
+            }
+            Assert.assertEquals(50_005_000L, sum);
+            Assert.assertEquals("10000", lines[9_999].substring(0, 5));
+            Assert.assertTrue(lines[9_999], lines[9_999].endsWith("\t1970-01-01 00:00:09.999000"));
+
+            // the connection is usable after the copy
+            try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery("select count() from x")) {
+                assertResultSet("count[BIGINT]\n10000\n", sink, rs);
+            }
+        });
+    }
+
+    @Test
+    public void testCopyToStdoutText() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE, (connection, binary, mode, port) -> {
+            execute("create table x (a int, s varchar, b boolean)");
+            execute("insert into x values (1, 'a\tb', true), (null, 'back\\slash', false), (3, null, true), (4, 'line\nbreak', false)");
+
+            final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final long rowCount = copyManager.copyOut("COPY x (a, s) TO STDOUT", bytes);
+            Assert.assertEquals(4, rowCount);
+            Assert.assertEquals(
+                    "1\ta\\tb\n" +
+                            "\\N\tback\\\\slash\n" +
+                            "3\t\\N\n" +
+                            "4\tline\\nbreak\n",
+                    bytes.toString(StandardCharsets.UTF_8.name())
+            );
+        });
+    }
+}
@@ -167,6 +167,11 @@ public class SqlExecutionContextStub implements SqlExecutionContext {
         return false;
     }
 
+    @Override
+    public boolean isParallelAsOfJoinEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isParallelFilterEnabled() {
         return false;
@@ -177,6 +182,21 @@ public class SqlExecutionContextStub implements SqlExecutionContext {
         return false;
     }
 
+    @Override
+    public boolean isParallelHashJoinEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isParallelOrderByEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isParallelWindowEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isParallelReadParquetEnabled() {
         return false;
@@ -236,6 +256,10 @@ public class SqlExecutionContextStub implements SqlExecutionContext {
     public void setNowAndFixClock(long now) {
     }
 
+    @Override
+    public void setParallelAsOfJoinEnabled(boolean parallelAsOfJoinEnabled) {
+    }
+
     @Override
     public void setParallelFilterEnabled(boolean parallelFilterEnabled) {
     }
@@ -244,6 +268,18 @@ public class SqlExecutionContextStub implements SqlExecutionContext {
     public void setParallelGroupByEnabled(boolean parallelGroupByEnabled) {
     }
 
+    @Override
+    public void setParallelHashJoinEnabled(boolean parallelHashJoinEnabled) {
+    }
+
+    @Override
+    public void setParallelOrderByEnabled(boolean parallelOrderByEnabled) {
+    }
+
+    @Override
+    public void setParallelWindowEnabled(boolean parallelWindowEnabled) {
+    }
+
     @Override
     public void setParallelReadParquetEnabled(boolean parallelReadParquetEnabled) {
     }
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.jit.JitUtil;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares JIT-compiled DOUBLE projections with their interpreted counterparts.
+ */
+public class CompiledProjectionTest extends AbstractCairoTest {
+    private final StringSink jitSink = new StringSink();
+
+    @Before
+    public void setUp() {
+        // Disable the test suite on ARM64 and with native libraries that can't build projection kernels.
+        Assume.assumeTrue(JitUtil.isProjectionSupported());
+        super.setUp();
+        node1.setProperty(PropertyKey.CAIRO_SQL_JIT_PROJECTION_ENABLED, true);
+    }
+
+    @Test
+    public void testArithmetic() throws Exception {
+        assertMemoryLeak(() -> {
+            execute("create table x as (select" +
+                    " rnd_double(2) price," +
+                    " rnd_double(2) fee," +
+                    " rnd_int(1, 100, 2) qty," +
+                    " rnd_long(1, 1000, 2) l," +
+                    " rnd_float(2) f," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(1000)) timestamp(ts) partition by hour");
+
+            assertProjection("select price * qty * (1 - fee) from x");
+            assertProjection("select price + l - f from x");
+            assertProjection("select -price / 2 + qty from x");
+            assertProjection("select price, price * 2.5 p2, qty from x");
+            // frames entered past their first row
+            assertProjection("select price * qty from x limit 500, 510");
+            assertProjection("select price * qty from x where qty > 50");
+        });
+    }
+
+    @Test
+    public void testColTops() throws Exception {
+        assertMemoryLeak(() -> {
+            execute("create table x as (select" +
+                    " rnd_double() a," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(100)) timestamp(ts) partition by hour");
+            execute("alter table x add column b double");
+            execute("insert into x select rnd_double(), timestamp_sequence(100000000, 1000000), rnd_double() from long_sequence(100)");
+
+            assertProjection("select a * b + 1 from x");
+            assertProjection("select a - b from x where a > 0.5");
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            execute("create table x (price double, qty int, ts timestamp) timestamp(ts) partition by day");
+            assertPlanNoLeakCheck(
+                    "select price * qty from x",
+                    "VirtualRecord\n" +
+                            "  functions: [jit(price*qty)]\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            assertPlanNoLeakCheck(
+                    "select abs(price) * qty from x",
+                    "VirtualRecord\n" +
+                            "  functions: [abs(price)*qty]\n" +
+                            "    PageFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUnsupportedExpressionFallsBack() throws Exception {
+        assertMemoryLeak(() -> {
+            execute("create table x as (select" +
+                    " rnd_double(2) a," +
+                    " rnd_double(2) b" +
+                    " from long_sequence(100))");
+
+            assertProjection("select abs(a) * b from x");
+            assertProjection("select 1.5 * 2 from x");
+        });
+    }
+
+    private void assertProjection(String query) throws Exception {
+        sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+        printSql(query);
+        jitSink.clear();
+        jitSink.put(sink);
+
+        sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_FORCE_SCALAR);
+        printSql(query);
+        TestUtils.assertEquals("[scalar mode] result mismatch for query: " + query, jitSink, sink);
+
+        sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_ENABLED);
+        printSql(query);
+        TestUtils.assertEquals("[vectorized mode] result mismatch for query: " + query, jitSink, sink);
+    }
+}
@@ -42,6 +42,8 @@ import io.questdb.griffin.engine.table.parquet.ParquetVersion;
 import io.questdb.griffin.engine.table.parquet.PartitionDescriptor;
 import io.questdb.griffin.engine.table.parquet.PartitionEncoder;
 import io.questdb.jit.JitUtil;
+import io.questdb.mp.MCSequence;
+import io.questdb.mp.MPSequence;
 import io.questdb.mp.SOCountDownLatch;
 import io.questdb.mp.WorkerPool;
 import io.questdb.std.Files;
@@ -690,6 +692,47 @@ public class ParallelFilterTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testReadParquetWithRowGroupPrefetch() throws Exception {
+        Assume.assumeTrue(convertToParquet);
+        setProperty(PropertyKey.CAIRO_PARTITION_ENCODER_PARQUET_ROW_GROUP_SIZE, PAGE_FRAME_MAX_ROWS);
+        setProperty(PropertyKey.CAIRO_SQL_PARQUET_PREFETCH_ROW_GROUPS, 2);
+        WorkerPool pool = new WorkerPool(() -> 4);
+        TestUtils.execute(
+                pool,
+                (engine, compiler, sqlExecutionContext) -> {
+                    engine.execute(
+                            "create table x as (" +
+                                    "  select rnd_symbol('a','b','c') sym, rnd_double() d, rnd_varchar(1, 20, 1) v, timestamp_sequence(0, 1000000) ts" +
+                                    "  from long_sequence(20000)" +
+                                    ") timestamp(ts) partition by hour",
+                            sqlExecutionContext
+                    );
+                    engine.execute("create table y as (select * from x) timestamp(ts) partition by hour", sqlExecutionContext);
+                    engine.execute("alter table x convert partition to parquet where ts >= 0", sqlExecutionContext);
+
+                    // plain forward scans go through the prefetching frame pool
+                    for (int i = 0; i < 3; i++) {
+                        TestUtils.assertSqlCursors(engine, sqlExecutionContext, "y", "x", LOG);
+                        TestUtils.assertSqlCursors(engine, sqlExecutionContext, "select sym, v from y", "select sym, v from x", LOG);
+                    }
+                    // backward scans and filters must not pick up stale prefetched row groups
+                    TestUtils.assertSqlCursors(engine, sqlExecutionContext, "y order by ts desc", "x order by ts desc", LOG);
+                    TestUtils.assertSqlCursors(engine, sqlExecutionContext, "y where d > 0.5", "x where d > 0.5", LOG);
+                    TestUtils.assertSqlCursors(engine, sqlExecutionContext, "y limit 5000, 15000", "x limit 5000, 15000", LOG);
+
+                    // prefetch requests were published, and each of them was either decoded
+                    // by a worker or cancelled by the scan before the cursors were closed
+                    final MPSequence pubSeq = engine.getMessageBus().getParquetPrefetchPubSeq();
+                    final MCSequence subSeq = engine.getMessageBus().getParquetPrefetchSubSeq();
+                    Assert.assertTrue(pubSeq.current() > -1);
+                    TestUtils.assertEventually(() -> Assert.assertEquals(pubSeq.current(), subSeq.current()));
+                },
+                configuration,
+                LOG
+        );
+    }
+
     @Test
     public void testStrBindVariable() throws Exception {
         testStrBindVariable("STRING", SqlJitMode.JIT_MODE_ENABLED);
@@ -732,6 +732,79 @@ public class ParquetTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testRowGroupPruning() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_PARTITION_ENCODER_PARQUET_ROW_GROUP_SIZE, 10);
+        assertMemoryLeak(() -> {
+            execute(
+                    "create table x as (\n" +
+                            "  select x id, x::int i, x * 0.5 d, 'k' || (x / 10) s, ('k' || (x / 10))::symbol sym,\n" +
+                            "    ('k' || (x / 10))::varchar v, timestamp_sequence(0,1000000000) as ts\n" +
+                            "  from long_sequence(100)\n" +
+                            ") timestamp(ts) partition by day;"
+            );
+            execute("create table y as (select * from x) timestamp(ts) partition by day;");
+            execute("alter table x convert partition to parquet where ts >= 0");
+
+            assertSql(
+                    "id\ti\td\ts\tsym\tv\tts\n" +
+                            "42\t42\t21.0\tk4\tk4\tk4\t1970-01-01T11:23:20.000000Z\n",
+                    "x where id = 42"
+            );
+            assertSql(
+                    "id\n" +
+                            "100\n" +
+                            "99\n" +
+                            "98\n" +
+                            "97\n",
+                    "select id from x where i > 96 order by ts desc"
+            );
+
+            final String[] filters = {
+                    "id = 1000",
+                    "id < 15",
+                    "15 > id",
+                    "id >= 95",
+                    "id between 33 and 37",
+                    "id between 37 and 33",
+                    "id in (5, 55, 99)",
+                    "i <= 11",
+                    "i = 42 or i = 84",
+                    "d > 47.5",
+                    "d <= 3",
+                    "id > 7.5 and id < 12.5",
+                    "s = 'k5'",
+                    "sym = 'k5'",
+                    "sym in ('k1', 'k9')",
+                    "v = 'k10'",
+                    "v in ('a', 'z')",
+                    "sym = 'k5' and id > 52",
+                    "id > 80 and d < 45",
+                    "id <> 50",
+                    "i = null",
+                    "ts > '1970-01-01T20'",
+            };
+            for (String filter : filters) {
+                assertSqlCursors("y where " + filter, "x where " + filter);
+                assertSqlCursors("y where " + filter + " order by ts desc", "x where " + filter + " order by ts desc");
+            }
+
+            bindVariableService.clear();
+            bindVariableService.setLong(0, 67);
+            assertSql(
+                    "id\n" +
+                            "67\n",
+                    "select id from x where id = $1"
+            );
+            bindVariableService.setLong(0, 13);
+            assertSql(
+                    "id\n" +
+                            "13\n",
+                    "select id from x where id = $1"
+            );
+        });
+    }
+
     @Test
     public void testSinglePartition() throws Exception {
         assertMemoryLeak(() -> {
@@ -0,0 +1,219 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.QueryResultCache;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryResultCacheTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_RESULT_CACHE_ENABLED, "true");
+        super.setUp();
+    }
+
+    @Test
+    public void testAlterTableInvalidatesResult() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select * from x where v > 1";
+            final String expected = "sym\tv\tts\n" +
+                    "b\t2\t1970-01-01T00:00:00.000001Z\n" +
+                    "a\t3\t1970-01-01T00:00:00.000002Z\n";
+            assertSql(expected, query);
+            assertSql(expected, query);
+            Assert.assertEquals(1, getCache().size());
+
+            execute("alter table x add column d double");
+            assertSql(
+                    "sym\tv\tts\td\n" +
+                            "b\t2\t1970-01-01T00:00:00.000001Z\tnull\n" +
+                            "a\t3\t1970-01-01T00:00:00.000002Z\tnull\n",
+                    query
+            );
+        });
+    }
+
+    @Test
+    public void testCommitInvalidatesResult() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            execute("create table y (sym symbol, k long)");
+            execute("insert into y values ('a', 10), ('b', 20)");
+
+            final String query = "select x.sym, sum(v), sum(k) from x join y on sym order by 1";
+            final String expected = "sym\tsum\tsum1\n" +
+                    "a\t4\t20\n" +
+                    "b\t2\t20\n";
+            assertSql(expected, query);
+            Assert.assertEquals(1, getCache().size());
+            // served from the cache
+            assertSql(expected, query);
+            Assert.assertEquals(1, getCache().size());
+
+            execute("insert into x values ('b', 5, 3)");
+            assertSql(
+                    "sym\tsum\tsum1\n" +
+                            "a\t4\t20\n" +
+                            "b\t7\t40\n",
+                    query
+            );
+
+            execute("insert into y values ('a', 1)");
+            assertSql(
+                    "sym\tsum\tsum1\n" +
+                            "a\t8\t22\n" +
+                            "b\t7\t40\n",
+                    query
+            );
+            Assert.assertEquals(1, getCache().size());
+        });
+    }
+
+    @Test
+    public void testLinearFillIsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql(
+                    "v\tts\n" +
+                            "1.0\t1970-01-01T00:00:00.000000Z\n" +
+                            "2.0\t1970-01-01T00:00:00.000001Z\n" +
+                            "3.0\t1970-01-01T00:00:00.000002Z\n",
+                    "select avg(v) v, ts from x sample by 1U fill(linear)"
+            );
+            Assert.assertEquals(0, getCache().size());
+        });
+    }
+
+    @Test
+    public void testMemoryLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql(
+                    "sym\tv\n" +
+                            "a\t1\n" +
+                            "b\t2\n" +
+                            "a\t3\n",
+                    "select sym, v from x"
+            );
+            final long entrySize = getCache().getMemoryUsed();
+            Assert.assertTrue(entrySize > 0);
+
+            // room for a single result only
+            setProperty(PropertyKey.CAIRO_SQL_RESULT_CACHE_MEMORY_LIMIT, entrySize + entrySize / 2);
+            assertSql(
+                    "v\n" +
+                            "1\n" +
+                            "2\n" +
+                            "3\n",
+                    "select v from x"
+            );
+            Assert.assertEquals(1, getCache().size());
+            Assert.assertEquals(entrySize, getCache().getMemoryUsed());
+
+            // nothing fits
+            setProperty(PropertyKey.CAIRO_SQL_RESULT_CACHE_MEMORY_LIMIT, 1);
+            assertSql(
+                    "sym\n" +
+                            "a\n" +
+                            "b\n" +
+                            "a\n",
+                    "select sym from x"
+            );
+            Assert.assertEquals(1, getCache().size());
+        });
+    }
+
+    @Test
+    public void testNonDeterministicQueriesAreNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql("count\n3\n", "select count() from x where ts < now()");
+            assertSql("count\n3\n", "select count() from x where rnd_int() is not null");
+            assertSql("count\n1\n", "select count() from long_sequence(1)");
+            assertSql("count\n1\n", "select count() from tables()");
+
+            bindVariableService.clear();
+            bindVariableService.setLong(0, 2);
+            assertSql("sym\tv\nb\t2\n", "select sym, v from x where v = $1");
+
+            Assert.assertEquals(0, getCache().size());
+        });
+    }
+
+    @Test
+    public void testPartiallyReadResultIsNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    RecordCursorFactory factory = select("select * from x");
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                Assert.assertTrue(cursor.hasNext());
+            }
+            Assert.assertEquals(0, getCache().size());
+        });
+    }
+
+    @Test
+    public void testRepeatedCursor() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String expected = "sym\tv\tts\n" +
+                    "a\t1\t1970-01-01T00:00:00.000000Z\n" +
+                    "b\t2\t1970-01-01T00:00:00.000001Z\n" +
+                    "a\t3\t1970-01-01T00:00:00.000002Z\n";
+            try (RecordCursorFactory factory = select("x")) {
+                for (int i = 0; i < 3; i++) {
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        assertCursor(expected, cursor, factory.getMetadata(), true);
+                        Assert.assertEquals(3, cursor.size());
+                        // second pass over the same cursor
+                        cursor.toTop();
+                        assertCursor(expected, cursor, factory.getMetadata(), true);
+                    }
+                }
+            }
+            Assert.assertEquals(1, getCache().size());
+        });
+    }
+
+    private static void createTable() throws Exception {
+        execute("create table x (sym symbol, v long, ts timestamp) timestamp(ts) partition by day");
+        execute("insert into x values ('a', 1, 0), ('b', 2, 1), ('a', 3, 2)");
+    }
+
+    private static QueryResultCache getCache() {
+        return engine.getQueryResultCache();
+    }
+}
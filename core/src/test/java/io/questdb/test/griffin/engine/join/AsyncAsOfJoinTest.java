@@ -0,0 +1,277 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.join;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Chars;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncAsOfJoinTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 1);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED, "true");
+        super.setUp();
+    }
+
+    @Test
+    public void testAsOfJoinFilteredSlaveFallsBackToSerialJoin() throws Exception {
+        testParallelAsOfJoin(
+                "select m.ts, m.key, m.val, s.ts, s.val from m asof join (s where val > 0.5) s on key",
+                false,
+                7
+        );
+    }
+
+    @Test
+    public void testAsOfJoinHighCardinalityKey() throws Exception {
+        // Sparse keys make the lookup scan slave rows back across time frames.
+        testParallelAsOfJoin(
+                "select m.ts, m.ik, m.val, s.ts, s.ik, s.val from m asof join s on (ik)",
+                true,
+                500
+        );
+    }
+
+    @Test
+    public void testAsOfJoinMultipleKeys() throws Exception {
+        testParallelAsOfJoin(
+                "select m.ts, m.key, m.str, s.ts, s.key, s.str, s.val from m asof join s on (key, str)",
+                true,
+                20
+        );
+    }
+
+    @Test
+    public void testAsOfJoinNoKey() throws Exception {
+        testParallelAsOfJoin(
+                "select m.ts, m.val, s.ts, s.val from m asof join s",
+                true,
+                5
+        );
+    }
+
+    @Test
+    public void testAsOfJoinNoKeyTolerance() throws Exception {
+        testParallelAsOfJoin(
+                "select m.ts, m.val, s.ts, s.val from m asof join s tolerance 1s",
+                true,
+                5
+        );
+    }
+
+    @Test
+    public void testAsOfJoinSymbolKey() throws Exception {
+        testParallelAsOfJoin(
+                "select m.ts, m.key, m.val, s.ts, s.key, s.val from m asof join s on key",
+                true,
+                7
+        );
+    }
+
+    @Test
+    public void testAsOfJoinSymbolKeyHighCardinality() throws Exception {
+        // Master and slave symbol keys differ, so workers compare them as strings.
+        testParallelAsOfJoin(
+                "select m.ts, m.key, m.val, s.ts, s.key, s.val from m asof join s on key",
+                true,
+                500
+        );
+    }
+
+    @Test
+    public void testAsOfJoinSymbolKeyTolerance() throws Exception {
+        testParallelAsOfJoin(
+                "select m.ts, m.key, m.val, s.ts, s.key, s.val from m asof join s on key tolerance 3s",
+                true,
+                50
+        );
+    }
+
+    @Test
+    public void testLtJoinKey() throws Exception {
+        testParallelAsOfJoin(
+                "select m.ts, m.key, m.val, s.ts, s.key, s.val from m lt join s on key",
+                true,
+                7
+        );
+    }
+
+    @Test
+    public void testLtJoinNoKey() throws Exception {
+        testParallelAsOfJoin(
+                "select m.ts, m.val, s.ts, s.val from m lt join s",
+                true,
+                5
+        );
+    }
+
+    @Test
+    public void testLtJoinNoKeyTolerance() throws Exception {
+        testParallelAsOfJoin(
+                "select m.ts, m.val, s.ts, s.val from m lt join s tolerance 1s",
+                true,
+                5
+        );
+    }
+
+    @Test
+    public void testRepeatedExecution() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTables(engine, sqlExecutionContext, 100);
+                        final String query = "select m.ts, m.key, s.ts, s.val from m asof join s on (ik)";
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelAsOfJoinEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelAsOfJoinEnabled(true);
+                        for (int i = 0; i < 3; i++) {
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testRepeatedExecutionSymbolKey() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTables(engine, sqlExecutionContext, 300);
+                        final String query = "select m.ts, m.key, s.ts, s.key, s.val from m lt join s on key";
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelAsOfJoinEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelAsOfJoinEnabled(true);
+                        for (int i = 0; i < 5; i++) {
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    private static void createTables(CairoEngine engine, SqlExecutionContext sqlExecutionContext, int keyCount) throws SqlException {
+        // Master rows start before the first slave row and share some of the slave timestamps.
+        engine.execute(
+                "create table m as (" +
+                        "select timestamp_sequence(0, 1000000) ts," +
+                        " rnd_symbol(" + symbols(keyCount) + ") key," +
+                        " (x % " + keyCount + ")::int ik," +
+                        " 's' || (x % " + keyCount + ") str," +
+                        " rnd_double() val" +
+                        " from long_sequence(" + (ROW_COUNT / 10) + ")" +
+                        ") timestamp(ts) partition by minute",
+                sqlExecutionContext
+        );
+        // Slave rows come in pairs with the same timestamp.
+        engine.execute(
+                "create table s as (" +
+                        "select (10000000 + (x / 2) * 200000)::timestamp ts," +
+                        " rnd_symbol(" + symbols(keyCount) + ") key," +
+                        " rnd_int(0, " + (keyCount - 1) + ", 0) ik," +
+                        " rnd_str(" + strings(keyCount) + ") str," +
+                        " rnd_double() val" +
+                        " from long_sequence(" + (ROW_COUNT / 2) + ")" +
+                        ") timestamp(ts) partition by minute",
+                sqlExecutionContext
+        );
+    }
+
+    private static String strings(int keyCount) {
+        final StringSink sink = new StringSink();
+        for (int i = 0; i < keyCount; i++) {
+            if (i > 0) {
+                sink.put(',');
+            }
+            sink.put("'s").put(i).put('\'');
+        }
+        return sink.toString();
+    }
+
+    private static String symbols(int keyCount) {
+        final StringSink sink = new StringSink();
+        for (int i = 0; i < keyCount; i++) {
+            if (i > 0) {
+                sink.put(',');
+            }
+            sink.put("'k").put(i).put('\'');
+        }
+        return sink.toString();
+    }
+
+    private void testParallelAsOfJoin(String query, boolean expectParallelJoin, int keyCount) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTables(engine, sqlExecutionContext, keyCount);
+
+                        final StringSink plan = new StringSink();
+                        TestUtils.printSql(engine, sqlExecutionContext, "explain " + query, plan);
+                        Assert.assertEquals(expectParallelJoin, Chars.contains(plan, "Async AsOf Join") || Chars.contains(plan, "Async Lt Join"));
+
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelAsOfJoinEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelAsOfJoinEnabled(true);
+                        TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.join;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Chars;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncHashJoinTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        // Set the sharding threshold to a small value to test sharding.
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_SHARDING_THRESHOLD, 10);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 1);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, "true");
+        super.setUp();
+    }
+
+    @Test
+    public void testFilteredSlaveFallsBackToSerialBuild() throws Exception {
+        testParallelHashJoin(
+                "select m.ts, m.key, m.val, s.ts, s.val from m join (s where val > 0.5) s on key order by m.ts, s.ts",
+                false,
+                7
+        );
+    }
+
+    @Test
+    public void testHighCardinalityIntKey() throws Exception {
+        // Lots of keys force the partial hash tables to be sharded.
+        testParallelHashJoin(
+                "select m.ts, m.key, m.val, s.ts, s.val from m join s on (ik) order by m.ts, s.ts",
+                true,
+                500
+        );
+    }
+
+    @Test
+    public void testHighCardinalityStringKey() throws Exception {
+        testParallelHashJoin(
+                "select m.ts, m.str, s.ts, s.val from m join s on (str) order by m.ts, s.ts",
+                true,
+                500
+        );
+    }
+
+    @Test
+    public void testJoinSize() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTables(engine, sqlExecutionContext, 5);
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelHashJoinEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, "select count(*) from (m join s on key)", expected);
+                        sqlExecutionContext.setParallelHashJoinEnabled(true);
+                        TestUtils.assertSql(engine, sqlExecutionContext, "select count(*) from (m join s on key)", sink, expected);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testLowCardinalitySymbolKey() throws Exception {
+        // Few keys mean that the partial hash tables stay small and are merged by the query thread.
+        // The join produces lots of rows, so we aggregate them.
+        testParallelHashJoin(
+                "select m.key, count(*), sum(s.ik), min(s.ts), max(s.ts) from m join s on key order by m.key",
+                true,
+                3
+        );
+    }
+
+    @Test
+    public void testMultipleKeys() throws Exception {
+        testParallelHashJoin(
+                "select m.ts, m.key, m.ik, s.ts, s.key, s.val from m join s on (key, ik) order by m.ts, s.ts",
+                true,
+                20
+        );
+    }
+
+    @Test
+    public void testRepeatedExecution() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTables(engine, sqlExecutionContext, 100);
+                        final String query = "select m.ts, m.key, s.ts, s.val from m join s on (ik) order by m.ts, s.ts";
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelHashJoinEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelHashJoinEnabled(true);
+                        // Sharded state from the previous run is reused by the next one.
+                        for (int i = 0; i < 3; i++) {
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    private static void createTables(CairoEngine engine, SqlExecutionContext sqlExecutionContext, int keyCount) throws SqlException {
+        engine.execute(
+                "create table m as (" +
+                        "select timestamp_sequence(0, 1000000) ts," +
+                        " rnd_symbol(" + symbols(keyCount) + ") key," +
+                        " (x % " + keyCount + ")::int ik," +
+                        " 's' || (x % " + keyCount + ") str," +
+                        " rnd_double() val" +
+                        " from long_sequence(" + (ROW_COUNT / 10) + ")" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+        engine.execute(
+                "create table s as (" +
+                        "select timestamp_sequence(0, 100000) ts," +
+                        " rnd_symbol(" + symbols(keyCount) + ") key," +
+                        " (x % " + keyCount + ")::int ik," +
+                        " 's' || (x % " + keyCount + ") str," +
+                        " rnd_double() val" +
+                        " from long_sequence(" + ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private static String symbols(int keyCount) {
+        final StringSink sink = new StringSink();
+        for (int i = 0; i < keyCount; i++) {
+            if (i > 0) {
+                sink.put(',');
+            }
+            sink.put("'k").put(i).put('\'');
+        }
+        return sink.toString();
+    }
+
+    private void testParallelHashJoin(String query, boolean expectParallelBuild, int keyCount) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTables(engine, sqlExecutionContext, keyCount);
+
+                        final StringSink plan = new StringSink();
+                        TestUtils.printSql(engine, sqlExecutionContext, "explain " + query, plan);
+                        Assert.assertEquals(expectParallelBuild, Chars.contains(plan, "Async Hash Join Light"));
+
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelHashJoinEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelHashJoinEnabled(true);
+                        TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.join;
+
+import io.questdb.griffin.engine.join.LinkedLongChain;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Rnd;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static io.questdb.test.tools.TestUtils.assertMemoryLeak;
+
+public class LinkedLongChainTest {
+
+    @Test
+    public void testLinkChains() throws Exception {
+        assertMemoryLeak(() -> {
+            final int nChains = 4;
+            final ObjList<LinkedLongChain> chains = new ObjList<>();
+            try {
+                for (int i = 0; i < nChains; i++) {
+                    chains.add(new LinkedLongChain(i, 1024, Integer.MAX_VALUE));
+                }
+
+                final Rnd rnd = new Rnd();
+                final LongList expected = new LongList();
+                long mergedTail = -1;
+                long mergedHead = -1;
+                for (int i = 0; i < nChains; i++) {
+                    final LinkedLongChain chain = chains.getQuick(i);
+                    final LongList chainValues = new LongList();
+                    long tail = -1;
+                    long head = -1;
+                    for (int j = 0; j < 1000; j++) {
+                        final long value = rnd.nextLong();
+                        tail = chain.put(value, tail);
+                        if (head == -1) {
+                            head = tail;
+                        }
+                        chainValues.add(value);
+                    }
+                    Assert.assertEquals(i, LinkedLongChain.chainIndexOf(tail));
+                    // values of a single chain are expected in reverse order
+                    chainValues.reverse();
+                    expected.addAll(chainValues);
+
+                    // link the chain after the already linked ones
+                    if (mergedTail == -1) {
+                        mergedTail = tail;
+                    } else {
+                        chains.getQuick(LinkedLongChain.chainIndexOf(mergedHead)).setParentRef(mergedHead, tail);
+                    }
+                    mergedHead = head;
+                }
+
+                int count = 0;
+                long ref = mergedTail;
+                while (ref != -1) {
+                    final LinkedLongChain chain = chains.getQuick(LinkedLongChain.chainIndexOf(ref));
+                    Assert.assertEquals(expected.getQuick(count++), chain.getValue(ref));
+                    ref = chain.getParentRef(ref);
+                }
+                Assert.assertEquals(expected.size(), count);
+            } finally {
+                Misc.freeObjList(chains);
+            }
+        });
+    }
+}
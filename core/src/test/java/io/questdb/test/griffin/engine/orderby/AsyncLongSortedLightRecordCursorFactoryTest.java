@@ -0,0 +1,182 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.orderby;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Chars;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+public class AsyncLongSortedLightRecordCursorFactoryTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 1);
+        // Radix sort is stable, so rows with equal values keep the same order in both sorts.
+        setProperty(PropertyKey.CAIRO_SQL_ORDER_BY_RADIX_SORT_THRESHOLD, 0);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, "true");
+        super.setUp();
+    }
+
+    @Test
+    public void testDateDesc() throws Exception {
+        testParallelSort("select * from x order by d desc", true);
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        testParallelSort("select * from x where ts < 0 order by l", true);
+    }
+
+    @Test
+    public void testFilteredBaseFallsBackToSerialSort() throws Exception {
+        testParallelSort("select * from x where i > 0 order by l", false);
+    }
+
+    @Test
+    public void testIPv4() throws Exception {
+        testParallelSort("select * from x order by ip", true);
+    }
+
+    @Test
+    public void testIntAsc() throws Exception {
+        testParallelSort("select * from x order by i", true);
+    }
+
+    @Test
+    public void testIntDesc() throws Exception {
+        testParallelSort("select * from x order by i desc", true);
+    }
+
+    @Test
+    public void testLongAsc() throws Exception {
+        testParallelSort("select * from x order by l", true);
+    }
+
+    @Test
+    public void testLongDesc() throws Exception {
+        testParallelSort("select * from x order by l desc", true);
+    }
+
+    @Test
+    public void testRepeatedExecution() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTable(engine, sqlExecutionContext);
+                        final String query = "select * from x order by ts2 desc";
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelOrderByEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelOrderByEnabled(true);
+                        for (int i = 0; i < 3; i++) {
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testSpill() throws Exception {
+        // Keep sorted runs of every query in a spill file.
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_SPILL_THRESHOLD, 1);
+        testParallelSort("select * from x order by l desc", true);
+        // spill files are removed once the cursor is closed
+        final String[] spillFiles = new File(configuration.getGroupBySpillRoot().toString()).list((dir, name) -> name.startsWith("orderby-"));
+        Assert.assertTrue(spillFiles == null || spillFiles.length == 0);
+    }
+
+    @Test
+    public void testSymbolColumnsInOutput() throws Exception {
+        testParallelSort("select sym, l from x order by l", true);
+    }
+
+    @Test
+    public void testTimestampAsc() throws Exception {
+        testParallelSort("select * from x order by ts2", true);
+    }
+
+    private static void createTable(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        engine.execute(
+                "create table x as (" +
+                        "select timestamp_sequence(0, 1000000) ts," +
+                        " rnd_int(0, 100, 2) i," +
+                        " rnd_long(-1000000, 1000000, 2) l," +
+                        " rnd_timestamp(0, 100000000, 2) ts2," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) d," +
+                        " rnd_ipv4() ip," +
+                        " rnd_symbol('a','b','c',null) sym" +
+                        " from long_sequence(" + ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void testParallelSort(String query, boolean expectParallelSort) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTable(engine, sqlExecutionContext);
+
+                        final StringSink plan = new StringSink();
+                        TestUtils.printSql(engine, sqlExecutionContext, "explain " + query, plan);
+                        Assert.assertEquals(expectParallelSort, Chars.contains(plan, "Async Radix sort light"));
+
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelOrderByEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelOrderByEnabled(true);
+                        TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
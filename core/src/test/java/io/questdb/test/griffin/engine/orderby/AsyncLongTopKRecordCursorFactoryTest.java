@@ -0,0 +1,190 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.orderby;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Chars;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncLongTopKRecordCursorFactoryTest extends AbstractCairoTest {
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 100;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WORK_STEALING_THRESHOLD, 1);
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_ENABLED, "true");
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ORDER_BY_TOP_K_MAX_LIMIT, 1000);
+        super.setUp();
+    }
+
+    @Test
+    public void testDateDesc() throws Exception {
+        testParallelTopK("select * from x order by d desc limit 10", true);
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        testParallelTopK("select * from x where ts < 0 order by l limit 10", true);
+    }
+
+    @Test
+    public void testFilteredBaseFallsBackToSerialTopK() throws Exception {
+        testParallelTopK("select * from x where i > 0 order by l limit 10", false);
+    }
+
+    @Test
+    public void testIPv4() throws Exception {
+        testParallelTopK("select * from x order by ip limit 10", true);
+    }
+
+    @Test
+    public void testIntAscWithDuplicates() throws Exception {
+        // equal values must keep the scan order, just like in the single-threaded top K
+        testParallelTopK("select * from x order by i limit 100", true);
+    }
+
+    @Test
+    public void testIntDescWithDuplicates() throws Exception {
+        testParallelTopK("select * from x order by i desc limit 100", true);
+    }
+
+    @Test
+    public void testLimitAboveMaxFallsBackToSerialTopK() throws Exception {
+        testParallelTopK("select * from x order by l limit 1001", false);
+    }
+
+    @Test
+    public void testLimitAboveRowCount() throws Exception {
+        testParallelTopK("select * from x where ts < 100000000 order by l desc limit 1000", true);
+    }
+
+    @Test
+    public void testLongAsc() throws Exception {
+        testParallelTopK("select * from x order by l limit 42", true);
+    }
+
+    @Test
+    public void testLongDesc() throws Exception {
+        testParallelTopK("select * from x order by l desc limit 42", true);
+    }
+
+    @Test
+    public void testNegativeLimitFallsBackToSerialTopK() throws Exception {
+        testParallelTopK("select * from x order by l limit -10", false);
+    }
+
+    @Test
+    public void testRangeLimitFallsBackToSerialTopK() throws Exception {
+        testParallelTopK("select * from x order by l limit 10, 20", false);
+    }
+
+    @Test
+    public void testRepeatedExecution() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTable(engine, sqlExecutionContext);
+                        final String query = "select * from x order by ts2 desc limit 25";
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelOrderByEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelOrderByEnabled(true);
+                        for (int i = 0; i < 3; i++) {
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testSymbolColumnsInOutput() throws Exception {
+        testParallelTopK("select sym, l from x order by l limit 10", true);
+    }
+
+    @Test
+    public void testTimestampAsc() throws Exception {
+        testParallelTopK("select * from x order by ts2 limit 10", true);
+    }
+
+    private static void createTable(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        engine.execute(
+                "create table x as (" +
+                        "select timestamp_sequence(0, 1000000) ts," +
+                        " rnd_int(0, 100, 2) i," +
+                        " rnd_long(-1000000, 1000000, 2) l," +
+                        " rnd_timestamp(0, 100000000, 2) ts2," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) d," +
+                        " rnd_ipv4() ip," +
+                        " rnd_symbol('a','b','c',null) sym" +
+                        " from long_sequence(" + ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void testParallelTopK(String query, boolean expectParallelTopK) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTable(engine, sqlExecutionContext);
+
+                        final StringSink plan = new StringSink();
+                        TestUtils.printSql(engine, sqlExecutionContext, "explain " + query, plan);
+                        Assert.assertEquals(expectParallelTopK, Chars.contains(plan, "Async Top K"));
+
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelOrderByEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelOrderByEnabled(true);
+                        TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -1232,6 +1232,11 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractCairoTest {
             return sqlExecutionContext.isColumnPreTouchEnabledOverride();
         }
 
+        @Override
+        public boolean isParallelAsOfJoinEnabled() {
+            return sqlExecutionContext.isParallelAsOfJoinEnabled();
+        }
+
         @Override
         public boolean isParallelFilterEnabled() {
             return sqlExecutionContext.isParallelFilterEnabled();
@@ -1242,6 +1247,21 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractCairoTest {
             return sqlExecutionContext.isParallelGroupByEnabled();
         }
 
+        @Override
+        public boolean isParallelHashJoinEnabled() {
+            return sqlExecutionContext.isParallelHashJoinEnabled();
+        }
+
+        @Override
+        public boolean isParallelOrderByEnabled() {
+            return sqlExecutionContext.isParallelOrderByEnabled();
+        }
+
+        @Override
+        public boolean isParallelWindowEnabled() {
+            return sqlExecutionContext.isParallelWindowEnabled();
+        }
+
         @Override
         public boolean isParallelReadParquetEnabled() {
             return sqlExecutionContext.isParallelReadParquetEnabled();
@@ -1312,6 +1332,11 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractCairoTest {
             sqlExecutionContext.setNowAndFixClock(now);
         }
 
+        @Override
+        public void setParallelAsOfJoinEnabled(boolean parallelAsOfJoinEnabled) {
+            sqlExecutionContext.setParallelAsOfJoinEnabled(parallelAsOfJoinEnabled);
+        }
+
         @Override
         public void setParallelFilterEnabled(boolean parallelFilterEnabled) {
             sqlExecutionContext.setParallelFilterEnabled(parallelFilterEnabled);
@@ -1322,6 +1347,21 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractCairoTest {
             sqlExecutionContext.setParallelGroupByEnabled(parallelGroupByEnabled);
         }
 
+        @Override
+        public void setParallelHashJoinEnabled(boolean parallelHashJoinEnabled) {
+            sqlExecutionContext.setParallelHashJoinEnabled(parallelHashJoinEnabled);
+        }
+
+        @Override
+        public void setParallelOrderByEnabled(boolean parallelOrderByEnabled) {
+            sqlExecutionContext.setParallelOrderByEnabled(parallelOrderByEnabled);
+        }
+
+        @Override
+        public void setParallelWindowEnabled(boolean parallelWindowEnabled) {
+            sqlExecutionContext.setParallelWindowEnabled(parallelWindowEnabled);
+        }
+
         @Override
         public void setParallelReadParquetEnabled(boolean parallelReadParquetEnabled) {
             sqlExecutionContext.setParallelReadParquetEnabled(parallelReadParquetEnabled);
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.table;
+
+import io.questdb.PropertyKey;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DataSkippingFilterTest extends AbstractCairoTest {
+    // each pair holds a filter that may use zone maps and its equivalent that can't
+    private static final String[][] FILTERS = {
+            {"id = 1000", "id + 0 = 1000"},
+            {"id < 15", "id + 0 < 15"},
+            {"15 > id", "15 > id + 0"},
+            {"id >= 95", "id + 0 >= 95"},
+            {"id between 33 and 37", "id + 0 between 33 and 37"},
+            {"id between 37 and 33", "id + 0 between 37 and 33"},
+            {"id in (5, 55, 99)", "id + 0 in (5, 55, 99)"},
+            {"i <= 11", "i + 0 <= 11"},
+            {"i = 42 or i = 84", "i + 0 = 42 or i + 0 = 84"},
+            {"i = null", "i + 0 = null"},
+            {"d > 47.5", "d + 0 > 47.5"},
+            {"d <= 3", "d + 0 <= 3"},
+            {"id > 7.5 and id < 12.5", "id + 0 > 7.5 and id + 0 < 12.5"},
+            {"id > 80 and d < 45", "id + 0 > 80 and d + 0 < 45"},
+            {"dt > 70::date", "dt::long > 70"},
+    };
+    private static final String[][] FILTERS_ADDED_COLUMN = {
+            {"j > 150", "j + 0 > 150"},
+            {"j < 150", "j + 0 < 150"},
+            {"j = null", "j + 0 = null"},
+            {"j > 150 and id > 180", "j + 0 > 150 and id + 0 > 180"},
+    };
+
+    @Override
+    @Before
+    public void setUp() {
+        node1.setProperty(PropertyKey.CAIRO_SQL_ZONE_MAP_BLOCK_ROWS, 8);
+        node1.setProperty(PropertyKey.CAIRO_SQL_BLOOM_FILTER_BITS_PER_VALUE, 10);
+        node1.setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 4);
+        node1.setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 20);
+        super.setUp();
+    }
+
+    @Test
+    public void testBindVariables() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+
+            bindVariableService.clear();
+            bindVariableService.setLong(0, 67);
+            assertSql(
+                    "id\n" +
+                            "67\n",
+                    "select id from x where id = $1"
+            );
+            bindVariableService.setLong(0, 13);
+            assertSql(
+                    "id\n" +
+                            "13\n",
+                    "select id from x where id = $1"
+            );
+            bindVariableService.setLong(0, Long.MIN_VALUE);
+            assertSql(
+                    "id\n",
+                    "select id from x where id = $1"
+            );
+        });
+    }
+
+    @Test
+    public void testBloomFilters() throws Exception {
+        assertMemoryLeak(() -> {
+            // ids are scattered, so min/max zone maps can't help
+            execute(
+                    "create table z as (\n" +
+                            "  select x * 2654435761 % 1000003 id, ('v' || (x * 7919 % 1000))::varchar v,\n" +
+                            "    timestamp_sequence(0, 1800000000) ts\n" +
+                            "  from long_sequence(200)\n" +
+                            ") timestamp(ts) partition by day;"
+            );
+            final long id1 = 42 * 2654435761L % 1000003;
+            final long id2 = 142 * 2654435761L % 1000003;
+            final String v1 = "v" + (42 * 7919 % 1000);
+            final String v2 = "v" + (199 * 7919 % 1000);
+            assertSql(
+                    "id\tv\n" +
+                            id1 + "\t" + v1 + "\n",
+                    "select id, v from z where id = " + id1
+            );
+
+            final String[][] filters = {
+                    {"id = " + id1, "id + 0 = " + id1},
+                    {"id = 1", "id + 0 = 1"},
+                    {"id in (" + id1 + ", " + id2 + ", 7)", "id + 0 in (" + id1 + ", " + id2 + ", 7)"},
+                    {"v = '" + v1 + "'", "v::string = '" + v1 + "'"},
+                    {"v = 'foo'", "v::string = 'foo'"},
+                    {"v in ('" + v1 + "', '" + v2 + "')", "v::string in ('" + v1 + "', '" + v2 + "')"},
+                    {"v = '" + v1 + "' and id = " + id2, "v::string = '" + v1 + "' and id + 0 = " + id2},
+            };
+            for (String[] filter : filters) {
+                assertSqlCursors("z where " + filter[1], "z where " + filter[0]);
+                assertSqlCursors("z where " + filter[1] + " order by ts desc", "z where " + filter[0] + " order by ts desc");
+            }
+
+            // appended rows have to be added to the filters of the last partition
+            execute("insert into z values (1, 'foo', '1970-01-05T01')");
+            execute("insert into z values (2, null, '1970-01-05T02')");
+            for (String[] filter : filters) {
+                assertSqlCursors("z where " + filter[1], "z where " + filter[0]);
+            }
+            assertSql(
+                    "id\tv\n" +
+                            "1\tfoo\n",
+                    "select id, v from z where v = 'foo'"
+            );
+        });
+    }
+
+    @Test
+    public void testColumnUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql(
+                    "id\ti\n",
+                    "select id, i from x where i = 1000"
+            );
+
+            // the zone maps built by the above query have to be rebuilt
+            execute("update x set i = 1000 where id = 5");
+            assertSql(
+                    "id\ti\n" +
+                            "5\t1000\n",
+                    "select id, i from x where i = 1000"
+            );
+        });
+    }
+
+    @Test
+    public void testFilters() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql(
+                    "id\ti\td\n" +
+                            "42\t42\t21.0\n",
+                    "select id, i, d from x where id = 42"
+            );
+            assertSql(
+                    "id\n" +
+                            "100\n" +
+                            "99\n" +
+                            "98\n" +
+                            "97\n",
+                    "select id from x where i > 96 order by ts desc"
+            );
+            assertFilters(FILTERS);
+
+            // new column has column tops in the existing partitions
+            execute("alter table x add column j long");
+            execute(
+                    "insert into x (id, i, d, dt, ts, j)\n" +
+                            "  select 100 + x, (100 + x)::int, (100 + x) * 0.5, (100 + x)::date, 360000000000 + x * 1000000, 100 + x\n" +
+                            "  from long_sequence(100)"
+            );
+            assertFilters(FILTERS);
+            assertFilters(FILTERS_ADDED_COLUMN);
+
+            // the zone maps built so far have to be extended to cover appended rows
+            execute(
+                    "insert into x (id, i, d, dt, ts, j)\n" +
+                            "  select 200 + x, (200 + x)::int, (200 + x) * 0.5, (200 + x)::date, 370000000000 + x * 1000000, 200 + x\n" +
+                            "  from long_sequence(30)"
+            );
+            assertFilters(FILTERS);
+            assertFilters(FILTERS_ADDED_COLUMN);
+            assertSql(
+                    "count\n" +
+                            "30\n",
+                    "select count() from x where j > 200"
+            );
+        });
+    }
+
+    private void assertFilters(String[][] filters) throws Exception {
+        for (String[] filter : filters) {
+            assertSqlCursors("x where " + filter[1], "x where " + filter[0]);
+            assertSqlCursors("x where " + filter[1] + " order by ts desc", "x where " + filter[0] + " order by ts desc");
+        }
+    }
+
+    private void createTable() throws Exception {
+        execute(
+                "create table x as (\n" +
+                        "  select x id, case when x % 7 = 0 then null else x::int end i,\n" +
+                        "    case when x % 11 = 0 then null else x * 0.5 end d, x::date dt,\n" +
+                        "    timestamp_sequence(0, 1800000000) ts\n" +
+                        "  from long_sequence(100)\n" +
+                        ") timestamp(ts) partition by day;"
+        );
+    }
+}
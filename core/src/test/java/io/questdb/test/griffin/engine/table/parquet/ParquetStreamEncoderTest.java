@@ -0,0 +1,260 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.table.parquet;
+
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.cairo.sql.PageFrameAddressCache;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.PageFrameMemory;
+import io.questdb.cairo.sql.PageFrameMemoryPool;
+import io.questdb.cairo.sql.PageFrameMemoryRecord;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.table.parquet.ParquetStreamEncoder;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static io.questdb.cairo.sql.PartitionFrameCursorFactory.ORDER_ASC;
+
+public class ParquetStreamEncoderTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        inputRoot = root;
+    }
+
+    @Test
+    public void testCopyQueryMustBeSelect() throws Exception {
+        assertMemoryLeak(() -> {
+            execute("create table x (i int)");
+            assertException("copy (insert into x values (1)) to 'x.parquet'", 6, "COPY query must be a SELECT");
+        });
+    }
+
+    @Test
+    public void testCopyQueryToParquet() throws Exception {
+        assertMemoryLeak(() -> {
+            execute(
+                    "create table x as (" +
+                            "select" +
+                            " x::int i," +
+                            " case when x % 2 = 0 then null else x end l," +
+                            " case when x % 3 = 0 then null else x / 4.0 end d," +
+                            " case when x % 4 = 0 then null else 'v' || x end s," +
+                            " timestamp_sequence(0, 1000000) ts" +
+                            " from long_sequence(100)" +
+                            ")"
+            );
+            // filter forces the record cursor path
+            assertSql("rows\n50\n", "copy (select i, l, d, s::varchar s, ts from x where i % 2 = 1) to 'q.parquet'");
+            assertSqlCursors(
+                    "select i, l, d, s::varchar s, ts from x where i % 2 = 1",
+                    "select * from read_parquet('q.parquet')"
+            );
+        });
+    }
+
+    @Test
+    public void testCopyTableToParquet() throws Exception {
+        assertMemoryLeak(() -> {
+            execute(
+                    "create table x as (" +
+                            "select" +
+                            " x::int i," +
+                            " case when x % 2 = 0 then null else x end l," +
+                            " x % 2 = 0 b," +
+                            " case when x % 4 = 0 then null else ('v' || x)::varchar s," +
+                            " timestamp_sequence(0, 3600000000) ts" +
+                            " from long_sequence(100)" +
+                            ") timestamp(ts) partition by day"
+            );
+            // column top in the first partitions
+            execute("alter table x add column d double");
+            execute("insert into x (i, l, b, s, ts, d) values (101, 101, true, 'v101', '1970-01-06', 1.5)");
+
+            assertSql("rows\n101\n", "copy x to 'x.parquet'");
+            assertSqlCursors("x", "select * from read_parquet('x.parquet')");
+        });
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    RecordCursorFactory factory = select("select x from long_sequence(0)");
+                    ParquetStreamEncoder encoder = new ParquetStreamEncoder(MemoryTag.NATIVE_DEFAULT)
+            ) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                encoder.of(factory.getMetadata());
+                encoder.encodeHeader();
+                append(out, encoder);
+                encoder.encodeFooter();
+                append(out, encoder);
+                assertLayout(out.toByteArray());
+            }
+        });
+    }
+
+    @Test
+    public void testFileLayout() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    RecordCursorFactory factory = select(
+                            "select x::int i, case when x % 2 = 0 then null else x / 2.0 end d, case when x % 3 = 0 then null else 'v' || x end s" +
+                                    " from long_sequence(10)"
+                    );
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext);
+                    ParquetStreamEncoder encoder = new ParquetStreamEncoder(MemoryTag.NATIVE_DEFAULT)
+            ) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                encoder.of(factory.getMetadata());
+                encoder.encodeHeader();
+                append(out, encoder);
+                encoder.startBatch();
+                while (cursor.hasNext()) {
+                    encoder.appendRecord(cursor.getRecord());
+                }
+                Assert.assertEquals(10, encoder.getBatchRowCount());
+                encoder.encodeBatch();
+                append(out, encoder);
+                encoder.encodeFooter();
+                append(out, encoder);
+
+                final byte[] bytes = out.toByteArray();
+                assertLayout(bytes);
+                // the first column chunk starts with a data page header: type = DATA_PAGE
+                Assert.assertEquals(0x15, bytes[4]);
+                Assert.assertEquals(0, bytes[5]);
+                // column names and created_by are in the footer
+                final String footer = new String(bytes, StandardCharsets.ISO_8859_1);
+                Assert.assertTrue(footer.contains("QuestDB"));
+                Assert.assertTrue(footer.contains("v10"));
+            }
+        });
+    }
+
+    @Test
+    public void testPageFrameRowGroupMatchesRecordRowGroup() throws Exception {
+        assertMemoryLeak(() -> {
+            execute(
+                    "create table x as (" +
+                            "select" +
+                            " x::int i," +
+                            " x::byte bt," +
+                            " case when x % 2 = 0 then null else x end l," +
+                            " case when x % 3 = 0 then null else x / 4.0 end d," +
+                            " x % 2 = 0 b," +
+                            " case when x % 4 = 0 then null else 'v' || x end s," +
+                            " rnd_symbol('a', 'b', null) sym," +
+                            " timestamp_sequence(0, 1000000) ts" +
+                            " from long_sequence(100)" +
+                            ")"
+            );
+
+            final byte[] expected;
+            try (
+                    RecordCursorFactory factory = select("x");
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext);
+                    ParquetStreamEncoder encoder = new ParquetStreamEncoder(MemoryTag.NATIVE_DEFAULT)
+            ) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                encoder.of(factory.getMetadata());
+                encoder.encodeHeader();
+                append(out, encoder);
+                encoder.startBatch();
+                while (cursor.hasNext()) {
+                    encoder.appendRecord(cursor.getRecord());
+                }
+                encoder.encodeBatch();
+                append(out, encoder);
+                encoder.encodeFooter();
+                append(out, encoder);
+                expected = out.toByteArray();
+            }
+
+            try (
+                    RecordCursorFactory factory = select("x");
+                    PageFrameCursor frameCursor = factory.getPageFrameCursor(sqlExecutionContext, ORDER_ASC);
+                    PageFrameMemoryPool frameMemoryPool = new PageFrameMemoryPool(1);
+                    PageFrameMemoryRecord record = new PageFrameMemoryRecord(PageFrameMemoryRecord.RECORD_A_LETTER);
+                    ParquetStreamEncoder encoder = new ParquetStreamEncoder(MemoryTag.NATIVE_DEFAULT)
+            ) {
+                final PageFrameAddressCache addressCache = new PageFrameAddressCache(configuration);
+                addressCache.of(factory.getMetadata(), frameCursor.getColumnIndexes());
+                frameMemoryPool.of(addressCache);
+                record.of(frameCursor);
+
+                final PageFrame frame = frameCursor.next();
+                Assert.assertNotNull(frame);
+                addressCache.add(0, frame);
+                final PageFrameMemory frameMemory = frameMemoryPool.navigateTo(0);
+                record.init(frameMemory);
+
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                encoder.of(factory.getMetadata());
+                encoder.encodeHeader();
+                append(out, encoder);
+                encoder.startBatch();
+                Assert.assertEquals(100, encoder.appendFrame(frameMemory, record, 0, frame.getPartitionHi() - frame.getPartitionLo()));
+                encoder.encodeBatch();
+                append(out, encoder);
+                encoder.encodeFooter();
+                append(out, encoder);
+                Assert.assertArrayEquals(expected, out.toByteArray());
+                Assert.assertNull(frameCursor.next());
+            }
+        });
+    }
+
+    private static void append(ByteArrayOutputStream out, ParquetStreamEncoder encoder) {
+        for (int i = 0, n = encoder.getSegmentCount(); i < n; i++) {
+            final long address = encoder.getSegmentAddress(i);
+            for (long j = 0, len = encoder.getSegmentSize(i); j < len; j++) {
+                out.write(Unsafe.getUnsafe().getByte(address + j));
+            }
+        }
+    }
+
+    private static void assertLayout(byte[] bytes) {
+        final int n = bytes.length;
+        Assert.assertEquals("PAR1", new String(bytes, 0, 4, StandardCharsets.US_ASCII));
+        Assert.assertEquals("PAR1", new String(bytes, n - 4, 4, StandardCharsets.US_ASCII));
+        final int footerLength = ByteBuffer.wrap(bytes, n - 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        Assert.assertTrue(footerLength > 0 && footerLength <= n - 12);
+        // footer is a struct, it ends with the stop field
+        Assert.assertEquals(0, bytes[n - 9]);
+    }
+}
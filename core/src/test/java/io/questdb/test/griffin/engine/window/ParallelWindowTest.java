@@ -0,0 +1,213 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.window;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Chars;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelWindowTest extends AbstractCairoTest {
+    private static final int ROW_COUNT = 10_000;
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, "true");
+        super.setUp();
+    }
+
+    @Test
+    public void testAvgRowsFrame() throws Exception {
+        testParallelWindow(
+                "select ts, sym, avg(d) over (partition by sym order by l rows between 100 preceding and current row) from x",
+                true
+        );
+    }
+
+    @Test
+    public void testDifferentPartitionKeysFallBackToSerial() throws Exception {
+        testParallelWindow(
+                "select ts, sym, sum(d) over (partition by sym order by l rows 10 preceding)," +
+                        " sum(d) over (partition by sym2 order by l rows 10 preceding) from x",
+                false
+        );
+    }
+
+    @Test
+    public void testLag() throws Exception {
+        testParallelWindow(
+                "select ts, sym, l, lag(d) over (partition by sym order by l), lead(d, 2) over (partition by sym order by l) from x",
+                true
+        );
+    }
+
+    @Test
+    public void testMultipleFunctionsSharingPartition() throws Exception {
+        testParallelWindow(
+                "select ts, sym, sym2," +
+                        " sum(d) over (partition by sym, sym2 order by l rows between unbounded preceding and current row)," +
+                        " max(d) over (partition by sym, sym2 order by l rows between 5 preceding and current row)," +
+                        " first_value(d) over (partition by sym, sym2 order by l)" +
+                        " from x",
+                true
+        );
+    }
+
+    @Test
+    public void testNonPartitionedFunctionFallsBackToSerial() throws Exception {
+        testParallelWindow(
+                "select ts, sym, avg(d) over (order by l rows 10 preceding) from x",
+                false
+        );
+    }
+
+    @Test
+    public void testOrderByTimestamp() throws Exception {
+        testParallelWindow(
+                "select ts, sym, sum(d) over (partition by sym order by ts)," +
+                        " avg(d) over (partition by sym order by ts rows 10 preceding) from x",
+                true
+        );
+    }
+
+    @Test
+    public void testOrderByTimestampDesc() throws Exception {
+        testParallelWindow(
+                "select ts, sym, sum(d) over (partition by sym order by ts desc)," +
+                        " first_value(d) over (partition by sym order by ts desc) from x",
+                true
+        );
+    }
+
+    @Test
+    public void testOrderByTimestampRepeatedExecution() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTable(engine, sqlExecutionContext);
+                        final String query = "select ts, sym, sum(d) over (partition by sym order by ts) from x";
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelWindowEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelWindowEnabled(true);
+                        for (int i = 0; i < 3; i++) {
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testRankFallsBackToSerial() throws Exception {
+        testParallelWindow(
+                "select ts, sym, l, rank() over (partition by sym order by l) from x",
+                false
+        );
+    }
+
+    @Test
+    public void testRepeatedExecution() throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTable(engine, sqlExecutionContext);
+                        final String query = "select ts, sym, avg(d) over (partition by sym order by l desc rows 20 preceding) from x";
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelWindowEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelWindowEnabled(true);
+                        for (int i = 0; i < 3; i++) {
+                            TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testSerialAndParallelGroups() throws Exception {
+        testParallelWindow(
+                "select ts, sym, sum(d) over (partition by sym order by l rows 10 preceding)," +
+                        " row_number() over (partition by sym order by ts desc) from x",
+                true
+        );
+    }
+
+    private static void createTable(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        engine.execute(
+                "create table x as (" +
+                        "select timestamp_sequence(0, 1000000) ts," +
+                        " rnd_symbol('a','b','c','d','e','f','g',null) sym," +
+                        " rnd_symbol('x','y','z') sym2," +
+                        " rnd_long(0, 100, 2) l," +
+                        " rnd_double(2) d" +
+                        " from long_sequence(" + ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void testParallelWindow(String query, boolean expectParallel) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        createTable(engine, sqlExecutionContext);
+
+                        final StringSink plan = new StringSink();
+                        TestUtils.printSql(engine, sqlExecutionContext, "explain " + query, plan);
+                        Assert.assertEquals(plan.toString(), expectParallel, Chars.contains(plan, "workers:"));
+
+                        final StringSink expected = new StringSink();
+                        sqlExecutionContext.setParallelWindowEnabled(false);
+                        TestUtils.printSql(engine, sqlExecutionContext, query, expected);
+                        sqlExecutionContext.setParallelWindowEnabled(true);
+                        TestUtils.assertSql(engine, sqlExecutionContext, query, sink, expected);
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+}
@@ -210,6 +210,51 @@ public class WindowFunctionTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testCachedWindowOrderedByTimestampOppositeToScan() throws Exception {
+        assertMemoryLeak(() -> {
+            execute(
+                    "create table x as (" +
+                            "select timestamp_sequence(1000000, 1000000) ts, case when x % 2 = 0 then 'b' else 'a' end sym, x::double d " +
+                            "from long_sequence(6)" +
+                            ") timestamp(ts) partition by day"
+            );
+
+            // base is scanned backward, so the window is evaluated over the record chain in reverse
+            assertQueryNoLeakCheck(
+                    "ts\tsym\td\tavg\tlead\n" +
+                            "1970-01-01T00:00:06.000000Z\tb\t6.0\t4.0\tnull\n" +
+                            "1970-01-01T00:00:05.000000Z\ta\t5.0\t3.0\tnull\n" +
+                            "1970-01-01T00:00:04.000000Z\tb\t4.0\t3.0\t6.0\n" +
+                            "1970-01-01T00:00:03.000000Z\ta\t3.0\t2.0\t5.0\n" +
+                            "1970-01-01T00:00:02.000000Z\tb\t2.0\t2.0\t4.0\n" +
+                            "1970-01-01T00:00:01.000000Z\ta\t1.0\t1.0\t3.0\n",
+                    "select ts, sym, d, " +
+                            "avg(d) over (partition by sym order by ts rows 2 preceding), " +
+                            "lead(d) over (partition by sym order by ts) " +
+                            "from x order by ts desc",
+                    "ts###desc",
+                    true,
+                    false
+            );
+
+            // lead() walks the rows backward, so the forward scan is evaluated in reverse
+            assertQueryNoLeakCheck(
+                    "ts\tsym\td\tlead\n" +
+                            "1970-01-01T00:00:01.000000Z\ta\t1.0\t3.0\n" +
+                            "1970-01-01T00:00:02.000000Z\tb\t2.0\t4.0\n" +
+                            "1970-01-01T00:00:03.000000Z\ta\t3.0\t5.0\n" +
+                            "1970-01-01T00:00:04.000000Z\tb\t4.0\t6.0\n" +
+                            "1970-01-01T00:00:05.000000Z\ta\t5.0\tnull\n" +
+                            "1970-01-01T00:00:06.000000Z\tb\t6.0\tnull\n",
+                    "select ts, sym, d, lead(d) over (partition by sym order by ts) from x",
+                    "ts",
+                    true,
+                    false
+            );
+        });
+    }
+
     @Test
     public void testFrameFunctionDoesNotAcceptFollowingInNonDefaultFrameDefinition() throws Exception {
         assertMemoryLeak(() -> {